@@ -0,0 +1,292 @@
+package com.github.btrekkie.graph;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable undirected graph whose vertices are the integers 0 through vertexCount() - 1, stored in compressed
+ * sparse row form.  The vertices adjacent to vertex V are neighbors[offsets[V]] through neighbors[offsets[V + 1] - 1].
+ * A CompactGraph uses a small fraction of the memory of an equivalent Graph or MultiGraph, so it is suitable for very
+ * large graphs.  A CompactGraph may contain repeated edges, but not self loops.
+ *
+ * Some algorithms run directly on a CompactGraph: PlanarityTester.isPlanar(CompactGraph),
+ * BlockNode.computeViews(CompactGraph, int), and SpqrTree.create(CompactGraph, int, int).  createComponent converts a
+ * single connected component to Vertex objects, for use with the other algorithms that operate on Graphs.
+ */
+public class CompactGraph {
+    /**
+     * The offsets into "neighbors" of the adjacency lists of the vertices.  This has vertexCount() + 1 elements, and
+     * its last element is neighbors.length.
+     */
+    private final int[] offsets;
+
+    /**
+     * The concatenation of the adjacency lists of the vertices.  Algorithms may use the indices into this array to
+     * identify the directed edges, or "half-edges", of the graph.
+     */
+    private final int[] neighbors;
+
+    /**
+     * Constructs a new CompactGraph.  The caller must not modify the arrays after calling this constructor.
+     * @param offsets The offsets into "neighbors" of the adjacency lists of the vertices, followed by
+     *     neighbors.length.  This must be non-decreasing.
+     * @param neighbors The concatenation of the adjacency lists of the vertices.  If vertex V appears in the adjacency
+     *     list of vertex W, then W must appear in the adjacency list of V the same number of times.  The constructor
+     *     throws an IllegalArgumentException if this is not the case.
+     */
+    public CompactGraph(int[] offsets, int[] neighbors) {
+        if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != neighbors.length) {
+            throw new IllegalArgumentException("The offsets must start at 0 and end at neighbors.length");
+        }
+        for (int i = 0; i < offsets.length - 1; i++) {
+            if (offsets[i] > offsets[i + 1]) {
+                throw new IllegalArgumentException("The offsets must be non-decreasing");
+            }
+        }
+        int vertexCount = offsets.length - 1;
+        for (int i = 0; i < vertexCount; i++) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                if (neighbors[j] < 0 || neighbors[j] >= vertexCount) {
+                    throw new IllegalArgumentException("The neighbor " + neighbors[j] + " is not a vertex");
+                } else if (neighbors[j] == i) {
+                    throw new IllegalArgumentException("Self loops are not permitted");
+                }
+            }
+        }
+        checkSymmetric(offsets, neighbors);
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+    }
+
+    /**
+     * Throws an IllegalArgumentException if the specified adjacency lists are not symmetric, i.e. if some vertex V
+     * appears in the adjacency list of some vertex W a different number of times than W appears in the adjacency list
+     * of V.  Assumes that the neighbors are valid vertex numbers.
+     * @param offsets The offsets of the adjacency lists, as in the constructor.
+     * @param neighbors The adjacency lists, as in the constructor.
+     */
+    /* We compute the adjacency lists of the transpose of the graph, which a counting sort orders by vertex number.
+     * Transposing that yields the adjacency lists of the graph itself, ordered by vertex number.  The graph is
+     * symmetric if and only if the two are equal.  This takes linear time.
+     */
+    private static void checkSymmetric(int[] offsets, int[] neighbors) {
+        // Check that each vertex's in-degree is equal to its out-degree, so that the transpose has the same offsets
+        int vertexCount = offsets.length - 1;
+        int[] positions = new int[vertexCount];
+        for (int neighbor : neighbors) {
+            positions[neighbor]++;
+        }
+        for (int i = 0; i < vertexCount; i++) {
+            if (positions[i] != offsets[i + 1] - offsets[i]) {
+                throw new IllegalArgumentException(
+                    "Vertex " + i + " appears in " + positions[i] + " adjacency lists, but its degree is " +
+                    (offsets[i + 1] - offsets[i]));
+            }
+        }
+
+        int[] transpose = new int[neighbors.length];
+        System.arraycopy(offsets, 0, positions, 0, vertexCount);
+        for (int i = 0; i < vertexCount; i++) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                transpose[positions[neighbors[j]]] = i;
+                positions[neighbors[j]]++;
+            }
+        }
+
+        int[] sortedNeighbors = new int[neighbors.length];
+        System.arraycopy(offsets, 0, positions, 0, vertexCount);
+        for (int i = 0; i < vertexCount; i++) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                sortedNeighbors[positions[transpose[j]]] = i;
+                positions[transpose[j]]++;
+            }
+        }
+
+        for (int i = 0; i < vertexCount; i++) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                if (sortedNeighbors[j] != transpose[j]) {
+                    throw new IllegalArgumentException(
+                        "The adjacency lists are not symmetric: vertex " + i + " has a different number of edges " +
+                        "to vertex " + Math.min(sortedNeighbors[j], transpose[j]) + " than vice versa");
+                }
+            }
+        }
+    }
+
+    /** Returns the number of vertices in the graph. */
+    public int vertexCount() {
+        return offsets.length - 1;
+    }
+
+    /** Returns the number of edges in the graph. */
+    public int edgeCount() {
+        return neighbors.length / 2;
+    }
+
+    /** Returns the number of edges adjacent to the specified vertex. */
+    public int degree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /** Returns the index'th vertex in the adjacency list of the specified vertex. */
+    public int neighbor(int vertex, int index) {
+        if (index < 0 || index >= degree(vertex)) {
+            throw new IndexOutOfBoundsException("Vertex " + vertex + " does not have an adjacent vertex " + index);
+        }
+        return neighbors[offsets[vertex] + index];
+    }
+
+    /**
+     * Returns the number of half-edges in the graph, i.e. the total length of the adjacency lists.  The half-edges are
+     * identified by the integers 0 through halfEdgeCount() - 1.
+     */
+    public int halfEdgeCount() {
+        return neighbors.length;
+    }
+
+    /**
+     * Returns the first half-edge leaving the specified vertex.  The half-edges leaving vertex V are offset(V) through
+     * offset(V + 1) - 1, in the same order as the adjacency list of V.  offset(vertexCount()) is halfEdgeCount().
+     */
+    public int offset(int vertex) {
+        return offsets[vertex];
+    }
+
+    /** Returns the vertex at which the specified half-edge ends. */
+    public int target(int halfEdge) {
+        return neighbors[halfEdge];
+    }
+
+    /**
+     * Returns a CompactGraph equivalent to the specified Graph.  The vertices of the result are numbered in the order
+     * of iteration over graph.vertices, and each adjacency list is in the order of iteration over Vertex.edges.
+     */
+    public static CompactGraph create(Graph graph) {
+        Map<Vertex, Integer> vertexIndices = new HashMap<Vertex, Integer>();
+        int edgeEndCount = 0;
+        for (Vertex vertex : graph.vertices) {
+            vertexIndices.put(vertex, vertexIndices.size());
+            edgeEndCount += vertex.edges.size();
+        }
+
+        int[] offsets = new int[graph.vertices.size() + 1];
+        int[] neighbors = new int[edgeEndCount];
+        int index = 0;
+        int offset = 0;
+        for (Vertex vertex : graph.vertices) {
+            offsets[index] = offset;
+            for (Vertex adjVertex : vertex.edges) {
+                neighbors[offset] = vertexIndices.get(adjVertex);
+                offset++;
+            }
+            index++;
+        }
+        offsets[index] = offset;
+        return new CompactGraph(offsets, neighbors);
+    }
+
+    /**
+     * Returns a CompactGraph equivalent to the specified MultiGraph.  The vertices of the result are numbered in the
+     * order of iteration over graph.vertices, and each adjacency list is in the order of iteration over
+     * MultiVertex.edges.
+     */
+    public static CompactGraph create(MultiGraph graph) {
+        Map<MultiVertex, Integer> vertexIndices = new HashMap<MultiVertex, Integer>();
+        int edgeEndCount = 0;
+        for (MultiVertex vertex : graph.vertices) {
+            vertexIndices.put(vertex, vertexIndices.size());
+            edgeEndCount += vertex.edges.size();
+        }
+
+        int[] offsets = new int[graph.vertices.size() + 1];
+        int[] neighbors = new int[edgeEndCount];
+        int index = 0;
+        int offset = 0;
+        for (MultiVertex vertex : graph.vertices) {
+            offsets[index] = offset;
+            for (MultiVertex adjVertex : vertex.edges) {
+                neighbors[offset] = vertexIndices.get(adjVertex);
+                offset++;
+            }
+            index++;
+        }
+        offsets[index] = offset;
+        return new CompactGraph(offsets, neighbors);
+    }
+
+    /**
+     * Returns a Graph equivalent to this.  The order of iteration over Graph.vertices is the order of the vertex
+     * numbers, and the order of iteration over each Vertex.edges is the order of the adjacency list.  Repeated edges
+     * are merged into a single edge.
+     */
+    public Graph toGraph() {
+        Graph graph = new Graph();
+        Vertex[] vertices = new Vertex[vertexCount()];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = graph.createVertex();
+        }
+        for (int i = 0; i < vertices.length; i++) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                vertices[i].edges.add(vertices[neighbors[j]]);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Returns a MultiGraph equivalent to this.  The order of iteration over MultiGraph.vertices is the order of the
+     * vertex numbers, and the order of iteration over each MultiVertex.edges is the order of the adjacency list.
+     */
+    public MultiGraph toMultiGraph() {
+        MultiGraph graph = new MultiGraph();
+        MultiVertex[] vertices = new MultiVertex[vertexCount()];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = graph.createVertex();
+        }
+        for (int i = 0; i < vertices.length; i++) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                vertices[i].edges.add(vertices[neighbors[j]]);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Creates a Vertex for each vertex in the connected component containing "start", with the edges of the component
+     * and with each Vertex.edges in the order of the adjacency list.  This is suitable for running the Vertex-based
+     * algorithms on a single component of a large CompactGraph, without converting the rest of the graph.  Repeated
+     * edges are merged into a single edge.  The debugId of each Vertex is its vertex number.
+     * @param start The vertex.
+     * @param vertexIndices The map to which to add a mapping from each Vertex we create to its vertex number.
+     * @return The Vertex for "start".
+     */
+    public Vertex createComponent(int start, Map<Vertex, Integer> vertexIndices) {
+        // Use breadth-first search to find the vertices in the component
+        Vertex[] vertices = new Vertex[vertexCount()];
+        int[] component = new int[vertexCount()];
+        vertices[start] = new Vertex(start);
+        component[0] = start;
+        int componentSize = 1;
+        for (int i = 0; i < componentSize; i++) {
+            int vertex = component[i];
+            for (int j = offsets[vertex]; j < offsets[vertex + 1]; j++) {
+                int adjVertex = neighbors[j];
+                if (vertices[adjVertex] == null) {
+                    vertices[adjVertex] = new Vertex(adjVertex);
+                    component[componentSize] = adjVertex;
+                    componentSize++;
+                }
+            }
+        }
+
+        for (int i = 0; i < componentSize; i++) {
+            int vertex = component[i];
+            Vertex curVertex = vertices[vertex];
+            vertexIndices.put(curVertex, vertex);
+            for (int j = offsets[vertex]; j < offsets[vertex + 1]; j++) {
+                curVertex.edges.add(vertices[neighbors[j]]);
+            }
+        }
+        return vertices[start];
+    }
+}
@@ -0,0 +1,10 @@
+package com.github.btrekkie.graph;
+
+/** An algorithm that operates on a single connected component of a Graph.  See ParallelComponents. */
+public interface ComponentAlgorithm<T> {
+    /**
+     * Returns the result of the algorithm for the connected component containing the specified vertex.  This may be
+     * called concurrently for different components, so it must not modify any shared state, including the input graph.
+     */
+    public T compute(Vertex start);
+}
@@ -0,0 +1,45 @@
+package com.github.btrekkie.graph;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/** A task for running a ComponentAlgorithm on a range of the components of a graph.  See ParallelComponents. */
+class ComponentsTask<T> extends RecursiveAction {
+    private static final long serialVersionUID = 3816582214350951817L;
+
+    /** The algorithm. */
+    private final ComponentAlgorithm<T> algorithm;
+
+    /** An arbitrary vertex from each component, as returned by ParallelComponents.componentStarts. */
+    private final List<Vertex> starts;
+
+    /** The array in which to store the results.  results[i] is the result for starts.get(i). */
+    private final Object[] results;
+
+    /** The index in "starts" of the first component in the range. */
+    private final int startIndex;
+
+    /** The index in "starts" immediately after the last component in the range. */
+    private final int endIndex;
+
+    public ComponentsTask(
+            ComponentAlgorithm<T> algorithm, List<Vertex> starts, Object[] results, int startIndex, int endIndex) {
+        this.algorithm = algorithm;
+        this.starts = starts;
+        this.results = results;
+        this.startIndex = startIndex;
+        this.endIndex = endIndex;
+    }
+
+    @Override
+    protected void compute() {
+        if (endIndex - startIndex == 1) {
+            results[startIndex] = algorithm.compute(starts.get(startIndex));
+        } else {
+            int midIndex = (startIndex + endIndex) / 2;
+            invokeAll(
+                new ComponentsTask<T>(algorithm, starts, results, startIndex, midIndex),
+                new ComponentsTask<T>(algorithm, starts, results, midIndex, endIndex));
+        }
+    }
+}
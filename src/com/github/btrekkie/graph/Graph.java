@@ -9,14 +9,24 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
-/** An undirected graph.  Self loops are not permitted. */
+/**
+ * An undirected graph.  Self loops are not permitted.  A Graph is not thread-safe, but distinct threads may
+ * concurrently build and operate on distinct graphs that do not share any vertices.
+ */
 public class Graph {
     /** The vertices in the graph. */
     public Set<Vertex> vertices = new LinkedHashSet<Vertex>();
 
-    /** Equivalent implementation is contractual. */
+    /** The debugId of the next vertex createVertex() returns. */
+    private int nextDebugId = 0;
+
+    /**
+     * Adds a new vertex to the graph and returns it.  The vertex's debugId is the number of vertices that
+     * createVertex() has returned before, so debug IDs are deterministic regardless of other threads.
+     */
     public Vertex createVertex() {
-        Vertex vertex = new Vertex();
+        Vertex vertex = new Vertex(nextDebugId);
+        nextDebugId++;
         vertices.add(vertex);
         return vertex;
     }
@@ -3,7 +3,11 @@ package com.github.btrekkie.graph;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
-/** An undirected graph that permits multiple edges between a pair of vertices.  Self loops are not permitted. */
+/**
+ * An undirected graph that permits multiple edges between a pair of vertices.  Self loops are not permitted.  A
+ * MultiGraph is not thread-safe, but distinct threads may concurrently build and operate on distinct graphs that do not
+ * share any vertices.
+ */
 public class MultiGraph {
     /** The vertices in the graph. */
     public Set<MultiVertex> vertices = new LinkedHashSet<MultiVertex>();
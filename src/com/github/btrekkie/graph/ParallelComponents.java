@@ -0,0 +1,115 @@
+package com.github.btrekkie.graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs an algorithm on each connected component of a Graph, processing the components concurrently.  This is useful
+ * for graphs with many components, for algorithms that operate on one component at a time, such as
+ * PlanarEmbedding.compute.
+ */
+public class ParallelComponents {
+    /** The ForkJoinPool that "compute" uses by default, or null if we have not created it yet. */
+    private static ForkJoinPool defaultPool;
+
+    /**
+     * Returns the ForkJoinPool that "compute" uses by default: a shared pool with one thread per available processor.
+     */
+    public static synchronized ForkJoinPool defaultPool() {
+        if (defaultPool == null) {
+            defaultPool = new ForkJoinPool();
+        }
+        return defaultPool;
+    }
+
+    /**
+     * Returns an arbitrary vertex from each connected component of the specified graph.  Specifically, this returns the
+     * first vertex of each component in the order of iteration over graph.vertices, in that order.
+     */
+    public static List<Vertex> componentStarts(Graph graph) {
+        List<Vertex> starts = new ArrayList<Vertex>();
+        Set<Vertex> visited = new HashSet<Vertex>();
+        for (Vertex start : graph.vertices) {
+            if (visited.add(start)) {
+                starts.add(start);
+
+                // Use breadth-first search to visit the component
+                Collection<Vertex> level = Collections.singleton(start);
+                while (!level.isEmpty()) {
+                    Collection<Vertex> nextLevel = new ArrayList<Vertex>();
+                    for (Vertex vertex : level) {
+                        for (Vertex adjVertex : vertex.edges) {
+                            if (visited.add(adjVertex)) {
+                                nextLevel.add(adjVertex);
+                            }
+                        }
+                    }
+                    level = nextLevel;
+                }
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Runs the specified algorithm on the connected components containing the specified vertices, using the specified
+     * ForkJoinPool.  The vertices must be in distinct components, although they need not belong to the same Graph.
+     * @param starts The vertices.
+     * @param algorithm The algorithm.
+     * @param pool The pool in which to run the algorithm.
+     * @return The results of the algorithm.  Element i is the result for the component containing starts.get(i).
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> compute(List<Vertex> starts, ComponentAlgorithm<T> algorithm, ForkJoinPool pool) {
+        Object[] results = new Object[starts.size()];
+        if (starts.size() == 1) {
+            results[0] = algorithm.compute(starts.get(0));
+        } else if (starts.size() > 1) {
+            pool.invoke(new ComponentsTask<T>(algorithm, starts, results, 0, starts.size()));
+        }
+
+        List<T> resultList = new ArrayList<T>(results.length);
+        for (Object result : results) {
+            resultList.add((T)result);
+        }
+        return resultList;
+    }
+
+    /**
+     * Runs the specified algorithm on each connected component of the specified graph, using the specified
+     * ForkJoinPool.
+     * @param graph The graph.
+     * @param algorithm The algorithm.
+     * @param pool The pool in which to run the algorithm.
+     * @return A map from an arbitrary vertex in each component to the result of the algorithm for that component.  The
+     *     keys are the vertices returned by componentStarts(graph), in the same order.
+     */
+    public static <T> Map<Vertex, T> compute(Graph graph, ComponentAlgorithm<T> algorithm, ForkJoinPool pool) {
+        List<Vertex> starts = componentStarts(graph);
+        List<T> results = compute(starts, algorithm, pool);
+        Map<Vertex, T> componentResults = new LinkedHashMap<Vertex, T>();
+        for (int i = 0; i < starts.size(); i++) {
+            componentResults.put(starts.get(i), results.get(i));
+        }
+        return componentResults;
+    }
+
+    /**
+     * Runs the specified algorithm on each connected component of the specified graph, using a shared ForkJoinPool
+     * with one thread per available processor.
+     * @param graph The graph.
+     * @param algorithm The algorithm.
+     * @return A map from an arbitrary vertex in each component to the result of the algorithm for that component.  The
+     *     keys are the vertices returned by componentStarts(graph), in the same order.
+     */
+    public static <T> Map<Vertex, T> compute(Graph graph, ComponentAlgorithm<T> algorithm) {
+        return compute(graph, algorithm, defaultPool());
+    }
+}
@@ -2,24 +2,32 @@ package com.github.btrekkie.graph;
 
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
-/** A vertex in a Graph. */
+/**
+ * A vertex in a Graph.  Constructing vertices is thread-safe, so distinct threads may concurrently build distinct
+ * graphs.
+ */
 public class Vertex {
-    /** The value of debugId for the next Vertex we construct. */
-    public static int nextDebugId = 0;
+    /** The value of debugId for the next Vertex we construct using the no-argument constructor. */
+    private static final AtomicInteger nextDebugId = new AtomicInteger();
 
     /** The vertices that are adjacent to this. */
     public Set<Vertex> edges = new LinkedHashSet<Vertex>();
 
     /**
-     * An integer identifying the vertex for debugging purposes.  IDs are assigned sequentially, until the client alters
-     * nextDebugId.
+     * An integer identifying the vertex for debugging purposes.  Graph.createVertex assigns IDs sequentially within
+     * each Graph, so they do not depend on what other threads are doing.  Vertices constructed using the no-argument
+     * constructor are assigned IDs sequentially from a global counter.
      */
     public int debugId;
 
     public Vertex() {
-        debugId = nextDebugId;
-        nextDebugId++;
+        debugId = nextDebugId.getAndIncrement();
+    }
+
+    public Vertex(int debugId) {
+        this.debugId = debugId;
     }
 
     /** Equivalent implementation is contractual. */
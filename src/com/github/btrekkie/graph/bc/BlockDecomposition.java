@@ -0,0 +1,332 @@
+package com.github.btrekkie.graph.bc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.btrekkie.graph.CompactGraph;
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+
+/**
+ * The blocks of a connected graph, as computed using Hopcroft and Tarjan's algorithm.  A BlockDecomposition represents
+ * the graph and the blocks using arrays of primitives, so that computing the blocks allocates a small number of
+ * objects.  The blocks are numbered in the order in which the algorithm finds them, which is a postorder of the
+ * block-cut tree when it is rooted at the last block.
+ */
+/* We number the vertices in breadth-first order and perform an iterative depth-first search, keeping a stack of the
+ * edges and a stack of the vertices we have visited.  When we finish visiting a child C of a vertex P such that the
+ * lowpoint of C is at least the depth of P, the edges and vertices on the stacks above the tree edge from P to C,
+ * along with P, form a block, so we pop them from the stacks.  We refer to P as the block's "attachment vertex": it is
+ * the vertex in the block that is closest to the root of the depth-first search tree.
+ */
+class BlockDecomposition {
+    /** The Vertex for each vertex in the graph. */
+    final Vertex[] vertices;
+
+    /** The number of blocks. */
+    int blockCount;
+
+    /**
+     * The first endpoint of each edge in the graph, grouped by block.  The edges in block B are those with indices
+     * blockEdgeOffsets[B] through blockEdgeOffsets[B + 1] - 1.
+     */
+    final Vertex[] edgeVertex1s;
+
+    /** The second endpoint of each edge in the graph, grouped by block. */
+    final Vertex[] edgeVertex2s;
+
+    /** The offsets of the ranges of the blocks' edges.  This has blockCount + 1 elements. */
+    int[] blockEdgeOffsets;
+
+    /**
+     * The vertices in the blocks.  The vertices in block B are those with indices blockVertexOffsets[B] through
+     * blockVertexOffsets[B + 1] - 1.  The first vertex in each range is the block's attachment vertex, and the second
+     * is adjacent to the first.
+     */
+    Vertex[] blockVertices;
+
+    /** The offsets of the ranges of the blocks' vertices.  This has blockCount + 1 elements. */
+    int[] blockVertexOffsets;
+
+    /** The attachment vertex of each block.  See the comments for the implementation of this class. */
+    int[] attachments;
+
+    /**
+     * The block containing the edge from each vertex to its parent in the depth-first search tree, i.e. the block in
+     * which the vertex is not the attachment vertex, or -1 for vertex 0.
+     */
+    final int[] ownerBlocks;
+
+    /** Copies of the blocks, as in BlockNode.block, or null if we have not called copyBlocks for a given block. */
+    final Graph[] blockGraphs;
+
+    /**
+     * A map from the vertices in each element of blockGraphs to the corresponding vertices in the original graph, as in
+     * BlockNode.blockVertexToVertex, or null if we have not called copyBlocks for a given block.
+     */
+    final Map<Vertex, Vertex>[] blockVertexToVertices;
+
+    /** Constructs a new BlockDecomposition with the specified blocks.  See the comments for the fields. */
+    BlockDecomposition(
+            Vertex[] vertices, int blockCount, Vertex[] edgeVertex1s, Vertex[] edgeVertex2s, int[] blockEdgeOffsets,
+            Vertex[] blockVertices, int[] blockVertexOffsets, int[] attachments, int[] ownerBlocks) {
+        this.vertices = vertices;
+        this.blockCount = blockCount;
+        this.edgeVertex1s = edgeVertex1s;
+        this.edgeVertex2s = edgeVertex2s;
+        this.blockEdgeOffsets = blockEdgeOffsets;
+        this.blockVertices = blockVertices;
+        this.blockVertexOffsets = blockVertexOffsets;
+        this.attachments = attachments;
+        this.ownerBlocks = ownerBlocks;
+        blockGraphs = new Graph[blockCount];
+        blockVertexToVertices = createMapArray(blockCount);
+    }
+
+    /**
+     * Computes the blocks of the graph with the specified vertices and adjacency lists, as in CompactGraph, using a
+     * sequential algorithm.
+     */
+    BlockDecomposition(Vertex[] vertices, int[] offsets, int[] neighbors) {
+        this.vertices = vertices;
+        int vertexCount = vertices.length;
+        edgeVertex1s = new Vertex[neighbors.length / 2];
+        edgeVertex2s = new Vertex[neighbors.length / 2];
+        blockEdgeOffsets = new int[16];
+        blockVertices = new Vertex[vertexCount + 16];
+        blockVertexOffsets = new int[16];
+        attachments = new int[16];
+        ownerBlocks = new int[vertexCount];
+        ownerBlocks[0] = -1;
+        if (vertexCount == 1) {
+            blockCount = 1;
+            blockVertices[0] = vertices[0];
+            blockVertexOffsets[1] = 1;
+            blockGraphs = new Graph[1];
+            blockVertexToVertices = createMapArray(1);
+            return;
+        }
+
+        // Use an iterative implementation of depth-first search
+        int[] depths = new int[vertexCount];
+        Arrays.fill(depths, -1);
+        int[] lowpoints = new int[vertexCount];
+        int[] parents = new int[vertexCount];
+        int[] nextNeighbors = new int[vertexCount];
+        int[] path = new int[vertexCount];
+        int[] edgeStack1 = new int[edgeVertex1s.length];
+        int[] edgeStack2 = new int[edgeVertex1s.length];
+        int[] vertexStack = new int[vertexCount];
+        int pathSize = 1;
+        int edgeStackSize = 0;
+        int vertexStackSize = 0;
+        int edgeCount = 0;
+        int blockVertexCount = 0;
+        depths[0] = 0;
+        lowpoints[0] = 0;
+        parents[0] = -1;
+        nextNeighbors[0] = offsets[0];
+        while (pathSize > 0) {
+            int vertex = path[pathSize - 1];
+            if (nextNeighbors[vertex] < offsets[vertex + 1]) {
+                int adjVertex = neighbors[nextNeighbors[vertex]];
+                nextNeighbors[vertex]++;
+                if (depths[adjVertex] < 0) {
+                    // Tree edge
+                    edgeStack1[edgeStackSize] = vertex;
+                    edgeStack2[edgeStackSize] = adjVertex;
+                    edgeStackSize++;
+                    vertexStack[vertexStackSize] = adjVertex;
+                    vertexStackSize++;
+                    depths[adjVertex] = pathSize;
+                    lowpoints[adjVertex] = pathSize;
+                    parents[adjVertex] = vertex;
+                    nextNeighbors[adjVertex] = offsets[adjVertex];
+                    path[pathSize] = adjVertex;
+                    pathSize++;
+                } else if (adjVertex != parents[vertex] && depths[adjVertex] < depths[vertex]) {
+                    // Back edge
+                    edgeStack1[edgeStackSize] = vertex;
+                    edgeStack2[edgeStackSize] = adjVertex;
+                    edgeStackSize++;
+                    if (depths[adjVertex] < lowpoints[vertex]) {
+                        lowpoints[vertex] = depths[adjVertex];
+                    }
+                }
+                continue;
+            }
+
+            pathSize--;
+            int parent = parents[vertex];
+            if (parent < 0) {
+                break;
+            }
+            if (lowpoints[vertex] < lowpoints[parent]) {
+                lowpoints[parent] = lowpoints[vertex];
+            }
+            if (lowpoints[vertex] < depths[parent]) {
+                continue;
+            }
+
+            // Pop the block whose attachment vertex is "parent"
+            if (blockCount + 2 > blockEdgeOffsets.length) {
+                blockEdgeOffsets = grow(blockEdgeOffsets, blockCount + 2);
+                blockVertexOffsets = grow(blockVertexOffsets, blockCount + 2);
+                attachments = grow(attachments, blockCount + 2);
+            }
+            int edgeVertex1;
+            int edgeVertex2;
+            do {
+                edgeStackSize--;
+                edgeVertex1 = edgeStack1[edgeStackSize];
+                edgeVertex2 = edgeStack2[edgeStackSize];
+                edgeVertex1s[edgeCount] = vertices[edgeVertex1];
+                edgeVertex2s[edgeCount] = vertices[edgeVertex2];
+                edgeCount++;
+            } while (edgeVertex1 != parent || edgeVertex2 != vertex);
+
+            int blockVertex;
+            do {
+                vertexStackSize--;
+                blockVertex = vertexStack[vertexStackSize];
+                ownerBlocks[blockVertex] = blockCount;
+                if (blockVertexCount == blockVertices.length) {
+                    blockVertices = Arrays.copyOf(blockVertices, 2 * blockVertices.length);
+                }
+                blockVertices[blockVertexCount] = vertices[blockVertex];
+                blockVertexCount++;
+            } while (blockVertex != vertex);
+            if (blockVertexCount == blockVertices.length) {
+                blockVertices = Arrays.copyOf(blockVertices, 2 * blockVertices.length);
+            }
+            blockVertices[blockVertexCount] = vertices[parent];
+            blockVertexCount++;
+
+            // Reverse the block's vertices, so that it starts with "parent" followed by "vertex"
+            int blockVertexStart = blockVertexOffsets[blockCount];
+            for (int i = blockVertexStart, j = blockVertexCount - 1; i < j; i++, j--) {
+                Vertex temp = blockVertices[i];
+                blockVertices[i] = blockVertices[j];
+                blockVertices[j] = temp;
+            }
+
+            attachments[blockCount] = parent;
+            blockCount++;
+            blockEdgeOffsets[blockCount] = edgeCount;
+            blockVertexOffsets[blockCount] = blockVertexCount;
+        }
+        blockGraphs = new Graph[blockCount];
+        blockVertexToVertices = createMapArray(blockCount);
+    }
+
+    /** Returns a new array of maps of the specified length. */
+    @SuppressWarnings("unchecked")
+    private static Map<Vertex, Vertex>[] createMapArray(int length) {
+        return (Map<Vertex, Vertex>[])new Map<?, ?>[length];
+    }
+
+    /**
+     * Sets the elements of blockGraphs and blockVertexToVertices for blocks start through end - 1.  Distinct threads
+     * may concurrently copy disjoint ranges of blocks.
+     */
+    void copyBlocks(int start, int end) {
+        Map<Vertex, Vertex> vertexToBlockVertex = new HashMap<Vertex, Vertex>();
+        for (int block = start; block < end; block++) {
+            Graph blockGraph = new Graph();
+            Map<Vertex, Vertex> blockVertexToVertex = new HashMap<Vertex, Vertex>();
+            for (int i = blockVertexOffsets[block]; i < blockVertexOffsets[block + 1]; i++) {
+                Vertex blockVertex = blockGraph.createVertex();
+                vertexToBlockVertex.put(blockVertices[i], blockVertex);
+                blockVertexToVertex.put(blockVertex, blockVertices[i]);
+            }
+            for (int i = blockEdgeOffsets[block]; i < blockEdgeOffsets[block + 1]; i++) {
+                vertexToBlockVertex.get(edgeVertex1s[i]).addEdge(vertexToBlockVertex.get(edgeVertex2s[i]));
+            }
+            vertexToBlockVertex.clear();
+            blockGraphs[block] = blockGraph;
+            blockVertexToVertices[block] = blockVertexToVertex;
+        }
+    }
+
+    /** Returns a copy of the specified array with at least the specified length. */
+    private static int[] grow(int[] array, int minLength) {
+        return Arrays.copyOf(array, Math.max(2 * array.length, minLength));
+    }
+
+    /** Returns the BlockDecomposition for the connected component containing the specified vertex. */
+    public static BlockDecomposition create(Vertex root) {
+        // Use breadth-first search to number the vertices in the component and compute its adjacency lists
+        Map<Vertex, Integer> vertexIndices = new HashMap<Vertex, Integer>();
+        List<Vertex> graphVertices = new ArrayList<Vertex>();
+        vertexIndices.put(root, 0);
+        graphVertices.add(root);
+        int[] offsets = new int[16];
+        int[] neighbors = new int[16];
+        int offset = 0;
+        for (int i = 0; i < graphVertices.size(); i++) {
+            if (i + 1 >= offsets.length) {
+                offsets = grow(offsets, i + 2);
+            }
+            offsets[i] = offset;
+            Vertex vertex = graphVertices.get(i);
+            if (offset + vertex.edges.size() > neighbors.length) {
+                neighbors = grow(neighbors, offset + vertex.edges.size());
+            }
+            for (Vertex adjVertex : vertex.edges) {
+                Integer index = vertexIndices.get(adjVertex);
+                if (index == null) {
+                    index = graphVertices.size();
+                    vertexIndices.put(adjVertex, index);
+                    graphVertices.add(adjVertex);
+                }
+                neighbors[offset] = index;
+                offset++;
+            }
+        }
+        offsets[graphVertices.size()] = offset;
+        return new BlockDecomposition(
+            graphVertices.toArray(new Vertex[graphVertices.size()]), offsets, Arrays.copyOf(neighbors, offset));
+    }
+
+    /**
+     * Returns the BlockDecomposition for the connected component of "graph" containing the specified vertex.  The
+     * decomposition refers to Vertex objects that this method creates for the vertices in the component.  The debugId
+     * of each Vertex is its vertex number, and its "edges" field is empty.
+     */
+    public static BlockDecomposition create(CompactGraph graph, int root) {
+        // Use breadth-first search to renumber the vertices in the component and compute its adjacency lists
+        int[] vertexIndices = new int[graph.vertexCount()];
+        Arrays.fill(vertexIndices, -1);
+        int[] graphVertices = new int[graph.vertexCount()];
+        vertexIndices[root] = 0;
+        graphVertices[0] = root;
+        int vertexCount = 1;
+        int[] offsets = new int[graph.vertexCount() + 1];
+        int[] neighbors = new int[graph.halfEdgeCount()];
+        int offset = 0;
+        for (int i = 0; i < vertexCount; i++) {
+            offsets[i] = offset;
+            int vertex = graphVertices[i];
+            for (int halfEdge = graph.offset(vertex); halfEdge < graph.offset(vertex + 1); halfEdge++) {
+                int adjVertex = graph.target(halfEdge);
+                if (vertexIndices[adjVertex] < 0) {
+                    vertexIndices[adjVertex] = vertexCount;
+                    graphVertices[vertexCount] = adjVertex;
+                    vertexCount++;
+                }
+                neighbors[offset] = vertexIndices[adjVertex];
+                offset++;
+            }
+        }
+        offsets[vertexCount] = offset;
+
+        Vertex[] vertices = new Vertex[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            vertices[i] = new Vertex(graphVertices[i]);
+        }
+        return new BlockDecomposition(vertices, offsets, Arrays.copyOf(neighbors, offset));
+    }
+}
@@ -2,14 +2,12 @@ package com.github.btrekkie.graph.bc;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
 
+import com.github.btrekkie.graph.CompactGraph;
 import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.ParallelComponents;
 import com.github.btrekkie.graph.Vertex;
 
 /**
@@ -21,210 +19,211 @@ import com.github.btrekkie.graph.Vertex;
  * contains the cut vertex.
  */
 public class BlockNode {
+    /**
+     * The default minimum number of edges in a connected component for which computeParallel uses a parallel
+     * algorithm.
+     */
+    public static final int PARALLEL_THRESHOLD = 100000;
+
     /** The parent of this node, if any. */
     public final CutNode parent;
 
     /** The children of this node. */
     public Collection<CutNode> children = new ArrayList<CutNode>();
 
-    /** The block graph for this node.  This uses different Vertex objects from the original graph. */
+    /**
+     * The block graph for this node.  This uses different Vertex objects from the original graph.  If the block has
+     * at least two vertices, the first two vertices in block.vertices are adjacent.  This is null if the node was
+     * created using computeViews.
+     */
     public final Graph block;
 
-    /** A map from the vertices in "block" to the corresponding Vertex objects in the original graph. */
+    /**
+     * A map from the vertices in "block" to the corresponding Vertex objects in the original graph.  This is null if
+     * the node was created using computeViews.
+     */
     public Map<Vertex, Vertex> blockVertexToVertex;
 
-    /** Constructs a new BlockNode and adds it to parent.children. */
+    /**
+     * The first endpoints of the edges in the connected component, grouped by block, or null if the node was created
+     * using the BlockNode constructor.  The edges in this node's block are those from edgeVertex1s[i] to
+     * edgeVertex2s[i] for edgeStart <= i < edgeEnd.  All of the nodes in a block-cut tree share this array.
+     */
+    private final Vertex[] edgeVertex1s;
+
+    /** The second endpoints of the edges in the connected component.  See edgeVertex1s. */
+    private final Vertex[] edgeVertex2s;
+
+    /** The index in edgeVertex1s of the first edge in this node's block.  See edgeVertex1s. */
+    private final int edgeStart;
+
+    /** The index in edgeVertex1s after the last edge in this node's block.  See edgeVertex1s. */
+    private final int edgeEnd;
+
+    /**
+     * The vertices in the blocks in the connected component, grouped by block, or null if the node was created using
+     * the BlockNode constructor.  The vertices in this node's block are blockVertices[vertexStart] through
+     * blockVertices[vertexEnd - 1], in the original graph.  All of the nodes in a block-cut tree share this array.
+     */
+    private final Vertex[] blockVertices;
+
+    /** The index in blockVertices of the first vertex in this node's block.  See blockVertices. */
+    private final int vertexStart;
+
+    /** The index in blockVertices after the last vertex in this node's block.  See blockVertices. */
+    private final int vertexEnd;
+
+    /**
+     * Constructs a new BlockNode and adds it to parent.children.  The node does not have a view of its block, so
+     * clients may not call edgeCount, edgeVertex1, edgeVertex2, blockVertexCount, or blockVertex.
+     */
     public BlockNode(CutNode parent, Graph block, Map<Vertex, Vertex> blockVertexToVertex) {
+        this(parent, block, blockVertexToVertex, null, null, 0, 0, null, 0, 0);
+    }
+
+    /** Constructs a new BlockNode and adds it to parent.children.  See the comments for the fields. */
+    private BlockNode(
+            CutNode parent, Graph block, Map<Vertex, Vertex> blockVertexToVertex, Vertex[] edgeVertex1s,
+            Vertex[] edgeVertex2s, int edgeStart, int edgeEnd, Vertex[] blockVertices, int vertexStart, int vertexEnd) {
         this.parent = parent;
         this.block = block;
         this.blockVertexToVertex = blockVertexToVertex;
+        this.edgeVertex1s = edgeVertex1s;
+        this.edgeVertex2s = edgeVertex2s;
+        this.edgeStart = edgeStart;
+        this.edgeEnd = edgeEnd;
+        this.blockVertices = blockVertices;
+        this.vertexStart = vertexStart;
+        this.vertexEnd = vertexEnd;
         if (parent != null) {
             parent.children.add(this);
         }
     }
 
     /**
-     * Creates and returns the BlockNodes containing edges from "start" to its children but not from "start" to its
-     * parent, relative to the specified depth-first tree.  This also creates the CutNode children of the BlockNodes,
-     * but not the children of those CutNodes.  Assumes that "start" is a cut vertex or is the root of the depth-first
-     * search tree.
-     * @param parent The parent node of the BlockNodes.  If this is null, there is special behavior where the parent of
-     *     one of the BlockNodes is null, while the grandparent of the remaining BlockNodes is that root node.
-     * @param start The starting vertex.
-     * @param children A map from each vertex to its children in the depth-first search tree.
-     * @param backEdges A map from each vertex to its back edges - the ancestors in the depth-first search tree other
-     *     than the parent to which there is an edge.
-     * @param depths A map from each vertex to its depth in the depth-first search tree.
-     * @param lowpoints A map from each vertex to the depth of its lowpoint in the depth-first search tree.  See
-     *     https://en.wikipedia.org/wiki/Biconnected_component for the definition of the term "lowpoint".
-     * @return The BlockNodes we created.
-     */
-    private static Collection<BlockNode> blockNodes(
-            CutNode parent, Vertex start, Map<Vertex, Collection<Vertex>> children,
-            Map<Vertex, Collection<Vertex>> backEdges, Map<Vertex, Integer> depths, Map<Vertex, Integer> lowpoints) {
-        Collection<BlockNode> blockNodes = new ArrayList<BlockNode>();
-        for (Vertex startChild : children.get(start)) {
-            if (lowpoints.get(startChild) < depths.get(start)) {
-                continue;
-            }
+     * Returns the number of edges in this node's block.  Assumes the node was not created using the BlockNode
+     * constructor.
+     */
+    public int edgeCount() {
+        return edgeEnd - edgeStart;
+    }
 
-            // Use breadth-first search to find the vertices in the block
-            Graph block = new Graph();
-            Map<Vertex, Vertex> vertexToBlockVertex = new HashMap<Vertex, Vertex>();
-            vertexToBlockVertex.put(start, block.createVertex());
-            vertexToBlockVertex.put(startChild, block.createVertex());
-            vertexToBlockVertex.get(start).addEdge(vertexToBlockVertex.get(startChild));
-            Collection<Vertex> level = Collections.singleton(startChild);
-            Collection<Vertex> cutVertices = new ArrayList<Vertex>();
-            while (!level.isEmpty()) {
-                Collection<Vertex> nextLevel = new ArrayList<Vertex>();
-                for (Vertex vertex : level) {
-                    Vertex blockVertex = vertexToBlockVertex.get(vertex);
-                    for (Vertex backEdge : backEdges.get(vertex)) {
-                        blockVertex.addEdge(vertexToBlockVertex.get(backEdge));
-                    }
-
-                    boolean isCutVertex = false;
-                    for (Vertex child : children.get(vertex)) {
-                        if (lowpoints.get(child) >= depths.get(vertex)) {
-                            isCutVertex = true;
-                        } else {
-                            Vertex blockChild = block.createVertex();
-                            blockVertex.addEdge(blockChild);
-                            vertexToBlockVertex.put(child, blockChild);
-                            nextLevel.add(child);
-                        }
-                    }
-                    if (isCutVertex) {
-                        cutVertices.add(vertex);
-                    }
-                }
-                level = nextLevel;
-            }
+    /**
+     * Returns the first endpoint of the edge with the specified index in this node's block, in the original graph.
+     * The indices range from 0 to edgeCount() - 1.  Assumes the node was not created using the BlockNode constructor.
+     */
+    public Vertex edgeVertex1(int edge) {
+        return edgeVertex1s[edgeStart + edge];
+    }
 
-            // Create the BlockNode and its children
-            Map<Vertex, Vertex> blockVertexToVertex = new HashMap<Vertex, Vertex>();
-            for (Entry<Vertex, Vertex> entry : vertexToBlockVertex.entrySet()) {
-                blockVertexToVertex.put(entry.getValue(), entry.getKey());
-            }
-            BlockNode blockNode = new BlockNode(parent, block, blockVertexToVertex);
-            for (Vertex vertex : cutVertices) {
-                new CutNode(blockNode, vertex);
-            }
+    /** Returns the second endpoint of the edge with the specified index in this node's block.  See edgeVertex1. */
+    public Vertex edgeVertex2(int edge) {
+        return edgeVertex2s[edgeStart + edge];
+    }
 
-            if (parent == null && children.get(start).size() > 1) {
-                // Special handling for null parent
-                parent = new CutNode(blockNode, start);
+    /**
+     * Returns the number of vertices in this node's block.  Assumes the node was not created using the BlockNode
+     * constructor.
+     */
+    public int blockVertexCount() {
+        return vertexEnd - vertexStart;
+    }
+
+    /**
+     * Returns the vertex with the specified index in this node's block, in the original graph.  The indices range
+     * from 0 to blockVertexCount() - 1.  If the block has at least two vertices, blockVertex(0) and blockVertex(1)
+     * are adjacent.  Assumes the node was not created using the BlockNode constructor.
+     */
+    public Vertex blockVertex(int index) {
+        return blockVertices[vertexStart + index];
+    }
+
+    /**
+     * Returns the root of a block-cut tree for the specified BlockDecomposition.  The nodes' "block" and
+     * blockVertexToVertex fields are the corresponding elements of decomposition.blockGraphs and
+     * decomposition.blockVertexToVertices.
+     */
+    private static BlockNode create(BlockDecomposition decomposition) {
+        // The blocks are in postorder, so we create them in reverse order to create each parent before its children
+        int blockCount = decomposition.blockCount;
+        BlockNode[] blockNodes = new BlockNode[blockCount];
+        CutNode[] cutNodes = new CutNode[decomposition.vertices.length];
+        for (int block = blockCount - 1; block >= 0; block--) {
+            CutNode parent;
+            if (block == blockCount - 1) {
+                parent = null;
+            } else {
+                int attachment = decomposition.attachments[block];
+                parent = cutNodes[attachment];
+                if (parent == null) {
+                    int ownerBlock = decomposition.ownerBlocks[attachment];
+                    BlockNode owner = blockNodes[ownerBlock >= 0 ? ownerBlock : blockCount - 1];
+                    parent = new CutNode(owner, decomposition.vertices[attachment]);
+                    cutNodes[attachment] = parent;
+                }
             }
-            blockNodes.add(blockNode);
+            blockNodes[block] = new BlockNode(
+                parent, decomposition.blockGraphs[block], decomposition.blockVertexToVertices[block],
+                decomposition.edgeVertex1s, decomposition.edgeVertex2s, decomposition.blockEdgeOffsets[block],
+                decomposition.blockEdgeOffsets[block + 1], decomposition.blockVertices,
+                decomposition.blockVertexOffsets[block], decomposition.blockVertexOffsets[block + 1]);
         }
-        return blockNodes;
+        return blockNodes[blockCount - 1];
     }
 
     /**
      * Returns the root of a block-cut tree for the connected component containing the specified vertex.  The choice of
-     * a root node is arbitrary.
+     * a root node is arbitrary.  Each node's "block" field is a copy of its block; see also computeViews.
      */
     public static BlockNode compute(Vertex root) {
-        if (root.edges.isEmpty()) {
-            Graph block = new Graph();
-            Vertex blockVertex = block.createVertex();
-            Map<Vertex, Vertex> blockVertexToVertex = Collections.singletonMap(root, blockVertex);
-            return new BlockNode(null, block, blockVertexToVertex);
-        }
+        BlockDecomposition decomposition = BlockDecomposition.create(root);
+        decomposition.copyBlocks(0, decomposition.blockCount);
+        return create(decomposition);
+    }
 
-        // Use an iterative implementation of depth-first search
-        List<Vertex> cutVertices = new ArrayList<Vertex>();
-        Map<Vertex, Integer> depths = new HashMap<Vertex, Integer>();
-        Map<Vertex, Integer> lowpoints = new HashMap<Vertex, Integer>();
-        List<Vertex> path = new ArrayList<Vertex>();
-        List<Iterator<Vertex>> pathIters = new ArrayList<Iterator<Vertex>>();
-        Map<Vertex, Collection<Vertex>> children = new HashMap<Vertex, Collection<Vertex>>();
-        Map<Vertex, Collection<Vertex>> backEdges = new HashMap<Vertex, Collection<Vertex>>();
-        path.add(root);
-        pathIters.add(root.edges.iterator());
-        int depth = 0;
-        depths.put(root, 0);
-        children.put(root, new ArrayList<Vertex>());
-        while (!path.isEmpty()) {
-            if (!pathIters.get(pathIters.size() - 1).hasNext()) {
-                pathIters.remove(pathIters.size() - 1);
-                Vertex vertex = path.remove(path.size() - 1);
-
-                // Compute the lowpoint
-                int lowpoint = depth;
-                for (Vertex adjVertex : vertex.edges) {
-                    int adjDepth = depths.get(adjVertex);
-                    if (adjDepth != depth - 1 && adjDepth < lowpoint) {
-                        lowpoint = adjDepth;
-                    }
-                }
-                Collection<Vertex> curChildren = children.get(vertex);
-                for (Vertex child : curChildren) {
-                    int childLowpoint = lowpoints.get(child);
-                    if (childLowpoint < lowpoint) {
-                        lowpoint = childLowpoint;
-                    }
-                }
-                lowpoints.put(vertex, lowpoint);
-
-                if (!path.isEmpty()) {
-                    // Check whether "vertex" is a cut vertex
-                    boolean isCutVertex = false;
-                    for (Vertex child : curChildren) {
-                        if (lowpoints.get(child) >= depth) {
-                            isCutVertex = true;
-                            break;
-                        }
-                    }
-                    if (isCutVertex) {
-                        cutVertices.add(vertex);
-                    }
-                }
+    /**
+     * Returns the root of a block-cut tree for the connected component containing the specified vertex.  This is the
+     * same as compute(root), except that the nodes' "block" and blockVertexToVertex fields are null.  Clients may
+     * access each block using edgeVertex1, edgeVertex2, and blockVertex, which refer to the vertices in the original
+     * graph.  This uses much less memory than compute(root) for large graphs, since it does not copy
+     * the blocks.
+     */
+    public static BlockNode computeViews(Vertex root) {
+        return create(BlockDecomposition.create(root));
+    }
 
-                depth--;
-            } else {
-                Vertex start = path.get(path.size() - 1);
-                Vertex end = pathIters.get(pathIters.size() - 1).next();
-                if (!children.containsKey(end)) {
-                    // Tree edge
-                    children.get(start).add(end);
-                    path.add(end);
-                    pathIters.add(end.edges.iterator());
-                    depth++;
-                    depths.put(end, depth);
-                    children.put(end, new ArrayList<Vertex>());
-                    backEdges.put(end, new ArrayList<Vertex>());
-                } else if (depths.get(end) < depth - 1) {
-                    backEdges.get(start).add(end);
-                }
-            }
-        }
+    /**
+     * Returns the root of a block-cut tree for the connected component of "graph" containing the specified vertex, as
+     * in computeViews(Vertex).  The nodes refer to Vertex objects that this method creates for the vertices in the
+     * component, whose debugIds are their vertex numbers and whose "edges" fields are empty.  This runs directly on the
+     * adjacency arrays of "graph", so unlike computeViews(graph.createComponent(root, vertexIndices)), it does not
+     * create a Set of adjacent vertices for each vertex.  Assumes that "graph" does not have any repeated edges.
+     */
+    public static BlockNode computeViews(CompactGraph graph, int root) {
+        return create(BlockDecomposition.create(graph, root));
+    }
 
-        // Create the BlockNodes containing "root"
-        Collection<BlockNode> blockNodes = blockNodes(null, root, children, backEdges, depths, lowpoints);
-        BlockNode rootNode = null;
-        Map<Vertex, CutNode> cutNodes = new HashMap<Vertex, CutNode>();
-        for (BlockNode node : blockNodes) {
-            if (node.parent == null) {
-                rootNode = node;
-            }
-            for (CutNode child : node.children) {
-                cutNodes.put(child.vertex, child);
-            }
-        }
+    /**
+     * Returns the root of a block-cut tree for the connected component containing the specified vertex, as in
+     * compute(root), using a parallel algorithm if the component is large.
+     * @param root The vertex.
+     * @param pool The pool in which to run the parallel algorithm.
+     * @param threshold The minimum number of edges in the component for which to use the parallel algorithm.  Below
+     *     this, we use the sequential algorithm, which is faster for small graphs.
+     * @param copyBlocks Whether to copy the blocks, as in compute(root), as opposed to creating views, as in
+     *     computeViews(root).
+     * @return The root node.
+     */
+    public static BlockNode computeParallel(Vertex root, ForkJoinPool pool, int threshold, boolean copyBlocks) {
+        return create(ParallelBlockDecomposition.create(root, pool, threshold, copyBlocks));
+    }
 
-        // Create the remaining BlockNodes, by creating the children of the cut vertices in topological order (visiting
-        // parent cut vertices before child cut vertices)
-        Collections.reverse(cutVertices);
-        for (Vertex cutVertex : cutVertices) {
-            blockNodes = blockNodes(cutNodes.get(cutVertex), cutVertex, children, backEdges, depths, lowpoints);
-            for (BlockNode node : blockNodes) {
-                for (CutNode child : node.children) {
-                    cutNodes.put(child.vertex, child);
-                }
-            }
-        }
-        return rootNode;
+    /**
+     * Returns the root of a block-cut tree for the connected component containing the specified vertex, as in
+     * compute(root).  If the component has at least PARALLEL_THRESHOLD edges, this uses a parallel algorithm, running
+     * it in ParallelComponents.defaultPool().
+     */
+    public static BlockNode computeParallel(Vertex root) {
+        return computeParallel(root, ParallelComponents.defaultPool(), PARALLEL_THRESHOLD, true);
     }
 }
@@ -0,0 +1,453 @@
+package com.github.btrekkie.graph.bc;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+
+/**
+ * The blocks and cut vertices of a graph that we are building one edge at a time.  A DynamicBlockCutTree answers
+ * queries such as whether two vertices are in the same block and whether a vertex is a cut vertex in near-constant
+ * amortized time, without recomputing the block-cut tree using BlockNode.compute after each insertion.  It is not
+ * necessary for the graph to be connected.  Vertices that we have not added to a DynamicBlockCutTree are regarded as
+ * isolated vertices.  Each isolated vertex that we have added counts as a block by itself; see blockCount().
+ */
+/* This is based on Westbrook and Tarjan (1992): Maintaining Bridge-Connected and Biconnected Components On-Line.  We
+ * maintain a spanning forest of the graph, with each tree rooted at an arbitrary vertex.  Each tree edge is identified
+ * with its child endpoint, and it has an "element" in a union-find structure whose sets are the blocks.  The tree
+ * edges in each block form a subtree, so each block has a unique vertex that is closest to the root: the block's
+ * "head".  Each vertex in a block other than its head is the child endpoint of a tree edge in the block.  Thus, a
+ * vertex's blocks are the block containing its edge to its parent, plus the blocks whose head is the vertex.
+ *
+ * To add an edge (u, v) where u and v are in the same tree, we find the path between them in the block-cut tree, by
+ * alternately climbing from u and from v until the two climbs meet.  A climb goes from a vertex x to the block B
+ * containing x's tree edge, and from B to B's head.  We merge all of the blocks in the path into a single block.  The
+ * head of the merged block is the node where the climbs meet, if it is a vertex, or the head of that node, if it is a
+ * block.  The climbs take time proportional to the number of blocks they merge, plus one, so the total time is nearly
+ * linear.
+ *
+ * To add an edge (u, v) where u and v are in different trees, we reroot the smaller tree at v, and then we make u the
+ * parent of v, with the edge (u, v) in a new block.  Rerooting reverses the parent pointers in the path from v to the
+ * old root, and updates the heads of the blocks in the path, which takes time proportional to the length of the path.
+ * Because we reroot the smaller tree, each vertex is in a rerooted tree O(log n) times.  Rerooting does not change the
+ * heads of the other blocks, because the path from such a block to the root passes through its head both before and
+ * after we reroot.
+ */
+public class DynamicBlockCutTree {
+    /** A map from each vertex we have added to its index. */
+    private Map<Vertex, Integer> vertexIndices = new HashMap<Vertex, Integer>();
+
+    /** The number of vertices we have added. */
+    private int vertexCount;
+
+    /** The parent of each vertex in the spanning forest, or -1 for the root of a tree. */
+    private int[] treeParents = new int[16];
+
+    /** The union-find element of the edge from each vertex to its parent, or -1 for the root of a tree. */
+    private int[] edgeElements = new int[16];
+
+    /**
+     * The parent of each vertex in a union-find structure whose sets are the connected components of the graph.  Each
+     * root is its own parent.
+     */
+    private int[] componentParents = new int[16];
+
+    /** The number of vertices in each connected component, indexed by the component's root in componentParents. */
+    private int[] componentSizes = new int[16];
+
+    /** The number of blocks whose head is each vertex. */
+    private int[] headCounts = new int[16];
+
+    /** The number of union-find elements for tree edges we have created. */
+    private int elementCount;
+
+    /** The parent of each tree edge element in the union-find structure whose sets are the blocks. */
+    private int[] blockParents = new int[16];
+
+    /** The rank of each tree edge element in the union-find structure whose sets are the blocks. */
+    private int[] blockRanks = new int[16];
+
+    /** The head of each block, indexed by the block's root in blockParents. */
+    private int[] heads = new int[16];
+
+    /** The number of blocks, including a block for each isolated vertex. */
+    private int blockCount;
+
+    /**
+     * The value for the most recent call to addEdge that identifies the nodes visited by the climb from the first
+     * endpoint.  We add one to this to identify the nodes visited by the climb from the second endpoint.
+     */
+    private int stamp;
+
+    /**
+     * The stamp of the most recent climb that visited each vertex.  See the comments for the implementation of this
+     * class.
+     */
+    private int[] vertexStamps = new int[16];
+
+    /** The position in the climb's list of blocks at which the most recent climb to visit each vertex visited it. */
+    private int[] vertexPositions = new int[16];
+
+    /** The stamp of the most recent climb that visited each block, indexed by the block's root in blockParents. */
+    private int[] blockStamps = new int[16];
+
+    /** The position in the climb's list of blocks at which the most recent climb to visit each block visited it. */
+    private int[] blockPositions = new int[16];
+
+    /** The blocks visited by the climbs from the first and second endpoints, respectively. */
+    private int[][] climbBlocks = new int[][]{new int[16], new int[16]};
+
+    /**
+     * The current vertices of the climbs from the first and second endpoints, respectively.  We store this in a field
+     * so that addEdge does not allocate memory.
+     */
+    private int[] climbVertices = new int[2];
+
+    /**
+     * The number of blocks visited by the climbs from the first and second endpoints, respectively.  We store this in a
+     * field so that addEdge does not allocate memory.
+     */
+    private int[] climbSizes = new int[2];
+
+    /** Constructs a new DynamicBlockCutTree for a graph with no vertices. */
+    public DynamicBlockCutTree() {
+
+    }
+
+    /** Returns a DynamicBlockCutTree for the specified graph. */
+    public static DynamicBlockCutTree create(Graph graph) {
+        DynamicBlockCutTree tree = new DynamicBlockCutTree();
+        for (Vertex vertex : graph.vertices) {
+            tree.addVertex(vertex);
+        }
+        for (Vertex vertex : graph.vertices) {
+            for (Vertex adjVertex : vertex.edges) {
+                if (tree.vertexIndices.get(vertex) < tree.vertexIndices.get(adjVertex)) {
+                    tree.addEdge(vertex, adjVertex);
+                }
+            }
+        }
+        return tree;
+    }
+
+    /** Returns a copy of the specified array with at least the specified length. */
+    private static int[] grow(int[] array, int minLength) {
+        return Arrays.copyOf(array, Math.max(2 * array.length, minLength));
+    }
+
+    /** Returns the index of the specified vertex, adding it as an isolated vertex if we have not added it already. */
+    private int index(Vertex vertex) {
+        Integer index = vertexIndices.get(vertex);
+        if (index != null) {
+            return index;
+        }
+        if (vertexCount == treeParents.length) {
+            treeParents = grow(treeParents, vertexCount + 1);
+            edgeElements = grow(edgeElements, vertexCount + 1);
+            componentParents = grow(componentParents, vertexCount + 1);
+            componentSizes = grow(componentSizes, vertexCount + 1);
+            headCounts = grow(headCounts, vertexCount + 1);
+            vertexStamps = grow(vertexStamps, vertexCount + 1);
+            vertexPositions = grow(vertexPositions, vertexCount + 1);
+        }
+        treeParents[vertexCount] = -1;
+        edgeElements[vertexCount] = -1;
+        componentParents[vertexCount] = vertexCount;
+        componentSizes[vertexCount] = 1;
+        vertexIndices.put(vertex, vertexCount);
+        blockCount++;
+        vertexCount++;
+        return vertexCount - 1;
+    }
+
+    /** Adds the specified vertex to the graph as an isolated vertex, if we have not added it already. */
+    public void addVertex(Vertex vertex) {
+        index(vertex);
+    }
+
+    /** Returns the root of the connected component containing the specified vertex in componentParents. */
+    private int findComponent(int vertex) {
+        while (componentParents[vertex] != vertex) {
+            componentParents[vertex] = componentParents[componentParents[vertex]];
+            vertex = componentParents[vertex];
+        }
+        return vertex;
+    }
+
+    /** Returns the root of the block containing the specified tree edge element in blockParents. */
+    private int findBlock(int element) {
+        while (blockParents[element] != element) {
+            blockParents[element] = blockParents[blockParents[element]];
+            element = blockParents[element];
+        }
+        return element;
+    }
+
+    /**
+     * Returns the root in blockParents of the block containing the edge from the specified vertex to its parent, or -1
+     * if the vertex is the root of a tree.
+     */
+    private int parentBlock(int vertex) {
+        int element = edgeElements[vertex];
+        if (element < 0) {
+            return -1;
+        } else {
+            return findBlock(element);
+        }
+    }
+
+    /** Merges the blocks with the specified roots in blockParents.  Returns the root of the merged block. */
+    private int unionBlocks(int block1, int block2) {
+        if (blockRanks[block1] < blockRanks[block2]) {
+            blockParents[block1] = block2;
+            return block2;
+        } else {
+            if (blockRanks[block1] == blockRanks[block2]) {
+                blockRanks[block1]++;
+            }
+            blockParents[block2] = block1;
+            return block1;
+        }
+    }
+
+    /**
+     * Reroots the tree containing the specified vertex at that vertex.  This takes time proportional to the depth of
+     * the vertex.
+     */
+    private void reroot(int vertex) {
+        int prevVertex = -1;
+        int prevElement = -1;
+        int prevBlock = -1;
+        while (vertex >= 0) {
+            int parent = treeParents[vertex];
+            int element = edgeElements[vertex];
+            treeParents[vertex] = prevVertex;
+            edgeElements[vertex] = prevElement;
+            if (element >= 0) {
+                // The first vertex in the path that is in a given block becomes the block's head
+                int block = findBlock(element);
+                if (block != prevBlock) {
+                    headCounts[heads[block]]--;
+                    heads[block] = vertex;
+                    headCounts[vertex]++;
+                    prevBlock = block;
+                }
+            }
+            prevVertex = vertex;
+            prevElement = element;
+            vertex = parent;
+        }
+    }
+
+    /** Records that the climb with the specified side (0 or 1) visited the specified block. */
+    private void visitBlock(int side, int block, int position) {
+        if (position == climbBlocks[side].length) {
+            climbBlocks[side] = grow(climbBlocks[side], position + 1);
+        }
+        climbBlocks[side][position] = block;
+        blockStamps[block] = stamp + side;
+        blockPositions[block] = position;
+    }
+
+    /**
+     * Adds an edge between the specified vertices, updating the blocks.  This adds the vertices if we have not added
+     * them already.  The caller should add the edge to the graph as well, if desired, either before or after calling
+     * addEdge.  It is okay if there is already an edge between the vertices.
+     */
+    public void addEdge(Vertex vertex1, Vertex vertex2) {
+        if (vertex1 == vertex2) {
+            throw new IllegalArgumentException("Self-loops are not supported");
+        }
+        int index1 = index(vertex1);
+        int index2 = index(vertex2);
+        int component1 = findComponent(index1);
+        int component2 = findComponent(index2);
+        if (component1 != component2) {
+            addTreeEdge(index1, index2, component1, component2);
+        } else {
+            addNonTreeEdge(index1, index2);
+        }
+    }
+
+    /**
+     * Adds an edge between the specified vertices, which are in the connected components with the specified roots in
+     * componentParents.
+     */
+    private void addTreeEdge(int vertex1, int vertex2, int component1, int component2) {
+        // Reroot the smaller tree
+        if (componentSizes[component1] < componentSizes[component2]) {
+            int temp = vertex1;
+            vertex1 = vertex2;
+            vertex2 = temp;
+            temp = component1;
+            component1 = component2;
+            component2 = temp;
+        }
+        if (componentSizes[component1] == 1) {
+            blockCount--;
+        }
+        if (componentSizes[component2] == 1) {
+            blockCount--;
+        }
+        reroot(vertex2);
+
+        if (elementCount == blockParents.length) {
+            blockParents = grow(blockParents, elementCount + 1);
+            blockRanks = grow(blockRanks, elementCount + 1);
+            heads = grow(heads, elementCount + 1);
+            blockStamps = grow(blockStamps, elementCount + 1);
+            blockPositions = grow(blockPositions, elementCount + 1);
+        }
+        blockParents[elementCount] = elementCount;
+        heads[elementCount] = vertex1;
+        headCounts[vertex1]++;
+        treeParents[vertex2] = vertex1;
+        edgeElements[vertex2] = elementCount;
+        elementCount++;
+        blockCount++;
+
+        componentParents[component2] = component1;
+        componentSizes[component1] += componentSizes[component2];
+    }
+
+    /** Adds an edge between the specified vertices, which are in the same connected component. */
+    private void addNonTreeEdge(int vertex1, int vertex2) {
+        // Alternately climb from vertex1 and vertex2 until the climbs meet
+        stamp += 2;
+        int[] vertices = climbVertices;
+        int[] sizes = climbSizes;
+        vertices[0] = vertex1;
+        vertices[1] = vertex2;
+        sizes[0] = 0;
+        sizes[1] = 0;
+        vertexStamps[vertex1] = stamp;
+        vertexPositions[vertex1] = 0;
+        vertexStamps[vertex2] = stamp + 1;
+        vertexPositions[vertex2] = 0;
+        int meetingSide = -1;
+        int meetingVertex = -1;
+        int meetingBlock = -1;
+        int otherSize = 0;
+        while (meetingSide < 0) {
+            for (int side = 0; side < 2 && meetingSide < 0; side++) {
+                int vertex = vertices[side];
+                int block = parentBlock(vertex);
+                if (block < 0) {
+                    continue;
+                }
+                int otherStamp = stamp + 1 - side;
+                if (blockStamps[block] == otherStamp) {
+                    meetingSide = side;
+                    meetingBlock = block;
+                    otherSize = blockPositions[block];
+                    visitBlock(side, block, sizes[side]);
+                    sizes[side]++;
+                    break;
+                }
+                visitBlock(side, block, sizes[side]);
+                sizes[side]++;
+
+                vertex = heads[block];
+                vertices[side] = vertex;
+                if (vertexStamps[vertex] == otherStamp) {
+                    meetingSide = side;
+                    meetingVertex = vertex;
+                    otherSize = vertexPositions[vertex];
+                    break;
+                }
+                vertexStamps[vertex] = stamp + side;
+                vertexPositions[vertex] = sizes[side];
+            }
+        }
+
+        // Merge the blocks in the path between the two endpoints.  The climb that did not detect the meeting
+        // contributes the blocks it visited before the meeting node.
+        int head;
+        if (meetingVertex >= 0) {
+            head = meetingVertex;
+        } else {
+            head = heads[meetingBlock];
+        }
+        int mergedBlock = -1;
+        for (int side = 0; side < 2; side++) {
+            int size;
+            if (side == meetingSide) {
+                size = sizes[side];
+            } else {
+                size = otherSize;
+            }
+            for (int i = 0; i < size; i++) {
+                int block = climbBlocks[side][i];
+                headCounts[heads[block]]--;
+                if (mergedBlock < 0) {
+                    mergedBlock = block;
+                } else {
+                    mergedBlock = unionBlocks(mergedBlock, block);
+                    blockCount--;
+                }
+            }
+        }
+        if (mergedBlock >= 0) {
+            heads[mergedBlock] = head;
+            headCounts[head]++;
+        }
+    }
+
+    /** Returns whether the specified vertices are in the same connected component. */
+    public boolean areConnected(Vertex vertex1, Vertex vertex2) {
+        if (vertex1 == vertex2) {
+            return true;
+        }
+        Integer index1 = vertexIndices.get(vertex1);
+        Integer index2 = vertexIndices.get(vertex2);
+        return index1 != null && index2 != null && findComponent(index1) == findComponent(index2);
+    }
+
+    /** Returns whether there is a block that contains both of the specified vertices. */
+    public boolean areInSameBlock(Vertex vertex1, Vertex vertex2) {
+        if (vertex1 == vertex2) {
+            return true;
+        }
+        Integer index1 = vertexIndices.get(vertex1);
+        Integer index2 = vertexIndices.get(vertex2);
+        if (index1 == null || index2 == null) {
+            return false;
+        }
+        int block1 = parentBlock(index1);
+        int block2 = parentBlock(index2);
+        return (block1 >= 0 && (block1 == block2 || heads[block1] == index2)) ||
+            (block2 >= 0 && heads[block2] == index1);
+    }
+
+    /** Returns whether the specified vertex is a cut vertex, i.e. whether it is in more than one block. */
+    public boolean isCutVertex(Vertex vertex) {
+        Integer index = vertexIndices.get(vertex);
+        if (index == null) {
+            return false;
+        }
+        int count = headCounts[index];
+        if (treeParents[index] >= 0) {
+            count++;
+        }
+        return count >= 2;
+    }
+
+    /**
+     * Returns the number of blocks in the graph.  This counts each isolated vertex as a block by itself, so it equals
+     * the total number of BlockNodes in the block-cut trees that BlockNode.compute returns for the connected
+     * components: BlockNode.compute returns a single BlockNode with no edges for an isolated vertex.
+     */
+    public int blockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Returns whether the graph is biconnected, i.e. whether it consists of a single block.  As in blockCount(), a
+     * graph consisting of a single vertex counts as one block, so it is regarded as biconnected.
+     */
+    public boolean isBiconnected() {
+        return blockCount == 1;
+    }
+}
@@ -0,0 +1,455 @@
+package com.github.btrekkie.graph.bc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.github.btrekkie.graph.Vertex;
+
+/**
+ * Computes a BlockDecomposition using Tarjan and Vishkin's parallel biconnectivity algorithm, as described in
+ * https://doi.org/10.1137/0214061 .  Most of the work is divided into tasks that run in a ForkJoinPool.  The result has
+ * the same blocks, attachment vertices, and block order constraints as the sequential algorithm in BlockDecomposition,
+ * so BlockNode can build the same block-cut tree from either one.
+ */
+/* Tarjan and Vishkin's algorithm reduces biconnectivity to connectivity.  We start with a spanning tree T, which we
+ * compute using breadth-first search, as this also numbers the vertices in the graph.  We identify each edge in T
+ * using the child endpoint.  Then we compute the preorder number pre(v) and the number of descendants size(v) of each
+ * vertex v, along with low(v) and high(v), the minimum and maximum preorder numbers of the vertices that are either
+ * descendants of v or adjacent to descendants of v via non-tree edges.  Each of these steps operates on one level of T
+ * at a time, processing the vertices in the level in parallel.
+ *
+ * Two edges of T are in the same block if and only if they are connected in the auxiliary graph with the following
+ * edges:
+ *
+ * 1. For each non-tree edge (v, w) where neither v nor w is an ancestor of the other, an edge between the tree edges
+ *    to v and w.
+ * 2. For each tree edge to v whose parent p is not the root, an edge between the tree edges to v and p if low(v) <
+ *    pre(p) or high(v) >= pre(p) + size(p), i.e. if some descendant of v is adjacent to a vertex outside of the subtree
+ *    rooted at p.
+ *
+ * We find the connected components of the auxiliary graph using a concurrent union-find structure, processing the
+ * vertices in parallel.  Each non-tree edge belongs to the same block as the tree edge to its endpoint with the larger
+ * preorder number.  The "top" tree edge of each block, i.e. the one whose child has the lowest preorder number, goes
+ * from the block's attachment vertex to the block's child vertex with the lowest preorder number.
+ */
+class ParallelBlockDecomposition {
+    /**
+     * The maximum number of vertices or blocks that a single task processes.  We process ranges that are no larger
+     * than this in the current thread.
+     */
+    static final int GRAIN_SIZE = 1024;
+
+    /** The phase that computes "sizes" for a range of vertices in a given level of the spanning tree. */
+    static final int SIZES_PHASE = 0;
+
+    /** The phase that computes "preorders" for the children of a range of vertices in a given level. */
+    static final int PREORDERS_PHASE = 1;
+
+    /** The phase that initializes "lows" and "highs" for a range of vertices, using their non-tree edges. */
+    static final int LOCAL_LOWS_PHASE = 2;
+
+    /** The phase that updates "lows" and "highs" for a range of vertices in a given level, using their children. */
+    static final int LOWS_PHASE = 3;
+
+    /** The phase that adds the edges of the auxiliary graph for a range of vertices to "unionFind". */
+    static final int UNION_PHASE = 4;
+
+    /** The phase that computes "components" and "preorderVertices" for a range of vertices. */
+    static final int COMPONENTS_PHASE = 5;
+
+    /** The phase that calls decomposition.copyBlocks for a range of blocks. */
+    static final int COPY_PHASE = 6;
+
+    /** The pool in which to run the tasks. */
+    private final ForkJoinPool pool;
+
+    /** The Vertex for each vertex in the graph.  The vertices are numbered in breadth-first order. */
+    private final Vertex[] vertices;
+
+    /** The offsets into "neighbors" of the adjacency lists of the vertices, as in CompactGraph. */
+    private final int[] offsets;
+
+    /** The concatenation of the adjacency lists of the vertices, as in CompactGraph. */
+    private final int[] neighbors;
+
+    /** The parent of each vertex in the spanning tree, or -1 for the root vertex 0. */
+    private final int[] parents;
+
+    /**
+     * The offsets of the ranges of the vertices' children in the spanning tree.  The children of vertex v are vertices
+     * childOffsets[v] through childOffsets[v + 1] - 1.
+     */
+    private final int[] childOffsets;
+
+    /** The number of descendants of each vertex in the spanning tree, including the vertex itself. */
+    private final int[] sizes;
+
+    /** The preorder number of each vertex in the spanning tree. */
+    private final int[] preorders;
+
+    /** The vertex with each preorder number.  preorderVertices[preorders[v]] == v. */
+    private final int[] preorderVertices;
+
+    /** The value low(v) of each vertex v.  See the comments for the implementation of this class. */
+    private final int[] lows;
+
+    /** The value high(v) of each vertex v.  See the comments for the implementation of this class. */
+    private final int[] highs;
+
+    /**
+     * The parent of each tree edge in the union-find structure for the auxiliary graph, identifying each tree edge by
+     * its child endpoint.  Each root is its own parent, and it is the lowest-numbered element of its set.
+     */
+    private final AtomicIntegerArray unionFind;
+
+    /** The root in unionFind of each tree edge, i.e. of the block containing each tree edge. */
+    private final int[] components;
+
+    /** The decomposition whose blocks COPY_PHASE copies, if any. */
+    private BlockDecomposition decomposition;
+
+    private ParallelBlockDecomposition(
+            ForkJoinPool pool, Vertex[] vertices, int[] offsets, int[] neighbors, int[] parents, int[] childOffsets) {
+        this.pool = pool;
+        this.vertices = vertices;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.parents = parents;
+        this.childOffsets = childOffsets;
+        int vertexCount = vertices.length;
+        sizes = new int[vertexCount];
+        preorders = new int[vertexCount];
+        preorderVertices = new int[vertexCount];
+        lows = new int[vertexCount];
+        highs = new int[vertexCount];
+        unionFind = new AtomicIntegerArray(vertexCount);
+        components = new int[vertexCount];
+    }
+
+    /** Runs the specified phase on the specified range of vertices or blocks, as in ParallelBlockTask. */
+    void runPhase(int phase, int start, int end) {
+        switch (phase) {
+            case SIZES_PHASE:
+                for (int vertex = start; vertex < end; vertex++) {
+                    int size = 1;
+                    for (int child = childOffsets[vertex]; child < childOffsets[vertex + 1]; child++) {
+                        size += sizes[child];
+                    }
+                    sizes[vertex] = size;
+                }
+                break;
+            case PREORDERS_PHASE:
+                for (int vertex = start; vertex < end; vertex++) {
+                    int preorder = preorders[vertex] + 1;
+                    for (int child = childOffsets[vertex]; child < childOffsets[vertex + 1]; child++) {
+                        preorders[child] = preorder;
+                        preorder += sizes[child];
+                    }
+                }
+                break;
+            case LOCAL_LOWS_PHASE:
+                for (int vertex = start; vertex < end; vertex++) {
+                    int low = preorders[vertex];
+                    int high = low;
+                    for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                        int adjVertex = neighbors[i];
+                        if (parents[adjVertex] != vertex && parents[vertex] != adjVertex) {
+                            low = Math.min(low, preorders[adjVertex]);
+                            high = Math.max(high, preorders[adjVertex]);
+                        }
+                    }
+                    lows[vertex] = low;
+                    highs[vertex] = high;
+                }
+                break;
+            case LOWS_PHASE:
+                for (int vertex = start; vertex < end; vertex++) {
+                    int low = lows[vertex];
+                    int high = highs[vertex];
+                    for (int child = childOffsets[vertex]; child < childOffsets[vertex + 1]; child++) {
+                        low = Math.min(low, lows[child]);
+                        high = Math.max(high, highs[child]);
+                    }
+                    lows[vertex] = low;
+                    highs[vertex] = high;
+                }
+                break;
+            case UNION_PHASE:
+                for (int vertex = Math.max(start, 1); vertex < end; vertex++) {
+                    int parent = parents[vertex];
+                    if (parent != 0 &&
+                            (lows[vertex] < preorders[parent] || highs[vertex] >= preorders[parent] + sizes[parent])) {
+                        union(vertex, parent);
+                    }
+                    for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                        int adjVertex = neighbors[i];
+                        if (adjVertex > vertex && parents[adjVertex] != vertex && parents[vertex] != adjVertex &&
+                                !isAncestor(vertex, adjVertex) && !isAncestor(adjVertex, vertex)) {
+                            union(vertex, adjVertex);
+                        }
+                    }
+                }
+                break;
+            case COMPONENTS_PHASE:
+                for (int vertex = start; vertex < end; vertex++) {
+                    if (vertex > 0) {
+                        components[vertex] = find(vertex);
+                    }
+                    preorderVertices[preorders[vertex]] = vertex;
+                }
+                break;
+            case COPY_PHASE:
+                decomposition.copyBlocks(start, end);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown phase " + phase);
+        }
+    }
+
+    /** Returns whether "ancestor" is an ancestor of "vertex" in the spanning tree, or is equal to "vertex". */
+    private boolean isAncestor(int ancestor, int vertex) {
+        return preorders[ancestor] <= preorders[vertex] && preorders[vertex] < preorders[ancestor] + sizes[ancestor];
+    }
+
+    /** Returns the root of the set containing the specified tree edge in unionFind. */
+    private int find(int edge) {
+        while (true) {
+            int parent = unionFind.get(edge);
+            if (parent == edge) {
+                return edge;
+            }
+
+            // Path halving
+            int grandparent = unionFind.get(parent);
+            if (grandparent != parent) {
+                unionFind.compareAndSet(edge, parent, grandparent);
+            }
+            edge = parent;
+        }
+    }
+
+    /** Merges the sets containing the specified tree edges in unionFind.  This is safe to call concurrently. */
+    private void union(int edge1, int edge2) {
+        while (true) {
+            int root1 = find(edge1);
+            int root2 = find(edge2);
+            if (root1 == root2) {
+                return;
+            }
+
+            // Link the higher-numbered root to the lower-numbered root, provided it is still a root
+            int minRoot = Math.min(root1, root2);
+            int maxRoot = Math.max(root1, root2);
+            if (unionFind.compareAndSet(maxRoot, maxRoot, minRoot)) {
+                return;
+            }
+        }
+    }
+
+    /** Runs the specified phase on the specified range of vertices or blocks, using "pool" if the range is large. */
+    private void run(int phase, int start, int end) {
+        if (end - start <= GRAIN_SIZE) {
+            runPhase(phase, start, end);
+        } else {
+            pool.invoke(new ParallelBlockTask(this, phase, start, end));
+        }
+    }
+
+    /** Returns the BlockDecomposition for the graph, after computing it using Tarjan and Vishkin's algorithm. */
+    private BlockDecomposition compute() {
+        // The vertices are in breadth-first order, so the levels of the spanning tree are contiguous ranges
+        int vertexCount = vertices.length;
+        List<Integer> levelOffsets = new ArrayList<Integer>();
+        levelOffsets.add(0);
+        levelOffsets.add(1);
+        while (levelOffsets.get(levelOffsets.size() - 1) < vertexCount) {
+            int levelEnd = levelOffsets.get(levelOffsets.size() - 1);
+            levelOffsets.add(childOffsets[levelEnd]);
+        }
+        int levelCount = levelOffsets.size() - 1;
+
+        for (int level = levelCount - 1; level >= 0; level--) {
+            run(SIZES_PHASE, levelOffsets.get(level), levelOffsets.get(level + 1));
+        }
+        for (int level = 0; level < levelCount; level++) {
+            run(PREORDERS_PHASE, levelOffsets.get(level), levelOffsets.get(level + 1));
+        }
+        run(LOCAL_LOWS_PHASE, 0, vertexCount);
+        for (int level = levelCount - 1; level >= 0; level--) {
+            run(LOWS_PHASE, levelOffsets.get(level), levelOffsets.get(level + 1));
+        }
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            unionFind.set(vertex, vertex);
+        }
+        run(UNION_PHASE, 0, vertexCount);
+        run(COMPONENTS_PHASE, 0, vertexCount);
+        return createDecomposition();
+    }
+
+    /** Returns the BlockDecomposition for the blocks given by "components". */
+    private BlockDecomposition createDecomposition() {
+        // Find the block that BlockDecomposition's depth-first search would find last, so that we root the block-cut
+        // tree at the same block.  The children of vertex 0 are its neighbors, in the same order that the search visits
+        // them, and the search finishes the blocks containing vertex 0 in the order of the first such neighbor in each
+        // block.
+        int vertexCount = vertices.length;
+        int[] componentBlocks = new int[vertexCount];
+        Arrays.fill(componentBlocks, -1);
+        int rootComponent = -1;
+        for (int child = childOffsets[0]; child < childOffsets[1]; child++) {
+            int component = components[child];
+            if (componentBlocks[component] < 0) {
+                componentBlocks[component] = 0;
+                rootComponent = component;
+            }
+        }
+        for (int child = childOffsets[0]; child < childOffsets[1]; child++) {
+            componentBlocks[components[child]] = -1;
+        }
+
+        // Number the root block last, and the other blocks in descending order of the preorder numbers of their top
+        // tree edges.  This is a postorder of the block-cut tree, because the root block does not have a parent, and
+        // each other block's top tree edge has a larger preorder number than its parent block's top tree edge.
+        componentBlocks[rootComponent] = 0;
+        int blockCount = 1;
+        for (int i = 1; i < vertexCount; i++) {
+            int component = components[preorderVertices[i]];
+            if (componentBlocks[component] < 0) {
+                componentBlocks[component] = blockCount;
+                blockCount++;
+            }
+        }
+        int[] ownerBlocks = new int[vertexCount];
+        ownerBlocks[0] = -1;
+        for (int vertex = 1; vertex < vertexCount; vertex++) {
+            ownerBlocks[vertex] = blockCount - 1 - componentBlocks[components[vertex]];
+        }
+
+        // Group the edges by block, assigning each edge to the block of its endpoint with the larger preorder number
+        int[] blockEdgeOffsets = new int[blockCount + 1];
+        for (int vertex = 1; vertex < vertexCount; vertex++) {
+            for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                if (preorders[neighbors[i]] < preorders[vertex]) {
+                    blockEdgeOffsets[ownerBlocks[vertex] + 1]++;
+                }
+            }
+        }
+        for (int block = 0; block < blockCount; block++) {
+            blockEdgeOffsets[block + 1] += blockEdgeOffsets[block];
+        }
+        int[] blockEdgeEnds = Arrays.copyOf(blockEdgeOffsets, blockCount);
+        Vertex[] edgeVertex1s = new Vertex[neighbors.length / 2];
+        Vertex[] edgeVertex2s = new Vertex[neighbors.length / 2];
+        for (int vertex = 1; vertex < vertexCount; vertex++) {
+            int block = ownerBlocks[vertex];
+            for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                if (preorders[neighbors[i]] < preorders[vertex]) {
+                    edgeVertex1s[blockEdgeEnds[block]] = vertices[neighbors[i]];
+                    edgeVertex2s[blockEdgeEnds[block]] = vertices[vertex];
+                    blockEdgeEnds[block]++;
+                }
+            }
+        }
+
+        // Group the vertices by block.  Each block's vertices start with the attachment vertex, followed by the child
+        // of the top tree edge, followed by the remaining vertices in preorder.
+        int[] blockVertexOffsets = new int[blockCount + 1];
+        for (int vertex = 1; vertex < vertexCount; vertex++) {
+            blockVertexOffsets[ownerBlocks[vertex] + 1]++;
+        }
+        for (int block = 0; block < blockCount; block++) {
+            blockVertexOffsets[block + 1] += blockVertexOffsets[block] + 1;
+        }
+        int[] blockVertexEnds = Arrays.copyOf(blockVertexOffsets, blockCount);
+        Vertex[] blockVertices = new Vertex[vertexCount + blockCount - 1];
+        int[] attachments = new int[blockCount];
+        for (int i = 1; i < vertexCount; i++) {
+            int vertex = preorderVertices[i];
+            int block = ownerBlocks[vertex];
+            if (blockVertexEnds[block] == blockVertexOffsets[block]) {
+                attachments[block] = parents[vertex];
+                blockVertices[blockVertexEnds[block]] = vertices[parents[vertex]];
+                blockVertexEnds[block]++;
+            }
+            blockVertices[blockVertexEnds[block]] = vertices[vertex];
+            blockVertexEnds[block]++;
+        }
+        return new BlockDecomposition(
+            vertices, blockCount, edgeVertex1s, edgeVertex2s, blockEdgeOffsets, blockVertices, blockVertexOffsets,
+            attachments, ownerBlocks);
+    }
+
+    /**
+     * Returns the BlockDecomposition for the connected component containing the specified vertex.  If the component
+     * has fewer than "threshold" edges, this uses the sequential algorithm in BlockDecomposition.  Otherwise, it uses
+     * Tarjan and Vishkin's algorithm, running tasks in the specified pool.  If "copyBlocks" is true, this calls
+     * copyBlocks for all of the blocks, copying them in parallel.
+     */
+    public static BlockDecomposition create(Vertex root, ForkJoinPool pool, int threshold, boolean copyBlocks) {
+        // Use breadth-first search to number the vertices in the component, compute its adjacency lists, and compute
+        // a breadth-first spanning tree
+        Map<Vertex, Integer> vertexIndices = new HashMap<Vertex, Integer>();
+        List<Vertex> graphVertices = new ArrayList<Vertex>();
+        vertexIndices.put(root, 0);
+        graphVertices.add(root);
+        int[] offsets = new int[16];
+        int[] neighbors = new int[16];
+        int[] parents = new int[16];
+        int[] childOffsets = new int[16];
+        parents[0] = -1;
+        int offset = 0;
+        for (int i = 0; i < graphVertices.size(); i++) {
+            if (i + 1 >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, Math.max(2 * offsets.length, i + 2));
+                childOffsets = Arrays.copyOf(childOffsets, Math.max(2 * childOffsets.length, i + 2));
+            }
+            offsets[i] = offset;
+            childOffsets[i] = graphVertices.size();
+            Vertex vertex = graphVertices.get(i);
+            if (offset + vertex.edges.size() > neighbors.length) {
+                neighbors = Arrays.copyOf(neighbors, Math.max(2 * neighbors.length, offset + vertex.edges.size()));
+            }
+            for (Vertex adjVertex : vertex.edges) {
+                Integer index = vertexIndices.get(adjVertex);
+                if (index == null) {
+                    index = graphVertices.size();
+                    vertexIndices.put(adjVertex, index);
+                    graphVertices.add(adjVertex);
+                    if (index >= parents.length) {
+                        parents = Arrays.copyOf(parents, 2 * parents.length);
+                    }
+                    parents[index] = i;
+                }
+                neighbors[offset] = index;
+                offset++;
+            }
+        }
+        int vertexCount = graphVertices.size();
+        offsets[vertexCount] = offset;
+        childOffsets[vertexCount] = vertexCount;
+        Vertex[] vertexArray = graphVertices.toArray(new Vertex[vertexCount]);
+        neighbors = Arrays.copyOf(neighbors, offset);
+
+        if (offset / 2 < threshold || vertexCount == 1) {
+            BlockDecomposition decomposition = new BlockDecomposition(vertexArray, offsets, neighbors);
+            if (copyBlocks) {
+                decomposition.copyBlocks(0, decomposition.blockCount);
+            }
+            return decomposition;
+        }
+
+        ParallelBlockDecomposition parallelDecomposition = new ParallelBlockDecomposition(
+            pool, vertexArray, offsets, neighbors, parents, childOffsets);
+        BlockDecomposition decomposition = parallelDecomposition.compute();
+        if (copyBlocks) {
+            parallelDecomposition.decomposition = decomposition;
+            parallelDecomposition.run(COPY_PHASE, 0, decomposition.blockCount);
+        }
+        return decomposition;
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.btrekkie.graph.bc;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A task for running a phase of ParallelBlockDecomposition on a range of vertices or blocks.  The task splits the range
+ * in half until it has at most ParallelBlockDecomposition.GRAIN_SIZE elements.
+ */
+class ParallelBlockTask extends RecursiveAction {
+    private static final long serialVersionUID = -6059112818415384313L;
+
+    /** The decomposition. */
+    private final ParallelBlockDecomposition decomposition;
+
+    /** The phase to run, e.g. ParallelBlockDecomposition.SIZES_PHASE. */
+    private final int phase;
+
+    /** The first vertex or block in the range. */
+    private final int start;
+
+    /** The vertex or block immediately after the last vertex or block in the range. */
+    private final int end;
+
+    public ParallelBlockTask(ParallelBlockDecomposition decomposition, int phase, int start, int end) {
+        this.decomposition = decomposition;
+        this.phase = phase;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+        if (end - start <= ParallelBlockDecomposition.GRAIN_SIZE) {
+            decomposition.runPhase(phase, start, end);
+        } else {
+            int mid = (start + end) / 2;
+            invokeAll(
+                new ParallelBlockTask(decomposition, phase, start, mid),
+                new ParallelBlockTask(decomposition, phase, mid, end));
+        }
+    }
+}
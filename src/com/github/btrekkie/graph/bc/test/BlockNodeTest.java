@@ -1,21 +1,30 @@
 package com.github.btrekkie.graph.bc.test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Test;
 
+import com.github.btrekkie.graph.CompactGraph;
 import com.github.btrekkie.graph.Graph;
 import com.github.btrekkie.graph.Vertex;
 import com.github.btrekkie.graph.bc.BlockNode;
 import com.github.btrekkie.graph.bc.CutNode;
+import com.github.btrekkie.graph.generator.GraphGenerator;
 import com.github.btrekkie.util.UnorderedPair;
 
 public class BlockNodeTest {
@@ -552,4 +561,234 @@ public class BlockNodeTest {
         new BlockNode(cutNode2, block, blockVertexToVertex);
         assertTrue(areEquivalent(BlockNode.compute(vertex1), blockNode1));
     }
+
+    /**
+     * Asserts that the subtrees rooted at the specified nodes have the same structure and blocks, where "node" was
+     * created using BlockNode.compute and "view" was created using BlockNode.computeViews.
+     */
+    private void checkViews(BlockNode node, BlockNode view) {
+        assertNull(view.block);
+        assertNull(view.blockVertexToVertex);
+        Set<UnorderedPair<Vertex>> viewEdges = new HashSet<UnorderedPair<Vertex>>();
+        for (int i = 0; i < view.edgeCount(); i++) {
+            viewEdges.add(new UnorderedPair<Vertex>(view.edgeVertex1(i), view.edgeVertex2(i)));
+        }
+        assertEquals(view.edgeCount(), viewEdges.size());
+        assertEquals(edges(node), viewEdges);
+        List<Vertex> viewVertices = new ArrayList<Vertex>(view.blockVertexCount());
+        for (int i = 0; i < view.blockVertexCount(); i++) {
+            viewVertices.add(view.blockVertex(i));
+        }
+        assertEquals(new HashSet<Vertex>(node.blockVertexToVertex.values()), new HashSet<Vertex>(viewVertices));
+        assertEquals(node.blockVertexToVertex.size(), viewVertices.size());
+        if (viewVertices.size() > 1) {
+            assertTrue(viewVertices.get(0).edges.contains(viewVertices.get(1)));
+        }
+
+        assertEquals(node.children.size(), view.children.size());
+        Iterator<CutNode> viewChildren = view.children.iterator();
+        for (CutNode child : node.children) {
+            CutNode viewChild = viewChildren.next();
+            assertEquals(child.vertex, viewChild.vertex);
+            assertEquals(child.children.size(), viewChild.children.size());
+            Iterator<BlockNode> viewGrandchildren = viewChild.children.iterator();
+            for (BlockNode grandchild : child.children) {
+                checkViews(grandchild, viewGrandchildren.next());
+            }
+        }
+    }
+
+    /** Tests BlockNode.computeViews. */
+    @Test
+    public void testComputeViews() {
+        Graph graph = new Graph();
+        Vertex vertex = graph.createVertex();
+        BlockNode view = BlockNode.computeViews(vertex);
+        assertEquals(0, view.edgeCount());
+        assertEquals(1, view.blockVertexCount());
+        assertEquals(vertex, view.blockVertex(0));
+        assertTrue(view.children.isEmpty());
+
+        Random random = new Random(2);
+        for (int i = 0; i < 10; i++) {
+            graph = new Graph();
+            vertex = GraphGenerator.createRandomBlockTree(graph, 1 + random.nextInt(20), 3 + random.nextInt(5), random);
+            checkViews(BlockNode.compute(vertex), BlockNode.computeViews(vertex));
+        }
+    }
+
+    /**
+     * Asserts that the subtrees rooted at the specified nodes have the same structure and blocks, where "view" was
+     * created using BlockNode.computeViews(Vertex) and compactView was created using
+     * BlockNode.computeViews(CompactGraph, int).
+     * @param view The node for the Vertex-based graph.
+     * @param compactView The node for the CompactGraph.
+     * @param vertexIndices A map from each vertex in the Vertex-based graph to its vertex number in the CompactGraph.
+     */
+    private void checkCompactViews(BlockNode view, BlockNode compactView, Map<Vertex, Integer> vertexIndices) {
+        assertEquals(view.edgeCount(), compactView.edgeCount());
+        for (int i = 0; i < view.edgeCount(); i++) {
+            assertEquals((int)vertexIndices.get(view.edgeVertex1(i)), compactView.edgeVertex1(i).debugId);
+            assertEquals((int)vertexIndices.get(view.edgeVertex2(i)), compactView.edgeVertex2(i).debugId);
+        }
+        assertEquals(view.blockVertexCount(), compactView.blockVertexCount());
+        for (int i = 0; i < view.blockVertexCount(); i++) {
+            assertEquals((int)vertexIndices.get(view.blockVertex(i)), compactView.blockVertex(i).debugId);
+        }
+
+        assertEquals(view.children.size(), compactView.children.size());
+        Iterator<CutNode> compactChildren = compactView.children.iterator();
+        for (CutNode child : view.children) {
+            CutNode compactChild = compactChildren.next();
+            assertEquals((int)vertexIndices.get(child.vertex), compactChild.vertex.debugId);
+            assertEquals(child.children.size(), compactChild.children.size());
+            Iterator<BlockNode> compactGrandchildren = compactChild.children.iterator();
+            for (BlockNode grandchild : child.children) {
+                checkCompactViews(grandchild, compactGrandchildren.next(), vertexIndices);
+            }
+        }
+    }
+
+    /** Tests BlockNode.computeViews(CompactGraph, int). */
+    @Test
+    public void testComputeViewsCompactGraph() {
+        Random random = new Random(3);
+        for (int i = 0; i < 10; i++) {
+            Graph graph = new Graph();
+            Vertex vertex = GraphGenerator.createRandomBlockTree(
+                graph, 1 + random.nextInt(20), 3 + random.nextInt(5), random);
+            Vertex isolatedVertex = graph.createVertex();
+            CompactGraph compactGraph = CompactGraph.create(graph);
+            Map<Vertex, Integer> vertexIndices = new HashMap<Vertex, Integer>();
+            for (Vertex graphVertex : graph.vertices) {
+                vertexIndices.put(graphVertex, vertexIndices.size());
+            }
+            checkCompactViews(
+                BlockNode.computeViews(vertex), BlockNode.computeViews(compactGraph, vertexIndices.get(vertex)),
+                vertexIndices);
+
+            BlockNode isolatedView = BlockNode.computeViews(compactGraph, vertexIndices.get(isolatedVertex));
+            assertEquals(0, isolatedView.edgeCount());
+            assertEquals(1, isolatedView.blockVertexCount());
+            assertEquals((int)vertexIndices.get(isolatedVertex), isolatedView.blockVertex(0).debugId);
+            assertTrue(isolatedView.children.isEmpty());
+        }
+    }
+
+    /** Returns the number of edges in the connected component containing the specified vertex. */
+    private int componentEdgeCount(Vertex vertex) {
+        Set<Vertex> visited = new HashSet<Vertex>();
+        List<Vertex> queue = new ArrayList<Vertex>();
+        visited.add(vertex);
+        queue.add(vertex);
+        int degreeSum = 0;
+        for (int i = 0; i < queue.size(); i++) {
+            for (Vertex adjVertex : queue.get(i).edges) {
+                degreeSum++;
+                if (visited.add(adjVertex)) {
+                    queue.add(adjVertex);
+                }
+            }
+        }
+        return degreeSum / 2;
+    }
+
+    /**
+     * Asserts that BlockNode.computeParallel produces a block-cut tree equivalent to that of BlockNode.compute for the
+     * connected component containing the specified vertex, both when using the parallel algorithm and when using the
+     * default threshold.
+     */
+    private void checkParallel(Vertex vertex, ForkJoinPool pool) {
+        BlockNode expected = BlockNode.compute(vertex);
+        BlockNode node = BlockNode.computeParallel(vertex, pool, 0, true);
+        assertTrue(areEquivalent(expected, node));
+        assertEquals(edges(expected), edges(node));
+        assertEquals(
+            new HashSet<Vertex>(expected.blockVertexToVertex.values()),
+            new HashSet<Vertex>(node.blockVertexToVertex.values()));
+        assertTrue(areEquivalent(expected, BlockNode.computeParallel(vertex)));
+
+        BlockNode view = BlockNode.computeParallel(vertex, pool, 0, false);
+        assertNull(view.block);
+        BlockNode expectedView = BlockNode.computeViews(vertex);
+        assertEquals(expectedView.blockVertexCount(), view.blockVertexCount());
+        for (int i = 0; i < 2 && i < view.blockVertexCount(); i++) {
+            assertEquals(expectedView.blockVertex(i), view.blockVertex(i));
+        }
+        List<BlockNode> level = Collections.singletonList(view);
+        int edgeCount = 0;
+        while (!level.isEmpty()) {
+            List<BlockNode> nextLevel = new ArrayList<BlockNode>();
+            for (BlockNode blockNode : level) {
+                edgeCount += blockNode.edgeCount();
+                if (blockNode.blockVertexCount() > 1) {
+                    assertTrue(blockNode.blockVertex(0).edges.contains(blockNode.blockVertex(1)));
+                }
+                for (CutNode child : blockNode.children) {
+                    nextLevel.addAll(child.children);
+                }
+            }
+            level = nextLevel;
+        }
+        assertEquals(componentEdgeCount(vertex), edgeCount);
+    }
+
+    /** Tests BlockNode.computeParallel. */
+    @Test
+    public void testComputeParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Graph graph = new Graph();
+        Vertex vertex = graph.createVertex();
+        checkParallel(vertex, pool);
+        vertex.addEdge(graph.createVertex());
+        checkParallel(vertex, pool);
+
+        Random random = new Random(4);
+        for (int i = 0; i < 10; i++) {
+            // A random tree plus some random edges
+            graph = new Graph();
+            int vertexCount = 1 + random.nextInt(3000);
+            vertex = GraphGenerator.createRandomTree(graph, vertexCount, random);
+            List<Vertex> vertices = new ArrayList<Vertex>(graph.vertices);
+            int extraEdgeCount = random.nextInt(vertexCount / 4 + 1);
+            for (int j = 0; j < extraEdgeCount; j++) {
+                Vertex vertex1 = vertices.get(random.nextInt(vertexCount));
+                Vertex vertex2 = vertices.get(random.nextInt(vertexCount));
+                if (vertex1 != vertex2) {
+                    vertex1.addEdge(vertex2);
+                }
+            }
+            checkParallel(vertex, pool);
+        }
+        for (int i = 0; i < 5; i++) {
+            graph = new Graph();
+            vertex = GraphGenerator.createRandomBlockTree(
+                graph, 1 + random.nextInt(500), 3 + random.nextInt(5), random);
+            checkParallel(vertex, pool);
+        }
+        graph = new Graph();
+        checkParallel(GraphGenerator.createGrid(graph, 60, 60), pool);
+
+        // Start at cut vertices, which belong to several blocks, any of which could be the root
+        Vertex cutVertex = graph.createVertex();
+        for (int i = 0; i < 4; i++) {
+            Vertex vertex1 = graph.createVertex();
+            Vertex vertex2 = graph.createVertex();
+            cutVertex.addEdge(vertex1);
+            vertex1.addEdge(vertex2);
+            vertex2.addEdge(cutVertex);
+            cutVertex.addEdge(graph.createVertex());
+        }
+        checkParallel(cutVertex, pool);
+        for (int i = 0; i < 5; i++) {
+            graph = new Graph();
+            GraphGenerator.createRandomBlockTree(graph, 2 + random.nextInt(100), 3 + random.nextInt(5), random);
+            for (Vertex graphVertex : graph.vertices) {
+                if (random.nextInt(10) == 0) {
+                    checkParallel(graphVertex, pool);
+                }
+            }
+        }
+        pool.shutdown();
+    }
 }
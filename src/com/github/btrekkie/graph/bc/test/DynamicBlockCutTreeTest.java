@@ -0,0 +1,171 @@
+package com.github.btrekkie.graph.bc.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.bc.BlockNode;
+import com.github.btrekkie.graph.bc.CutNode;
+import com.github.btrekkie.graph.bc.DynamicBlockCutTree;
+import com.github.btrekkie.graph.generator.GraphGenerator;
+
+public class DynamicBlockCutTreeTest {
+    /**
+     * Asserts that the specified DynamicBlockCutTree has the same blocks and cut vertices as the block-cut trees of the
+     * specified graph's connected components, as computed using BlockNode.compute.
+     */
+    private void checkTree(DynamicBlockCutTree tree, Graph graph) {
+        // Compute the blocks containing each vertex
+        Map<Vertex, Set<Integer>> vertexBlocks = new HashMap<Vertex, Set<Integer>>();
+        Set<Vertex> visited = new HashSet<Vertex>();
+        int blockCount = 0;
+        for (Vertex vertex : graph.vertices) {
+            if (visited.contains(vertex)) {
+                continue;
+            }
+            List<BlockNode> level = Collections.singletonList(BlockNode.compute(vertex));
+            while (!level.isEmpty()) {
+                List<BlockNode> nextLevel = new ArrayList<BlockNode>();
+                for (BlockNode node : level) {
+                    for (Vertex blockVertex : node.blockVertexToVertex.values()) {
+                        visited.add(blockVertex);
+                        Set<Integer> blocks = vertexBlocks.get(blockVertex);
+                        if (blocks == null) {
+                            blocks = new HashSet<Integer>();
+                            vertexBlocks.put(blockVertex, blocks);
+                        }
+                        blocks.add(blockCount);
+                    }
+                    blockCount++;
+                    for (CutNode child : node.children) {
+                        nextLevel.addAll(child.children);
+                    }
+                }
+                level = nextLevel;
+            }
+        }
+
+        assertEquals(blockCount, tree.blockCount());
+        assertEquals(blockCount == 1, tree.isBiconnected());
+        for (Vertex vertex : graph.vertices) {
+            assertEquals(vertexBlocks.get(vertex).size() > 1, tree.isCutVertex(vertex));
+        }
+        for (Vertex vertex1 : graph.vertices) {
+            for (Vertex vertex2 : graph.vertices) {
+                Set<Integer> blocks = new HashSet<Integer>(vertexBlocks.get(vertex1));
+                blocks.retainAll(vertexBlocks.get(vertex2));
+                assertEquals(!blocks.isEmpty(), tree.areInSameBlock(vertex1, vertex2));
+            }
+        }
+    }
+
+    /** Tests DynamicBlockCutTree on a few simple graphs. */
+    @Test
+    public void testSimple() {
+        Graph graph = new Graph();
+        DynamicBlockCutTree tree = new DynamicBlockCutTree();
+        assertEquals(0, tree.blockCount());
+        assertFalse(tree.isBiconnected());
+
+        Vertex vertex1 = graph.createVertex();
+        Vertex vertex2 = graph.createVertex();
+        Vertex vertex3 = graph.createVertex();
+        Vertex vertex4 = graph.createVertex();
+        assertFalse(tree.isCutVertex(vertex1));
+        assertFalse(tree.areConnected(vertex1, vertex2));
+        assertFalse(tree.areInSameBlock(vertex1, vertex2));
+        assertTrue(tree.areInSameBlock(vertex1, vertex1));
+        tree.addVertex(vertex1);
+        assertEquals(1, tree.blockCount());
+        assertTrue(tree.isBiconnected());
+        assertFalse(tree.isCutVertex(vertex1));
+
+        vertex1.addEdge(vertex2);
+        tree.addEdge(vertex1, vertex2);
+        assertTrue(tree.isBiconnected());
+        assertTrue(tree.areConnected(vertex1, vertex2));
+        assertFalse(tree.areConnected(vertex1, vertex3));
+        vertex2.addEdge(vertex3);
+        tree.addEdge(vertex2, vertex3);
+        assertTrue(tree.isCutVertex(vertex2));
+        assertFalse(tree.areInSameBlock(vertex1, vertex3));
+        vertex3.addEdge(vertex4);
+        tree.addEdge(vertex3, vertex4);
+        checkTree(tree, graph);
+        vertex4.addEdge(vertex1);
+        tree.addEdge(vertex4, vertex1);
+        assertTrue(tree.isBiconnected());
+        assertFalse(tree.isCutVertex(vertex2));
+        assertTrue(tree.areInSameBlock(vertex1, vertex3));
+        checkTree(tree, graph);
+
+        // Adding an existing edge has no effect
+        tree.addEdge(vertex1, vertex2);
+        checkTree(tree, graph);
+
+        // An isolated vertex counts as a block, as it does in BlockNode.compute
+        Vertex vertex5 = graph.createVertex();
+        tree.addVertex(vertex5);
+        assertEquals(2, tree.blockCount());
+        assertFalse(tree.isBiconnected());
+        assertTrue(BlockNode.compute(vertex5).children.isEmpty());
+        checkTree(tree, graph);
+    }
+
+    /**
+     * Tests DynamicBlockCutTree by adding random edges to a graph, one at a time, and comparing the results to those of
+     * BlockNode.compute.
+     */
+    @Test
+    public void testRandom() {
+        Random random = new Random(18);
+        for (int i = 0; i < 40; i++) {
+            Graph graph = new Graph();
+            int vertexCount = 1 + random.nextInt(30);
+            List<Vertex> vertices = new ArrayList<Vertex>(vertexCount);
+            for (int j = 0; j < vertexCount; j++) {
+                vertices.add(graph.createVertex());
+            }
+            DynamicBlockCutTree tree = new DynamicBlockCutTree();
+            for (Vertex vertex : vertices) {
+                tree.addVertex(vertex);
+            }
+            checkTree(tree, graph);
+            int edgeCount = random.nextInt(2 * vertexCount);
+            for (int j = 0; j < edgeCount; j++) {
+                Vertex vertex1 = vertices.get(random.nextInt(vertexCount));
+                Vertex vertex2 = vertices.get(random.nextInt(vertexCount));
+                if (vertex1 != vertex2 && !vertex1.edges.contains(vertex2)) {
+                    vertex1.addEdge(vertex2);
+                    tree.addEdge(vertex1, vertex2);
+                    checkTree(tree, graph);
+                }
+            }
+        }
+    }
+
+    /** Tests DynamicBlockCutTree.create. */
+    @Test
+    public void testCreate() {
+        Random random = new Random(181);
+        for (int i = 0; i < 10; i++) {
+            Graph graph = new Graph();
+            GraphGenerator.createRandomBlockTree(graph, 1 + random.nextInt(10), 3 + random.nextInt(4), random);
+            GraphGenerator.createRandomTree(graph, 1 + random.nextInt(10), random);
+            checkTree(DynamicBlockCutTree.create(graph), graph);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.btrekkie.graph.benchmark;
+
+/** The result of measuring a GraphBenchmark on a single input. */
+public class BenchmarkResult {
+    /** The number of vertices in the input graph. */
+    public final int vertexCount;
+
+    /** The number of times we ran the algorithm during the measurement, excluding warmup runs. */
+    public final int iterations;
+
+    /** The average running time of the algorithm, in nanoseconds. */
+    public final double nanosPerOp;
+
+    /**
+     * The average number of bytes all threads allocated per run, or -1 if the JVM does not support measuring this.
+     * See the comments for the implementation of GraphBenchmark.
+     */
+    public final double bytesPerOp;
+
+    /** The number of garbage collections during the measurement, summed over all of the garbage collectors. */
+    public final long gcCount;
+
+    /** The total time spent in garbage collection during the measurement, in milliseconds. */
+    public final long gcMillis;
+
+    public BenchmarkResult(
+            int vertexCount, int iterations, double nanosPerOp, double bytesPerOp, long gcCount, long gcMillis) {
+        this.vertexCount = vertexCount;
+        this.iterations = iterations;
+        this.nanosPerOp = nanosPerOp;
+        this.bytesPerOp = bytesPerOp;
+        this.gcCount = gcCount;
+        this.gcMillis = gcMillis;
+    }
+
+    /** Returns the number of runs of the algorithm per second. */
+    public double opsPerSecond() {
+        return 1e9 / nanosPerOp;
+    }
+
+    /**
+     * Returns the rate at which all threads allocated memory, in bytes per second, or -1 if the JVM does not support
+     * measuring this.
+     */
+    public double bytesPerSecond() {
+        if (bytesPerOp < 0) {
+            return -1;
+        } else {
+            return bytesPerOp * 1e9 / nanosPerOp;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.btrekkie.graph.benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A benchmark for a graph algorithm.  A GraphBenchmark separates the construction of the input, which we do not time,
+ * from the algorithm itself, which we do.  See GraphBenchmarks.
+ * @param <T> The type of the input to the algorithm.
+ */
+/* This is a minimal stand-in for a JMH benchmark.  We run the algorithm repeatedly to warm up the JIT compiler, and
+ * then we run it repeatedly for a fixed minimum amount of time.  We measure allocation using
+ * com.sun.management.ThreadMXBean.getThreadAllocatedBytes, which is what JMH's GC profiler uses, and garbage
+ * collection using GarbageCollectorMXBean.  Each run's result is stored in a volatile field, so that the JIT compiler
+ * cannot eliminate the computation.
+ *
+ * Some algorithms, such as BlockSpqrForest.compute, do their work on the threads of a ForkJoinPool, so we sum the
+ * allocation over all live threads rather than only the calling thread.  For each thread that is alive at the end of
+ * the measurement, we count the bytes it allocated since the start of the measurement, or since it started if it was
+ * not alive then.  We miss the allocation of any thread that terminates during the measurement, and we include the
+ * allocation of unrelated threads, but the pool threads are long-lived and other threads are mostly idle, so the
+ * error is small.
+ */
+public abstract class GraphBenchmark<T> {
+    /** A human-readable name for the benchmark, e.g. "PlanarEmbedding.compute". */
+    public final String name;
+
+    /** The result of the most recent run.  We store this in order to prevent dead code elimination. */
+    private volatile Object sink;
+
+    public GraphBenchmark(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns an input for the algorithm with approximately the specified number of vertices.  The input must be the
+     * same each time we call createInput with a given vertexCount.
+     */
+    public abstract T createInput(int vertexCount);
+
+    /** Returns the number of vertices in the specified input, as returned by createInput. */
+    public abstract int vertexCount(T input);
+
+    /** Runs the algorithm on the specified input and returns the result.  This must not alter the input. */
+    public abstract Object run(T input);
+
+    /** Returns the total number of garbage collections so far, summed over all of the garbage collectors. */
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    /** Returns the total time spent in garbage collection so far, in milliseconds. */
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, bean.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * Returns the com.sun.management.ThreadMXBean we use to measure allocation, or null if the JVM does not support
+     * measuring allocation.
+     */
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+        if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) {
+            return null;
+        }
+        return sunBean;
+    }
+
+    /**
+     * Returns a map from the ID of each live thread to the number of bytes it has allocated so far, or null if the JVM
+     * does not support measuring this.
+     */
+    private static Map<Long, Long> allocatedBytes() {
+        com.sun.management.ThreadMXBean bean = allocationBean();
+        if (bean == null) {
+            return null;
+        }
+        long[] threadIds = bean.getAllThreadIds();
+        long[] bytes = bean.getThreadAllocatedBytes(threadIds);
+        Map<Long, Long> threadBytes = new HashMap<Long, Long>();
+        for (int i = 0; i < threadIds.length; i++) {
+            // getThreadAllocatedBytes returns -1 for threads that terminated after the call to getAllThreadIds
+            if (bytes[i] >= 0) {
+                threadBytes.put(threadIds[i], bytes[i]);
+            }
+        }
+        return threadBytes;
+    }
+
+    /**
+     * Returns the number of bytes all threads allocated between the two specified calls to allocatedBytes(), as
+     * described in the comments for the implementation of GraphBenchmark.
+     */
+    private static long allocatedBytes(Map<Long, Long> start, Map<Long, Long> end) {
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : end.entrySet()) {
+            Long startBytes = start.get(entry.getKey());
+            total += entry.getValue() - (startBytes != null ? startBytes : 0);
+        }
+        return total;
+    }
+
+    /**
+     * Measures the performance of the algorithm on an input with approximately the specified number of vertices.
+     * @param vertexCount The approximate number of vertices.
+     * @param warmupNanos The minimum amount of time to spend running the algorithm before measuring it, in
+     *     nanoseconds.  We always perform at least one warmup run.
+     * @param measurementNanos The minimum amount of time to spend measuring the algorithm, in nanoseconds.  We always
+     *     perform at least one measured run.
+     * @return The result of the measurement.
+     */
+    public BenchmarkResult measure(int vertexCount, long warmupNanos, long measurementNanos) {
+        T input = createInput(vertexCount);
+        long warmupStartTime = System.nanoTime();
+        do {
+            sink = run(input);
+        } while (System.nanoTime() - warmupStartTime < warmupNanos);
+        sink = null;
+        System.gc();
+
+        long startGcCount = gcCount();
+        long startGcMillis = gcMillis();
+        Map<Long, Long> startAllocatedBytes = allocatedBytes();
+        long startTime = System.nanoTime();
+        long endTime;
+        int iterations = 0;
+        do {
+            sink = run(input);
+            iterations++;
+            endTime = System.nanoTime();
+        } while (endTime - startTime < measurementNanos);
+        Map<Long, Long> endAllocatedBytes = allocatedBytes();
+
+        double bytesPerOp;
+        if (startAllocatedBytes == null || endAllocatedBytes == null) {
+            bytesPerOp = -1;
+        } else {
+            bytesPerOp = allocatedBytes(startAllocatedBytes, endAllocatedBytes) / (double)iterations;
+        }
+        sink = null;
+        return new BenchmarkResult(
+            vertexCount(input), iterations, (endTime - startTime) / (double)iterations, bytesPerOp,
+            gcCount() - startGcCount, gcMillis() - startGcMillis);
+    }
+}
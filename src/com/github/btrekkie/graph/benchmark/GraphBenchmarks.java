@@ -0,0 +1,288 @@
+package com.github.btrekkie.graph.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.bc.BlockNode;
+import com.github.btrekkie.graph.dual.DualGraph;
+import com.github.btrekkie.graph.generator.GraphGenerator;
+import com.github.btrekkie.graph.planar.PlanarAugmentation;
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
+import com.github.btrekkie.graph.spqr.BlockSpqrForest;
+import com.github.btrekkie.graph.spqr.SpqrNode;
+import com.github.btrekkie.graph.visibility.VisibilityRepresentation;
+
+/**
+ * Benchmarks for the principal graph algorithms.  For each algorithm and each input size, this prints the throughput,
+ * the allocation rate, and the garbage collection activity.  For each algorithm, it also prints the scaling exponent,
+ * which is the slope of the least-squares line through the points (log V, log T), where V is the number of vertices
+ * and T is the running time.  An algorithm that takes linear time should have a scaling exponent close to 1.
+ *
+ * To run the benchmarks, run "java -Xss1g -Xmx8g com.github.btrekkie.graph.benchmark.GraphBenchmarks".  To limit the
+ * benchmarks to certain input sizes, pass the numbers of vertices as arguments.  By default, this runs each benchmark
+ * on inputs with approximately 10^3, 10^4, 10^5, and 10^6 vertices.  The "warmupMillis" and "measurementMillis"
+ * system properties control the amount of time to spend warming up and measuring each benchmark for each size.
+ */
+public class GraphBenchmarks {
+    /** The default numbers of vertices in the inputs. */
+    private static final int[] DEFAULT_VERTEX_COUNTS = new int[]{1000, 10000, 100000, 1000000};
+
+    /** The number of vertices in each block of the graphs returned by createBlockTree. */
+    private static final int BLOCK_SIZE = 50;
+
+    /** The size of the stack of the thread on which we run the benchmarks, in bytes. */
+    private static final long STACK_SIZE = 1L << 30;
+
+    /** Returns a grid graph with approximately the specified number of vertices, as in GraphGenerator.createGrid. */
+    private static Vertex createGrid(int vertexCount) {
+        int size = Math.max(2, (int)Math.round(Math.sqrt(vertexCount)));
+        return GraphGenerator.createGrid(new Graph(), size, size);
+    }
+
+    /**
+     * Returns a random tree with the specified number of vertices, as in GraphGenerator.createRandomTree.  The tree
+     * depends only on vertexCount.
+     */
+    private static Vertex createTree(int vertexCount) {
+        return GraphGenerator.createRandomTree(new Graph(), vertexCount, new Random(vertexCount));
+    }
+
+    /**
+     * Returns a random graph with approximately the specified number of vertices and many mid-sized blocks, as in
+     * GraphGenerator.createRandomBlockTree.  The graph depends only on vertexCount.
+     */
+    private static Vertex createBlockTree(int vertexCount) {
+        return GraphGenerator.createRandomBlockTree(
+            new Graph(), Math.max(1, vertexCount / (BLOCK_SIZE - 1)), BLOCK_SIZE, new Random(vertexCount));
+    }
+
+    /** Returns the number of vertices in the connected component containing the specified vertex. */
+    private static int componentSize(Vertex start) {
+        Set<Vertex> visited = new HashSet<Vertex>();
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        visited.add(start);
+        vertices.add(start);
+        for (int i = 0; i < vertices.size(); i++) {
+            for (Vertex adjVertex : vertices.get(i).edges) {
+                if (visited.add(adjVertex)) {
+                    vertices.add(adjVertex);
+                }
+            }
+        }
+        return vertices.size();
+    }
+
+    /** Returns the benchmarks. */
+    public static List<GraphBenchmark<?>> benchmarks() {
+        List<GraphBenchmark<?>> benchmarks = new ArrayList<GraphBenchmark<?>>();
+        benchmarks.add(new GraphBenchmark<Vertex>("PlanarEmbedding.compute") {
+            @Override
+            public Vertex createInput(int vertexCount) {
+                return createGrid(vertexCount);
+            }
+
+            @Override
+            public int vertexCount(Vertex input) {
+                return componentSize(input);
+            }
+
+            @Override
+            public Object run(Vertex input) {
+                return PlanarEmbedding.compute(input);
+            }
+        });
+        benchmarks.add(new GraphBenchmark<Vertex>("SpqrNode.create") {
+            @Override
+            public Vertex createInput(int vertexCount) {
+                return createGrid(vertexCount);
+            }
+
+            @Override
+            public int vertexCount(Vertex input) {
+                return componentSize(input);
+            }
+
+            @Override
+            public Object run(Vertex input) {
+                return SpqrNode.create(input, input.edges.iterator().next());
+            }
+        });
+        benchmarks.add(new GraphBenchmark<Vertex>("BlockSpqrForest.compute") {
+            @Override
+            public Vertex createInput(int vertexCount) {
+                return createBlockTree(vertexCount);
+            }
+
+            @Override
+            public int vertexCount(Vertex input) {
+                return componentSize(input);
+            }
+
+            @Override
+            public Object run(Vertex input) {
+                return BlockSpqrForest.compute(input);
+            }
+        });
+        benchmarks.add(new GraphBenchmark<Vertex>("BlockNode.compute") {
+            @Override
+            public Vertex createInput(int vertexCount) {
+                return createTree(vertexCount);
+            }
+
+            @Override
+            public int vertexCount(Vertex input) {
+                return componentSize(input);
+            }
+
+            @Override
+            public Object run(Vertex input) {
+                return BlockNode.compute(input);
+            }
+        });
+        benchmarks.add(new GraphBenchmark<PlanarEmbedding>("DualGraph.compute") {
+            @Override
+            public PlanarEmbedding createInput(int vertexCount) {
+                return PlanarEmbedding.compute(createGrid(vertexCount));
+            }
+
+            @Override
+            public int vertexCount(PlanarEmbedding input) {
+                return input.clockwiseOrder.size();
+            }
+
+            @Override
+            public Object run(PlanarEmbedding input) {
+                return DualGraph.compute(input);
+            }
+        });
+        benchmarks.add(new GraphBenchmark<PlanarEmbedding>("PlanarAugmentation.makeBiconnected") {
+            @Override
+            public PlanarEmbedding createInput(int vertexCount) {
+                return PlanarEmbedding.compute(createTree(vertexCount));
+            }
+
+            @Override
+            public int vertexCount(PlanarEmbedding input) {
+                return input.clockwiseOrder.size();
+            }
+
+            @Override
+            public Object run(PlanarEmbedding input) {
+                return PlanarAugmentation.makeBiconnected(input);
+            }
+        });
+        benchmarks.add(new GraphBenchmark<PlanarEmbedding>("VisibilityRepresentation.compute") {
+            @Override
+            public PlanarEmbedding createInput(int vertexCount) {
+                return PlanarEmbedding.compute(createGrid(vertexCount));
+            }
+
+            @Override
+            public int vertexCount(PlanarEmbedding input) {
+                return input.clockwiseOrder.size();
+            }
+
+            @Override
+            public Object run(PlanarEmbedding input) {
+                return VisibilityRepresentation.compute(input);
+            }
+        });
+        return benchmarks;
+    }
+
+    /**
+     * Returns the slope of the least-squares line through the points (log V, log T), where V is the number of vertices
+     * and T is the running time for each of the specified results.  Returns NaN if there are fewer than two distinct
+     * numbers of vertices.
+     */
+    public static double scalingExponent(List<BenchmarkResult> results) {
+        double sumX = 0;
+        double sumY = 0;
+        for (BenchmarkResult result : results) {
+            sumX += Math.log(result.vertexCount);
+            sumY += Math.log(result.nanosPerOp);
+        }
+        double meanX = sumX / results.size();
+        double meanY = sumY / results.size();
+        double covariance = 0;
+        double variance = 0;
+        for (BenchmarkResult result : results) {
+            double x = Math.log(result.vertexCount) - meanX;
+            covariance += x * (Math.log(result.nanosPerOp) - meanY);
+            variance += x * x;
+        }
+        if (variance == 0) {
+            return Double.NaN;
+        } else {
+            return covariance / variance;
+        }
+    }
+
+    /** Returns a human-readable representation of the specified number of bytes, or "n/a" if it is negative. */
+    private static String formatBytes(double bytes) {
+        if (bytes < 0) {
+            return "n/a";
+        } else if (bytes < 1 << 10) {
+            return String.format(Locale.US, "%.0f B", bytes);
+        } else if (bytes < 1 << 20) {
+            return String.format(Locale.US, "%.1f KB", bytes / (1 << 10));
+        } else {
+            return String.format(Locale.US, "%.1f MB", bytes / (1 << 20));
+        }
+    }
+
+    /**
+     * Runs the benchmarks and prints the results to standard output.
+     * @param vertexCounts The approximate numbers of vertices in the inputs on which to run each benchmark.
+     * @param warmupNanos The minimum amount of time to spend warming up each benchmark for each input, in nanoseconds.
+     * @param measurementNanos The minimum amount of time to spend measuring each benchmark for each input, in
+     *     nanoseconds.
+     */
+    public static void run(int[] vertexCounts, long warmupNanos, long measurementNanos) {
+        for (GraphBenchmark<?> benchmark : benchmarks()) {
+            System.out.println(benchmark.name);
+            List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+            for (int vertexCount : vertexCounts) {
+                BenchmarkResult result = benchmark.measure(vertexCount, warmupNanos, measurementNanos);
+                results.add(result);
+                System.out.println(
+                    String.format(
+                        Locale.US, "    V=%-8d %12.3f ops/s %12.3f ms/op %10s/op %10s/s  gc: %d (%d ms)",
+                        result.vertexCount, result.opsPerSecond(), result.nanosPerOp / 1e6,
+                        formatBytes(result.bytesPerOp), formatBytes(result.bytesPerSecond()), result.gcCount,
+                        result.gcMillis));
+            }
+            System.out.println(String.format(Locale.US, "    scaling exponent: %.3f", scalingExponent(results)));
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        final int[] vertexCounts;
+        if (args.length == 0) {
+            vertexCounts = DEFAULT_VERTEX_COUNTS;
+        } else {
+            vertexCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                vertexCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        final long warmupNanos = Long.getLong("warmupMillis", 2000) * 1000000;
+        final long measurementNanos = Long.getLong("measurementMillis", 5000) * 1000000;
+
+        // Some of the algorithms are recursive, so we run the benchmarks on a thread with a large stack
+        Thread thread = new Thread(null, new Runnable() {
+            @Override
+            public void run() {
+                GraphBenchmarks.run(vertexCounts, warmupNanos, measurementNanos);
+            }
+        }, "GraphBenchmarks", STACK_SIZE);
+        thread.start();
+        thread.join();
+    }
+}
@@ -4,18 +4,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 
 import com.github.btrekkie.graph.MultiGraph;
 import com.github.btrekkie.graph.MultiVertex;
 import com.github.btrekkie.graph.Vertex;
 import com.github.btrekkie.graph.planar.PlanarEmbedding;
+import com.github.btrekkie.graph.planar.RotationSystem;
 import com.github.btrekkie.util.UnorderedPair;
 
 /**
@@ -23,6 +20,9 @@ import com.github.btrekkie.util.UnorderedPair;
  * embedding.  The dual H of a graph G is a graph with one vertex for each face in G, including the external face, and
  * an edge between each pair of vertices corresponding to two faces in G separated by an edge.  The dual is a
  * MultiGraph.
+ *
+ * A DualGraph returned by one of the "compute" methods also represents the dual using arrays indexed by the half-edges
+ * and faces of the primal graph's RotationSystem.  This enables clients to look up faces without hashing.
  */
 public class DualGraph {
     /** The dual graph. */
@@ -44,16 +44,60 @@ public class DualGraph {
 
     /**
      * A map from each vertex V in the primal graph to a map from each adjacent vertex W to the MultiVertex
-     * corresponding to the face immediately clockwise relative to the edge from V to W.
+     * corresponding to the face immediately clockwise relative to the edge from V to W.  If rotationSystem is non-null,
+     * this is null until the first call to leftFace(Vertex, Vertex) or rightFace(Vertex, Vertex).  This is volatile,
+     * and we only assign it after building the map, so that concurrent readers never observe a partially built map.
      */
-    private Map<Vertex, Map<Vertex, MultiVertex>> rightFaces;
+    private volatile Map<Vertex, Map<Vertex, MultiVertex>> rightFaces;
+
+    /**
+     * The RotationSystem for the primal graph's embedding, or null if this DualGraph was created using the public
+     * constructor.  The face of each half-edge, i.e. the number of the face immediately counterclockwise relative to
+     * the half-edge, is rotationSystem.face(halfEdge).  The fields below are null if this is null.
+     */
+    public final RotationSystem rotationSystem;
+
+    /** The MultiVertex in "graph" for each face, indexed by face number. */
+    public final MultiVertex[] faceVertices;
+
+    /**
+     * The offsets of the ranges of the faces' half-edges in faceHalfEdges.  The half-edges of face F are
+     * faceHalfEdges[faceEdgeOffsets[F]] through faceHalfEdges[faceEdgeOffsets[F + 1] - 1].  This has
+     * rotationSystem.faceCount() + 1 elements.
+     */
+    public final int[] faceEdgeOffsets;
+
+    /**
+     * The half-edges of each face, grouped by face.  The half-edges of each face are in the order in which we encounter
+     * them by repeatedly calling rotationSystem.nextOnFace.
+     */
+    public final int[] faceHalfEdges;
+
+    /**
+     * The adjacency lists of the faces in the dual, as in CompactGraph, using faceEdgeOffsets as the offsets.
+     * dualNeighbors[i] is the number of the face on the other side of the half-edge faceHalfEdges[i].  In contrast to
+     * "graph", this includes self loops, so that it is parallel to faceHalfEdges.
+     */
+    public final int[] dualNeighbors;
 
     public DualGraph(
             MultiGraph graph, Map<UnorderedPair<Vertex>, UnorderedPair<MultiVertex>> edgeToDualEdge,
             Map<Vertex, Map<Vertex, MultiVertex>> rightFaces) {
+        this(graph, edgeToDualEdge, rightFaces, null, null, null, null, null);
+    }
+
+    private DualGraph(
+            MultiGraph graph, Map<UnorderedPair<Vertex>, UnorderedPair<MultiVertex>> edgeToDualEdge,
+            Map<Vertex, Map<Vertex, MultiVertex>> rightFaces, RotationSystem rotationSystem,
+            MultiVertex[] faceVertices, int[] faceEdgeOffsets, int[] faceHalfEdges, int[] dualNeighbors) {
         this.graph = graph;
         this.edgeToDualEdge = edgeToDualEdge;
         this.rightFaces = rightFaces;
+        this.rotationSystem = rotationSystem;
+        this.faceVertices = faceVertices;
+        this.faceEdgeOffsets = faceEdgeOffsets;
+        this.faceHalfEdges = faceHalfEdges;
+        this.dualNeighbors = dualNeighbors;
         Map<UnorderedPair<MultiVertex>, Collection<UnorderedPair<Vertex>>> dualEdgeToEdges =
             new HashMap<UnorderedPair<MultiVertex>, Collection<UnorderedPair<Vertex>>>();
         for (Entry<UnorderedPair<Vertex>, UnorderedPair<MultiVertex>> entry : edgeToDualEdge.entrySet()) {
@@ -71,109 +115,81 @@ public class DualGraph {
 
     /** Returns the dual of the graph represented with the specified planar embedding. */
     public static DualGraph compute(PlanarEmbedding embedding) {
+        RotationSystem rotationSystem = embedding.rotationSystem;
         if (embedding.externalFace.size() == 1) {
             MultiGraph dualGraph = new MultiGraph();
-            dualGraph.createVertex();
-            Map<Vertex, Map<Vertex, MultiVertex>> rightFaces = Collections.singletonMap(
-                embedding.externalFace.iterator().next(), Collections.<Vertex, MultiVertex>emptyMap());
+            MultiVertex dualVertex = dualGraph.createVertex();
             return new DualGraph(
-                dualGraph, Collections.<UnorderedPair<Vertex>, UnorderedPair<MultiVertex>>emptyMap(), rightFaces);
-        }
-
-        // Compute a map from each vertex to a map from each adjacent vertex to the next adjacent vertex in the
-        // clockwise direction
-        Map<Vertex, Map<Vertex, Vertex>> nextClockwise = new HashMap<Vertex, Map<Vertex, Vertex>>();
-        for (Entry<Vertex, List<Vertex>> entry : embedding.clockwiseOrder.entrySet()) {
-            List<Vertex> clockwiseOrder = entry.getValue();
-            Map<Vertex, Vertex> vertexNextClockwise = new HashMap<Vertex, Vertex>();
-            for (int i = 0; i < clockwiseOrder.size() - 1; i++) {
-                vertexNextClockwise.put(clockwiseOrder.get(i), clockwiseOrder.get(i + 1));
-            }
-            vertexNextClockwise.put(clockwiseOrder.get(clockwiseOrder.size() - 1), clockwiseOrder.get(0));
-            nextClockwise.put(entry.getKey(), vertexNextClockwise);
+                dualGraph, Collections.<UnorderedPair<Vertex>, UnorderedPair<MultiVertex>>emptyMap(), null,
+                rotationSystem, new MultiVertex[]{dualVertex}, new int[2], new int[0], new int[0]);
         }
 
-        // Compute a map from each edge in the primal graph to the corresponding vertices in the dual graph, by walking
-        // over the edges of each face in the primal graph, and compute rightFaces
+        // Create a dual vertex for each face
         MultiGraph dual = new MultiGraph();
-        Map<UnorderedPair<Vertex>, Collection<MultiVertex>> edgeToDualVertices =
-            new LinkedHashMap<UnorderedPair<Vertex>, Collection<MultiVertex>>();
-        Map<Vertex, Map<Vertex, MultiVertex>> rightFaces = new HashMap<Vertex, Map<Vertex, MultiVertex>>();
-        Map<Vertex, Set<Vertex>> visitedEdges = new HashMap<Vertex, Set<Vertex>>();
-        for (Entry<Vertex, List<Vertex>> entry : embedding.clockwiseOrder.entrySet()) {
-            Vertex vertex = entry.getKey();
-            Set<Vertex> visited = visitedEdges.get(vertex);
-            if (visited == null) {
-                visited = new HashSet<Vertex>();
-                visitedEdges.put(vertex, visited);
-            }
-            for (Vertex adjVertex : entry.getValue()) {
-                if (!visited.add(adjVertex)) {
-                    continue;
-                }
-
-                UnorderedPair<Vertex> edge = new UnorderedPair<Vertex>(vertex, adjVertex);
-                Collection<MultiVertex> dualVertices = edgeToDualVertices.get(edge);
-                if (dualVertices == null) {
-                    dualVertices = new ArrayList<MultiVertex>(2);
-                    edgeToDualVertices.put(edge, dualVertices);
-                }
-                MultiVertex dualVertex = dual.createVertex();
-                dualVertices.add(dualVertex);
-
-                Map<Vertex, MultiVertex> adjVertexRightFaces = rightFaces.get(adjVertex);
-                if (adjVertexRightFaces == null) {
-                    adjVertexRightFaces = new HashMap<Vertex, MultiVertex>();
-                    rightFaces.put(adjVertex, adjVertexRightFaces);
-                }
-                adjVertexRightFaces.put(vertex, dualVertex);
-
-                // Walk over the face including the edge from "vertex" to adjVertex
-                Vertex prevVertex = adjVertex;
-                Vertex faceVertex = nextClockwise.get(adjVertex).get(vertex);
-                while (prevVertex != vertex || faceVertex != adjVertex) {
-                    edge = new UnorderedPair<Vertex>(prevVertex, faceVertex);
-                    dualVertices = edgeToDualVertices.get(edge);
-                    if (dualVertices == null) {
-                        dualVertices = new ArrayList<MultiVertex>(2);
-                        edgeToDualVertices.put(edge, dualVertices);
-                    }
-                    dualVertices.add(dualVertex);
-
-                    Map<Vertex, MultiVertex> faceVertexRightFaces = rightFaces.get(faceVertex);
-                    if (faceVertexRightFaces == null) {
-                        faceVertexRightFaces = new HashMap<Vertex, MultiVertex>();
-                        rightFaces.put(faceVertex, faceVertexRightFaces);
-                    }
-                    faceVertexRightFaces.put(prevVertex, dualVertex);
+        MultiVertex[] dualVertices = new MultiVertex[rotationSystem.faceCount()];
+        for (int i = 0; i < dualVertices.length; i++) {
+            dualVertices[i] = dual.createVertex();
+        }
 
-                    Set<Vertex> prevVisited = visitedEdges.get(prevVertex);
-                    if (prevVisited == null) {
-                        prevVisited = new HashSet<Vertex>();
-                        visitedEdges.put(prevVertex, prevVisited);
+        // Compute edgeToDualEdge, faceHalfEdges, and dualNeighbors, by walking over the edges of each face in the
+        // primal graph.  We order the edges by the first time we encounter them.
+        Map<UnorderedPair<Vertex>, UnorderedPair<MultiVertex>> edgeToDualEdge =
+            new LinkedHashMap<UnorderedPair<Vertex>, UnorderedPair<MultiVertex>>();
+        int halfEdgeCount = rotationSystem.halfEdgeCount();
+        boolean[] visited = new boolean[halfEdgeCount];
+        int[] faceEdgeOffsets = new int[rotationSystem.faceCount() + 1];
+        int[] faceHalfEdges = new int[halfEdgeCount];
+        int[] dualNeighbors = new int[halfEdgeCount];
+        int index = 0;
+        for (int face = 0; face < rotationSystem.faceCount(); face++) {
+            faceEdgeOffsets[face] = index;
+            int startEdge = rotationSystem.faceEdge(face);
+            int edge = startEdge;
+            do {
+                int twinEdge = rotationSystem.twin(edge);
+                faceHalfEdges[index] = edge;
+                dualNeighbors[index] = rotationSystem.face(twinEdge);
+                index++;
+                if (!visited[twinEdge]) {
+                    visited[edge] = true;
+                    MultiVertex dualVertex1 = dualVertices[rotationSystem.face(edge)];
+                    MultiVertex dualVertex2 = dualVertices[rotationSystem.face(twinEdge)];
+                    if (dualVertex1 != dualVertex2) {
+                        dualVertex1.addEdge(dualVertex2);
                     }
-                    prevVisited.add(faceVertex);
-
-                    Vertex nextVertex = nextClockwise.get(faceVertex).get(prevVertex);
-                    prevVertex = faceVertex;
-                    faceVertex = nextVertex;
+                    edgeToDualEdge.put(
+                        new UnorderedPair<Vertex>(
+                            rotationSystem.vertex(rotationSystem.source(edge)),
+                            rotationSystem.vertex(rotationSystem.target(edge))),
+                        new UnorderedPair<MultiVertex>(dualVertex1, dualVertex2));
                 }
-            }
+                edge = rotationSystem.nextOnFace(edge);
+            } while (edge != startEdge);
         }
+        faceEdgeOffsets[rotationSystem.faceCount()] = index;
+        return new DualGraph(
+            dual, edgeToDualEdge, null, rotationSystem, dualVertices, faceEdgeOffsets, faceHalfEdges, dualNeighbors);
+    }
 
-        // Compute edgeToDualEdge
-        Map<UnorderedPair<Vertex>, UnorderedPair<MultiVertex>> edgeToDualEdge =
-            new LinkedHashMap<UnorderedPair<Vertex>, UnorderedPair<MultiVertex>>();
-        for (Entry<UnorderedPair<Vertex>, Collection<MultiVertex>> entry : edgeToDualVertices.entrySet()) {
-            Iterator<MultiVertex> iterator = entry.getValue().iterator();
-            MultiVertex dualVertex1 = iterator.next();
-            MultiVertex dualVertex2 = iterator.next();
-            if (dualVertex1 != dualVertex2) {
-                dualVertex1.addEdge(dualVertex2);
+    /**
+     * Returns rightFaces, computing it from rotationSystem if necessary.  Concurrent callers might each compute the
+     * map, but they compute equal maps, and each one only publishes a fully built map.
+     */
+    private Map<Vertex, Map<Vertex, MultiVertex>> rightFaces() {
+        Map<Vertex, Map<Vertex, MultiVertex>> rightFaces = this.rightFaces;
+        if (rightFaces == null) {
+            rightFaces = new HashMap<Vertex, Map<Vertex, MultiVertex>>();
+            for (int i = 0; i < rotationSystem.vertexCount(); i++) {
+                Map<Vertex, MultiVertex> vertexRightFaces = new HashMap<Vertex, MultiVertex>();
+                for (int edge = rotationSystem.offset(i); edge < rotationSystem.offset(i + 1); edge++) {
+                    vertexRightFaces.put(
+                        rotationSystem.vertex(rotationSystem.target(edge)), faceVertices[rightFace(edge)]);
+                }
+                rightFaces.put(rotationSystem.vertex(i), vertexRightFaces);
             }
-            edgeToDualEdge.put(entry.getKey(), new UnorderedPair<MultiVertex>(dualVertex1, dualVertex2));
+            this.rightFaces = rightFaces;
         }
-        return new DualGraph(dual, edgeToDualEdge, rightFaces);
+        return rightFaces;
     }
 
     /**
@@ -181,7 +197,7 @@ public class DualGraph {
      * to "end".
      */
     public MultiVertex leftFace(Vertex start, Vertex end) {
-        return rightFaces.get(end).get(start);
+        return rightFaces().get(end).get(start);
     }
 
     /**
@@ -189,6 +205,22 @@ public class DualGraph {
      * "end".
      */
     public MultiVertex rightFace(Vertex start, Vertex end) {
-        return rightFaces.get(start).get(end);
+        return rightFaces().get(start).get(end);
+    }
+
+    /**
+     * Returns the number of the face immediately counterclockwise relative to the specified half-edge in
+     * rotationSystem.  Assumes rotationSystem is non-null.
+     */
+    public int leftFace(int halfEdge) {
+        return rotationSystem.face(halfEdge);
+    }
+
+    /**
+     * Returns the number of the face immediately clockwise relative to the specified half-edge in rotationSystem.
+     * Assumes rotationSystem is non-null.
+     */
+    public int rightFace(int halfEdge) {
+        return rotationSystem.face(rotationSystem.twin(halfEdge));
     }
 }
@@ -0,0 +1,761 @@
+package com.github.btrekkie.graph.dual;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
+import com.github.btrekkie.graph.planar.RotationSystem;
+import com.github.btrekkie.util.UnorderedPair;
+
+/**
+ * The faces of a connected planar embedding that we are modifying in place, along with the dual graph they induce.  A
+ * DynamicDualGraph supports splitting a face by adding an edge inside of it, subdividing an edge, and merging two faces
+ * by removing the edge that separates them, each in time proportional to the size of the affected faces, rather than
+ * recomputing the dual using DualGraph.compute after each change.  The faces are identified by integers, which remain
+ * stable as we modify the embedding, except that when we merge two faces, one of the identifiers is retired, and a
+ * later face split may reuse it.
+ *
+ * As in DualGraph, the "left face" of an edge from V to W is the face immediately counterclockwise relative to the
+ * edge, and the "right face" is the face immediately clockwise relative to it.  A DynamicDualGraph does not modify the
+ * Vertex objects' edges; it is up to the caller to keep them in sync, if desired.  If there are no edges, we regard the
+ * embedding as having a single face with no edges, as in RotationSystem.
+ *
+ * For traversals that should not allocate memory, a DynamicDualGraph also identifies each direction of each edge using
+ * an integer "half-edge" number.  The twin of a half-edge is the half-edge in the opposite direction.  A half-edge
+ * number remains valid until we remove its edge, except that subdividing the edge from V to W replaces the half-edge
+ * from V to W with the half-edge from V to the new vertex, and likewise for its twin.
+ */
+/* We use a doubly connected edge list.  Each edge is represented as a pair of half-edges 2 * E and 2 * E + 1, so the
+ * twin of half-edge H is H ^ 1, and the source of H is the target of its twin.  For each half-edge, we store the next
+ * and previous half-edges clockwise around its source, and its face.  Thus, the half-edge following H on its face is
+ * nextClockwise[H ^ 1], as in RotationSystem.nextOnFace.  We recycle the indices of removed vertices, edges, and faces
+ * using free lists.
+ *
+ * When we add an edge inside a face F, the face splits into two cycles, one starting at each of the new half-edges.
+ * We walk the two cycles in lockstep until one of them ends, and we assign a new face number to the half-edges in that
+ * cycle, so that the time is proportional to the size of the smaller resulting face.  When we remove an edge between
+ * two distinct faces, we relabel the half-edges in the smaller face, using the face sizes we store.
+ */
+public class DynamicDualGraph {
+    /** The vertex at each index, or null if the index is free. */
+    private Vertex[] vertices;
+
+    /** A map from each vertex in the graph to its index. */
+    private Map<Vertex, Integer> vertexIndices;
+
+    /** A half-edge leaving each vertex, or -1 if the vertex has no edges or the index is free. */
+    private int[] vertexEdges;
+
+    /** The number of vertex indices in use, including free indices. */
+    private int vertexLimit;
+
+    /** The free vertex indices are freeVertices[0] through freeVertices[freeVertexCount - 1]. */
+    private int[] freeVertices = new int[16];
+
+    /** The number of free vertex indices. */
+    private int freeVertexCount;
+
+    /** The index of the end vertex of each half-edge. */
+    private int[] targets;
+
+    /** The next half-edge clockwise from each half-edge around its source vertex. */
+    private int[] nextClockwise;
+
+    /** The next half-edge counterclockwise from each half-edge around its source vertex. */
+    private int[] nextCounterclockwise;
+
+    /** The face of each half-edge, i.e. the face immediately counterclockwise relative to the half-edge. */
+    private int[] faces;
+
+    /**
+     * The number of edge indices in use, including free indices.  Half-edges 0 through 2 * edgeLimit - 1 are in use.
+     */
+    private int edgeLimit;
+
+    /** The free edge indices are freeEdges[0] through freeEdges[freeEdgeCount - 1]. */
+    private int[] freeEdges = new int[16];
+
+    /** The number of free edge indices. */
+    private int freeEdgeCount;
+
+    /** A map from each edge to one of the half-edges for the edge. */
+    private Map<UnorderedPair<Vertex>, Integer> edgeHalfEdges;
+
+    /** A half-edge in each face, or -1 if the face has no half-edges or the face number is free. */
+    private int[] faceEdges;
+
+    /** The number of half-edges in each face, or -1 if the face number is free. */
+    private int[] faceSizes;
+
+    /** The number of face numbers in use, including free face numbers. */
+    private int faceLimit;
+
+    /** The free face numbers are freeFaces[0] through freeFaces[freeFaceCount - 1]. */
+    private int[] freeFaces = new int[16];
+
+    /** The number of free face numbers. */
+    private int freeFaceCount;
+
+    /**
+     * Returns a DynamicDualGraph for the specified embedding.  The face numbers match those in
+     * embedding.rotationSystem.face.  This takes linear time.
+     */
+    public static DynamicDualGraph create(PlanarEmbedding embedding) {
+        RotationSystem rotationSystem = embedding.rotationSystem;
+        DynamicDualGraph dual = new DynamicDualGraph();
+        int vertexCount = rotationSystem.vertexCount();
+        dual.vertices = new Vertex[Math.max(vertexCount, 16)];
+        dual.vertexIndices = new HashMap<Vertex, Integer>();
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            dual.vertices[vertex] = rotationSystem.vertex(vertex);
+            dual.vertexIndices.put(rotationSystem.vertex(vertex), vertex);
+        }
+        dual.vertexLimit = vertexCount;
+
+        // Number the edges so that each edge's half-edges are adjacent, with the even half-edge in the direction of
+        // the lower-numbered half-edge in rotationSystem
+        int halfEdgeCount = rotationSystem.halfEdgeCount();
+        int[] halfEdgeMap = new int[halfEdgeCount];
+        int edgeCount = 0;
+        for (int halfEdge = 0; halfEdge < halfEdgeCount; halfEdge++) {
+            int twin = rotationSystem.twin(halfEdge);
+            if (halfEdge < twin) {
+                halfEdgeMap[halfEdge] = 2 * edgeCount;
+                halfEdgeMap[twin] = 2 * edgeCount + 1;
+                edgeCount++;
+            }
+        }
+
+        int capacity = Math.max(halfEdgeCount, 16);
+        dual.targets = new int[capacity];
+        dual.nextClockwise = new int[capacity];
+        dual.nextCounterclockwise = new int[capacity];
+        dual.faces = new int[capacity];
+        dual.edgeHalfEdges = new HashMap<UnorderedPair<Vertex>, Integer>();
+        for (int halfEdge = 0; halfEdge < halfEdgeCount; halfEdge++) {
+            int mappedEdge = halfEdgeMap[halfEdge];
+            int nextEdge = halfEdgeMap[rotationSystem.nextClockwise(halfEdge)];
+            dual.targets[mappedEdge] = rotationSystem.target(halfEdge);
+            dual.nextClockwise[mappedEdge] = nextEdge;
+            dual.nextCounterclockwise[nextEdge] = mappedEdge;
+            dual.faces[mappedEdge] = rotationSystem.face(halfEdge);
+            if ((mappedEdge & 1) == 0) {
+                dual.edgeHalfEdges.put(
+                    new UnorderedPair<Vertex>(
+                        rotationSystem.vertex(rotationSystem.source(halfEdge)),
+                        rotationSystem.vertex(rotationSystem.target(halfEdge))),
+                    mappedEdge);
+            }
+        }
+        dual.edgeLimit = edgeCount;
+
+        dual.vertexEdges = new int[dual.vertices.length];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            if (rotationSystem.degree(vertex) == 0) {
+                dual.vertexEdges[vertex] = -1;
+            } else {
+                dual.vertexEdges[vertex] = halfEdgeMap[rotationSystem.offset(vertex)];
+            }
+        }
+
+        int faceCount = rotationSystem.faceCount();
+        dual.faceEdges = new int[Math.max(faceCount, 16)];
+        dual.faceSizes = new int[dual.faceEdges.length];
+        for (int face = 0; face < faceCount; face++) {
+            int faceEdge = rotationSystem.faceEdge(face);
+            if (faceEdge < 0) {
+                dual.faceEdges[face] = -1;
+            } else {
+                dual.faceEdges[face] = halfEdgeMap[faceEdge];
+            }
+        }
+        for (int halfEdge = 0; halfEdge < halfEdgeCount; halfEdge++) {
+            dual.faceSizes[rotationSystem.face(halfEdge)]++;
+        }
+        dual.faceLimit = faceCount;
+        return dual;
+    }
+
+    /** Returns a copy of the specified array with at least the specified length. */
+    private static int[] grow(int[] array, int minLength) {
+        return Arrays.copyOf(array, Math.max(2 * array.length, minLength));
+    }
+
+    /** Returns the number of faces. */
+    public int faceCount() {
+        return faceLimit - freeFaceCount;
+    }
+
+    /** Returns the numbers of the faces, in increasing order. */
+    public List<Integer> faces() {
+        List<Integer> faceList = new ArrayList<Integer>(faceCount());
+        for (int face = 0; face < faceLimit; face++) {
+            if (faceSizes[face] >= 0) {
+                faceList.add(face);
+            }
+        }
+        return faceList;
+    }
+
+    /** Returns whether the specified vertex is in the graph. */
+    public boolean containsVertex(Vertex vertex) {
+        return vertexIndices.containsKey(vertex);
+    }
+
+    /** Returns whether there is an edge between the specified vertices. */
+    public boolean containsEdge(Vertex vertex1, Vertex vertex2) {
+        return edgeHalfEdges.containsKey(new UnorderedPair<Vertex>(vertex1, vertex2));
+    }
+
+    /**
+     * Returns an integer greater than all of the face numbers in use.  This is useful for allocating arrays indexed by
+     * face number.
+     */
+    public int faceNumberLimit() {
+        return faceLimit;
+    }
+
+    /** Returns the half-edge from "start" to "end".  Throws an IllegalArgumentException if there is no such edge. */
+    public int halfEdge(Vertex start, Vertex end) {
+        Integer halfEdge = edgeHalfEdges.get(new UnorderedPair<Vertex>(start, end));
+        if (halfEdge == null) {
+            throw new IllegalArgumentException("There is no edge from " + start + " to " + end);
+        }
+        if (vertices[targets[halfEdge]] == end) {
+            return halfEdge;
+        } else {
+            return halfEdge ^ 1;
+        }
+    }
+
+    /** Throws an IllegalArgumentException if the specified face number is not in use. */
+    private void checkFace(int face) {
+        if (face < 0 || face >= faceLimit || faceSizes[face] < 0) {
+            throw new IllegalArgumentException("There is no face " + face);
+        }
+    }
+
+    /** Returns the vertex at the start of the specified half-edge. */
+    public Vertex source(int halfEdge) {
+        return vertices[targets[halfEdge ^ 1]];
+    }
+
+    /** Returns the vertex at the end of the specified half-edge. */
+    public Vertex target(int halfEdge) {
+        return vertices[targets[halfEdge]];
+    }
+
+    /** Returns the half-edge in the opposite direction of the specified half-edge. */
+    public int twin(int halfEdge) {
+        return halfEdge ^ 1;
+    }
+
+    /** Returns the number of the face immediately counterclockwise relative to the specified half-edge. */
+    public int face(int halfEdge) {
+        return faces[halfEdge];
+    }
+
+    /**
+     * Returns the half-edge that follows the specified half-edge on its face, as in RotationSystem.nextOnFace.  Its
+     * face is the same as that of "halfEdge".
+     */
+    public int nextOnFace(int halfEdge) {
+        return nextClockwise[halfEdge ^ 1];
+    }
+
+    /**
+     * Returns a half-edge whose face is the specified face, or -1 if the face has no half-edges, because the graph has
+     * no edges.
+     */
+    public int faceHalfEdge(int face) {
+        checkFace(face);
+        return faceEdges[face];
+    }
+
+    /** Returns the number of the face immediately counterclockwise relative to the edge from "start" to "end". */
+    public int leftFace(Vertex start, Vertex end) {
+        return faces[halfEdge(start, end)];
+    }
+
+    /** Returns the number of the face immediately clockwise relative to the edge from "start" to "end". */
+    public int rightFace(Vertex start, Vertex end) {
+        return faces[halfEdge(end, start)];
+    }
+
+    /** Returns the number of edges on the boundary of the specified face, counting bridges twice. */
+    public int faceSize(int face) {
+        checkFace(face);
+        return faceSizes[face];
+    }
+
+    /**
+     * Returns the sequence of vertices on the boundary of the specified face, in the same format as
+     * PlanarEmbedding.externalFace.  The left face of the edge from each vertex in the list to the next is "face".  If
+     * there are no edges, this returns a list consisting of the graph's sole vertex.
+     */
+    public List<Vertex> faceVertices(int face) {
+        checkFace(face);
+        int startEdge = faceEdges[face];
+        if (startEdge < 0) {
+            return Collections.singletonList(vertexIndices.keySet().iterator().next());
+        }
+        List<Vertex> faceVertices = new ArrayList<Vertex>(faceSizes[face]);
+        int halfEdge = startEdge;
+        do {
+            faceVertices.add(vertices[targets[halfEdge ^ 1]]);
+            halfEdge = nextClockwise[halfEdge ^ 1];
+        } while (halfEdge != startEdge);
+        return faceVertices;
+    }
+
+    /**
+     * Returns the faces adjacent to the specified face in the dual graph.  The list is parallel to faceVertices(face):
+     * its i'th element is the right face of the edge from faceVertices(face).get(i) to the following vertex.  It
+     * includes "face" itself once for each traversal of a bridge, so it may contain duplicates.
+     */
+    public List<Integer> adjacentFaces(int face) {
+        checkFace(face);
+        int startEdge = faceEdges[face];
+        if (startEdge < 0) {
+            return Collections.emptyList();
+        }
+        List<Integer> adjacentFaces = new ArrayList<Integer>(faceSizes[face]);
+        int halfEdge = startEdge;
+        do {
+            adjacentFaces.add(faces[halfEdge ^ 1]);
+            halfEdge = nextClockwise[halfEdge ^ 1];
+        } while (halfEdge != startEdge);
+        return adjacentFaces;
+    }
+
+    /** Returns the vertex at the end of the next edge clockwise from the edge from "vertex" to "adjVertex". */
+    public Vertex nextClockwise(Vertex vertex, Vertex adjVertex) {
+        return vertices[targets[nextClockwise[halfEdge(vertex, adjVertex)]]];
+    }
+
+    /** Returns the vertex at the end of the next edge counterclockwise from the edge from "vertex" to "adjVertex". */
+    public Vertex nextCounterclockwise(Vertex vertex, Vertex adjVertex) {
+        return vertices[targets[nextCounterclockwise[halfEdge(vertex, adjVertex)]]];
+    }
+
+    /**
+     * Returns the current embedding, in the format of PlanarEmbedding.clockwiseOrder.  This takes linear time.  The
+     * caller may modify the return value.
+     */
+    public Map<Vertex, List<Vertex>> clockwiseOrder() {
+        Map<Vertex, List<Vertex>> clockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
+        for (int vertex = 0; vertex < vertexLimit; vertex++) {
+            if (vertices[vertex] != null) {
+                List<Vertex> adjVertices = new ArrayList<Vertex>();
+                int startEdge = vertexEdges[vertex];
+                if (startEdge >= 0) {
+                    int halfEdge = startEdge;
+                    do {
+                        adjVertices.add(vertices[targets[halfEdge]]);
+                        halfEdge = nextClockwise[halfEdge];
+                    } while (halfEdge != startEdge);
+                }
+                clockwiseOrder.put(vertices[vertex], adjVertices);
+            }
+        }
+        return clockwiseOrder;
+    }
+
+    /** Returns the current embedding, with the specified face as the external face.  This takes linear time. */
+    public PlanarEmbedding embedding(int externalFace) {
+        checkFace(externalFace);
+
+        // Number the vertices in increasing order of their indices, skipping removed vertices
+        int[] vertexNumbers = new int[vertexLimit];
+        int vertexCount = 0;
+        for (int vertex = 0; vertex < vertexLimit; vertex++) {
+            if (vertices[vertex] != null) {
+                vertexNumbers[vertex] = vertexCount;
+                vertexCount++;
+            }
+        }
+
+        // Compute the rotation system
+        Vertex[] rotationVertices = new Vertex[vertexCount];
+        int[] offsets = new int[vertexCount + 1];
+        int[] rotationTargets = new int[2 * edgeLimit];
+        int externalFaceEdge = -1;
+        int index = 0;
+        for (int vertex = 0; vertex < vertexLimit; vertex++) {
+            if (vertices[vertex] != null) {
+                int vertexNumber = vertexNumbers[vertex];
+                rotationVertices[vertexNumber] = vertices[vertex];
+                offsets[vertexNumber] = index;
+                int startEdge = vertexEdges[vertex];
+                if (startEdge >= 0) {
+                    int halfEdge = startEdge;
+                    do {
+                        if (halfEdge == faceEdges[externalFace]) {
+                            externalFaceEdge = index;
+                        }
+                        rotationTargets[index] = vertexNumbers[targets[halfEdge]];
+                        index++;
+                        halfEdge = nextClockwise[halfEdge];
+                    } while (halfEdge != startEdge);
+                }
+            }
+        }
+        offsets[vertexCount] = index;
+        if (index < rotationTargets.length) {
+            rotationTargets = Arrays.copyOf(rotationTargets, index);
+        }
+        return PlanarEmbedding.createTrusted(
+            RotationSystem.create(rotationVertices, offsets, rotationTargets), externalFaceEdge);
+    }
+
+    /** Returns the index of the specified vertex, adding it as a vertex with no edges if it is not in the graph. */
+    private int index(Vertex vertex) {
+        Integer index = vertexIndices.get(vertex);
+        if (index != null) {
+            return index;
+        }
+        int newIndex;
+        if (freeVertexCount > 0) {
+            freeVertexCount--;
+            newIndex = freeVertices[freeVertexCount];
+        } else {
+            if (vertexLimit == vertices.length) {
+                vertices = Arrays.copyOf(vertices, 2 * vertices.length);
+                vertexEdges = grow(vertexEdges, vertices.length);
+            }
+            newIndex = vertexLimit;
+            vertexLimit++;
+        }
+        vertices[newIndex] = vertex;
+        vertexEdges[newIndex] = -1;
+        vertexIndices.put(vertex, newIndex);
+        return newIndex;
+    }
+
+    /** Removes the vertex with the specified index from the graph.  Assumes it has no edges. */
+    private void removeVertex(int vertex) {
+        vertexIndices.remove(vertices[vertex]);
+        vertices[vertex] = null;
+        if (freeVertexCount == freeVertices.length) {
+            freeVertices = grow(freeVertices, freeVertexCount + 1);
+        }
+        freeVertices[freeVertexCount] = vertex;
+        freeVertexCount++;
+    }
+
+    /**
+     * Adds an edge from the vertex with index "source" to the vertex with index "target", without setting its faces.
+     * @param source The index of the source vertex.
+     * @param target The index of the target vertex.
+     * @param sourceNext The half-edge that is to be next clockwise from the new edge around "source", or -1 if
+     *     "source" has no edges.
+     * @param targetNext The half-edge that is to be next clockwise from the new edge around "target", or -1 if
+     *     "target" has no edges.
+     * @return The half-edge from "source" to "target".
+     */
+    private int createEdge(int source, int target, int sourceNext, int targetNext) {
+        int edge;
+        if (freeEdgeCount > 0) {
+            freeEdgeCount--;
+            edge = freeEdges[freeEdgeCount];
+        } else {
+            if (2 * edgeLimit + 2 > targets.length) {
+                targets = grow(targets, 2 * edgeLimit + 2);
+                nextClockwise = grow(nextClockwise, 2 * edgeLimit + 2);
+                nextCounterclockwise = grow(nextCounterclockwise, 2 * edgeLimit + 2);
+                faces = grow(faces, 2 * edgeLimit + 2);
+            }
+            edge = edgeLimit;
+            edgeLimit++;
+        }
+        int halfEdge = 2 * edge;
+        targets[halfEdge] = target;
+        targets[halfEdge + 1] = source;
+        insertHalfEdge(halfEdge, source, sourceNext);
+        insertHalfEdge(halfEdge + 1, target, targetNext);
+        edgeHalfEdges.put(new UnorderedPair<Vertex>(vertices[source], vertices[target]), halfEdge);
+        return halfEdge;
+    }
+
+    /**
+     * Inserts the specified half-edge into the clockwise ordering around the specified vertex, immediately
+     * counterclockwise from the half-edge "next", or as the vertex's only half-edge if "next" is -1.
+     */
+    private void insertHalfEdge(int halfEdge, int vertex, int next) {
+        if (next < 0) {
+            nextClockwise[halfEdge] = halfEdge;
+            nextCounterclockwise[halfEdge] = halfEdge;
+            vertexEdges[vertex] = halfEdge;
+        } else {
+            int prev = nextCounterclockwise[next];
+            nextClockwise[prev] = halfEdge;
+            nextCounterclockwise[halfEdge] = prev;
+            nextClockwise[halfEdge] = next;
+            nextCounterclockwise[next] = halfEdge;
+        }
+    }
+
+    /** Removes the specified half-edge from the clockwise ordering around the specified vertex, its source. */
+    private void unlinkHalfEdge(int halfEdge, int vertex) {
+        int next = nextClockwise[halfEdge];
+        if (next == halfEdge) {
+            vertexEdges[vertex] = -1;
+        } else {
+            int prev = nextCounterclockwise[halfEdge];
+            nextClockwise[prev] = next;
+            nextCounterclockwise[next] = prev;
+            if (vertexEdges[vertex] == halfEdge) {
+                vertexEdges[vertex] = next;
+            }
+        }
+    }
+
+    /** Returns an unused face number, and marks it as being in use, with no half-edges. */
+    private int createFace() {
+        int face;
+        if (freeFaceCount > 0) {
+            freeFaceCount--;
+            face = freeFaces[freeFaceCount];
+        } else {
+            if (faceLimit == faceEdges.length) {
+                faceEdges = grow(faceEdges, faceLimit + 1);
+                faceSizes = grow(faceSizes, faceLimit + 1);
+            }
+            face = faceLimit;
+            faceLimit++;
+        }
+        faceEdges[face] = -1;
+        faceSizes[face] = 0;
+        return face;
+    }
+
+    /** Marks the specified face number as free. */
+    private void removeFace(int face) {
+        faceEdges[face] = -1;
+        faceSizes[face] = -1;
+        if (freeFaceCount == freeFaces.length) {
+            freeFaces = grow(freeFaces, freeFaceCount + 1);
+        }
+        freeFaces[freeFaceCount] = face;
+        freeFaceCount++;
+    }
+
+    /**
+     * Returns the half-edge leaving the specified vertex that is to follow a new edge in clockwise order.  Throws an
+     * IllegalArgumentException if the arguments are invalid.
+     * @param vertex The vertex.
+     * @param next The vertex at the end of the edge that is to follow the new edge, or null if "vertex" does not have
+     *     any edges.
+     * @return The half-edge, or -1 if "vertex" does not have any edges.
+     */
+    private int nextEdge(Vertex vertex, Vertex next) {
+        Integer index = vertexIndices.get(vertex);
+        if (index == null || vertexEdges[index] < 0) {
+            if (next != null) {
+                throw new IllegalArgumentException(vertex + " does not have any edges");
+            }
+            return -1;
+        } else if (next == null) {
+            throw new IllegalArgumentException(
+                "We must specify where to place the new edge around " + vertex + ", because it already has edges");
+        } else {
+            return halfEdge(vertex, next);
+        }
+    }
+
+    /**
+     * Adds an edge between the specified vertices.  Each endpoint may be a vertex that is not in the graph, in which
+     * case we add it.  If both endpoints are in the graph and have edges, this splits the face containing the new edge
+     * in two.  This takes time proportional to the size of the smaller of the two resulting faces, or constant time if
+     * we do not split a face.  Throws an IllegalArgumentException if the edge is a self loop, if there is already an
+     * edge between the vertices, or if the new edge would not lie in a single face or would disconnect the graph.
+     * @param vertex1 The first endpoint.
+     * @param next1 The vertex at the end of the edge that is to follow the new edge in clockwise order around vertex1,
+     *     or null if vertex1 does not have any edges.  The new edge lies in the left face of the edge from vertex1 to
+     *     next1.
+     * @param vertex2 The second endpoint.
+     * @param next2 The vertex at the end of the edge that is to follow the new edge in clockwise order around vertex2,
+     *     or null if vertex2 does not have any edges.
+     * @return The number of the new face, if we split a face, or -1 otherwise.  The new face is one of the faces on
+     *     either side of the new edge, namely the smaller one, and the other retains the number of the face we split.
+     */
+    public int addEdge(Vertex vertex1, Vertex next1, Vertex vertex2, Vertex next2) {
+        if (vertex1 == vertex2) {
+            throw new IllegalArgumentException("Self loops are not allowed");
+        } else if (containsEdge(vertex1, vertex2)) {
+            throw new IllegalArgumentException("There is already an edge between " + vertex1 + " and " + vertex2);
+        }
+        int nextEdge1 = nextEdge(vertex1, next1);
+        int nextEdge2 = nextEdge(vertex2, next2);
+        int face;
+        if (nextEdge1 >= 0) {
+            face = faces[nextEdge1];
+            if (nextEdge2 >= 0 && faces[nextEdge2] != face) {
+                throw new IllegalArgumentException("The new edge would not lie in a single face");
+            }
+        } else if (nextEdge2 >= 0) {
+            face = faces[nextEdge2];
+        } else if (edgeLimit - freeEdgeCount == 0 &&
+                (vertexIndices.containsKey(vertex1) || vertexIndices.containsKey(vertex2))) {
+            face = faces().get(0);
+        } else {
+            throw new IllegalArgumentException("Adding the edge would disconnect the graph");
+        }
+
+        int halfEdge = createEdge(index(vertex1), index(vertex2), nextEdge1, nextEdge2);
+        int twin = halfEdge ^ 1;
+        faces[halfEdge] = face;
+        faces[twin] = face;
+        if (nextEdge1 < 0 || nextEdge2 < 0) {
+            faceSizes[face] += 2;
+            faceEdges[face] = halfEdge;
+            return -1;
+        }
+
+        // Walk the cycles starting at halfEdge and at twin in lockstep, until one of them ends.  If the cycles are
+        // the same, then the face is not split.
+        int edge1 = nextClockwise[twin];
+        int edge2 = nextClockwise[halfEdge];
+        int size = 1;
+        while (edge1 != halfEdge && edge2 != twin) {
+            if (edge1 == twin || edge2 == halfEdge) {
+                faceSizes[face] += 2;
+                return -1;
+            }
+            edge1 = nextClockwise[edge1 ^ 1];
+            edge2 = nextClockwise[edge2 ^ 1];
+            size++;
+        }
+
+        // Relabel the shorter cycle
+        int newFace = createFace();
+        int newFaceEdge;
+        int oldFaceEdge;
+        if (edge1 == halfEdge) {
+            newFaceEdge = halfEdge;
+            oldFaceEdge = twin;
+        } else {
+            newFaceEdge = twin;
+            oldFaceEdge = halfEdge;
+        }
+        int edge = newFaceEdge;
+        do {
+            faces[edge] = newFace;
+            edge = nextClockwise[edge ^ 1];
+        } while (edge != newFaceEdge);
+        faceEdges[newFace] = newFaceEdge;
+        faceSizes[newFace] = size;
+        faceEdges[face] = oldFaceEdge;
+        faceSizes[face] += 2 - size;
+        return newFace;
+    }
+
+    /**
+     * Replaces the edge between vertex1 and vertex2 with a path from vertex1 to newVertex to vertex2.  The faces are
+     * unchanged.  This takes constant time.  Throws an IllegalArgumentException if there is no edge between vertex1
+     * and vertex2 or newVertex is already in the graph.
+     */
+    public void subdivide(Vertex vertex1, Vertex vertex2, Vertex newVertex) {
+        int halfEdge = halfEdge(vertex1, vertex2);
+        if (vertexIndices.containsKey(newVertex)) {
+            throw new IllegalArgumentException(newVertex + " is already in the graph");
+        }
+        int twin = halfEdge ^ 1;
+        int index2 = targets[halfEdge];
+        int newIndex = index(newVertex);
+
+        // Change halfEdge to go from vertex1 to newVertex, and twin to go from newVertex to vertex1.  The edge from
+        // newVertex to vertex2 takes twin's place around vertex2.
+        edgeHalfEdges.remove(new UnorderedPair<Vertex>(vertex1, vertex2));
+        int twinNext = nextClockwise[twin];
+        unlinkHalfEdge(twin, index2);
+        targets[halfEdge] = newIndex;
+        edgeHalfEdges.put(new UnorderedPair<Vertex>(vertex1, newVertex), halfEdge);
+        int newEdge;
+        if (twinNext == twin) {
+            newEdge = createEdge(newIndex, index2, -1, -1);
+        } else {
+            newEdge = createEdge(newIndex, index2, -1, twinNext);
+        }
+        insertHalfEdge(twin, newIndex, newEdge);
+        faces[newEdge] = faces[halfEdge];
+        faces[newEdge ^ 1] = faces[twin];
+        faceSizes[faces[halfEdge]]++;
+        faceSizes[faces[twin]]++;
+    }
+
+    /**
+     * Removes the edge between the specified vertices.  If the edge separates two distinct faces, this merges them into
+     * one, in time proportional to the size of the smaller face.  Otherwise, the edge is a bridge, and one of its
+     * endpoints must have no other edges.  We remove that endpoint from the graph, in constant time.  (If neither
+     * endpoint has other edges, we remove vertex2.)  Throws an IllegalArgumentException if there is no such edge, or
+     * if removing it would disconnect the graph.
+     * @return The number of the face that we removed by merging it into the other face, or -1 if we did not merge
+     *     faces.
+     */
+    public int removeEdge(Vertex vertex1, Vertex vertex2) {
+        int halfEdge = halfEdge(vertex1, vertex2);
+        int twin = halfEdge ^ 1;
+        int index1 = targets[twin];
+        int index2 = targets[halfEdge];
+        int leftFace = faces[halfEdge];
+        int rightFace = faces[twin];
+        int removedFace;
+        if (leftFace != rightFace) {
+            // Merge the smaller face into the larger face
+            int keptFace;
+            int removedEdge;
+            if (faceSizes[leftFace] >= faceSizes[rightFace]) {
+                keptFace = leftFace;
+                removedFace = rightFace;
+                removedEdge = twin;
+            } else {
+                keptFace = rightFace;
+                removedFace = leftFace;
+                removedEdge = halfEdge;
+            }
+            int edge = removedEdge;
+            do {
+                faces[edge] = keptFace;
+                edge = nextClockwise[edge ^ 1];
+            } while (edge != removedEdge);
+            faceEdges[keptFace] = nextClockwise[halfEdge];
+            faceSizes[keptFace] += faceSizes[removedFace] - 2;
+            removeFace(removedFace);
+        } else {
+            if (nextClockwise[halfEdge] != halfEdge && nextClockwise[twin] != twin) {
+                throw new IllegalArgumentException("Removing the edge would disconnect the graph");
+            }
+            removedFace = -1;
+            faceSizes[leftFace] -= 2;
+            if (faceSizes[leftFace] == 0) {
+                faceEdges[leftFace] = -1;
+            } else if (nextClockwise[twin] != twin) {
+                faceEdges[leftFace] = nextClockwise[twin];
+            } else {
+                faceEdges[leftFace] = nextClockwise[halfEdge];
+            }
+        }
+
+        unlinkHalfEdge(halfEdge, index1);
+        unlinkHalfEdge(twin, index2);
+        edgeHalfEdges.remove(new UnorderedPair<Vertex>(vertex1, vertex2));
+        if (freeEdgeCount == freeEdges.length) {
+            freeEdges = grow(freeEdges, freeEdgeCount + 1);
+        }
+        freeEdges[freeEdgeCount] = halfEdge >> 1;
+        freeEdgeCount++;
+        if (vertexEdges[index2] < 0) {
+            removeVertex(index2);
+        } else if (vertexEdges[index1] < 0) {
+            removeVertex(index1);
+        }
+        return removedFace;
+    }
+}
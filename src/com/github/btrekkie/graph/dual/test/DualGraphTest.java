@@ -1,5 +1,8 @@
 package com.github.btrekkie.graph.dual.test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
@@ -9,6 +12,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -17,7 +21,9 @@ import com.github.btrekkie.graph.MultiGraph;
 import com.github.btrekkie.graph.MultiVertex;
 import com.github.btrekkie.graph.Vertex;
 import com.github.btrekkie.graph.dual.DualGraph;
+import com.github.btrekkie.graph.generator.GraphGenerator;
 import com.github.btrekkie.graph.planar.PlanarEmbedding;
+import com.github.btrekkie.graph.planar.RotationSystem;
 import com.github.btrekkie.util.UnorderedPair;
 
 public class DualGraphTest {
@@ -612,4 +618,62 @@ public class DualGraphTest {
         DualGraph dual = new DualGraph(dualGraph, edgeToDualEdge, rightFaces);
         assertTrue(areEquivalent(DualGraph.compute(embedding), dual));
     }
+
+    /**
+     * Asserts that the arrays in the specified DualGraph, such as faceHalfEdges and dualNeighbors, are consistent with
+     * its rotationSystem and its MultiGraph.
+     */
+    private void checkArrays(DualGraph dual) {
+        RotationSystem rotationSystem = dual.rotationSystem;
+        assertEquals(rotationSystem.faceCount(), dual.faceVertices.length);
+        assertEquals(rotationSystem.faceCount(), dual.graph.vertices.size());
+        assertEquals(0, dual.faceEdgeOffsets[0]);
+        assertEquals(rotationSystem.halfEdgeCount(), dual.faceEdgeOffsets[rotationSystem.faceCount()]);
+        boolean[] visited = new boolean[rotationSystem.halfEdgeCount()];
+        for (int face = 0; face < rotationSystem.faceCount(); face++) {
+            assertTrue(dual.graph.vertices.contains(dual.faceVertices[face]));
+            for (int i = dual.faceEdgeOffsets[face]; i < dual.faceEdgeOffsets[face + 1]; i++) {
+                int halfEdge = dual.faceHalfEdges[i];
+                assertFalse(visited[halfEdge]);
+                visited[halfEdge] = true;
+                assertEquals(face, dual.leftFace(halfEdge));
+                assertEquals(dual.rightFace(halfEdge), dual.dualNeighbors[i]);
+                if (i + 1 < dual.faceEdgeOffsets[face + 1]) {
+                    assertEquals(rotationSystem.nextOnFace(halfEdge), dual.faceHalfEdges[i + 1]);
+                }
+
+                Vertex start = rotationSystem.vertex(rotationSystem.source(halfEdge));
+                Vertex end = rotationSystem.vertex(rotationSystem.target(halfEdge));
+                assertSame(dual.faceVertices[face], dual.leftFace(start, end));
+                assertSame(dual.faceVertices[dual.rightFace(halfEdge)], dual.rightFace(start, end));
+                int adjFace = dual.dualNeighbors[i];
+                if (adjFace != face) {
+                    assertTrue(dual.faceVertices[face].edges.contains(dual.faceVertices[adjFace]));
+                }
+            }
+        }
+    }
+
+    /** Tests the arrays in the DualGraphs that DualGraph.compute returns, such as faceHalfEdges and dualNeighbors. */
+    @Test
+    public void testArrays() {
+        Graph graph = new Graph();
+        Vertex vertex = graph.createVertex();
+        checkArrays(DualGraph.compute(PlanarEmbedding.compute(vertex)));
+
+        Random random = new Random(19);
+        for (int i = 0; i < 20; i++) {
+            graph = new Graph();
+            vertex = GraphGenerator.createRandomTriangulation(graph, 3 + random.nextInt(30), random);
+            checkArrays(DualGraph.compute(PlanarEmbedding.compute(vertex)));
+
+            graph = new Graph();
+            vertex = GraphGenerator.createRandomTree(graph, 1 + random.nextInt(30), random);
+            checkArrays(DualGraph.compute(PlanarEmbedding.compute(vertex)));
+
+            graph = new Graph();
+            vertex = GraphGenerator.createGrid(graph, 1 + random.nextInt(6), 1 + random.nextInt(6));
+            checkArrays(DualGraph.compute(PlanarEmbedding.compute(vertex)));
+        }
+    }
 }
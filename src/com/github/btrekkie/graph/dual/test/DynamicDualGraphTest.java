@@ -0,0 +1,294 @@
+package com.github.btrekkie.graph.dual.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.MultiVertex;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.dual.DualGraph;
+import com.github.btrekkie.graph.dual.DynamicDualGraph;
+import com.github.btrekkie.graph.generator.GraphGenerator;
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
+
+public class DynamicDualGraphTest {
+    /**
+     * Asserts that the faces of the specified DynamicDualGraph match those that DualGraph.compute computes for its
+     * embedding.
+     */
+    private void checkDual(DynamicDualGraph dual) {
+        List<Integer> faces = dual.faces();
+        assertEquals(faces.size(), dual.faceCount());
+        Map<Vertex, List<Vertex>> clockwiseOrder = dual.clockwiseOrder();
+        PlanarEmbedding embedding = new PlanarEmbedding(clockwiseOrder, dual.faceVertices(faces.get(0)));
+        DualGraph expected = DualGraph.compute(embedding);
+        assertEquals(expected.graph.vertices.size(), faces.size());
+
+        Map<Integer, MultiVertex> faceToDualVertex = new HashMap<Integer, MultiVertex>();
+        Map<MultiVertex, Integer> dualVertexToFace = new HashMap<MultiVertex, Integer>();
+        Map<Integer, Integer> faceSizes = new HashMap<Integer, Integer>();
+        for (Entry<Vertex, List<Vertex>> entry : clockwiseOrder.entrySet()) {
+            Vertex vertex = entry.getKey();
+            List<Vertex> adjVertices = entry.getValue();
+            for (int i = 0; i < adjVertices.size(); i++) {
+                Vertex adjVertex = adjVertices.get(i);
+                assertSame(adjVertices.get((i + 1) % adjVertices.size()), dual.nextClockwise(vertex, adjVertex));
+                assertSame(
+                    adjVertices.get((i + adjVertices.size() - 1) % adjVertices.size()),
+                    dual.nextCounterclockwise(vertex, adjVertex));
+
+                int face = dual.leftFace(vertex, adjVertex);
+                assertEquals(face, dual.rightFace(adjVertex, vertex));
+                MultiVertex dualVertex = expected.leftFace(vertex, adjVertex);
+                if (!faceToDualVertex.containsKey(face)) {
+                    faceToDualVertex.put(face, dualVertex);
+                    assertFalse(dualVertexToFace.containsKey(dualVertex));
+                    dualVertexToFace.put(dualVertex, face);
+                    faceSizes.put(face, 0);
+                }
+                assertSame(dualVertex, faceToDualVertex.get(face));
+                faceSizes.put(face, faceSizes.get(face) + 1);
+            }
+        }
+
+        for (int face : faces) {
+            List<Vertex> faceVertices = dual.faceVertices(face);
+            List<Integer> adjacentFaces = dual.adjacentFaces(face);
+            if (faceVertices.size() == 1) {
+                assertEquals(1, faces.size());
+                assertEquals(0, dual.faceSize(face));
+                assertTrue(adjacentFaces.isEmpty());
+                continue;
+            }
+            assertEquals((int)faceSizes.get(face), dual.faceSize(face));
+            assertEquals(faceVertices.size(), dual.faceSize(face));
+            assertEquals(faceVertices.size(), adjacentFaces.size());
+            for (int i = 0; i < faceVertices.size(); i++) {
+                Vertex start = faceVertices.get(i);
+                Vertex end = faceVertices.get((i + 1) % faceVertices.size());
+                assertEquals(face, dual.leftFace(start, end));
+                assertEquals((int)adjacentFaces.get(i), dual.rightFace(start, end));
+            }
+        }
+    }
+
+    /** Calls dual.addEdge(vertex1, next1, vertex2, next2), and adds the edge to the vertices' edges. */
+    private int addEdge(DynamicDualGraph dual, Vertex vertex1, Vertex next1, Vertex vertex2, Vertex next2) {
+        int newFace = dual.addEdge(vertex1, next1, vertex2, next2);
+        vertex1.addEdge(vertex2);
+        return newFace;
+    }
+
+    /** Calls dual.subdivide(vertex1, vertex2, newVertex), and updates the vertices' edges accordingly. */
+    private void subdivide(DynamicDualGraph dual, Vertex vertex1, Vertex vertex2, Vertex newVertex) {
+        dual.subdivide(vertex1, vertex2, newVertex);
+        vertex1.removeEdge(vertex2);
+        vertex1.addEdge(newVertex);
+        newVertex.addEdge(vertex2);
+    }
+
+    /** Calls dual.removeEdge(vertex1, vertex2), and removes the edge from the vertices' edges. */
+    private int removeEdge(DynamicDualGraph dual, Vertex vertex1, Vertex vertex2) {
+        int removedFace = dual.removeEdge(vertex1, vertex2);
+        vertex1.removeEdge(vertex2);
+        return removedFace;
+    }
+
+    /** Tests DynamicDualGraph on a small graph. */
+    @Test
+    public void testSimple() {
+        Graph graph = new Graph();
+        Vertex vertex1 = graph.createVertex();
+        DynamicDualGraph dual = DynamicDualGraph.create(PlanarEmbedding.compute(vertex1));
+        assertEquals(1, dual.faceCount());
+        checkDual(dual);
+
+        // Build a path
+        Vertex vertex2 = new Vertex();
+        Vertex vertex3 = new Vertex();
+        Vertex vertex4 = new Vertex();
+        assertEquals(-1, addEdge(dual, vertex1, null, vertex2, null));
+        assertEquals(-1, addEdge(dual, vertex2, vertex1, vertex3, null));
+        assertEquals(-1, addEdge(dual, vertex3, vertex2, vertex4, null));
+        assertEquals(1, dual.faceCount());
+        assertEquals(6, dual.faceSize(dual.faces().get(0)));
+        checkDual(dual);
+
+        // Close the path into a cycle
+        int face = dual.leftFace(vertex1, vertex2);
+        int newFace = addEdge(dual, vertex4, vertex3, vertex1, vertex2);
+        assertTrue(newFace >= 0);
+        assertTrue(newFace != face);
+        assertEquals(2, dual.faceCount());
+        assertEquals(4, dual.faceSize(face));
+        assertEquals(4, dual.faceSize(newFace));
+        assertTrue(dual.leftFace(vertex1, vertex4) != dual.rightFace(vertex1, vertex4));
+        checkDual(dual);
+
+        // Add a chord
+        int newFace2 = addEdge(dual, vertex1, vertex4, vertex3, vertex2);
+        assertEquals(3, dual.faceCount());
+        assertEquals(3, dual.faceSize(newFace2));
+        checkDual(dual);
+
+        // Subdivide an edge
+        Vertex vertex5 = new Vertex();
+        int leftFace = dual.leftFace(vertex1, vertex2);
+        int rightFace = dual.rightFace(vertex1, vertex2);
+        subdivide(dual, vertex1, vertex2, vertex5);
+        assertFalse(dual.containsEdge(vertex1, vertex2));
+        assertTrue(dual.containsEdge(vertex1, vertex5));
+        assertEquals(leftFace, dual.leftFace(vertex1, vertex5));
+        assertEquals(leftFace, dual.leftFace(vertex5, vertex2));
+        assertEquals(rightFace, dual.rightFace(vertex1, vertex5));
+        assertEquals(rightFace, dual.rightFace(vertex5, vertex2));
+        checkDual(dual);
+
+        // Remove the chord
+        leftFace = dual.leftFace(vertex1, vertex3);
+        rightFace = dual.rightFace(vertex1, vertex3);
+        int removedFace = removeEdge(dual, vertex1, vertex3);
+        assertTrue(removedFace == leftFace || removedFace == rightFace);
+        assertEquals(2, dual.faceCount());
+        assertFalse(dual.faces().contains(removedFace));
+        checkDual(dual);
+
+        // Removing a bridge whose endpoints both have other edges would disconnect the graph
+        Vertex vertex6 = new Vertex();
+        Vertex vertex7 = new Vertex();
+        addEdge(dual, vertex1, vertex5, vertex6, null);
+        addEdge(dual, vertex6, vertex1, vertex7, null);
+        try {
+            removeEdge(dual, vertex1, vertex6);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException exception) {
+            // Expected
+        }
+        assertEquals(-1, removeEdge(dual, vertex6, vertex7));
+        assertFalse(dual.containsVertex(vertex7));
+        checkDual(dual);
+
+        // Edges between different faces are not allowed
+        Vertex next3;
+        if (dual.leftFace(vertex3, vertex4) != dual.leftFace(vertex6, vertex1)) {
+            next3 = vertex4;
+        } else {
+            next3 = vertex2;
+        }
+        try {
+            dual.addEdge(vertex6, vertex1, vertex3, next3);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException exception) {
+            // Expected
+        }
+        checkDual(dual);
+    }
+
+    /**
+     * Tests DynamicDualGraph by applying random operations to the embeddings of random graphs, and comparing the
+     * results to those of DualGraph.compute.
+     */
+    @Test
+    public void testRandom() {
+        Random random = new Random(20);
+        for (int i = 0; i < 60; i++) {
+            Graph graph = new Graph();
+            Vertex start;
+            switch (i % 3) {
+                case 0:
+                    start = GraphGenerator.createRandomTriangulation(graph, 3 + random.nextInt(20), random);
+                    break;
+                case 1:
+                    start = GraphGenerator.createRandomTree(graph, 1 + random.nextInt(20), random);
+                    break;
+                default:
+                    start = GraphGenerator.createGrid(graph, 1 + random.nextInt(5), 1 + random.nextInt(5));
+                    break;
+            }
+            DynamicDualGraph dual = DynamicDualGraph.create(PlanarEmbedding.compute(start));
+            checkDual(dual);
+
+            for (int j = 0; j < 40; j++) {
+                List<Integer> faces = dual.faces();
+                int face = faces.get(random.nextInt(faces.size()));
+                List<Vertex> faceVertices = dual.faceVertices(face);
+                int operation = random.nextInt(4);
+                if (faceVertices.size() == 1 || operation == 0) {
+                    // Add an edge to a new vertex
+                    if (faceVertices.size() == 1) {
+                        assertEquals(-1, addEdge(dual, faceVertices.get(0), null, new Vertex(), null));
+                    } else {
+                        int index = random.nextInt(faceVertices.size());
+                        Vertex vertex = faceVertices.get(index);
+                        Vertex next = faceVertices.get((index + 1) % faceVertices.size());
+                        assertEquals(-1, addEdge(dual, vertex, next, new Vertex(), null));
+                    }
+                } else if (operation == 1) {
+                    // Split the face
+                    int index1 = random.nextInt(faceVertices.size());
+                    int index2 = random.nextInt(faceVertices.size());
+                    Vertex vertex1 = faceVertices.get(index1);
+                    Vertex vertex2 = faceVertices.get(index2);
+                    if (vertex1 != vertex2 && !dual.containsEdge(vertex1, vertex2)) {
+                        int newFace = addEdge(
+                            dual, vertex1, faceVertices.get((index1 + 1) % faceVertices.size()),
+                            vertex2, faceVertices.get((index2 + 1) % faceVertices.size()));
+                        assertEquals(faces.size() + 1, dual.faceCount());
+                        assertTrue(
+                            newFace == dual.leftFace(vertex1, vertex2) || newFace == dual.rightFace(vertex1, vertex2));
+                        assertTrue(dual.leftFace(vertex1, vertex2) != dual.rightFace(vertex1, vertex2));
+                    }
+                } else {
+                    int index = random.nextInt(faceVertices.size());
+                    Vertex vertex1 = faceVertices.get(index);
+                    Vertex vertex2 = faceVertices.get((index + 1) % faceVertices.size());
+                    if (operation == 2) {
+                        subdivide(dual, vertex1, vertex2, new Vertex());
+                        assertEquals(faces.size(), dual.faceCount());
+                    } else if (dual.leftFace(vertex1, vertex2) != dual.rightFace(vertex1, vertex2)) {
+                        removeEdge(dual, vertex1, vertex2);
+                        assertEquals(faces.size() - 1, dual.faceCount());
+                    } else if (dual.nextClockwise(vertex1, vertex2) == vertex2 ||
+                            dual.nextClockwise(vertex2, vertex1) == vertex1) {
+                        assertEquals(-1, removeEdge(dual, vertex1, vertex2));
+                    }
+                }
+                checkDual(dual);
+            }
+        }
+    }
+
+    /** Tests that DynamicDualGraph.create numbers the faces as in the embedding's RotationSystem. */
+    @Test
+    public void testCreate() {
+        Random random = new Random(200);
+        for (int i = 0; i < 10; i++) {
+            Graph graph = new Graph();
+            Vertex start = GraphGenerator.createRandomTriangulation(graph, 3 + random.nextInt(20), random);
+            PlanarEmbedding embedding = PlanarEmbedding.compute(start);
+            DynamicDualGraph dual = DynamicDualGraph.create(embedding);
+            List<Integer> expectedFaces = new ArrayList<Integer>();
+            for (int face = 0; face < embedding.rotationSystem.faceCount(); face++) {
+                expectedFaces.add(face);
+            }
+            assertEquals(expectedFaces, dual.faces());
+            for (int halfEdge = 0; halfEdge < embedding.rotationSystem.halfEdgeCount(); halfEdge++) {
+                Vertex source = embedding.rotationSystem.vertex(embedding.rotationSystem.source(halfEdge));
+                Vertex target = embedding.rotationSystem.vertex(embedding.rotationSystem.target(halfEdge));
+                assertEquals(embedding.rotationSystem.face(halfEdge), dual.leftFace(source, target));
+            }
+        }
+    }
+}
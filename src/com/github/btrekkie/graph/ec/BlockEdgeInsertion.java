@@ -0,0 +1,820 @@
+package com.github.btrekkie.graph.ec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
+import com.github.btrekkie.graph.planar.RotationSystem;
+import com.github.btrekkie.graph.spqr.SpqrNode;
+import com.github.btrekkie.graph.spqr.SpqrTree;
+import com.github.btrekkie.util.UnorderedPair;
+
+/**
+ * Computes a path for inserting an edge between two vertices of a biconnected planar graph that crosses a minimum
+ * number of edges, over all of the graph's planar embeddings.  Some of the edges may be marked as uncrossable.  This
+ * is for VariableEmbeddingInsertion, which inserts an edge into a connected graph by combining such paths through the
+ * blocks between the endpoints.
+ */
+/* This uses the SPQR tree algorithm described in https://doi.org/10.1007/s00453-004-1128-8 (Gutwenger, Mutzel, and
+ * Weiskircher (2005): Inserting an Edge into a Planar Graph).  First, we find the shortest path mu_1, ..., mu_k in the
+ * SPQR tree from a node whose skeleton contains the start vertex to a node whose skeleton contains the end vertex.  The
+ * edge must pass through the skeletons of these nodes in order.  It can pass through an S node or a P node without
+ * crossing anything: the faces of an S node are on both sides of every edge, and we may order the edges of a P node so
+ * that the virtual edges for the adjacent nodes on the path are consecutive.  Because we may flip the portion of the
+ * graph on either side of each pair of virtual edges independently, the cheapest way through each R node is simply a
+ * shortest path in the dual of its skeleton from a face incident to the start (the start vertex or the virtual edge
+ * for the previous node on the path) to a face incident to the end.
+ *
+ * The weight of a virtual edge in such a dual path is the minimum number of edges we must cross to traverse the graph
+ * that the virtual edge represents, from the face on one side of the virtual edge to the face on the other side.  We
+ * compute this bottom-up, regarding the path as the root of the tree.  To traverse an S node, we cross the cheapest of
+ * its edges.  To traverse a P node, we must cross all of its edges.  To traverse an R node, we take a shortest path in
+ * the dual of its skeleton between the two faces incident to the virtual edge for its parent.  These weights do not
+ * depend on the embeddings of the subtrees or on the direction in which we traverse them, so the total is optimal.
+ *
+ * To compute the crossed edges themselves, we replace each crossed virtual edge with the sequence of edges we cross to
+ * traverse the corresponding node, repeating until only real edges remain.
+ *
+ * The O-hubs of the wheel gadgets for EcNode.Type.ORIENTED nodes (see EcPlanarEmbedding.expand) restrict the above.
+ * Each O-hub belongs to the skeleton of an R node, and it fixes that skeleton's embedding, as opposed to its mirror
+ * image.  This does not affect the weights, because a shortest path across a skeleton has the same length in its
+ * mirror image.  However, it affects the nodes on the path.  We keep track of the side of each pair of virtual edges
+ * between consecutive nodes mu_i and mu_(i + 1) on which the path runs.  The side on which the path leaves a P node is
+ * determined by the side on which it enters, because the face between two consecutive edges of a P node lies on
+ * opposite sides of them, if we direct them the same way.  An S node has two faces, each on the same side of every
+ * edge, if we direct the edges in the direction of the cycle.  The path may switch faces by crossing one of the other
+ * edges, which is never useful in the absence of O-hubs.  Going from the virtual edge in mu_i to the matching virtual
+ * edge in mu_(i + 1) switches sides, if we direct both edges the same way.  The side on which the path leaves an R
+ * node depends on which faces we connect and on whether the skeleton is flipped, which is up to us unless the
+ * skeleton contains an O-hub.  Thus, we compute the cheapest path through the nodes on the path using dynamic
+ * programming, where the state is the side on which we enter each node.
+ *
+ * Likewise, the order in which we cross the edges of a subtree that contains an O-hub depends on the side from which
+ * we enter it.  Thus, we represent each crossing as a "crossing" 2 * E + S, indicating that we cross edge E from side S
+ * to side 1 - S, where S is 0 for the left side and 1 for the right side, relative to the direction from
+ * tree.edgeVertex1(E) to tree.edgeVertex2(E).  When we traverse an R node with a fixed orientation from the side
+ * opposite the one for which we computed its traversal, we cross its edges in the reverse order.
+ */
+class BlockEdgeInsertion {
+    /** The weight of an edge that we may not cross. */
+    private static final int INFINITE_WEIGHT = Integer.MAX_VALUE;
+
+    /** The SPQR tree of the block. */
+    private final SpqrTree tree;
+
+    /** The matching virtual edge of each edge in "tree", as in SpqrTree.virtualMatches(). */
+    private final int[] virtualMatches;
+
+    /** The node containing each edge in "tree". */
+    private final int[] edgeNodes;
+
+    /**
+     * The number of edges we must cross in order to cross each edge in "tree".  For a virtual edge, this is the number
+     * of edges we must cross to traverse the subtree on the other side of the edge.  It is INFINITE_WEIGHT for edges
+     * we may not cross, including the virtual edges that lead toward the path and those we have not processed yet.
+     */
+    private final int[] edgeWeights;
+
+    /** The embedding of the skeleton of each R node, or null if we have not computed it. */
+    private final RotationSystem[] rotationSystems;
+
+    /**
+     * A map from each half-edge in rotationSystems[N] to the corresponding edge in "tree", for each node N for which
+     * we have computed rotationSystems[N].
+     */
+    private final int[][] halfEdgeEdges;
+
+    /**
+     * The half-edge in rotationSystems[N] from the vertex corresponding to tree.edgeVertex1(E) to the vertex
+     * corresponding to tree.edgeVertex2(E) for each edge E in each node N for which we have computed
+     * rotationSystems[N].
+     */
+    private final int[] edgeHalfEdges;
+
+    /**
+     * The virtual edge in each node that leads toward the path mu_1, ..., mu_k, or -1 for the nodes on the path.  In
+     * other words, this is the virtual edge for the parent of each node, when we regard the path as the root.
+     */
+    private final int[] parentEdges;
+
+    /**
+     * The crossings for traversing each node N not on the path from the left side of parentEdges[N] to the right side,
+     * in order, or null if we have not computed them or if it is impossible to traverse the node.  If N is an R node,
+     * this is relative to rotationSystems[N] rather than the final embedding.
+     */
+    private final List<List<Integer>> traversals;
+
+    /**
+     * A map from each O-hub vertex V in the graph to the vertex that must be immediately counterclockwise from
+     * oHubSeconds.get(V) relative to V, as in the argument to EcPlanarEmbedding.expand.
+     */
+    private final Map<Vertex, Vertex> oHubFirsts;
+
+    /**
+     * A map from each O-hub vertex V in the graph to the vertex that must be immediately clockwise from
+     * oHubFirsts.get(V) relative to V, as in the argument to EcPlanarEmbedding.expand.
+     */
+    private final Map<Vertex, Vertex> oHubSeconds;
+
+    /**
+     * Whether each R node's skeleton must be the mirror image of rotationSystems[N] in order to correctly orient its
+     * O-hubs, or null if it may have either orientation.  Each element is null if we have not computed
+     * rotationSystems[N].
+     */
+    private final Boolean[] isFlipped;
+
+    private BlockEdgeInsertion(
+            SpqrTree tree, int[] edgeWeights, Map<Vertex, Vertex> oHubFirsts, Map<Vertex, Vertex> oHubSeconds) {
+        this.tree = tree;
+        this.edgeWeights = edgeWeights;
+        this.oHubFirsts = oHubFirsts;
+        this.oHubSeconds = oHubSeconds;
+        virtualMatches = tree.virtualMatches();
+        edgeNodes = new int[virtualMatches.length];
+        for (int node = 0; node < tree.nodeCount(); node++) {
+            for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+                edgeNodes[edge] = node;
+            }
+        }
+        rotationSystems = new RotationSystem[tree.nodeCount()];
+        halfEdgeEdges = new int[tree.nodeCount()][];
+        edgeHalfEdges = new int[virtualMatches.length];
+        parentEdges = new int[tree.nodeCount()];
+        traversals = new ArrayList<List<Integer>>(Collections.<List<Integer>>nCopies(tree.nodeCount(), null));
+        isFlipped = new Boolean[tree.nodeCount()];
+    }
+
+    /**
+     * Returns the sum of the weights of the edges in the specified crossings, or INFINITE_WEIGHT if the sum is too
+     * large.
+     */
+    private int weight(List<Integer> crossings) {
+        int weight = 0;
+        for (int crossing : crossings) {
+            int edgeWeight = edgeWeights[crossing >> 1];
+            if (edgeWeight == INFINITE_WEIGHT || weight + edgeWeight < 0) {
+                return INFINITE_WEIGHT;
+            }
+            weight += edgeWeight;
+        }
+        return weight;
+    }
+
+    /**
+     * Computes rotationSystems[node], halfEdgeEdges[node], isFlipped[node], and the entries of edgeHalfEdges for the
+     * specified R node, if we have not done so already.  Returns false if the skeleton is not planar, or if it has no
+     * embedding that correctly orients all of its O-hubs.
+     */
+    private boolean computeRotationSystem(int node) {
+        if (rotationSystems[node] != null) {
+            return true;
+        }
+
+        // Create a Graph for the skeleton.  R skeletons do not have multiple edges between the same pair of vertices.
+        Map<Integer, Vertex> vertices = new HashMap<Integer, Vertex>();
+        Graph skeleton = new Graph();
+        for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+            for (int vertex : new int[]{tree.edgeVertex1(edge), tree.edgeVertex2(edge)}) {
+                if (!vertices.containsKey(vertex)) {
+                    vertices.put(vertex, skeleton.createVertex());
+                }
+            }
+            vertices.get(tree.edgeVertex1(edge)).addEdge(vertices.get(tree.edgeVertex2(edge)));
+        }
+
+        PlanarEmbedding embedding = PlanarEmbedding.compute(skeleton.vertices.iterator().next());
+        if (embedding == null) {
+            return false;
+        }
+        RotationSystem rotationSystem = embedding.rotationSystem;
+        int[] nodeHalfEdgeEdges = new int[rotationSystem.halfEdgeCount()];
+        for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+            int halfEdge = rotationSystem.findEdge(
+                rotationSystem.vertexIndex(vertices.get(tree.edgeVertex1(edge))),
+                rotationSystem.vertexIndex(vertices.get(tree.edgeVertex2(edge))));
+            edgeHalfEdges[edge] = halfEdge;
+            nodeHalfEdgeEdges[halfEdge] = edge;
+            nodeHalfEdgeEdges[rotationSystem.twin(halfEdge)] = edge;
+        }
+
+        // Determine whether the O-hubs require us to flip the embedding, by checking whether oHubSeconds.get(V) is
+        // immediately clockwise or immediately counterclockwise from oHubFirsts.get(V) relative to each O-hub V.  The
+        // edges adjacent to an O-hub are the real edges to its spokes, so they are all in the skeleton.
+        boolean canBeNonFlipped = true;
+        boolean canBeFlipped = true;
+        for (Entry<Integer, Vertex> entry : vertices.entrySet()) {
+            Vertex hub = tree.vertex(entry.getKey());
+            Vertex oHubFirst = oHubFirsts.get(hub);
+            if (oHubFirst == null) {
+                continue;
+            }
+            Vertex oHubSecond = oHubSeconds.get(hub);
+            int hubIndex = rotationSystem.vertexIndex(entry.getValue());
+            for (int halfEdge = rotationSystem.offset(hubIndex); halfEdge < rotationSystem.offset(hubIndex + 1);
+                    halfEdge++) {
+                int edge = nodeHalfEdgeEdges[halfEdge];
+                Vertex adjVertex = tree.vertex(tree.edgeVertex1(edge));
+                if (adjVertex == hub) {
+                    adjVertex = tree.vertex(tree.edgeVertex2(edge));
+                }
+                if (adjVertex == oHubFirst) {
+                    int nextEdge = nodeHalfEdgeEdges[rotationSystem.nextClockwise(halfEdge)];
+                    if (tree.vertex(tree.edgeVertex1(nextEdge)) == oHubSecond ||
+                            tree.vertex(tree.edgeVertex2(nextEdge)) == oHubSecond) {
+                        canBeFlipped = false;
+                    } else {
+                        canBeNonFlipped = false;
+                    }
+                    break;
+                }
+            }
+        }
+        if (!canBeNonFlipped && !canBeFlipped) {
+            return false;
+        }
+
+        rotationSystems[node] = rotationSystem;
+        halfEdgeEdges[node] = nodeHalfEdgeEdges;
+        if (canBeNonFlipped && canBeFlipped) {
+            isFlipped[node] = null;
+        } else {
+            isFlipped[node] = canBeFlipped;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the face of the specified R node's skeleton on the specified side of the specified edge, as in
+     * RotationSystem.face.  Assumes we have computed rotationSystems[node].
+     * @param node The node.
+     * @param edge The edge.
+     * @param isLeft Whether to return the face to the left of the edge, i.e. the face immediately counterclockwise
+     *     relative to the half-edge from tree.edgeVertex1(edge) to tree.edgeVertex2(edge), as opposed to the face to
+     *     its right.  This is relative to rotationSystems[node], rather than to the final embedding.
+     * @return The face.
+     */
+    private int edgeFace(int node, int edge, boolean isLeft) {
+        RotationSystem rotationSystem = rotationSystems[node];
+        int halfEdge = edgeHalfEdges[edge];
+        if (isLeft) {
+            return rotationSystem.face(halfEdge);
+        } else {
+            return rotationSystem.face(rotationSystem.twin(halfEdge));
+        }
+    }
+
+    /** Adds the faces on either side of the specified edge in the skeleton of the specified R node to "faces". */
+    private void addEdgeFaces(int node, int edge, Collection<Integer> faces) {
+        RotationSystem rotationSystem = rotationSystems[node];
+        int halfEdge = edgeHalfEdges[edge];
+        faces.add(rotationSystem.face(halfEdge));
+        faces.add(rotationSystem.face(rotationSystem.twin(halfEdge)));
+    }
+
+    /** Adds the faces incident to the specified vertex in the skeleton of the specified R node to "faces". */
+    private void addVertexFaces(int node, int vertex, Collection<Integer> faces) {
+        for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+            if (tree.edgeVertex1(edge) == vertex || tree.edgeVertex2(edge) == vertex) {
+                addEdgeFaces(node, edge, faces);
+            }
+        }
+    }
+
+    /**
+     * Returns the crossings of a shortest path in the dual of the skeleton of the specified R node, relative to
+     * edgeWeights, from one of the specified start faces to one of the specified end faces.  Returns null if there is
+     * no path of finite weight.  Assumes we have computed rotationSystems[node].
+     * @param node The node.
+     * @param startFaces The start faces, as in RotationSystem.face.
+     * @param endFaces The end faces, as in RotationSystem.face.
+     * @return The crossings, in order.  The sides are relative to rotationSystems[node].
+     */
+    private List<Integer> shortestPath(int node, Collection<Integer> startFaces, Collection<Integer> endFaces) {
+        RotationSystem rotationSystem = rotationSystems[node];
+        int[] nodeHalfEdgeEdges = halfEdgeEdges[node];
+        boolean[] isEnd = new boolean[rotationSystem.faceCount()];
+        for (int face : endFaces) {
+            isEnd[face] = true;
+        }
+
+        // Use Dijkstra's algorithm.  Each element of the queue is a distance in the high 32 bits and a face in the low
+        // 32 bits.
+        int[] distances = new int[rotationSystem.faceCount()];
+        Arrays.fill(distances, INFINITE_WEIGHT);
+        int[] predecessors = new int[rotationSystem.faceCount()];
+        PriorityQueue<Long> queue = new PriorityQueue<Long>();
+        for (int face : startFaces) {
+            distances[face] = 0;
+            predecessors[face] = -1;
+            queue.add((long)face);
+        }
+        int end = -1;
+        while (!queue.isEmpty()) {
+            long entry = queue.remove();
+            int distance = (int)(entry >>> 32);
+            int face = (int)entry;
+            if (distance > distances[face]) {
+                continue;
+            }
+            if (isEnd[face]) {
+                end = face;
+                break;
+            }
+
+            int startHalfEdge = rotationSystem.faceEdge(face);
+            int halfEdge = startHalfEdge;
+            do {
+                int weight = edgeWeights[nodeHalfEdgeEdges[halfEdge]];
+                if (weight != INFINITE_WEIGHT && distance + weight >= 0) {
+                    int adjFace = rotationSystem.face(rotationSystem.twin(halfEdge));
+                    if (distance + weight < distances[adjFace]) {
+                        distances[adjFace] = distance + weight;
+                        predecessors[adjFace] = halfEdge;
+                        queue.add(((long)(distance + weight) << 32) | adjFace);
+                    }
+                }
+                halfEdge = rotationSystem.nextOnFace(halfEdge);
+            } while (halfEdge != startHalfEdge);
+        }
+        if (end < 0) {
+            return null;
+        }
+
+        // Use "predecessors" to determine the crossings.  We cross each half-edge in "predecessors" from its left side.
+        List<Integer> crossings = new ArrayList<Integer>();
+        for (int face = end; predecessors[face] >= 0; face = rotationSystem.face(predecessors[face])) {
+            int halfEdge = predecessors[face];
+            int edge = nodeHalfEdgeEdges[halfEdge];
+            if (edgeHalfEdges[edge] == halfEdge) {
+                crossings.add(2 * edge);
+            } else {
+                crossings.add(2 * edge + 1);
+            }
+        }
+        Collections.reverse(crossings);
+        return crossings;
+    }
+
+    /**
+     * Returns the crossings for traversing the specified node from the left side of parentEdges[node] to the right
+     * side, in order, or null if it is impossible to do so.  If "node" is an R node, this is relative to
+     * rotationSystems[node].  Assumes we have computed the weights of the other virtual edges in the node.
+     */
+    private List<Integer> traversal(int node) {
+        int parentEdge = parentEdges[node];
+        switch (tree.type(node)) {
+            case S:
+            {
+                int minEdge = -1;
+                for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+                    if (edge != parentEdge && (minEdge < 0 || edgeWeights[edge] < edgeWeights[minEdge])) {
+                        minEdge = edge;
+                    }
+                }
+                if (edgeWeights[minEdge] == INFINITE_WEIGHT) {
+                    return null;
+                } else if (isSameDirection(node, parentEdge, minEdge)) {
+                    return Collections.singletonList(2 * minEdge);
+                } else {
+                    return Collections.singletonList(2 * minEdge + 1);
+                }
+            }
+            case P:
+            {
+                // The face to the left of parentEdge is to the right of the next edge, if we direct them the same way
+                List<Integer> crossings = new ArrayList<Integer>(tree.edgeCount(node) - 1);
+                for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+                    if (edge != parentEdge) {
+                        if (tree.edgeVertex1(edge) == tree.edgeVertex1(parentEdge)) {
+                            crossings.add(2 * edge + 1);
+                        } else {
+                            crossings.add(2 * edge);
+                        }
+                    }
+                }
+                if (weight(crossings) == INFINITE_WEIGHT) {
+                    return null;
+                } else {
+                    return crossings;
+                }
+            }
+            default:
+            {
+                if (!computeRotationSystem(node)) {
+                    return null;
+                }
+                RotationSystem rotationSystem = rotationSystems[node];
+                int halfEdge = edgeHalfEdges[parentEdge];
+                return shortestPath(
+                    node, Collections.singleton(rotationSystem.face(halfEdge)),
+                    Collections.singleton(rotationSystem.face(rotationSystem.twin(halfEdge))));
+            }
+        }
+    }
+
+    /**
+     * Adds the real edges corresponding to the specified crossing to "edges", in order.  For a real edge, this is the
+     * edge itself.  For a virtual edge, this is the real edges we cross to traverse the subtree on the other side of
+     * the edge.  The side of the crossing is relative to the final embedding.
+     */
+    private void addRealEdges(int crossing, List<UnorderedPair<Vertex>> edges) {
+        List<Integer> stack = new ArrayList<Integer>();
+        stack.add(crossing);
+        while (!stack.isEmpty()) {
+            int curCrossing = stack.remove(stack.size() - 1);
+            int edge = curCrossing >> 1;
+            if (!tree.isVirtual(edge)) {
+                edges.add(
+                    new UnorderedPair<Vertex>(
+                        tree.vertex(tree.edgeVertex1(edge)), tree.vertex(tree.edgeVertex2(edge))));
+                continue;
+            }
+
+            // Flipping the traversal to enter the node from the right side of its parent edge switches the sides of
+            // the crossings.  If the node is an R node with a fixed orientation, it also reverses their order.
+            int node = edgeNodes[virtualMatches[edge]];
+            List<Integer> traversal = traversals.get(node);
+            int entrySide = nextEntrySide(edge, curCrossing & 1);
+            if (isFlipped[node] == null || isFlipped[node] == (entrySide == 1)) {
+                for (int i = traversal.size() - 1; i >= 0; i--) {
+                    stack.add(traversal.get(i) ^ entrySide);
+                }
+            } else {
+                for (int traversalCrossing : traversal) {
+                    stack.add(traversalCrossing ^ entrySide);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the edges crossed by a path from "start" to "end" that crosses a minimum number of edges over all planar
+     * embeddings of the graph that correctly orient its O-hubs, in order, or null if there is no such path that only
+     * crosses edges with finite weights.
+     * "start" and "end" are vertex indices in the tree.
+     */
+    private List<UnorderedPair<Vertex>> crossedEdges(int start, int end) {
+        // Find the shortest path from a node containing "start" to a node containing "end" using breadth-first search.
+        // predecessorEdges[N] is the virtual edge in N for the previous node in the search, -1 for the start nodes, or
+        // -2 if we have not visited N.
+        int nodeCount = tree.nodeCount();
+        int[] predecessorEdges = new int[nodeCount];
+        boolean[] containsEnd = new boolean[nodeCount];
+        Arrays.fill(predecessorEdges, -2);
+        List<Integer> level = new ArrayList<Integer>();
+        for (int node = 0; node < nodeCount; node++) {
+            for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+                int vertex1 = tree.edgeVertex1(edge);
+                int vertex2 = tree.edgeVertex2(edge);
+                if ((vertex1 == start || vertex2 == start) && predecessorEdges[node] == -2) {
+                    predecessorEdges[node] = -1;
+                    level.add(node);
+                }
+                if (vertex1 == end || vertex2 == end) {
+                    containsEnd[node] = true;
+                }
+            }
+        }
+        int endNode = -1;
+        while (endNode < 0) {
+            List<Integer> nextLevel = new ArrayList<Integer>();
+            for (int node : level) {
+                if (containsEnd[node]) {
+                    endNode = node;
+                    break;
+                }
+                for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+                    if (tree.isVirtual(edge)) {
+                        int adjNode = edgeNodes[virtualMatches[edge]];
+                        if (predecessorEdges[adjNode] == -2) {
+                            predecessorEdges[adjNode] = virtualMatches[edge];
+                            nextLevel.add(adjNode);
+                        }
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+
+        List<Integer> path = new ArrayList<Integer>();
+        boolean[] visited = new boolean[nodeCount];
+        for (int node = endNode; node >= 0; ) {
+            path.add(node);
+            visited[node] = true;
+            parentEdges[node] = -1;
+            if (predecessorEdges[node] >= 0) {
+                node = edgeNodes[virtualMatches[predecessorEdges[node]]];
+            } else {
+                node = -1;
+            }
+        }
+        Collections.reverse(path);
+
+        // Compute the nodes that are not on the path, in breadth-first order starting at the path
+        List<Integer> nonPathNodes = new ArrayList<Integer>();
+        for (int i = -path.size(); i < nonPathNodes.size(); i++) {
+            int node;
+            if (i < 0) {
+                node = path.get(i + path.size());
+            } else {
+                node = nonPathNodes.get(i);
+            }
+            for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+                if (tree.isVirtual(edge)) {
+                    int adjNode = edgeNodes[virtualMatches[edge]];
+                    if (!visited[adjNode]) {
+                        visited[adjNode] = true;
+                        parentEdges[adjNode] = virtualMatches[edge];
+                        nonPathNodes.add(adjNode);
+                    }
+                }
+            }
+        }
+
+        // Compute the traversals and weights of the nodes that are not on the path, children first
+        for (int i = nonPathNodes.size() - 1; i >= 0; i--) {
+            int node = nonPathNodes.get(i);
+            List<Integer> traversal = traversal(node);
+            traversals.set(node, traversal);
+            if (traversal != null) {
+                edgeWeights[virtualMatches[parentEdges[node]]] = weight(traversal);
+            }
+        }
+
+        // Compute the cheapest way through the nodes on the path, using dynamic programming.  costs[S] is the minimum
+        // number of edges we must cross to enter the current node on side S of its virtual edge for the previous node,
+        // where S is 0 for the left side and 1 for the right side, relative to the direction from tree.edgeVertex1 to
+        // tree.edgeVertex2 in the final embedding.  entrySides[2 * i + S] is the side on which to enter path.get(i) in
+        // order to leave it on side S as cheaply as possible, and pathNodeCrossings.get(2 * i + S) is the list of
+        // crossings in path.get(i) in that case.
+        int[] costs = new int[]{0, INFINITE_WEIGHT};
+        int[] entrySides = new int[2 * path.size()];
+        List<List<Integer>> pathNodeCrossings = new ArrayList<List<Integer>>(
+            Collections.<List<Integer>>nCopies(2 * path.size(), null));
+        for (int i = 0; i < path.size(); i++) {
+            int node = path.get(i);
+            int entryEdge = i > 0 ? predecessorEdges[node] : -1;
+            int exitEdge = i + 1 < path.size() ? virtualMatches[predecessorEdges[path.get(i + 1)]] : -1;
+            int[] exitCosts = new int[]{INFINITE_WEIGHT, INFINITE_WEIGHT};
+            for (int entrySide = 0; entrySide < 2; entrySide++) {
+                if (costs[entrySide] == INFINITE_WEIGHT) {
+                    continue;
+                }
+                for (int exitSide = 0; exitSide < (exitEdge >= 0 ? 2 : 1); exitSide++) {
+                    List<Integer> crossings = pathNodeCrossings(
+                        node, start, entryEdge, entrySide, end, exitEdge, exitSide);
+                    if (crossings == null) {
+                        continue;
+                    }
+                    int weight = weight(crossings);
+                    if (weight != INFINITE_WEIGHT && costs[entrySide] + weight >= 0 &&
+                            costs[entrySide] + weight < exitCosts[exitSide]) {
+                        exitCosts[exitSide] = costs[entrySide] + weight;
+                        entrySides[2 * i + exitSide] = entrySide;
+                        pathNodeCrossings.set(2 * i + exitSide, crossings);
+                    }
+                }
+            }
+
+            if (exitEdge < 0) {
+                costs = exitCosts;
+            } else {
+                costs = new int[2];
+                for (int exitSide = 0; exitSide < 2; exitSide++) {
+                    costs[nextEntrySide(exitEdge, exitSide)] = exitCosts[exitSide];
+                }
+            }
+        }
+        if (costs[0] == INFINITE_WEIGHT) {
+            return null;
+        }
+
+        // Compute the crossings in the nodes on the path, in reverse order
+        List<Integer> reversedCrossings = new ArrayList<Integer>();
+        int exitSide = 0;
+        for (int i = path.size() - 1; i >= 0; i--) {
+            List<Integer> crossings = pathNodeCrossings.get(2 * i + exitSide);
+            for (int j = crossings.size() - 1; j >= 0; j--) {
+                reversedCrossings.add(crossings.get(j));
+            }
+            if (i > 0) {
+                // nextEntrySide is its own inverse
+                exitSide = nextEntrySide(predecessorEdges[path.get(i)], entrySides[2 * i + exitSide]);
+            }
+        }
+        List<UnorderedPair<Vertex>> crossedEdges = new ArrayList<UnorderedPair<Vertex>>();
+        for (int i = reversedCrossings.size() - 1; i >= 0; i--) {
+            addRealEdges(reversedCrossings.get(i), crossedEdges);
+        }
+        return crossedEdges;
+    }
+
+    /**
+     * Returns the side of virtualMatches[edge] on which a path enters the node containing virtualMatches[edge], given
+     * that it leaves the node containing "edge" on the specified side of "edge".  Each side is 0 for the left side and
+     * 1 for the right side, relative to the direction from tree.edgeVertex1 to tree.edgeVertex2.  This is also the side
+     * of virtualMatches[edge] that corresponds to the specified side of "edge".
+     */
+    private int nextEntrySide(int edge, int side) {
+        // The face to the left of one of the virtual edges is to the right of the other, if we direct them the same way
+        if (tree.edgeVertex1(virtualMatches[edge]) == tree.edgeVertex1(edge)) {
+            return 1 - side;
+        } else {
+            return side;
+        }
+    }
+
+    /**
+     * Returns whether the specified edges of the specified S node point in the same direction around its cycle, i.e.
+     * whether walking around the cycle from tree.edgeVertex1(edge1) to tree.edgeVertex2(edge1) reaches
+     * tree.edgeVertex1(edge2) before tree.edgeVertex2(edge2).
+     */
+    private boolean isSameDirection(int node, int edge1, int edge2) {
+        Map<Integer, List<Integer>> vertexEdges = new HashMap<Integer, List<Integer>>();
+        for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+            for (int vertex : new int[]{tree.edgeVertex1(edge), tree.edgeVertex2(edge)}) {
+                List<Integer> edges = vertexEdges.get(vertex);
+                if (edges == null) {
+                    edges = new ArrayList<Integer>(2);
+                    vertexEdges.put(vertex, edges);
+                }
+                edges.add(edge);
+            }
+        }
+
+        int edge = edge1;
+        int vertex = tree.edgeVertex2(edge1);
+        while (true) {
+            List<Integer> edges = vertexEdges.get(vertex);
+            edge = edges.get(0) != edge ? edges.get(0) : edges.get(1);
+            if (edge == edge2) {
+                return tree.edgeVertex1(edge2) == vertex;
+            }
+            vertex = tree.edgeVertex1(edge) != vertex ? tree.edgeVertex1(edge) : tree.edgeVertex2(edge);
+        }
+    }
+
+    /**
+     * Returns the crossings in the specified node on the path mu_1, ..., mu_k, in order, if we enter and leave it on
+     * the specified sides, or null if it is impossible to do so.  The sides of the crossings are relative to the final
+     * embedding.  Assumes we have computed the weights of the
+     * virtual edges for the nodes that are not on the path.
+     * @param node The node.
+     * @param start The vertex index of the start vertex.
+     * @param entryEdge The virtual edge in "node" for the previous node on the path, or -1 if "node" is the first node
+     *     on the path.
+     * @param entrySide The side of entryEdge on which we enter "node": 0 for the left side and 1 for the right side,
+     *     relative to the direction from tree.edgeVertex1(entryEdge) to tree.edgeVertex2(entryEdge) in the final
+     *     embedding.  This is ignored if entryEdge is -1.
+     * @param end The vertex index of the end vertex.
+     * @param exitEdge The virtual edge in "node" for the next node on the path, or -1 if "node" is the last node on
+     *     the path.
+     * @param exitSide The side of exitEdge on which we leave "node", in the same format as entrySide.  This is ignored
+     *     if exitEdge is -1.
+     * @return The crossings.
+     */
+    private List<Integer> pathNodeCrossings(
+            int node, int start, int entryEdge, int entrySide, int end, int exitEdge, int exitSide) {
+        if (tree.type(node) != SpqrNode.Type.R) {
+            if (entryEdge < 0 || exitEdge < 0) {
+                // Every face of the skeleton is incident to the start or end vertex
+                return Collections.emptyList();
+            }
+
+            if (tree.type(node) == SpqrNode.Type.P) {
+                // The face between two consecutive edges of a P node is to the left of one and to the right of the
+                // other, if we direct them the same way.  Crossing the edges between entryEdge and exitEdge does not
+                // change this.
+                if ((entrySide == exitSide) == (tree.edgeVertex1(entryEdge) != tree.edgeVertex1(exitEdge))) {
+                    return Collections.emptyList();
+                } else {
+                    return null;
+                }
+            }
+
+            if ((entrySide == exitSide) == isSameDirection(node, entryEdge, exitEdge)) {
+                return Collections.emptyList();
+            }
+
+            // Switch to the other face of the S node by crossing its cheapest edge
+            int minEdge = -1;
+            for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+                if (edge != entryEdge && edge != exitEdge &&
+                        (minEdge < 0 || edgeWeights[edge] < edgeWeights[minEdge])) {
+                    minEdge = edge;
+                }
+            }
+            if (edgeWeights[minEdge] == INFINITE_WEIGHT) {
+                return null;
+            } else if (isSameDirection(node, entryEdge, minEdge)) {
+                return Collections.singletonList(2 * minEdge + entrySide);
+            } else {
+                return Collections.singletonList(2 * minEdge + 1 - entrySide);
+            }
+        }
+
+        if (!computeRotationSystem(node)) {
+            return null;
+        }
+        List<Integer> minCrossings = null;
+        int minWeight = INFINITE_WEIGHT;
+        for (int flip = 0; flip < 2; flip++) {
+            // Skip the orientations that do not match the O-hubs.  If we have neither an entry nor an exit edge, both
+            // orientations give the same result.
+            boolean curIsFlipped = flip == 1;
+            if (isFlipped[node] != null) {
+                if (isFlipped[node] != curIsFlipped) {
+                    continue;
+                }
+            } else if (curIsFlipped && entryEdge < 0 && exitEdge < 0) {
+                continue;
+            }
+
+            // Flipping the skeleton switches the left and right sides of every edge, including those of the crossings
+            List<Integer> startFaces = new ArrayList<Integer>();
+            if (entryEdge < 0) {
+                addVertexFaces(node, start, startFaces);
+            } else {
+                startFaces.add(edgeFace(node, entryEdge, (entrySide == 0) != curIsFlipped));
+            }
+            List<Integer> endFaces = new ArrayList<Integer>();
+            if (exitEdge < 0) {
+                addVertexFaces(node, end, endFaces);
+            } else {
+                endFaces.add(edgeFace(node, exitEdge, (exitSide == 0) != curIsFlipped));
+            }
+
+            List<Integer> crossings = shortestPath(node, startFaces, endFaces);
+            if (crossings != null && (minCrossings == null || weight(crossings) < minWeight)) {
+                if (curIsFlipped) {
+                    for (int j = 0; j < crossings.size(); j++) {
+                        crossings.set(j, crossings.get(j) ^ 1);
+                    }
+                }
+                minCrossings = crossings;
+                minWeight = weight(crossings);
+            }
+        }
+        return minCrossings;
+    }
+
+    /**
+     * Returns the edges crossed by a path from "start" to "end" that crosses a minimum number of edges, over all planar
+     * embeddings of the specified biconnected graph that correctly orient its O-hubs, or null if there is no path that
+     * only crosses edges in crossableEdges.  The path might cross an edge adjacent to "start" or "end".
+     * @param block The graph.  This must be planar and biconnected.
+     * @param start The start vertex.
+     * @param end The end vertex.  This must be distinct from "start".
+     * @param crossableEdges The edges we may cross.  Each edge is represented as a pair of its endpoints.
+     * @param oHubFirsts A map from each O-hub vertex V in the graph to the vertex that must be immediately
+     *     counterclockwise from oHubSeconds.get(V) relative to V, as in the argument to EcPlanarEmbedding.expand.
+     * @param oHubSeconds A map from each O-hub vertex V in the graph to the vertex that must be immediately clockwise
+     *     from oHubFirsts.get(V) relative to V, as in the argument to EcPlanarEmbedding.expand.
+     * @return The crossed edges, in order from "start" to "end".  Each edge is represented as a pair of its endpoints.
+     */
+    public static List<UnorderedPair<Vertex>> crossedEdges(
+            Graph block, Vertex start, Vertex end, Set<UnorderedPair<Vertex>> crossableEdges,
+            Map<Vertex, Vertex> oHubFirsts, Map<Vertex, Vertex> oHubSeconds) {
+        if (block.vertices.size() == 2) {
+            return Collections.emptyList();
+        }
+        Iterator<Vertex> iterator = block.vertices.iterator();
+        Vertex reference1 = iterator.next();
+        Vertex reference2 = reference1.edges.iterator().next();
+        SpqrTree tree = SpqrTree.create(reference1, reference2);
+
+        int[] edgeWeights = new int[tree.skeletonEdgeCount()];
+        for (int edge = 0; edge < edgeWeights.length; edge++) {
+            if (!tree.isVirtual(edge) &&
+                    crossableEdges.contains(
+                        new UnorderedPair<Vertex>(
+                            tree.vertex(tree.edgeVertex1(edge)), tree.vertex(tree.edgeVertex2(edge))))) {
+                edgeWeights[edge] = 1;
+            } else {
+                edgeWeights[edge] = INFINITE_WEIGHT;
+            }
+        }
+
+        int startIndex = -1;
+        int endIndex = -1;
+        for (int vertex = 0; vertex < tree.vertexCount(); vertex++) {
+            if (tree.vertex(vertex) == start) {
+                startIndex = vertex;
+            } else if (tree.vertex(vertex) == end) {
+                endIndex = vertex;
+            }
+        }
+        return new BlockEdgeInsertion(tree, edgeWeights, oHubFirsts, oHubSeconds).crossedEdges(startIndex, endIndex);
+    }
+}
@@ -0,0 +1,408 @@
+package com.github.btrekkie.graph.ec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.ec.EcPlanarEmbeddingWithCrossings.InsertionMode;
+import com.github.btrekkie.util.UnorderedPair;
+
+/**
+ * Reduces the number of crossings in an output graph of EcPlanarEmbeddingWithCrossings by repeatedly removing an edge
+ * of the input graph that has crossings and adding it again.  This is a post-processing step for
+ * EcPlanarEmbeddingWithCrossings.embed.  A CrossingReinsertion operates directly on the bookkeeping of
+ * EcPlanarEmbeddingWithCrossings.tryEmbed, and it leaves the bookkeeping in a consistent state.
+ */
+/* This is the "remove-and-reinsert" post-processing step described in
+ * http://link.springer.com/content/pdf/10.1007%2F978-3-540-24595-7_2.pdf (Gutwenger and Mutzel (2003): An Experimental
+ * Study of Crossing Minimization Heuristics).  To remove an edge, we remove the vertices of the corresponding path,
+ * other than the crossing vertices, and we turn each crossing vertex into a non-crossing vertex of the other path that
+ * passed through it.  Then, we remove any non-crossing added vertices that are no longer needed from each of the other
+ * paths.  We keep a non-crossing added vertex only if removing it would result in multiple edges between the same
+ * pair of vertices.
+ *
+ * To add the edge again, we first check whether we can add it without crossings.  If not, we use
+ * EcPlanarEmbeddingWithCrossings.addCrossings or EcPlanarEmbeddingWithCrossings.addCrossEdgeWithVariableEmbedding,
+ * depending on the insertion mode.  The former uses the dual graph of a fresh ec-planar embedding of the output graph.
+ *
+ * We save a copy of the bookkeeping before removing each edge.  If we were unable to add the edge again, or if this
+ * did not reduce the number of crossings, we restore the copy.  Thus, the number of crossings never increases, and
+ * the output graph remains ec-planar.
+ */
+class CrossingReinsertion {
+    /** The output graph. */
+    private final Graph graph;
+
+    /** The technique to use to add the edges. */
+    private final InsertionMode mode;
+
+    /** A map from each crossing vertex in the output graph to the corresponding Crossing object. */
+    private final Map<Vertex, Crossing> crossings;
+
+    /** A map from each vertex in the input graph to the corresponding vertex in the output graph. */
+    private final Map<Vertex, Vertex> vertexToGraphVertex;
+
+    /**
+     * A map from each vertex in the output graph that has a corresponding vertex in the input graph to the
+     * corresponding vertex.
+     */
+    private final Map<Vertex, Vertex> graphVertexToVertex;
+
+    /**
+     * A map from each vertex V in the input graph to a map from each adjacent vertex W to the first vertex in the path
+     * in the output graph corresponding to the edge from V to W after the vertex corresponding to V.
+     */
+    private final Map<Vertex, Map<Vertex, Vertex>> replacements;
+
+    /** A map from each key of "replacements" to the inverse of the associated value in "replacements". */
+    private final Map<Vertex, Map<Vertex, Vertex>> replacementsInverse;
+
+    /** A map from each constrained vertex in the input graph to the root node of its constraint tree. */
+    private final Map<Vertex, EcNode> constraints;
+
+    /**
+     * A map from each constrained vertex in the output graph to the root node of its constraint tree, excluding the
+     * crossing vertices, as in the graphConstraints argument to EcPlanarEmbeddingWithCrossings.addCrossings.
+     */
+    private final Map<Vertex, EcNode> graphConstraints;
+
+    /** The vertices of the output graph as of the last call to "save", in order. */
+    private List<Vertex> savedVertices;
+
+    /** A map from each vertex in savedVertices to its adjacent vertices as of the last call to "save", in order. */
+    private Map<Vertex, List<Vertex>> savedEdges;
+
+    /** A copy of "crossings" as of the last call to "save", including copies of the Crossing objects. */
+    private Map<Vertex, Crossing> savedCrossings;
+
+    /** A copy of "replacements" as of the last call to "save". */
+    private Map<Vertex, Map<Vertex, Vertex>> savedReplacements;
+
+    /** A copy of replacementsInverse as of the last call to "save". */
+    private Map<Vertex, Map<Vertex, Vertex>> savedReplacementsInverse;
+
+    /** A copy of graphConstraints as of the last call to "save". */
+    private Map<Vertex, EcNode> savedGraphConstraints;
+
+    public CrossingReinsertion(
+            Graph graph, InsertionMode mode, Map<Vertex, Crossing> crossings, Map<Vertex, Vertex> vertexToGraphVertex,
+            Map<Vertex, Vertex> graphVertexToVertex, Map<Vertex, Map<Vertex, Vertex>> replacements,
+            Map<Vertex, Map<Vertex, Vertex>> replacementsInverse, Map<Vertex, EcNode> constraints,
+            Map<Vertex, EcNode> graphConstraints) {
+        this.graph = graph;
+        this.mode = mode;
+        this.crossings = crossings;
+        this.vertexToGraphVertex = vertexToGraphVertex;
+        this.graphVertexToVertex = graphVertexToVertex;
+        this.replacements = replacements;
+        this.replacementsInverse = replacementsInverse;
+        this.constraints = constraints;
+        this.graphConstraints = graphConstraints;
+    }
+
+    /** Returns a deep copy of the specified map of maps. */
+    private static Map<Vertex, Map<Vertex, Vertex>> copy(Map<Vertex, Map<Vertex, Vertex>> map) {
+        Map<Vertex, Map<Vertex, Vertex>> copy = new HashMap<Vertex, Map<Vertex, Vertex>>();
+        for (Entry<Vertex, Map<Vertex, Vertex>> entry : map.entrySet()) {
+            copy.put(entry.getKey(), new HashMap<Vertex, Vertex>(entry.getValue()));
+        }
+        return copy;
+    }
+
+    /** Saves a copy of the output graph and the bookkeeping, so that we may restore it using "restore". */
+    private void save() {
+        savedVertices = new ArrayList<Vertex>(graph.vertices);
+        savedEdges = new HashMap<Vertex, List<Vertex>>();
+        for (Vertex vertex : savedVertices) {
+            savedEdges.put(vertex, new ArrayList<Vertex>(vertex.edges));
+        }
+        savedCrossings = new HashMap<Vertex, Crossing>();
+        for (Entry<Vertex, Crossing> entry : crossings.entrySet()) {
+            Crossing crossing = entry.getValue();
+            savedCrossings.put(
+                entry.getKey(), new Crossing(crossing.start1, crossing.end1, crossing.start2, crossing.end2));
+        }
+        savedReplacements = copy(replacements);
+        savedReplacementsInverse = copy(replacementsInverse);
+        savedGraphConstraints = new HashMap<Vertex, EcNode>(graphConstraints);
+    }
+
+    /** Restores the output graph and the bookkeeping to their state as of the last call to "save". */
+    private void restore() {
+        graph.vertices.clear();
+        graph.vertices.addAll(savedVertices);
+        for (Vertex vertex : savedVertices) {
+            vertex.edges.clear();
+            vertex.edges.addAll(savedEdges.get(vertex));
+        }
+        crossings.clear();
+        crossings.putAll(savedCrossings);
+        replacements.clear();
+        replacements.putAll(savedReplacements);
+        replacementsInverse.clear();
+        replacementsInverse.putAll(savedReplacementsInverse);
+        graphConstraints.clear();
+        graphConstraints.putAll(savedGraphConstraints);
+    }
+
+    /**
+     * Updates the bookkeeping to reflect the fact that the vertex adjacent to the specified output graph vertex along
+     * one of the paths through it changed from oldAdjVertex to newAdjVertex.  This assumes that we have already made
+     * the change to the output graph.
+     */
+    private void replaceAdjVertex(Vertex vertex, Vertex oldAdjVertex, Vertex newAdjVertex) {
+        Crossing crossing = crossings.get(vertex);
+        if (crossing != null) {
+            if (crossing.start1 == oldAdjVertex) {
+                crossing.start1 = newAdjVertex;
+            } else if (crossing.end1 == oldAdjVertex) {
+                crossing.end1 = newAdjVertex;
+            } else if (crossing.start2 == oldAdjVertex) {
+                crossing.start2 = newAdjVertex;
+            } else {
+                crossing.end2 = newAdjVertex;
+            }
+        } else {
+            Vertex inputVertex = graphVertexToVertex.get(vertex);
+            if (inputVertex != null) {
+                Map<Vertex, Vertex> vertexReplacements = replacements.get(inputVertex);
+                Map<Vertex, Vertex> vertexReplacementsInverse = replacementsInverse.get(inputVertex);
+                Vertex inputAdjVertex = vertexReplacementsInverse.remove(oldAdjVertex);
+                vertexReplacements.put(inputAdjVertex, newAdjVertex);
+                vertexReplacementsInverse.put(newAdjVertex, inputAdjVertex);
+                EcPlanarEmbeddingWithCrossings.replaceVertices(
+                    vertex, constraints.get(inputVertex), graphConstraints, vertexReplacements);
+            }
+        }
+    }
+
+    /**
+     * Returns the path in the output graph corresponding to the edge from inputVertex1 to inputVertex2 in the input
+     * graph, starting with the vertex corresponding to inputVertex1.
+     */
+    private List<Vertex> path(Vertex inputVertex1, Vertex inputVertex2) {
+        return EcPlanarEmbeddingWithCrossings.crossingPath(
+            vertexToGraphVertex.get(inputVertex1), replacements.get(inputVertex1).get(inputVertex2), crossings,
+            graphVertexToVertex.keySet(), new HashSet<Vertex>(), new HashSet<Vertex>());
+    }
+
+    /** Returns the number of crossing vertices in the specified path in the output graph. */
+    private int crossingCount(List<Vertex> path) {
+        int count = 0;
+        for (Vertex vertex : path) {
+            if (crossings.containsKey(vertex)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Removes the unnecessary non-crossing added vertices from the specified path in the output graph, which
+     * corresponds to an edge in the input graph.
+     */
+    private void removeNonCrossingVertices(List<Vertex> path) {
+        int startIndex = 0;
+        for (int i = 1; i < path.size(); i++) {
+            if (i < path.size() - 1 && !crossings.containsKey(path.get(i))) {
+                continue;
+            }
+
+            // Remove the non-crossing added vertices between path.get(startIndex) and path.get(i)
+            if (i - startIndex >= 2) {
+                Vertex start = path.get(startIndex);
+                Vertex end = path.get(i);
+                Vertex first = path.get(startIndex + 1);
+                Vertex last = path.get(i - 1);
+                start.removeEdge(first);
+                end.removeEdge(last);
+                for (int j = startIndex + 1; j < i - 1; j++) {
+                    path.get(j).removeEdge(path.get(j + 1));
+                }
+                for (int j = startIndex + 2; j < i; j++) {
+                    graph.vertices.remove(path.get(j));
+                }
+
+                if (start.edges.contains(end)) {
+                    // Keep one non-crossing vertex, in order to avoid multiple edges between "start" and "end"
+                    start.addEdge(first);
+                    first.addEdge(end);
+                    replaceAdjVertex(end, last, first);
+                } else {
+                    graph.vertices.remove(first);
+                    start.addEdge(end);
+                    replaceAdjVertex(start, first, end);
+                    replaceAdjVertex(end, last, start);
+                }
+            }
+            startIndex = i;
+        }
+    }
+
+    /**
+     * Removes the path in the output graph corresponding to the edge from inputVertex1 to inputVertex2 in the input
+     * graph, along with any crossings on the path.  This does not remove the vertices corresponding to inputVertex1
+     * and inputVertex2.
+     */
+    private void removeEdge(Vertex inputVertex1, Vertex inputVertex2) {
+        List<Vertex> path = path(inputVertex1, inputVertex2);
+        Vertex vertex1 = path.get(0);
+        Vertex vertex2 = path.get(path.size() - 1);
+        replacementsInverse.get(inputVertex1).remove(replacements.get(inputVertex1).remove(inputVertex2));
+        replacementsInverse.get(inputVertex2).remove(replacements.get(inputVertex2).remove(inputVertex1));
+        EcPlanarEmbeddingWithCrossings.replaceVertices(
+            vertex1, constraints.get(inputVertex1), graphConstraints, replacements.get(inputVertex1));
+        EcPlanarEmbeddingWithCrossings.replaceVertices(
+            vertex2, constraints.get(inputVertex2), graphConstraints, replacements.get(inputVertex2));
+
+        // Remove the vertices in the path, and turn the crossing vertices into non-crossing vertices of the other paths
+        List<Vertex> formerCrossingVertices = new ArrayList<Vertex>();
+        for (int i = 0; i < path.size() - 1; i++) {
+            path.get(i).removeEdge(path.get(i + 1));
+        }
+        for (Vertex vertex : path.subList(1, path.size() - 1)) {
+            if (crossings.remove(vertex) != null) {
+                formerCrossingVertices.add(vertex);
+            } else {
+                graph.vertices.remove(vertex);
+            }
+        }
+
+        // Remove the unnecessary non-crossing vertices from the other paths
+        Set<Vertex> nonAddedVertices = graphVertexToVertex.keySet();
+        for (Vertex vertex : formerCrossingVertices) {
+            if (graph.vertices.contains(vertex)) {
+                List<Vertex> otherPath = new ArrayList<Vertex>(vertex.edges);
+                Set<Vertex> visited = new HashSet<Vertex>();
+                List<Vertex> path1 = EcPlanarEmbeddingWithCrossings.crossingPath(
+                    vertex, otherPath.get(0), crossings, nonAddedVertices, visited, visited);
+                List<Vertex> path2 = EcPlanarEmbeddingWithCrossings.crossingPath(
+                    vertex, otherPath.get(1), crossings, nonAddedVertices, visited, visited);
+                Collections.reverse(path1);
+                otherPath = new ArrayList<Vertex>(path1);
+                otherPath.addAll(path2.subList(1, path2.size()));
+                removeNonCrossingVertices(otherPath);
+            }
+        }
+    }
+
+    /**
+     * Adds a path in the output graph corresponding to the edge from inputVertex1 to inputVertex2 in the input graph,
+     * which is not currently present.  Returns false if we were unable to do so, in which case the output graph and
+     * the bookkeeping may be in an inconsistent state.
+     */
+    private boolean addEdge(Vertex inputVertex1, Vertex inputVertex2) {
+        Vertex vertex1 = vertexToGraphVertex.get(inputVertex1);
+        Vertex vertex2 = vertexToGraphVertex.get(inputVertex2);
+        Map<Vertex, Vertex> replacements1 = replacements.get(inputVertex1);
+        Map<Vertex, Vertex> replacements2 = replacements.get(inputVertex2);
+
+        // Check whether we can add the edge without crossings
+        vertex1.addEdge(vertex2);
+        replacements1.put(inputVertex2, vertex2);
+        replacementsInverse.get(inputVertex1).put(vertex2, inputVertex2);
+        replacements2.put(inputVertex1, vertex1);
+        replacementsInverse.get(inputVertex2).put(vertex1, inputVertex1);
+        EcPlanarEmbeddingWithCrossings.replaceVertices(
+            vertex1, constraints.get(inputVertex1), graphConstraints, replacements1);
+        EcPlanarEmbeddingWithCrossings.replaceVertices(
+            vertex2, constraints.get(inputVertex2), graphConstraints, replacements2);
+        if (isEcPlanar()) {
+            return true;
+        }
+        vertex1.removeEdge(vertex2);
+        replacementsInverse.get(inputVertex1).remove(replacements1.remove(inputVertex2));
+        replacementsInverse.get(inputVertex2).remove(replacements2.remove(inputVertex1));
+        EcPlanarEmbeddingWithCrossings.replaceVertices(
+            vertex1, constraints.get(inputVertex1), graphConstraints, replacements1);
+        EcPlanarEmbeddingWithCrossings.replaceVertices(
+            vertex2, constraints.get(inputVertex2), graphConstraints, replacements2);
+
+        UnorderedPair<Vertex> edge = new UnorderedPair<Vertex>(vertex1, vertex2);
+        if (mode == InsertionMode.FIXED_EMBEDDING) {
+            // addCrossings routes the path through the faces of one ec-planar embedding of the output graph, but the
+            // constraints at the crossing vertices and at the edge's endpoints might not be satisfiable together, so we
+            // must check whether the result is valid
+            return EcPlanarEmbeddingWithCrossings.addCrossings(
+                    graph, Collections.singleton(edge), crossings, graphVertexToVertex, replacements,
+                    replacementsInverse, constraints, graphConstraints, null) &&
+                isEcPlanar();
+        } else {
+            // The path might violate an EcNode.Type.ORIENTED constraint, so we must check whether it is valid
+            return EcPlanarEmbeddingWithCrossings.addCrossEdgeWithVariableEmbedding(
+                    edge, graph, crossings, graphVertexToVertex, replacements, replacementsInverse, constraints,
+                    graphConstraints) &&
+                isEcPlanar();
+        }
+    }
+
+    /** Returns whether the output graph has an ec-planar embedding that respects the crossings. */
+    private boolean isEcPlanar() {
+        Map<Vertex, EcNode> allConstraints = new HashMap<Vertex, EcNode>(graphConstraints);
+        EcPlanarEmbeddingWithCrossings.addCrossingConstraints(crossings, allConstraints);
+        return EcPlanarEmbedding.embed(graph.vertices.iterator().next(), allConstraints) != null;
+    }
+
+    /**
+     * Removes the path for the edge from inputVertex1 to inputVertex2 in the input graph and adds it again.  If this
+     * does not reduce the total number of crossings, we restore the original path.  Returns whether we reduced the
+     * number of crossings.
+     */
+    private boolean reinsertEdge(Vertex inputVertex1, Vertex inputVertex2) {
+        int crossingCount = crossings.size();
+        save();
+        removeEdge(inputVertex1, inputVertex2);
+
+        // If the edge is a bridge, removing it disconnects the output graph.  None of our insertion techniques support
+        // disconnected graphs.
+        boolean success;
+        if (EcPlanarEmbedding.component(vertexToGraphVertex.get(inputVertex1)).size() < graph.vertices.size()) {
+            success = false;
+        } else {
+            success = addEdge(inputVertex1, inputVertex2) && crossings.size() < crossingCount;
+        }
+        if (!success) {
+            restore();
+        }
+        return success;
+    }
+
+    /**
+     * Repeatedly removes and adds again each edge in the input graph whose path in the output graph has crossings,
+     * keeping the new path whenever this reduces the number of crossings.
+     * @param maxPasses The maximum number of passes over the edges to perform.  We stop early if a pass does not
+     *     reduce the number of crossings.
+     */
+    public void reinsertEdges(int maxPasses) {
+        for (int pass = 0; pass < maxPasses && !crossings.isEmpty(); pass++) {
+            // Compute the edges that have crossings
+            Set<UnorderedPair<Vertex>> edges = new LinkedHashSet<UnorderedPair<Vertex>>();
+            for (Vertex vertex : vertexToGraphVertex.keySet()) {
+                for (Vertex adjVertex : replacements.get(vertex).keySet()) {
+                    UnorderedPair<Vertex> edge = new UnorderedPair<Vertex>(vertex, adjVertex);
+                    if (!edges.contains(edge) && crossingCount(path(vertex, adjVertex)) > 0) {
+                        edges.add(edge);
+                    }
+                }
+            }
+
+            boolean improved = false;
+            for (UnorderedPair<Vertex> edge : edges) {
+                if (crossingCount(path(edge.value1, edge.value2)) > 0 && reinsertEdge(edge.value1, edge.value2)) {
+                    improved = true;
+                }
+            }
+            if (!improved) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.github.btrekkie.graph.ec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.btrekkie.graph.dual.DynamicDualGraph;
+
+/**
+ * Finds shortest paths between sets of faces in the dual graph of a DynamicDualGraph.  A DualPathFinder is intended
+ * for repeated calls to findPath on a single DynamicDualGraph that changes between the calls, as in
+ * EcPlanarEmbeddingWithCrossings.addCrossings.
+ */
+/* findPath performs a bidirectional breadth-first search, alternately expanding one level of the search from the
+ * starting faces and one level of the search from the ending faces, whichever has the smaller frontier.  We stop at
+ * the first half-edge we encounter between a face reached from the starting faces and a face reached from the ending
+ * faces.  This results in a shortest path.  Say that before we expand a level, the search from the starting faces has
+ * reached every face within distance k of them, and the search from the ending faces has reached every face within
+ * distance j of them.  These sets are disjoint, so any path has length at least k + j + 1.  Each face in the level is
+ * at distance k, so the half-edge we encounter gives a path of length at most k + j + 1.
+ *
+ * To avoid allocating per-call maps, we store the search state in arrays indexed by face number, which we reuse
+ * between calls.  Rather than clearing the arrays at the beginning of each call, we stamp each visited face with the
+ * current value of "epoch" or epoch + 1, and we treat any other stamp as unvisited.  The stamps are longs, so they do
+ * not overflow in any realistic number of calls.
+ */
+class DualPathFinder {
+    /** The initial capacity of the arrays indexed by face number. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The stamp for faces that the current search reached from the starting faces. */
+    private long epoch;
+
+    /**
+     * The stamps of the faces, indexed by face number.  A face was reached from the starting faces in the current
+     * search if its stamp is "epoch", and from the ending faces if it is epoch + 1.
+     */
+    private long[] stamps = new long[INITIAL_CAPACITY];
+
+    /**
+     * The half-edges by which the current search reached the faces, indexed by face number, or -1 for the starting and
+     * ending faces.  For a face F reached from the starting faces, this is a half-edge from the previous face on a
+     * shortest path from the starting faces to F, whose twin is in F.  For a face reached from the ending faces, this
+     * is a half-edge in F whose twin is in the next face on a shortest path from F to the ending faces.
+     */
+    private int[] predecessors = new int[INITIAL_CAPACITY];
+
+    /** The faces reached by the current search from the starting faces, in the order in which we reached them. */
+    private int[] startQueue = new int[INITIAL_CAPACITY];
+
+    /** The faces reached by the current search from the ending faces, in the order in which we reached them. */
+    private int[] endQueue = new int[INITIAL_CAPACITY];
+
+    /** Ensures that the arrays indexed by face number can store entries for all of the faces in "dual". */
+    private void ensureCapacity(DynamicDualGraph dual) {
+        int limit = dual.faceNumberLimit();
+        if (limit > stamps.length) {
+            int capacity = Math.max(2 * stamps.length, limit);
+            stamps = Arrays.copyOf(stamps, capacity);
+            predecessors = new int[capacity];
+            startQueue = new int[capacity];
+            endQueue = new int[capacity];
+        }
+    }
+
+    /**
+     * Returns a shortest path in the dual graph of "dual" from a face in "starts" to a face in "ends", if any.  Assumes
+     * that "starts" and "ends" are disjoint.
+     * @param dual The graph.
+     * @param starts The numbers of the starting faces.
+     * @param ends The numbers of the ending faces.
+     * @return The half-edges whose dual edges make up the path, in order, or null if there is no such path.  The face
+     *     of the first half-edge is in "starts", the face of the twin of each half-edge is the face of the next
+     *     half-edge, and the face of the twin of the last half-edge is in "ends".
+     */
+    List<Integer> findPath(DynamicDualGraph dual, Collection<Integer> starts, Collection<Integer> ends) {
+        ensureCapacity(dual);
+        epoch += 2;
+        long startStamp = epoch;
+        long endStamp = epoch + 1;
+
+        int startSize = 0;
+        for (int face : starts) {
+            stamps[face] = startStamp;
+            predecessors[face] = -1;
+            startQueue[startSize] = face;
+            startSize++;
+        }
+        int endSize = 0;
+        for (int face : ends) {
+            if (stamps[face] != startStamp) {
+                stamps[face] = endStamp;
+                predecessors[face] = -1;
+                endQueue[endSize] = face;
+                endSize++;
+            }
+        }
+
+        // Expand the levels of the search.  We represent the path we find using the half-edge pathEdge at which the two
+        // searches meet, whose face was reached from the starting faces and whose twin's face was reached from the
+        // ending faces.
+        int pathEdge = -1;
+        int startLevelIndex = 0;
+        int endLevelIndex = 0;
+        while (pathEdge < 0 && startLevelIndex < startSize && endLevelIndex < endSize) {
+            if (startSize - startLevelIndex <= endSize - endLevelIndex) {
+                int levelEndIndex = startSize;
+                for (int i = startLevelIndex; i < levelEndIndex && pathEdge < 0; i++) {
+                    int startEdge = dual.faceHalfEdge(startQueue[i]);
+                    int halfEdge = startEdge;
+                    do {
+                        int adjFace = dual.face(dual.twin(halfEdge));
+                        long stamp = stamps[adjFace];
+                        if (stamp == endStamp) {
+                            pathEdge = halfEdge;
+                            break;
+                        } else if (stamp != startStamp) {
+                            stamps[adjFace] = startStamp;
+                            predecessors[adjFace] = halfEdge;
+                            startQueue[startSize] = adjFace;
+                            startSize++;
+                        }
+                        halfEdge = dual.nextOnFace(halfEdge);
+                    } while (halfEdge != startEdge);
+                }
+                startLevelIndex = levelEndIndex;
+            } else {
+                int levelEndIndex = endSize;
+                for (int i = endLevelIndex; i < levelEndIndex && pathEdge < 0; i++) {
+                    int startEdge = dual.faceHalfEdge(endQueue[i]);
+                    int halfEdge = startEdge;
+                    do {
+                        int twin = dual.twin(halfEdge);
+                        int adjFace = dual.face(twin);
+                        long stamp = stamps[adjFace];
+                        if (stamp == startStamp) {
+                            pathEdge = twin;
+                            break;
+                        } else if (stamp != endStamp) {
+                            stamps[adjFace] = endStamp;
+                            predecessors[adjFace] = twin;
+                            endQueue[endSize] = adjFace;
+                            endSize++;
+                        }
+                        halfEdge = dual.nextOnFace(halfEdge);
+                    } while (halfEdge != startEdge);
+                }
+                endLevelIndex = levelEndIndex;
+            }
+        }
+
+        if (pathEdge < 0) {
+            return null;
+        }
+
+        // Use "predecessors" to determine the half-edges in the path
+        List<Integer> path = new ArrayList<Integer>();
+        for (int halfEdge = predecessors[dual.face(pathEdge)]; halfEdge >= 0;
+                halfEdge = predecessors[dual.face(halfEdge)]) {
+            path.add(halfEdge);
+        }
+        Collections.reverse(path);
+        path.add(pathEdge);
+        for (int halfEdge = predecessors[dual.face(dual.twin(pathEdge))]; halfEdge >= 0;
+                halfEdge = predecessors[dual.face(dual.twin(halfEdge))]) {
+            path.add(halfEdge);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,202 @@
+package com.github.btrekkie.graph.ec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
+import com.github.btrekkie.util.UnorderedPair;
+
+/**
+ * Computes ec-planar embeddings, as in EcPlanarEmbedding.embed, for a graph that changes slowly between queries.  An
+ * EcEmbeddingContext caches the portion of the ec-expansion graph for each vertex it has embedded, so that a query
+ * only needs to expand the vertices whose edges or constraint trees changed since the previous query.  A vertex's
+ * constraint tree is identified by the identity of its root node, so to change a constraint, the caller must replace
+ * its root node with a new EcNode, rather than modifying the existing tree.
+ */
+/* For each vertex V, we store a VertexExpansion consisting of the wheel gadgets and other ec-expansion vertices for V,
+ * along with the constraint tree and the set of adjacent vertices we used to compute it.  In addition, we store the
+ * union of the maps for all of the VertexExpansions, in the form that EcPlanarEmbedding.embed and
+ * EcPlanarEmbedding.contractEmbedding expect, and the ec-expansion edge for each edge in the non-expanded graph.
+ *
+ * To embed a connected component, we identify the "dirty" vertices: those whose constraint or adjacent vertices differ
+ * from their VertexExpansions.  Adding or removing an edge makes both of its endpoints dirty.  We remove the
+ * VertexExpansions of the dirty vertices, along with their ec-expansion edges, and then we recompute them and add the
+ * ec-expansion edges for their current edges.  The VertexExpansions for vertices that are no longer in the component
+ * remain in the cache, but they are disconnected from the component's portion of the ec-expansion graph.
+ *
+ * When we embed the ec-expansion graph, we start with the blocks that contain the expansions of the dirty vertices.
+ * If the component was ec-planar as of the previous query, then the other blocks are unchanged and still have
+ * ec-planar embeddings, so if the graph is not ec-planar, one of these blocks is at fault.  This way, a query that
+ * fails after a small change, such as the addition of an edge, does not have to embed the rest of the blocks or
+ * contract the embedding.
+ */
+public class EcEmbeddingContext {
+    /** A map from each vertex we have expanded to its VertexExpansion. */
+    private Map<Vertex, VertexExpansion> expansions = new HashMap<Vertex, VertexExpansion>();
+
+    /**
+     * A map from each vertex V we have expanded to a map from each adjacent vertex W to the vertex in the ec-expansion
+     * corresponding to the start of the edge from V to W.
+     */
+    private Map<Vertex, Map<Vertex, Vertex>> edgeToExpansionEndpoint = new HashMap<Vertex, Map<Vertex, Vertex>>();
+
+    /** The hub vertices of all wheel gadgets in the ec-expansion graph. */
+    private Set<Vertex> hubs = new HashSet<Vertex>();
+
+    /** The union of VertexExpansion.oHubFirsts for all VertexExpansions. */
+    private Map<Vertex, Vertex> oHubFirsts = new HashMap<Vertex, Vertex>();
+
+    /** The union of VertexExpansion.oHubSeconds for all VertexExpansions. */
+    private Map<Vertex, Vertex> oHubSeconds = new HashMap<Vertex, Vertex>();
+
+    /** The union of VertexExpansion.constraintVertices for all VertexExpansions. */
+    private Map<EcNode, Vertex> constraintVertices = new HashMap<EcNode, Vertex>();
+
+    /** The union of VertexExpansion.constraintStarts for all VertexExpansions. */
+    private Map<EcNode, Vertex> constraintStarts = new HashMap<EcNode, Vertex>();
+
+    /** The union of VertexExpansion.constraintOrder for all VertexExpansions. */
+    private Map<EcNode, List<Vertex>> constraintOrder = new HashMap<EcNode, List<Vertex>>();
+
+    /**
+     * A map from each edge in the ec-expansion graph that corresponds to an edge in the non-expanded graph to the
+     * corresponding edge.  We represent each edge as a pair of its endpoints.
+     */
+    private Map<UnorderedPair<Vertex>, UnorderedPair<Vertex>> expansionEdgeToEdge =
+        new HashMap<UnorderedPair<Vertex>, UnorderedPair<Vertex>>();
+
+    /** The inverse of expansionEdgeToEdge. */
+    private Map<UnorderedPair<Vertex>, UnorderedPair<Vertex>> edgeToExpansionEdge =
+        new HashMap<UnorderedPair<Vertex>, UnorderedPair<Vertex>>();
+
+    /** Removes the VertexExpansion for the specified vertex, if any, along with its ec-expansion edges. */
+    private void removeExpansion(Vertex vertex) {
+        VertexExpansion expansion = expansions.remove(vertex);
+        if (expansion == null) {
+            return;
+        }
+        for (Vertex adjVertex : expansion.adjVertices) {
+            UnorderedPair<Vertex> edge = new UnorderedPair<Vertex>(vertex, adjVertex);
+            UnorderedPair<Vertex> expansionEdge = edgeToExpansionEdge.remove(edge);
+            if (expansionEdge != null) {
+                expansionEdge.value1.removeEdge(expansionEdge.value2);
+                expansionEdgeToEdge.remove(expansionEdge);
+            }
+        }
+        edgeToExpansionEndpoint.remove(vertex);
+        hubs.removeAll(expansion.hubs);
+        oHubFirsts.keySet().removeAll(expansion.oHubFirsts.keySet());
+        oHubSeconds.keySet().removeAll(expansion.oHubSeconds.keySet());
+        constraintVertices.keySet().removeAll(expansion.constraintVertices.keySet());
+        constraintStarts.keySet().removeAll(expansion.constraintStarts.keySet());
+        constraintOrder.keySet().removeAll(expansion.constraintOrder.keySet());
+    }
+
+    /** Computes and stores the VertexExpansion for the specified vertex, excluding its ec-expansion edges. */
+    private void addExpansion(Vertex vertex, EcNode constraint) {
+        VertexExpansion expansion = new VertexExpansion(vertex, constraint);
+        expansions.put(vertex, expansion);
+        edgeToExpansionEndpoint.put(vertex, expansion.endToExpansionEndpoint);
+        hubs.addAll(expansion.hubs);
+        oHubFirsts.putAll(expansion.oHubFirsts);
+        oHubSeconds.putAll(expansion.oHubSeconds);
+        constraintVertices.putAll(expansion.constraintVertices);
+        constraintStarts.putAll(expansion.constraintStarts);
+        constraintOrder.putAll(expansion.constraintOrder);
+    }
+
+    /**
+     * Adds the ec-expansion edge for the edge from "vertex" to adjVertex, if we have not done so already.  Assumes
+     * that both vertices have up-to-date VertexExpansions.
+     */
+    private void addExpansionEdge(Vertex vertex, Vertex adjVertex) {
+        UnorderedPair<Vertex> edge = new UnorderedPair<Vertex>(vertex, adjVertex);
+        if (!edgeToExpansionEdge.containsKey(edge)) {
+            Vertex expansionVertex = edgeToExpansionEndpoint.get(vertex).get(adjVertex);
+            Vertex adjExpansionVertex = edgeToExpansionEndpoint.get(adjVertex).get(vertex);
+            expansionVertex.addEdge(adjExpansionVertex);
+            UnorderedPair<Vertex> expansionEdge = new UnorderedPair<Vertex>(expansionVertex, adjExpansionVertex);
+            edgeToExpansionEdge.put(edge, expansionEdge);
+            expansionEdgeToEdge.put(expansionEdge, edge);
+        }
+    }
+
+    /**
+     * Returns an ec-planar embedding of the connected component containing "start", or null if there is no ec-planar
+     * embedding.  This is equivalent to EcPlanarEmbedding.embed(start, constraints), except that it only validates
+     * the constraints of the vertices whose constraints or edges changed since the last call.
+     * @param start The vertex.
+     * @param constraints A map from each constrained vertex to the root node of its constraint tree.  It is okay for a
+     *     vertex not to have a constraint tree.
+     * @return The ec-planar embedding.
+     */
+    public PlanarEmbedding embed(Vertex start, Map<Vertex, EcNode> constraints) {
+        if (start.edges.isEmpty()) {
+            EcPlanarEmbedding.assertValid(Collections.singletonMap(start, constraints.get(start)));
+            return PlanarEmbedding.createTrusted(
+                Collections.singletonMap(start, Collections.<Vertex>emptyList()), Collections.singletonList(start));
+        }
+
+        // Find the dirty vertices
+        Collection<Vertex> component = EcPlanarEmbedding.component(start);
+        List<Vertex> dirtyVertices = new ArrayList<Vertex>();
+        for (Vertex vertex : component) {
+            VertexExpansion expansion = expansions.get(vertex);
+            if (expansion == null || expansion.constraint != constraints.get(vertex) ||
+                    !expansion.adjVertices.equals(vertex.edges)) {
+                EcPlanarEmbedding.assertValid(Collections.singletonMap(vertex, constraints.get(vertex)));
+                dirtyVertices.add(vertex);
+            }
+        }
+
+        // Re-expand the dirty vertices
+        for (Vertex vertex : dirtyVertices) {
+            removeExpansion(vertex);
+        }
+        for (Vertex vertex : dirtyVertices) {
+            addExpansion(vertex, constraints.get(vertex));
+        }
+        for (Vertex vertex : dirtyVertices) {
+            for (Vertex adjVertex : vertex.edges) {
+                addExpansionEdge(vertex, adjVertex);
+            }
+        }
+
+        // Compute the ec-planar embedding, starting with the blocks that contain the dirty vertices' expansions
+        Set<Vertex> changedExpansionVertices = new HashSet<Vertex>();
+        for (Vertex vertex : dirtyVertices) {
+            changedExpansionVertices.addAll(expansions.get(vertex).graph.vertices);
+        }
+        Vertex expansionStart = expansions.get(start).graph.vertices.iterator().next();
+        PlanarEmbedding expansionEmbedding = EcPlanarEmbedding.embed(
+            expansionStart, changedExpansionVertices, hubs, oHubFirsts, oHubSeconds);
+        if (expansionEmbedding == null) {
+            return null;
+        } else {
+            return EcPlanarEmbedding.contractEmbedding(
+                expansionEmbedding, start, constraints, edgeToExpansionEndpoint, expansionEdgeToEdge,
+                constraintVertices, constraintStarts, constraintOrder);
+        }
+    }
+
+    /** Discards all of the cached ec-expansion data, so that the next call to "embed" expands every vertex. */
+    public void clear() {
+        expansions.clear();
+        edgeToExpansionEndpoint.clear();
+        hubs.clear();
+        oHubFirsts.clear();
+        oHubSeconds.clear();
+        constraintVertices.clear();
+        constraintStarts.clear();
+        constraintOrder.clear();
+        expansionEdgeToEdge.clear();
+        edgeToExpansionEdge.clear();
+    }
+}
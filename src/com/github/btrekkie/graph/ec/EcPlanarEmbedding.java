@@ -22,6 +22,7 @@ import com.github.btrekkie.graph.bc.CutNode;
 import com.github.btrekkie.graph.ec.EcNode.Type;
 import com.github.btrekkie.graph.planar.PlanarEmbedding;
 import com.github.btrekkie.graph.spqr.SpqrNode;
+import com.github.btrekkie.graph.spqr.SpqrTree;
 import com.github.btrekkie.util.UnorderedPair;
 
 /** Computes ec-planar embeddings: PlanarEmbeddings satisfying constraints specified by EcNodes. */
@@ -119,7 +120,7 @@ public class EcPlanarEmbedding {
      *     ending at such a spoke.  This gives the child the ec-embedding orders second.  Likewise for the third and
      *     fourth children.
      */
-    private static void expand(
+    static void expand(
             Graph expansion, Vertex start, Vertex input, EcNode node,
             Map<Vertex, Vertex> endToExpansionEndpoint, Set<Vertex> hubs,
             Map<Vertex, Vertex> oHubFirsts, Map<Vertex, Vertex> oHubSeconds, Map<EcNode, Vertex> constraintVertices,
@@ -223,7 +224,7 @@ public class EcPlanarEmbedding {
     }
 
     /** Returns the vertices in the connected component containing "start". */
-    private static Collection<Vertex> component(Vertex start) {
+    static Collection<Vertex> component(Vertex start) {
         // Use breadth-first search
         Set<Vertex> component = new LinkedHashSet<Vertex>();
         component.add(start);
@@ -304,7 +305,7 @@ public class EcPlanarEmbedding {
         for (Vertex graphVertex : embedding.externalFace) {
             externalFace.add(skeletonVertexToVertex.get(vertexToMultiVertex.get(graphVertex)));
         }
-        embedding = PlanarEmbedding.createPartial(clockwiseOrder, externalFace);
+        embedding = PlanarEmbedding.createTrusted(clockwiseOrder, externalFace);
 
         // Flip the embedding as necessary to correctly orient the O-hubs
         boolean canBeNonFlipped = true;
@@ -357,17 +358,21 @@ public class EcPlanarEmbedding {
     /**
      * Returns the HalfEdges for the skeleton of the specified node of type SpqrNode.Type.P.  This does not set the
      * virtualMatch fields.
+     * @param tree The SPQR tree.
+     * @param node The node in "tree".
+     * @return The HalfEdges.
      */
-    private static Collection<HalfEdge> createPHalfEdges(SpqrNode node) {
-        Iterator<MultiVertex> vertexIterator = node.skeleton.vertices.iterator();
-        Vertex vertex1 = node.skeletonVertexToVertex.get(vertexIterator.next());
-        Vertex vertex2 = node.skeletonVertexToVertex.get(vertexIterator.next());
-        int edgeCount = node.skeleton.vertices.iterator().next().edges.size();
+    private static Collection<HalfEdge> createPHalfEdges(SpqrTree tree, int node) {
+        int firstEdge = tree.edgeOffset(node);
+        Vertex vertex1 = tree.vertex(tree.edgeVertex1(firstEdge));
+        Vertex vertex2 = tree.vertex(tree.edgeVertex2(firstEdge));
+        int edgeCount = tree.edgeCount(node);
+        boolean isVirtual = !tree.hasRealEdge(node);
         Collection<HalfEdge> halfEdges = new ArrayList<HalfEdge>(2 * edgeCount);
 
         // Create the first two HalfEdges
-        HalfEdge firstHalfEdge = new HalfEdge(vertex1, node.realEdges.isEmpty());
-        HalfEdge firstTwinEdge = new HalfEdge(vertex2, node.realEdges.isEmpty());
+        HalfEdge firstHalfEdge = new HalfEdge(vertex1, isVirtual);
+        HalfEdge firstTwinEdge = new HalfEdge(vertex2, isVirtual);
         firstHalfEdge.twinEdge = firstTwinEdge;
         firstTwinEdge.twinEdge = firstHalfEdge;
         halfEdges.add(firstHalfEdge);
@@ -400,12 +405,12 @@ public class EcPlanarEmbedding {
             halfEdge = halfEdge.nextClockwise;
         }
 
-        // Set the nextOnExternalFace links
+        // Set the nextOnFace links
         halfEdge = firstHalfEdge;
         for (int i = 0; i < edgeCount; i++) {
             HalfEdge next = halfEdge.twinEdge.nextClockwise;
-            halfEdge.nextOnExternalFace = next;
-            next.nextOnExternalFace = halfEdge;
+            halfEdge.nextOnFace = next;
+            next.nextOnFace = halfEdge;
             halfEdge = halfEdge.nextClockwise;
         }
         return halfEdges;
@@ -479,7 +484,7 @@ public class EcPlanarEmbedding {
                 vertex = nextVertex;
                 externalFace.add(skeletonVertexToVertex.get(vertex));
             }
-            embedding = PlanarEmbedding.createPartial(clockwiseOrder, externalFace);
+            embedding = PlanarEmbedding.createTrusted(clockwiseOrder, externalFace);
         }
 
         Map<UnorderedPair<Vertex>, HalfEdge> nodeHalfEdges = new HashMap<UnorderedPair<Vertex>, HalfEdge>();
@@ -521,35 +526,11 @@ public class EcPlanarEmbedding {
             prevHalfEdge.nextClockwise = firstHalfEdge;
         }
 
-        Collection<List<Vertex>> externalFaces;
-        if (node.type == SpqrNode.Type.R) {
-            externalFaces = Collections.singleton(embedding.externalFace);
-        } else {
-            // There are two possible external faces: embedding.externalFace and its reverse
-            List<Vertex> reversedExternalFace = new ArrayList<Vertex>(embedding.externalFace);
-            Collections.reverse(reversedExternalFace);
-            externalFaces = Arrays.asList(embedding.externalFace, reversedExternalFace);
-        }
-
-        // Set the nextOnExternalFace links
-        for (List<Vertex> externalFace : externalFaces) {
-            Vertex prevVertex = externalFace.get(externalFace.size() - 1);
-            Vertex prevPrevVertex = externalFace.get(externalFace.size() - 2);
-            UnorderedPair<Vertex> edge = new UnorderedPair<Vertex>(prevPrevVertex, prevVertex);
-            HalfEdge prevHalfEdge = nodeHalfEdges.get(edge);
-            if (prevHalfEdge.end != prevVertex) {
-                prevHalfEdge = prevHalfEdge.twinEdge;
-            }
-            for (Vertex vertex : externalFace) {
-                edge = new UnorderedPair<Vertex>(prevVertex, vertex);
-                HalfEdge halfEdge = nodeHalfEdges.get(edge);
-                if (halfEdge.end != vertex) {
-                    halfEdge = halfEdge.twinEdge;
-                }
-                prevHalfEdge.nextOnExternalFace = halfEdge;
-                prevHalfEdge = halfEdge;
-                prevVertex = vertex;
-            }
+        // Set the nextOnFace links.  We link every face rather than only embedding.externalFace, because the face of
+        // the block that we use as its external face need not pass through embedding.externalFace.
+        for (HalfEdge halfEdge : nodeHalfEdges.values()) {
+            halfEdge.nextOnFace = halfEdge.twinEdge.nextClockwise;
+            halfEdge.twinEdge.nextOnFace = halfEdge.nextClockwise;
         }
         return true;
     }
@@ -558,8 +539,11 @@ public class EcPlanarEmbedding {
      * Returns a PlanarEmbedding of blockNode.block that correctly orients all of the O-hubs in the graph, or null if
      * there is no such planar embedding.  This is an embedding of a block subgraph of an ec-expansion graph.  The
      * vertices in the embedding are drawn from the ec-expansion graph rather than the block subgraph, i.e. from
-     * blockNode.blockVertexToVertex.values() rather than blockNode.blockVertexToVertex.keySet().
+     * blockNode.blockVertexToVertex.values() rather than blockNode.blockVertexToVertex.keySet().  The external face of
+     * the embedding is a face that may be the external face of the overall ec-expansion graph, as in
+     * isValidExpansionExternalFace, if the embedding has such a face.
      * @param blockNode The block node.
+     * @param hubs The hub vertices of all wheel gadgets in the ec-expansion graph.
      * @param oHubFirsts A map from each O-hub vertex V to the vertex that must be immediately counterclockwise from
      *     oHubSeconds.get(V) relative to V.  The keys and values are drawn from the expansion graph rather than the
      *     block subgraph, i.e. from blockNode.blockVertexToVertex.values() rather than
@@ -571,33 +555,28 @@ public class EcPlanarEmbedding {
      * @return The planar embedding.
      */
     private static PlanarEmbedding embed(
-            BlockNode blockNode, Map<Vertex, Vertex> oHubFirsts, Map<Vertex, Vertex> oHubSeconds) {
-        // Compute the SPQR tree of the block
+            BlockNode blockNode, Set<Vertex> hubs, Map<Vertex, Vertex> oHubFirsts, Map<Vertex, Vertex> oHubSeconds) {
+        // Compute the SPQR tree of the block.  We use the compact representation and create the skeleton of each
+        // non-P node only when we process the node, so that we do not keep all of the skeletons in memory at once.
         Map<Vertex, Vertex> blockVertexToVertex = blockNode.blockVertexToVertex;
         Iterator<Vertex> iterator = blockNode.block.vertices.iterator();
-        SpqrNode rootSpqrNode = SpqrNode.create(iterator.next(), iterator.next());
+        SpqrTree spqrTree = SpqrTree.create(iterator.next(), iterator.next());
 
-        // Create the HalfEdges for the SPQR nodes, iterating over the nodes using breadth-first search
+        // Create the HalfEdges for the SPQR nodes, iterating over the nodes in breadth-first order
         Map<UnorderedPair<Vertex>, Collection<HalfEdge>> nonPHalfEdges =
             new LinkedHashMap<UnorderedPair<Vertex>, Collection<HalfEdge>>();
         Map<UnorderedPair<Vertex>, Collection<HalfEdge>> pHalfEdges =
             new LinkedHashMap<UnorderedPair<Vertex>, Collection<HalfEdge>>();
-        Collection<SpqrNode> level = Collections.singleton(rootSpqrNode);
-        while (!level.isEmpty()) {
-            Collection<SpqrNode> nextLevel = new ArrayList<SpqrNode>();
-            for (SpqrNode spqrNode : level) {
-                if (spqrNode.type == SpqrNode.Type.P) {
-                    Iterator<MultiVertex> vertexIterator = spqrNode.skeleton.vertices.iterator();
-                    Vertex vertex1 = spqrNode.skeletonVertexToVertex.get(vertexIterator.next());
-                    Vertex vertex2 = spqrNode.skeletonVertexToVertex.get(vertexIterator.next());
-                    pHalfEdges.put(new UnorderedPair<Vertex>(vertex1, vertex2), createPHalfEdges(spqrNode));
-                } else if (!createNonPHalfEdges(
-                        spqrNode, nonPHalfEdges, oHubFirsts, oHubSeconds, blockVertexToVertex)) {
-                    return null;
-                }
-                nextLevel.addAll(spqrNode.children);
+        for (int node = 0; node < spqrTree.nodeCount(); node++) {
+            if (spqrTree.type(node) == SpqrNode.Type.P) {
+                int firstEdge = spqrTree.edgeOffset(node);
+                Vertex vertex1 = spqrTree.vertex(spqrTree.edgeVertex1(firstEdge));
+                Vertex vertex2 = spqrTree.vertex(spqrTree.edgeVertex2(firstEdge));
+                pHalfEdges.put(new UnorderedPair<Vertex>(vertex1, vertex2), createPHalfEdges(spqrTree, node));
+            } else if (!createNonPHalfEdges(
+                    spqrTree.createNode(node), nonPHalfEdges, oHubFirsts, oHubSeconds, blockVertexToVertex)) {
+                return null;
             }
-            level = nextLevel;
         }
 
         // Set the virtualMatch links from HalfEdges in P nodes to HalfEdges in non-P nodes
@@ -668,99 +647,66 @@ public class EcPlanarEmbedding {
             }
         }
 
-        // Compute externalFace
-        List<Vertex> externalFace = new ArrayList<Vertex>();
+        // Compute externalFace.  Walk the faces of the block using the nextOnFace links, switching to the matching
+        // skeleton whenever we reach a virtual edge, and use the first face that may be the external face of the
+        // overall ec-expansion graph.
+        List<Vertex> externalFace = null;
         Set<HalfEdge> visited = new HashSet<HalfEdge>();
         for (HalfEdge halfEdge : halfEdges) {
-            if (halfEdge.isVirtual || !visited.add(halfEdge)) {
+            if (halfEdge.isVirtual || visited.contains(halfEdge)) {
                 continue;
             }
-            externalFace.add(blockVertexToVertex.get(halfEdge.end));
-            HalfEdge externalFaceEdge = halfEdge.nextOnExternalFace;
-            while (externalFaceEdge != null && visited.add(externalFaceEdge)) {
-                if (!externalFaceEdge.isVirtual) {
-                    externalFace.add(blockVertexToVertex.get(externalFaceEdge.end));
+            List<Vertex> face = new ArrayList<Vertex>();
+            HalfEdge faceEdge = halfEdge;
+            do {
+                if (!faceEdge.isVirtual) {
+                    visited.add(faceEdge);
+                    face.add(blockVertexToVertex.get(faceEdge.end));
                 } else {
-                    externalFaceEdge = externalFaceEdge.virtualMatch.twinEdge;
+                    faceEdge = faceEdge.virtualMatch.twinEdge;
                 }
-                externalFaceEdge = externalFaceEdge.nextOnExternalFace;
+                faceEdge = faceEdge.nextOnFace;
+            } while (faceEdge != halfEdge);
+
+            if (externalFace == null) {
+                externalFace = face;
             }
-            if (externalFaceEdge == halfEdge) {
+            if (isValidExpansionExternalFace(face, hubs)) {
+                externalFace = face;
                 break;
-            } else {
-                // The search for an external face failed, because either nextOnExternalFace was null or we reached a
-                // HalfEdge we had already visited
-                externalFace.clear();
             }
         }
 
-        return PlanarEmbedding.createPartial(clockwiseOrder, externalFace);
+        return PlanarEmbedding.createTrusted(clockwiseOrder, externalFace);
     }
 
     /**
-     * Returns a face of a block of an ec-expansion graph that may be the external face of the overall ec-expansion
-     * graph, per the procedure described in lemma 3 of the paper, or null if the block has no such face.  This is
-     * relative to a certain ec-planar embedding of the block.  The external face may not be an edge, an inner wheel
-     * face of a wheel gadget, or an outer wheel face of an outer wheel gadget.  (Technically, if the ec-expansion graph
-     * consists of a single edge, then the external face may be an edge, but this still returns null in that case.)
-     * @param embedding The ec-planar embedding of the block.
+     * Returns whether the specified face of a block of an ec-expansion graph may be the external face of the overall
+     * ec-expansion graph, per the procedure described in lemma 3 of the paper.  The external face may not be an edge,
+     * an inner wheel face of a wheel gadget, or an outer wheel face of an outer wheel gadget.  (Technically, if the
+     * ec-expansion graph consists of a single edge, then the external face may be an edge, but this still returns
+     * false in that case.)
+     * @param face The face, as in PlanarEmbedding.externalFace.
      * @param hubs The hub vertices of all wheel gadgets in the ec-expansion graph.
-     * @return The external face, as in PlanarEmbedding.externalFace.
+     * @return Whether the face may be the external face.
      */
-    private static List<Vertex> validExpansionExternalFace(PlanarEmbedding embedding, Set<Vertex> hubs) {
-        if (embedding.externalFace.size() == 2) {
-            return null;
+    private static boolean isValidExpansionExternalFace(List<Vertex> face, Set<Vertex> hubs) {
+        if (face.size() == 2) {
+            return false;
         }
 
-        // Check whether embedding.externalFace is an inner wheel face of a wheel gadget
-        int hubIndex = -1;
-        if (embedding.externalFace.size() == 3) {
-            for (int i = 0; i < embedding.externalFace.size(); i++) {
-                if (hubs.contains(embedding.externalFace.get(i))) {
-                    hubIndex = i;
-                    break;
+        // Check whether "face" is an inner wheel face of a wheel gadget
+        if (face.size() == 3) {
+            for (Vertex vertex : face) {
+                if (hubs.contains(vertex)) {
+                    return false;
                 }
             }
         }
 
-        List<Vertex> externalFace;
-        if (hubIndex < 0) {
-            externalFace = embedding.externalFace;
-        } else {
-            // embedding.externalFace is an inner wheel face.  This is not allowed.  Switch to another face.
-            Vertex prevVertex;
-            if (hubIndex > 0) {
-                prevVertex = embedding.externalFace.get(hubIndex - 1);
-            } else {
-                prevVertex = embedding.externalFace.get(2);
-            }
-            Vertex vertex;
-            if (hubIndex < 2) {
-                vertex = embedding.externalFace.get(hubIndex + 1);
-            } else {
-                vertex = embedding.externalFace.get(0);
-            }
-
-            // Use embedding.clockwiseOrder to keep moving from one edge of the face to the next
-            externalFace = new ArrayList<Vertex>();
-            Vertex firstVertex = prevVertex;
-            Vertex secondVertex = vertex;
-            do {
-                externalFace.add(vertex);
-                List<Vertex> vertexClockwiseOrder = embedding.clockwiseOrder.get(vertex);
-                int index = vertexClockwiseOrder.indexOf(prevVertex);
-                prevVertex = vertex;
-                if (index + 1 < vertexClockwiseOrder.size()) {
-                    vertex = vertexClockwiseOrder.get(index + 1);
-                } else {
-                    vertex = vertexClockwiseOrder.get(0);
-                }
-            } while (prevVertex != firstVertex || vertex != secondVertex);
-        }
-
-        // Check whether externalFace is an outer wheel face of a wheel gadget
+        // Check whether "face" is an outer wheel face of a wheel gadget
         Vertex hub = null;
-        for (Vertex vertex : externalFace) {
+        for (Vertex vertex : face) {
             for (Vertex adjVertex : vertex.edges) {
                 if (hubs.contains(adjVertex)) {
                     hub = adjVertex;
@@ -771,17 +717,13 @@ public class EcPlanarEmbedding {
                 break;
             }
         }
-        if (hub == null || !hub.edges.equals(new HashSet<Vertex>(externalFace))) {
-            return externalFace;
-        } else {
-            // externalFace is an outer wheel face
-            return null;
-        }
+        return hub == null || !hub.edges.equals(new HashSet<Vertex>(face));
     }
 
     /**
-     * Returns an ec-planar embedding of the specified ec-expansion graph, or null if there is no such planar embedding.
-     * @param expansion The ec-expansion graph.
+     * Returns an ec-planar embedding of the connected component of an ec-expansion graph containing the specified
+     * vertex, or null if there is no such planar embedding.
+     * @param expansionStart The vertex.
      * @param hubs The hub vertices of all wheel gadgets in the ec-expansion graph.
      * @param oHubFirsts A map from each O-hub vertex V to the vertex that must be immediately counterclockwise from
      *     oHubSeconds.get(V) relative to V.
@@ -789,11 +731,58 @@ public class EcPlanarEmbedding {
      *     oHubFirsts.get(V) relative to V.
      * @return The embedding.
      */
-    private static PlanarEmbedding embed(
-            Graph expansion, Set<Vertex> hubs, Map<Vertex, Vertex> oHubFirsts, Map<Vertex, Vertex> oHubSeconds) {
+    static PlanarEmbedding embed(
+            Vertex expansionStart, Set<Vertex> hubs, Map<Vertex, Vertex> oHubFirsts, Map<Vertex, Vertex> oHubSeconds) {
+        return embed(expansionStart, Collections.<Vertex>emptySet(), hubs, oHubFirsts, oHubSeconds);
+    }
+
+    /**
+     * Returns an ec-planar embedding of the connected component of an ec-expansion graph containing the specified
+     * vertex, or null if there is no such planar embedding.  This first embeds the blocks that contain any of the
+     * vertices in changedVertices, so that if one of them has no ec-planar embedding, we return null without embedding
+     * the other blocks.  This is useful when the caller knows that the component was ec-planar before the portion of
+     * the graph around changedVertices changed, since the other blocks are then known to be ec-planar.
+     * @param expansionStart The vertex.
+     * @param changedVertices The vertices whose blocks we should embed first.
+     * @param hubs The hub vertices of all wheel gadgets in the ec-expansion graph.
+     * @param oHubFirsts A map from each O-hub vertex V to the vertex that must be immediately counterclockwise from
+     *     oHubSeconds.get(V) relative to V.
+     * @param oHubSeconds A map from each O-hub vertex V to the vertex that must be immediately clockwise from
+     *     oHubFirsts.get(V) relative to V.
+     * @return The embedding.
+     */
+    static PlanarEmbedding embed(
+            Vertex expansionStart, Set<Vertex> changedVertices, Set<Vertex> hubs, Map<Vertex, Vertex> oHubFirsts,
+            Map<Vertex, Vertex> oHubSeconds) {
+        BlockNode rootBlockNode = BlockNode.compute(expansionStart);
+
+        // Embed the blocks containing changedVertices
+        Map<BlockNode, PlanarEmbedding> changedEmbeddings = new HashMap<BlockNode, PlanarEmbedding>();
+        if (!changedVertices.isEmpty()) {
+            Collection<BlockNode> level = Collections.singleton(rootBlockNode);
+            while (!level.isEmpty()) {
+                Collection<BlockNode> nextLevel = new ArrayList<BlockNode>();
+                for (BlockNode blockNode : level) {
+                    for (Vertex vertex : blockNode.blockVertexToVertex.values()) {
+                        if (changedVertices.contains(vertex)) {
+                            PlanarEmbedding embedding = embed(blockNode, hubs, oHubFirsts, oHubSeconds);
+                            if (embedding == null) {
+                                return null;
+                            }
+                            changedEmbeddings.put(blockNode, embedding);
+                            break;
+                        }
+                    }
+                    for (CutNode child : blockNode.children) {
+                        nextLevel.addAll(child.children);
+                    }
+                }
+                level = nextLevel;
+            }
+        }
+
         // Compute the overall ec-planar embedding from ec-planar embeddings of the blocks.  Iterate over the blocks
         // using breadth-first search on the BC-tree.
-        BlockNode rootBlockNode = BlockNode.compute(expansion.vertices.iterator().next());
         Map<Vertex, List<Vertex>> clockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
         Vertex firstExternalFaceVertex = null;
         Vertex secondExternalFaceVertex = null;
@@ -801,9 +790,12 @@ public class EcPlanarEmbedding {
         while (!level.isEmpty()) {
             Collection<BlockNode> nextLevel = new ArrayList<BlockNode>();
             for (BlockNode blockNode : level) {
-                PlanarEmbedding embedding = embed(blockNode, oHubFirsts, oHubSeconds);
+                PlanarEmbedding embedding = changedEmbeddings.get(blockNode);
                 if (embedding == null) {
-                    return null;
+                    embedding = embed(blockNode, hubs, oHubFirsts, oHubSeconds);
+                    if (embedding == null) {
+                        return null;
+                    }
                 }
 
                 for (Entry<Vertex, List<Vertex>> entry : embedding.clockwiseOrder.entrySet()) {
@@ -834,16 +826,13 @@ public class EcPlanarEmbedding {
                     overallClockwiseOrder.addAll(rotatedClockwiseOrder);
                 }
 
-                // Set the external face vertices.  See the comments for validExpansionExternalFace.
-                if (firstExternalFaceVertex == null) {
-                    List<Vertex> externalFace = validExpansionExternalFace(embedding, hubs);
-                    if (externalFace != null) {
-                        // Use an arbitrary edge of externalFace as an edge in the resulting external face.  The
-                        // resulting external face will differ from externalFace if we end up embedding other blocks on
-                        // the exterior.
-                        firstExternalFaceVertex = externalFace.get(0);
-                        secondExternalFaceVertex = externalFace.get(1);
-                    }
+                // Set the external face vertices.  See the comments for isValidExpansionExternalFace.
+                if (firstExternalFaceVertex == null && isValidExpansionExternalFace(embedding.externalFace, hubs)) {
+                    // Use an arbitrary edge of embedding.externalFace as an edge in the resulting external face.  The
+                    // resulting external face will differ from embedding.externalFace if we end up embedding other
+                    // blocks on the exterior.
+                    firstExternalFaceVertex = embedding.externalFace.get(0);
+                    secondExternalFaceVertex = embedding.externalFace.get(1);
                 }
 
                 for (CutNode child : blockNode.children) {
@@ -895,7 +884,7 @@ public class EcPlanarEmbedding {
             vertex = nextVertex;
         } while (prevVertex != firstExternalFaceVertex || vertex != secondExternalFaceVertex);
 
-        return new PlanarEmbedding(clockwiseOrder, externalFace);
+        return PlanarEmbedding.createTrusted(clockwiseOrder, externalFace);
     }
 
     /**
@@ -995,7 +984,7 @@ public class EcPlanarEmbedding {
      *     consolidatedChildren.  See the comments for the constraintOrder argument to "expand".
      * @return The ec-planar embedding for the non-expanded graph.
      */
-    private static PlanarEmbedding contractEmbedding(
+    static PlanarEmbedding contractEmbedding(
             PlanarEmbedding expansionEmbedding, Vertex start, Map<Vertex, EcNode> constraints,
             Map<Vertex, Map<Vertex, Vertex>> edgeToExpansionEndpoint,
             Map<UnorderedPair<Vertex>, UnorderedPair<Vertex>> expansionEdgeToEdge,
@@ -1040,7 +1029,7 @@ public class EcPlanarEmbedding {
             prevExpansionVertex = expansionVertex;
         }
 
-        return new PlanarEmbedding(clockwiseOrder, externalFace);
+        return PlanarEmbedding.createTrusted(clockwiseOrder, externalFace);
     }
 
     /** Adds all leaf vertices in the subtree rooted at "node" to "vertices". */
@@ -1086,7 +1075,7 @@ public class EcPlanarEmbedding {
     public static PlanarEmbedding embed(Vertex start, Map<Vertex, EcNode> constraints) {
         assertValid(constraints);
         if (start.edges.isEmpty()) {
-            return new PlanarEmbedding(
+            return PlanarEmbedding.createTrusted(
                 Collections.singletonMap(start, Collections.<Vertex>emptyList()), Collections.singletonList(start));
         }
 
@@ -1133,7 +1122,8 @@ public class EcPlanarEmbedding {
         }
 
         // Compute the ec-planar embedding
-        PlanarEmbedding expansionEmbedding = embed(expansion, hubs, oHubFirsts, oHubSeconds);
+        PlanarEmbedding expansionEmbedding = embed(
+            expansion.vertices.iterator().next(), hubs, oHubFirsts, oHubSeconds);
         if (expansionEmbedding == null) {
             return null;
         } else {
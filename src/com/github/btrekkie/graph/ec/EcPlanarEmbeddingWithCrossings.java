@@ -7,16 +7,17 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 import java.util.Set;
 
+import com.github.btrekkie.graph.ComponentAlgorithm;
 import com.github.btrekkie.graph.Graph;
-import com.github.btrekkie.graph.MultiVertex;
+import com.github.btrekkie.graph.ParallelComponents;
 import com.github.btrekkie.graph.Vertex;
-import com.github.btrekkie.graph.dual.DualGraph;
+import com.github.btrekkie.graph.dual.DynamicDualGraph;
 import com.github.btrekkie.graph.ec.EcNode.Type;
 import com.github.btrekkie.graph.planar.PlanarEmbedding;
 import com.github.btrekkie.graph.planar.PlanarEmbeddingWithCrossings;
@@ -32,19 +33,48 @@ import com.github.btrekkie.util.UnorderedPair;
  * Study of Crossing Minimization Heuristics).  See also the note in the comments for the implementation.
  */
 /* The basic approach of EcPlanarEmbeddingWithCrossings is to keep adding edges from the input graph as long as the
- * graph remains ec-planar, and then to add each of the remaining edges along with suitable crossings.  To determine
- * which crossings to add, we find a shortest path in the dual graph (see DualGraph; derived from an arbitrary ec-planar
- * embedding) from a dual vertex corresponding to a starting face that satisfies the embedding constraints for the start
- * vertex to a dual vertex corresponding to an ending face that satisfies the embedding constraints for the end vertex.
- * The crossings consist of the edges in the primal graph corresponding to the edges in the dual graph that comprise the
- * path.
+ * graph remains ec-planar, and then to add each of the remaining edges along with suitable crossings.  We use
+ * IncrementalEcPlanarEmbedding to determine whether the graph remains ec-planar, so that we only have to compute an
+ * ec-planar embedding from scratch for edges that we cannot insert into the current embedding.  To determine
+ * which crossings to add, we find a shortest path in the dual graph (derived from an arbitrary ec-planar embedding)
+ * from a starting face that satisfies the embedding constraints for the start vertex to an ending face that
+ * satisfies the embedding constraints for the end vertex.  The crossings consist of the edges in the primal graph
+ * corresponding to the edges in the dual graph that comprise the path.  We maintain the embedding and its dual graph
+ * as we add edges using a DynamicDualGraph, which subdivides each crossed edge and splits each face along the path,
+ * and we find the paths using a bidirectional search; see DualPathFinder.
  *
  * The paper http://jgaa.info/accepted/2008/GutwengerKleinMutzel2008.12.1.pdf (Gutwenger, Klien, and Mutzel (2008):
  * Planarity Testing and Optimal Edge Insertion with Embedding Constraints) gives an algorithm for adding an edge
- * respecting embedding constraints with a minimum number of crossings.  For ease of implementation, we use the above,
- * simpler approach instead.
+ * respecting embedding constraints with a minimum number of crossings.  By default, we use the above, simpler approach
+ * instead.  InsertionMode.VARIABLE_EMBEDDING uses an adaptation of the paper's approach; see
+ * VariableEmbeddingInsertion.  In that mode, we do not maintain an ec-planar embedding or a dual graph while adding
+ * the edges.  Instead, we recompute the ec-expansion for each edge, with a MIRROR constraint for each crossing we have
+ * added so far.
+ *
+ * If the caller requests reinsertion passes, then after adding all of the edges, we apply the "remove-and-reinsert"
+ * post-processing step recommended by Gutwenger and Mutzel (2003) using CrossingReinsertion.
  */
 public class EcPlanarEmbeddingWithCrossings {
+    /** A technique for adding the edges that we are unable to add without crossings. */
+    public static enum InsertionMode {
+        /**
+         * Add each edge using a shortest path in the dual graph of a single ec-planar embedding of the graph computed
+         * so far.  This is faster than VARIABLE_EMBEDDING, but it tends to produce more crossings.
+         */
+        FIXED_EMBEDDING,
+
+        /**
+         * Add each edge using a path that crosses a minimum number of edges over all ec-planar embeddings of the graph
+         * computed so far, respecting the orientation of EcNode.Type.ORIENTED nodes.  The edges are still added one
+         * at a time, so the total number of crossings is not necessarily minimal, and it may occasionally exceed that
+         * of FIXED_EMBEDDING, because the two modes' earlier choices lead to different graphs.  On average, it
+         * produces fewer crossings, at the cost of a longer running time.  See compareInsertionModes.
+         *
+         * If we are unable to compute an ec-planar embedding using this technique, the connected component falls back
+         * to FIXED_EMBEDDING.
+         */
+        VARIABLE_EMBEDDING};
+
     /**
      * Returns the root of a subtree that is the same as the subtree rooted at "node", but with all nodes with one child
      * replaced with the nearest descendants with multiple children.  For example, given a node of type
@@ -133,7 +163,7 @@ public class EcPlanarEmbeddingWithCrossings {
     }
 
     /** Equivalent implementation is contractual. */
-    private static void replaceVertices(
+    static void replaceVertices(
             Vertex start, EcNode node, Map<Vertex, EcNode> constraints, Map<Vertex, Vertex> replacements) {
         EcNode newNode;
         if (node != null) {
@@ -309,22 +339,25 @@ public class EcPlanarEmbeddingWithCrossings {
 
     /**
      * Computes the positions in the clockwise ordering of edges aroung "start" for the edge from "start" to "end" that
-     * satisfy the constraints for "start" described in the tree rooted at rootNode.  Returns a map from each vertex in
-     * the dual graph that corresponds to a face for these positions to the vertex in the primal graph that is adjacent
-     * to "start" and the face and is immediately clockwise relative to the other such vertex.
+     * satisfy the constraints for "start" described in the tree rooted at rootNode.  Returns a map from the number of
+     * the face in "dual" for each of these positions to the vertex in the primal graph that is adjacent to "start" and
+     * the face and is immediately clockwise relative to the other such vertex.
      * @param start The start vertex.
      * @param end The end vertex.
      * @param rootNode The constraint node.
-     * @param nextClockwise A map from each vertex adjacent to the "start" to the next adjacent vertex in the clockwise
-     *     direction, excluding "end".
-     * @param rightFaces A map of the right faces in the dual graph, as in DualGraph.rightFaces.
+     * @param dual The combinatorial embedding we are maintaining.  This must not contain an edge from "start" to "end".
      * @return The positions.
      */
-    private static Map<DualVertex, Vertex> validStarts(
-            Vertex start, Vertex end, EcNode rootNode, Map<Vertex, Map<Vertex, Vertex>> nextClockwise,
-            Map<Vertex, Map<Vertex, DualVertex>> rightFaces) {
+    private static Map<Integer, Vertex> validStarts(Vertex start, Vertex end, EcNode rootNode, DynamicDualGraph dual) {
         // Compute the values of the map we will return
-        Map<Vertex, Vertex> startNextClockwise = nextClockwise.get(start);
+        Map<Vertex, Vertex> startNextClockwise = new HashMap<Vertex, Vertex>();
+        Vertex firstAdjVertex = start.edges.iterator().next();
+        Vertex adjVertex = firstAdjVertex;
+        do {
+            Vertex nextAdjVertex = dual.nextClockwise(start, adjVertex);
+            startNextClockwise.put(adjVertex, nextAdjVertex);
+            adjVertex = nextAdjVertex;
+        } while (adjVertex != firstAdjVertex);
         Collection<Vertex> validSuccessors;
         if (rootNode == null) {
             validSuccessors = new ArrayList<Vertex>(start.edges);
@@ -396,102 +429,13 @@ public class EcPlanarEmbeddingWithCrossings {
         }
 
         // Compute the return value from the successors
-        Map<DualVertex, Vertex> validStarts = new LinkedHashMap<DualVertex, Vertex>();
+        Map<Integer, Vertex> validStarts = new LinkedHashMap<Integer, Vertex>();
         for (Vertex successor : validSuccessors) {
-            validStarts.put(rightFaces.get(successor).get(start), successor);
+            validStarts.put(dual.leftFace(start, successor), successor);
         }
         return validStarts;
     }
 
-    /**
-     * Returns a shortest path from a vertex in "starts" to a vertex in "ends", if any, represented as a sequence of the
-     * vertices in the path.  Assumes that "starts" and "ends" are disjoint.
-     */
-    private static List<DualVertex> findPath(Set<DualVertex> starts, Set<DualVertex> ends) {
-        // Use breadth-first search to find a shortest path
-        Map<DualVertex, DualVertex> predecessors = new HashMap<DualVertex, DualVertex>();
-        for (DualVertex vertex : starts) {
-            predecessors.put(vertex, null);
-        }
-        Collection<DualVertex> level = starts;
-        DualVertex end = null;
-        while (end == null && !level.isEmpty()) {
-            Collection<DualVertex> nextLevel = new ArrayList<DualVertex>();
-            for (DualVertex vertex : level) {
-                for (DualVertex adjVertex : vertex.edgeCounts.keySet()) {
-                    if (!predecessors.containsKey(adjVertex)) {
-                        predecessors.put(adjVertex, vertex);
-                        if (ends.contains(adjVertex)) {
-                            end = adjVertex;
-                            break;
-                        }
-                        nextLevel.add(adjVertex);
-                    }
-                }
-                if (end != null) {
-                    break;
-                }
-            }
-            level = nextLevel;
-        }
-
-        if (end == null) {
-            return null;
-        } else {
-            // Use "predecessors" to determine the vertices in the path
-            List<DualVertex> path = new ArrayList<DualVertex>();
-            for (DualVertex vertex = end; vertex != null; vertex = predecessors.get(vertex)) {
-                path.add(vertex);
-            }
-            Collections.reverse(path);
-            return path;
-        }
-    }
-
-    /**
-     * Removes the edge corresponding to "edge" from the specified dual graph (see DualGraph), if any and then adds an
-     * edge dualEdge corresponding to "edge".  We represent an edge as a pair of its endpoints.
-     * @param edge The primal edge.
-     * @param dualEdge The dual edge.  If this is null, we remove the edge corresponding to "edge" in the dual graph
-     *     without adding a replacement dual edge.
-     * @param edgeToDualEdge A map from each edge in the primal graph to the corresponding edge in the dual graph, as in
-     *     DualGraph.edgeToDualEdge.
-     * @param dualEdgeToEdges A map from each edge in the dual graph to a collection of the corresponding edges in the
-     *     primal graph, as in DualGraph.dualEdgeToEdges.
-     */
-    private static void setDualEdge(
-            UnorderedPair<Vertex> edge, UnorderedPair<DualVertex> dualEdge,
-            Map<UnorderedPair<Vertex>, UnorderedPair<DualVertex>> edgeToDualEdge,
-            Map<UnorderedPair<DualVertex>, Set<UnorderedPair<Vertex>>> dualEdgeToEdges) {
-        UnorderedPair<DualVertex> oldDualEdge;
-        if (dualEdge != null) {
-            oldDualEdge = edgeToDualEdge.put(edge, dualEdge);
-        } else {
-            oldDualEdge = edgeToDualEdge.remove(edge);
-        }
-        if (oldDualEdge == dualEdge) {
-            return;
-        }
-        if (oldDualEdge != null) {
-            Set<UnorderedPair<Vertex>> edges = dualEdgeToEdges.get(oldDualEdge);
-            edges.remove(edge);
-            if (edges.isEmpty()) {
-                dualEdgeToEdges.remove(oldDualEdge);
-            }
-            oldDualEdge.value1.removeEdge(oldDualEdge.value2);
-        }
-
-        if (dualEdge != null) {
-            Set<UnorderedPair<Vertex>> edges = dualEdgeToEdges.get(dualEdge);
-            if (edges == null) {
-                edges = new LinkedHashSet<UnorderedPair<Vertex>>();
-                dualEdgeToEdges.put(dualEdge, edges);
-            }
-            edges.add(edge);
-            dualEdge.value1.addEdge(dualEdge.value2);
-        }
-    }
-
     /**
      * Changes the edge from graphVertex1 to graphVertex2 into an edge from graphVertex1 to the crossing vertex
      * crossVertex and an edge from crossVertex to graphVertex2, and updates the bookkeeping represented in the
@@ -515,20 +459,20 @@ public class EcPlanarEmbeddingWithCrossings {
      *     tree.  This is equivalent to "constraints", but it refers to vertices in the output graph rather than
      *     vertices in the input graph, and it excludes edges in the input graph that do not yet have a corresponding
      *     path in the output graph.
-     * @param nextClockwise A map from each vertex in the output graph to a map from each adjacent vertex to the next
-     *     adjacent vertex in the clockwise direction (in the combinatorial embedding we are maintaining).
-     * @param nextCounterclockwise A map from each vertex in the output graph to a map from each adjacent vertex to the
-     *     next adjacent vertex in the counterclockwise direction (in the combinatorial embedding we are maintaining).
+     * @param dual The combinatorial embedding we are maintaining, or null if we are not maintaining an embedding.  We
+     *     subdivide the edge from graphVertex1 to graphVertex2 in "dual".
      */
     private static void addCrossing(
             Vertex graphVertex1, Vertex graphVertex2, Vertex crossVertex, Map<Vertex, Crossing> crossings,
             Map<Vertex, Vertex> graphVertexToVertex, Map<Vertex, Map<Vertex, Vertex>> replacements,
             Map<Vertex, Map<Vertex, Vertex>> replacementsInverse, Map<Vertex, EcNode> constraints,
-            Map<Vertex, EcNode> graphConstraints,
-            Map<Vertex, Map<Vertex, Vertex>> nextClockwise, Map<Vertex, Map<Vertex, Vertex>> nextCounterclockwise) {
+            Map<Vertex, EcNode> graphConstraints, DynamicDualGraph dual) {
         graphVertex1.removeEdge(graphVertex2);
         graphVertex1.addEdge(crossVertex);
         graphVertex2.addEdge(crossVertex);
+        if (dual != null) {
+            dual.subdivide(graphVertex1, graphVertex2, crossVertex);
+        }
 
         for (int i = 0; i < 2; i++) {
             // In the first iteration, fix the bookkeeping for graphVertex1.  In the second iteration, fix graphVertex2.
@@ -568,288 +512,67 @@ public class EcPlanarEmbeddingWithCrossings {
                     crossing.end2 = crossVertex;
                 }
             }
-
-            // Update nextClockwise.get(graphStart) and nextCounterclockwise.get(graphStart)
-            Map<Vertex, Vertex> startNextClockwise = nextClockwise.get(graphStart);
-            Map<Vertex, Vertex> startNextCounterclockwise = nextCounterclockwise.get(graphStart);
-            Vertex predecessor = startNextCounterclockwise.remove(graphEnd);
-            Vertex successor = startNextClockwise.remove(graphEnd);
-            startNextClockwise.put(predecessor, crossVertex);
-            startNextClockwise.put(crossVertex, successor);
-            startNextCounterclockwise.put(successor, crossVertex);
-            startNextCounterclockwise.put(crossVertex, predecessor);
         }
     }
 
+    /** Returns whether the specified vertex is non-null and is an endpoint of the specified half-edge in "dual". */
+    private static boolean isIncident(DynamicDualGraph dual, int halfEdge, Vertex vertex) {
+        return vertex != null && (dual.source(halfEdge) == vertex || dual.target(halfEdge) == vertex);
+    }
+
     /**
-     * Updates the specified dual graph (as in DualGraph) so that the edges in the dual graph corresponding to the edges
-     * in the primal graph of the face that contains the edges in faceBorder are made to be adjacent to newFace rather
-     * than oldFace.  This is except for the edges in faceBorder, whose corresponding edges in the dual graph are made
-     * to be adjacent to the vertices in borderLeftFaces and borderRightFaces.  This method assumes that the second or
-     * second-to-last vertex in faceBorder has degree greater than two.
-     * @param oldFace The old dual vertex.
-     * @param newFace The new dual vertex.
-     * @param faceBorder The face border path, represented as a sequence of its vertices.  The last vertex may be the
-     *     same as the first vertex.  The edges in the path might not be in the dual graph yet, in which case this
-     *     method adds them to the dual graph.
-     * @param borderLeftFaces The dual vertices corresponding to the faces to the left of the edges in faceBorder, in
-     *     order.  In other words, the face immediately counterclockwise relative to the edge from faceBorder.get(i) to
-     *     faceBorder.get(i + 1) corresponds to borderLeftFaces.get(i).
-     * @param borderRightFaces The dual vertices corresponding to the faces to the right of the edges in faceBorder, in
-     *     order.  In other words, the face immediately clockwise relative to the edge from faceBorder.get(i) to
-     *     faceBorder.get(i + 1) corresponds to borderLeftFaces.get(i).
-     * @param edgeToDualEdge A map from each edge in the primal graph to the corresponding edge in the dual graph, as in
-     *     DualGraph.edgeToDualEdge.
-     * @param dualEdgeToEdges A map from each edge in the dual graph to a collection of the corresponding edges in the
-     *     primal graph, as in DualGraph.dualEdgeToEdges.
-     * @param rightFaces A map of the right faces in the dual graph, as in DualGraph.rightFaces.
-     * @param nextClockwise A map from each vertex to a map from each adjacent vertex to the next adjacent vertex in the
-     *     clockwise direction (in the combinatorial embedding we are maintaining).  This method does not alter
-     *     nextClockwise.  The entries need only be current for those vertices in the face corresponding to newFace.
+     * Returns a half-edge in "dual" whose edge we may cross in place of the specified half-edge.  The result has the
+     * same face as "halfEdge", and its twin has the same face as the twin of "halfEdge".  If possible, neither
+     * endpoint of the result is "start" or "end".  This takes time proportional to the size of the face of "halfEdge",
+     * or constant time if "halfEdge" is not incident to "start" or "end".
+     * @param dual The combinatorial embedding we are maintaining.
+     * @param halfEdge The half-edge.
+     * @param start A vertex to avoid, or null.
+     * @param end Another vertex to avoid, or null.
+     * @return The half-edge to cross.
      */
-    private static void splitFace(
-            DualVertex oldFace, DualVertex newFace, List<Vertex> faceBorder, List<DualVertex> borderLeftFaces,
-            List<DualVertex> borderRightFaces, Map<UnorderedPair<Vertex>, UnorderedPair<DualVertex>> edgeToDualEdge,
-            Map<UnorderedPair<DualVertex>, Set<UnorderedPair<Vertex>>> dualEdgeToEdges,
-            Map<Vertex, Map<Vertex, DualVertex>> rightFaces, Map<Vertex, Map<Vertex, Vertex>> nextClockwise) {
-        // Update the dual edges corresponding to the edges in faceBorder
-        for (int i = 0; i < faceBorder.size() - 1; i++) {
-            Vertex vertex1 = faceBorder.get(i);
-            Vertex vertex2 = faceBorder.get(i + 1);
-            DualVertex leftFace = borderLeftFaces.get(i);
-            DualVertex rightFace = borderRightFaces.get(i);
-            Map<Vertex, DualVertex> rightFaces1 = rightFaces.get(vertex1);
-            if (rightFaces1 == null) {
-                rightFaces1 = new HashMap<Vertex, DualVertex>();
-                rightFaces.put(vertex1, rightFaces1);
-            }
-            Map<Vertex, DualVertex> rightFaces2 = rightFaces.get(vertex2);
-            if (rightFaces2 == null) {
-                rightFaces2 = new HashMap<Vertex, DualVertex>();
-                rightFaces.put(vertex2, rightFaces2);
-            }
-            rightFaces2.put(vertex1, leftFace);
-            rightFaces1.put(vertex2, rightFace);
-            setDualEdge(
-                new UnorderedPair<Vertex>(vertex1, vertex2), new UnorderedPair<DualVertex>(leftFace, rightFace),
-                edgeToDualEdge, dualEdgeToEdges);
-        }
-
-        // Determine the last edge in faceBorder in the counterclockwise direction
-        Vertex start;
-        Vertex end;
-        Vertex endSuccessor;
-        Vertex prevVertex;
-        boolean isFlipped;
-        if (faceBorder.get(1).edges.size() > 2) {
-            isFlipped = nextClockwise.get(faceBorder.get(1)).get(faceBorder.get(2)) == faceBorder.get(0);
-        } else {
-            isFlipped =
-                nextClockwise.get(faceBorder.get(faceBorder.size() - 2)).get(faceBorder.get(faceBorder.size() - 1)) ==
-                faceBorder.get(faceBorder.size() - 3);
-        }
-        if (!isFlipped) {
-            start = faceBorder.get(faceBorder.size() - 1);
-            end = faceBorder.get(0);
-            endSuccessor = faceBorder.get(1);
-            prevVertex = faceBorder.get(faceBorder.size() - 2);
-        } else {
-            start = faceBorder.get(0);
-            end = faceBorder.get(faceBorder.size() - 1);
-            endSuccessor = faceBorder.get(faceBorder.size() - 2);
-            prevVertex = faceBorder.get(1);
+    private static int crossedEdge(DynamicDualGraph dual, int halfEdge, Vertex start, Vertex end) {
+        if (!isIncident(dual, halfEdge, start) && !isIncident(dual, halfEdge, end)) {
+            return halfEdge;
         }
-
-        // Update the remaining dual edges
-        Vertex vertex = start;
-        while (vertex != end || nextClockwise.get(vertex).get(prevVertex) != endSuccessor) {
-            // Advance to the next dual edge
-            Vertex nextVertex = nextClockwise.get(vertex).get(prevVertex);
-            prevVertex = vertex;
-            vertex = nextVertex;
-
-            // Update the dual edge
-            UnorderedPair<Vertex> edge = new UnorderedPair<Vertex>(prevVertex, vertex);
-            UnorderedPair<DualVertex> oldDualEdge = edgeToDualEdge.get(edge);
-            UnorderedPair<DualVertex> newDualEdge;
-            if (oldDualEdge.value1 == oldFace) {
-                newDualEdge = new UnorderedPair<DualVertex>(oldDualEdge.value2, newFace);
-            } else {
-                newDualEdge = new UnorderedPair<DualVertex>(oldDualEdge.value1, newFace);
+        int twinFace = dual.face(dual.twin(halfEdge));
+        for (int edge = dual.nextOnFace(halfEdge); edge != halfEdge; edge = dual.nextOnFace(edge)) {
+            if (dual.face(dual.twin(edge)) == twinFace && !isIncident(dual, edge, start) &&
+                    !isIncident(dual, edge, end)) {
+                return edge;
             }
-            setDualEdge(edge, newDualEdge, edgeToDualEdge, dualEdgeToEdges);
-            rightFaces.get(vertex).put(prevVertex, newFace);
         }
+        return halfEdge;
     }
 
     /**
-     * Updates the specified dual graph to reflect splitting a face in the primal graph in two, due to the introduction
-     * of an edge that crossed through the face (or, in the case of an added vertex that is not a crossing vertex), the
-     * introduction of two edges).  This is for the addition of a path corresponding to an edge in the
-     * input vertex, which we take have a certain direction.  We assume the path splits at least two faces.
-     * @param index The index of the face in the list of faces the path splits.
-     * @param face The dual vertex corresponding to the face we are splitting.
-     * @param faces1 The dual vertices corresponding to the first smaller face into which we are splitting each face.
-     *     This is parallel to the list of edges in the path, and refers to the smaller faces that are
-     *     immediately counterclockwise relative to the edges.
-     * @param faces2 The dual vertices corresponding to the second smaller face into which we are splitting each face.
-     *     This is parallel to the list of edges in the path, and refers to the smaller faces that are
-     *     immediately clockwise relative to the edges.
-     * @param crossVertex The vertex of the edge(s) that split the face that is furthest in the direction of the path.
-     * @param crossingStart The vertex on the path that is immediately adjacent to crossVertex in the opposite of the
-     *     direction of the path.  If we are splitting the last face the path splits, this is the vertex of the edge(s)
-     *     that split the face that is furthest in the direction opposite that of the path instead.
-     * @param firstAddedVertex The second vertex in the path.
-     * @param lastAddedVertex The second-to-last vertex in the path.  If we are not currently splitting the last face
-     *     split by the path, then this is unspecified and may be inaccurate.
-     * @param end The last vertex in the path.
-     * @param edgeToDualEdge A map from each edge in the primal graph to the corresponding edge in the dual graph, as in
-     *     DualGraph.edgeToDualEdge.
-     * @param dualEdgeToEdges A map from each edge in the dual graph to a collection of the corresponding edges in the
-     *     primal graph, as in DualGraph.dualEdgeToEdges.
-     * @param rightFaces A map of the right faces in the dual graph, as in DualGraph.rightFaces.
-     * @param nextClockwise A map from each vertex in the output graph to a map from each adjacent vertex to the next
-     *     adjacent vertex in the clockwise direction (in the combinatorial embedding we are using).  This method does
-     *     not alter nextClockwise.  The entries need only be current for those vertices in the face we are splitting.
-     * @param nextCounterclockwise A map from each vertex in the output graph to a map from each adjacent vertex to the
-     *     next adjacent vertex in the counterclockwise direction (in the combinatorial embedding we are using).  This
-     *     method does not alter nextCounterclockwise.  The entries need only be current for those vertices in the face
-     *     we are splitting.
+     * Returns the vertex W adjacent to the specified vertex V such that the face in "dual" immediately counterclockwise
+     * relative to the edge from V to W is "face", i.e. the vertex that is to follow a new edge from V in the face in
+     * clockwise order.  Assumes there is exactly one such vertex.  This takes time proportional to the degree of V.
+     * @param dual The combinatorial embedding we are maintaining.
+     * @param vertex The vertex V.
+     * @param adjVertex An arbitrary vertex adjacent to V.
+     * @param face The face.
+     * @return The vertex W.
      */
-    private static void splitFace(
-            int index, DualVertex face, List<DualVertex> faces1, List<DualVertex> faces2,
-            Vertex crossVertex, Vertex crossingStart, Vertex firstAddedVertex, Vertex lastAddedVertex, Vertex end,
-            Map<UnorderedPair<Vertex>, UnorderedPair<DualVertex>> edgeToDualEdge,
-            Map<UnorderedPair<DualVertex>, Set<UnorderedPair<Vertex>>> dualEdgeToEdges,
-            Map<Vertex, Map<Vertex, DualVertex>> rightFaces, Map<Vertex, Map<Vertex, Vertex>> nextClockwise,
-            Map<Vertex, Map<Vertex, Vertex>> nextCounterclockwise) {
-        // Compute the edges adjacent to crossingStart that are "perpendicular" to the path
-        Vertex prevEndpoint1;
-        Vertex prevEndpoint2;
-        if (index == 0) {
-            prevEndpoint1 = null;
-            prevEndpoint2 = null;
-        } else if (index + 1 < faces1.size()) {
-            prevEndpoint1 = nextCounterclockwise.get(crossingStart).get(crossVertex);
-            prevEndpoint2 = nextClockwise.get(crossingStart).get(crossVertex);
-        } else {
-            if (lastAddedVertex.edges.size() > 2) {
-                prevEndpoint1 = nextCounterclockwise.get(crossingStart).get(end);
-                prevEndpoint2 = nextClockwise.get(crossingStart).get(end);
-            } else {
-                prevEndpoint1 = nextCounterclockwise.get(crossingStart).get(lastAddedVertex);
-                prevEndpoint2 = nextClockwise.get(crossingStart).get(lastAddedVertex);
-            }
-        }
-
-        // Compute the edges adjacent to crossVertex that are "perpendicular" to the path
-        Vertex endpoint1;
-        Vertex endpoint2;
-        if (index + 1 < faces1.size()) {
-            endpoint1 = nextClockwise.get(crossVertex).get(crossingStart);
-            endpoint2 = nextCounterclockwise.get(crossVertex).get(crossingStart);
-        } else {
-            endpoint1 = null;
-            endpoint2 = null;
-        }
-        DualVertex face1 = faces1.get(index);
-        DualVertex face2 = faces2.get(index);
-
-        // Compute the first face border
-        List<Vertex> faceBorder1 = new ArrayList<Vertex>();
-        List<DualVertex> borderLeftFaces1 = new ArrayList<DualVertex>();
-        List<DualVertex> borderRightFaces1 = new ArrayList<DualVertex>();
-        if (index > 0) {
-            faceBorder1.add(prevEndpoint1);
-            borderLeftFaces1.add(face1);
-            borderRightFaces1.add(faces1.get(index - 1));
-        } else if (firstAddedVertex != crossVertex) {
-            Iterator<Vertex> iterator = firstAddedVertex.edges.iterator();
-            Vertex adjVertex = iterator.next();
-            if (adjVertex == crossVertex) {
-                adjVertex = iterator.next();
-            }
-            faceBorder1.add(adjVertex);
-            borderLeftFaces1.add(face1);
-            borderRightFaces1.add(face2);
-        }
-        faceBorder1.add(crossingStart);
-        borderLeftFaces1.add(face1);
-        borderRightFaces1.add(face2);
-        if (index + 1 < faces1.size()) {
-            faceBorder1.add(crossVertex);
-            borderLeftFaces1.add(face1);
-            borderRightFaces1.add(faces1.get(index + 1));
-            faceBorder1.add(endpoint1);
-        } else {
-            if (lastAddedVertex.edges.size() == 2) {
-                faceBorder1.add(lastAddedVertex);
-                borderLeftFaces1.add(face1);
-                borderRightFaces1.add(face2);
-            }
-            faceBorder1.add(end);
-        }
-
-        splitFace(
-            face, face1, faceBorder1, borderLeftFaces1, borderRightFaces1, edgeToDualEdge, dualEdgeToEdges, rightFaces,
-            nextClockwise);
-
-        // Compute the second face border
-        List<Vertex> faceBorder2 = new ArrayList<Vertex>();
-        List<DualVertex> borderLeftFaces2 = new ArrayList<DualVertex>();
-        List<DualVertex> borderRightFaces2 = new ArrayList<DualVertex>();
-        if (index > 0) {
-            faceBorder2.add(prevEndpoint2);
-            borderLeftFaces2.add(faces2.get(index - 1));
-            borderRightFaces2.add(face2);
-        } else if (firstAddedVertex != crossVertex) {
-            Iterator<Vertex> iterator = firstAddedVertex.edges.iterator();
-            Vertex adjVertex = iterator.next();
-            if (adjVertex == crossVertex) {
-                adjVertex = iterator.next();
-            }
-            faceBorder2.add(adjVertex);
-            borderLeftFaces2.add(face1);
-            borderRightFaces2.add(face2);
-        }
-        faceBorder2.add(crossingStart);
-        borderLeftFaces2.add(face1);
-        borderRightFaces2.add(face2);
-        if (index + 1 < faces1.size()) {
-            faceBorder2.add(crossVertex);
-            borderLeftFaces2.add(faces2.get(index + 1));
-            borderRightFaces2.add(face2);
-            faceBorder2.add(endpoint2);
-        } else {
-            if (lastAddedVertex.edges.size() == 2) {
-                faceBorder2.add(lastAddedVertex);
-                borderLeftFaces2.add(face1);
-                borderRightFaces2.add(face2);
-            }
-            faceBorder2.add(end);
+    private static Vertex successorInFace(DynamicDualGraph dual, Vertex vertex, Vertex adjVertex, int face) {
+        Vertex successor = adjVertex;
+        while (dual.leftFace(vertex, successor) != face) {
+            successor = dual.nextClockwise(vertex, successor);
         }
-
-        splitFace(
-            face, face2, faceBorder2, borderLeftFaces2, borderRightFaces2, edgeToDualEdge, dualEdgeToEdges, rightFaces,
-            nextClockwise);
+        return successor;
     }
 
     /**
      * Adds an edge from crossEdge.value1 to crossEdge.value2 with crossings that maintain an ec-planar embedding, and
      * updates the bookkeeping represented in the arguments to reflect this change.  Assumes that it is impossible to
-     * add such an edge without crossings.
+     * add such an edge without crossings.  Returns false if we were unable to find a suitable path in the dual graph,
+     * in which case the bookkeeping may be in an inconsistent state.
      * @param crossEdge The edge to add.  The vertices are output graph vertices.
      * @param graph The output graph.
      * @param crossings A map from each crossing vertex in the output graph to the corresponding Crossing object.
-     * @param edgeToDualEdge A map from each edge in the primal graph to the corresponding edge in the dual graph, as in
-     *     DualGraph.edgeToDualEdge.
-     * @param dualEdgeToEdges A map from each edge in the dual graph to a collection of the corresponding edges in the
-     *     primal graph, as in DualGraph.dualEdgeToEdges.
-     * @param rightFaces A map of the right faces in the dual graph, as in DualGraph.rightFaces.
-     * @param nextClockwise A map from each vertex in the output graph to a map from each adjacent vertex to the next
-     *     adjacent vertex in the clockwise direction (in the combinatorial embedding we are maintaining).
-     * @param nextCounterclockwise A map from each vertex in the output graph to a map from each adjacent vertex to the
-     *     next adjacent vertex in the counterclockwise direction (in the combinatorial embedding we are maintaining).
+     * @param dual The combinatorial embedding of the output graph we are maintaining, along with its dual graph.
+     * @param pathFinder The DualPathFinder we use to find the path in the dual graph.
      * @param graphVertexToVertex A map from each vertex in the output graph that has a corresponding vertex in the
      *     input graph to the corresponding vertex.
      * @param replacements A map from each vertex V in the input graph to a map from each adjacent vertex W to the first
@@ -864,13 +587,11 @@ public class EcPlanarEmbeddingWithCrossings {
      *     tree.  This is equivalent to "constraints", but it refers to vertices in the output graph rather than
      *     vertices in the input graph, and it excludes edges in the input graph that do not yet have a corresponding
      *     path in the output graph.
+     * @return Whether we added the edge.
      */
-    private static void addCrossEdge(
-            UnorderedPair<Vertex> crossEdge, Graph graph, Map<Vertex, Crossing> crossings,
-            Map<UnorderedPair<Vertex>, UnorderedPair<DualVertex>> edgeToDualEdge,
-            Map<UnorderedPair<DualVertex>, Set<UnorderedPair<Vertex>>> dualEdgeToEdges,
-            Map<Vertex, Map<Vertex, DualVertex>> rightFaces, Map<Vertex, Map<Vertex, Vertex>> nextClockwise,
-            Map<Vertex, Map<Vertex, Vertex>> nextCounterclockwise, Map<Vertex, Vertex> graphVertexToVertex,
+    private static boolean addCrossEdge(
+            UnorderedPair<Vertex> crossEdge, Graph graph, Map<Vertex, Crossing> crossings, DynamicDualGraph dual,
+            DualPathFinder pathFinder, Map<Vertex, Vertex> graphVertexToVertex,
             Map<Vertex, Map<Vertex, Vertex>> replacements, Map<Vertex, Map<Vertex, Vertex>> replacementsInverse,
             Map<Vertex, EcNode> constraints, Map<Vertex, EcNode> graphConstraints) {
         // Add the edge to graphConstraints
@@ -884,29 +605,35 @@ public class EcPlanarEmbeddingWithCrossings {
         replaceVertices(crossEdge.value2, constraints.get(vertex2), graphConstraints, replacements2);
 
         // Compute the path in the dual graph that crossEdge will take
-        Map<DualVertex, Vertex> starts = validStarts(
-            crossEdge.value1, crossEdge.value2, graphConstraints.get(crossEdge.value1), nextClockwise, rightFaces);
-        Map<DualVertex, Vertex> ends = validStarts(
-            crossEdge.value2, crossEdge.value1, graphConstraints.get(crossEdge.value2), nextClockwise, rightFaces);
-        List<DualVertex> path = findPath(starts.keySet(), ends.keySet());
-
-        // Create the vertices we will add to the primal and dual graphs, in order from crossEdge.value1 to
-        // crossEdge.value2
-        List<Vertex> crossVertices = new ArrayList<Vertex>(path.size() - 1);
-        for (int i = 0; i < path.size() - 1; i++) {
-            crossVertices.add(graph.createVertex());
+        Map<Integer, Vertex> starts = validStarts(
+            crossEdge.value1, crossEdge.value2, graphConstraints.get(crossEdge.value1), dual);
+        Map<Integer, Vertex> ends = validStarts(
+            crossEdge.value2, crossEdge.value1, graphConstraints.get(crossEdge.value2), dual);
+        List<Integer> path = pathFinder.findPath(dual, starts.keySet(), ends.keySet());
+        if (path == null || path.isEmpty()) {
+            return false;
         }
-        List<DualVertex> faces1 = new ArrayList<DualVertex>(path.size());
-        List<DualVertex> faces2 = new ArrayList<DualVertex>(path.size());
+
+        // Compute the edges to cross.  faces.get(i) is the face preceding the i'th crossing, and the last element of
+        // "faces" is the face following the last crossing.
+        List<UnorderedPair<Vertex>> crossedEdges = new ArrayList<UnorderedPair<Vertex>>(path.size());
+        List<Integer> faces = new ArrayList<Integer>(path.size() + 1);
         for (int i = 0; i < path.size(); i++) {
-            faces1.add(new DualVertex());
-            faces2.add(new DualVertex());
+            int halfEdge = crossedEdge(
+                dual, path.get(i), i == 0 ? crossEdge.value1 : null, i + 1 == path.size() ? crossEdge.value2 : null);
+            crossedEdges.add(new UnorderedPair<Vertex>(dual.source(halfEdge), dual.target(halfEdge)));
+            faces.add(dual.face(halfEdge));
         }
+        faces.add(dual.face(dual.twin(path.get(path.size() - 1))));
 
         // Add the crossings
+        List<Vertex> crossVertices = new ArrayList<Vertex>(path.size());
+        for (int i = 0; i < path.size(); i++) {
+            crossVertices.add(graph.createVertex());
+        }
         Vertex firstAddedVertex = crossVertices.get(0);
         Vertex lastAddedVertex = crossVertices.get(crossVertices.size() - 1);
-        for (int i = 0; i < path.size() - 1; i++) {
+        for (int i = 0; i < path.size(); i++) {
             // Compute the vertices on the path that are adjacent to crossVertices.get(i)
             Vertex crossingStart;
             if (i > 0) {
@@ -915,58 +642,24 @@ public class EcPlanarEmbeddingWithCrossings {
                 crossingStart = crossEdge.value1;
             }
             Vertex crossingEnd;
-            if (i + 2 < path.size()) {
+            if (i + 1 < path.size()) {
                 crossingEnd = crossVertices.get(i + 1);
             } else {
                 crossingEnd = crossEdge.value2;
             }
 
-            // Compute the edge to cross
+            // Add a non-crossing vertex if the crossing would otherwise result in a repeated edge
             Vertex crossVertex = crossVertices.get(i);
-            DualVertex face = path.get(i);
-            UnorderedPair<DualVertex> dualEdge = new UnorderedPair<DualVertex>(face, path.get(i + 1));
-            UnorderedPair<Vertex> edge = null;
-            for (UnorderedPair<Vertex> curEdge : dualEdgeToEdges.get(dualEdge)) {
-                if ((i > 0 || (curEdge.value1 != crossEdge.value1 && curEdge.value2 != crossEdge.value1)) &&
-                        (i + 2 < path.size() ||
-                            (curEdge.value1 != crossEdge.value2 && curEdge.value2 != crossEdge.value2))) {
-                    edge = curEdge;
-                    break;
-                }
+            UnorderedPair<Vertex> edge = crossedEdges.get(i);
+            if (i == 0 && (edge.value1 == crossEdge.value1 || edge.value2 == crossEdge.value1)) {
+                firstAddedVertex = graph.createVertex();
+                crossEdge.value1.addEdge(firstAddedVertex);
+                crossingStart = firstAddedVertex;
             }
-            if (edge == null) {
-                edge = dualEdgeToEdges.get(dualEdge).iterator().next();
-
-                // Add a non-crossing vertex
-                if (i == 0 && (edge.value1 == crossEdge.value1 || edge.value2 == crossEdge.value1)) {
-                    firstAddedVertex = graph.createVertex();
-                    crossEdge.value1.addEdge(firstAddedVertex);
-                    crossingStart = firstAddedVertex;
-
-                    // Add the nextClockwise.get(firstAddedVertex) and nextCounterclockwise.get(firstAddedVertex)
-                    // entries
-                    Map<Vertex, Vertex> addedVertexNextClockwise = new HashMap<Vertex, Vertex>();
-                    addedVertexNextClockwise.put(crossEdge.value1, crossVertex);
-                    addedVertexNextClockwise.put(crossVertex, crossEdge.value1);
-                    nextClockwise.put(firstAddedVertex, addedVertexNextClockwise);
-                    Map<Vertex, Vertex> addedVertexNextCounterclockwise = new HashMap<Vertex, Vertex>(
-                        addedVertexNextClockwise);
-                    nextCounterclockwise.put(firstAddedVertex, addedVertexNextCounterclockwise);
-                }
-                if (i + 2 >= path.size() && (edge.value1 == crossEdge.value2 || edge.value2 == crossEdge.value2)) {
-                    lastAddedVertex = graph.createVertex();
-                    crossVertex.addEdge(lastAddedVertex);
-                    crossingEnd = lastAddedVertex;
-
-                    // Add the nextClockwise.get(lastAddedVertex) and nextCounterclockwise.get(lastAddedVertex) entries
-                    Map<Vertex, Vertex> addedVertexNextClockwise = new HashMap<Vertex, Vertex>();
-                    addedVertexNextClockwise.put(crossVertex, crossEdge.value2);
-                    addedVertexNextClockwise.put(crossEdge.value2, crossVertex);
-                    nextClockwise.put(lastAddedVertex, addedVertexNextClockwise);
-                    Map<Vertex, Vertex> addedVertexNextCounterclockwise = new HashMap<Vertex, Vertex>(
-                        addedVertexNextClockwise);
-                    nextCounterclockwise.put(lastAddedVertex, addedVertexNextCounterclockwise);
-                }
+            if (i + 1 == path.size() && (edge.value1 == crossEdge.value2 || edge.value2 == crossEdge.value2)) {
+                lastAddedVertex = graph.createVertex();
+                crossVertex.addEdge(lastAddedVertex);
+                crossingEnd = lastAddedVertex;
             }
 
             // Add the crossing
@@ -975,70 +668,8 @@ public class EcPlanarEmbeddingWithCrossings {
             crossingStart.addEdge(crossVertex);
             addCrossing(
                 edge.value1, edge.value2, crossVertex, crossings, graphVertexToVertex, replacements,
-                replacementsInverse, constraints, graphConstraints, nextClockwise, nextCounterclockwise);
-
-            if (i == 0) {
-                // Add the edge from crossEdge.value1 to firstAddedVertex to nextClockwise and nextCounterclockwise
-                Map<Vertex, Vertex> nextClockwise1 = nextClockwise.get(crossEdge.value1);
-                Map<Vertex, Vertex> nextCounterclockwise1 = nextCounterclockwise.get(crossEdge.value1);
-                Vertex successor1 = starts.get(path.get(0));
-                if (firstAddedVertex != crossVertex && (edge.value1 == successor1 || edge.value2 == successor1)) {
-                    successor1 = crossVertex;
-                }
-                Vertex predecessor1 = nextCounterclockwise1.get(successor1);
-                nextClockwise1.put(predecessor1, firstAddedVertex);
-                nextClockwise1.put(firstAddedVertex, successor1);
-                nextCounterclockwise1.put(successor1, firstAddedVertex);
-                nextCounterclockwise1.put(firstAddedVertex, predecessor1);
-            }
-            if (i == path.size() - 2) {
-                // Add the edge from crossEdge.value2 to lastAddedVertex to nextClockwise and nextCounterclockwise
-                Map<Vertex, Vertex> nextClockwise2 = nextClockwise.get(crossEdge.value2);
-                Map<Vertex, Vertex> nextCounterclockwise2 = nextCounterclockwise.get(crossEdge.value2);
-                Vertex successor2 = ends.get(path.get(path.size() - 1));
-                if (lastAddedVertex != crossVertex && (edge.value1 == successor2 || edge.value2 == successor2)) {
-                    successor2 = crossVertex;
-                }
-                Vertex predecessor2 = nextCounterclockwise2.get(successor2);
-                nextClockwise2.put(predecessor2, lastAddedVertex);
-                nextClockwise2.put(lastAddedVertex, successor2);
-                nextCounterclockwise2.put(successor2, lastAddedVertex);
-                nextCounterclockwise2.put(lastAddedVertex, predecessor2);
-            }
-
-            // Add the edges from crossVertex to nextClockwise and nextCounterclockwise
-            Vertex endpoint1;
-            Vertex endpoint2;
-            if (rightFaces.get(edge.value1).get(edge.value2) == face) {
-                endpoint1 = edge.value1;
-                endpoint2 = edge.value2;
-            } else {
-                endpoint1 = edge.value2;
-                endpoint2 = edge.value1;
-            }
-            Map<Vertex, Vertex> crossVertexNextClockwise = new HashMap<Vertex, Vertex>();
-            crossVertexNextClockwise.put(crossingStart, endpoint1);
-            crossVertexNextClockwise.put(endpoint1, crossingEnd);
-            crossVertexNextClockwise.put(crossingEnd, endpoint2);
-            crossVertexNextClockwise.put(endpoint2, crossingStart);
-            nextClockwise.put(crossVertex, crossVertexNextClockwise);
-            Map<Vertex, Vertex> crossVertexNextCounterclockwise = new HashMap<Vertex, Vertex>();
-            for (Entry<Vertex, Vertex> entry : crossVertexNextClockwise.entrySet()) {
-                crossVertexNextCounterclockwise.put(entry.getValue(), entry.getKey());
-            }
-            nextCounterclockwise.put(crossVertex, crossVertexNextCounterclockwise);
-
-            // Remove "edge" from the dual graph
-            setDualEdge(edge, null, edgeToDualEdge, dualEdgeToEdges);
-            rightFaces.get(edge.value1).remove(edge.value2);
-            rightFaces.get(edge.value2).remove(edge.value1);
-
-            // Split the face preceding the crossing in the dual graph
-            splitFace(
-                i, face, faces1, faces2, crossVertex, crossingStart, firstAddedVertex, lastAddedVertex,
-                crossEdge.value2, edgeToDualEdge, dualEdgeToEdges, rightFaces, nextClockwise, nextCounterclockwise);
+                replacementsInverse, constraints, graphConstraints, dual);
         }
-
         crossEdge.value2.addEdge(lastAddedVertex);
 
         // Update the entries in "replacements", replacementsInverse, and graphConstraints for crossEdge.value1 and
@@ -1052,40 +683,58 @@ public class EcPlanarEmbeddingWithCrossings {
         replaceVertices(crossEdge.value1, constraints.get(vertex1), graphConstraints, replacements1);
         replaceVertices(crossEdge.value2, constraints.get(vertex2), graphConstraints, replacements2);
 
-        // Split the last face in the dual graph
-        splitFace(
-            path.size() - 1, path.get(path.size() - 1), faces1, faces2, lastAddedVertex,
-            crossVertices.get(crossVertices.size() - 1), firstAddedVertex, lastAddedVertex, crossEdge.value2,
-            edgeToDualEdge, dualEdgeToEdges, rightFaces, nextClockwise, nextCounterclockwise);
+        // Add the edges of the path to "dual", in order.  Each edge that ends at a crossing vertex or at
+        // crossEdge.value2 splits the face containing it.  Only the first crossing can subdivide the edge from
+        // crossEdge.value1 to its successor, since the successor's edge is in the first face, and likewise for the
+        // last crossing and crossEdge.value2.
+        Vertex successor1 = starts.get(faces.get(0));
+        if (crossedEdges.get(0).equals(new UnorderedPair<Vertex>(crossEdge.value1, successor1))) {
+            successor1 = crossVertices.get(0);
+        }
+        Vertex prevVertex = crossEdge.value1;
+        Vertex prevSuccessor = successor1;
+        if (firstAddedVertex != crossVertices.get(0)) {
+            dual.addEdge(crossEdge.value1, successor1, firstAddedVertex, null);
+            prevVertex = firstAddedVertex;
+            prevSuccessor = crossEdge.value1;
+        }
+        for (int i = 0; i < path.size(); i++) {
+            Vertex crossVertex = crossVertices.get(i);
+            Vertex adjVertex = crossedEdges.get(i).value1;
+            dual.addEdge(
+                prevVertex, prevSuccessor, crossVertex, successorInFace(dual, crossVertex, adjVertex, faces.get(i)));
+            prevVertex = crossVertex;
+            prevSuccessor = successorInFace(dual, crossVertex, adjVertex, faces.get(i + 1));
+        }
+
+        Vertex lastCrossVertex = crossVertices.get(crossVertices.size() - 1);
+        Vertex successor2 = ends.get(faces.get(faces.size() - 1));
+        if (crossedEdges.get(crossedEdges.size() - 1).equals(new UnorderedPair<Vertex>(crossEdge.value2, successor2))) {
+            successor2 = lastCrossVertex;
+        }
+        if (lastAddedVertex != lastCrossVertex) {
+            dual.addEdge(prevVertex, prevSuccessor, lastAddedVertex, null);
+            prevVertex = lastAddedVertex;
+            prevSuccessor = lastCrossVertex;
+        }
+        dual.addEdge(prevVertex, prevSuccessor, crossEdge.value2, successor2);
+        return true;
     }
 
     /**
-     * Adds the edges suggested by crossEdges with crossings that maintain an ec-planar embedding, and updates
-     * graphConstraints to reflect this change.  Assumes that it is impossible to add each edge in crossEdges without
-     * crossings.  Assumes that we have not added any crossings prior to calling addCrossings.
-     * @param graph The output graph.
-     * @param crossEdges The edges to add.  The vertices are output graph vertices.
+     * Initializes the "replacements" and replacementsInverse maps for addCrossEdge, given an output graph to which we
+     * have not added any crossings.
      * @param graphVertexToVertex A map from each vertex in the output graph that has a corresponding vertex in the
      *     input graph to the corresponding vertex.
-     * @param constraints A map from each constrained vertex in the input graph to the root node of its constraint tree.
-     *     It is okay for a vertex not to have a constraint tree.
-     * @param graphConstraints A map from each constrained vertex in the output graph to the root node of its constraint
-     *     tree.  This is equivalent to "constraints", but it refers to vertices in the output graph rather than
-     *     vertices in the input graph, and it excludes edges in the input graph that do not yet have a corresponding
-     *     path in the output graph.
-     * @param crossings A map from each crossing vertex we added to the output graph to the corresponding Crossing
-     *     object.
+     * @param replacements The map to which to add a map from each vertex V in the input graph to a map from each
+     *     adjacent vertex W to the first vertex in the path in the output graph corresponding to the edge from V to W
+     *     after the vertex corresponding to V.
+     * @param replacementsInverse The map to which to add a map from each key of "replacements" to the inverse of the
+     *     associated value in "replacements".
      */
-    private static Map<Vertex, Crossing> addCrossings(
-            Graph graph, Collection<UnorderedPair<Vertex>> crossEdges, Map<Vertex, Vertex> graphVertexToVertex,
-            Map<Vertex, EcNode> constraints, Map<Vertex, EcNode> graphConstraints) {
-        if (crossEdges.isEmpty()) {
-            return Collections.emptyMap();
-        }
-
-        // Initialize "replacements" and replacementsInverse
-        Map<Vertex, Map<Vertex, Vertex>> replacements = new HashMap<Vertex, Map<Vertex, Vertex>>();
-        Map<Vertex, Map<Vertex, Vertex>> replacementsInverse = new HashMap<Vertex, Map<Vertex, Vertex>>();
+    private static void initReplacements(
+            Map<Vertex, Vertex> graphVertexToVertex, Map<Vertex, Map<Vertex, Vertex>> replacements,
+            Map<Vertex, Map<Vertex, Vertex>> replacementsInverse) {
         for (Vertex graphVertex : graphVertexToVertex.keySet()) {
             Map<Vertex, Vertex> vertexReplacements = new HashMap<Vertex, Vertex>();
             Map<Vertex, Vertex> vertexReplacementsInverse = new HashMap<Vertex, Vertex>();
@@ -1098,68 +747,207 @@ public class EcPlanarEmbeddingWithCrossings {
             replacements.put(vertex, vertexReplacements);
             replacementsInverse.put(vertex, vertexReplacementsInverse);
         }
+    }
 
-        PlanarEmbedding embedding = EcPlanarEmbedding.embed(graph.vertices.iterator().next(), graphConstraints);
-        DualGraph dual = DualGraph.compute(embedding);
-
-        // Compute nextClockwise and nextCounterclockwise from embedding.clockwiseOrder
-        Map<Vertex, Map<Vertex, Vertex>> nextClockwise = new HashMap<Vertex, Map<Vertex, Vertex>>();
-        Map<Vertex, Map<Vertex, Vertex>> nextCounterclockwise = new HashMap<Vertex, Map<Vertex, Vertex>>();
-        for (Entry<Vertex, List<Vertex>> entry : embedding.clockwiseOrder.entrySet()) {
-            List<Vertex> clockwiseOrder = entry.getValue();
-            Map<Vertex, Vertex> vertexNextClockwise = new HashMap<Vertex, Vertex>();
-            for (int i = 0; i < clockwiseOrder.size() - 1; i++) {
-                vertexNextClockwise.put(clockwiseOrder.get(i), clockwiseOrder.get(i + 1));
-            }
-            vertexNextClockwise.put(clockwiseOrder.get(clockwiseOrder.size() - 1), clockwiseOrder.get(0));
+    /**
+     * Adds the edges suggested by crossEdges with crossings that maintain an ec-planar embedding, and updates the
+     * bookkeeping represented in the arguments to reflect this change.  Assumes that it is impossible to add each edge
+     * in crossEdges without crossings.  We find the crossings using the dual graph of a single ec-planar embedding of
+     * the output graph, which respects the crossings we have already added.  Returns false if we were unable to add
+     * one of the edges, in which case the bookkeeping may be in an inconsistent state.
+     * @param graph The output graph.
+     * @param crossEdges The edges to add.  The vertices are output graph vertices.
+     * @param crossings A map from each crossing vertex in the output graph to the corresponding Crossing object.  This
+     *     method adds the crossings it creates to this map.
+     * @param graphVertexToVertex A map from each vertex in the output graph that has a corresponding vertex in the
+     *     input graph to the corresponding vertex.
+     * @param replacements A map from each vertex V in the input graph to a map from each adjacent vertex W to the first
+     *     vertex in the path in the output graph corresponding to the edge from V to W after the vertex corresponding
+     *     to V.
+     * @param replacementsInverse A map from each key of "replacements" to the inverse of the associated value in
+     *     "replacements".
+     * @param constraints A map from each constrained vertex in the input graph to the root node of its constraint tree.
+     *     It is okay for a vertex not to have a constraint tree.
+     * @param graphConstraints A map from each constrained vertex in the output graph to the root node of its constraint
+     *     tree.  This is equivalent to "constraints", but it refers to vertices in the output graph rather than
+     *     vertices in the input graph, and it excludes edges in the input graph that do not yet have a corresponding
+     *     path in the output graph.  It excludes the constraints for the crossing vertices.
+     * @param planarization The MultiStartPlanarization whose run we are performing, or null.  If this is non-null, we
+     *     check planarization.shouldStop() before adding each edge, and we return false if it returns true.
+     * @return Whether we added the edges.
+     */
+    static boolean addCrossings(
+            Graph graph, Collection<UnorderedPair<Vertex>> crossEdges, Map<Vertex, Crossing> crossings,
+            Map<Vertex, Vertex> graphVertexToVertex, Map<Vertex, Map<Vertex, Vertex>> replacements,
+            Map<Vertex, Map<Vertex, Vertex>> replacementsInverse, Map<Vertex, EcNode> constraints,
+            Map<Vertex, EcNode> graphConstraints, MultiStartPlanarization planarization) {
+        if (crossEdges.isEmpty()) {
+            return true;
+        }
 
-            Map<Vertex, Vertex> vertexNextCounterclockwise = new HashMap<Vertex, Vertex>();
-            vertexNextCounterclockwise.put(clockwiseOrder.get(0), clockwiseOrder.get(clockwiseOrder.size() - 1));
-            for (int i = 0; i < clockwiseOrder.size() - 1; i++) {
-                vertexNextCounterclockwise.put(clockwiseOrder.get(i + 1), clockwiseOrder.get(i));
-            }
+        Map<Vertex, EcNode> allConstraints = new HashMap<Vertex, EcNode>(graphConstraints);
+        addCrossingConstraints(crossings, allConstraints);
+        PlanarEmbedding embedding = EcPlanarEmbedding.embed(graph.vertices.iterator().next(), allConstraints);
+        if (embedding == null) {
+            return false;
+        }
+        DynamicDualGraph dual = DynamicDualGraph.create(embedding);
+        DualPathFinder pathFinder = new DualPathFinder();
 
-            Vertex vertex = entry.getKey();
-            nextClockwise.put(vertex, vertexNextClockwise);
-            nextCounterclockwise.put(vertex, vertexNextCounterclockwise);
+        // Add the edges
+        for (UnorderedPair<Vertex> crossEdge : crossEdges) {
+            if (shouldStop(planarization) || !addCrossEdge(
+                    crossEdge, graph, crossings, dual, pathFinder, graphVertexToVertex, replacements,
+                    replacementsInverse, constraints, graphConstraints)) {
+                return false;
+            }
         }
+        return true;
+    }
+
+    /**
+     * Returns whether "planarization" is non-null and planarization.shouldStop() returns true, meaning we should
+     * abandon the run we are performing for it.
+     */
+    private static boolean shouldStop(MultiStartPlanarization planarization) {
+        return planarization != null && planarization.shouldStop();
+    }
 
-        // Compute edgeToDualEdge and dualEdgeToEdges from "dual"
-        Map<MultiVertex, DualVertex> dualVertices = new HashMap<MultiVertex, DualVertex>();
-        for (MultiVertex multiVertex : dual.graph.vertices) {
-            dualVertices.put(multiVertex, new DualVertex());
+    /**
+     * Adds a MIRROR constraint for each crossing vertex to "constraints", which ensures that the two paths through the
+     * crossing vertex really do cross each other.
+     * @param crossings A map from each crossing vertex we added to the output graph to the corresponding Crossing
+     *     object.
+     * @param constraints The map to which to add the constraints.
+     */
+    static void addCrossingConstraints(Map<Vertex, Crossing> crossings, Map<Vertex, EcNode> constraints) {
+        for (Entry<Vertex, Crossing> entry : crossings.entrySet()) {
+            Crossing crossing = entry.getValue();
+            EcNode node = EcNode.create(null, EcNode.Type.MIRROR);
+            EcNode.createVertex(node, crossing.start1);
+            EcNode.createVertex(node, crossing.start2);
+            EcNode.createVertex(node, crossing.end1);
+            EcNode.createVertex(node, crossing.end2);
+            constraints.put(entry.getKey(), node);
         }
-        Map<UnorderedPair<Vertex>, UnorderedPair<DualVertex>> edgeToDualEdge =
-            new HashMap<UnorderedPair<Vertex>, UnorderedPair<DualVertex>>();
-        Map<UnorderedPair<DualVertex>, Set<UnorderedPair<Vertex>>> dualEdgeToEdges =
-            new HashMap<UnorderedPair<DualVertex>, Set<UnorderedPair<Vertex>>>();
-        for (Entry<UnorderedPair<Vertex>, UnorderedPair<MultiVertex>> entry : dual.edgeToDualEdge.entrySet()) {
-            UnorderedPair<Vertex> edge = entry.getKey();
-            UnorderedPair<MultiVertex> multiVertexEdge = entry.getValue();
-            UnorderedPair<DualVertex> dualEdge = new UnorderedPair<DualVertex>(
-                dualVertices.get(multiVertexEdge.value1), dualVertices.get(multiVertexEdge.value2));
-            setDualEdge(edge, dualEdge, edgeToDualEdge, dualEdgeToEdges);
+    }
+
+    /**
+     * Adds the edge crossEdge to the output graph with crossings, as in addCrossEdge, but using a path that crosses a
+     * minimum number of edges over all ec-planar embeddings of the output graph, as computed by
+     * VariableEmbeddingInsertion.  Returns false if we were unable to compute such a path, in which case the output
+     * graph and bookkeeping may be in an inconsistent state.
+     * @param crossEdge The edge to add.  The vertices are output graph vertices.
+     * @param graph The output graph.
+     * @param crossings A map from each crossing vertex in the output graph to the corresponding Crossing object.
+     * @param graphVertexToVertex A map from each vertex in the output graph that has a corresponding vertex in the
+     *     input graph to the corresponding vertex.
+     * @param replacements A map from each vertex V in the input graph to a map from each adjacent vertex W to the first
+     *     vertex in the path in the output graph corresponding to the edge from V to W after the vertex corresponding
+     *     to V.
+     * @param replacementsInverse A map from each key of "replacements" to a map that is the same as the associated
+     *     value in "replacements", but with keys and values reversed.
+     * @param constraints A map from each constrained vertex in the input graph to the root node of its constraint tree.
+     *     It is okay for a vertex not to have a constraint tree.
+     * @param graphConstraints A map from each constrained vertex in the output graph to the root node of its constraint
+     *     tree.  This is equivalent to "constraints", but it refers to vertices in the output graph rather than
+     *     vertices in the input graph, and it excludes edges in the input graph that do not yet have a corresponding
+     *     path in the output graph.
+     * @return Whether we added the edge.
+     */
+    static boolean addCrossEdgeWithVariableEmbedding(
+            UnorderedPair<Vertex> crossEdge, Graph graph, Map<Vertex, Crossing> crossings,
+            Map<Vertex, Vertex> graphVertexToVertex, Map<Vertex, Map<Vertex, Vertex>> replacements,
+            Map<Vertex, Map<Vertex, Vertex>> replacementsInverse, Map<Vertex, EcNode> constraints,
+            Map<Vertex, EcNode> graphConstraints) {
+        // Add the edge to graphConstraints
+        Vertex vertex1 = graphVertexToVertex.get(crossEdge.value1);
+        Vertex vertex2 = graphVertexToVertex.get(crossEdge.value2);
+        Map<Vertex, Vertex> replacements1 = replacements.get(vertex1);
+        Map<Vertex, Vertex> replacements2 = replacements.get(vertex2);
+        replacements1.put(vertex2, crossEdge.value2);
+        replacements2.put(vertex1, crossEdge.value1);
+        replaceVertices(crossEdge.value1, constraints.get(vertex1), graphConstraints, replacements1);
+        replaceVertices(crossEdge.value2, constraints.get(vertex2), graphConstraints, replacements2);
+
+        Map<Vertex, EcNode> allConstraints = new HashMap<Vertex, EcNode>(graphConstraints);
+        addCrossingConstraints(crossings, allConstraints);
+        List<UnorderedPair<Vertex>> crossedEdges = VariableEmbeddingInsertion.crossedEdges(
+            crossEdge.value1, crossEdge.value2, allConstraints);
+        if (crossedEdges == null) {
+            return false;
         }
 
-        // Compute rightFaces from "dual"
-        Map<Vertex, Map<Vertex, DualVertex>> rightFaces = new HashMap<Vertex, Map<Vertex, DualVertex>>();
-        for (Vertex vertex : graph.vertices) {
-            Map<Vertex, DualVertex> vertexRightFaces = new HashMap<Vertex, DualVertex>();
-            for (Vertex adjVertex : vertex.edges) {
-                vertexRightFaces.put(adjVertex, dualVertices.get(dual.rightFace(vertex, adjVertex)));
+        // Compute the vertices of the path corresponding to crossEdge.  We add a non-crossing vertex at either end if
+        // the first or last crossed edge is adjacent to the endpoint, in order to avoid multiple edges between the same
+        // pair of vertices.
+        List<Vertex> path = new ArrayList<Vertex>(crossedEdges.size() + 4);
+        path.add(crossEdge.value1);
+        if (!crossedEdges.isEmpty()) {
+            UnorderedPair<Vertex> firstEdge = crossedEdges.get(0);
+            if (firstEdge.value1 == crossEdge.value1 || firstEdge.value2 == crossEdge.value1) {
+                path.add(graph.createVertex());
             }
-            rightFaces.put(vertex, vertexRightFaces);
         }
+        int firstCrossingIndex = path.size();
+        for (int i = 0; i < crossedEdges.size(); i++) {
+            path.add(graph.createVertex());
+        }
+        if (!crossedEdges.isEmpty()) {
+            UnorderedPair<Vertex> lastEdge = crossedEdges.get(crossedEdges.size() - 1);
+            if (lastEdge.value1 == crossEdge.value2 || lastEdge.value2 == crossEdge.value2) {
+                path.add(graph.createVertex());
+            }
+        }
+        path.add(crossEdge.value2);
 
-        // Add the edges
-        Map<Vertex, Crossing> crossings = new HashMap<Vertex, Crossing>();
+        // Add the crossings
+        for (int i = 0; i < crossedEdges.size(); i++) {
+            UnorderedPair<Vertex> edge = crossedEdges.get(i);
+            int index = firstCrossingIndex + i;
+            Vertex crossVertex = path.get(index);
+            crossings.put(
+                crossVertex, new Crossing(path.get(index - 1), path.get(index + 1), edge.value1, edge.value2));
+            addCrossing(
+                edge.value1, edge.value2, crossVertex, crossings, graphVertexToVertex, replacements,
+                replacementsInverse, constraints, graphConstraints, null);
+        }
+        for (int i = 0; i < path.size() - 1; i++) {
+            path.get(i).addEdge(path.get(i + 1));
+        }
+
+        // Update the entries in "replacements", replacementsInverse, and graphConstraints for crossEdge.value1 and
+        // crossEdge.value2
+        Vertex firstAddedVertex = path.get(1);
+        Vertex lastAddedVertex = path.get(path.size() - 2);
+        replacements1.put(vertex2, firstAddedVertex);
+        replacementsInverse.get(vertex1).put(firstAddedVertex, vertex2);
+        replacements2.put(vertex1, lastAddedVertex);
+        replacementsInverse.get(vertex2).put(lastAddedVertex, vertex1);
+        replaceVertices(crossEdge.value1, constraints.get(vertex1), graphConstraints, replacements1);
+        replaceVertices(crossEdge.value2, constraints.get(vertex2), graphConstraints, replacements2);
+        return true;
+    }
+
+    /**
+     * Adds the edges suggested by crossEdges with crossings that maintain ec-planarity, and updates the bookkeeping
+     * represented in the arguments to reflect this change, as in addCrossings, but using
+     * addCrossEdgeWithVariableEmbedding to add each edge.  Returns false if we were unable to compute an insertion
+     * path for one of the edges, or if planarization.shouldStop() returned true before we added one of the edges.
+     */
+    private static boolean addCrossingsWithVariableEmbedding(
+            Graph graph, Collection<UnorderedPair<Vertex>> crossEdges, Map<Vertex, Crossing> crossings,
+            Map<Vertex, Vertex> graphVertexToVertex, Map<Vertex, Map<Vertex, Vertex>> replacements,
+            Map<Vertex, Map<Vertex, Vertex>> replacementsInverse, Map<Vertex, EcNode> constraints,
+            Map<Vertex, EcNode> graphConstraints, MultiStartPlanarization planarization) {
         for (UnorderedPair<Vertex> crossEdge : crossEdges) {
-            addCrossEdge(
-                crossEdge, graph, crossings, edgeToDualEdge, dualEdgeToEdges, rightFaces,
-                nextClockwise, nextCounterclockwise, graphVertexToVertex, replacements, replacementsInverse,
-                constraints, graphConstraints);
+            if (shouldStop(planarization) || !addCrossEdgeWithVariableEmbedding(
+                    crossEdge, graph, crossings, graphVertexToVertex, replacements, replacementsInverse, constraints,
+                    graphConstraints)) {
+                return false;
+            }
         }
-        return crossings;
+        return true;
     }
 
     /**
@@ -1176,7 +964,7 @@ public class EcPlanarEmbeddingWithCrossings {
      *     Crossing.end2.  This method adds to "visited2" whenever is visits such an edge.
      * @return The vertices of the path, starting with firstVertex and secondVertex.
      */
-    private static List<Vertex> crossingPath(
+    static List<Vertex> crossingPath(
             Vertex firstVertex, Vertex secondVertex, Map<Vertex, Crossing> crossings, Set<Vertex> nonAddedVertices,
             Set<Vertex> visited1, Set<Vertex> visited2) {
         List<Vertex> path = new ArrayList<Vertex>();
@@ -1281,23 +1069,37 @@ public class EcPlanarEmbeddingWithCrossings {
     }
 
     /**
-     * Returns a PlanarEmbeddingWithCrossings that gives an ec-planar embedding of the connected component containing
-     * "start", after adding crossings.  If possible, this does not add any crossings or other vertices.
-     * @param start The vertex.
-     * @param constraints A map from each constrained vertex to the root node of its constraint tree.  It is okay for a
-     *     vertex not to have a constraint tree.
-     * @return The ec-planar embedding.
+     * Returns a map that is the same as "constraints", but with non-branching nodes removed from each constraint tree,
+     * as in removeNonBranchingNodes(EcNode, EcNode).  This avoids asymptotically worse performance.
      */
-    public static PlanarEmbeddingWithCrossings embed(Vertex start, Map<Vertex, EcNode> constraints) {
-        EcPlanarEmbedding.assertValid(constraints);
-
-        // Remove non-branching nodes to avoid asymptotically worse performance
+    private static Map<Vertex, EcNode> removeNonBranchingNodes(Map<Vertex, EcNode> constraints) {
         Map<Vertex, EcNode> newConstraints = new HashMap<Vertex, EcNode>();
         for (Entry<Vertex, EcNode> entry : constraints.entrySet()) {
             newConstraints.put(entry.getKey(), removeNonBranchingNodes(entry.getValue(), null));
         }
-        constraints = newConstraints;
+        return newConstraints;
+    }
 
+    /**
+     * Returns a PlanarEmbeddingWithCrossings that gives an ec-planar embedding of the connected component containing
+     * "start", after adding crossings.  If possible, this does not add any crossings or other vertices.  This returns
+     * null if we were unable to add one of the edges with crossings, or if "mode" is InsertionMode.VARIABLE_EMBEDDING
+     * and we were unable to compute an ec-planar embedding using that technique.  This also returns null if we
+     * abandoned the computation because planarization.shouldStop() returned true.
+     * @param start The vertex.
+     * @param constraints A map from each constrained vertex to the root node of its constraint tree.  It is okay for a
+     *     vertex not to have a constraint tree.  The constraint trees must not have any non-branching nodes.
+     * @param mode The technique to use to add the edges that require crossings.
+     * @param random The random number generator to use to shuffle the order in which we visit each vertex's edges, or
+     *     null to visit them in the order of iteration over Vertex.edges.
+     * @param maxReinsertionPasses The maximum number of passes of CrossingReinsertion.reinsertEdges to perform.
+     * @param planarization The MultiStartPlanarization whose run we are performing, or null.  If this is non-null, we
+     *     periodically check planarization.shouldStop(), and we abandon the computation if it returns true.
+     * @return The ec-planar embedding.
+     */
+    private static PlanarEmbeddingWithCrossings tryEmbed(
+            Vertex start, Map<Vertex, EcNode> constraints, InsertionMode mode, Random random,
+            int maxReinsertionPasses, MultiStartPlanarization planarization) {
         Graph graph = new Graph();
         Vertex graphStart = graph.createVertex();
         Map<Vertex, Vertex> vertexToGraphVertex = new HashMap<Vertex, Vertex>();
@@ -1308,6 +1110,7 @@ public class EcPlanarEmbeddingWithCrossings {
         // Iterate over the edges in the connected component using breadth-first search.  Add any edges that do not make
         // an ec-planar embedding impossible without crossings.
         Map<Vertex, EcNode> graphConstraints = new HashMap<Vertex, EcNode>();
+        IncrementalEcPlanarEmbedding incrementalEmbedding = new IncrementalEcPlanarEmbedding(graphStart);
         Map<Vertex, Map<Vertex, Vertex>> replacements = new HashMap<Vertex, Map<Vertex, Vertex>>();
         replacements.put(start, new HashMap<Vertex, Vertex>());
         Set<UnorderedPair<Vertex>> visited = new HashSet<UnorderedPair<Vertex>>();
@@ -1316,9 +1119,20 @@ public class EcPlanarEmbeddingWithCrossings {
         while (!level.isEmpty()) {
             Collection<Vertex> nextLevel = new ArrayList<Vertex>();
             for (Vertex vertex : level) {
+                if (shouldStop(planarization)) {
+                    return null;
+                }
                 Vertex graphVertex = vertexToGraphVertex.get(vertex);
                 Map<Vertex, Vertex> vertexReplacements = replacements.get(vertex);
-                for (Vertex adjVertex : vertex.edges) {
+                Collection<Vertex> adjVertices;
+                if (random == null) {
+                    adjVertices = vertex.edges;
+                } else {
+                    List<Vertex> shuffledAdjVertices = new ArrayList<Vertex>(vertex.edges);
+                    Collections.shuffle(shuffledAdjVertices, random);
+                    adjVertices = shuffledAdjVertices;
+                }
+                for (Vertex adjVertex : adjVertices) {
                     Vertex graphAdjVertex = vertexToGraphVertex.get(adjVertex);
                     if (graphAdjVertex == null) {
                         graphAdjVertex = graph.createVertex();
@@ -1345,8 +1159,7 @@ public class EcPlanarEmbeddingWithCrossings {
                         graphAdjVertex, constraints.get(adjVertex), graphConstraints, adjVertexReplacements);
 
                     graphVertex.addEdge(graphAdjVertex);
-                    PlanarEmbedding embedding = EcPlanarEmbedding.embed(graphStart, graphConstraints);
-                    if (embedding == null) {
+                    if (!incrementalEmbedding.addEdge(graphVertex, graphAdjVertex, graphConstraints)) {
                         crossEdges.add(edge);
                         graphVertex.removeEdge(graphAdjVertex);
 
@@ -1362,18 +1175,45 @@ public class EcPlanarEmbeddingWithCrossings {
             level = nextLevel;
         }
 
-        Map<Vertex, Crossing> crossings = addCrossings(
-            graph, crossEdges, graphVertexToVertex, constraints, graphConstraints);
+        // Add the remaining edges with crossings
+        replacements = new HashMap<Vertex, Map<Vertex, Vertex>>();
+        Map<Vertex, Map<Vertex, Vertex>> replacementsInverse = new HashMap<Vertex, Map<Vertex, Vertex>>();
+        initReplacements(graphVertexToVertex, replacements, replacementsInverse);
+        Map<Vertex, Crossing> crossings = new HashMap<Vertex, Crossing>();
+        if (mode == InsertionMode.FIXED_EMBEDDING) {
+            if (!addCrossings(
+                    graph, crossEdges, crossings, graphVertexToVertex, replacements, replacementsInverse, constraints,
+                    graphConstraints, planarization)) {
+                return null;
+            }
+        } else if (!addCrossingsWithVariableEmbedding(
+                graph, crossEdges, crossings, graphVertexToVertex, replacements, replacementsInverse, constraints,
+                graphConstraints, planarization)) {
+            return null;
+        }
+
+        if (maxReinsertionPasses > 0 && !crossings.isEmpty()) {
+            CrossingReinsertion reinsertion = new CrossingReinsertion(
+                graph, mode, crossings, vertexToGraphVertex, graphVertexToVertex, replacements, replacementsInverse,
+                constraints, graphConstraints);
+            reinsertion.reinsertEdges(maxReinsertionPasses);
+        }
 
         Set<Vertex> orphanedAddedVertices = new HashSet<Vertex>();
         Map<UnorderedPair<Vertex>, List<Vertex>> addedVertices = addedVertices(
             crossings, graphVertexToVertex, orphanedAddedVertices);
         if (!orphanedAddedVertices.isEmpty()) {
             // Contract each orphaned added vertex with an adjacent vertex
-            for (Vertex orphanedVertex : orphanedAddedVertices) {
+            for (Iterator<Vertex> orphanedIterator = orphanedAddedVertices.iterator(); orphanedIterator.hasNext();) {
+                Vertex orphanedVertex = orphanedIterator.next();
                 Iterator<Vertex> iterator = orphanedVertex.edges.iterator();
                 Vertex adjVertex1 = iterator.next();
                 Vertex adjVertex2 = iterator.next();
+                if (adjVertex1.edges.contains(adjVertex2)) {
+                    // Contracting the vertex would result in multiple edges between the same pair of vertices
+                    orphanedIterator.remove();
+                    continue;
+                }
                 orphanedVertex.removeEdge(adjVertex1);
                 orphanedVertex.removeEdge(adjVertex2);
                 graph.vertices.remove(orphanedVertex);
@@ -1418,17 +1258,185 @@ public class EcPlanarEmbeddingWithCrossings {
         }
 
         // Add a mirror constraint for each crossing to ensure that it really is a crossing
-        for (Entry<Vertex, Crossing> entry : crossings.entrySet()) {
-            Crossing crossing = entry.getValue();
-            EcNode node = EcNode.create(null, EcNode.Type.MIRROR);
-            EcNode.createVertex(node, crossing.start1);
-            EcNode.createVertex(node, crossing.start2);
-            EcNode.createVertex(node, crossing.end1);
-            EcNode.createVertex(node, crossing.end2);
-            graphConstraints.put(entry.getKey(), node);
-        }
+        addCrossingConstraints(crossings, graphConstraints);
 
         PlanarEmbedding embedding = EcPlanarEmbedding.embed(graphStart, graphConstraints);
+        if (embedding == null && mode == InsertionMode.VARIABLE_EMBEDDING) {
+            return null;
+        }
         return new PlanarEmbeddingWithCrossings(graph, embedding, vertexToGraphVertex, addedVertices);
     }
+
+    /**
+     * Returns a PlanarEmbeddingWithCrossings that gives an ec-planar embedding of the connected component containing
+     * "start", after adding crossings.  If possible, this does not add any crossings or other vertices.
+     * @param start The vertex.
+     * @param constraints A map from each constrained vertex to the root node of its constraint tree.  It is okay for a
+     *     vertex not to have a constraint tree.
+     * @param mode The technique to use to add the edges that require crossings.  If this is
+     *     InsertionMode.VARIABLE_EMBEDDING and we are unable to add the edges using that technique, we fall back to
+     *     InsertionMode.FIXED_EMBEDDING.
+     * @param random The random number generator to use to shuffle the order in which we add the edges, or null to add
+     *     them in a deterministic order.  The number of crossings depends heavily on the order in which we add the
+     *     edges, so computing several embeddings using different random orders and taking the best one tends to
+     *     reduce the number of crossings.  See MultiStartPlanarization.
+     * @param maxReinsertionPasses The maximum number of post-processing passes to perform after adding all of the
+     *     edges.  In each pass, we remove each edge that has crossings and add it again using "mode", keeping the new
+     *     path if it reduces the number of crossings.  We stop early if a pass does not reduce the number of crossings.
+     *     If this is 0, we do not perform any post-processing.
+     * @return The ec-planar embedding.
+     */
+    public static PlanarEmbeddingWithCrossings embed(
+            Vertex start, Map<Vertex, EcNode> constraints, InsertionMode mode, Random random,
+            int maxReinsertionPasses) {
+        return embed(start, constraints, mode, random, maxReinsertionPasses, null);
+    }
+
+    /**
+     * Returns the same result as embed(start, constraints, mode, random, maxReinsertionPasses), except that if
+     * "planarization" is non-null, we periodically check planarization.shouldStop(), and we abandon the computation
+     * and return null if it returns true.  We check it between the edges we add to the planar subgraph and between
+     * the edges we add with crossings, so a MultiStartPlanarization can stop a run that is in progress.
+     */
+    static PlanarEmbeddingWithCrossings embed(
+            Vertex start, Map<Vertex, EcNode> constraints, InsertionMode mode, Random random,
+            int maxReinsertionPasses, MultiStartPlanarization planarization) {
+        if (maxReinsertionPasses < 0) {
+            throw new IllegalArgumentException("The maximum number of reinsertion passes may not be negative");
+        }
+        EcPlanarEmbedding.assertValid(constraints);
+        Map<Vertex, EcNode> newConstraints = removeNonBranchingNodes(constraints);
+        PlanarEmbeddingWithCrossings embedding = tryEmbed(
+            start, newConstraints, mode, random, maxReinsertionPasses, planarization);
+        if (embedding == null && mode == InsertionMode.VARIABLE_EMBEDDING && !shouldStop(planarization)) {
+            embedding = tryEmbed(
+                start, newConstraints, InsertionMode.FIXED_EMBEDDING, random, maxReinsertionPasses, planarization);
+        }
+        if (embedding == null && !shouldStop(planarization)) {
+            throw new IllegalStateException("Failed to add an edge with crossings");
+        }
+        return embedding;
+    }
+
+    /**
+     * Returns a PlanarEmbeddingWithCrossings that gives an ec-planar embedding of the connected component containing
+     * "start", after adding crossings.  If possible, this does not add any crossings or other vertices.  This is
+     * equivalent to embed(start, constraints, mode, random, 0).
+     * @param start The vertex.
+     * @param constraints A map from each constrained vertex to the root node of its constraint tree.  It is okay for a
+     *     vertex not to have a constraint tree.
+     * @param mode The technique to use to add the edges that require crossings.
+     * @param random The random number generator to use to shuffle the order in which we add the edges, or null to add
+     *     them in a deterministic order.
+     * @return The ec-planar embedding.
+     */
+    public static PlanarEmbeddingWithCrossings embed(
+            Vertex start, Map<Vertex, EcNode> constraints, InsertionMode mode, Random random) {
+        return embed(start, constraints, mode, random, 0);
+    }
+
+    /**
+     * Returns a PlanarEmbeddingWithCrossings that gives an ec-planar embedding of the connected component containing
+     * "start", after adding crossings.  If possible, this does not add any crossings or other vertices.  This is
+     * equivalent to embed(start, constraints, mode, null).
+     * @param start The vertex.
+     * @param constraints A map from each constrained vertex to the root node of its constraint tree.  It is okay for a
+     *     vertex not to have a constraint tree.
+     * @param mode The technique to use to add the edges that require crossings.  If this is
+     *     InsertionMode.VARIABLE_EMBEDDING and we are unable to add the edges using that technique, we fall back to
+     *     InsertionMode.FIXED_EMBEDDING.
+     * @return The ec-planar embedding.
+     */
+    public static PlanarEmbeddingWithCrossings embed(
+            Vertex start, Map<Vertex, EcNode> constraints, InsertionMode mode) {
+        return embed(start, constraints, mode, null);
+    }
+
+    /**
+     * Returns a PlanarEmbeddingWithCrossings that gives an ec-planar embedding of the connected component containing
+     * "start", after adding crossings.  If possible, this does not add any crossings or other vertices.  This is
+     * equivalent to embed(start, constraints, InsertionMode.FIXED_EMBEDDING).
+     * @param start The vertex.
+     * @param constraints A map from each constrained vertex to the root node of its constraint tree.  It is okay for a
+     *     vertex not to have a constraint tree.
+     * @return The ec-planar embedding.
+     */
+    public static PlanarEmbeddingWithCrossings embed(Vertex start, Map<Vertex, EcNode> constraints) {
+        return embed(start, constraints, InsertionMode.FIXED_EMBEDDING);
+    }
+
+    /**
+     * Returns the number of crossings in the PlanarEmbeddingWithCrossings for the connected component containing
+     * "start" using each InsertionMode, along with the running times.  This adds the edges in the same deterministic
+     * order in both modes, as in embed(start, constraints, mode), so that the results are directly comparable.
+     * @param start The vertex.
+     * @param constraints A map from each constrained vertex to the root node of its constraint tree.  It is okay for a
+     *     vertex not to have a constraint tree.
+     * @return The comparison.
+     */
+    public static InsertionModeComparison compareInsertionModes(Vertex start, Map<Vertex, EcNode> constraints) {
+        EcPlanarEmbedding.assertValid(constraints);
+        Map<Vertex, EcNode> newConstraints = removeNonBranchingNodes(constraints);
+
+        long startNanos = System.nanoTime();
+        PlanarEmbeddingWithCrossings fixedEmbedding = tryEmbed(
+            start, newConstraints, InsertionMode.FIXED_EMBEDDING, null, 0, null);
+        long fixedNanos = System.nanoTime() - startNanos;
+
+        startNanos = System.nanoTime();
+        PlanarEmbeddingWithCrossings variableEmbedding = tryEmbed(
+            start, newConstraints, InsertionMode.VARIABLE_EMBEDDING, null, 0, null);
+        long variableNanos = System.nanoTime() - startNanos;
+
+        int fixedCrossingCount;
+        if (fixedEmbedding == null || fixedEmbedding.embedding == null) {
+            fixedCrossingCount = -1;
+        } else {
+            fixedCrossingCount = fixedEmbedding.crossingCount();
+        }
+        int variableCrossingCount;
+        if (variableEmbedding == null) {
+            variableCrossingCount = -1;
+        } else {
+            variableCrossingCount = variableEmbedding.crossingCount();
+        }
+        return new InsertionModeComparison(fixedCrossingCount, variableCrossingCount, fixedNanos, variableNanos);
+    }
+
+    /**
+     * Returns PlanarEmbeddingWithCrossings objects that give ec-planar embeddings of each connected component of the
+     * specified graph, as in embed.  This computes the embeddings concurrently, using the shared ForkJoinPool in
+     * ParallelComponents.
+     * @param graph The graph.
+     * @param constraints A map from each constrained vertex to the root node of its constraint tree.  It is okay for a
+     *     vertex not to have a constraint tree.  The map must not change while this method is running.
+     * @return A map from an arbitrary vertex in each component to the ec-planar embedding of that component.  The keys
+     *     are the vertices returned by ParallelComponents.componentStarts(graph), in the same order.
+     */
+    public static Map<Vertex, PlanarEmbeddingWithCrossings> embedAll(
+            Graph graph, final Map<Vertex, EcNode> constraints) {
+        return embedAll(graph, constraints, InsertionMode.FIXED_EMBEDDING);
+    }
+
+    /**
+     * Returns PlanarEmbeddingWithCrossings objects that give ec-planar embeddings of each connected component of the
+     * specified graph, as in embed(start, constraints, mode).  This computes the embeddings concurrently, using the
+     * shared ForkJoinPool in ParallelComponents.
+     * @param graph The graph.
+     * @param constraints A map from each constrained vertex to the root node of its constraint tree.  It is okay for a
+     *     vertex not to have a constraint tree.  The map must not change while this method is running.
+     * @param mode The technique to use to add the edges that require crossings.
+     * @return A map from an arbitrary vertex in each component to the ec-planar embedding of that component.  The keys
+     *     are the vertices returned by ParallelComponents.componentStarts(graph), in the same order.
+     */
+    public static Map<Vertex, PlanarEmbeddingWithCrossings> embedAll(
+            Graph graph, final Map<Vertex, EcNode> constraints, final InsertionMode mode) {
+        EcPlanarEmbedding.assertValid(constraints);
+        return ParallelComponents.compute(graph, new ComponentAlgorithm<PlanarEmbeddingWithCrossings>() {
+            @Override
+            public PlanarEmbeddingWithCrossings compute(Vertex start) {
+                return embed(start, constraints, mode);
+            }
+        });
+    }
 }
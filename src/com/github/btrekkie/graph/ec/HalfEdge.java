@@ -24,13 +24,11 @@ class HalfEdge {
     public HalfEdge nextClockwise;
 
     /**
-     * The next edge on a possible external face of the skeleton in clockwise order, if it is known that this edge may
-     * be an external face and remain compatible with the clockwise ordering of vertices for the planar embedding.  The
-     * HalfEdges of a possible external face are in the clockwise direction, with each HalfEdge starting at the end of
-     * the previous HalfEdge.  We represent all possible external faces of nodes of type SpqrNode.Type.P and
-     * SpqrNode.Type.S and one possible external face of nodes of type SpqrNode.Type.R.
+     * The next edge on the face of the skeleton containing this edge, in clockwise order.  The HalfEdges of a face are
+     * in the clockwise direction, with each HalfEdge starting at the end of the previous HalfEdge.  Each HalfEdge lies
+     * on exactly one face, so we represent every face of the skeleton.
      */
-    public HalfEdge nextOnExternalFace;
+    public HalfEdge nextOnFace;
 
     /**
      * The matching virtual edge, or null if isVirtual is false.  This is a HalfEdge from another SpqrNode in the same
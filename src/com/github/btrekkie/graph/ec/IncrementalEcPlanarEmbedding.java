@@ -0,0 +1,545 @@
+package com.github.btrekkie.graph.ec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
+
+/**
+ * Maintains an ec-planar embedding of the connected component containing a given start vertex while edges are added to
+ * the graph one at a time, in order to answer whether the graph remains ec-planar after each addition.  This gives the
+ * same answers as calling EcPlanarEmbedding.embed after each addition, but it is typically much faster.
+ */
+/* We keep the clockwise ordering of the edges around each vertex in the component as a cyclic linked list, along with
+ * an identifier for the face of each "angle", i.e. each pair of consecutive edges around a vertex.  To test whether we
+ * may add an edge, we look for a face that contains both endpoints at angles where inserting the edge satisfies the
+ * endpoints' constraints.  If there is such a face, then inserting the edge there splits the face in two and keeps the
+ * embedding ec-planar, so the graph is ec-planar.  When we split a face, we relabel the smaller of the two resulting
+ * faces, by walking around both faces in tandem.  If there is no such face, the graph may still have a different
+ * ec-planar embedding, so we fall back to EcPlanarEmbedding.embed and rebuild our state from its result.  We perform
+ * the fallback using an EcEmbeddingContext, which embeds the blocks containing the endpoints first, so if the graph is
+ * not ec-planar, we find out without embedding the rest of the graph.
+ *
+ * Rather than checking the constraints separately for each angle at an endpoint, we compute the set of valid angles
+ * all at once.  The current clockwise ordering satisfies the constraint tree with the new edge's leaf removed, so the
+ * new edge must go in a gap between the children of the lowest ancestor of its leaf that has another child with edges
+ * in the ordering, as dictated by the type of the ancestor.
+ *
+ * Edges to vertices that do not yet have any edges always fall into the first case, because an edge whose endpoint has
+ * degree one can be inserted at any angle that satisfies the constraints for the other endpoint, and there is always
+ * such an angle.  In particular, when the edges are added in breadth-first search order, the full ec-planarity test is
+ * limited to the non-tree edges that cannot be inserted into the current embedding.
+ */
+public class IncrementalEcPlanarEmbedding {
+    /** The vertex whose connected component we are embedding. */
+    private final Vertex start;
+
+    /**
+     * A map from each vertex in the connected component containing "start" to a map from each adjacent vertex to the
+     * next adjacent vertex in the clockwise direction.
+     */
+    private Map<Vertex, Map<Vertex, Vertex>> nextClockwise = new HashMap<Vertex, Map<Vertex, Vertex>>();
+
+    /**
+     * A map from each vertex V in the connected component containing "start" to a map from each adjacent vertex W to
+     * the identifier of the face containing the angle at V that immediately follows the edge from V to W in the
+     * clockwise direction.
+     */
+    private Map<Vertex, Map<Vertex, Integer>> faces = new HashMap<Vertex, Map<Vertex, Integer>>();
+
+    /** The identifier to use for the next face we create. */
+    private int nextFaceId;
+
+    /** The context we use to compute ec-planar embeddings from scratch. */
+    private EcEmbeddingContext context = new EcEmbeddingContext();
+
+    public IncrementalEcPlanarEmbedding(Vertex start) {
+        this.start = start;
+        nextClockwise.put(start, new HashMap<Vertex, Vertex>());
+        faces.put(start, new LinkedHashMap<Vertex, Integer>());
+    }
+
+    /**
+     * Adds the positions of the leaf vertices in the subtree rooted at "node" to leafPositions.  We skip vertices that
+     * do not have positions.
+     */
+    private static void addLeafPositions(EcNode node, Map<Vertex, Integer> positions, List<Integer> leafPositions) {
+        if (node.type == EcNode.Type.VERTEX) {
+            Integer position = positions.get(node.vertex);
+            if (position != null) {
+                leafPositions.add(position);
+            }
+        } else {
+            for (EcNode child : node.children) {
+                addLeafPositions(child, positions, leafPositions);
+            }
+        }
+    }
+
+    /**
+     * Adds the nodes in the subtree rooted at "node" that have leaf vertices with positions to nodesWithPositions.
+     * Returns whether "node" has any such leaf vertices.
+     */
+    private static boolean addNodesWithPositions(
+            EcNode node, Map<Vertex, Integer> positions, Set<EcNode> nodesWithPositions) {
+        boolean hasPositions;
+        if (node.type == EcNode.Type.VERTEX) {
+            hasPositions = positions.containsKey(node.vertex);
+        } else {
+            hasPositions = false;
+            for (EcNode child : node.children) {
+                hasPositions = addNodesWithPositions(child, positions, nodesWithPositions) || hasPositions;
+            }
+        }
+        if (hasPositions) {
+            nodesWithPositions.add(node);
+        }
+        return hasPositions;
+    }
+
+    /**
+     * Returns the first and last positions in the specified range of positions in a cyclic ordering, as a two-element
+     * array.  Assumes that the positions are contiguous and that they are not all of the positions in the ordering.
+     * @param rangePositions The positions in the range, in an arbitrary order.
+     * @param marks An array of false values whose length is the number of positions in the ordering.  This method
+     *     temporarily changes the array, but it restores it before returning.
+     * @return The range.
+     */
+    private static int[] range(List<Integer> rangePositions, boolean[] marks) {
+        for (int position : rangePositions) {
+            marks[position] = true;
+        }
+        int[] range = new int[2];
+        for (int position : rangePositions) {
+            if (!marks[(position + marks.length - 1) % marks.length]) {
+                range[0] = position;
+            }
+            if (!marks[(position + 1) % marks.length]) {
+                range[1] = position;
+            }
+        }
+        for (int position : rangePositions) {
+            marks[position] = false;
+        }
+        return range;
+    }
+
+    /**
+     * Adds the children of "node" that have leaf vertices with positions to "children", and adds the positions of the
+     * leaf vertices of each such child to childPositions.
+     */
+    private static void addChildPositions(
+            EcNode node, Map<Vertex, Integer> positions, List<EcNode> children, List<List<Integer>> childPositions) {
+        for (EcNode child : node.children) {
+            List<Integer> curChildPositions = new ArrayList<Integer>();
+            addLeafPositions(child, positions, curChildPositions);
+            if (!curChildPositions.isEmpty()) {
+                children.add(child);
+                childPositions.add(curChildPositions);
+            }
+        }
+    }
+
+    /**
+     * Adds the gaps at which we may insert a new child of a node to "gaps", given that the leaf vertices of the node's
+     * other children occupy all of the positions in the cyclic ordering.  We identify the gap following position P by
+     * the number P.
+     * @param type The type of the node.
+     * @param children The other children of the node, in order, excluding those without any leaf vertices.
+     * @param childPositions The positions of the leaf vertices of each element of "children".
+     * @param insertIndex The index in "children" at which the new child belongs, i.e. the number of elements of
+     *     "children" that precede it in the node's children.
+     * @param positions A map from each vertex in the ordering to its position.
+     * @param marks An array of false values whose length is the number of positions in the ordering.
+     * @param gaps The set to which to add the gaps.
+     */
+    private static void addCyclicGaps(
+            EcNode.Type type, List<EcNode> children, List<List<Integer>> childPositions, int insertIndex,
+            Map<Vertex, Integer> positions, boolean[] marks, Set<Integer> gaps) {
+        if (children.size() == 1) {
+            // The child occupies all of the positions, so we may insert the new child at any gap at which we may split
+            // the cyclic ordering of the child's leaves into a linear ordering.  This is equivalent to inserting a new
+            // child at the beginning of the children of the highest descendant with two children that have leaf
+            // vertices with positions.
+            Set<EcNode> nodesWithPositions = new HashSet<EcNode>();
+            addNodesWithPositions(children.get(0), positions, nodesWithPositions);
+            EcNode node = children.get(0);
+            while (node.type != EcNode.Type.VERTEX) {
+                EcNode childWithPositions = null;
+                int count = 0;
+                for (EcNode child : node.children) {
+                    if (nodesWithPositions.contains(child)) {
+                        childWithPositions = child;
+                        count++;
+                    }
+                }
+                if (count > 1) {
+                    break;
+                }
+                node = childWithPositions;
+            }
+
+            if (node.type == EcNode.Type.VERTEX) {
+                gaps.add(positions.get(node.vertex));
+            } else {
+                List<EcNode> grandchildren = new ArrayList<EcNode>();
+                List<List<Integer>> grandchildPositions = new ArrayList<List<Integer>>();
+                addChildPositions(node, positions, grandchildren, grandchildPositions);
+                addCyclicGaps(node.type, grandchildren, grandchildPositions, 0, positions, marks, gaps);
+            }
+            return;
+        }
+
+        List<int[]> ranges = new ArrayList<int[]>(children.size());
+        for (List<Integer> curChildPositions : childPositions) {
+            ranges.add(range(curChildPositions, marks));
+        }
+        if (type == EcNode.Type.GROUP || (type == EcNode.Type.MIRROR && children.size() == 2)) {
+            for (int[] range : ranges) {
+                gaps.add(range[1]);
+            }
+        } else {
+            // The new child must go between the children that precede and follow it
+            int[] prevRange = ranges.get((insertIndex + children.size() - 1) % children.size());
+            int[] nextRange = ranges.get(insertIndex % children.size());
+            if (type == EcNode.Type.ORIENTED || (prevRange[1] + 1) % marks.length == nextRange[0]) {
+                gaps.add(prevRange[1]);
+            } else {
+                gaps.add(nextRange[1]);
+            }
+        }
+    }
+
+    /** Returns the leaf node for the specified vertex in the subtree rooted at "node", or null if there is none. */
+    private static EcNode leafNode(EcNode node, Vertex vertex) {
+        if (node.type == EcNode.Type.VERTEX) {
+            return node.vertex == vertex ? node : null;
+        }
+        for (EcNode child : node.children) {
+            EcNode leafNode = leafNode(child, vertex);
+            if (leafNode != null) {
+                return leafNode;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the adjacent vertices W of "vertex" such that inserting the edge from "vertex" to adjVertex immediately
+     * clockwise relative to the edge from "vertex" to W satisfies the constraints for "vertex", or null if every
+     * position satisfies them.  This takes time proportional to the degree of "vertex" plus the size of its constraint
+     * tree, rather than checking the constraints separately for each position.
+     * @param vertex The vertex.
+     * @param adjVertex The vertex at the other end of the edge we are inserting.
+     * @param constraint The root node of the constraint tree for "vertex", or null if it does not have one.
+     * @return The vertices W.
+     */
+    private Set<Vertex> validPrevVertices(Vertex vertex, Vertex adjVertex, EcNode constraint) {
+        if (constraint == null) {
+            return null;
+        }
+
+        // Number the adjacent vertices in clockwise order
+        Map<Vertex, Vertex> vertexNextClockwise = nextClockwise.get(vertex);
+        List<Vertex> order = new ArrayList<Vertex>(vertexNextClockwise.size());
+        Map<Vertex, Integer> positions = new HashMap<Vertex, Integer>();
+        Vertex firstVertex = vertexNextClockwise.keySet().iterator().next();
+        Vertex curVertex = firstVertex;
+        do {
+            positions.put(curVertex, order.size());
+            order.add(curVertex);
+            curVertex = vertexNextClockwise.get(curVertex);
+        } while (curVertex != firstVertex);
+
+        // Find the lowest ancestor "parent" of the leaf node for adjVertex with another child that has a leaf vertex
+        // in "positions".  The current ordering satisfies the constraints other than those of "parent" and its
+        // ancestors, and the node "child" containing adjVertex must go in one of the gaps between the siblings.
+        EcNode child = leafNode(constraint, adjVertex);
+        EcNode parent = child.parent;
+        List<EcNode> siblings = new ArrayList<EcNode>();
+        List<List<Integer>> siblingPositions = new ArrayList<List<Integer>>();
+        int insertIndex = 0;
+        while (parent != null) {
+            for (EcNode sibling : parent.children) {
+                if (sibling == child) {
+                    insertIndex = siblings.size();
+                } else {
+                    List<Integer> curSiblingPositions = new ArrayList<Integer>();
+                    addLeafPositions(sibling, positions, curSiblingPositions);
+                    if (!curSiblingPositions.isEmpty()) {
+                        siblings.add(sibling);
+                        siblingPositions.add(curSiblingPositions);
+                    }
+                }
+            }
+            if (!siblings.isEmpty()) {
+                break;
+            }
+            child = parent;
+            parent = parent.parent;
+        }
+        if (parent == null) {
+            return null;
+        }
+
+        int size = order.size();
+        int positionCount = 0;
+        for (List<Integer> curSiblingPositions : siblingPositions) {
+            positionCount += curSiblingPositions.size();
+        }
+        final boolean[] marks = new boolean[size];
+        Set<Integer> gaps = new HashSet<Integer>();
+        if (positionCount == size) {
+            // "parent" is effectively the root, so its children are ordered cyclically
+            addCyclicGaps(parent.type, siblings, siblingPositions, insertIndex, positions, marks, gaps);
+        } else {
+            // Compute the siblings' ranges and sort them in the order in which they appear in the range for "parent"
+            List<Integer> parentPositions = new ArrayList<Integer>(positionCount);
+            for (List<Integer> curSiblingPositions : siblingPositions) {
+                parentPositions.addAll(curSiblingPositions);
+            }
+            final int parentStart = range(parentPositions, marks)[0];
+            final Map<EcNode, int[]> ranges = new HashMap<EcNode, int[]>();
+            for (int i = 0; i < siblings.size(); i++) {
+                ranges.put(siblings.get(i), range(siblingPositions.get(i), marks));
+            }
+            List<EcNode> sortedSiblings = new ArrayList<EcNode>(siblings);
+            Collections.sort(sortedSiblings, new Comparator<EcNode>() {
+                @Override
+                public int compare(EcNode node1, EcNode node2) {
+                    int size = marks.length;
+                    return (ranges.get(node1)[0] - parentStart + size) % size -
+                        (ranges.get(node2)[0] - parentStart + size) % size;
+                }
+            });
+
+            // Determine the indices of the valid gaps.  Gap 0 precedes the first sibling, and gap i follows the i'th
+            // sibling.
+            List<Integer> gapIndices = new ArrayList<Integer>();
+            if (parent.type == EcNode.Type.GROUP || (parent.type == EcNode.Type.MIRROR && siblings.size() == 1)) {
+                for (int i = 0; i <= siblings.size(); i++) {
+                    gapIndices.add(i);
+                }
+            } else if (parent.type == EcNode.Type.ORIENTED || sortedSiblings.get(0) == siblings.get(0)) {
+                gapIndices.add(insertIndex);
+            } else {
+                gapIndices.add(siblings.size() - insertIndex);
+            }
+            for (int gapIndex : gapIndices) {
+                if (gapIndex == 0) {
+                    gaps.add((parentStart + size - 1) % size);
+                } else {
+                    gaps.add(ranges.get(sortedSiblings.get(gapIndex - 1))[1]);
+                }
+            }
+        }
+
+        Set<Vertex> validPrevVertices = new HashSet<Vertex>();
+        for (int gap : gaps) {
+            validPrevVertices.add(order.get(gap));
+        }
+        return validPrevVertices;
+    }
+
+    /**
+     * Sets the face identifiers for the angles in the face containing the angle at "vertex" that immediately follows
+     * the edge to adjVertex in the clockwise direction to "face".
+     */
+    private void setFace(Vertex vertex, Vertex adjVertex, int face) {
+        Vertex curVertex = vertex;
+        Vertex curAdjVertex = adjVertex;
+        do {
+            faces.get(curVertex).put(curAdjVertex, face);
+            Vertex nextVertex = nextClockwise.get(curVertex).get(curAdjVertex);
+            curAdjVertex = curVertex;
+            curVertex = nextVertex;
+        } while (curVertex != vertex || curAdjVertex != adjVertex);
+    }
+
+    /**
+     * Assigns a new face identifier to the smaller of the two faces containing the angles that immediately follow the
+     * edge from vertex1 to adjVertex1 and the edge from vertex2 to adjVertex2 in the clockwise direction.  This takes
+     * time proportional to the size of the smaller face.
+     */
+    private void relabelSmallerFace(Vertex vertex1, Vertex adjVertex1, Vertex vertex2, Vertex adjVertex2) {
+        // Walk around both faces in tandem until we have walked around one of them
+        Vertex curVertex1 = vertex1;
+        Vertex curAdjVertex1 = adjVertex1;
+        Vertex curVertex2 = vertex2;
+        Vertex curAdjVertex2 = adjVertex2;
+        while (true) {
+            Vertex nextVertex1 = nextClockwise.get(curVertex1).get(curAdjVertex1);
+            curAdjVertex1 = curVertex1;
+            curVertex1 = nextVertex1;
+            if (curVertex1 == vertex1 && curAdjVertex1 == adjVertex1) {
+                setFace(vertex1, adjVertex1, nextFaceId);
+                break;
+            }
+
+            Vertex nextVertex2 = nextClockwise.get(curVertex2).get(curAdjVertex2);
+            curAdjVertex2 = curVertex2;
+            curVertex2 = nextVertex2;
+            if (curVertex2 == vertex2 && curAdjVertex2 == adjVertex2) {
+                setFace(vertex2, adjVertex2, nextFaceId);
+                break;
+            }
+        }
+        nextFaceId++;
+    }
+
+    /**
+     * Inserts the edge from vertex1 to vertex2 into the embedding, immediately clockwise relative to the edge from
+     * vertex1 to prevVertex1 and the edge from vertex2 to prevVertex2.  Assumes that the angles following these edges
+     * are in the same face, unless vertex2 does not have any edges in the embedding, in which case prevVertex2 is null.
+     */
+    private void insert(Vertex vertex1, Vertex vertex2, Vertex prevVertex1, Vertex prevVertex2) {
+        Map<Vertex, Vertex> vertexNextClockwise1 = nextClockwise.get(vertex1);
+        Map<Vertex, Integer> vertexFaces1 = faces.get(vertex1);
+        Integer face = vertexFaces1.get(prevVertex1);
+        vertexNextClockwise1.put(vertex2, vertexNextClockwise1.get(prevVertex1));
+        vertexNextClockwise1.put(prevVertex1, vertex2);
+        vertexFaces1.put(vertex2, face);
+
+        if (prevVertex2 == null) {
+            Map<Vertex, Vertex> vertexNextClockwise2 = new HashMap<Vertex, Vertex>();
+            vertexNextClockwise2.put(vertex1, vertex1);
+            nextClockwise.put(vertex2, vertexNextClockwise2);
+            Map<Vertex, Integer> vertexFaces2 = new LinkedHashMap<Vertex, Integer>();
+            vertexFaces2.put(vertex1, face);
+            faces.put(vertex2, vertexFaces2);
+        } else {
+            Map<Vertex, Vertex> vertexNextClockwise2 = nextClockwise.get(vertex2);
+            vertexNextClockwise2.put(vertex1, vertexNextClockwise2.get(prevVertex2));
+            vertexNextClockwise2.put(prevVertex2, vertex1);
+            faces.get(vertex2).put(vertex1, face);
+            relabelSmallerFace(vertex1, prevVertex1, vertex2, prevVertex2);
+        }
+    }
+
+    /** Replaces the current embedding with the specified embedding of the connected component containing "start". */
+    private void setEmbedding(PlanarEmbedding embedding) {
+        nextClockwise = new HashMap<Vertex, Map<Vertex, Vertex>>();
+        faces = new HashMap<Vertex, Map<Vertex, Integer>>();
+        for (Entry<Vertex, List<Vertex>> entry : embedding.clockwiseOrder.entrySet()) {
+            List<Vertex> clockwiseOrder = entry.getValue();
+            Map<Vertex, Vertex> vertexNextClockwise = new HashMap<Vertex, Vertex>();
+            for (int i = 0; i < clockwiseOrder.size(); i++) {
+                vertexNextClockwise.put(clockwiseOrder.get(i), clockwiseOrder.get((i + 1) % clockwiseOrder.size()));
+            }
+            nextClockwise.put(entry.getKey(), vertexNextClockwise);
+            faces.put(entry.getKey(), new LinkedHashMap<Vertex, Integer>());
+        }
+        for (Entry<Vertex, List<Vertex>> entry : embedding.clockwiseOrder.entrySet()) {
+            Vertex vertex = entry.getKey();
+            Map<Vertex, Integer> vertexFaces = faces.get(vertex);
+            for (Vertex adjVertex : entry.getValue()) {
+                if (!vertexFaces.containsKey(adjVertex)) {
+                    setFace(vertex, adjVertex, nextFaceId);
+                    nextFaceId++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Responds to the addition of the edge from vertex1 to vertex2 to the graph.  Returns whether the connected
+     * component containing "start" is still ec-planar, i.e. whether EcPlanarEmbedding.embed(start, constraints) would
+     * return a non-null value.  If this returns false, the caller must remove the edge from the graph and restore
+     * "constraints" to its previous state before adding any more edges.
+     * @param vertex1 The first endpoint.
+     * @param vertex2 The second endpoint.
+     * @param constraints A map from each constrained vertex to the root node of its constraint tree, reflecting the
+     *     addition of the edge.  It is okay for a vertex not to have a constraint tree.
+     * @return Whether the component is still ec-planar.
+     */
+    public boolean addEdge(Vertex vertex1, Vertex vertex2, Map<Vertex, EcNode> constraints) {
+        boolean isInComponent1 = nextClockwise.containsKey(vertex1);
+        boolean isInComponent2 = nextClockwise.containsKey(vertex2);
+        if (!isInComponent1 && !isInComponent2) {
+            // The edge does not affect the connected component containing "start"
+            return true;
+        }
+        if (!isInComponent1) {
+            Vertex temp = vertex1;
+            vertex1 = vertex2;
+            vertex2 = temp;
+            isInComponent2 = false;
+        }
+
+        Map<Vertex, Vertex> vertexNextClockwise1 = nextClockwise.get(vertex1);
+        if (vertexNextClockwise1.isEmpty()) {
+            if (!isInComponent2 && vertex2.edges.size() == 1) {
+                // This is the first edge in the component
+                vertexNextClockwise1.put(vertex2, vertex2);
+                faces.get(vertex1).put(vertex2, nextFaceId);
+                Map<Vertex, Vertex> vertexNextClockwise2 = new HashMap<Vertex, Vertex>();
+                vertexNextClockwise2.put(vertex1, vertex1);
+                nextClockwise.put(vertex2, vertexNextClockwise2);
+                Map<Vertex, Integer> vertexFaces2 = new LinkedHashMap<Vertex, Integer>();
+                vertexFaces2.put(vertex1, nextFaceId);
+                faces.put(vertex2, vertexFaces2);
+                nextFaceId++;
+                return true;
+            }
+        } else if (!isInComponent2) {
+            if (vertex2.edges.size() == 1) {
+                // Insert a leaf edge at the first valid angle
+                Set<Vertex> validPrevVertices = validPrevVertices(vertex1, vertex2, constraints.get(vertex1));
+                for (Vertex prevVertex : faces.get(vertex1).keySet()) {
+                    if (validPrevVertices == null || validPrevVertices.contains(prevVertex)) {
+                        insert(vertex1, vertex2, prevVertex, null);
+                        return true;
+                    }
+                }
+            }
+        } else {
+            // Look for a face with valid angles at both endpoints.  We only check the constraints at the angles in
+            // faces that contain both endpoints.
+            Map<Integer, List<Vertex>> prevVertices1 = new HashMap<Integer, List<Vertex>>();
+            for (Entry<Vertex, Integer> entry : faces.get(vertex1).entrySet()) {
+                List<Vertex> facePrevVertices1 = prevVertices1.get(entry.getValue());
+                if (facePrevVertices1 == null) {
+                    facePrevVertices1 = new ArrayList<Vertex>();
+                    prevVertices1.put(entry.getValue(), facePrevVertices1);
+                }
+                facePrevVertices1.add(entry.getKey());
+            }
+            Set<Vertex> validPrevVertices1 = validPrevVertices(vertex1, vertex2, constraints.get(vertex1));
+            Set<Vertex> validPrevVertices2 = validPrevVertices(vertex2, vertex1, constraints.get(vertex2));
+            Set<Integer> visitedFaces = new HashSet<Integer>();
+            for (Entry<Vertex, Integer> entry : faces.get(vertex2).entrySet()) {
+                Integer face = entry.getValue();
+                List<Vertex> facePrevVertices1 = prevVertices1.get(face);
+                if (facePrevVertices1 != null && !visitedFaces.contains(face) &&
+                        (validPrevVertices2 == null || validPrevVertices2.contains(entry.getKey()))) {
+                    visitedFaces.add(face);
+                    for (Vertex prevVertex1 : facePrevVertices1) {
+                        if (validPrevVertices1 == null || validPrevVertices1.contains(prevVertex1)) {
+                            insert(vertex1, vertex2, prevVertex1, entry.getKey());
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Fall back to computing an ec-planar embedding from scratch.  We use an EcEmbeddingContext, so that we only
+        // re-expand the vertices whose edges or constraints changed since the last time we fell back, and so that if
+        // the graph is no longer ec-planar, we only embed the blocks containing the changed vertices.
+        PlanarEmbedding embedding = context.embed(start, constraints);
+        if (embedding == null) {
+            return false;
+        }
+        setEmbedding(embedding);
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.btrekkie.graph.ec;
+
+/**
+ * The results of computing a PlanarEmbeddingWithCrossings using each EcPlanarEmbeddingWithCrossings.InsertionMode, as
+ * returned by EcPlanarEmbeddingWithCrossings.compareInsertionModes.
+ */
+public class InsertionModeComparison {
+    /**
+     * The number of crossings using InsertionMode.FIXED_EMBEDDING, as in PlanarEmbeddingWithCrossings.crossingCount().
+     * This is -1 if we were unable to compute an ec-planar embedding using that mode.
+     */
+    public final int fixedCrossingCount;
+
+    /**
+     * The number of crossings using InsertionMode.VARIABLE_EMBEDDING, as in
+     * PlanarEmbeddingWithCrossings.crossingCount().  This is -1 if we were unable to compute an ec-planar embedding
+     * using that mode.  Unlike EcPlanarEmbeddingWithCrossings.embed, compareInsertionModes does not fall back to
+     * InsertionMode.FIXED_EMBEDDING in that case.
+     */
+    public final int variableCrossingCount;
+
+    /** The amount of time it took to compute the embedding using InsertionMode.FIXED_EMBEDDING, in nanoseconds. */
+    public final long fixedNanos;
+
+    /** The amount of time it took to compute the embedding using InsertionMode.VARIABLE_EMBEDDING, in nanoseconds. */
+    public final long variableNanos;
+
+    public InsertionModeComparison(
+            int fixedCrossingCount, int variableCrossingCount, long fixedNanos, long variableNanos) {
+        this.fixedCrossingCount = fixedCrossingCount;
+        this.variableCrossingCount = variableCrossingCount;
+        this.fixedNanos = fixedNanos;
+        this.variableNanos = variableNanos;
+    }
+}
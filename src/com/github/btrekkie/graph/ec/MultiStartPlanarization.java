@@ -0,0 +1,266 @@
+package com.github.btrekkie.graph.ec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import com.github.btrekkie.graph.ParallelComponents;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.ec.EcPlanarEmbeddingWithCrossings.InsertionMode;
+import com.github.btrekkie.graph.planar.PlanarEmbeddingWithCrossings;
+
+/**
+ * Computes a PlanarEmbeddingWithCrossings for a connected component by performing several runs of
+ * EcPlanarEmbeddingWithCrossings.embed concurrently, each with a different start vertex and a different random order
+ * of the edges, and keeping the result with the fewest crossings.  The number of crossings that
+ * EcPlanarEmbeddingWithCrossings produces depends heavily on the order in which it adds the edges, so this tends to
+ * produce fewer crossings than a single call to EcPlanarEmbeddingWithCrossings.embed, at the cost of additional
+ * computation.
+ *
+ * We stop early if a run produces at most a target number of crossings, if we exceed a time limit, or if another
+ * thread calls "cancel".  A MultiStartPlanarization is intended for a single call to "embed".  The statistics for the
+ * individual runs are available using "runs".
+ */
+/* Run 0 uses the specified start vertex and the deterministic edge order, so the result is never worse than that of
+ * EcPlanarEmbeddingWithCrossings.embed(start, constraints, mode).  Each other run uses a Random whose seed we obtain
+ * from a Random seeded with "seed", so the runs are reproducible.  The run uses the Random to pick a start vertex, and
+ * then it passes it to EcPlanarEmbeddingWithCrossings.embed.
+ *
+ * We perform the runs using MultiStartTask, which recursively splits ranges of runs in the same fashion as
+ * ComponentsTask.  Each run checks whether we should stop before it begins, and if so, it records that we skipped it.
+ * Runs that are in progress pass "this" to EcPlanarEmbeddingWithCrossings.embed, which checks shouldStop() between the
+ * edges it adds and abandons the run if it returns true.  We record abandoned runs as skipped, and we return the best
+ * of the runs that finished.  We always finish run 0, so that we have a result.
+ */
+public class MultiStartPlanarization {
+    /** The vertex whose connected component we are embedding. */
+    private final Vertex start;
+
+    /** A map from each constrained vertex to the root node of its constraint tree. */
+    private final Map<Vertex, EcNode> constraints;
+
+    /** The technique to use to add the edges that require crossings. */
+    private final InsertionMode mode;
+
+    /** The vertices in the connected component containing "start". */
+    private final List<Vertex> vertices;
+
+    /** The seeds of the Randoms for the runs.  seeds[i] is the seed for run i.  seeds[0] is unused. */
+    private final long[] seeds;
+
+    /**
+     * The number of crossings at or below which we stop performing additional runs, or -1 if we should perform all of
+     * the runs.
+     */
+    private final int targetCrossingCount;
+
+    /** The amount of time after which we stop starting additional runs and abandon runs in progress, in nanoseconds. */
+    private final long timeLimitNanos;
+
+    /** The value of System.nanoTime() when we started "embed", if we have started it. */
+    private long startNanos;
+
+    /** Whether we have started "embed". */
+    private boolean hasStarted;
+
+    /** Whether "cancel" has been called. */
+    private volatile boolean isCanceled;
+
+    /** Whether a run has produced at most targetCrossingCount crossings. */
+    private volatile boolean hasReachedTarget;
+
+    /** The statistics for the runs.  runs[i] is the statistics for run i, or null if it has not finished. */
+    private final PlanarizationRun[] runs;
+
+    /** The best result we have computed so far, or null if we have not finished any runs. */
+    private PlanarEmbeddingWithCrossings bestEmbedding;
+
+    /** The index of the run that produced bestEmbedding, or -1 if bestEmbedding is null. */
+    private int bestIndex = -1;
+
+    /**
+     * Constructs a new MultiStartPlanarization.
+     * @param start The vertex whose connected component we are embedding.
+     * @param constraints A map from each constrained vertex to the root node of its constraint tree.  It is okay for a
+     *     vertex not to have a constraint tree.  Neither the map nor the graph may change until "embed" returns.
+     * @param mode The technique to use to add the edges that require crossings.
+     * @param runCount The maximum number of runs to perform.  This must be positive.
+     * @param seed The seed from which to compute the random orders for the runs.
+     * @param targetCrossingCount The number of crossings at or below which we stop starting additional runs and
+     *     abandon the runs in progress other than run 0, or -1 if we should not stop early on account of the number of
+     *     crossings.
+     * @param timeLimitNanos The amount of time after the start of "embed" after which we stop starting additional
+     *     runs and abandon the runs in progress other than run 0, in nanoseconds.  Pass Long.MAX_VALUE for no time
+     *     limit.
+     */
+    public MultiStartPlanarization(
+            Vertex start, Map<Vertex, EcNode> constraints, InsertionMode mode, int runCount, long seed,
+            int targetCrossingCount, long timeLimitNanos) {
+        if (runCount <= 0) {
+            throw new IllegalArgumentException("The number of runs must be positive");
+        }
+        if (targetCrossingCount < -1) {
+            throw new IllegalArgumentException("The target number of crossings must be at least -1");
+        }
+        if (timeLimitNanos < 0) {
+            throw new IllegalArgumentException("The time limit may not be negative");
+        }
+        EcPlanarEmbedding.assertValid(constraints);
+        this.start = start;
+        this.constraints = constraints;
+        this.mode = mode;
+        this.targetCrossingCount = targetCrossingCount;
+        this.timeLimitNanos = timeLimitNanos;
+        vertices = new ArrayList<Vertex>(EcPlanarEmbedding.component(start));
+        seeds = new long[runCount];
+        Random random = new Random(seed);
+        for (int i = 1; i < runCount; i++) {
+            seeds[i] = random.nextLong();
+        }
+        runs = new PlanarizationRun[runCount];
+    }
+
+    /** Returns whether we should skip the runs that have not started yet and abandon the runs other than run 0. */
+    boolean shouldStop() {
+        return isCanceled || hasReachedTarget || System.nanoTime() - startNanos >= timeLimitNanos;
+    }
+
+    /**
+     * Returns whether the specified result is better than bestEmbedding.  A result that has an embedding is better
+     * than one that does not.  Otherwise, a result with fewer crossings is better, with ties broken in favor of the run
+     * with the lower index.
+     */
+    private boolean isBetter(PlanarEmbeddingWithCrossings embedding, int crossingCount, int index) {
+        if (bestEmbedding == null) {
+            return true;
+        } else if ((embedding.embedding == null) != (bestEmbedding.embedding == null)) {
+            return embedding.embedding != null;
+        } else {
+            int bestCrossingCount = runs[bestIndex].crossingCount;
+            return crossingCount < bestCrossingCount || (crossingCount == bestCrossingCount && index < bestIndex);
+        }
+    }
+
+    /** Stores the result of the specified run. */
+    private synchronized void addResult(PlanarizationRun run, PlanarEmbeddingWithCrossings embedding) {
+        runs[run.index] = run;
+        if (embedding != null && isBetter(embedding, run.crossingCount, run.index)) {
+            bestEmbedding = embedding;
+            bestIndex = run.index;
+        }
+    }
+
+    /**
+     * Performs the run with the specified index, or records that we skipped it if we should stop before it starts or
+     * while it is in progress.
+     */
+    void run(int index) {
+        if (index > 0 && shouldStop()) {
+            addResult(new PlanarizationRun(index, seeds[index], null, true, -1, -1, 0), null);
+            return;
+        }
+
+        long runStartNanos = System.nanoTime();
+        Random random;
+        Vertex runStart;
+        if (index == 0) {
+            random = null;
+            runStart = start;
+        } else {
+            random = new Random(seeds[index]);
+            runStart = vertices.get(random.nextInt(vertices.size()));
+        }
+        PlanarEmbeddingWithCrossings embedding = EcPlanarEmbeddingWithCrossings.embed(
+            runStart, constraints, mode, random, 0, index > 0 ? this : null);
+        if (embedding == null) {
+            // We abandoned the run
+            addResult(
+                new PlanarizationRun(index, seeds[index], runStart, true, -1, -1, System.nanoTime() - runStartNanos),
+                null);
+            return;
+        }
+
+        int crossingCount;
+        if (embedding.embedding == null) {
+            crossingCount = -1;
+        } else {
+            crossingCount = embedding.crossingCount();
+            if (crossingCount <= targetCrossingCount) {
+                hasReachedTarget = true;
+            }
+        }
+        addResult(
+            new PlanarizationRun(
+                index, seeds[index], runStart, false, crossingCount, embedding.graph.vertices.size(),
+                System.nanoTime() - runStartNanos),
+            embedding);
+    }
+
+    /**
+     * Performs the runs using the specified ForkJoinPool, and returns the result with the fewest crossings.  If a run
+     * was unable to compute a planar embedding, as indicated by a null PlanarEmbeddingWithCrossings.embedding field,
+     * we prefer any result that has one.
+     */
+    public PlanarEmbeddingWithCrossings embed(ForkJoinPool pool) {
+        synchronized (this) {
+            if (hasStarted) {
+                throw new IllegalStateException("embed may only be called once");
+            }
+            hasStarted = true;
+            startNanos = System.nanoTime();
+        }
+        if (runs.length == 1) {
+            run(0);
+        } else {
+            pool.invoke(new MultiStartTask(this, 0, runs.length));
+        }
+        synchronized (this) {
+            return bestEmbedding;
+        }
+    }
+
+    /**
+     * Performs the runs using the shared ForkJoinPool in ParallelComponents, and returns the result with the fewest
+     * crossings.  See embed(ForkJoinPool).
+     */
+    public PlanarEmbeddingWithCrossings embed() {
+        return embed(ParallelComponents.defaultPool());
+    }
+
+    /**
+     * Causes "embed" to skip the runs that have not started yet and to abandon the runs that are in progress, other
+     * than run 0.  This may be called from any thread, including before "embed" starts.
+     */
+    public void cancel() {
+        isCanceled = true;
+    }
+
+    /**
+     * Returns the statistics for the runs that we have finished or skipped so far, in order of their indices.  After
+     * "embed" returns, this contains all of the runs.
+     */
+    public synchronized List<PlanarizationRun> runs() {
+        List<PlanarizationRun> finishedRuns = new ArrayList<PlanarizationRun>();
+        for (PlanarizationRun run : runs) {
+            if (run != null) {
+                finishedRuns.add(run);
+            }
+        }
+        return Collections.unmodifiableList(finishedRuns);
+    }
+
+    /**
+     * Returns the statistics for the run that produced the result that "embed" returns, or the best result so far if
+     * "embed" has not finished.  Returns null if we have not finished any runs.
+     */
+    public synchronized PlanarizationRun bestRun() {
+        if (bestIndex < 0) {
+            return null;
+        } else {
+            return runs[bestIndex];
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.btrekkie.graph.ec;
+
+import java.util.concurrent.RecursiveAction;
+
+/** A task for performing a range of the runs of a MultiStartPlanarization.  See ComponentsTask. */
+class MultiStartTask extends RecursiveAction {
+    private static final long serialVersionUID = -2718540136309524623L;
+
+    /** The MultiStartPlanarization. */
+    private final MultiStartPlanarization planarization;
+
+    /** The index of the first run in the range. */
+    private final int startIndex;
+
+    /** The index immediately after the last run in the range. */
+    private final int endIndex;
+
+    public MultiStartTask(MultiStartPlanarization planarization, int startIndex, int endIndex) {
+        this.planarization = planarization;
+        this.startIndex = startIndex;
+        this.endIndex = endIndex;
+    }
+
+    @Override
+    protected void compute() {
+        if (endIndex - startIndex == 1) {
+            planarization.run(startIndex);
+        } else {
+            int midIndex = (startIndex + endIndex) / 2;
+            invokeAll(
+                new MultiStartTask(planarization, startIndex, midIndex),
+                new MultiStartTask(planarization, midIndex, endIndex));
+        }
+    }
+}
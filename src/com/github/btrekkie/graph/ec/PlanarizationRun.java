@@ -0,0 +1,49 @@
+package com.github.btrekkie.graph.ec;
+
+import com.github.btrekkie.graph.Vertex;
+
+/** Statistics about a single run of a MultiStartPlanarization. */
+public class PlanarizationRun {
+    /** The index of the run.  Run 0 uses the deterministic edge order of EcPlanarEmbeddingWithCrossings.embed. */
+    public final int index;
+
+    /**
+     * The seed of the Random that the run used to pick its start vertex and to shuffle the edges, or 0 if this is run
+     * 0.
+     */
+    public final long seed;
+
+    /** The vertex from which the run started adding edges, or null if we skipped the run before it started. */
+    public final Vertex start;
+
+    /**
+     * Whether we skipped the run, because the MultiStartPlanarization was canceled, reached its target number of
+     * crossings, or exceeded its time limit before the run started or finished.  If the run was in progress, we
+     * abandoned it and discarded its partial result.
+     */
+    public final boolean wasSkipped;
+
+    /**
+     * The number of crossings in the resulting PlanarEmbeddingWithCrossings, as in
+     * PlanarEmbeddingWithCrossings.crossingCount().  This is -1 if we skipped the run or if we were unable to compute
+     * a planar embedding.
+     */
+    public final int crossingCount;
+
+    /** The number of vertices in the resulting PlanarEmbeddingWithCrossings.graph, or -1 if we skipped the run. */
+    public final int vertexCount;
+
+    /** The amount of time the run took, in nanoseconds. */
+    public final long nanos;
+
+    public PlanarizationRun(
+            int index, long seed, Vertex start, boolean wasSkipped, int crossingCount, int vertexCount, long nanos) {
+        this.index = index;
+        this.seed = seed;
+        this.start = start;
+        this.wasSkipped = wasSkipped;
+        this.crossingCount = crossingCount;
+        this.vertexCount = vertexCount;
+        this.nanos = nanos;
+    }
+}
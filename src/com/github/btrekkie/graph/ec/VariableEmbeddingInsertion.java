@@ -0,0 +1,206 @@
+package com.github.btrekkie.graph.ec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.bc.BlockNode;
+import com.github.btrekkie.graph.bc.CutNode;
+import com.github.btrekkie.util.UnorderedPair;
+
+/**
+ * Computes the edges to cross in order to add an edge to an ec-planar graph, so that the number of crossings is
+ * minimal over all ec-planar embeddings of the graph, rather than over the faces of a single embedding.  This is for
+ * EcPlanarEmbeddingWithCrossings.InsertionMode.VARIABLE_EMBEDDING.
+ */
+/* This is based on the approach in http://jgaa.info/accepted/2008/GutwengerKleinMutzel2008.12.1.pdf (Gutwenger, Klein,
+ * and Mutzel (2008): Planarity Testing and Optimal Edge Insertion with Embedding Constraints).  We compute the
+ * ec-expansion of the graph (see EcPlanarEmbedding.expand), with the gadgets for the endpoints of the new edge
+ * including the new edge, but without adding the new edge's expansion edge.  The planar embeddings of the ec-expansion
+ * correspond to the ec-planar embeddings of the graph, so we may find an optimal insertion path in the ec-expansion,
+ * subject to the condition that we only cross expansion edges that correspond to edges in the graph.  The gadget edges
+ * are uncrossable.
+ *
+ * Crossings are free at cut vertices, because we may place the blocks around a cut vertex in any order.  So the optimal
+ * path is the concatenation of optimal paths through each of the blocks in the path between the endpoints in the
+ * block-cut tree.  We use BlockEdgeInsertion to compute these.
+ *
+ * EcNode.Type.ORIENTED nodes expand to wheel gadgets whose O-hubs must have a particular orientation, as opposed to its
+ * mirror image.  Each block's embedding is independent of the others, so BlockEdgeInsertion accounts for the O-hubs
+ * in each block.
+ */
+class VariableEmbeddingInsertion {
+    /**
+     * Returns the edges crossed by a path from "start" to "end" that crosses a minimum number of edges over all
+     * ec-planar embeddings of the connected component containing "start" and "end", or null if we were unable to find
+     * such a path.  The path might cross an edge adjacent to "start" or "end".
+     * @param start The start vertex.
+     * @param end The end vertex.  This must be distinct from "start" and in the same connected component.  It must not
+     *     be adjacent to "start".
+     * @param constraints A map from each constrained vertex to the root node of its constraint tree.  It is okay for a
+     *     vertex not to have a constraint tree.  The constraint trees for "start" and "end" must include the edge we
+     *     are adding, while the other constraint trees must match the vertices' current edges.
+     * @return The crossed edges, in order from "start" to "end".  Each edge is represented as a pair of its endpoints.
+     */
+    public static List<UnorderedPair<Vertex>> crossedEdges(
+            Vertex start, Vertex end, Map<Vertex, EcNode> constraints) {
+        // Compute the ec-expansion
+        Collection<Vertex> component = EcPlanarEmbedding.component(start);
+        Map<Vertex, VertexExpansion> expansions = new HashMap<Vertex, VertexExpansion>();
+        Map<Vertex, Vertex> oHubFirsts = new HashMap<Vertex, Vertex>();
+        Map<Vertex, Vertex> oHubSeconds = new HashMap<Vertex, Vertex>();
+        start.addEdge(end);
+        for (Vertex vertex : component) {
+            VertexExpansion expansion = new VertexExpansion(vertex, constraints.get(vertex));
+            expansions.put(vertex, expansion);
+            oHubFirsts.putAll(expansion.oHubFirsts);
+            oHubSeconds.putAll(expansion.oHubSeconds);
+        }
+        start.removeEdge(end);
+        Map<UnorderedPair<Vertex>, UnorderedPair<Vertex>> expansionEdgeToEdge =
+            new HashMap<UnorderedPair<Vertex>, UnorderedPair<Vertex>>();
+        for (Vertex vertex : component) {
+            Map<Vertex, Vertex> endToExpansionEndpoint = expansions.get(vertex).endToExpansionEndpoint;
+            for (Vertex adjVertex : vertex.edges) {
+                Vertex expansionVertex = endToExpansionEndpoint.get(adjVertex);
+                Vertex adjExpansionVertex = expansions.get(adjVertex).endToExpansionEndpoint.get(vertex);
+                UnorderedPair<Vertex> expansionEdge = new UnorderedPair<Vertex>(expansionVertex, adjExpansionVertex);
+                if (expansionEdgeToEdge.put(expansionEdge, new UnorderedPair<Vertex>(vertex, adjVertex)) == null) {
+                    expansionVertex.addEdge(adjExpansionVertex);
+                }
+            }
+        }
+        Vertex expansionStart = expansions.get(start).endToExpansionEndpoint.get(end);
+        Vertex expansionEnd = expansions.get(end).endToExpansionEndpoint.get(start);
+
+        // Find the blocks containing expansionStart and expansionEnd
+        BlockNode root = BlockNode.compute(expansionStart);
+        Set<BlockNode> startBlocks = new HashSet<BlockNode>();
+        Set<BlockNode> endBlocks = new HashSet<BlockNode>();
+        List<BlockNode> blockNodes = new ArrayList<BlockNode>();
+        blockNodes.add(root);
+        for (int i = 0; i < blockNodes.size(); i++) {
+            BlockNode blockNode = blockNodes.get(i);
+            for (CutNode cutNode : blockNode.children) {
+                blockNodes.addAll(cutNode.children);
+            }
+            Collection<Vertex> blockVertices = blockNode.blockVertexToVertex.values();
+            if (blockVertices.contains(expansionStart)) {
+                startBlocks.add(blockNode);
+            }
+            if (blockVertices.contains(expansionEnd)) {
+                endBlocks.add(blockNode);
+            }
+        }
+
+        // Find the shortest path in the block-cut tree from a block containing expansionStart to a block containing
+        // expansionEnd, using breadth-first search
+        Map<BlockNode, BlockNode> predecessors = new HashMap<BlockNode, BlockNode>();
+        Map<BlockNode, Vertex> predecessorCutVertices = new HashMap<BlockNode, Vertex>();
+        for (BlockNode blockNode : startBlocks) {
+            predecessors.put(blockNode, null);
+        }
+        Collection<BlockNode> level = startBlocks;
+        BlockNode endBlock = null;
+        while (endBlock == null && !level.isEmpty()) {
+            Collection<BlockNode> nextLevel = new ArrayList<BlockNode>();
+            for (BlockNode blockNode : level) {
+                if (endBlocks.contains(blockNode)) {
+                    endBlock = blockNode;
+                    break;
+                }
+
+                List<CutNode> cutNodes = new ArrayList<CutNode>(blockNode.children);
+                if (blockNode.parent != null) {
+                    cutNodes.add(blockNode.parent);
+                }
+                for (CutNode cutNode : cutNodes) {
+                    List<BlockNode> adjBlockNodes = new ArrayList<BlockNode>(cutNode.children);
+                    if (cutNode.parent != null) {
+                        adjBlockNodes.add(cutNode.parent);
+                    }
+                    for (BlockNode adjBlockNode : adjBlockNodes) {
+                        if (!predecessors.containsKey(adjBlockNode)) {
+                            predecessors.put(adjBlockNode, blockNode);
+                            predecessorCutVertices.put(adjBlockNode, cutNode.vertex);
+                            nextLevel.add(adjBlockNode);
+                        }
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+        if (endBlock == null) {
+            return null;
+        }
+        List<BlockNode> path = new ArrayList<BlockNode>();
+        for (BlockNode blockNode = endBlock; blockNode != null; blockNode = predecessors.get(blockNode)) {
+            path.add(blockNode);
+        }
+        Collections.reverse(path);
+
+        // Compute the crossed edges in each block
+        List<UnorderedPair<Vertex>> crossedEdges = new ArrayList<UnorderedPair<Vertex>>();
+        for (int i = 0; i < path.size(); i++) {
+            BlockNode blockNode = path.get(i);
+            Vertex blockStart = i == 0 ? expansionStart : predecessorCutVertices.get(blockNode);
+            Vertex blockEnd = i + 1 == path.size() ? expansionEnd : predecessorCutVertices.get(path.get(i + 1));
+
+            // Map blockStart and blockEnd to vertices in blockNode.block, and compute the crossable edges
+            Vertex blockStartVertex = null;
+            Vertex blockEndVertex = null;
+            Set<UnorderedPair<Vertex>> crossableEdges = new HashSet<UnorderedPair<Vertex>>();
+            Map<Vertex, Vertex> blockVertexToVertex = blockNode.blockVertexToVertex;
+            Map<Vertex, Vertex> vertexToBlockVertex = new HashMap<Vertex, Vertex>();
+            for (Entry<Vertex, Vertex> entry : blockVertexToVertex.entrySet()) {
+                Vertex blockVertex = entry.getKey();
+                Vertex expansionVertex = entry.getValue();
+                vertexToBlockVertex.put(expansionVertex, blockVertex);
+                if (expansionVertex == blockStart) {
+                    blockStartVertex = blockVertex;
+                } else if (expansionVertex == blockEnd) {
+                    blockEndVertex = blockVertex;
+                }
+                for (Vertex adjBlockVertex : blockVertex.edges) {
+                    UnorderedPair<Vertex> expansionEdge = new UnorderedPair<Vertex>(
+                        expansionVertex, blockVertexToVertex.get(adjBlockVertex));
+                    if (expansionEdgeToEdge.containsKey(expansionEdge)) {
+                        crossableEdges.add(new UnorderedPair<Vertex>(blockVertex, adjBlockVertex));
+                    }
+                }
+            }
+
+            // Map the O-hubs in the block to vertices in blockNode.block.  Each O-hub's wheel gadget is biconnected, so
+            // the block contains all of the O-hub's spokes.
+            Map<Vertex, Vertex> blockOHubFirsts = new HashMap<Vertex, Vertex>();
+            Map<Vertex, Vertex> blockOHubSeconds = new HashMap<Vertex, Vertex>();
+            for (Entry<Vertex, Vertex> entry : blockVertexToVertex.entrySet()) {
+                Vertex oHubFirst = oHubFirsts.get(entry.getValue());
+                if (oHubFirst != null) {
+                    blockOHubFirsts.put(entry.getKey(), vertexToBlockVertex.get(oHubFirst));
+                    blockOHubSeconds.put(
+                        entry.getKey(), vertexToBlockVertex.get(oHubSeconds.get(entry.getValue())));
+                }
+            }
+
+            List<UnorderedPair<Vertex>> blockCrossedEdges = BlockEdgeInsertion.crossedEdges(
+                blockNode.block, blockStartVertex, blockEndVertex, crossableEdges, blockOHubFirsts, blockOHubSeconds);
+            if (blockCrossedEdges == null) {
+                return null;
+            }
+            for (UnorderedPair<Vertex> blockEdge : blockCrossedEdges) {
+                UnorderedPair<Vertex> expansionEdge = new UnorderedPair<Vertex>(
+                    blockVertexToVertex.get(blockEdge.value1), blockVertexToVertex.get(blockEdge.value2));
+                crossedEdges.add(expansionEdgeToEdge.get(expansionEdge));
+            }
+        }
+        return crossedEdges;
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.btrekkie.graph.ec;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+
+/**
+ * The portion of an ec-expansion graph corresponding to a single vertex V in the non-expanded graph, as cached by
+ * EcEmbeddingContext.  See the comments for EcPlanarEmbedding.expand.
+ */
+class VertexExpansion {
+    /** The root node of the constraint tree for V, or null if V does not have a constraint tree. */
+    public final EcNode constraint;
+
+    /** The vertices adjacent to V at the time we expanded V. */
+    public final Set<Vertex> adjVertices;
+
+    /**
+     * The vertices in the ec-expansion graph corresponding to V.  This excludes the edges to the portions of the
+     * ec-expansion graph corresponding to other vertices.
+     */
+    public final Graph graph = new Graph();
+
+    /**
+     * A map from each vertex W adjacent to V to the vertex in "graph" corresponding to the start of the edge from V to
+     * W.
+     */
+    public Map<Vertex, Vertex> endToExpansionEndpoint = new HashMap<Vertex, Vertex>();
+
+    /** The hub vertices of the wheel gadgets in "graph". */
+    public Set<Vertex> hubs = new HashSet<Vertex>();
+
+    /** The oHubFirsts entries for the O-hubs in "graph", as in the argument to EcPlanarEmbedding.expand. */
+    public Map<Vertex, Vertex> oHubFirsts = new HashMap<Vertex, Vertex>();
+
+    /** The oHubSeconds entries for the O-hubs in "graph", as in the argument to EcPlanarEmbedding.expand. */
+    public Map<Vertex, Vertex> oHubSeconds = new HashMap<Vertex, Vertex>();
+
+    /** The constraintVertices entries for the nodes in "constraint", as in the argument to EcPlanarEmbedding.expand. */
+    public Map<EcNode, Vertex> constraintVertices = new HashMap<EcNode, Vertex>();
+
+    /** The constraintStarts entries for the nodes in "constraint", as in the argument to EcPlanarEmbedding.expand. */
+    public Map<EcNode, Vertex> constraintStarts = new HashMap<EcNode, Vertex>();
+
+    /** The constraintOrder entries for the nodes in "constraint", as in the argument to EcPlanarEmbedding.expand. */
+    public Map<EcNode, List<Vertex>> constraintOrder = new HashMap<EcNode, List<Vertex>>();
+
+    /** Computes the VertexExpansion for the specified vertex. */
+    public VertexExpansion(Vertex vertex, EcNode constraint) {
+        this.constraint = constraint;
+        adjVertices = new HashSet<Vertex>(vertex.edges);
+        if (constraint != null) {
+            EcPlanarEmbedding.expand(
+                graph, vertex, null, constraint, endToExpansionEndpoint, hubs, oHubFirsts, oHubSeconds,
+                constraintVertices, constraintStarts, constraintOrder);
+        } else {
+            Vertex expansionVertex = graph.createVertex();
+            for (Vertex adjVertex : vertex.edges) {
+                endToExpansionEndpoint.put(adjVertex, expansionVertex);
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.github.btrekkie.graph.ec.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.ec.EcEmbeddingContext;
+import com.github.btrekkie.graph.ec.EcNode;
+import com.github.btrekkie.graph.ec.EcPlanarEmbedding;
+import com.github.btrekkie.graph.generator.GraphGenerator;
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
+import com.github.btrekkie.graph.planar.test.PlanarEmbeddingTest;
+
+public class EcEmbeddingContextTest {
+    /** Returns all of the orderings of the leaf vertices of the specified constraint tree that satisfy the tree. */
+    private List<List<Vertex>> orders(EcNode node) {
+        if (node.type == EcNode.Type.VERTEX) {
+            return Collections.singletonList(Collections.singletonList(node.vertex));
+        }
+
+        // Compute the permitted orderings of the children
+        List<List<EcNode>> childOrders = new ArrayList<List<EcNode>>();
+        if (node.type == EcNode.Type.GROUP) {
+            addPermutations(new ArrayList<EcNode>(), new ArrayList<EcNode>(node.children), childOrders);
+        } else {
+            childOrders.add(node.children);
+            if (node.type == EcNode.Type.MIRROR) {
+                List<EcNode> reversedChildren = new ArrayList<EcNode>(node.children);
+                Collections.reverse(reversedChildren);
+                childOrders.add(reversedChildren);
+            }
+        }
+
+        List<List<Vertex>> orders = new ArrayList<List<Vertex>>();
+        for (List<EcNode> childOrder : childOrders) {
+            List<List<Vertex>> prefixes = Collections.singletonList(Collections.<Vertex>emptyList());
+            for (EcNode child : childOrder) {
+                List<List<Vertex>> nextPrefixes = new ArrayList<List<Vertex>>();
+                for (List<Vertex> prefix : prefixes) {
+                    for (List<Vertex> childOrderVertices : orders(child)) {
+                        List<Vertex> nextPrefix = new ArrayList<Vertex>(prefix);
+                        nextPrefix.addAll(childOrderVertices);
+                        nextPrefixes.add(nextPrefix);
+                    }
+                }
+                prefixes = nextPrefixes;
+            }
+            orders.addAll(prefixes);
+        }
+        return orders;
+    }
+
+    /** Adds all of the permutations of "remaining", each prefixed with "prefix", to "permutations". */
+    private void addPermutations(List<EcNode> prefix, List<EcNode> remaining, List<List<EcNode>> permutations) {
+        if (remaining.isEmpty()) {
+            permutations.add(new ArrayList<EcNode>(prefix));
+            return;
+        }
+        for (int i = 0; i < remaining.size(); i++) {
+            EcNode node = remaining.remove(i);
+            prefix.add(node);
+            addPermutations(prefix, remaining, permutations);
+            prefix.remove(prefix.size() - 1);
+            remaining.add(i, node);
+        }
+    }
+
+    /**
+     * Asserts that the specified embedding is a valid planar embedding of the connected component containing "start"
+     * that satisfies the specified constraints.
+     */
+    private void checkEmbedding(PlanarEmbedding embedding, Vertex start, Map<Vertex, EcNode> constraints) {
+        assertNotNull(embedding);
+        assertTrue(embedding.clockwiseOrder.containsKey(start));
+        new PlanarEmbedding(embedding.clockwiseOrder, embedding.externalFace);
+        for (Entry<Vertex, List<Vertex>> entry : embedding.clockwiseOrder.entrySet()) {
+            EcNode constraint = constraints.get(entry.getKey());
+            if (constraint != null) {
+                boolean satisfies = false;
+                for (List<Vertex> order : orders(constraint)) {
+                    if (PlanarEmbeddingTest.isCyclicShift(entry.getValue(), order)) {
+                        satisfies = true;
+                        break;
+                    }
+                }
+                assertTrue(satisfies);
+            }
+        }
+    }
+
+    /**
+     * Adds random children to the specified constraint tree node.
+     * @param parent The node.
+     * @param vertices The leaf vertices of the subtree rooted at "parent".  This contains at least two vertices.
+     * @param random The random number generator to use.
+     */
+    private void addRandomChildren(EcNode parent, List<Vertex> vertices, Random random) {
+        int childCount = Math.min(2 + random.nextInt(2), vertices.size());
+        int start = 0;
+        for (int i = 0; i < childCount; i++) {
+            int end;
+            if (i + 1 == childCount) {
+                end = vertices.size();
+            } else {
+                end = start + 1 + random.nextInt(vertices.size() - start - (childCount - i - 1));
+            }
+            if (end - start == 1) {
+                EcNode.createVertex(parent, vertices.get(start));
+            } else {
+                EcNode.Type type = EcNode.Type.values()[random.nextInt(3)];
+                addRandomChildren(EcNode.create(parent, type), vertices.subList(start, end), random);
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Returns a random constraint tree for the specified vertex, or null if we choose not to constrain the vertex.
+     * The vertex must have at least one edge.
+     */
+    private EcNode randomConstraint(Vertex vertex, Random random) {
+        if (random.nextInt(3) == 0) {
+            return null;
+        }
+        List<Vertex> adjVertices = new ArrayList<Vertex>(vertex.edges);
+        Collections.shuffle(adjVertices, random);
+        if (adjVertices.size() == 1) {
+            return EcNode.createVertex(null, adjVertices.get(0));
+        }
+        EcNode root = EcNode.create(null, EcNode.Type.values()[random.nextInt(3)]);
+        addRandomChildren(root, adjVertices, random);
+        return root;
+    }
+
+    /** Tests EcEmbeddingContext on a small graph. */
+    @Test
+    public void testEmbed() {
+        Graph graph = new Graph();
+        Vertex vertex1 = graph.createVertex();
+        Vertex vertex2 = graph.createVertex();
+        Vertex vertex3 = graph.createVertex();
+        Vertex vertex4 = graph.createVertex();
+        vertex1.addEdge(vertex2);
+        vertex1.addEdge(vertex3);
+        vertex1.addEdge(vertex4);
+        vertex2.addEdge(vertex3);
+        vertex2.addEdge(vertex4);
+        vertex3.addEdge(vertex4);
+        EcEmbeddingContext context = new EcEmbeddingContext();
+        Map<Vertex, EcNode> constraints = new HashMap<Vertex, EcNode>();
+        checkEmbedding(context.embed(vertex1, constraints), vertex1, constraints);
+
+        EcNode node1 = EcNode.create(null, EcNode.Type.ORIENTED);
+        EcNode.createVertex(node1, vertex2);
+        EcNode.createVertex(node1, vertex3);
+        EcNode.createVertex(node1, vertex4);
+        constraints.put(vertex1, node1);
+        Map<Vertex, List<Vertex>> clockwiseOrder = new HashMap<Vertex, List<Vertex>>();
+        clockwiseOrder.put(vertex1, Arrays.asList(vertex2, vertex3, vertex4));
+        clockwiseOrder.put(vertex2, Arrays.asList(vertex1, vertex4, vertex3));
+        clockwiseOrder.put(vertex3, Arrays.asList(vertex1, vertex2, vertex4));
+        clockwiseOrder.put(vertex4, Arrays.asList(vertex1, vertex3, vertex2));
+        assertTrue(EcPlanarEmbeddingTest.areEquivalent(context.embed(vertex1, constraints), clockwiseOrder));
+
+        // Replace the constraint for vertex2 with one that is incompatible with node1
+        EcNode node2 = EcNode.create(null, EcNode.Type.ORIENTED);
+        EcNode.createVertex(node2, vertex1);
+        EcNode.createVertex(node2, vertex3);
+        EcNode.createVertex(node2, vertex4);
+        constraints.put(vertex2, node2);
+        assertEquals(null, context.embed(vertex1, constraints));
+        constraints.remove(vertex2);
+        assertTrue(EcPlanarEmbeddingTest.areEquivalent(context.embed(vertex1, constraints), clockwiseOrder));
+
+        // Remove an edge
+        vertex3.removeEdge(vertex4);
+        node1 = EcNode.create(null, EcNode.Type.ORIENTED);
+        EcNode.createVertex(node1, vertex2);
+        EcNode.createVertex(node1, vertex3);
+        EcNode.createVertex(node1, vertex4);
+        constraints.put(vertex1, node1);
+        checkEmbedding(context.embed(vertex2, constraints), vertex2, constraints);
+    }
+
+    /**
+     * Tests EcEmbeddingContext by repeatedly changing random graphs and constraints, and comparing the results to
+     * those of EcPlanarEmbedding.embed.
+     */
+    @Test
+    public void testRandom() {
+        Random random = new Random(21);
+        EcEmbeddingContext context = new EcEmbeddingContext();
+        for (int i = 0; i < 30; i++) {
+            Graph graph = new Graph();
+            Vertex start = GraphGenerator.createRandomTriangulation(graph, 4 + random.nextInt(6), random);
+            List<Vertex> vertices = new ArrayList<Vertex>(graph.vertices);
+            Map<Vertex, EcNode> constraints = new HashMap<Vertex, EcNode>();
+            for (Vertex vertex : vertices) {
+                if (vertex.edges.size() <= 5) {
+                    constraints.put(vertex, randomConstraint(vertex, random));
+                }
+            }
+            if (random.nextBoolean()) {
+                context.clear();
+            }
+
+            for (int j = 0; j < 12; j++) {
+                PlanarEmbedding embedding = context.embed(start, constraints);
+                PlanarEmbedding expected = EcPlanarEmbedding.embed(start, constraints);
+                assertEquals(expected == null, embedding == null);
+                if (embedding != null) {
+                    checkEmbedding(embedding, start, constraints);
+                }
+
+                // Make a random change
+                Vertex vertex1 = vertices.get(random.nextInt(vertices.size()));
+                Vertex vertex2 = vertices.get(random.nextInt(vertices.size()));
+                if (random.nextBoolean()) {
+                    if (vertex1.edges.size() <= 5) {
+                        constraints.put(vertex1, randomConstraint(vertex1, random));
+                    }
+                } else if (vertex1 != vertex2) {
+                    if (vertex1.edges.contains(vertex2)) {
+                        if (vertex1.edges.size() > 1 && vertex2.edges.size() > 1) {
+                            vertex1.removeEdge(vertex2);
+                        }
+                    } else {
+                        vertex1.addEdge(vertex2);
+                    }
+                    constraints.remove(vertex1);
+                    constraints.remove(vertex2);
+                    if (vertex1.edges.size() <= 5) {
+                        constraints.put(vertex1, randomConstraint(vertex1, random));
+                    }
+                    if (vertex2.edges.size() <= 5) {
+                        constraints.put(vertex2, randomConstraint(vertex2, random));
+                    }
+                }
+            }
+        }
+    }
+}
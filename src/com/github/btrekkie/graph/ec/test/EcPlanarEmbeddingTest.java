@@ -1,5 +1,6 @@
 package com.github.btrekkie.graph.ec.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -100,6 +101,53 @@ public class EcPlanarEmbeddingTest {
         assertTrue(areEquivalent(embedding, clockwiseOrder));
     }
 
+    /**
+     * Asserts that EcPlanarEmbedding.embed returns an embedding of a graph consisting of two copies of K4 that share
+     * two vertices, but not the edge between them.  The SPQR tree of the graph consists of two adjacent R nodes.
+     * @param edges The edges of the graph, as pairs of indices in the range [0, 6), in the order in which to add them.
+     *     Vertex 0 must be one of the two shared vertices.
+     * @param constraintOrder The indices of the vertices adjacent to vertex 0, in the order to which to constrain them
+     *     using an EcNode of type EcNode.Type.ORIENTED.
+     */
+    private void checkEmbedRNodes(int[][] edges, int[] constraintOrder) {
+        Graph graph = new Graph();
+        Vertex[] vertices = new Vertex[6];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = graph.createVertex();
+        }
+        for (int[] edge : edges) {
+            vertices[edge[0]].addEdge(vertices[edge[1]]);
+        }
+        PlanarEmbedding embedding = EcPlanarEmbedding.embed(vertices[0], Collections.<Vertex, EcNode>emptyMap());
+        assertNotNull(embedding);
+        assertEquals(6, embedding.clockwiseOrder.size());
+
+        // The PlanarEmbedding constructor throws an IllegalArgumentException if externalFace is not a face
+        new PlanarEmbedding(embedding.clockwiseOrder, embedding.externalFace);
+
+        EcNode node = EcNode.create(null, EcNode.Type.ORIENTED);
+        List<Vertex> clockwiseOrder = new ArrayList<Vertex>();
+        for (int index : constraintOrder) {
+            EcNode.createVertex(node, vertices[index]);
+            clockwiseOrder.add(vertices[index]);
+        }
+        embedding = EcPlanarEmbedding.embed(vertices[0], Collections.singletonMap(vertices[0], node));
+        assertNotNull(embedding);
+        new PlanarEmbedding(embedding.clockwiseOrder, embedding.externalFace);
+        assertTrue(PlanarEmbeddingTest.isCyclicShift(embedding.clockwiseOrder.get(vertices[0]), clockwiseOrder));
+    }
+
+    /** Tests EcPlanarEmbedding.embed on graphs whose SPQR trees consist of two adjacent R nodes. */
+    @Test
+    public void testEmbedRNodes() {
+        checkEmbedRNodes(
+            new int[][]{{0, 1}, {1, 2}, {2, 3}, {1, 4}, {2, 5}, {0, 4}, {2, 4}, {0, 5}, {0, 3}, {3, 5}},
+            new int[]{1, 5, 3, 4});
+        checkEmbedRNodes(
+            new int[][]{{0, 1}, {0, 2}, {0, 3}, {2, 4}, {0, 5}, {1, 2}, {3, 4}, {4, 5}, {3, 5}, {1, 4}},
+            new int[]{2, 5, 3, 1});
+    }
+
     /** Tests EcPlanarEmbedding.embed on graphs consisting of a cycle. */
     @Test
     public void testEmbedCycle() {
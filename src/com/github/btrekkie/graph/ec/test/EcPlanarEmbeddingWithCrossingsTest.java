@@ -1,6 +1,7 @@
 package com.github.btrekkie.graph.ec.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -11,14 +12,20 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Test;
 
 import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.MultiVertex;
 import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.dual.DualGraph;
 import com.github.btrekkie.graph.ec.EcNode;
 import com.github.btrekkie.graph.ec.EcPlanarEmbeddingWithCrossings;
+import com.github.btrekkie.graph.ec.EcPlanarEmbeddingWithCrossings.InsertionMode;
+import com.github.btrekkie.graph.generator.GraphGenerator;
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
 import com.github.btrekkie.graph.planar.PlanarEmbeddingWithCrossings;
 
 public class EcPlanarEmbeddingWithCrossingsTest {
@@ -127,6 +134,28 @@ public class EcPlanarEmbeddingWithCrossingsTest {
         return quadrupleCrossingCount / 4;
     }
 
+    /**
+     * Asserts that embedding.embedding is a valid planar embedding of embedding.graph, and that each edge in the input
+     * graph "graph" corresponds to a path in embedding.graph.
+     */
+    private void checkEmbedding(PlanarEmbeddingWithCrossings embedding, Graph graph) {
+        assertNotNull(embedding.embedding);
+        new PlanarEmbedding(embedding.embedding.clockwiseOrder, embedding.embedding.externalFace);
+        assertEquals(embedding.graph.vertices.size(), embedding.embedding.clockwiseOrder.size());
+        for (Vertex vertex : graph.vertices) {
+            for (Vertex adjVertex : vertex.edges) {
+                List<Vertex> path = new ArrayList<Vertex>();
+                path.add(embedding.originalVertexToVertex.get(vertex));
+                path.addAll(embedding.addedVertices(vertex, adjVertex));
+                path.add(embedding.originalVertexToVertex.get(adjVertex));
+                for (int i = 0; i < path.size() - 1; i++) {
+                    assertTrue(path.get(i).edges.contains(path.get(i + 1)));
+                }
+            }
+        }
+        assertEquals(crossingCount(embedding, graph), embedding.crossingCount());
+    }
+
     /** Tests EcPlanarEmbeddingWithCrossings.embed. */
     @Test
     public void testEmbed() {
@@ -970,4 +999,325 @@ public class EcPlanarEmbeddingWithCrossingsTest {
         embedding = EcPlanarEmbeddingWithCrossings.embed(vertex1, constraints);
         assertTrue(crossingCount(embedding, graph) > 0);
     }
+
+    /** Tests EcPlanarEmbeddingWithCrossings.embed with InsertionMode.VARIABLE_EMBEDDING. */
+    @Test
+    public void testEmbedVariableEmbedding() {
+        // K5 and K3,3 have crossing number 1, and removing any edge makes them planar, so inserting the one remaining
+        // edge optimally results in one crossing
+        Graph graph = new Graph();
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        for (int i = 0; i < 5; i++) {
+            vertices.add(graph.createVertex());
+        }
+        for (int i = 0; i < 5; i++) {
+            for (int j = i + 1; j < 5; j++) {
+                vertices.get(i).addEdge(vertices.get(j));
+            }
+        }
+        PlanarEmbeddingWithCrossings embedding = EcPlanarEmbeddingWithCrossings.embed(
+            vertices.get(0), Collections.<Vertex, EcNode>emptyMap(), InsertionMode.VARIABLE_EMBEDDING);
+        checkEmbedding(embedding, graph);
+        assertEquals(1, embedding.crossingCount());
+
+        graph = new Graph();
+        vertices = new ArrayList<Vertex>();
+        for (int i = 0; i < 6; i++) {
+            vertices.add(graph.createVertex());
+        }
+        for (int i = 0; i < 3; i++) {
+            for (int j = 3; j < 6; j++) {
+                vertices.get(i).addEdge(vertices.get(j));
+            }
+        }
+        embedding = EcPlanarEmbeddingWithCrossings.embed(
+            vertices.get(0), Collections.<Vertex, EcNode>emptyMap(), InsertionMode.VARIABLE_EMBEDDING);
+        checkEmbedding(embedding, graph);
+        assertEquals(1, embedding.crossingCount());
+
+        EcNode node1 = EcNode.create(null, EcNode.Type.MIRROR);
+        EcNode.createVertex(node1, vertices.get(3));
+        EcNode.createVertex(node1, vertices.get(5));
+        EcNode.createVertex(node1, vertices.get(4));
+        EcNode node2 = EcNode.create(null, EcNode.Type.ORIENTED);
+        EcNode.createVertex(node2, vertices.get(2));
+        EcNode.createVertex(node2, vertices.get(0));
+        EcNode.createVertex(node2, vertices.get(1));
+        Map<Vertex, EcNode> constraints = new HashMap<Vertex, EcNode>();
+        constraints.put(vertices.get(0), node1);
+        constraints.put(vertices.get(3), node2);
+        embedding = EcPlanarEmbeddingWithCrossings.embed(
+            vertices.get(0), constraints, InsertionMode.VARIABLE_EMBEDDING);
+        checkEmbedding(embedding, graph);
+        assertTrue(embedding.crossingCount() > 0);
+
+        // K5,5
+        graph = new Graph();
+        vertices = new ArrayList<Vertex>();
+        for (int i = 0; i < 10; i++) {
+            vertices.add(graph.createVertex());
+        }
+        for (int i = 0; i < 5; i++) {
+            for (int j = 5; j < 10; j++) {
+                vertices.get(i).addEdge(vertices.get(j));
+            }
+        }
+        embedding = EcPlanarEmbeddingWithCrossings.embed(
+            vertices.get(0), Collections.<Vertex, EcNode>emptyMap(), InsertionMode.VARIABLE_EMBEDDING);
+        checkEmbedding(embedding, graph);
+        assertTrue(embedding.crossingCount() >= 16);
+    }
+
+    /**
+     * Tests EcPlanarEmbeddingWithCrossings.embed with InsertionMode.VARIABLE_EMBEDDING on random near-planar graphs,
+     * and checks that on the whole, it produces fewer crossings than InsertionMode.FIXED_EMBEDDING.
+     */
+    @Test
+    public void testEmbedVariableEmbeddingRandom() {
+        Random random = new Random(22);
+        int fixedCrossingCount = 0;
+        int variableCrossingCount = 0;
+        for (int i = 0; i < 60; i++) {
+            Graph graph = new Graph();
+            int extraEdgeCount = 1 + random.nextInt(3);
+            Vertex start = GraphGenerator.createRandomNearPlanar(graph, 6 + random.nextInt(10), extraEdgeCount, random);
+            Map<Vertex, EcNode> constraints = Collections.emptyMap();
+            PlanarEmbeddingWithCrossings fixedEmbedding = EcPlanarEmbeddingWithCrossings.embed(
+                start, constraints, InsertionMode.FIXED_EMBEDDING);
+            PlanarEmbeddingWithCrossings variableEmbedding = EcPlanarEmbeddingWithCrossings.embed(
+                start, constraints, InsertionMode.VARIABLE_EMBEDDING);
+            checkEmbedding(fixedEmbedding, graph);
+            checkEmbedding(variableEmbedding, graph);
+            fixedCrossingCount += fixedEmbedding.crossingCount();
+            variableCrossingCount += variableEmbedding.crossingCount();
+        }
+        assertTrue(variableCrossingCount < fixedCrossingCount);
+
+        // Larger graphs with more extra edges
+        fixedCrossingCount = 0;
+        variableCrossingCount = 0;
+        for (int i = 0; i < 10; i++) {
+            Graph graph = new Graph();
+            Vertex start = GraphGenerator.createRandomNearPlanar(
+                graph, 50 + random.nextInt(100), 1 + random.nextInt(8), random);
+            Map<Vertex, EcNode> constraints = Collections.emptyMap();
+            PlanarEmbeddingWithCrossings fixedEmbedding = EcPlanarEmbeddingWithCrossings.embed(
+                start, constraints, InsertionMode.FIXED_EMBEDDING);
+            PlanarEmbeddingWithCrossings variableEmbedding = EcPlanarEmbeddingWithCrossings.embed(
+                start, constraints, InsertionMode.VARIABLE_EMBEDDING);
+            checkEmbedding(variableEmbedding, graph);
+            fixedCrossingCount += fixedEmbedding.crossingCount();
+            variableCrossingCount += variableEmbedding.crossingCount();
+        }
+        assertTrue(variableCrossingCount <= fixedCrossingCount);
+
+        // Random MIRROR and GROUP constraints
+        for (int i = 0; i < 40; i++) {
+            Graph graph = new Graph();
+            Vertex start = GraphGenerator.createRandomNearPlanar(graph, 6 + random.nextInt(10), 1, random);
+            Map<Vertex, EcNode> constraints = new HashMap<Vertex, EcNode>();
+            for (Vertex vertex : graph.vertices) {
+                if (random.nextInt(4) == 0) {
+                    List<Vertex> adjVertices = new ArrayList<Vertex>(vertex.edges);
+                    Collections.shuffle(adjVertices, random);
+                    EcNode node = EcNode.create(null, random.nextBoolean() ? EcNode.Type.MIRROR : EcNode.Type.GROUP);
+                    for (Vertex adjVertex : adjVertices) {
+                        EcNode.createVertex(node, adjVertex);
+                    }
+                    constraints.put(vertex, node);
+                }
+            }
+            checkEmbedding(
+                EcPlanarEmbeddingWithCrossings.embed(start, constraints, InsertionMode.VARIABLE_EMBEDDING), graph);
+        }
+    }
+
+    /** Tests EcPlanarEmbeddingWithCrossings.embed with a positive maxReinsertionPasses argument. */
+    @Test
+    public void testEmbedReinsertion() {
+        // K_{5, 5}
+        Graph graph = new Graph();
+        List<Vertex> vertices1 = new ArrayList<Vertex>();
+        List<Vertex> vertices2 = new ArrayList<Vertex>();
+        for (int i = 0; i < 5; i++) {
+            vertices1.add(graph.createVertex());
+            vertices2.add(graph.createVertex());
+        }
+        for (Vertex vertex1 : vertices1) {
+            for (Vertex vertex2 : vertices2) {
+                vertex1.addEdge(vertex2);
+            }
+        }
+        Map<Vertex, EcNode> constraints = Collections.emptyMap();
+        for (InsertionMode mode : InsertionMode.values()) {
+            PlanarEmbeddingWithCrossings embedding = EcPlanarEmbeddingWithCrossings.embed(
+                vertices1.get(0), constraints, mode, null, 0);
+            PlanarEmbeddingWithCrossings reinsertionEmbedding = EcPlanarEmbeddingWithCrossings.embed(
+                vertices1.get(0), constraints, mode, null, 3);
+            checkEmbedding(reinsertionEmbedding, graph);
+            assertTrue(reinsertionEmbedding.crossingCount() >= 16);
+            assertTrue(reinsertionEmbedding.crossingCount() <= embedding.crossingCount());
+        }
+
+        Random random = new Random(24);
+        int crossingCount = 0;
+        int reinsertionCrossingCount = 0;
+        for (int i = 0; i < 20; i++) {
+            graph = new Graph();
+            Vertex start = GraphGenerator.createRandomNearPlanar(
+                graph, 6 + random.nextInt(10), 1 + random.nextInt(3), random);
+            for (InsertionMode mode : InsertionMode.values()) {
+                PlanarEmbeddingWithCrossings embedding = EcPlanarEmbeddingWithCrossings.embed(
+                    start, constraints, mode, null, 0);
+                PlanarEmbeddingWithCrossings reinsertionEmbedding = EcPlanarEmbeddingWithCrossings.embed(
+                    start, constraints, mode, null, 3);
+                checkEmbedding(reinsertionEmbedding, graph);
+                assertTrue(reinsertionEmbedding.crossingCount() <= embedding.crossingCount());
+                crossingCount += embedding.crossingCount();
+                reinsertionCrossingCount += reinsertionEmbedding.crossingCount();
+            }
+        }
+        assertTrue(reinsertionCrossingCount < crossingCount);
+
+        // Random MIRROR and GROUP constraints
+        for (int i = 0; i < 20; i++) {
+            graph = new Graph();
+            Vertex start = GraphGenerator.createRandomNearPlanar(
+                graph, 6 + random.nextInt(10), 1 + random.nextInt(3), random);
+            Map<Vertex, EcNode> randomConstraints = new HashMap<Vertex, EcNode>();
+            for (Vertex vertex : graph.vertices) {
+                if (random.nextInt(4) == 0) {
+                    List<Vertex> adjVertices = new ArrayList<Vertex>(vertex.edges);
+                    Collections.shuffle(adjVertices, random);
+                    EcNode node = EcNode.create(null, random.nextBoolean() ? EcNode.Type.MIRROR : EcNode.Type.GROUP);
+                    for (Vertex adjVertex : adjVertices) {
+                        EcNode.createVertex(node, adjVertex);
+                    }
+                    randomConstraints.put(vertex, node);
+                }
+            }
+            PlanarEmbeddingWithCrossings embedding = EcPlanarEmbeddingWithCrossings.embed(
+                start, randomConstraints, InsertionMode.VARIABLE_EMBEDDING, null, 0);
+            PlanarEmbeddingWithCrossings reinsertionEmbedding = EcPlanarEmbeddingWithCrossings.embed(
+                start, randomConstraints, InsertionMode.VARIABLE_EMBEDDING, null, 3);
+            checkEmbedding(reinsertionEmbedding, graph);
+            assertTrue(reinsertionEmbedding.crossingCount() <= embedding.crossingCount());
+        }
+    }
+
+    /**
+     * Tests that EcPlanarEmbeddingWithCrossings.embed with a positive maxReinsertionPasses argument produces an
+     * ec-planar embedding whenever it does so with a maxReinsertionPasses argument of 0, using random constraints in
+     * each InsertionMode.
+     */
+    @Test
+    public void testEmbedReinsertionConstrained() {
+        Random random = new Random(2424);
+        EcNode.Type[] types = new EcNode.Type[]{EcNode.Type.MIRROR, EcNode.Type.GROUP, EcNode.Type.ORIENTED};
+        int embeddedCount = 0;
+        for (int i = 0; i < 50; i++) {
+            Graph graph = new Graph();
+            Vertex start = GraphGenerator.createRandomNearPlanar(
+                graph, 6 + random.nextInt(6), 1 + random.nextInt(3), random);
+            Map<Vertex, EcNode> constraints = new HashMap<Vertex, EcNode>();
+            for (Vertex vertex : graph.vertices) {
+                if (random.nextInt(4) == 0) {
+                    List<Vertex> adjVertices = new ArrayList<Vertex>(vertex.edges);
+                    Collections.shuffle(adjVertices, random);
+                    EcNode node = EcNode.create(null, types[random.nextInt(types.length)]);
+                    for (Vertex adjVertex : adjVertices) {
+                        EcNode.createVertex(node, adjVertex);
+                    }
+                    constraints.put(vertex, node);
+                }
+            }
+            for (InsertionMode mode : InsertionMode.values()) {
+                PlanarEmbeddingWithCrossings embedding = EcPlanarEmbeddingWithCrossings.embed(
+                    start, constraints, mode, null, 0);
+                if (embedding == null || embedding.embedding == null) {
+                    continue;
+                }
+                PlanarEmbeddingWithCrossings reinsertionEmbedding = EcPlanarEmbeddingWithCrossings.embed(
+                    start, constraints, mode, null, 3);
+                assertNotNull(reinsertionEmbedding);
+                checkEmbedding(reinsertionEmbedding, graph);
+                assertTrue(reinsertionEmbedding.crossingCount() <= embedding.crossingCount());
+                embeddedCount++;
+            }
+        }
+        assertTrue(embeddedCount >= 50);
+    }
+
+    /**
+     * Returns the length of a shortest path in dual.graph from a face incident to vertex1 to a face incident to
+     * vertex2.  This uses an ordinary breadth-first search.
+     */
+    private int dualDistance(DualGraph dual, Vertex vertex1, Vertex vertex2) {
+        Set<MultiVertex> ends = new HashSet<MultiVertex>();
+        for (Vertex adjVertex : vertex2.edges) {
+            ends.add(dual.rightFace(vertex2, adjVertex));
+        }
+        Map<MultiVertex, Integer> distances = new HashMap<MultiVertex, Integer>();
+        List<MultiVertex> queue = new ArrayList<MultiVertex>();
+        for (Vertex adjVertex : vertex1.edges) {
+            MultiVertex face = dual.rightFace(vertex1, adjVertex);
+            if (!distances.containsKey(face)) {
+                distances.put(face, 0);
+                queue.add(face);
+            }
+        }
+        for (int i = 0; i < queue.size(); i++) {
+            MultiVertex face = queue.get(i);
+            if (ends.contains(face)) {
+                return distances.get(face);
+            }
+            for (MultiVertex adjFace : face.edges) {
+                if (!distances.containsKey(adjFace)) {
+                    distances.put(adjFace, distances.get(face) + 1);
+                    queue.add(adjFace);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tests that EcPlanarEmbeddingWithCrossings.embed routes an edge with crossings along a shortest path in the dual
+     * graph, when using InsertionMode.FIXED_EMBEDDING.
+     */
+    @Test
+    public void testEmbedShortestCrossingPath() {
+        // A triangulation has a unique planar embedding, up to reflection.  If we add an edge to a triangulation and
+        // EcPlanarEmbeddingWithCrossings.embed leaves it out of the planar subgraph, the number of crossings on the
+        // edge should be the distance in the triangulation's dual graph between the faces incident to its endpoints.
+        // If embed leaves out a different edge, then the added edge has at most one crossing.
+        Random random = new Random(25);
+        int checkedCount = 0;
+        for (int i = 0; i < 100; i++) {
+            Graph graph = new Graph();
+            Vertex start = GraphGenerator.createRandomTriangulation(graph, 8 + random.nextInt(40), random);
+            DualGraph dual = DualGraph.compute(PlanarEmbedding.compute(start));
+            List<Vertex> vertices = new ArrayList<Vertex>(graph.vertices);
+            Vertex vertex1 = vertices.get(random.nextInt(vertices.size()));
+            Vertex vertex2 = vertices.get(random.nextInt(vertices.size()));
+            if (vertex1 == vertex2 || vertex1.edges.contains(vertex2)) {
+                continue;
+            }
+            int distance = dualDistance(dual, vertex1, vertex2);
+            vertex1.addEdge(vertex2);
+
+            PlanarEmbeddingWithCrossings embedding = EcPlanarEmbeddingWithCrossings.embed(
+                start, Collections.<Vertex, EcNode>emptyMap(), InsertionMode.FIXED_EMBEDDING, null, 0);
+            checkEmbedding(embedding, graph);
+            int crossingCount = embedding.addedVertices(vertex1, vertex2).size();
+            if (crossingCount >= 2) {
+                assertEquals(distance, crossingCount);
+                assertEquals(crossingCount, embedding.crossingCount());
+                checkedCount++;
+            } else {
+                assertTrue(crossingCount <= distance);
+            }
+        }
+        assertTrue(checkedCount >= 10);
+    }
 }
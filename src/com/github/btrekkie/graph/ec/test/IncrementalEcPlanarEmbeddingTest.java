@@ -0,0 +1,180 @@
+package com.github.btrekkie.graph.ec.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.ec.EcNode;
+import com.github.btrekkie.graph.ec.EcPlanarEmbedding;
+import com.github.btrekkie.graph.ec.IncrementalEcPlanarEmbedding;
+
+public class IncrementalEcPlanarEmbeddingTest {
+    /**
+     * Returns a random constraint tree whose leaves are the specified vertices, or null if "vertices" is empty.
+     * @param parent The parent of the root of the tree.
+     * @param vertices The leaf vertices.
+     * @param random The random number generator to use.
+     * @return The root of the tree.
+     */
+    private EcNode createRandomConstraint(EcNode parent, List<Vertex> vertices, Random random) {
+        if (vertices.size() == 1 && parent != null) {
+            return EcNode.createVertex(parent, vertices.get(0));
+        }
+        EcNode.Type[] types = {EcNode.Type.GROUP, EcNode.Type.MIRROR, EcNode.Type.ORIENTED};
+        EcNode node = EcNode.create(parent, types[random.nextInt(types.length)]);
+        int start = 0;
+        while (start < vertices.size()) {
+            int end = Math.min(start + 1 + random.nextInt(3), vertices.size());
+            if (end - start == vertices.size()) {
+                end = start + 1;
+            }
+            createRandomConstraint(node, vertices.subList(start, end), random);
+            start = end;
+        }
+        return node;
+    }
+
+    /**
+     * Returns a copy of the subtree rooted at "node", excluding the leaves whose vertices are not adjacent to
+     * "vertex", or null if there are no such leaves.
+     * @param node The root of the subtree.
+     * @param parent The parent of the resulting node.
+     * @param vertex The vertex whose constraint tree contains "node".
+     * @return The resulting node.
+     */
+    private EcNode restrict(EcNode node, EcNode parent, Vertex vertex) {
+        if (node.type == EcNode.Type.VERTEX) {
+            if (vertex.edges.contains(node.vertex)) {
+                return EcNode.createVertex(parent, node.vertex);
+            } else {
+                return null;
+            }
+        }
+        EcNode newNode = EcNode.create(parent, node.type);
+        for (EcNode child : node.children) {
+            restrict(child, newNode, vertex);
+        }
+        if (!newNode.children.isEmpty()) {
+            return newNode;
+        } else {
+            if (parent != null) {
+                parent.children.remove(parent.children.size() - 1);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Returns a map from each vertex in "fullConstraints" to its constraint tree, excluding the leaves for the edges
+     * that are not present in the graph.
+     */
+    private Map<Vertex, EcNode> restrict(Map<Vertex, EcNode> fullConstraints) {
+        Map<Vertex, EcNode> constraints = new HashMap<Vertex, EcNode>();
+        for (Map.Entry<Vertex, EcNode> entry : fullConstraints.entrySet()) {
+            EcNode node = restrict(entry.getValue(), null, entry.getKey());
+            if (node != null) {
+                constraints.put(entry.getKey(), node);
+            }
+        }
+        return constraints;
+    }
+
+    /**
+     * Adds the edges of random graphs with random constraints one at a time, and checks that
+     * IncrementalEcPlanarEmbedding.addEdge agrees with EcPlanarEmbedding.embed after each addition.
+     */
+    @Test
+    public void testAddEdge() {
+        Random random = new Random(1);
+        int acceptCount = 0;
+        int rejectCount = 0;
+        for (int i = 0; i < 300; i++) {
+            // Compute a random graph and random constraints for its vertices
+            int vertexCount = 4 + random.nextInt(10);
+            List<Vertex> vertices = new ArrayList<Vertex>();
+            Graph fullGraph = new Graph();
+            for (int j = 0; j < vertexCount; j++) {
+                vertices.add(fullGraph.createVertex());
+            }
+            int edgeCount = vertexCount + random.nextInt(2 * vertexCount);
+            for (int j = 0; j < edgeCount; j++) {
+                Vertex vertex1 = vertices.get(random.nextInt(vertexCount));
+                Vertex vertex2 = vertices.get(random.nextInt(vertexCount));
+                if (vertex1 != vertex2) {
+                    vertex1.addEdge(vertex2);
+                }
+            }
+            Map<Vertex, EcNode> fullConstraints = new HashMap<Vertex, EcNode>();
+            for (Vertex vertex : vertices) {
+                if (vertex.edges.size() >= 3 && random.nextInt(3) > 0) {
+                    List<Vertex> adjVertices = new ArrayList<Vertex>(vertex.edges);
+                    Collections.shuffle(adjVertices, random);
+                    fullConstraints.put(vertex, createRandomConstraint(null, adjVertices, random));
+                }
+            }
+
+            // Add the edges in a random order
+            List<Vertex[]> edges = new ArrayList<Vertex[]>();
+            for (Vertex vertex : vertices) {
+                for (Vertex adjVertex : vertex.edges) {
+                    if (vertices.indexOf(adjVertex) > vertices.indexOf(vertex)) {
+                        edges.add(new Vertex[]{vertex, adjVertex});
+                    }
+                }
+            }
+            Collections.shuffle(edges, random);
+            for (Vertex vertex : vertices) {
+                vertex.edges.clear();
+            }
+            Vertex start = vertices.get(0);
+            IncrementalEcPlanarEmbedding incrementalEmbedding = new IncrementalEcPlanarEmbedding(start);
+            for (Vertex[] edge : edges) {
+                edge[0].addEdge(edge[1]);
+                Map<Vertex, EcNode> constraints = restrict(fullConstraints);
+                boolean isEcPlanar = EcPlanarEmbedding.embed(start, constraints) != null;
+                assertEquals(isEcPlanar, incrementalEmbedding.addEdge(edge[0], edge[1], constraints));
+                if (isEcPlanar) {
+                    acceptCount++;
+                } else {
+                    rejectCount++;
+                    edge[0].removeEdge(edge[1]);
+                }
+            }
+        }
+        assertTrue(acceptCount > 0);
+        assertTrue(rejectCount > 0);
+    }
+
+    /** Tests IncrementalEcPlanarEmbedding.addEdge on K5. */
+    @Test
+    public void testAddEdgeK5() {
+        Graph graph = new Graph();
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        for (int i = 0; i < 5; i++) {
+            vertices.add(graph.createVertex());
+        }
+        Map<Vertex, EcNode> constraints = Collections.emptyMap();
+        IncrementalEcPlanarEmbedding incrementalEmbedding = new IncrementalEcPlanarEmbedding(vertices.get(0));
+        for (int i = 0; i < 5; i++) {
+            for (int j = i + 1; j < 5; j++) {
+                vertices.get(i).addEdge(vertices.get(j));
+                if (i < 3 || j < 4) {
+                    assertTrue(incrementalEmbedding.addEdge(vertices.get(i), vertices.get(j), constraints));
+                } else {
+                    assertFalse(incrementalEmbedding.addEdge(vertices.get(i), vertices.get(j), constraints));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.btrekkie.graph.ec.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.ec.EcNode;
+import com.github.btrekkie.graph.ec.EcPlanarEmbeddingWithCrossings;
+import com.github.btrekkie.graph.ec.EcPlanarEmbeddingWithCrossings.InsertionMode;
+import com.github.btrekkie.graph.ec.MultiStartPlanarization;
+import com.github.btrekkie.graph.ec.PlanarizationRun;
+import com.github.btrekkie.graph.generator.GraphGenerator;
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
+import com.github.btrekkie.graph.planar.PlanarEmbeddingWithCrossings;
+
+public class MultiStartPlanarizationTest {
+    /**
+     * Asserts that embedding.embedding is a valid planar embedding of embedding.graph, and that each edge in the input
+     * graph "graph" corresponds to a path in embedding.graph.
+     */
+    private void checkEmbedding(PlanarEmbeddingWithCrossings embedding, Graph graph) {
+        assertNotNull(embedding.embedding);
+        new PlanarEmbedding(embedding.embedding.clockwiseOrder, embedding.embedding.externalFace);
+        for (Vertex vertex : graph.vertices) {
+            for (Vertex adjVertex : vertex.edges) {
+                Vertex prevVertex = embedding.originalVertexToVertex.get(vertex);
+                for (Vertex addedVertex : embedding.addedVertices(vertex, adjVertex)) {
+                    assertTrue(prevVertex.edges.contains(addedVertex));
+                    prevVertex = addedVertex;
+                }
+                assertTrue(prevVertex.edges.contains(embedding.originalVertexToVertex.get(adjVertex)));
+            }
+        }
+    }
+
+    /** Tests MultiStartPlanarization.embed on random near-planar graphs. */
+    @Test
+    public void testEmbed() {
+        Random random = new Random(23);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Map<Vertex, EcNode> constraints = Collections.emptyMap();
+        for (int i = 0; i < 10; i++) {
+            Graph graph = new Graph();
+            Vertex start = GraphGenerator.createRandomNearPlanar(graph, 10 + random.nextInt(20), 4, random);
+            PlanarEmbeddingWithCrossings singleEmbedding = EcPlanarEmbeddingWithCrossings.embed(start, constraints);
+            MultiStartPlanarization planarization = new MultiStartPlanarization(
+                start, constraints, InsertionMode.FIXED_EMBEDDING, 8, i, -1, Long.MAX_VALUE);
+            PlanarEmbeddingWithCrossings embedding = planarization.embed(pool);
+            checkEmbedding(embedding, graph);
+            assertTrue(embedding.crossingCount() <= singleEmbedding.crossingCount());
+
+            List<PlanarizationRun> runs = planarization.runs();
+            assertEquals(8, runs.size());
+            int minCrossingCount = Integer.MAX_VALUE;
+            for (int j = 0; j < runs.size(); j++) {
+                PlanarizationRun run = runs.get(j);
+                assertEquals(j, run.index);
+                assertFalse(run.wasSkipped);
+                assertTrue(run.crossingCount >= 0);
+                minCrossingCount = Math.min(minCrossingCount, run.crossingCount);
+            }
+            assertEquals(singleEmbedding.crossingCount(), runs.get(0).crossingCount);
+            assertEquals(minCrossingCount, embedding.crossingCount());
+            assertEquals(minCrossingCount, planarization.bestRun().crossingCount);
+        }
+        pool.shutdown();
+    }
+
+    /** Tests the conditions for stopping MultiStartPlanarization.embed early. */
+    @Test
+    public void testStop() {
+        Random random = new Random(123);
+        Graph graph = new Graph();
+        Vertex start = GraphGenerator.createRandomNearPlanar(graph, 20, 3, random);
+        Map<Vertex, EcNode> constraints = Collections.emptyMap();
+
+        // With a single thread, the runs are sequential, so reaching the target on run 0 skips the remaining runs
+        ForkJoinPool pool = new ForkJoinPool(1);
+        MultiStartPlanarization planarization = new MultiStartPlanarization(
+            start, constraints, InsertionMode.FIXED_EMBEDDING, 6, 0, Integer.MAX_VALUE, Long.MAX_VALUE);
+        checkEmbedding(planarization.embed(pool), graph);
+        List<PlanarizationRun> runs = planarization.runs();
+        assertEquals(6, runs.size());
+        assertFalse(runs.get(0).wasSkipped);
+        for (int i = 1; i < runs.size(); i++) {
+            assertTrue(runs.get(i).wasSkipped);
+            assertEquals(-1, runs.get(i).crossingCount);
+        }
+        assertEquals(0, planarization.bestRun().index);
+
+        planarization = new MultiStartPlanarization(
+            start, constraints, InsertionMode.FIXED_EMBEDDING, 6, 0, -1, Long.MAX_VALUE);
+        planarization.cancel();
+        checkEmbedding(planarization.embed(pool), graph);
+        runs = planarization.runs();
+        assertFalse(runs.get(0).wasSkipped);
+        for (int i = 1; i < runs.size(); i++) {
+            assertTrue(runs.get(i).wasSkipped);
+        }
+
+        planarization = new MultiStartPlanarization(start, constraints, InsertionMode.VARIABLE_EMBEDDING, 6, 0, -1, 0);
+        checkEmbedding(planarization.embed(), graph);
+        runs = planarization.runs();
+        assertFalse(runs.get(0).wasSkipped);
+        for (int i = 1; i < runs.size(); i++) {
+            assertTrue(runs.get(i).wasSkipped);
+        }
+        pool.shutdown();
+    }
+
+    /** Tests that MultiStartPlanarization.embed abandons a run that is in progress when it exceeds the time limit. */
+    @Test
+    public void testStopInProgress() {
+        Random random = new Random(1234);
+        Graph graph = new Graph();
+        Vertex start = GraphGenerator.createRandomNearPlanar(graph, 40, 6, random);
+        Map<Vertex, EcNode> constraints = Collections.emptyMap();
+
+        // Measure how long a run takes, after warming up
+        EcPlanarEmbeddingWithCrossings.embed(start, constraints, InsertionMode.VARIABLE_EMBEDDING);
+        long startNanos = System.nanoTime();
+        EcPlanarEmbeddingWithCrossings.embed(start, constraints, InsertionMode.VARIABLE_EMBEDDING);
+        long runNanos = System.nanoTime() - startNanos;
+
+        // With two threads, runs 0 and 1 start at about the same time, so run 1 is in progress when we reach the time
+        // limit
+        ForkJoinPool pool = new ForkJoinPool(2);
+        MultiStartPlanarization planarization = new MultiStartPlanarization(
+            start, constraints, InsertionMode.VARIABLE_EMBEDDING, 2, 0, -1, runNanos / 4);
+        checkEmbedding(planarization.embed(pool), graph);
+        List<PlanarizationRun> runs = planarization.runs();
+        assertEquals(2, runs.size());
+        assertFalse(runs.get(0).wasSkipped);
+        assertTrue(runs.get(1).wasSkipped);
+        assertNotNull(runs.get(1).start);
+        assertEquals(-1, runs.get(1).crossingCount);
+        assertEquals(0, planarization.bestRun().index);
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,284 @@
+package com.github.btrekkie.graph.generator;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+
+/**
+ * Provides static methods for generating large graphs, for benchmarking and stress testing.  Each method adds a new
+ * connected component to a given Graph, creating the vertices using Graph.createVertex, and returns the first vertex
+ * it created.  The vertices of the component appear in graph.vertices in the order in which they were created.  The
+ * randomized methods take a Random object, so that the results are reproducible: calling a method twice with the same
+ * arguments and with Random objects constructed using the same seed produces isomorphic components, with the vertices
+ * and edges created in the same order.
+ */
+/* The generators store the vertices they create in arrays, so that they can select random vertices, but they do not
+ * use any other intermediate data structures.  Random triangulations are random stacked triangulations (also known as
+ * random Apollonian networks): we start with a triangle and repeatedly insert a vertex into a uniformly random inner
+ * face, connecting it to the three corners of the face.
+ */
+public class GraphGenerator {
+    /**
+     * Adds a grid graph with the specified number of rows and columns to the specified graph.  The vertices are
+     * created in row-major order.  If rows and columns are at least 2, the grid is biconnected, but not triconnected.
+     */
+    public static Vertex createGrid(Graph graph, int rows, int columns) {
+        if (rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("The grid must have at least one row and one column");
+        }
+        Vertex[] prevRow = null;
+        Vertex[] row = new Vertex[columns];
+        Vertex first = null;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                Vertex vertex = graph.createVertex();
+                if (j > 0) {
+                    vertex.addEdge(row[j - 1]);
+                }
+                if (prevRow != null) {
+                    vertex.addEdge(prevRow[j]);
+                }
+                if (first == null) {
+                    first = vertex;
+                }
+                row[j] = vertex;
+            }
+            Vertex[] temp = prevRow;
+            prevRow = row;
+            row = temp != null ? temp : new Vertex[columns];
+        }
+        return first;
+    }
+
+    /**
+     * Adds a random tree with the specified number of vertices to the specified graph.  Each vertex after the first is
+     * adjacent to a uniformly random vertex created before it (a random recursive tree).
+     */
+    public static Vertex createRandomTree(Graph graph, int vertexCount, Random random) {
+        if (vertexCount <= 0) {
+            throw new IllegalArgumentException("The tree must have at least one vertex");
+        }
+        Vertex[] vertices = new Vertex[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            vertices[i] = graph.createVertex();
+            if (i > 0) {
+                vertices[i].addEdge(vertices[random.nextInt(i)]);
+            }
+        }
+        return vertices[0];
+    }
+
+    /**
+     * Adds a random maximal planar graph to the specified graph, i.e. a triangulation.  It is a random stacked
+     * triangulation, so it is triconnected if vertices.length >= 4.  The first three vertices of "vertices" form a
+     * triangle, which is a face of every planar embedding of the graph if vertices.length >= 4.  We do not overwrite
+     * non-null elements of "vertices", but create a vertex for each null element and store it in "vertices".  Thus,
+     * the caller may cause the triangulation to share vertices with other parts of the graph, as long as those vertices
+     * are at the beginning of the array.  Assumes vertices.length >= 3.
+     */
+    private static void addRandomTriangulation(Graph graph, Vertex[] vertices, Random random) {
+        for (int i = 0; i < vertices.length; i++) {
+            if (vertices[i] == null) {
+                vertices[i] = graph.createVertex();
+            }
+        }
+        vertices[0].addEdge(vertices[1]);
+        vertices[1].addEdge(vertices[2]);
+        vertices[2].addEdge(vertices[0]);
+
+        // The corners of the inner faces.  faces[3 * i], faces[3 * i + 1], and faces[3 * i + 2] are the corners of the
+        // i'th face.
+        Vertex[] faces = new Vertex[3 * (2 * vertices.length - 5)];
+        faces[0] = vertices[0];
+        faces[1] = vertices[1];
+        faces[2] = vertices[2];
+        int faceCount = 1;
+        for (int i = 3; i < vertices.length; i++) {
+            Vertex vertex = vertices[i];
+            int face = random.nextInt(faceCount);
+            Vertex corner1 = faces[3 * face];
+            Vertex corner2 = faces[3 * face + 1];
+            Vertex corner3 = faces[3 * face + 2];
+            vertex.addEdge(corner1);
+            vertex.addEdge(corner2);
+            vertex.addEdge(corner3);
+
+            // Replace the face with three faces
+            faces[3 * face + 2] = vertex;
+            faces[3 * faceCount] = corner2;
+            faces[3 * faceCount + 1] = corner3;
+            faces[3 * faceCount + 2] = vertex;
+            faces[3 * faceCount + 3] = corner3;
+            faces[3 * faceCount + 4] = corner1;
+            faces[3 * faceCount + 5] = vertex;
+            faceCount += 2;
+        }
+    }
+
+    /**
+     * Adds a random maximal planar graph with the specified number of vertices to the specified graph, i.e. a planar
+     * graph to which we cannot add any edges without violating planarity.  It is a random stacked triangulation.  If
+     * vertexCount >= 4, it is triconnected and has 3 * vertexCount - 6 edges.
+     */
+    public static Vertex createRandomTriangulation(Graph graph, int vertexCount, Random random) {
+        if (vertexCount < 3) {
+            throw new IllegalArgumentException("A triangulation must have at least three vertices");
+        }
+        Vertex[] vertices = new Vertex[vertexCount];
+        addRandomTriangulation(graph, vertices, random);
+        return vertices[0];
+    }
+
+    /**
+     * Adds a random near-planar graph to the specified graph: a random maximal planar graph with the specified number
+     * of vertices, as in createRandomTriangulation, plus extraEdgeCount additional edges between uniformly random
+     * pairs of non-adjacent vertices.  If vertexCount >= 5 and extraEdgeCount >= 1, the result is not planar.
+     */
+    public static Vertex createRandomNearPlanar(Graph graph, int vertexCount, int extraEdgeCount, Random random) {
+        if (vertexCount < 3) {
+            throw new IllegalArgumentException("The graph must have at least three vertices");
+        }
+        if (extraEdgeCount < 0) {
+            throw new IllegalArgumentException("The number of extra edges may not be negative");
+        }
+        if (extraEdgeCount > (long)vertexCount * (vertexCount - 1) / 2 - (3 * vertexCount - 6)) {
+            throw new IllegalArgumentException("There are not enough pairs of non-adjacent vertices");
+        }
+        Vertex[] vertices = new Vertex[vertexCount];
+        addRandomTriangulation(graph, vertices, random);
+        for (int i = 0; i < extraEdgeCount; i++) {
+            Vertex vertex1;
+            Vertex vertex2;
+            do {
+                vertex1 = vertices[random.nextInt(vertexCount)];
+                vertex2 = vertices[random.nextInt(vertexCount)];
+            } while (vertex1 == vertex2 || vertex1.edges.contains(vertex2));
+            vertex1.addEdge(vertex2);
+        }
+        return vertices[0];
+    }
+
+    /**
+     * Adds a random biconnected series-parallel graph with the specified number of vertices to the specified graph.
+     * We start with a single edge between two terminal vertices, and we repeatedly create a vertex and pick a uniformly
+     * random edge.  With probability seriesProbability, we subdivide the edge using the vertex.  Otherwise, we connect
+     * the vertex to both endpoints of the edge, which amounts to adding a parallel edge and subdividing it.  We always
+     * connect the first such vertex to both terminals, since subdividing the initial edge would result in a cut vertex.
+     * The terminal vertices are the first two vertices.
+     */
+    public static Vertex createRandomSeriesParallel(
+            Graph graph, int vertexCount, double seriesProbability, Random random) {
+        if (vertexCount < 2) {
+            throw new IllegalArgumentException("The graph must have at least two vertices");
+        }
+
+        // The endpoints of the edges, in no particular order
+        Vertex[] edgeStarts = new Vertex[2 * vertexCount - 3];
+        Vertex[] edgeEnds = new Vertex[2 * vertexCount - 3];
+        Vertex first = graph.createVertex();
+        edgeStarts[0] = first;
+        edgeEnds[0] = graph.createVertex();
+        first.addEdge(edgeEnds[0]);
+        int edgeCount = 1;
+        for (int i = 2; i < vertexCount; i++) {
+            Vertex vertex = graph.createVertex();
+            int edge = random.nextInt(edgeCount);
+            Vertex start = edgeStarts[edge];
+            Vertex end = edgeEnds[edge];
+            if (i > 2 && random.nextDouble() < seriesProbability) {
+                start.removeEdge(end);
+                edgeEnds[edge] = vertex;
+            } else {
+                edgeStarts[edgeCount] = start;
+                edgeEnds[edgeCount] = vertex;
+                edgeCount++;
+            }
+            start.addEdge(vertex);
+            vertex.addEdge(end);
+            edgeStarts[edgeCount] = vertex;
+            edgeEnds[edgeCount] = end;
+            edgeCount++;
+        }
+        return first;
+    }
+
+    /** Returns a uniformly random vertex adjacent to the specified vertex.  Assumes it has at least one edge. */
+    private static Vertex randomAdjVertex(Vertex vertex, Random random) {
+        Iterator<Vertex> iterator = vertex.edges.iterator();
+        for (int i = random.nextInt(vertex.edges.size()); i > 0; i--) {
+            iterator.next();
+        }
+        return iterator.next();
+    }
+
+    /**
+     * Adds a random connected graph with a prescribed block-cut tree structure to the specified graph.  The graph has
+     * blockCount blocks, each of which is a random maximal planar graph with blockSize vertices, as in
+     * createRandomTriangulation.  Each block after the first shares one uniformly random vertex with the previously
+     * created blocks.  Thus, the graph is planar and has blockCount * (blockSize - 1) + 1 vertices, and each block is
+     * triconnected if blockSize >= 4.
+     */
+    public static Vertex createRandomBlockTree(Graph graph, int blockCount, int blockSize, Random random) {
+        if (blockCount <= 0) {
+            throw new IllegalArgumentException("There must be at least one block");
+        }
+        if (blockSize < 3) {
+            throw new IllegalArgumentException("Each block must have at least three vertices");
+        }
+        Vertex[] vertices = new Vertex[blockCount * (blockSize - 1) + 1];
+        int vertexCount = 0;
+        Vertex[] blockVertices = new Vertex[blockSize];
+        for (int i = 0; i < blockCount; i++) {
+            for (int j = 0; j < blockSize; j++) {
+                blockVertices[j] = null;
+            }
+            if (i > 0) {
+                blockVertices[0] = vertices[random.nextInt(vertexCount)];
+            }
+            addRandomTriangulation(graph, blockVertices, random);
+            for (int j = i > 0 ? 1 : 0; j < blockSize; j++) {
+                vertices[vertexCount] = blockVertices[j];
+                vertexCount++;
+            }
+        }
+        return vertices[0];
+    }
+
+    /**
+     * Adds a random biconnected planar graph with a prescribed SPQR tree structure to the specified graph.  The graph
+     * consists of rigidCount random maximal planar graphs with rigidSize vertices each, as in
+     * createRandomTriangulation.  Each of them after the first shares a uniformly random edge with the previously
+     * created ones: an edge adjacent to a uniformly random vertex.  Thus, if rigidSize >= 4, the SPQR tree of the
+     * graph has rigidCount R nodes, whose skeletons have rigidSize vertices each, and a P node for each distinct shared
+     * edge.  The graph has rigidCount * (rigidSize - 2) + 2 vertices.
+     */
+    public static Vertex createRandomSpqrTree(Graph graph, int rigidCount, int rigidSize, Random random) {
+        if (rigidCount <= 0) {
+            throw new IllegalArgumentException("There must be at least one rigid component");
+        }
+        if (rigidSize < 4) {
+            throw new IllegalArgumentException("Each rigid component must have at least four vertices");
+        }
+        Vertex[] vertices = new Vertex[rigidCount * (rigidSize - 2) + 2];
+        int vertexCount = 0;
+        Vertex[] rigidVertices = new Vertex[rigidSize];
+        for (int i = 0; i < rigidCount; i++) {
+            for (int j = 0; j < rigidSize; j++) {
+                rigidVertices[j] = null;
+            }
+            if (i > 0) {
+                Vertex vertex = vertices[random.nextInt(vertexCount)];
+                rigidVertices[0] = vertex;
+                rigidVertices[1] = randomAdjVertex(vertex, random);
+            }
+            addRandomTriangulation(graph, rigidVertices, random);
+            for (int j = i > 0 ? 2 : 0; j < rigidSize; j++) {
+                vertices[vertexCount] = rigidVertices[j];
+                vertexCount++;
+            }
+        }
+        return vertices[0];
+    }
+}
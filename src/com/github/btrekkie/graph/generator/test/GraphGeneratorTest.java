@@ -0,0 +1,174 @@
+package com.github.btrekkie.graph.generator.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.CompactGraph;
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.bc.BlockNode;
+import com.github.btrekkie.graph.bc.CutNode;
+import com.github.btrekkie.graph.generator.GraphGenerator;
+import com.github.btrekkie.graph.planar.PlanarityTester;
+import com.github.btrekkie.graph.spqr.SpqrNode;
+
+public class GraphGeneratorTest {
+    /** Returns the number of edges in the specified graph. */
+    private static int edgeCount(Graph graph) {
+        int twiceEdgeCount = 0;
+        for (Vertex vertex : graph.vertices) {
+            twiceEdgeCount += vertex.edges.size();
+        }
+        return twiceEdgeCount / 2;
+    }
+
+    /** Returns whether the specified graph is planar. */
+    private static boolean isPlanar(Graph graph) {
+        return new PlanarityTester().isPlanar(CompactGraph.create(graph));
+    }
+
+    /**
+     * Returns a description of the specified graph in terms of the positions of the vertices in graph.vertices: the
+     * list of the positions of the adjacent vertices of each vertex, in order.
+     */
+    private static List<List<Integer>> adjacencyLists(Graph graph) {
+        Map<Vertex, Integer> indices = new HashMap<Vertex, Integer>();
+        for (Vertex vertex : graph.vertices) {
+            indices.put(vertex, indices.size());
+        }
+        List<List<Integer>> adjacencyLists = new ArrayList<List<Integer>>();
+        for (Vertex vertex : graph.vertices) {
+            List<Integer> adjacencyList = new ArrayList<Integer>();
+            for (Vertex adjVertex : vertex.edges) {
+                adjacencyList.add(indices.get(adjVertex));
+            }
+            adjacencyLists.add(adjacencyList);
+        }
+        return adjacencyLists;
+    }
+
+    /** Returns the number of BlockNodes in the block-cut tree rooted at the specified node. */
+    private static int blockCount(BlockNode node) {
+        int count = 1;
+        for (CutNode child : node.children) {
+            for (BlockNode grandchild : child.children) {
+                count += blockCount(grandchild);
+            }
+        }
+        return count;
+    }
+
+    /** Returns the number of nodes of the specified type in the SPQR tree rooted at the specified node. */
+    private static int nodeCount(SpqrNode node, SpqrNode.Type type) {
+        int count = node.type == type ? 1 : 0;
+        for (SpqrNode child : node.children) {
+            count += nodeCount(child, type);
+        }
+        return count;
+    }
+
+    /** Tests GraphGenerator.createGrid. */
+    @Test
+    public void testCreateGrid() {
+        Graph graph = new Graph();
+        Vertex vertex = GraphGenerator.createGrid(graph, 7, 5);
+        assertEquals(graph.vertices.iterator().next(), vertex);
+        assertEquals(35, graph.vertices.size());
+        assertEquals(7 * 4 + 6 * 5, edgeCount(graph));
+        assertEquals(2, vertex.edges.size());
+        assertTrue(isPlanar(graph));
+        assertEquals(1, blockCount(BlockNode.compute(vertex)));
+
+        graph = new Graph();
+        GraphGenerator.createGrid(graph, 1, 4);
+        assertEquals(4, graph.vertices.size());
+        assertEquals(3, edgeCount(graph));
+    }
+
+    /** Tests GraphGenerator.createRandomTree. */
+    @Test
+    public void testCreateRandomTree() {
+        Graph graph = new Graph();
+        Vertex vertex = GraphGenerator.createRandomTree(graph, 1000, new Random(1));
+        assertEquals(1000, graph.vertices.size());
+        assertEquals(999, edgeCount(graph));
+        assertEquals(999, blockCount(BlockNode.compute(vertex)));
+
+        Graph graph2 = new Graph();
+        GraphGenerator.createRandomTree(graph2, 1000, new Random(1));
+        assertEquals(adjacencyLists(graph), adjacencyLists(graph2));
+    }
+
+    /** Tests GraphGenerator.createRandomTriangulation and GraphGenerator.createRandomNearPlanar. */
+    @Test
+    public void testCreateRandomTriangulation() {
+        Graph graph = new Graph();
+        Vertex vertex = GraphGenerator.createRandomTriangulation(graph, 500, new Random(2));
+        assertEquals(500, graph.vertices.size());
+        assertEquals(3 * 500 - 6, edgeCount(graph));
+        assertTrue(isPlanar(graph));
+        SpqrNode root = SpqrNode.create(vertex, vertex.edges.iterator().next());
+        assertEquals(SpqrNode.Type.R, root.type);
+        assertTrue(root.children.isEmpty());
+
+        Graph graph2 = new Graph();
+        GraphGenerator.createRandomTriangulation(graph2, 500, new Random(2));
+        assertEquals(adjacencyLists(graph), adjacencyLists(graph2));
+
+        graph = new Graph();
+        GraphGenerator.createRandomNearPlanar(graph, 500, 3, new Random(3));
+        assertEquals(500, graph.vertices.size());
+        assertEquals(3 * 500 - 3, edgeCount(graph));
+        assertFalse(isPlanar(graph));
+    }
+
+    /** Tests GraphGenerator.createRandomSeriesParallel. */
+    @Test
+    public void testCreateRandomSeriesParallel() {
+        Graph graph = new Graph();
+        Vertex vertex = GraphGenerator.createRandomSeriesParallel(graph, 500, 0.5, new Random(4));
+        assertEquals(500, graph.vertices.size());
+        assertTrue(isPlanar(graph));
+        assertEquals(1, blockCount(BlockNode.compute(vertex)));
+        SpqrNode root = SpqrNode.create(vertex, vertex.edges.iterator().next());
+        assertEquals(0, nodeCount(root, SpqrNode.Type.R));
+        assertTrue(nodeCount(root, SpqrNode.Type.S) > 0);
+        assertTrue(nodeCount(root, SpqrNode.Type.P) > 0);
+    }
+
+    /** Tests GraphGenerator.createRandomBlockTree. */
+    @Test
+    public void testCreateRandomBlockTree() {
+        Graph graph = new Graph();
+        Vertex vertex = GraphGenerator.createRandomBlockTree(graph, 50, 6, new Random(5));
+        assertEquals(50 * 5 + 1, graph.vertices.size());
+        assertEquals(50 * (3 * 6 - 6), edgeCount(graph));
+        assertTrue(isPlanar(graph));
+        assertEquals(50, blockCount(BlockNode.compute(vertex)));
+    }
+
+    /** Tests GraphGenerator.createRandomSpqrTree. */
+    @Test
+    public void testCreateRandomSpqrTree() {
+        Graph graph = new Graph();
+        Vertex vertex = GraphGenerator.createRandomSpqrTree(graph, 40, 7, new Random(6));
+        assertEquals(40 * 5 + 2, graph.vertices.size());
+        assertTrue(isPlanar(graph));
+        assertEquals(1, blockCount(BlockNode.compute(vertex)));
+        SpqrNode root = SpqrNode.create(vertex, vertex.edges.iterator().next());
+        assertEquals(40, nodeCount(root, SpqrNode.Type.R));
+        assertEquals(0, nodeCount(root, SpqrNode.Type.S));
+        assertEquals(40 * (3 * 7 - 6) - 39, edgeCount(graph));
+        int pNodeCount = nodeCount(root, SpqrNode.Type.P);
+        assertTrue(pNodeCount >= 1 && pNodeCount <= 39);
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.btrekkie.graph.planar;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import com.github.btrekkie.graph.Vertex;
+
+/** An iterator over the entries of a ClockwiseOrderMap, in order of vertex number. */
+class ClockwiseOrderEntryIterator implements Iterator<Entry<Vertex, List<Vertex>>> {
+    /** The rotation system that the ClockwiseOrderMap is a view of. */
+    private final RotationSystem rotationSystem;
+
+    /** The vertex number of the next vertex to return. */
+    private int vertex;
+
+    public ClockwiseOrderEntryIterator(RotationSystem rotationSystem) {
+        this.rotationSystem = rotationSystem;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return vertex < rotationSystem.vertexCount();
+    }
+
+    @Override
+    public Entry<Vertex, List<Vertex>> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Entry<Vertex, List<Vertex>> entry = new SimpleImmutableEntry<Vertex, List<Vertex>>(
+            rotationSystem.vertex(vertex), new ClockwiseOrderList(rotationSystem, vertex));
+        vertex++;
+        return entry;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
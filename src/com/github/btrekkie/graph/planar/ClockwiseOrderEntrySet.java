@@ -0,0 +1,28 @@
+package com.github.btrekkie.graph.planar;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import com.github.btrekkie.graph.Vertex;
+
+/** The entry set of a ClockwiseOrderMap. */
+class ClockwiseOrderEntrySet extends AbstractSet<Entry<Vertex, List<Vertex>>> {
+    /** The rotation system that the ClockwiseOrderMap is a view of. */
+    private final RotationSystem rotationSystem;
+
+    public ClockwiseOrderEntrySet(RotationSystem rotationSystem) {
+        this.rotationSystem = rotationSystem;
+    }
+
+    @Override
+    public int size() {
+        return rotationSystem.vertexCount();
+    }
+
+    @Override
+    public Iterator<Entry<Vertex, List<Vertex>>> iterator() {
+        return new ClockwiseOrderEntryIterator(rotationSystem);
+    }
+}
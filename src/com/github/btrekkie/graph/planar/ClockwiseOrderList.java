@@ -0,0 +1,36 @@
+package com.github.btrekkie.graph.planar;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import com.github.btrekkie.graph.Vertex;
+
+/**
+ * A read-only view of the vertices adjacent to a vertex in a RotationSystem, in clockwise order of the edges to those
+ * vertices, as in the values of PlanarEmbedding.clockwiseOrder.
+ */
+class ClockwiseOrderList extends AbstractList<Vertex> implements RandomAccess {
+    /** The rotation system this is a view of. */
+    private final RotationSystem rotationSystem;
+
+    /** The vertex number of the vertex whose adjacent vertices this contains. */
+    private final int vertex;
+
+    public ClockwiseOrderList(RotationSystem rotationSystem, int vertex) {
+        this.rotationSystem = rotationSystem;
+        this.vertex = vertex;
+    }
+
+    @Override
+    public int size() {
+        return rotationSystem.degree(vertex);
+    }
+
+    @Override
+    public Vertex get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + size());
+        }
+        return rotationSystem.vertex(rotationSystem.target(rotationSystem.offset(vertex) + index));
+    }
+}
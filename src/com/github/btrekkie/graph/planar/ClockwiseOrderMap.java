@@ -0,0 +1,49 @@
+package com.github.btrekkie.graph.planar;
+
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Set;
+
+import com.github.btrekkie.graph.Vertex;
+
+/**
+ * A read-only view of a RotationSystem as a map from each vertex to the adjacent vertices, in clockwise order of the
+ * edges to those vertices, as in PlanarEmbedding.clockwiseOrder.  We iterate over the vertices in order of their vertex
+ * numbers.  Lookups take O(1) time, apart from the first call to RotationSystem.vertexIndex.
+ */
+class ClockwiseOrderMap extends AbstractMap<Vertex, List<Vertex>> {
+    /** The rotation system this is a view of. */
+    private final RotationSystem rotationSystem;
+
+    public ClockwiseOrderMap(RotationSystem rotationSystem) {
+        this.rotationSystem = rotationSystem;
+    }
+
+    @Override
+    public int size() {
+        return rotationSystem.vertexCount();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Vertex && rotationSystem.vertexIndex((Vertex)key) >= 0;
+    }
+
+    @Override
+    public List<Vertex> get(Object key) {
+        if (!(key instanceof Vertex)) {
+            return null;
+        }
+        int vertex = rotationSystem.vertexIndex((Vertex)key);
+        if (vertex < 0) {
+            return null;
+        } else {
+            return new ClockwiseOrderList(rotationSystem, vertex);
+        }
+    }
+
+    @Override
+    public Set<Entry<Vertex, List<Vertex>>> entrySet() {
+        return new ClockwiseOrderEntrySet(rotationSystem);
+    }
+}
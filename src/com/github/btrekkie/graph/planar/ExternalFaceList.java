@@ -0,0 +1,67 @@
+package com.github.btrekkie.graph.planar;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import com.github.btrekkie.graph.Vertex;
+
+/**
+ * A read-only view of the external face of a planar embedding, as in PlanarEmbedding.externalFace.  We walk the face
+ * the first time it is needed, so constructing an ExternalFaceList takes O(1) time.
+ */
+class ExternalFaceList extends AbstractList<Vertex> implements RandomAccess {
+    /** The rotation system of the embedding. */
+    private final RotationSystem rotationSystem;
+
+    /**
+     * The half-edge from the first vertex of the face to the second, as in PlanarEmbedding.externalFaceEdge, or -1 if
+     * the rotation system has no edges.
+     */
+    private final int externalFaceEdge;
+
+    /**
+     * The vertex numbers of the vertices on the face, or null if we have not computed them yet.  This is volatile, so
+     * that a thread that reads a non-null value also sees the array's contents.
+     */
+    private volatile int[] vertices;
+
+    public ExternalFaceList(RotationSystem rotationSystem, int externalFaceEdge) {
+        this.rotationSystem = rotationSystem;
+        this.externalFaceEdge = externalFaceEdge;
+    }
+
+    /** Returns the "vertices" field, computing it if necessary. */
+    private int[] vertices() {
+        int[] vertices = this.vertices;
+        if (vertices == null) {
+            if (externalFaceEdge < 0) {
+                vertices = new int[]{0};
+            } else {
+                int size = 0;
+                int edge = externalFaceEdge;
+                do {
+                    size++;
+                    edge = rotationSystem.nextOnFace(edge);
+                } while (edge != externalFaceEdge);
+
+                vertices = new int[size];
+                for (int i = 0; i < size; i++) {
+                    vertices[i] = rotationSystem.source(edge);
+                    edge = rotationSystem.nextOnFace(edge);
+                }
+            }
+            this.vertices = vertices;
+        }
+        return vertices;
+    }
+
+    @Override
+    public int size() {
+        return vertices().length;
+    }
+
+    @Override
+    public Vertex get(int index) {
+        return rotationSystem.vertex(vertices()[index]);
+    }
+}
@@ -0,0 +1,784 @@
+package com.github.btrekkie.graph.planar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.util.UnorderedPair;
+
+/**
+ * Extracts a KuratowskiSubgraph from the state of PlanarEmbedding.compute at the point where it fails to add the back
+ * edges from some vertex.  See the comments for the implementation of PlanarEmbedding.
+ */
+/* This follows the Kuratowski subgraph isolation described in the paper
+ * http://jgaa.info/accepted/2004/BoyerMyrvold2004.8.3.pdf (Boyer and Myrvold (2004): On the Cutting Edge: Simplified
+ * O(n) Planarity by Edge Addition).  Let v be the vertex whose back edges we failed to add.  We find a "blocked"
+ * biconnected component B with a root r (a copy of v or of a descendant of v), along with the first active vertices x
+ * and y on either side of r on the external face of B, and a pertinent vertex w on the "lower" path from x to y that
+ * avoids r.  x and y are externally active, so each has an "external path" to a proper ancestor of v that avoids B,
+ * and w has a "pertinent path" to v that avoids B.  The paper distinguishes five minors, A through E, that each
+ * determine a subdivision of K5 or K33 consisting of the external face of B, these paths, the path from v to the root
+ * of the depth-first search tree, and at most one more path through the interior of B.
+ *
+ * Rather than working with the internal faces of B as the paper does, we find the path through the interior of B
+ * using the "bridges" of the external face C of B: the connected components of B - C, along with the chords of C.  In
+ * each case, we look for a bridge whose points of attachment to C are in the appropriate positions.
+ *
+ * The walk-down procedure adds synthetic short circuit edges to the biconnected components, so we compute the
+ * external face of B in terms of edges in the graph by replacing each synthetic edge with the path along the face
+ * that we created when we added the edge.  This path may include detours through the external faces of separated
+ * biconnected components, which we remove.
+ *
+ * Each step takes time proportional to the size of the part of the graph it examines, and the parts we examine are
+ * (nearly) disjoint, so this takes linear time overall.
+ */
+class KuratowskiIsolator {
+    /** The vertex whose back edges we failed to add to the embedding. */
+    private final PlanarVertex curVertex;
+
+    /** A map from each vertex to its children in the depth-first search tree. */
+    private final Map<PlanarVertex, List<PlanarVertex>> children = new HashMap<PlanarVertex, List<PlanarVertex>>();
+
+    /**
+     * The vertices V for which the RootVertex with RootVertex.child == V is in the separated children list of
+     * V.parent, i.e. for which we have not merged the edge from V.parent to V into the parent biconnected component.
+     */
+    private final Set<PlanarVertex> separatedVertices = new HashSet<PlanarVertex>();
+
+    /** A map from the first edge in each internal face whose first edge is synthetic to the face. */
+    private final Map<HalfEdge, PlanarFace> syntheticEdgeFaces = new HashMap<HalfEdge, PlanarFace>();
+
+    /** The edges in the KuratowskiSubgraph we are computing. */
+    private Set<UnorderedPair<Vertex>> edges = new LinkedHashSet<UnorderedPair<Vertex>>();
+
+    /**
+     * Constructs a new KuratowskiIsolator.
+     * @param vertices The vertices in the depth-first search tree.
+     * @param faces The internal faces PlanarEmbedding.compute created before it failed.
+     * @param curVertex The vertex whose back edges we failed to add to the embedding.
+     */
+    public KuratowskiIsolator(List<PlanarVertex> vertices, Collection<PlanarFace> faces, PlanarVertex curVertex) {
+        this.curVertex = curVertex;
+        for (PlanarVertex vertex : vertices) {
+            if (vertex.parent != null) {
+                List<PlanarVertex> vertexChildren = children.get(vertex.parent);
+                if (vertexChildren == null) {
+                    vertexChildren = new ArrayList<PlanarVertex>();
+                    children.put(vertex.parent, vertexChildren);
+                }
+                vertexChildren.add(vertex);
+            }
+            for (RootVertex rootVertex = vertex.separatedChildrenHead; rootVertex != null;
+                    rootVertex = rootVertex.next) {
+                separatedVertices.add(rootVertex.child);
+            }
+        }
+        for (PlanarFace face : faces) {
+            HalfEdge edge = face.edges.get(0);
+            if (edge.isSynthetic) {
+                syntheticEdgeFaces.put(edge, face);
+            }
+        }
+    }
+
+    /** Returns the children of the specified vertex in the depth-first search tree. */
+    private List<PlanarVertex> children(PlanarVertex vertex) {
+        List<PlanarVertex> vertexChildren = children.get(vertex);
+        if (vertexChildren != null) {
+            return vertexChildren;
+        } else {
+            return Collections.emptyList();
+        }
+    }
+
+    /** Returns the PlanarVertex at the end of the specified edge. */
+    private static PlanarVertex end(HalfEdge edge) {
+        if (edge.endVertex != null) {
+            return edge.endVertex;
+        } else {
+            return edge.endRootVertex.vertex;
+        }
+    }
+
+    /**
+     * Returns the vertices on the external face of the biconnected component rooted at the specified RootVertex, in
+     * terms of edges in the graph.  The first vertex is rootVertex.vertex, and the second is the next vertex in the
+     * direction of rootVertex.link(false).
+     */
+    private List<PlanarVertex> externalFace(RootVertex rootVertex) {
+        // Compute the edges of the external face, which may include synthetic edges
+        List<HalfEdge> faceEdges = new ArrayList<HalfEdge>();
+        HalfEdge edge = rootVertex.link(false);
+        boolean isInBlack = true;
+        while (true) {
+            faceEdges.add(edge);
+            VertexAndDir successor = PlanarEmbedding.successorOnExternalFace(edge, isInBlack);
+            if (successor.rootVertex == rootVertex) {
+                break;
+            }
+            edge = successor.vertex.link(!successor.isInBlack);
+            isInBlack = successor.isInBlack;
+        }
+
+        // Replace each synthetic edge with the path along the face we created when we added it.  We store the edges we
+        // have yet to process in a stack, in reverse order.
+        List<PlanarVertex> walk = new ArrayList<PlanarVertex>();
+        walk.add(rootVertex.vertex);
+        List<HalfEdge> stack = new ArrayList<HalfEdge>(faceEdges);
+        Collections.reverse(stack);
+        while (!stack.isEmpty()) {
+            edge = stack.remove(stack.size() - 1);
+            if (!edge.isSynthetic) {
+                walk.add(end(edge));
+            } else {
+                PlanarFace face = syntheticEdgeFaces.get(edge);
+                if (face != null) {
+                    // The path from the start of the synthetic edge to its end is the reverse of the rest of the face
+                    for (int i = 1; i < face.edges.size(); i++) {
+                        stack.add(face.edges.get(i).twinEdge);
+                    }
+                } else {
+                    face = syntheticEdgeFaces.get(edge.twinEdge);
+                    for (int i = face.edges.size() - 1; i > 0; i--) {
+                        stack.add(face.edges.get(i));
+                    }
+                }
+            }
+        }
+
+        // Remove the detours through separated biconnected components, i.e. compute a loop-erased walk.  The last
+        // element of "walk" is rootVertex.vertex again.
+        List<PlanarVertex> cycle = new ArrayList<PlanarVertex>();
+        Map<PlanarVertex, Integer> positions = new HashMap<PlanarVertex, Integer>();
+        for (int i = 0; i < walk.size() - 1; i++) {
+            PlanarVertex vertex = walk.get(i);
+            Integer position = positions.get(vertex);
+            if (position == null) {
+                positions.put(vertex, cycle.size());
+                cycle.add(vertex);
+            } else {
+                while (cycle.size() > position + 1) {
+                    positions.remove(cycle.remove(cycle.size() - 1));
+                }
+            }
+        }
+        return cycle;
+    }
+
+    /** Adds the edge between the specified vertices to "edges". */
+    private void addEdge(PlanarVertex vertex1, PlanarVertex vertex2) {
+        edges.add(new UnorderedPair<Vertex>(vertex1.vertex, vertex2.vertex));
+    }
+
+    /** Adds the path in the depth-first search tree from "descendant" to its ancestor "ancestor" to "edges". */
+    private void addTreePath(PlanarVertex descendant, PlanarVertex ancestor) {
+        for (PlanarVertex vertex = descendant; vertex != ancestor; vertex = vertex.parent) {
+            addEdge(vertex, vertex.parent);
+        }
+    }
+
+    /**
+     * Adds the path along the specified cycle from cycle.get(start) to cycle.get(end % cycle.size()) in the direction
+     * of increasing indices to "edges".  Assumes start <= end.
+     */
+    private void addCyclePath(List<PlanarVertex> cycle, int start, int end) {
+        for (int i = start; i < end; i++) {
+            addEdge(cycle.get(i), cycle.get((i + 1) % cycle.size()));
+        }
+    }
+
+    /**
+     * Returns a descendant of "vertex", which may be "vertex" itself, that has a back edge to curVertex that we have not
+     * added to the embedding, if "isPertinent" is true, or a back edge to a proper ancestor of curVertex, if
+     * "isPertinent" is false.  Returns null if there is no such vertex.
+     */
+    private PlanarVertex findDescendant(PlanarVertex vertex, boolean isPertinent) {
+        List<PlanarVertex> stack = new ArrayList<PlanarVertex>();
+        stack.add(vertex);
+        while (!stack.isEmpty()) {
+            PlanarVertex descendant = stack.remove(stack.size() - 1);
+            if (isPertinent) {
+                if (descendant.backEdgeFlag == curVertex) {
+                    return descendant;
+                }
+            } else if (descendant.leastAncestor != null && descendant.leastAncestor.index < curVertex.index) {
+                return descendant;
+            }
+            stack.addAll(children(descendant));
+        }
+        return null;
+    }
+
+    /**
+     * Adds a path from the specified externally active vertex to a proper ancestor of curVertex to "edges".  Apart
+     * from its endpoints, the path only passes through descendants of "vertex" that are separated from it by a root
+     * vertex.
+     * @return The proper ancestor of curVertex.
+     */
+    private PlanarVertex addExternalPath(PlanarVertex vertex) {
+        if (vertex.leastAncestor != null && vertex.leastAncestor.index < curVertex.index) {
+            addEdge(vertex, vertex.leastAncestor);
+            return vertex.leastAncestor;
+        } else {
+            PlanarVertex descendant = findDescendant(vertex.separatedChildrenHead.child, false);
+            addTreePath(descendant, vertex);
+            addEdge(descendant, descendant.leastAncestor);
+            return descendant.leastAncestor;
+        }
+    }
+
+    /**
+     * Adds a path from the specified pertinent vertex to curVertex to "edges".  Apart from its endpoints, the path only
+     * passes through descendants of "vertex" that are separated from it by a root vertex.
+     */
+    private void addPertinentPath(PlanarVertex vertex) {
+        if (vertex.backEdgeFlag == curVertex) {
+            addEdge(vertex, curVertex);
+        } else {
+            PlanarVertex descendant = findDescendant(vertex.pertinentRootsHead.child, true);
+            addTreePath(descendant, vertex);
+            addEdge(descendant, curVertex);
+        }
+    }
+
+    /** Returns whichever of the specified ancestors of curVertex is nearer the root of the depth-first search tree. */
+    private static PlanarVertex higher(PlanarVertex vertex1, PlanarVertex vertex2) {
+        return vertex1.index <= vertex2.index ? vertex1 : vertex2;
+    }
+
+    /** Returns whichever of the specified ancestors of curVertex is farther from the root of the depth-first search tree. */
+    private static PlanarVertex lower(PlanarVertex vertex1, PlanarVertex vertex2) {
+        return vertex1.index >= vertex2.index ? vertex1 : vertex2;
+    }
+
+    /**
+     * Returns the edges in the biconnected component rooted at the specified RootVertex, in terms of edges in the
+     * graph, as a map from each vertex in the component to the adjacent vertices in the component.
+     */
+    private Map<PlanarVertex, List<PlanarVertex>> adjacencyLists(RootVertex rootVertex) {
+        // Compute the vertices in the component
+        Set<PlanarVertex> vertices = new HashSet<PlanarVertex>();
+        vertices.add(rootVertex.vertex);
+        List<PlanarVertex> stack = new ArrayList<PlanarVertex>();
+        stack.add(rootVertex.child);
+        while (!stack.isEmpty()) {
+            PlanarVertex vertex = stack.remove(stack.size() - 1);
+            vertices.add(vertex);
+            for (PlanarVertex child : children(vertex)) {
+                if (!separatedVertices.contains(child)) {
+                    stack.add(child);
+                }
+            }
+        }
+
+        // Compute the edges.  Every back edge between two vertices in the component is in the embedding, apart from
+        // those from curVertex that we failed to add.
+        Map<PlanarVertex, List<PlanarVertex>> adjacencyLists = new HashMap<PlanarVertex, List<PlanarVertex>>();
+        for (PlanarVertex vertex : vertices) {
+            adjacencyLists.put(vertex, new ArrayList<PlanarVertex>());
+        }
+        for (PlanarVertex vertex : vertices) {
+            if (vertex != rootVertex.vertex) {
+                adjacencyLists.get(vertex).add(vertex.parent);
+                adjacencyLists.get(vertex.parent).add(vertex);
+            }
+            for (PlanarVertex descendant : vertex.backEdges) {
+                if (vertices.contains(descendant) &&
+                        (vertex != curVertex || descendant.backEdgeFlag != curVertex)) {
+                    adjacencyLists.get(vertex).add(descendant);
+                    adjacencyLists.get(descendant).add(vertex);
+                }
+            }
+        }
+        return adjacencyLists;
+    }
+
+    /**
+     * Adds a path from "start" to "end" to "edges", where the interior of the path consists of vertices in
+     * "component".  Assumes there is such a path.
+     * @param start The start of the path.
+     * @param end The end of the path.
+     * @param component The vertices that may appear in the interior of the path, or an empty set if "start" and "end"
+     *     are adjacent.
+     * @param adjacencyLists A map from each vertex to the adjacent vertices.
+     * @return The vertices we visited in the path, apart from "start" and "end".
+     */
+    private List<PlanarVertex> addPath(
+            PlanarVertex start, PlanarVertex end, Set<PlanarVertex> component,
+            Map<PlanarVertex, List<PlanarVertex>> adjacencyLists) {
+        if (component.isEmpty()) {
+            addEdge(start, end);
+            return Collections.emptyList();
+        }
+
+        // Use breadth-first search
+        Map<PlanarVertex, PlanarVertex> parents = new HashMap<PlanarVertex, PlanarVertex>();
+        List<PlanarVertex> level = new ArrayList<PlanarVertex>();
+        for (PlanarVertex vertex : adjacencyLists.get(start)) {
+            if (component.contains(vertex) && !parents.containsKey(vertex)) {
+                parents.put(vertex, start);
+                level.add(vertex);
+            }
+        }
+        PlanarVertex last = null;
+        while (last == null) {
+            List<PlanarVertex> nextLevel = new ArrayList<PlanarVertex>();
+            for (PlanarVertex vertex : level) {
+                for (PlanarVertex adjVertex : adjacencyLists.get(vertex)) {
+                    if (adjVertex == end) {
+                        last = vertex;
+                        break;
+                    } else if (component.contains(adjVertex) && !parents.containsKey(adjVertex)) {
+                        parents.put(adjVertex, vertex);
+                        nextLevel.add(adjVertex);
+                    }
+                }
+                if (last != null) {
+                    break;
+                }
+            }
+            level = nextLevel;
+        }
+
+        List<PlanarVertex> path = new ArrayList<PlanarVertex>();
+        addEdge(last, end);
+        for (PlanarVertex vertex = last; vertex != start; vertex = parents.get(vertex)) {
+            path.add(vertex);
+            addEdge(vertex, parents.get(vertex));
+        }
+        return path;
+    }
+
+    /**
+     * Adds a subdivision of a star with center "center" to "edges", where the leaves are the specified vertices, and
+     * the rest of the star consists of vertices in "component".  Assumes there is such a subdivision.
+     * @param leaves The leaves.  These must not be in "component".
+     * @param component The vertices in the interior of the star.
+     * @param adjacencyLists A map from each vertex to the adjacent vertices.
+     */
+    private void addStar(
+            List<PlanarVertex> leaves, Set<PlanarVertex> component,
+            Map<PlanarVertex, List<PlanarVertex>> adjacencyLists) {
+        // Add a path from the first leaf to the second leaf, then a path from the third leaf to that path
+        List<PlanarVertex> path = addPath(leaves.get(0), leaves.get(1), component, adjacencyLists);
+        Set<PlanarVertex> pathSet = new HashSet<PlanarVertex>(path);
+        Set<PlanarVertex> remaining = new HashSet<PlanarVertex>(component);
+        remaining.removeAll(pathSet);
+
+        // Use breadth-first search from the third leaf to find the nearest vertex on the path
+        PlanarVertex start = leaves.get(2);
+        Map<PlanarVertex, PlanarVertex> parents = new HashMap<PlanarVertex, PlanarVertex>();
+        List<PlanarVertex> level = Collections.singletonList(start);
+        PlanarVertex last = null;
+        PlanarVertex center = null;
+        while (center == null) {
+            List<PlanarVertex> nextLevel = new ArrayList<PlanarVertex>();
+            for (PlanarVertex vertex : level) {
+                for (PlanarVertex adjVertex : adjacencyLists.get(vertex)) {
+                    if (pathSet.contains(adjVertex)) {
+                        last = vertex;
+                        center = adjVertex;
+                        break;
+                    } else if (remaining.contains(adjVertex) && !parents.containsKey(adjVertex)) {
+                        parents.put(adjVertex, vertex);
+                        nextLevel.add(adjVertex);
+                    }
+                }
+                if (center != null) {
+                    break;
+                }
+            }
+            level = nextLevel;
+        }
+        addEdge(last, center);
+        for (PlanarVertex vertex = last; vertex != start; vertex = parents.get(vertex)) {
+            addEdge(vertex, parents.get(vertex));
+        }
+    }
+
+    /**
+     * Adds the edges of a Kuratowski subgraph to "edges", given a blocked biconnected component that is not rooted at
+     * a copy of curVertex ("minor A" in the paper).
+     * @param rootVertex The root of the component.
+     * @param cycle The external face of the component, as returned by externalFace.
+     * @param x The position in "cycle" of the first active vertex in the direction of rootVertex.link(false).
+     * @param y The position in "cycle" of the first active vertex in the direction of rootVertex.link(true).
+     * @param w The position in "cycle" of a pertinent vertex between x and y.
+     */
+    private void isolateMinorA(RootVertex rootVertex, List<PlanarVertex> cycle, int x, int y, int w) {
+        addCyclePath(cycle, 0, cycle.size());
+        addTreePath(rootVertex.vertex, curVertex);
+        addPertinentPath(cycle.get(w));
+        PlanarVertex ancestor1 = addExternalPath(cycle.get(x));
+        PlanarVertex ancestor2 = addExternalPath(cycle.get(y));
+        addTreePath(curVertex, higher(ancestor1, ancestor2));
+    }
+
+    /**
+     * Adds the edges of a Kuratowski subgraph to "edges", given that the pertinent vertex "w" on the external face of a
+     * blocked biconnected component rooted at a copy of curVertex has a pertinent child biconnected component that is
+     * also externally active ("minor B" in the paper).
+     * @param cycle The external face of the component, as returned by externalFace.
+     * @param x The position in "cycle" of the first active vertex in the direction of rootVertex.link(false).
+     * @param y The position in "cycle" of the first active vertex in the direction of rootVertex.link(true).
+     * @param child The child of "w" whose subtree has back edges to curVertex and to a proper ancestor of curVertex.
+     */
+    private void isolateMinorB(List<PlanarVertex> cycle, int x, int y, PlanarVertex child) {
+        addCyclePath(cycle, 0, cycle.size());
+        PlanarVertex ancestor1 = addExternalPath(cycle.get(x));
+        PlanarVertex ancestor2 = addExternalPath(cycle.get(y));
+
+        // Add the paths from the lowest common ancestor of a descendant with a back edge to curVertex and a descendant
+        // with a back edge to a proper ancestor of curVertex
+        PlanarVertex descendant1 = findDescendant(child, true);
+        PlanarVertex descendant2 = findDescendant(child, false);
+        PlanarVertex lca1 = descendant1;
+        PlanarVertex lca2 = descendant2;
+        while (lca1 != lca2) {
+            if (lca1.index > lca2.index) {
+                lca1 = lca1.parent;
+            } else {
+                lca2 = lca2.parent;
+            }
+        }
+        addTreePath(descendant1, child.parent);
+        addTreePath(descendant2, lca1);
+        addEdge(descendant1, curVertex);
+        addEdge(descendant2, descendant2.leastAncestor);
+        PlanarVertex ancestor3 = descendant2.leastAncestor;
+
+        addTreePath(
+            lower(lower(ancestor1, ancestor2), ancestor3), higher(higher(ancestor1, ancestor2), ancestor3));
+    }
+
+    /**
+     * Attempts to add the edges of a Kuratowski subgraph to "edges", given a blocked biconnected component rooted at a
+     * copy of curVertex ("minors" B through E in the paper).
+     * @param rootVertex The root of the component.
+     * @param cycle The external face of the component, as returned by externalFace.
+     * @param x The position in "cycle" of the first active vertex in the direction of rootVertex.link(false).
+     * @param y The position in "cycle" of the first active vertex in the direction of rootVertex.link(true).
+     * @param w The position in "cycle" of a pertinent vertex between x and y.
+     * @return Whether we found a Kuratowski subgraph.
+     */
+    private boolean isolateMinorBThroughE(RootVertex rootVertex, List<PlanarVertex> cycle, int x, int y, int w) {
+        // Check for minor B
+        PlanarVertex wVertex = cycle.get(w);
+        for (RootVertex pertinentRoot = wVertex.pertinentRootsHead; pertinentRoot != null;
+                pertinentRoot = pertinentRoot.nextPertinent) {
+            if (pertinentRoot.child.lowpoint.index < curVertex.index) {
+                isolateMinorB(cycle, x, y, pertinentRoot.child);
+                return true;
+            }
+        }
+
+        // Compute the bridges of the external face.  Each bridge is either a connected component of the biconnected
+        // component minus the external face, along with its points of attachment, or a chord of the external face.
+        Map<PlanarVertex, List<PlanarVertex>> adjacencyLists = adjacencyLists(rootVertex);
+        Map<PlanarVertex, Integer> positions = new HashMap<PlanarVertex, Integer>();
+        for (int i = 0; i < cycle.size(); i++) {
+            positions.put(cycle.get(i), i);
+        }
+        List<Set<PlanarVertex>> bridgeComponents = new ArrayList<Set<PlanarVertex>>();
+        List<List<Integer>> bridgeAttachments = new ArrayList<List<Integer>>();
+        Set<PlanarVertex> visited = new HashSet<PlanarVertex>();
+        for (PlanarVertex vertex : adjacencyLists.keySet()) {
+            Integer position = positions.get(vertex);
+            if (position != null) {
+                // Add the chords from "vertex" to later positions
+                for (PlanarVertex adjVertex : adjacencyLists.get(vertex)) {
+                    Integer adjPosition = positions.get(adjVertex);
+                    if (adjPosition != null && adjPosition > position + 1 &&
+                            (position > 0 || adjPosition < cycle.size() - 1)) {
+                        bridgeComponents.add(Collections.<PlanarVertex>emptySet());
+                        bridgeAttachments.add(new ArrayList<Integer>(Arrays.asList(position, adjPosition)));
+                    }
+                }
+            } else if (visited.add(vertex)) {
+                // Use breadth-first search to compute the connected component
+                Set<PlanarVertex> component = new HashSet<PlanarVertex>();
+                Set<Integer> attachments = new HashSet<Integer>();
+                component.add(vertex);
+                List<PlanarVertex> level = Collections.singletonList(vertex);
+                while (!level.isEmpty()) {
+                    List<PlanarVertex> nextLevel = new ArrayList<PlanarVertex>();
+                    for (PlanarVertex levelVertex : level) {
+                        for (PlanarVertex adjVertex : adjacencyLists.get(levelVertex)) {
+                            Integer adjPosition = positions.get(adjVertex);
+                            if (adjPosition != null) {
+                                attachments.add(adjPosition);
+                            } else if (visited.add(adjVertex)) {
+                                component.add(adjVertex);
+                                nextLevel.add(adjVertex);
+                            }
+                        }
+                    }
+                    level = nextLevel;
+                }
+                bridgeComponents.add(component);
+                List<Integer> sortedAttachments = new ArrayList<Integer>(attachments);
+                Collections.sort(sortedAttachments);
+                bridgeAttachments.add(sortedAttachments);
+            }
+        }
+
+        // Compute the nearest externally active vertices to w on the lower path between x and y
+        int zBefore = -1;
+        for (int i = x + 1; i < w; i++) {
+            if (PlanarEmbedding.isExternallyActive(cycle.get(i), curVertex)) {
+                zBefore = i;
+            }
+        }
+        int zAfter = -1;
+        for (int i = y - 1; i > w; i--) {
+            if (PlanarEmbedding.isExternallyActive(cycle.get(i), curVertex)) {
+                zAfter = i;
+            }
+        }
+
+        // Check for minor C: a bridge with a point of attachment on the external face strictly between the root and x,
+        // and another past w, or the reverse
+        for (int i = 0; i < bridgeAttachments.size(); i++) {
+            List<Integer> attachments = bridgeAttachments.get(i);
+            int min = attachments.get(0) > 0 ? attachments.get(0) : attachments.get(1);
+            int max = attachments.get(attachments.size() - 1);
+            if (min < x && max > w) {
+                addPath(cycle.get(min), cycle.get(max), bridgeComponents.get(i), adjacencyLists);
+                addCyclePath(cycle, 0, Math.max(max, y));
+                addPertinentPath(cycle.get(w));
+                PlanarVertex ancestor1 = addExternalPath(cycle.get(x));
+                PlanarVertex ancestor2 = addExternalPath(cycle.get(y));
+                addTreePath(curVertex, higher(ancestor1, ancestor2));
+                return true;
+            } else if (max > y && min < w) {
+                addPath(cycle.get(min), cycle.get(max), bridgeComponents.get(i), adjacencyLists);
+                addCyclePath(cycle, Math.min(min, x), cycle.size());
+                addPertinentPath(cycle.get(w));
+                PlanarVertex ancestor1 = addExternalPath(cycle.get(x));
+                PlanarVertex ancestor2 = addExternalPath(cycle.get(y));
+                addTreePath(curVertex, higher(ancestor1, ancestor2));
+                return true;
+            }
+        }
+
+        // Check for minor D: a bridge attached to the root, to the lower path between x and w, and to the lower path
+        // between w and y
+        for (int i = 0; i < bridgeAttachments.size(); i++) {
+            List<Integer> attachments = bridgeAttachments.get(i);
+            int min = attachments.get(0) > 0 ? attachments.get(0) : attachments.get(1);
+            int max = attachments.get(attachments.size() - 1);
+            if (attachments.get(0) == 0 && min >= x && min < w && max > w && max <= y) {
+                addStar(
+                    Arrays.asList(cycle.get(min), cycle.get(max), cycle.get(0)), bridgeComponents.get(i),
+                    adjacencyLists);
+                addCyclePath(cycle, x, y);
+                addPertinentPath(cycle.get(w));
+                PlanarVertex ancestor1 = addExternalPath(cycle.get(x));
+                PlanarVertex ancestor2 = addExternalPath(cycle.get(y));
+                addTreePath(curVertex, higher(ancestor1, ancestor2));
+                return true;
+            }
+        }
+
+        // Check for minor E: a bridge attached to either side of w on the lower path, along with an externally active
+        // vertex between the points of attachment
+        for (int i = 0; i < bridgeAttachments.size(); i++) {
+            List<Integer> attachments = bridgeAttachments.get(i);
+            int min = attachments.get(0);
+            int max = attachments.get(attachments.size() - 1);
+            if (min < x || min >= w || max <= w || max > y) {
+                continue;
+            }
+            if (zBefore > min) {
+                addPath(cycle.get(min), cycle.get(max), bridgeComponents.get(i), adjacencyLists);
+                addCyclePath(cycle, 0, y);
+                addPertinentPath(cycle.get(w));
+                PlanarVertex ancestor1 = addExternalPath(cycle.get(zBefore));
+                PlanarVertex ancestor2 = addExternalPath(cycle.get(y));
+                addTreePath(curVertex, higher(ancestor1, ancestor2));
+                return true;
+            } else if (zAfter >= 0 && zAfter < max) {
+                addPath(cycle.get(min), cycle.get(max), bridgeComponents.get(i), adjacencyLists);
+                addCyclePath(cycle, x, cycle.size());
+                addPertinentPath(cycle.get(w));
+                PlanarVertex ancestor1 = addExternalPath(cycle.get(zAfter));
+                PlanarVertex ancestor2 = addExternalPath(cycle.get(x));
+                addTreePath(curVertex, higher(ancestor1, ancestor2));
+                return true;
+            } else if (PlanarEmbedding.isExternallyActive(wVertex, curVertex)) {
+                if (min == x && max == y) {
+                    isolateMinorE(cycle, x, y, w, bridgeComponents.get(i), adjacencyLists);
+                } else {
+                    // K33 with parts {x, y, w} and {curVertex, cycle.get(min), ancestor} if min != x, or
+                    // {x, y, w} and {curVertex, cycle.get(max), ancestor} otherwise, where "ancestor" is the middle
+                    // of the ancestors at the ends of the external paths.  We omit the lower path between w and the
+                    // point of attachment we exclude from the parts.
+                    addPath(cycle.get(min), cycle.get(max), bridgeComponents.get(i), adjacencyLists);
+                    if (min != x) {
+                        addCyclePath(cycle, 0, w);
+                        addCyclePath(cycle, max, cycle.size());
+                    } else {
+                        addCyclePath(cycle, 0, min);
+                        addCyclePath(cycle, w, cycle.size());
+                    }
+                    addPertinentPath(wVertex);
+                    PlanarVertex ancestorX = addExternalPath(cycle.get(x));
+                    PlanarVertex ancestorY = addExternalPath(cycle.get(y));
+                    PlanarVertex ancestorW = addExternalPath(wVertex);
+                    addTreePath(
+                        lower(lower(ancestorX, ancestorY), ancestorW),
+                        higher(higher(ancestorX, ancestorY), ancestorW));
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the edges of a Kuratowski subgraph to "edges", given that the pertinent vertex "w" is externally active,
+     * and there is a path from x to y through the interior of the biconnected component rooted at a copy of curVertex
+     * (the variants of "minor E" in the paper in which w is the externally active vertex).
+     * @param cycle The external face of the component, as returned by externalFace.
+     * @param x The position in "cycle" of the first active vertex in the direction of rootVertex.link(false).
+     * @param y The position in "cycle" of the first active vertex in the direction of rootVertex.link(true).
+     * @param w The position in "cycle" of a pertinent vertex between x and y.
+     * @param component The interior of the bridge that connects x and y.
+     * @param adjacencyLists A map from each vertex in the biconnected component to the adjacent vertices.
+     */
+    private void isolateMinorE(
+            List<PlanarVertex> cycle, int x, int y, int w, Set<PlanarVertex> component,
+            Map<PlanarVertex, List<PlanarVertex>> adjacencyLists) {
+        PlanarVertex ancestorX = addExternalPath(cycle.get(x));
+        PlanarVertex ancestorY = addExternalPath(cycle.get(y));
+        PlanarVertex ancestorW = addExternalPath(cycle.get(w));
+        PlanarVertex lowest = lower(lower(ancestorX, ancestorY), ancestorW);
+        int lowestCount = 0;
+        for (PlanarVertex ancestor : Arrays.asList(ancestorX, ancestorY, ancestorW)) {
+            if (ancestor == lowest) {
+                lowestCount++;
+            }
+        }
+
+        if (lowestCount >= 2) {
+            // K5 with branch vertices curVertex, x, y, w, and "lowest"
+            addCyclePath(cycle, 0, cycle.size());
+            addPath(cycle.get(x), cycle.get(y), component, adjacencyLists);
+            addPertinentPath(cycle.get(w));
+            addTreePath(curVertex, higher(higher(ancestorX, ancestorY), ancestorW));
+        } else if (ancestorW == lowest) {
+            // K33 with parts {x, y, ancestorW} and {curVertex, w, lower(ancestorX, ancestorY)}
+            addCyclePath(cycle, 0, cycle.size());
+            addTreePath(curVertex, higher(ancestorX, ancestorY));
+        } else if (ancestorX == lowest) {
+            // K33 with parts {curVertex, x, lower(ancestorY, ancestorW)} and {ancestorX, y, w}
+            addCyclePath(cycle, x, w);
+            addCyclePath(cycle, y, cycle.size());
+            addPath(cycle.get(x), cycle.get(y), component, adjacencyLists);
+            addPertinentPath(cycle.get(w));
+            addTreePath(curVertex, higher(ancestorY, ancestorW));
+        } else {
+            // K33 with parts {curVertex, y, lower(ancestorX, ancestorW)} and {ancestorY, x, w}
+            addCyclePath(cycle, 0, x);
+            addCyclePath(cycle, w, y);
+            addPath(cycle.get(x), cycle.get(y), component, adjacencyLists);
+            addPertinentPath(cycle.get(w));
+            addTreePath(curVertex, higher(ancestorX, ancestorW));
+        }
+    }
+
+    /**
+     * Attempts to add the edges of a Kuratowski subgraph to "edges", by searching for a blocked biconnected component
+     * in the biconnected component rooted at the specified RootVertex, or in a pertinent biconnected component that
+     * descends from it.
+     * @param rootVertex The root vertex.  This must be pertinent, or a root vertex for curVertex whose biconnected
+     *     component contains a pertinent vertex.
+     * @return Whether we found a Kuratowski subgraph.
+     */
+    private boolean isolate(RootVertex rootVertex) {
+        List<PlanarVertex> cycle = externalFace(rootVertex);
+
+        // Compute the first active vertices x and y in either direction from rootVertex
+        int x = 1;
+        while (x < cycle.size() && !PlanarEmbedding.isActive(cycle.get(x), curVertex)) {
+            x++;
+        }
+        if (x == cycle.size()) {
+            return false;
+        }
+        int y = cycle.size() - 1;
+        while (!PlanarEmbedding.isActive(cycle.get(y), curVertex)) {
+            y--;
+        }
+
+        // If the walk-down procedure descended into a pertinent biconnected component from x or y, that is where it
+        // was blocked
+        PlanarVertex xVertex = cycle.get(x);
+        PlanarVertex yVertex = cycle.get(y);
+        if (xVertex.pertinentRootsHead != null && isolate(xVertex.pertinentRootsHead)) {
+            return true;
+        }
+        if (yVertex.pertinentRootsHead != null && isolate(yVertex.pertinentRootsHead)) {
+            return true;
+        }
+        if (x >= y || !PlanarEmbedding.isExternallyActive(xVertex, curVertex) ||
+                !PlanarEmbedding.isExternallyActive(yVertex, curVertex)) {
+            return false;
+        }
+
+        // Find a pertinent vertex w on the lower path between x and y
+        int w = x + 1;
+        while (w < y && !PlanarEmbedding.isPertinent(cycle.get(w), curVertex)) {
+            w++;
+        }
+        if (w == y) {
+            return false;
+        }
+
+        if (rootVertex.vertex != curVertex) {
+            isolateMinorA(rootVertex, cycle, x, y, w);
+            return true;
+        } else {
+            return isolateMinorBThroughE(rootVertex, cycle, x, y, w);
+        }
+    }
+
+    /**
+     * Returns the edges of a Kuratowski subgraph of the graph.  Assumes that PlanarEmbedding.compute failed to add the
+     * back edges from curVertex.
+     */
+    public Set<UnorderedPair<Vertex>> isolate() {
+        // Try each root vertex for curVertex whose biconnected component has a back edge we failed to add
+        Set<RootVertex> tried = new HashSet<RootVertex>();
+        for (PlanarVertex descendant : curVertex.backEdges) {
+            if (descendant.backEdgeFlag == curVertex) {
+                PlanarVertex child = descendant;
+                while (child.parent != curVertex) {
+                    child = child.parent;
+                }
+                RootVertex rootVertex = null;
+                for (RootVertex separatedRoot = curVertex.separatedChildrenHead; separatedRoot != null;
+                        separatedRoot = separatedRoot.next) {
+                    if (separatedRoot.child == child) {
+                        rootVertex = separatedRoot;
+                    }
+                }
+                if (tried.add(rootVertex)) {
+                    edges = new LinkedHashSet<UnorderedPair<Vertex>>();
+                    if (isolate(rootVertex)) {
+                        return edges;
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("Failed to find a Kuratowski subgraph");
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.btrekkie.graph.planar;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.util.UnorderedPair;
+
+/**
+ * A witness that a graph is not planar: a subgraph that is a subdivision of K5 or K33.  Every non-planar graph has
+ * such a subgraph (Kuratowski's theorem).  Removing any one of the edges of a KuratowskiSubgraph eliminates that
+ * particular obstruction, so a planarization heuristic may remove witness edges one at a time rather than re-testing
+ * every edge of the graph.
+ */
+/* We compute a KuratowskiSubgraph from the state of PlanarEmbedding's implementation of the Boyer-Myrvold planarity
+ * algorithm at the point where it fails to add the back edges from some vertex, using the Kuratowski subgraph
+ * isolation procedure from the same paper.  This takes O(V + E) time.  See KuratowskiIsolator.
+ */
+public class KuratowskiSubgraph {
+    /** The type of Kuratowski subgraph. */
+    public static enum Type {
+        /** The type of a subdivision of K5, the complete graph on five vertices. */
+        K5,
+
+        /** The type of a subdivision of K33, the complete bipartite graph with three vertices in each part. */
+        K33};
+
+    /** The type of the subgraph. */
+    public final Type type;
+
+    /**
+     * The vertices in the subgraph that correspond to vertices in K5 or K33, as opposed to vertices that subdivide its
+     * edges.  These are the vertices of degree greater than two in the subgraph.
+     */
+    public final Set<Vertex> branchVertices;
+
+    /** The edges in the subgraph. */
+    public final Set<UnorderedPair<Vertex>> edges;
+
+    public KuratowskiSubgraph(Type type, Set<Vertex> branchVertices, Set<UnorderedPair<Vertex>> edges) {
+        this.type = type;
+        this.branchVertices = branchVertices;
+        this.edges = edges;
+    }
+
+    /**
+     * Returns a KuratowskiSubgraph of the connected component containing the specified vertex.  Returns null if the
+     * connected component is a planar graph.
+     */
+    public static KuratowskiSubgraph compute(Vertex start) {
+        Set<UnorderedPair<Vertex>> edges = PlanarEmbedding.kuratowskiSubgraphEdges(start);
+        if (edges == null) {
+            return null;
+        }
+
+        // Compute the branch vertices
+        Map<Vertex, Integer> degrees = new LinkedHashMap<Vertex, Integer>();
+        for (UnorderedPair<Vertex> edge : edges) {
+            for (Vertex vertex : new Vertex[]{edge.value1, edge.value2}) {
+                Integer degree = degrees.get(vertex);
+                if (degree == null) {
+                    degrees.put(vertex, 1);
+                } else {
+                    degrees.put(vertex, degree + 1);
+                }
+            }
+        }
+        Set<Vertex> branchVertices = new LinkedHashSet<Vertex>();
+        for (Entry<Vertex, Integer> entry : degrees.entrySet()) {
+            if (entry.getValue() > 2) {
+                branchVertices.add(entry.getKey());
+            }
+        }
+        Type type;
+        if (branchVertices.size() == 5) {
+            type = Type.K5;
+        } else {
+            type = Type.K33;
+        }
+        return new KuratowskiSubgraph(type, branchVertices, edges);
+    }
+}
@@ -37,27 +37,6 @@ public class PlanarAugmentation {
         this.vertexToOriginalVertex = vertexToOriginalVertex;
     }
 
-    /**
-     * Returns a map from each vertex to a map from each adjacent vertex to the next adjacent vertex in the clockwise
-     * direction.  This is an alternative representation of clockwiseOrder.
-     * @param clockwiseOrder The clockwise ordering of the vertices, as in PlanarEmbedding.clockwiseOrder.
-     * @return The "next clockwise" map.
-     */
-    private static Map<Vertex, Map<Vertex, Vertex>> nextClockwise(Map<Vertex, List<Vertex>> clockwiseOrder) {
-        Map<Vertex, Map<Vertex, Vertex>> nextClockwise = new HashMap<Vertex, Map<Vertex, Vertex>>();
-        for (Entry<Vertex, List<Vertex>> entry : clockwiseOrder.entrySet()) {
-            List<Vertex> vertexClockwiseOrder = entry.getValue();
-            Map<Vertex, Vertex> vertexNextClockwise = new HashMap<Vertex, Vertex>();
-            for (int i = 0; i < vertexClockwiseOrder.size() - 1; i++) {
-                vertexNextClockwise.put(vertexClockwiseOrder.get(i), vertexClockwiseOrder.get(i + 1));
-            }
-            vertexNextClockwise.put(
-                vertexClockwiseOrder.get(vertexClockwiseOrder.size() - 1), vertexClockwiseOrder.get(0));
-            nextClockwise.put(entry.getKey(), vertexNextClockwise);
-        }
-        return nextClockwise;
-    }
-
     /**
      * Returns a set consisting of an arbitrary non-cut vertex from each block in "graph" with exactly one cut vertex.
      * Assumes that "graph" is connected.
@@ -158,21 +137,14 @@ public class PlanarAugmentation {
             }
         }
 
-        // Compute the external face
-        Map<Vertex, Map<Vertex, Vertex>> graphNextClockwise = nextClockwise(graphClockwiseOrder);
-        List<Vertex> graphExternalFace = new ArrayList<Vertex>();
-        Vertex start = vertexToGraphVertex.get(externalFaceVertex1);
-        Vertex vertex = vertexToGraphVertex.get(externalFaceVertex2);
-        Vertex prevVertex = start;
-        graphExternalFace.add(vertex);
-        while (vertex != start) {
-            Vertex nextVertex = graphNextClockwise.get(vertex).get(prevVertex);
-            prevVertex = vertex;
-            vertex = nextVertex;
-            graphExternalFace.add(vertex);
-        }
+        // Compute the external face.  It starts at the end of the edge from externalFaceVertex1 to externalFaceVertex2.
+        RotationSystem rotationSystem = RotationSystem.create(graphClockwiseOrder);
+        int startEdge = rotationSystem.findEdge(
+            rotationSystem.vertexIndex(vertexToGraphVertex.get(externalFaceVertex1)),
+            rotationSystem.vertexIndex(vertexToGraphVertex.get(externalFaceVertex2)));
         return new PlanarAugmentation(
-            new PlanarEmbedding(graphClockwiseOrder, graphExternalFace), graph, graphVertexToVertex);
+            PlanarEmbedding.createTrusted(rotationSystem, rotationSystem.nextOnFace(startEdge)), graph,
+            graphVertexToVertex);
     }
 
     /**
@@ -202,122 +174,117 @@ public class PlanarAugmentation {
             Map<Vertex, Vertex> graphVertexToVertex = Collections.singletonMap(
                 graphVertex, embedding.clockwiseOrder.keySet().iterator().next());
             return new PlanarAugmentation(
-                new PlanarEmbedding(clockwiseOrder, externalFace), graph, graphVertexToVertex);
+                PlanarEmbedding.createTrusted(clockwiseOrder, externalFace), graph, graphVertexToVertex);
         }
 
-        // Iterate over all of the edges in order to find all of the faces
-        Map<Vertex, Map<Vertex, Vertex>> nextClockwise = nextClockwise(embedding.clockwiseOrder);
-        Map<Vertex, Set<Vertex>> visited = new HashMap<Vertex, Set<Vertex>>();
+        // Iterate over the faces
+        RotationSystem rotationSystem = embedding.rotationSystem;
         Map<Vertex, Map<Vertex, List<Vertex>>> nextClockwiseInsertions =
             new HashMap<Vertex, Map<Vertex, List<Vertex>>>();
         Vertex externalFaceVertex1 = embedding.externalFace.get(0);
         Vertex externalFaceVertex2 = embedding.externalFace.get(1);
-        for (Vertex vertex : embedding.clockwiseOrder.keySet()) {
-            Set<Vertex> vertexVisited = visited.get(vertex);
-            if (vertexVisited == null) {
-                vertexVisited = new HashSet<Vertex>();
-                visited.put(vertex, vertexVisited);
-            }
-            for (Vertex adjVertex : vertex.edges) {
-                if (!vertexVisited.add(adjVertex)) {
-                    continue;
-                }
-
-                // Create a Graph which is to consist exclusively of the current face
-                Graph faceGraph = new Graph();
-                Map<Vertex, Vertex> vertexToGraphVertex = new HashMap<Vertex, Vertex>();
-                Map<Vertex, Vertex> graphVertexToVertex = new HashMap<Vertex, Vertex>();
-                Vertex graphVertex = faceGraph.createVertex();
-                vertexToGraphVertex.put(vertex, graphVertex);
-                graphVertexToVertex.put(graphVertex, vertex);
+        int externalFace = rotationSystem.face(embedding.externalFaceEdge);
 
-                // Iterate over the edges of the current face, and add them to faceGraph
-                List<Vertex> face = new ArrayList<Vertex>();
-                Vertex prevVertex = vertex;
-                Vertex faceVertex = adjVertex;
-                Vertex prevGraphVertex = graphVertex;
-                boolean isExternalFace = false;
-                do {
-                    graphVertex = vertexToGraphVertex.get(faceVertex);
-                    if (graphVertex == null) {
-                        graphVertex = faceGraph.createVertex();
-                        vertexToGraphVertex.put(faceVertex, graphVertex);
-                        graphVertexToVertex.put(graphVertex, faceVertex);
-                    }
-                    face.add(graphVertex);
+        // Order the faces by their first half-edges, iterating over the vertices in the order of clockwiseOrder and the
+        // edges leaving each vertex in the order of Vertex.edges, and start walking each face at that half-edge.  The
+        // order in which we visit the faces and the starting half-edges determine the resulting augmentation.
+        int[] faceStartEdges = new int[rotationSystem.faceCount()];
+        boolean[] isFaceVisited = new boolean[rotationSystem.faceCount()];
+        int faceIndex = 0;
 
-                    prevGraphVertex.addEdge(graphVertex);
-                    if (prevVertex == externalFaceVertex1 && faceVertex == externalFaceVertex2) {
-                        // This is the external face
-                        isExternalFace = true;
-                    }
+        // targetEdges[W] is the half-edge from the current vertex to W, for each vertex W adjacent to the current
+        // vertex
+        int[] targetEdges = new int[rotationSystem.vertexCount()];
+        for (int vertex = 0; vertex < rotationSystem.vertexCount(); vertex++) {
+            for (int edge = rotationSystem.offset(vertex); edge < rotationSystem.offset(vertex + 1); edge++) {
+                targetEdges[rotationSystem.target(edge)] = edge;
+            }
+            for (Vertex adjVertex : rotationSystem.vertex(vertex).edges) {
+                int edge = targetEdges[rotationSystem.vertexIndex(adjVertex)];
+                int face = rotationSystem.face(edge);
+                if (!isFaceVisited[face]) {
+                    isFaceVisited[face] = true;
+                    faceStartEdges[faceIndex] = edge;
+                    faceIndex++;
+                }
+            }
+        }
 
-                    Set<Vertex> prevVertexVisited = visited.get(prevVertex);
-                    if (prevVertexVisited == null) {
-                        prevVertexVisited = new HashSet<Vertex>();
-                        visited.put(prevVertex, prevVertexVisited);
-                    }
-                    prevVertexVisited.add(faceVertex);
+        for (int startEdge : faceStartEdges) {
+            // Create a Graph which is to consist exclusively of the current face
+            Graph faceGraph = new Graph();
+            Map<Vertex, Vertex> vertexToGraphVertex = new HashMap<Vertex, Vertex>();
+            Map<Vertex, Vertex> graphVertexToVertex = new HashMap<Vertex, Vertex>();
 
-                    Vertex nextVertex = nextClockwise.get(faceVertex).get(prevVertex);
-                    prevVertex = faceVertex;
-                    faceVertex = nextVertex;
-                    prevGraphVertex = graphVertex;
-                } while (faceVertex != adjVertex || prevVertex != vertex);
-                graphVertex = vertexToGraphVertex.get(faceVertex);
+            // Iterate over the edges of the current face, and add them to faceGraph
+            List<Vertex> face = new ArrayList<Vertex>();
+            int edge = startEdge;
+            do {
+                Vertex prevVertex = rotationSystem.vertex(rotationSystem.source(edge));
+                Vertex prevGraphVertex = vertexToGraphVertex.get(prevVertex);
+                if (prevGraphVertex == null) {
+                    prevGraphVertex = faceGraph.createVertex();
+                    vertexToGraphVertex.put(prevVertex, prevGraphVertex);
+                    graphVertexToVertex.put(prevGraphVertex, prevVertex);
+                }
+                Vertex faceVertex = rotationSystem.vertex(rotationSystem.target(edge));
+                Vertex graphVertex = vertexToGraphVertex.get(faceVertex);
                 if (graphVertex == null) {
                     graphVertex = faceGraph.createVertex();
                     vertexToGraphVertex.put(faceVertex, graphVertex);
                     graphVertexToVertex.put(graphVertex, faceVertex);
                 }
+                face.add(graphVertex);
                 prevGraphVertex.addEdge(graphVertex);
+                edge = rotationSystem.nextOnFace(edge);
+            } while (edge != startEdge);
+            boolean isExternalFace = rotationSystem.face(startEdge) == externalFace;
 
-                // Add edges between leaf vertices
-                Set<Vertex> leafVertices = leafVertices(faceGraph);
-                Vertex graphPredecessor = face.get(face.size() - 1);
-                Vertex prevLeafVertex = null;
-                Vertex prevPredecessor = null;
-                for (Vertex curVertex : face) {
-                    if (leafVertices.contains(curVertex)) {
-                        Vertex leafVertex = graphVertexToVertex.get(curVertex);
-                        Vertex predecessor = graphVertexToVertex.get(graphPredecessor);
-                        if (prevLeafVertex != null) {
-                            Map<Vertex, List<Vertex>> insertions = nextClockwiseInsertions.get(prevLeafVertex);
-                            if (insertions == null) {
-                                insertions = new HashMap<Vertex, List<Vertex>>();
-                                nextClockwiseInsertions.put(prevLeafVertex, insertions);
-                            }
-                            List<Vertex> edgeInsertions = insertions.get(prevPredecessor);
-                            if (edgeInsertions == null) {
-                                edgeInsertions = new ArrayList<Vertex>();
-                                insertions.put(prevPredecessor, edgeInsertions);
-                            }
-                            edgeInsertions.add(leafVertex);
+            // Add edges between leaf vertices
+            Set<Vertex> leafVertices = leafVertices(faceGraph);
+            Vertex graphPredecessor = face.get(face.size() - 1);
+            Vertex prevLeafVertex = null;
+            Vertex prevPredecessor = null;
+            for (Vertex curVertex : face) {
+                if (leafVertices.contains(curVertex)) {
+                    Vertex leafVertex = graphVertexToVertex.get(curVertex);
+                    Vertex predecessor = graphVertexToVertex.get(graphPredecessor);
+                    if (prevLeafVertex != null) {
+                        Map<Vertex, List<Vertex>> insertions = nextClockwiseInsertions.get(prevLeafVertex);
+                        if (insertions == null) {
+                            insertions = new HashMap<Vertex, List<Vertex>>();
+                            nextClockwiseInsertions.put(prevLeafVertex, insertions);
+                        }
+                        List<Vertex> edgeInsertions = insertions.get(prevPredecessor);
+                        if (edgeInsertions == null) {
+                            edgeInsertions = new ArrayList<Vertex>();
+                            insertions.put(prevPredecessor, edgeInsertions);
+                        }
+                        edgeInsertions.add(leafVertex);
 
-                            insertions = nextClockwiseInsertions.get(leafVertex);
-                            if (insertions == null) {
-                                insertions = new HashMap<Vertex, List<Vertex>>();
-                                nextClockwiseInsertions.put(leafVertex, insertions);
-                            }
-                            edgeInsertions = insertions.get(predecessor);
-                            if (edgeInsertions == null) {
-                                edgeInsertions = new ArrayList<Vertex>();
-                                insertions.put(predecessor, edgeInsertions);
-                            }
-                            edgeInsertions.add(prevLeafVertex);
+                        insertions = nextClockwiseInsertions.get(leafVertex);
+                        if (insertions == null) {
+                            insertions = new HashMap<Vertex, List<Vertex>>();
+                            nextClockwiseInsertions.put(leafVertex, insertions);
+                        }
+                        edgeInsertions = insertions.get(predecessor);
+                        if (edgeInsertions == null) {
+                            edgeInsertions = new ArrayList<Vertex>();
+                            insertions.put(predecessor, edgeInsertions);
+                        }
+                        edgeInsertions.add(prevLeafVertex);
 
-                            if (isExternalFace) {
-                                // Set externalFaceVertex1 and externalFaceVertex2 to an edge that will be in the
-                                // external face of the output graph
-                                externalFaceVertex1 = prevLeafVertex;
-                                externalFaceVertex2 = leafVertex;
-                            }
+                        if (isExternalFace) {
+                            // Set externalFaceVertex1 and externalFaceVertex2 to an edge that will be in the
+                            // external face of the output graph
+                            externalFaceVertex1 = prevLeafVertex;
+                            externalFaceVertex2 = leafVertex;
                         }
-                        prevLeafVertex = leafVertex;
-                        prevPredecessor = predecessor;
                     }
-                    graphPredecessor = curVertex;
+                    prevLeafVertex = leafVertex;
+                    prevPredecessor = predecessor;
                 }
+                graphPredecessor = curVertex;
             }
         }
 
@@ -1,17 +1,21 @@
 package com.github.btrekkie.graph.planar;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
+import com.github.btrekkie.graph.ComponentAlgorithm;
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.ParallelComponents;
 import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.util.UnorderedPair;
 
 /**
  * A description of a planar drawing of a connected planar graph.  It consists of a clockwise ordering of the edges
@@ -31,17 +35,65 @@ import com.github.btrekkie.graph.Vertex;
  * The term "in" is the opposite.
  */
 public class PlanarEmbedding {
+    /**
+     * The name of the system property that, if "true", causes createTrusted to validate its arguments, as in
+     * createPartial.  This is useful for testing and debugging.
+     */
+    public static final String VALIDATE_TRUSTED_PROPERTY = "com.github.btrekkie.graph.planar.validateTrusted";
+
+    /** Whether createTrusted validates its arguments.  See VALIDATE_TRUSTED_PROPERTY. */
+    private static final boolean VALIDATE_TRUSTED = Boolean.getBoolean(VALIDATE_TRUSTED_PROPERTY);
+
     /**
      * A map from each vertex in the graph to the adjacent vertices, in clockwise order of the edges to those vertices.
+     * This is a read-only view of rotationSystem, so the map and the lists are unmodifiable.
      */
-    public Map<Vertex, List<Vertex>> clockwiseOrder;
+    public final Map<Vertex, List<Vertex>> clockwiseOrder;
 
     /**
      * The sequence of vertices in the polygon on the outside of the embedding, in clockwise order.  This may repeat
      * vertices.  For example, if the graph consists a hub vertex, three spoke vertices, and three edges from the hub to
      * the spokes, then the external face consists of an alternation between the hub vertex and the spoke vertices.
+     * This is a read-only view of the face of externalFaceEdge, so it is unmodifiable.
+     */
+    public final List<Vertex> externalFace;
+
+    /**
+     * The array-based representation of the embedding.  clockwiseOrder and externalFace are views of this, and it
+     * enables faster queries, such as finding the next edge clockwise and traversing the faces of the embedding,
+     * without hashing or allocating memory.
+     */
+    public final RotationSystem rotationSystem;
+
+    /**
+     * The half-edge in rotationSystem from externalFace.get(0) to externalFace.get(1), or -1 if the graph has no edges.
+     * rotationSystem.face(externalFaceEdge) is the number of the external face.
      */
-    public List<Vertex> externalFace;
+    public final int externalFaceEdge;
+
+    /**
+     * Constructs a new PlanarEmbedding without validating it.
+     * @param rotationSystem The rotation system.  The PlanarEmbedding takes ownership of this object.
+     * @param externalFaceEdge The half-edge from the first vertex of the external face to the second, as in the
+     *     externalFaceEdge field.
+     */
+    private PlanarEmbedding(RotationSystem rotationSystem, int externalFaceEdge) {
+        this.rotationSystem = rotationSystem;
+        this.externalFaceEdge = externalFaceEdge;
+        clockwiseOrder = new ClockwiseOrderMap(rotationSystem);
+        externalFace = new ExternalFaceList(rotationSystem, externalFaceEdge);
+    }
+
+    /**
+     * Constructs a new PlanarEmbedding without validating it.
+     * @param externalFace The external face, as in the externalFace field.
+     * @param rotationSystem The value of RotationSystem.create(clockwiseOrder), where clockwiseOrder is a map from each
+     *     vertex in the graph to the adjacent vertices, in clockwise order of the edges to those vertices.  The
+     *     PlanarEmbedding takes ownership of this object.
+     */
+    private PlanarEmbedding(List<Vertex> externalFace, RotationSystem rotationSystem) {
+        this(rotationSystem, externalFaceEdge(externalFace, rotationSystem));
+    }
 
     /**
      * Constructs a new PlanarEmbedding.
@@ -52,9 +104,7 @@ public class PlanarEmbedding {
      *     entire connected component.
      */
     private PlanarEmbedding(Map<Vertex, List<Vertex>> clockwiseOrder, List<Vertex> externalFace, boolean isPartial) {
-        validatePlanarEmbedding(clockwiseOrder, externalFace, isPartial);
-        this.clockwiseOrder = clockwiseOrder;
-        this.externalFace = externalFace;
+        this(externalFace, validatePlanarEmbedding(clockwiseOrder, externalFace, isPartial));
     }
 
     /** Constructs a new PlanarEmbedding for a connected component.  See also createPartial. */
@@ -74,6 +124,60 @@ public class PlanarEmbedding {
         return new PlanarEmbedding(clockwiseOrder, externalFace, true);
     }
 
+    /**
+     * Returns a new PlanarEmbedding that is (potentially) for a subgraph of a connected component, without checking
+     * whether the arguments describe a valid embedding.  This is much faster than the PlanarEmbedding constructor and
+     * createPartial, so it is suitable for algorithms whose results are valid by construction.  If the system property
+     * VALIDATE_TRUSTED_PROPERTY is "true", this validates the arguments as in createPartial.  The behavior is
+     * unspecified if the arguments are invalid.
+     * @param clockwiseOrder A map from each vertex in the graph to the adjacent vertices, in clockwise order of the
+     *     edges to those vertices.
+     * @param externalFace The external face, as in the externalFace field.
+     * @return The PlanarEmbedding.
+     */
+    public static PlanarEmbedding createTrusted(Map<Vertex, List<Vertex>> clockwiseOrder, List<Vertex> externalFace) {
+        if (VALIDATE_TRUSTED) {
+            return new PlanarEmbedding(clockwiseOrder, externalFace, true);
+        } else if (externalFace.isEmpty()) {
+            // Check for this case, as it is cheap to detect and it would otherwise result in an obscure exception
+            throw new IllegalArgumentException("The external face may not be empty");
+        } else {
+            return new PlanarEmbedding(externalFace, RotationSystem.create(clockwiseOrder));
+        }
+    }
+
+    /**
+     * Returns a new PlanarEmbedding with the specified rotation system, without checking whether the arguments describe
+     * a valid embedding.  This is the fastest way to create a PlanarEmbedding, because it does not need to hash the
+     * vertices.  If the system property VALIDATE_TRUSTED_PROPERTY is "true", this validates the arguments as in
+     * createPartial.  The behavior is unspecified if the arguments are invalid.
+     * @param rotationSystem The rotation system.  The PlanarEmbedding takes ownership of this object.
+     * @param externalFaceEdge A half-edge on the external face, or -1 if the graph has no edges.  The external face
+     *     starts at the beginning of this half-edge.
+     * @return The PlanarEmbedding.
+     */
+    public static PlanarEmbedding createTrusted(RotationSystem rotationSystem, int externalFaceEdge) {
+        if (VALIDATE_TRUSTED) {
+            return new PlanarEmbedding(
+                new ClockwiseOrderMap(rotationSystem), new ExternalFaceList(rotationSystem, externalFaceEdge), true);
+        } else {
+            return new PlanarEmbedding(rotationSystem, externalFaceEdge);
+        }
+    }
+
+    /**
+     * Returns the half-edge in the specified rotation system from externalFace.get(0) to externalFace.get(1), or -1 if
+     * externalFace has only one vertex.
+     */
+    private static int externalFaceEdge(List<Vertex> externalFace, RotationSystem rotationSystem) {
+        if (externalFace.size() == 1) {
+            return -1;
+        } else {
+            return rotationSystem.findEdge(
+                rotationSystem.vertexIndex(externalFace.get(0)), rotationSystem.vertexIndex(externalFace.get(1)));
+        }
+    }
+
     /**
      * Throws an IllegalArgumentException if the specified arguments do not suggest a valid planar embedding.
      * @param clockwiseOrder A map from each vertex in the graph to the adjacent vertices, in clockwise order of the
@@ -81,66 +185,64 @@ public class PlanarEmbedding {
      * @param externalFace The external face, as in the externalFace field.
      * @param isPartial Whether the embedding is (potentially) for a subgraph of a connected component, as opposed to an
      *     entire connected component.
+     * @return The RotationSystem for clockwiseOrder.
      */
-    private static void validatePlanarEmbedding(
+    private static RotationSystem validatePlanarEmbedding(
             Map<Vertex, List<Vertex>> clockwiseOrder, List<Vertex> externalFace, boolean isPartial) {
-        // Compute nextClockwise, a map from each vertex V to a map from each adjacent vertex W to the next vertex
-        // clockwise from W
-        Map<Vertex, Map<Vertex, Vertex>> nextClockwise = new HashMap<Vertex, Map<Vertex, Vertex>>();
+        String partialMessage =
+            "If part of the graph is intentionally omitted, create the PlanarEmbedding using " +
+            "PlanarEmbedding.createPartial.";
         for (Entry<Vertex, List<Vertex>> entry : clockwiseOrder.entrySet()) {
             Vertex vertex = entry.getKey();
             List<Vertex> vertexClockwiseOrder = entry.getValue();
-            if (vertexClockwiseOrder.isEmpty()) {
-                if (clockwiseOrder.size() != 1) {
-                    throw new IllegalArgumentException("The clockwiseOrder entry for " + vertex + " is empty");
-                }
-                nextClockwise.put(vertex, Collections.<Vertex, Vertex>emptyMap());
-            } else {
-                Map<Vertex, Vertex> vertexNextClockwise = new HashMap<Vertex, Vertex>();
-                Vertex prevAdjVertex = vertexClockwiseOrder.get(vertexClockwiseOrder.size() - 1);
-                for (Vertex adjVertex : vertexClockwiseOrder) {
-                    if (adjVertex == vertex) {
-                        throw new IllegalArgumentException(
-                            "The clockwiseOrder entry for " + vertex + " contains that vertex");
-                    }
-                    vertexNextClockwise.put(prevAdjVertex, adjVertex);
-                    prevAdjVertex = adjVertex;
+            if (vertexClockwiseOrder.isEmpty() && clockwiseOrder.size() != 1) {
+                throw new IllegalArgumentException("The clockwiseOrder entry for " + vertex + " is empty");
+            }
+            for (Vertex adjVertex : vertexClockwiseOrder) {
+                if (adjVertex == vertex) {
+                    throw new IllegalArgumentException(
+                        "The clockwiseOrder entry for " + vertex + " contains that vertex");
                 }
-                nextClockwise.put(vertex, vertexNextClockwise);
+            }
+            if (!isPartial && vertexClockwiseOrder.size() != vertex.edges.size()) {
+                throw new IllegalArgumentException(
+                    "The clockwiseOrder entry for " + vertex + " does not contain all adjacent vertices exactly " +
+                    "once.  " + partialMessage);
             }
         }
 
-        // Verify clockwiseOrder
-        if (isPartial) {
-            for (Entry<Vertex, List<Vertex>> entry : clockwiseOrder.entrySet()) {
-                Vertex vertex = entry.getKey();
-                for (Vertex adjVertex : entry.getValue()) {
-                    Map<Vertex, Vertex> vertexNextClockwise = nextClockwise.get(adjVertex);
-                    if (vertexNextClockwise == null || !vertexNextClockwise.containsKey(vertex)) {
-                        throw new IllegalArgumentException(
-                            "The clockwiseOrder entry for " + vertex + " contains " + adjVertex +
-                            ", but not vice versa");
+        // RotationSystem.create checks that each edge appears in both directions
+        RotationSystem rotationSystem = RotationSystem.create(clockwiseOrder);
+
+        if (!isPartial) {
+            // Verify that each vertex's clockwiseOrder entry consists of its adjacent vertices.  The entry has the
+            // correct size, so it suffices to check that it has no duplicates and that it contains each adjacent
+            // vertex.  targetMarks[W] is the vertex number of the last vertex whose entry we found to contain W.
+            int[] targetMarks = new int[rotationSystem.vertexCount()];
+            Arrays.fill(targetMarks, -1);
+            for (int vertex = 0; vertex < rotationSystem.vertexCount(); vertex++) {
+                boolean isValid = true;
+                for (int edge = rotationSystem.offset(vertex); edge < rotationSystem.offset(vertex + 1); edge++) {
+                    int target = rotationSystem.target(edge);
+                    if (targetMarks[target] == vertex) {
+                        isValid = false;
                     }
+                    targetMarks[target] = vertex;
                 }
-            }
-        } else {
-            for (Entry<Vertex, List<Vertex>> entry : clockwiseOrder.entrySet()) {
-                Vertex vertex = entry.getKey();
-                List<Vertex> vertexClockwiseOrder = entry.getValue();
-                if (vertexClockwiseOrder.size() != vertex.edges.size() ||
-                        !new HashSet<Vertex>(vertexClockwiseOrder).equals(vertex.edges)) {
-                    throw new IllegalArgumentException(
-                        "The clockwiseOrder entry for " + vertex +
-                        " does not contain all adjacent vertices exactly once.  If part of the graph is " +
-                        "intentionally omitted, create the PlanarEmbedding using PlanarEmbedding.createPartial.");
-                }
-                for (Vertex adjVertex : vertex.edges) {
-                    if (!clockwiseOrder.containsKey(adjVertex)) {
+                for (Vertex adjVertex : rotationSystem.vertex(vertex).edges) {
+                    int adjIndex = rotationSystem.vertexIndex(adjVertex);
+                    if (adjIndex < 0) {
                         throw new IllegalArgumentException(
-                            "clockwiseOrder does not have an entry for " + adjVertex + ".  If part of the graph is " +
-                            "intentionally omitted, create the PlanarEmbedding using PlanarEmbedding.createPartial.");
+                            "clockwiseOrder does not have an entry for " + adjVertex + ".  " + partialMessage);
+                    } else if (targetMarks[adjIndex] != vertex) {
+                        isValid = false;
                     }
                 }
+                if (!isValid) {
+                    throw new IllegalArgumentException(
+                        "The clockwiseOrder entry for " + rotationSystem.vertex(vertex) +
+                        " does not contain all adjacent vertices exactly once.  " + partialMessage);
+                }
             }
         }
 
@@ -152,39 +254,46 @@ public class PlanarEmbedding {
                 throw new IllegalArgumentException("externalFace is not a face in the embedding");
             }
         } else {
+            for (Vertex vertex : externalFace) {
+                if (rotationSystem.vertexIndex(vertex) < 0) {
+                    throw new IllegalArgumentException(
+                        "externalFace contains a vertex " + vertex + " that does not appear in clockwiseOrder");
+                }
+            }
             Vertex prevVertex = externalFace.get(externalFace.size() - 1);
-            if (!clockwiseOrder.containsKey(prevVertex)) {
+            Vertex vertex = externalFace.get(0);
+            int edge = rotationSystem.findEdge(
+                rotationSystem.vertexIndex(prevVertex), rotationSystem.vertexIndex(vertex));
+            if (edge < 0) {
                 throw new IllegalArgumentException(
-                    "externalFace contains a vertex " + prevVertex + " that does not appear in clockwiseOrder");
+                    "externalFace contains an edge (" + prevVertex + ", " + vertex +
+                    ") that does not appear in clockwiseOrder");
             }
+
+            // Walk along the face and compare it to externalFace
             for (int i = 0; i < externalFace.size(); i++) {
-                Vertex vertex = externalFace.get(i);
+                edge = rotationSystem.nextOnFace(edge);
                 Vertex nextVertex;
                 if (i + 1 < externalFace.size()) {
                     nextVertex = externalFace.get(i + 1);
                 } else {
                     nextVertex = externalFace.get(0);
                 }
-                Map<Vertex, Vertex> vertexNextClockwise = nextClockwise.get(vertex);
-                if (vertexNextClockwise == null) {
-                    throw new IllegalArgumentException(
-                        "externalFace contains a vertex " + vertex + " that does not appear in clockwiseOrder");
-                }
-
-                Vertex expectedVertex = vertexNextClockwise.get(prevVertex);
-                if (expectedVertex == null) {
-                    throw new IllegalArgumentException(
-                        "externalFace contains an edge (" + prevVertex + ", " + vertex +
-                        ") that does not appear in clockwiseOrder");
-                } else if (nextVertex != expectedVertex) {
+                if (rotationSystem.vertex(rotationSystem.target(edge)) != nextVertex) {
+                    int vertexIndex = rotationSystem.vertexIndex(vertex);
+                    int nextVertexIndex = rotationSystem.vertexIndex(nextVertex);
+                    if (rotationSystem.findEdge(vertexIndex, nextVertexIndex) < 0) {
+                        throw new IllegalArgumentException(
+                            "externalFace contains an edge (" + vertex + ", " + nextVertex +
+                            ") that does not appear in clockwiseOrder");
+                    }
                     throw new IllegalArgumentException(
                         "externalFace is not a face in the embedding or is not specified in clockwise order");
                 }
-
-                prevVertex = vertex;
                 vertex = nextVertex;
             }
         }
+        return rotationSystem;
     }
 
     /**
@@ -269,16 +378,20 @@ public class PlanarEmbedding {
 
         // Using bucket sort, order the separated children lists (as in PlanarVertex.separatedChildrenHead) in ascending
         // order of lowpoint
-        @SuppressWarnings("unchecked")
-        Collection<RootVertex>[] rootVertexBuckets = new Collection[vertices.size()];
+        List<Collection<RootVertex>> rootVertexBuckets = new ArrayList<Collection<RootVertex>>(vertices.size());
+        for (int i = 0; i < vertices.size(); i++) {
+            rootVertexBuckets.add(null);
+        }
         for (PlanarVertex vertex : vertices) {
             for (RootVertex rootVertex = vertex.separatedChildrenHead; rootVertex != null;
                     rootVertex = rootVertex.next) {
                 int index = rootVertex.child.lowpoint.index;
-                if (rootVertexBuckets[index] == null) {
-                    rootVertexBuckets[index] = new ArrayList<RootVertex>();
+                Collection<RootVertex> bucket = rootVertexBuckets.get(index);
+                if (bucket == null) {
+                    bucket = new ArrayList<RootVertex>();
+                    rootVertexBuckets.set(index, bucket);
                 }
-                rootVertexBuckets[index].add(rootVertex);
+                bucket.add(rootVertex);
             }
             vertex.separatedChildrenHead = null;
             vertex.separatedChildrenTail = null;
@@ -308,7 +421,7 @@ public class PlanarEmbedding {
      *     successorOnExternalFace(RootVertex, boolean).
      * @return The successor.
      */
-    private static VertexAndDir successorOnExternalFace(HalfEdge edge, boolean isInBlack) {
+    static VertexAndDir successorOnExternalFace(HalfEdge edge, boolean isInBlack) {
         boolean nextIsInBlack;
         if (edge.endLink(isInBlack).twinEdge == edge) {
             nextIsInBlack = isInBlack;
@@ -430,7 +543,7 @@ public class PlanarEmbedding {
      * Returns whether "vertex" is pertinent relative to adding the back edges from curVertex to descendants of
      * curVertex, according to the definition of "pertinent" provided in the paper.
      */
-    private static boolean isPertinent(PlanarVertex vertex, PlanarVertex curVertex) {
+    static boolean isPertinent(PlanarVertex vertex, PlanarVertex curVertex) {
         return vertex.backEdgeFlag == curVertex || vertex.pertinentRootsHead != null;
     }
 
@@ -438,17 +551,17 @@ public class PlanarEmbedding {
      * Returns whether "vertex" is externally active relative to adding the back edges from curVertex to descendants of
      * curVertex.
      */
-    private static boolean isExternallyActive(PlanarVertex vertex, PlanarVertex curVertex) {
+    static boolean isExternallyActive(PlanarVertex vertex, PlanarVertex curVertex) {
         return (vertex.leastAncestor != null && vertex.leastAncestor.index < curVertex.index) ||
             (vertex.separatedChildrenHead != null &&
-                vertex.separatedChildrenHead.vertex.lowpoint.index < curVertex.index);
+                vertex.separatedChildrenHead.child.lowpoint.index < curVertex.index);
     }
 
     /**
      * Returns whether "vertex" is active relative to adding the back edges from curVertex to descendants of
      * curVertex, according to the definition of "active" provided in the paper.
      */
-    private static boolean isActive(PlanarVertex vertex, PlanarVertex curVertex) {
+    static boolean isActive(PlanarVertex vertex, PlanarVertex curVertex) {
         return isPertinent(vertex, curVertex) || isExternallyActive(vertex, curVertex);
     }
 
@@ -465,15 +578,14 @@ public class PlanarEmbedding {
      * children list of "vertex" (vertex.separatedChildrenHead to vertex.separatedChildrenTail) to "edges", so that the
      * edges of each external face are a sublist of "edges".  We include the external faces of any biconnected
      * components rooted at any vertices we encounter along the way, i.e. we take such components to be part of the
-     * faces we are adding to "edges".  This method sets RootVertex.isFlippedRelativeToVertex and
-     * PlanarVertex.isFlippedRelativeToParent as appropriate for if the biconnected components are on the outside of the
-     * embedding.  It adds the external faces of the biconnected components in the order in which the components appear
-     * in the separated children list.
+     * faces we are adding to "edges".  It adds the external faces of the biconnected components in the order in which
+     * the components appear in the separated children list.  "isInBlack" indicates whether the face we are computing
+     * reaches "vertex" using vertex.link(true), as opposed to vertex.link(false).
      */
-    private static void addSeparatedChildrenFace(PlanarVertex vertex, List<HalfEdge> edges) {
+    private static void addSeparatedChildrenFace(PlanarVertex vertex, boolean isInBlack, List<HalfEdge> edges) {
         // Compute the face.  The edges of the face of a separated biconnected component appear between the adjacent
         // edges of the adjacent biconnected component.
-        VertexAndDir successor = new VertexAndDir(vertex, true);
+        VertexAndDir successor = new VertexAndDir(vertex, isInBlack);
         while (successor.rootVertex != vertex.separatedChildrenTail) {
             if (successor.vertex != null) {
                 if (successor.vertex.separatedChildrenHead == null) {
@@ -485,12 +597,8 @@ public class PlanarEmbedding {
                     // face of the original biconnected component
                     RootVertex rootVertex = successor.vertex.separatedChildrenHead;
 
-                    // Flip rootVertex as necessary so that the direction (clockwiseness) of rootVertex.link(false)
-                    // matches that of rv.link(false) for the root vertex "rv" with rv.vertex == vertex that is an
-                    // ancestor of rootVertex
-                    rootVertex.isFlippedRelativeToVertex = !successor.isInBlack;
-                    rootVertex.child.isFlippedRelativeToParent = !successor.isInBlack;
-
+                    // rootVertex is not flipped relative to its vertex, so we traverse its external face in the same
+                    // direction (clockwiseness) as the face we are computing
                     successor = successorOnExternalFace(rootVertex, successor.isInBlack);
                 }
             } else {
@@ -501,12 +609,8 @@ public class PlanarEmbedding {
                     // traversing the external face of the original biconnected component
                     RootVertex rootVertex = successor.rootVertex.next;
 
-                    // Flip rootVertex as necessary so that the direction (clockwiseness) of rootVertex.link(false)
-                    // matches that of rv.link(false) for the root vertex "rv" with rv.vertex == vertex that is an
-                    // ancestor of rootVertex
-                    rootVertex.isFlippedRelativeToVertex = !successor.isInBlack;
-                    rootVertex.child.isFlippedRelativeToParent = !successor.isInBlack;
-
+                    // rootVertex is not flipped relative to its vertex, so we traverse its external face in the same
+                    // direction (clockwiseness) as the face we are computing
                     successor = successorOnExternalFace(rootVertex, successor.isInBlack);
                 }
             }
@@ -557,7 +661,7 @@ public class PlanarEmbedding {
         while (successor.rootVertex != rootVertex) {
             if (successor.vertex != null) {
                 // We are "enclosing" the vertex.  Include any separated children in the face.
-                addSeparatedChildrenFace(successor.vertex, edges);
+                addSeparatedChildrenFace(successor.vertex, isInBlack, edges);
 
                 edges.add(successor.vertex.link(!isInBlack));
                 successor = successorOnExternalFace(successor.vertex, isInBlack);
@@ -764,6 +868,15 @@ public class PlanarEmbedding {
         return reversed;
     }
 
+    /** Returns the PlanarVertex at the end of the specified edge. */
+    private static PlanarVertex end(HalfEdge edge) {
+        if (edge.endVertex != null) {
+            return edge.endVertex;
+        } else {
+            return edge.endRootVertex.vertex;
+        }
+    }
+
     /**
      * Returns a PlanarEmbedding for the graph, having added all back edges and having computed the internal faces.
      * @param internalFaces The internal faces.
@@ -776,7 +889,7 @@ public class PlanarEmbedding {
         // between the adjacent edges of the adjacent biconnected component.
         List<HalfEdge> edges = new ArrayList<HalfEdge>();
         PlanarVertex treeRoot = vertices.get(vertices.size() - 1);
-        addSeparatedChildrenFace(treeRoot, edges);
+        addSeparatedChildrenFace(treeRoot, true, edges);
 
         Collection<PlanarFace> faces = new ArrayList<PlanarFace>(internalFaces.size() + 1);
         faces.addAll(internalFaces);
@@ -802,10 +915,22 @@ public class PlanarEmbedding {
             }
         }
 
-        // Compute the clockwiseOrder map
-        Map<Vertex, List<Vertex>> clockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
-        for (PlanarVertex vertex : vertices) {
-            // Select an arbitrary edge starting at "vertex"
+        // Compute the rotation system, numbering the vertices in the order in which they appear in "vertices"
+        Vertex[] rotationVertices = new Vertex[vertices.size()];
+        int[] vertexNumbers = new int[vertices.size()];
+        int halfEdgeCount = 0;
+        for (int i = 0; i < vertices.size(); i++) {
+            PlanarVertex vertex = vertices.get(i);
+            rotationVertices[i] = vertex.vertex;
+            vertexNumbers[vertex.index] = i;
+            halfEdgeCount += vertex.vertex.edges.size();
+        }
+        int[] offsets = new int[vertices.size() + 1];
+        int[] targets = new int[halfEdgeCount];
+        int halfEdgeIndex = 0;
+        for (int i = 0; i < vertices.size(); i++) {
+            // Select an arbitrary edge starting at the vertex
+            PlanarVertex vertex = vertices.get(i);
             HalfEdge start;
             if (vertex != treeRoot) {
                 start = vertex.link(true);
@@ -813,59 +938,68 @@ public class PlanarEmbedding {
                 start = vertex.separatedChildrenHead.link(true);
             }
 
-            List<Vertex> vertexClockwiseOrder = new ArrayList<Vertex>();
-            if (!start.isSynthetic) {
-                if (start.endVertex != null) {
-                    vertexClockwiseOrder.add(start.endVertex.vertex);
-                } else {
-                    vertexClockwiseOrder.add(start.endRootVertex.vertex.vertex);
-                }
-            }
-            for (HalfEdge edge = start.nextClockwise; edge != start; edge = edge.nextClockwise) {
+            offsets[i] = halfEdgeIndex;
+            HalfEdge edge = start;
+            do {
                 if (!edge.isSynthetic) {
-                    if (edge.endVertex != null) {
-                        vertexClockwiseOrder.add(edge.endVertex.vertex);
-                    } else {
-                        vertexClockwiseOrder.add(edge.endRootVertex.vertex.vertex);
-                    }
+                    targets[halfEdgeIndex] = vertexNumbers[end(edge).index];
+                    halfEdgeIndex++;
                 }
-            }
-            clockwiseOrder.put(vertex.vertex, vertexClockwiseOrder);
-        }
-
-        // Compute externalFace.  We iterated over the external face in the call to addSeparatedChildrenFace, but that
-        // may have included synthetic edges, which we are able to skip over here.
-        List<Vertex> externalFace = new ArrayList<Vertex>();
-        for (RootVertex rootVertex = treeRoot.separatedChildrenHead; rootVertex != null; rootVertex = rootVertex.next) {
-            HalfEdge externalEdge = rootVertex.link(false);
-            externalFace.add(treeRoot.vertex);
-            while (externalEdge.endRootVertex != rootVertex) {
-                if (externalEdge.isSynthetic) {
-                    // Move clockwise toward the next non-synthetic edge
-                    externalEdge = externalEdge.nextClockwise;
-                } else {
-                    if (externalEdge.endVertex != null) {
-                        externalFace.add(externalEdge.endVertex.vertex);
-                    } else {
-                        externalFace.add(externalEdge.endRootVertex.vertex.vertex);
-                    }
+                edge = edge.nextClockwise;
+            } while (edge != start);
+        }
+        offsets[vertices.size()] = halfEdgeIndex;
+        RotationSystem rotationSystem = RotationSystem.create(rotationVertices, offsets, targets);
+
+        // Compute the first edge of the external face, which leaves treeRoot.  We iterated over the external face in
+        // the call to addSeparatedChildrenFace, but that may have included synthetic edges, which we skip over here.
+        HalfEdge externalEdge = treeRoot.separatedChildrenHead.link(false);
+        while (externalEdge.isSynthetic) {
+            // Move clockwise toward the next non-synthetic edge
+            externalEdge = externalEdge.nextClockwise;
+        }
+        int externalFaceEdge = rotationSystem.findEdge(
+            vertexNumbers[treeRoot.index], vertexNumbers[end(externalEdge).index]);
+        return createTrusted(rotationSystem, externalFaceEdge);
+    }
 
-                    // Move to the next edge on the face
-                    externalEdge = externalEdge.twinEdge.nextClockwise;
-                }
+    /**
+     * Adds the back edges to the embedding, as in the paper.
+     * @param vertices The vertices in the depth-first search tree, in reverse topological order (i.e. with each vertex
+     *     appearing before its parent).
+     * @param faces The collection to which to add the internal faces we create.
+     * @return The vertex whose back edges we were unable to add, or null if we added all of the back edges, i.e. if
+     *     the graph is planar.
+     */
+    private static PlanarVertex addBackEdges(List<PlanarVertex> vertices, Collection<PlanarFace> faces) {
+        for (PlanarVertex curVertex : vertices) {
+            for (PlanarVertex backEdge : curVertex.backEdges) {
+                walkUp(backEdge, curVertex);
+            }
+            List<RootVertex> children = new ArrayList<RootVertex>();
+            for (RootVertex child = curVertex.separatedChildrenHead; child != null; child = child.next) {
+                children.add(child);
+            }
+            int backEdgeCount = 0;
+            for (RootVertex child : children) {
+                backEdgeCount += walkDown(child, false, faces);
+                backEdgeCount += walkDown(child, true, faces);
+            }
+            if (backEdgeCount < curVertex.backEdges.size()) {
+                return curVertex;
             }
         }
-
-        return new PlanarEmbedding(clockwiseOrder, externalFace);
+        return null;
     }
 
     /**
      * Returns an arbitrary planar embedding of the connected component containing the specified vertex.  Returns null
-     * if the connected component is not a planar graph.
+     * if the connected component is not a planar graph.  See also KuratowskiSubgraph.compute, which extracts a subgraph
+     * that prevents the graph from being planar from the state of this algorithm at the point where it fails.
      */
     public static PlanarEmbedding compute(Vertex start) {
         if (start.edges.isEmpty()) {
-            return new PlanarEmbedding(
+            return createTrusted(
                 Collections.singletonMap(start, Collections.<Vertex>emptyList()), Collections.singletonList(start));
         }
 
@@ -881,36 +1015,71 @@ public class PlanarEmbedding {
         }
 
         Collection<PlanarFace> faces = new ArrayList<PlanarFace>();
-        for (PlanarVertex curVertex : vertices) {
-            for (PlanarVertex backEdge : curVertex.backEdges) {
-                walkUp(backEdge, curVertex);
-            }
-            List<RootVertex> children = new ArrayList<RootVertex>();
-            for (RootVertex child = curVertex.separatedChildrenHead; child != null; child = child.next) {
-                children.add(child);
-            }
-            int backEdgeCount = 0;
-            for (RootVertex child : children) {
-                backEdgeCount += walkDown(child, false, faces);
-                backEdgeCount += walkDown(child, true, faces);
-            }
-            if (backEdgeCount < curVertex.backEdges.size()) {
-                return null;
-            }
+        if (addBackEdges(vertices, faces) != null) {
+            return null;
         }
         return embedding(faces, vertices);
     }
 
-    /** Returns the mirror image of this. */
+    /**
+     * Returns the edges of a Kuratowski subgraph of the connected component containing the specified vertex, as in
+     * KuratowskiSubgraph.edges, or null if the connected component is a planar graph.  We extract the subgraph from
+     * the state of the algorithm at the point where it fails to add the back edges from some vertex, using
+     * KuratowskiIsolator.  This is the implementation of KuratowskiSubgraph.compute.
+     */
+    static Set<UnorderedPair<Vertex>> kuratowskiSubgraphEdges(Vertex start) {
+        if (start.edges.isEmpty()) {
+            return null;
+        }
+        List<PlanarVertex> vertices = depthFirstSearch(start);
+        Collection<PlanarFace> faces = new ArrayList<PlanarFace>();
+        PlanarVertex failedVertex = addBackEdges(vertices, faces);
+        if (failedVertex == null) {
+            return null;
+        }
+        return new KuratowskiIsolator(vertices, faces, failedVertex).isolate();
+    }
+
+    /**
+     * Returns an arbitrary planar embedding of each connected component of the specified graph.  This computes the
+     * embeddings concurrently, using the shared ForkJoinPool in ParallelComponents.
+     * @param graph The graph.
+     * @return A map from an arbitrary vertex in each component to the embedding of that component, or to null if the
+     *     component is not a planar graph.  The keys are the vertices returned by
+     *     ParallelComponents.componentStarts(graph), in the same order.
+     */
+    public static Map<Vertex, PlanarEmbedding> computeAll(Graph graph) {
+        return ParallelComponents.compute(graph, new ComponentAlgorithm<PlanarEmbedding>() {
+            @Override
+            public PlanarEmbedding compute(Vertex start) {
+                return PlanarEmbedding.compute(start);
+            }
+        });
+    }
+
+    /** Returns the mirror image of this.  This takes linear time. */
     public PlanarEmbedding flip() {
-        Map<Vertex, List<Vertex>> flippedClockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
-        for (Entry<Vertex, List<Vertex>> entry : clockwiseOrder.entrySet()) {
-            List<Vertex> vertexClockwiseOrder = new ArrayList<Vertex>(entry.getValue());
-            Collections.reverse(vertexClockwiseOrder);
-            flippedClockwiseOrder.put(entry.getKey(), vertexClockwiseOrder);
+        if (externalFaceEdge < 0) {
+            return this;
+        }
+
+        // The flipped external face is the reverse of externalFace, so it starts with the half-edge from the last
+        // vertex of externalFace to the second-to-last vertex.  This is the twin of the half-edge two edges before
+        // externalFaceEdge on the external face.
+        int edge = externalFaceEdge;
+        for (int i = 0; i < 2; i++) {
+            // Move to the previous edge on the face
+            int source = rotationSystem.source(edge);
+            if (edge > rotationSystem.offset(source)) {
+                edge = rotationSystem.twin(edge - 1);
+            } else {
+                edge = rotationSystem.twin(rotationSystem.offset(source + 1) - 1);
+            }
         }
-        List<Vertex> flippedExternalFace = new ArrayList<Vertex>(externalFace);
-        Collections.reverse(flippedExternalFace);
-        return PlanarEmbedding.createPartial(flippedClockwiseOrder, flippedExternalFace);
+        int flippedEdge = rotationSystem.twin(edge);
+        int source = rotationSystem.source(flippedEdge);
+        int flippedExternalFaceEdge =
+            rotationSystem.offset(source) + rotationSystem.offset(source + 1) - 1 - flippedEdge;
+        return createTrusted(rotationSystem.flip(), flippedExternalFaceEdge);
     }
 }
@@ -2,8 +2,10 @@ package com.github.btrekkie.graph.planar;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.github.btrekkie.graph.Graph;
 import com.github.btrekkie.graph.Vertex;
@@ -63,4 +65,16 @@ public class PlanarEmbeddingWithCrossings {
             return vertices;
         }
     }
+
+    /** Returns the number of crossings in the embedding, i.e. the number of added vertices of degree four. */
+    public int crossingCount() {
+        Set<Vertex> originalVertices = new HashSet<Vertex>(originalVertexToVertex.values());
+        int count = 0;
+        for (Vertex vertex : graph.vertices) {
+            if (vertex.edges.size() == 4 && !originalVertices.contains(vertex)) {
+                count++;
+            }
+        }
+        return count;
+    }
 }
@@ -0,0 +1,571 @@
+package com.github.btrekkie.graph.planar;
+
+import com.github.btrekkie.graph.CompactGraph;
+
+/**
+ * Determines whether graphs are planar, without computing planar embeddings.  A PlanarityTester keeps all of its state
+ * in primitive arrays, which it reuses from one call to the next, so once the arrays are large enough, testing a graph
+ * does not allocate any memory.  This makes it much faster than checking whether PlanarEmbedding.compute returns null,
+ * particularly when testing many graphs.  A PlanarityTester is not safe for concurrent use by multiple threads; use one
+ * PlanarityTester per thread instead.
+ */
+/* This is implemented using the left-right planarity test described in
+ * http://citeseerx.ist.psu.edu/viewdoc/download?doi=10.1.1.217.9208&rep=rep1&type=pdf (Brandes (2009): The Left-Right
+ * Planarity Test).  Like the algorithm in PlanarEmbedding, it runs in linear time, but its state for testing planarity
+ * is limited to a few integers per vertex and per edge, which makes it well-suited to a struct-of-arrays
+ * representation.  We skip the bookkeeping that the paper uses to compute an embedding.
+ *
+ * We identify each directed edge of the graph using its half-edge number, as in CompactGraph.target.  We copy the
+ * graph's adjacency arrays into reusable buffers at the start of each test.  The first phase orients the edges using
+ * a depth-first search, and each undirected edge is represented by the directed edge in the direction of the
+ * orientation.  The conflict pair stack is represented as four parallel arrays, where -1 represents the absence of an
+ * edge.  Both depth-first searches are iterative, to avoid stack overflows on large graphs.
+ */
+public class PlanarityTester {
+    /** The default initial capacity for per-vertex and per-edge arrays. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The number of elements in each per-vertex array. */
+    private int vertexCapacity;
+
+    /** The number of elements in each per-edge array. */
+    private int edgeCapacity;
+
+    /** The height of each vertex in the depth-first search forest, or -1 if it has not been visited. */
+    private int[] heights;
+
+    /** The directed edge from the parent of each vertex to the vertex, or -1 for a root vertex. */
+    private int[] parentEdges;
+
+    /** The parent of each vertex in the depth-first search forest, or -1 for a root vertex. */
+    private int[] parents;
+
+    /**
+     * For each vertex in the first depth-first search, the index in "neighbors" of the next edge to visit.
+     * For each vertex in the second depth-first search, the index in orderedEdges of the next edge to visit.
+     */
+    private int[] cursors;
+
+    /**
+     * Whether we have encountered the edge to the parent of each vertex during the first depth-first search.  We skip
+     * the first such edge, since it is the tree edge, but we must treat any repeated edges to the parent as back edges.
+     */
+    private boolean[] skippedParentEdges;
+
+    /** Whether we are in the middle of visiting the child at the end of each vertex's current edge. */
+    private boolean[] visitingChild;
+
+    /** The number of oriented edges leaving each vertex. */
+    private int[] outDegrees;
+
+    /** The path of vertices from the root to the current vertex in the depth-first search. */
+    private int[] path;
+
+    /** The roots of the depth-first search trees. */
+    private int[] roots;
+
+    /** Whether each directed edge is oriented in its direction. */
+    private boolean[] isOriented;
+
+    /** The lowpoint of each oriented edge, i.e. the lowest height reachable using that edge. */
+    private int[] lowpts;
+
+    /** The second lowest height reachable using each oriented edge. */
+    private int[] lowpt2s;
+
+    /** The nesting depth of each oriented edge, which determines the order in which we visit the edges. */
+    private int[] nestingDepths;
+
+    /** The "ref" of each oriented edge, as in the paper: the next edge in an interval's chain of return edges. */
+    private int[] refs;
+
+    /** The return edge with the lowest lowpoint for each oriented edge. */
+    private int[] lowptEdges;
+
+    /** The number of entries in the conflict pair stack when we began to visit each oriented edge. */
+    private int[] stackBottoms;
+
+    /**
+     * The oriented edges leaving each vertex, in order of nesting depth.  The edges leaving a vertex V are stored
+     * starting at index offsets[V].
+     */
+    private int[] orderedEdges;
+
+    /** Temporary storage for the oriented edges, sorted by nesting depth. */
+    private int[] sortedEdges;
+
+    /** Temporary storage for the sources of the edges in sortedEdges. */
+    private int[] sortedSources;
+
+    /** Temporary storage for the number of edges with each nesting depth. */
+    private int[] depthCounts;
+
+    /** The low end of the left interval of each conflict pair in the stack. */
+    private int[] leftLows;
+
+    /** The high end of the left interval of each conflict pair in the stack. */
+    private int[] leftHighs;
+
+    /** The low end of the right interval of each conflict pair in the stack. */
+    private int[] rightLows;
+
+    /** The high end of the right interval of each conflict pair in the stack. */
+    private int[] rightHighs;
+
+    /** The number of entries in the conflict pair stack. */
+    private int stackSize;
+
+    /**
+     * The offsets into "neighbors" of the adjacency lists of the vertices in the graph we are currently testing, as in
+     * CompactGraph.offset, followed by halfEdgeCount.
+     */
+    private int[] offsets;
+
+    /** The concatenation of the adjacency lists of the vertices in the graph we are currently testing. */
+    private int[] neighbors;
+
+    /** The number of vertices in the graph we are currently testing. */
+    private int vertexCount;
+
+    /** The number of half-edges in the graph we are currently testing, i.e. twice the number of edges. */
+    private int halfEdgeCount;
+
+    public PlanarityTester() {
+        ensureCapacity(INITIAL_CAPACITY, INITIAL_CAPACITY);
+    }
+
+    /** Ensures that the per-vertex and per-edge arrays have at least the specified numbers of elements. */
+    private void ensureCapacity(int minVertexCapacity, int minEdgeCapacity) {
+        if (minVertexCapacity > vertexCapacity) {
+            vertexCapacity = Math.max(minVertexCapacity, 2 * vertexCapacity);
+            heights = new int[vertexCapacity];
+            parentEdges = new int[vertexCapacity];
+            parents = new int[vertexCapacity];
+            cursors = new int[vertexCapacity];
+            skippedParentEdges = new boolean[vertexCapacity];
+            visitingChild = new boolean[vertexCapacity];
+            outDegrees = new int[vertexCapacity];
+            path = new int[vertexCapacity];
+            roots = new int[vertexCapacity];
+            depthCounts = new int[2 * vertexCapacity + 2];
+            offsets = new int[vertexCapacity + 1];
+        }
+        if (minEdgeCapacity > edgeCapacity) {
+            edgeCapacity = Math.max(minEdgeCapacity, 2 * edgeCapacity);
+            neighbors = new int[edgeCapacity];
+            isOriented = new boolean[edgeCapacity];
+            lowpts = new int[edgeCapacity];
+            lowpt2s = new int[edgeCapacity];
+            nestingDepths = new int[edgeCapacity];
+            refs = new int[edgeCapacity];
+            lowptEdges = new int[edgeCapacity];
+            stackBottoms = new int[edgeCapacity];
+            orderedEdges = new int[edgeCapacity];
+            sortedEdges = new int[edgeCapacity];
+            sortedSources = new int[edgeCapacity];
+            leftLows = new int[edgeCapacity];
+            leftHighs = new int[edgeCapacity];
+            rightLows = new int[edgeCapacity];
+            rightHighs = new int[edgeCapacity];
+        }
+    }
+
+    /**
+     * Finishes orienting the specified edge, by computing its nesting depth and updating the lowpoints of the edge from
+     * the parent of its source.
+     * @param edge The edge.
+     * @param source The source of the edge.
+     */
+    private void finishOrientation(int edge, int source) {
+        nestingDepths[edge] = 2 * lowpts[edge];
+        if (lowpt2s[edge] < heights[source]) {
+            // Chordal edge
+            nestingDepths[edge]++;
+        }
+
+        int parentEdge = parentEdges[source];
+        if (parentEdge >= 0) {
+            if (lowpts[edge] < lowpts[parentEdge]) {
+                lowpt2s[parentEdge] = Math.min(lowpts[parentEdge], lowpt2s[edge]);
+                lowpts[parentEdge] = lowpts[edge];
+            } else if (lowpts[edge] > lowpts[parentEdge]) {
+                lowpt2s[parentEdge] = Math.min(lowpt2s[parentEdge], lowpts[edge]);
+            } else {
+                lowpt2s[parentEdge] = Math.min(lowpt2s[parentEdge], lowpt2s[edge]);
+            }
+        }
+    }
+
+    /**
+     * Orients the edges of the graph using depth-first search, and computes heights, parentEdges, parents, lowpts,
+     * lowpt2s, and nestingDepths.
+     * @return The number of depth-first search trees.
+     */
+    private int orient() {
+        int rootCount = 0;
+        for (int root = 0; root < vertexCount; root++) {
+            if (heights[root] >= 0) {
+                continue;
+            }
+            roots[rootCount] = root;
+            rootCount++;
+            heights[root] = 0;
+            parentEdges[root] = -1;
+            parents[root] = -1;
+            cursors[root] = offsets[root];
+            int pathSize = 1;
+            path[0] = root;
+            while (pathSize > 0) {
+                int vertex = path[pathSize - 1];
+                if (cursors[vertex] < offsets[vertex + 1]) {
+                    int edge = cursors[vertex];
+                    cursors[vertex]++;
+                    int adjVertex = neighbors[edge];
+                    if (heights[adjVertex] < 0) {
+                        // Tree edge.  We finish orienting it once we are done visiting adjVertex.
+                        isOriented[edge] = true;
+                        lowpts[edge] = heights[vertex];
+                        lowpt2s[edge] = heights[vertex];
+                        heights[adjVertex] = heights[vertex] + 1;
+                        parentEdges[adjVertex] = edge;
+                        parents[adjVertex] = vertex;
+                        cursors[adjVertex] = offsets[adjVertex];
+                        skippedParentEdges[adjVertex] = false;
+                        path[pathSize] = adjVertex;
+                        pathSize++;
+                    } else if (heights[adjVertex] < heights[vertex]) {
+                        if (adjVertex == parents[vertex] && !skippedParentEdges[vertex]) {
+                            // The twin of the tree edge to "vertex"
+                            skippedParentEdges[vertex] = true;
+                        } else {
+                            // Back edge
+                            isOriented[edge] = true;
+                            lowpts[edge] = heights[adjVertex];
+                            lowpt2s[edge] = heights[vertex];
+                            finishOrientation(edge, vertex);
+                        }
+                    }
+                } else {
+                    pathSize--;
+                    if (pathSize > 0) {
+                        finishOrientation(parentEdges[vertex], path[pathSize - 1]);
+                    }
+                }
+            }
+        }
+        return rootCount;
+    }
+
+    /** Computes orderedEdges and outDegrees, using a counting sort on the nesting depths. */
+    private void sortEdges() {
+        int maxDepth = 2 * vertexCount + 1;
+        for (int i = 0; i <= maxDepth; i++) {
+            depthCounts[i] = 0;
+        }
+        for (int edge = 0; edge < halfEdgeCount; edge++) {
+            if (isOriented[edge]) {
+                depthCounts[nestingDepths[edge]]++;
+            }
+        }
+        int offset = 0;
+        for (int i = 0; i <= maxDepth; i++) {
+            int count = depthCounts[i];
+            depthCounts[i] = offset;
+            offset += count;
+        }
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                if (isOriented[edge]) {
+                    int index = depthCounts[nestingDepths[edge]];
+                    depthCounts[nestingDepths[edge]]++;
+                    sortedEdges[index] = edge;
+                    sortedSources[index] = vertex;
+                }
+            }
+            outDegrees[vertex] = 0;
+        }
+        for (int i = 0; i < offset; i++) {
+            int source = sortedSources[i];
+            orderedEdges[offsets[source] + outDegrees[source]] = sortedEdges[i];
+            outDegrees[source]++;
+        }
+    }
+
+    /** Pushes a conflict pair with the specified intervals to the stack. */
+    private void push(int leftLow, int leftHigh, int rightLow, int rightHigh) {
+        leftLows[stackSize] = leftLow;
+        leftHighs[stackSize] = leftHigh;
+        rightLows[stackSize] = rightLow;
+        rightHighs[stackSize] = rightHigh;
+        stackSize++;
+    }
+
+    /** Swaps the left and right intervals of the conflict pair at the specified index in the stack. */
+    private void swap(int index) {
+        int temp = leftLows[index];
+        leftLows[index] = rightLows[index];
+        rightLows[index] = temp;
+        temp = leftHighs[index];
+        leftHighs[index] = rightHighs[index];
+        rightHighs[index] = temp;
+    }
+
+    /**
+     * Returns whether the interval with the specified high end conflicts with the specified edge, i.e. whether it is
+     * non-empty and has a return edge with a lowpoint higher than that of the edge.
+     */
+    private boolean isConflicting(int high, int edge) {
+        return high >= 0 && lowpts[high] > lowpts[edge];
+    }
+
+    /** Returns the lowest lowpoint of the return edges in the conflict pair at the specified index in the stack. */
+    private int lowest(int index) {
+        if (leftLows[index] < 0) {
+            return lowpts[rightLows[index]];
+        } else if (rightLows[index] < 0) {
+            return lowpts[leftLows[index]];
+        } else {
+            return Math.min(lowpts[leftLows[index]], lowpts[rightLows[index]]);
+        }
+    }
+
+    /**
+     * Adds the constraints for the return edges of the specified edge to the conflict pair stack.  This corresponds to
+     * add_constraints in the paper.
+     * @param edge The edge, which must have a return edge.
+     * @param parentEdge The edge from the parent of the source of "edge" to the source of "edge".
+     * @return Whether the constraints are satisfiable, i.e. false if we have established that the graph is not planar.
+     */
+    private boolean addConstraints(int edge, int parentEdge) {
+        int leftLow = -1;
+        int leftHigh = -1;
+        int rightLow = -1;
+        int rightHigh = -1;
+
+        // Merge the return edges of "edge" into the right interval
+        do {
+            stackSize--;
+            if (leftLows[stackSize] >= 0 || leftHighs[stackSize] >= 0) {
+                swap(stackSize);
+            }
+            if (leftLows[stackSize] >= 0 || leftHighs[stackSize] >= 0) {
+                return false;
+            }
+            if (lowpts[rightLows[stackSize]] > lowpts[parentEdge]) {
+                // Merge the intervals
+                if (rightLow < 0 && rightHigh < 0) {
+                    rightHigh = rightHighs[stackSize];
+                } else {
+                    refs[rightLow] = rightHighs[stackSize];
+                }
+                rightLow = rightLows[stackSize];
+            } else {
+                // Align
+                refs[rightLows[stackSize]] = lowptEdges[parentEdge];
+            }
+        } while (stackSize != stackBottoms[edge]);
+
+        // Merge the conflicting return edges of the preceding edges into the left interval
+        while (stackSize > 0 &&
+                (isConflicting(leftHighs[stackSize - 1], edge) || isConflicting(rightHighs[stackSize - 1], edge))) {
+            stackSize--;
+            if (isConflicting(rightHighs[stackSize], edge)) {
+                swap(stackSize);
+            }
+            if (isConflicting(rightHighs[stackSize], edge)) {
+                return false;
+            }
+
+            // Merge the interval below the lowpoint of "edge" into the right interval
+            if (rightLow >= 0) {
+                refs[rightLow] = rightHighs[stackSize];
+            }
+            if (rightLows[stackSize] >= 0) {
+                rightLow = rightLows[stackSize];
+            }
+
+            if (leftLow < 0 && leftHigh < 0) {
+                leftHigh = leftHighs[stackSize];
+            } else {
+                refs[leftLow] = leftHighs[stackSize];
+            }
+            leftLow = leftLows[stackSize];
+        }
+
+        if (leftLow >= 0 || leftHigh >= 0 || rightLow >= 0 || rightHigh >= 0) {
+            push(leftLow, leftHigh, rightLow, rightHigh);
+        }
+        return true;
+    }
+
+    /** Removes the back edges ending at the specified vertex from the conflict pair stack. */
+    private void trimBackEdges(int vertex) {
+        while (stackSize > 0 && lowest(stackSize - 1) == heights[vertex]) {
+            stackSize--;
+        }
+        if (stackSize > 0) {
+            int index = stackSize - 1;
+
+            // Trim the left interval
+            while (leftHighs[index] >= 0 && neighbors[leftHighs[index]] == vertex) {
+                leftHighs[index] = refs[leftHighs[index]];
+            }
+            if (leftHighs[index] < 0 && leftLows[index] >= 0) {
+                // We just emptied the interval
+                refs[leftLows[index]] = rightLows[index];
+                leftLows[index] = -1;
+            }
+
+            // Trim the right interval
+            while (rightHighs[index] >= 0 && neighbors[rightHighs[index]] == vertex) {
+                rightHighs[index] = refs[rightHighs[index]];
+            }
+            if (rightHighs[index] < 0 && rightLows[index] >= 0) {
+                // We just emptied the interval
+                refs[rightLows[index]] = leftLows[index];
+                rightLows[index] = -1;
+            }
+        }
+    }
+
+    /**
+     * Tests the constraints for the edges in the depth-first search tree rooted at the specified vertex.
+     * @return Whether the constraints are satisfiable, i.e. false if we have established that the graph is not planar.
+     */
+    private boolean test(int root) {
+        stackSize = 0;
+        cursors[root] = 0;
+        visitingChild[root] = false;
+        int pathSize = 1;
+        path[0] = root;
+        while (pathSize > 0) {
+            int vertex = path[pathSize - 1];
+            int parentEdge = parentEdges[vertex];
+            if (cursors[vertex] < outDegrees[vertex]) {
+                int edge = orderedEdges[offsets[vertex] + cursors[vertex]];
+                if (!visitingChild[vertex]) {
+                    stackBottoms[edge] = stackSize;
+                    int adjVertex = neighbors[edge];
+                    if (parentEdges[adjVertex] == edge) {
+                        // Tree edge
+                        visitingChild[vertex] = true;
+                        cursors[adjVertex] = 0;
+                        visitingChild[adjVertex] = false;
+                        path[pathSize] = adjVertex;
+                        pathSize++;
+                        continue;
+                    } else {
+                        // Back edge
+                        lowptEdges[edge] = edge;
+                        push(-1, -1, edge, edge);
+                    }
+                }
+                visitingChild[vertex] = false;
+
+                if (lowpts[edge] < heights[vertex]) {
+                    // "edge" has a return edge
+                    if (cursors[vertex] == 0) {
+                        lowptEdges[parentEdge] = lowptEdges[edge];
+                    } else if (!addConstraints(edge, parentEdge)) {
+                        return false;
+                    }
+                }
+                cursors[vertex]++;
+            } else {
+                pathSize--;
+                if (parentEdge >= 0) {
+                    int parent = parents[vertex];
+                    trimBackEdges(parent);
+
+                    // Compute the ref of parentEdge
+                    if (lowpts[parentEdge] < heights[parent]) {
+                        int leftHigh = leftHighs[stackSize - 1];
+                        int rightHigh = rightHighs[stackSize - 1];
+                        if (leftHigh >= 0 && (rightHigh < 0 || lowpts[leftHigh] > lowpts[rightHigh])) {
+                            refs[parentEdge] = leftHigh;
+                        } else {
+                            refs[parentEdge] = rightHigh;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the graph given by offsets and neighbors is planar.  Assumes vertexCount and halfEdgeCount are
+     * set and the per-vertex and per-edge arrays are large enough.
+     */
+    private boolean isPlanar() {
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            heights[vertex] = -1;
+        }
+        for (int edge = 0; edge < halfEdgeCount; edge++) {
+            isOriented[edge] = false;
+            refs[edge] = -1;
+        }
+
+        int rootCount = orient();
+        sortEdges();
+        for (int i = 0; i < rootCount; i++) {
+            if (!test(roots[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns whether the specified graph is planar.  Repeated edges are permitted, and do not affect planarity. */
+    public boolean isPlanar(CompactGraph graph) {
+        vertexCount = graph.vertexCount();
+        halfEdgeCount = graph.halfEdgeCount();
+        ensureCapacity(vertexCount, halfEdgeCount);
+        for (int vertex = 0; vertex <= vertexCount; vertex++) {
+            offsets[vertex] = graph.offset(vertex);
+        }
+        for (int edge = 0; edge < halfEdgeCount; edge++) {
+            neighbors[edge] = graph.target(edge);
+        }
+        return isPlanar();
+    }
+
+    /**
+     * Returns whether the graph whose vertices are the integers 0 through vertexCount - 1 and whose edges are
+     * edgeStarts[i] to edgeEnds[i] for each index i less than edgeCount is planar.  This permits testing a series of
+     * graphs without allocating a CompactGraph for each one.  Repeated edges are permitted, and do not affect
+     * planarity.
+     * @throws IllegalArgumentException If one of the edges is a self loop.
+     */
+    public boolean isPlanar(int vertexCount, int[] edgeStarts, int[] edgeEnds, int edgeCount) {
+        this.vertexCount = vertexCount;
+        halfEdgeCount = 2 * edgeCount;
+        ensureCapacity(vertexCount, halfEdgeCount);
+
+        // Use a counting sort to compute offsets and neighbors, using "cursors" to store the next free position in each
+        // adjacency list
+        for (int vertex = 0; vertex <= vertexCount; vertex++) {
+            offsets[vertex] = 0;
+        }
+        for (int i = 0; i < edgeCount; i++) {
+            if (edgeStarts[i] == edgeEnds[i]) {
+                throw new IllegalArgumentException("Self loops are not permitted");
+            }
+            offsets[edgeStarts[i] + 1]++;
+            offsets[edgeEnds[i] + 1]++;
+        }
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            offsets[vertex + 1] += offsets[vertex];
+            cursors[vertex] = offsets[vertex];
+        }
+        for (int i = 0; i < edgeCount; i++) {
+            int start = edgeStarts[i];
+            int end = edgeEnds[i];
+            neighbors[cursors[start]] = end;
+            cursors[start]++;
+            neighbors[cursors[end]] = start;
+            cursors[end]++;
+        }
+        return isPlanar();
+    }
+}
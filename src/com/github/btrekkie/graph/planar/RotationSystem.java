@@ -0,0 +1,363 @@
+package com.github.btrekkie.graph.planar;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.github.btrekkie.graph.Vertex;
+
+/**
+ * An array-based representation of the clockwise ordering of the edges around each vertex in a planar embedding, as in
+ * PlanarEmbedding.clockwiseOrder.  The vertices are numbered 0 through vertexCount() - 1.  Each edge is represented as
+ * a pair of "half-edges", one in each direction, and the half-edges are numbered so that the half-edges leaving vertex
+ * V are offset(V) through offset(V + 1) - 1, in clockwise order.  The half-edges on each face are those we encounter by
+ * repeatedly calling nextOnFace, so faces may be traversed without allocating any memory.  RotationSystems are
+ * immutable.
+ */
+/* We compute "twins" in linear time without hashing, by sorting the half-edges by (source, target) and by
+ * (target, source) using counting sorts.  If the i'th half-edge in the first order goes from V to W, then the i'th
+ * half-edge in the second order goes from W to V.
+ */
+public class RotationSystem {
+    /** The vertices, indexed by vertex number. */
+    private final Vertex[] vertices;
+
+    /**
+     * A map from each vertex to its vertex number, or null if we have not computed it yet.  This is volatile, so that
+     * a thread that reads a non-null value also sees the map's contents.
+     */
+    private volatile Map<Vertex, Integer> vertexIndices;
+
+    /**
+     * The first half-edge leaving each vertex, followed by the number of half-edges.  The half-edges leaving vertex V
+     * are offsets[V] through offsets[V + 1] - 1, in clockwise order.
+     */
+    private final int[] offsets;
+
+    /** The vertex number of the start of each half-edge. */
+    private final int[] sources;
+
+    /** The vertex number of the end of each half-edge. */
+    private final int[] targets;
+
+    /** The half-edge in the opposite direction of each half-edge. */
+    private final int[] twins;
+
+    /** The next half-edge clockwise from each half-edge around its source vertex. */
+    private final int[] nextClockwise;
+
+    /**
+     * The face of each half-edge, i.e. the face immediately counterclockwise relative to the half-edge, as in
+     * DualGraph.leftFace.  The faces are numbered 0 through faceCount - 1.
+     */
+    private final int[] faces;
+
+    /** The half-edge with the lowest index in each face. */
+    private final int[] faceEdges;
+
+    /**
+     * The number of faces.  If there are no edges, we regard the embedding as having a single face with no half-edges.
+     */
+    private final int faceCount;
+
+    private RotationSystem(
+            Vertex[] vertices, Map<Vertex, Integer> vertexIndices, int[] offsets, int[] sources, int[] targets,
+            int[] twins, int[] nextClockwise, int[] faces, int[] faceEdges, int faceCount) {
+        this.vertices = vertices;
+        this.vertexIndices = vertexIndices;
+        this.offsets = offsets;
+        this.sources = sources;
+        this.targets = targets;
+        this.twins = twins;
+        this.nextClockwise = nextClockwise;
+        this.faces = faces;
+        this.faceEdges = faceEdges;
+        this.faceCount = faceCount;
+    }
+
+    /**
+     * Returns the RotationSystem for the specified clockwise ordering.  The vertices are numbered in the order of
+     * iteration over clockwiseOrder, and the half-edges leaving each vertex are in the order of its clockwiseOrder
+     * entry.  Throws an IllegalArgumentException if a clockwiseOrder entry for some vertex V contains V, or if an entry
+     * for V contains W but the entry for W does not contain V.
+     * @param clockwiseOrder A map from each vertex to the adjacent vertices, in clockwise order of the edges to those
+     *     vertices, as in PlanarEmbedding.clockwiseOrder.
+     * @return The rotation system.
+     */
+    public static RotationSystem create(Map<Vertex, List<Vertex>> clockwiseOrder) {
+        Vertex[] vertices = new Vertex[clockwiseOrder.size()];
+        Map<Vertex, Integer> vertexIndices = new HashMap<Vertex, Integer>(4 * vertices.length / 3 + 1);
+        List<List<Vertex>> vertexClockwiseOrders = new ArrayList<List<Vertex>>(vertices.length);
+        int[] offsets = new int[vertices.length + 1];
+        int edgeCount = 0;
+        for (Entry<Vertex, List<Vertex>> entry : clockwiseOrder.entrySet()) {
+            int index = vertexClockwiseOrders.size();
+            vertices[index] = entry.getKey();
+            vertexIndices.put(entry.getKey(), index);
+            vertexClockwiseOrders.add(entry.getValue());
+            offsets[index] = edgeCount;
+            edgeCount += entry.getValue().size();
+        }
+        offsets[vertices.length] = edgeCount;
+
+        int[] targets = new int[edgeCount];
+        for (int i = 0; i < vertices.length; i++) {
+            int edge = offsets[i];
+            for (Vertex adjVertex : vertexClockwiseOrders.get(i)) {
+                Integer adjIndex = vertexIndices.get(adjVertex);
+                if (adjIndex == null) {
+                    throw new IllegalArgumentException(
+                        "The clockwiseOrder entry for " + vertices[i] + " contains " + adjVertex +
+                        ", but not vice versa");
+                }
+                targets[edge] = adjIndex;
+                edge++;
+            }
+        }
+        return create(vertices, vertexIndices, offsets, targets);
+    }
+
+    /**
+     * Returns the RotationSystem with the specified vertices and half-edges.  This is faster than create(Map), because
+     * it does not need to hash the vertices.  Throws an IllegalArgumentException if a half-edge goes from a vertex to
+     * itself, or if there is a half-edge from V to W but not one from W to V.
+     * @param vertices The vertices, indexed by vertex number.  The RotationSystem takes ownership of this array.
+     * @param offsets The first half-edge leaving each vertex, followed by the number of half-edges, as in offset(int).
+     *     The RotationSystem takes ownership of this array.
+     * @param targets The vertex number of the end of each half-edge, as in target(int).  The half-edges leaving each
+     *     vertex must be in clockwise order.  The RotationSystem takes ownership of this array.
+     * @return The rotation system.
+     */
+    public static RotationSystem create(Vertex[] vertices, int[] offsets, int[] targets) {
+        return create(vertices, null, offsets, targets);
+    }
+
+    /**
+     * Returns the RotationSystem with the specified vertices and targets.  Throws an IllegalArgumentException if a
+     * half-edge goes from a vertex to itself, or if there is a half-edge from V to W but not one from W to V.
+     * @param vertices The vertices, indexed by vertex number.  The RotationSystem takes ownership of this array.
+     * @param vertexIndices A map from each vertex to its vertex number, or null to compute it when it is first needed.
+     * @param offsets The first half-edge leaving each vertex, followed by the number of half-edges, as in offset(int).
+     *     The RotationSystem takes ownership of this array.
+     * @param targets The vertex number of the end of each half-edge.  The RotationSystem takes ownership of this
+     *     array.
+     * @return The rotation system.
+     */
+    private static RotationSystem create(
+            Vertex[] vertices, Map<Vertex, Integer> vertexIndices, int[] offsets, int[] targets) {
+        // Compute sources and nextClockwise
+        int edgeCount = targets.length;
+        int[] sources = new int[edgeCount];
+        int[] nextClockwise = new int[edgeCount];
+        for (int i = 0; i < vertices.length; i++) {
+            for (int edge = offsets[i]; edge < offsets[i + 1]; edge++) {
+                if (targets[edge] == i) {
+                    throw new IllegalArgumentException(
+                        "The clockwiseOrder entry for " + vertices[i] + " contains that vertex");
+                }
+                sources[edge] = i;
+                nextClockwise[edge] = edge + 1;
+            }
+            if (offsets[i + 1] > offsets[i]) {
+                nextClockwise[offsets[i + 1] - 1] = offsets[i];
+            }
+        }
+
+        // Sort the half-edges by (target, source).  They are already sorted by source, so a stable counting sort by
+        // target suffices.
+        int[] counts = new int[vertices.length + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            counts[targets[edge] + 1]++;
+        }
+        for (int i = 0; i < vertices.length; i++) {
+            counts[i + 1] += counts[i];
+        }
+        int[] byTarget = new int[edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            byTarget[counts[targets[edge]]] = edge;
+            counts[targets[edge]]++;
+        }
+
+        // Sort the half-edges by (source, target), using a stable counting sort by source on byTarget
+        System.arraycopy(offsets, 0, counts, 0, vertices.length + 1);
+        int[] bySource = new int[edgeCount];
+        for (int edge : byTarget) {
+            bySource[counts[sources[edge]]] = edge;
+            counts[sources[edge]]++;
+        }
+
+        // Compute twins
+        int[] twins = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            int edge = bySource[i];
+            int twinEdge = byTarget[i];
+            if (sources[edge] != targets[twinEdge] || targets[edge] != sources[twinEdge]) {
+                // Report the lesser of the two mismatched half-edges, which is the one that lacks a twin
+                if (sources[edge] < targets[twinEdge] ||
+                        (sources[edge] == targets[twinEdge] && targets[edge] < sources[twinEdge])) {
+                    throw new IllegalArgumentException(
+                        "The clockwiseOrder entry for " + vertices[sources[edge]] + " contains " +
+                        vertices[targets[edge]] + ", but not vice versa");
+                } else {
+                    throw new IllegalArgumentException(
+                        "The clockwiseOrder entry for " + vertices[sources[twinEdge]] + " contains " +
+                        vertices[targets[twinEdge]] + ", but not vice versa");
+                }
+            }
+            twins[edge] = twinEdge;
+        }
+
+        // Compute the faces
+        int[] faces = new int[edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            faces[edge] = -1;
+        }
+        int[] faceEdges = new int[Math.max(edgeCount, 1)];
+        int faceCount = 0;
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (faces[edge] < 0) {
+                faceEdges[faceCount] = edge;
+                int faceEdge = edge;
+                do {
+                    faces[faceEdge] = faceCount;
+                    faceEdge = nextClockwise[twins[faceEdge]];
+                } while (faceEdge != edge);
+                faceCount++;
+            }
+        }
+        if (edgeCount == 0) {
+            faceEdges[0] = -1;
+            faceCount = 1;
+        }
+        int[] trimmedFaceEdges = new int[faceCount];
+        System.arraycopy(faceEdges, 0, trimmedFaceEdges, 0, faceCount);
+        return new RotationSystem(
+            vertices, vertexIndices, offsets, sources, targets, twins, nextClockwise, faces, trimmedFaceEdges,
+            faceCount);
+    }
+
+    /** Returns the number of vertices. */
+    public int vertexCount() {
+        return vertices.length;
+    }
+
+    /** Returns the vertex with the specified vertex number. */
+    public Vertex vertex(int index) {
+        return vertices[index];
+    }
+
+    /**
+     * Returns the vertex number of the specified vertex, or -1 if it is not in the rotation system.  The first call
+     * may take time proportional to the number of vertices, to compute a map from the vertices to their numbers.
+     */
+    public int vertexIndex(Vertex vertex) {
+        Map<Vertex, Integer> vertexIndices = this.vertexIndices;
+        if (vertexIndices == null) {
+            vertexIndices = new HashMap<Vertex, Integer>();
+            for (int i = 0; i < vertices.length; i++) {
+                vertexIndices.put(vertices[i], i);
+            }
+            this.vertexIndices = vertexIndices;
+        }
+        Integer index = vertexIndices.get(vertex);
+        return index != null ? index : -1;
+    }
+
+    /** Returns the number of half-edges, which is twice the number of edges. */
+    public int halfEdgeCount() {
+        return sources.length;
+    }
+
+    /**
+     * Returns the first half-edge leaving the specified vertex.  The half-edges leaving vertex V are offset(V) through
+     * offset(V + 1) - 1, in clockwise order.  offset(vertexCount()) is halfEdgeCount().
+     */
+    public int offset(int vertex) {
+        return offsets[vertex];
+    }
+
+    /** Returns the number of edges leaving the specified vertex. */
+    public int degree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /** Returns the vertex number of the start of the specified half-edge. */
+    public int source(int edge) {
+        return sources[edge];
+    }
+
+    /** Returns the vertex number of the end of the specified half-edge. */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /** Returns the half-edge in the opposite direction of the specified half-edge. */
+    public int twin(int edge) {
+        return twins[edge];
+    }
+
+    /** Returns the next half-edge clockwise from the specified half-edge around its source vertex. */
+    public int nextClockwise(int edge) {
+        return nextClockwise[edge];
+    }
+
+    /**
+     * Returns the face of the specified half-edge, i.e. the face immediately counterclockwise relative to the
+     * half-edge, as in DualGraph.leftFace.  The faces are numbered 0 through faceCount() - 1.
+     */
+    public int face(int edge) {
+        return faces[edge];
+    }
+
+    /** Returns the half-edge with the lowest index in the specified face, or -1 if there are no edges. */
+    public int faceEdge(int face) {
+        return faceEdges[face];
+    }
+
+    /**
+     * Returns the number of faces.  If there are no edges, we regard the embedding as having a single face with no
+     * half-edges.
+     */
+    public int faceCount() {
+        return faceCount;
+    }
+
+    /**
+     * Returns the half-edge that follows the specified half-edge on its face.  This is the half-edge leaving the end
+     * of "edge" that is next clockwise from the twin of "edge".
+     */
+    public int nextOnFace(int edge) {
+        return nextClockwise[twins[edge]];
+    }
+
+    /**
+     * Returns the mirror image of this, i.e. the RotationSystem with the same vertex numbers and the opposite clockwise
+     * orders.  The half-edge offset(V) + offset(V + 1) - 1 - E in the result corresponds to the half-edge E leaving
+     * vertex V in this.  This takes linear time.
+     */
+    RotationSystem flip() {
+        int[] flippedTargets = new int[targets.length];
+        for (int vertex = 0; vertex < vertices.length; vertex++) {
+            int sum = offsets[vertex] + offsets[vertex + 1] - 1;
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                flippedTargets[sum - edge] = targets[edge];
+            }
+        }
+        return create(vertices, vertexIndices, offsets, flippedTargets);
+    }
+
+    /**
+     * Returns a half-edge from "source" to "target", or -1 if there is no such half-edge.  This takes time proportional
+     * to the degree of "source".
+     */
+    public int findEdge(int source, int target) {
+        for (int edge = offsets[source]; edge < offsets[source + 1]; edge++) {
+            if (targets[edge] == target) {
+                return edge;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,191 @@
+package com.github.btrekkie.graph.planar.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.CompactGraph;
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.planar.KuratowskiSubgraph;
+import com.github.btrekkie.graph.planar.PlanarityTester;
+import com.github.btrekkie.util.UnorderedPair;
+
+public class KuratowskiSubgraphTest {
+    /** Returns a graph with the specified edges.  Each element of "edges" is a pair of vertex numbers. */
+    private Vertex[] createGraph(int vertexCount, int[][] edges) {
+        Graph graph = new Graph();
+        Vertex[] vertices = new Vertex[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            vertices[i] = graph.createVertex();
+        }
+        for (int[] edge : edges) {
+            vertices[edge[0]].addEdge(vertices[edge[1]]);
+        }
+        return vertices;
+    }
+
+    /** Returns whether the graph consisting of the specified edges is planar. */
+    private boolean isPlanar(Set<UnorderedPair<Vertex>> edges) {
+        Graph graph = new Graph();
+        Map<Vertex, Vertex> vertexToGraphVertex = new HashMap<Vertex, Vertex>();
+        for (UnorderedPair<Vertex> edge : edges) {
+            for (Vertex vertex : new Vertex[]{edge.value1, edge.value2}) {
+                if (!vertexToGraphVertex.containsKey(vertex)) {
+                    vertexToGraphVertex.put(vertex, graph.createVertex());
+                }
+            }
+            vertexToGraphVertex.get(edge.value1).addEdge(vertexToGraphVertex.get(edge.value2));
+        }
+        return new PlanarityTester().isPlanar(CompactGraph.create(graph));
+    }
+
+    /**
+     * Asserts that the specified KuratowskiSubgraph is a subdivision of K5 or K33 that consists of edges in the graph
+     * and that is minimally non-planar.
+     */
+    private void assertValid(KuratowskiSubgraph subgraph) {
+        Map<Vertex, Integer> degrees = new HashMap<Vertex, Integer>();
+        for (UnorderedPair<Vertex> edge : subgraph.edges) {
+            assertTrue(edge.value1.edges.contains(edge.value2));
+            for (Vertex vertex : new Vertex[]{edge.value1, edge.value2}) {
+                Integer degree = degrees.get(vertex);
+                degrees.put(vertex, degree == null ? 1 : degree + 1);
+            }
+        }
+
+        Set<Vertex> branchVertices = new HashSet<Vertex>();
+        for (Map.Entry<Vertex, Integer> entry : degrees.entrySet()) {
+            if (entry.getValue() > 2) {
+                branchVertices.add(entry.getKey());
+                if (subgraph.type == KuratowskiSubgraph.Type.K5) {
+                    assertEquals(4, (int)entry.getValue());
+                } else {
+                    assertEquals(3, (int)entry.getValue());
+                }
+            } else {
+                assertEquals(2, (int)entry.getValue());
+            }
+        }
+        assertEquals(branchVertices, subgraph.branchVertices);
+        if (subgraph.type == KuratowskiSubgraph.Type.K5) {
+            assertEquals(5, branchVertices.size());
+        } else {
+            assertEquals(6, branchVertices.size());
+        }
+
+        assertFalse(isPlanar(subgraph.edges));
+        for (UnorderedPair<Vertex> edge : subgraph.edges) {
+            Set<UnorderedPair<Vertex>> edges = new HashSet<UnorderedPair<Vertex>>(subgraph.edges);
+            edges.remove(edge);
+            assertTrue(isPlanar(edges));
+        }
+    }
+
+    /** Tests KuratowskiSubgraph.compute on planar graphs. */
+    @Test
+    public void testComputePlanar() {
+        Graph graph = new Graph();
+        assertNull(KuratowskiSubgraph.compute(graph.createVertex()));
+
+        Vertex[] vertices = createGraph(4, new int[][]{{0, 1}, {0, 2}, {0, 3}, {1, 2}, {1, 3}, {2, 3}});
+        assertNull(KuratowskiSubgraph.compute(vertices[0]));
+
+        // K5 minus an edge
+        vertices = createGraph(
+            5, new int[][]{{0, 1}, {0, 2}, {0, 3}, {0, 4}, {1, 2}, {1, 3}, {1, 4}, {2, 3}, {2, 4}});
+        assertNull(KuratowskiSubgraph.compute(vertices[2]));
+    }
+
+    /** Tests KuratowskiSubgraph.compute on K5 and K33. */
+    @Test
+    public void testComputeSmall() {
+        Vertex[] vertices = createGraph(
+            5, new int[][]{{0, 1}, {0, 2}, {0, 3}, {0, 4}, {1, 2}, {1, 3}, {1, 4}, {2, 3}, {2, 4}, {3, 4}});
+        KuratowskiSubgraph subgraph = KuratowskiSubgraph.compute(vertices[0]);
+        assertEquals(KuratowskiSubgraph.Type.K5, subgraph.type);
+        assertEquals(10, subgraph.edges.size());
+        assertValid(subgraph);
+
+        vertices = createGraph(
+            6, new int[][]{{0, 1}, {0, 3}, {0, 5}, {2, 1}, {2, 3}, {2, 5}, {4, 1}, {4, 3}, {4, 5}});
+        subgraph = KuratowskiSubgraph.compute(vertices[3]);
+        assertEquals(KuratowskiSubgraph.Type.K33, subgraph.type);
+        assertEquals(9, subgraph.edges.size());
+        assertValid(subgraph);
+
+        // K6
+        vertices = createGraph(
+            6,
+            new int[][]{
+                {0, 1}, {0, 2}, {0, 3}, {0, 4}, {0, 5}, {1, 2}, {1, 3}, {1, 4}, {1, 5}, {2, 3}, {2, 4}, {2, 5},
+                {3, 4}, {3, 5}, {4, 5}});
+        assertValid(KuratowskiSubgraph.compute(vertices[0]));
+    }
+
+    /** Tests KuratowskiSubgraph.compute on graphs that contain subdivisions of K5 or K33. */
+    @Test
+    public void testComputeSubdivisions() {
+        // The Petersen graph
+        Vertex[] vertices = createGraph(
+            10,
+            new int[][]{
+                {0, 1}, {1, 2}, {2, 3}, {3, 4}, {4, 0}, {0, 5}, {1, 6}, {2, 7}, {3, 8}, {4, 9}, {5, 7}, {7, 9}, {9, 6},
+                {6, 8}, {8, 5}});
+        KuratowskiSubgraph subgraph = KuratowskiSubgraph.compute(vertices[0]);
+        assertEquals(KuratowskiSubgraph.Type.K33, subgraph.type);
+        assertValid(subgraph);
+
+        // A subdivision of K5, with a tree and a triangle attached
+        vertices = createGraph(
+            13,
+            new int[][]{
+                {0, 5}, {5, 1}, {0, 2}, {0, 3}, {0, 4}, {1, 2}, {1, 3}, {1, 6}, {6, 7}, {7, 4}, {2, 3}, {2, 4},
+                {3, 4}, {4, 8}, {8, 9}, {8, 10}, {0, 11}, {11, 12}, {12, 0}});
+        subgraph = KuratowskiSubgraph.compute(vertices[9]);
+        assertEquals(KuratowskiSubgraph.Type.K5, subgraph.type);
+        assertEquals(13, subgraph.edges.size());
+        assertValid(subgraph);
+
+        // K33 plus two edges, where the pertinent vertex that blocks the walk-down is also externally active.  This
+        // relies on the order of the edges.
+        vertices = createGraph(
+            6,
+            new int[][]{
+                {1, 0}, {2, 0}, {3, 1}, {4, 1}, {5, 4}, {5, 2}, {2, 4}, {4, 0}, {5, 3}, {1, 2}, {0, 3}});
+        subgraph = KuratowskiSubgraph.compute(vertices[0]);
+        assertEquals(KuratowskiSubgraph.Type.K33, subgraph.type);
+        assertEquals(9, subgraph.edges.size());
+        assertValid(subgraph);
+
+        // A grid with two interleaved edges between vertices on the external face
+        Graph graph = new Graph();
+        Vertex[][] grid = new Vertex[6][6];
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 6; j++) {
+                grid[i][j] = graph.createVertex();
+                if (i > 0) {
+                    grid[i][j].addEdge(grid[i - 1][j]);
+                }
+                if (j > 0) {
+                    grid[i][j].addEdge(grid[i][j - 1]);
+                }
+            }
+        }
+        assertNull(KuratowskiSubgraph.compute(grid[0][0]));
+        grid[0][2].addEdge(grid[5][3]);
+        assertNull(KuratowskiSubgraph.compute(grid[0][0]));
+        grid[2][0].addEdge(grid[3][5]);
+        subgraph = KuratowskiSubgraph.compute(grid[0][0]);
+        assertEquals(KuratowskiSubgraph.Type.K33, subgraph.type);
+        assertValid(subgraph);
+    }
+}
@@ -348,4 +348,67 @@ public class PlanarAugmentationTest {
         PlanarEmbedding embedding = new PlanarEmbedding(clockwiseOrder, externalFace);
         checkMakeBiconnected(embedding);
     }
+
+    /**
+     * Tests that PlanarAugmentation.makeBiconnected adds the same edges and chooses the same external face as it did
+     * before it used RotationSystem.  The result depends on the order in which we visit the faces and the half-edge at
+     * which we start walking each face.
+     */
+    @Test
+    public void testMakeBiconnectedFaceOrder() {
+        Graph graph = new Graph();
+        Vertex vertex1 = graph.createVertex();
+        Vertex vertex2 = graph.createVertex();
+        Vertex vertex3 = graph.createVertex();
+        Vertex vertex4 = graph.createVertex();
+        Vertex vertex5 = graph.createVertex();
+        Vertex vertex6 = graph.createVertex();
+        Vertex vertex7 = graph.createVertex();
+        vertex1.addEdge(vertex2);
+        vertex1.addEdge(vertex3);
+        vertex1.addEdge(vertex5);
+        vertex2.addEdge(vertex4);
+        vertex2.addEdge(vertex6);
+        vertex4.addEdge(vertex6);
+        vertex5.addEdge(vertex7);
+        Map<Vertex, List<Vertex>> clockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
+        clockwiseOrder.put(vertex1, Arrays.asList(vertex5, vertex2, vertex3));
+        clockwiseOrder.put(vertex6, Arrays.asList(vertex2, vertex4));
+        clockwiseOrder.put(vertex7, Collections.singletonList(vertex5));
+        clockwiseOrder.put(vertex5, Arrays.asList(vertex1, vertex7));
+        clockwiseOrder.put(vertex3, Collections.singletonList(vertex1));
+        clockwiseOrder.put(vertex2, Arrays.asList(vertex6, vertex4, vertex1));
+        clockwiseOrder.put(vertex4, Arrays.asList(vertex6, vertex2));
+        List<Vertex> externalFace = Arrays.asList(
+            vertex7, vertex5, vertex1, vertex2, vertex6, vertex4, vertex2, vertex1, vertex3, vertex1, vertex5);
+        PlanarEmbedding embedding = new PlanarEmbedding(clockwiseOrder, externalFace);
+        checkMakeBiconnected(embedding);
+
+        PlanarAugmentation augmentation = PlanarAugmentation.makeBiconnected(embedding);
+        Map<Vertex, List<Vertex>> expectedClockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
+        expectedClockwiseOrder.put(vertex1, Arrays.asList(vertex5, vertex2, vertex3));
+        expectedClockwiseOrder.put(vertex2, Arrays.asList(vertex6, vertex4, vertex1));
+        expectedClockwiseOrder.put(vertex3, Arrays.asList(vertex1, vertex6, vertex7));
+        expectedClockwiseOrder.put(vertex4, Arrays.asList(vertex6, vertex2));
+        expectedClockwiseOrder.put(vertex5, Arrays.asList(vertex1, vertex7));
+        expectedClockwiseOrder.put(vertex6, Arrays.asList(vertex2, vertex3, vertex4));
+        expectedClockwiseOrder.put(vertex7, Arrays.asList(vertex5, vertex3));
+        Map<Vertex, Vertex> vertexToOriginalVertex = augmentation.vertexToOriginalVertex;
+        for (Entry<Vertex, List<Vertex>> entry : augmentation.embedding.clockwiseOrder.entrySet()) {
+            List<Vertex> origClockwiseOrder = new ArrayList<Vertex>();
+            for (Vertex vertex : entry.getValue()) {
+                origClockwiseOrder.add(vertexToOriginalVertex.get(vertex));
+            }
+            assertTrue(
+                PlanarEmbeddingTest.isCyclicShift(
+                    origClockwiseOrder, expectedClockwiseOrder.get(vertexToOriginalVertex.get(entry.getKey()))));
+        }
+        List<Vertex> origExternalFace = new ArrayList<Vertex>();
+        for (Vertex vertex : augmentation.embedding.externalFace) {
+            origExternalFace.add(vertexToOriginalVertex.get(vertex));
+        }
+        assertTrue(
+            PlanarEmbeddingTest.isCyclicShift(
+                origExternalFace, Arrays.asList(vertex7, vertex5, vertex1, vertex2, vertex6, vertex3)));
+    }
 }
@@ -1,14 +1,17 @@
 package com.github.btrekkie.graph.planar.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -19,6 +22,7 @@ import org.junit.Test;
 import com.github.btrekkie.graph.Graph;
 import com.github.btrekkie.graph.Vertex;
 import com.github.btrekkie.graph.planar.PlanarEmbedding;
+import com.github.btrekkie.graph.planar.RotationSystem;
 
 public class PlanarEmbeddingTest {
     /**
@@ -629,4 +633,121 @@ public class PlanarEmbeddingTest {
         clockwiseOrder.put(vertex20, Arrays.asList(vertex15, vertex16, vertex19));
         assertTrue(areEquivalent(PlanarEmbedding.compute(vertex1), clockwiseOrder));
     }
+
+    /**
+     * Returns a graph with the specified edges.  Each element of "edges" is a pair of vertex numbers.  The order of the
+     * edges determines the order of the depth-first search in PlanarEmbedding.compute.
+     */
+    private static Vertex[] createGraph(int vertexCount, int[][] edges) {
+        Graph graph = new Graph();
+        Vertex[] vertices = new Vertex[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            vertices[i] = graph.createVertex();
+        }
+        for (int[] edge : edges) {
+            vertices[edge[0]].addEdge(vertices[edge[1]]);
+        }
+        return vertices;
+    }
+
+    /**
+     * Tests PlanarEmbedding.compute on graphs for which adding a back edge encloses separated biconnected components,
+     * and on graphs for which a vertex's children that are no longer separated from it have low lowpoints.
+     */
+    @Test
+    public void testComputeSeparatedChildren() {
+        // The cycle 2-3-7-6 with the triangles 2-3-4 and 5-6-8 and the path 2-1-0 attached.  This used to throw a
+        // NullPointerException.
+        Vertex[] vertices = createGraph(
+            9,
+            new int[][]{
+                {1, 0}, {2, 1}, {3, 2}, {4, 2}, {5, 6}, {7, 6}, {8, 5}, {4, 3}, {6, 8}, {7, 3}, {6, 2}});
+        PlanarEmbedding embedding = PlanarEmbedding.compute(vertices[0]);
+        assertNotNull(embedding);
+        new PlanarEmbedding(embedding.clockwiseOrder, embedding.externalFace);
+
+        // A planar graph that PlanarEmbedding.compute used to reject
+        vertices = createGraph(
+            7, new int[][]{{1, 0}, {2, 0}, {3, 1}, {4, 2}, {5, 3}, {6, 5}, {2, 3}, {4, 1}, {5, 4}});
+        embedding = PlanarEmbedding.compute(vertices[0]);
+        assertNotNull(embedding);
+        new PlanarEmbedding(embedding.clockwiseOrder, embedding.externalFace);
+    }
+
+    /** Tests PlanarEmbedding.createTrusted. */
+    @Test
+    public void testCreateTrusted() {
+        Graph graph = new Graph();
+        Vertex vertex1 = graph.createVertex();
+        Vertex vertex2 = graph.createVertex();
+        Vertex vertex3 = graph.createVertex();
+        Vertex vertex4 = graph.createVertex();
+        vertex1.addEdge(vertex2);
+        vertex2.addEdge(vertex3);
+        vertex3.addEdge(vertex1);
+        vertex3.addEdge(vertex4);
+        Map<Vertex, List<Vertex>> clockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
+        clockwiseOrder.put(vertex1, Arrays.asList(vertex2, vertex3));
+        clockwiseOrder.put(vertex2, Arrays.asList(vertex3, vertex1));
+        clockwiseOrder.put(vertex3, Arrays.asList(vertex1, vertex2, vertex4));
+        clockwiseOrder.put(vertex4, Collections.singletonList(vertex3));
+        List<Vertex> externalFace = Arrays.asList(vertex1, vertex2, vertex3, vertex4, vertex3);
+        PlanarEmbedding embedding = PlanarEmbedding.createTrusted(clockwiseOrder, externalFace);
+        assertTrue(areEquivalent(embedding, clockwiseOrder, externalFace));
+        assertEquals(2, embedding.rotationSystem.faceCount());
+        assertEquals(0, embedding.externalFaceEdge);
+        assertTrue(areEquivalent(embedding.flip().flip(), clockwiseOrder, externalFace));
+
+        try {
+            PlanarEmbedding.createTrusted(clockwiseOrder, Collections.<Vertex>emptyList());
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException exception) {
+            // Expected
+        }
+
+        // Create the same embedding from arrays
+        RotationSystem rotationSystem = RotationSystem.create(
+            new Vertex[]{vertex1, vertex2, vertex3, vertex4}, new int[]{0, 2, 4, 7, 8},
+            new int[]{1, 2, 2, 0, 0, 1, 3, 2});
+        embedding = PlanarEmbedding.createTrusted(rotationSystem, 0);
+        assertTrue(areEquivalent(embedding, clockwiseOrder, externalFace));
+        assertEquals(clockwiseOrder, embedding.clockwiseOrder);
+        assertEquals(externalFace, embedding.externalFace);
+
+        Map<Vertex, List<Vertex>> flippedClockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
+        for (Entry<Vertex, List<Vertex>> entry : clockwiseOrder.entrySet()) {
+            List<Vertex> vertexClockwiseOrder = new ArrayList<Vertex>(entry.getValue());
+            Collections.reverse(vertexClockwiseOrder);
+            flippedClockwiseOrder.put(entry.getKey(), vertexClockwiseOrder);
+        }
+        List<Vertex> flippedExternalFace = new ArrayList<Vertex>(externalFace);
+        Collections.reverse(flippedExternalFace);
+        PlanarEmbedding flipped = embedding.flip();
+        assertEquals(flippedClockwiseOrder, flipped.clockwiseOrder);
+        assertEquals(flippedExternalFace, flipped.externalFace);
+
+        // The embedding must not change when we modify the arguments, and it must not permit modification
+        Map<Vertex, List<Vertex>> modifiedClockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
+        for (Entry<Vertex, List<Vertex>> entry : clockwiseOrder.entrySet()) {
+            modifiedClockwiseOrder.put(entry.getKey(), new ArrayList<Vertex>(entry.getValue()));
+        }
+        List<Vertex> modifiedExternalFace = new ArrayList<Vertex>(externalFace);
+        embedding = new PlanarEmbedding(modifiedClockwiseOrder, modifiedExternalFace);
+        Collections.reverse(modifiedClockwiseOrder.get(vertex3));
+        modifiedClockwiseOrder.remove(vertex4);
+        modifiedExternalFace.clear();
+        assertTrue(areEquivalent(embedding, clockwiseOrder, externalFace));
+        try {
+            embedding.clockwiseOrder.get(vertex1).set(0, vertex3);
+            fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException exception) {
+            // Expected
+        }
+        try {
+            embedding.externalFace.add(vertex1);
+            fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException exception) {
+            // Expected
+        }
+    }
 }
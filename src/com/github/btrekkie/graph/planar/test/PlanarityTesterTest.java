@@ -0,0 +1,214 @@
+package com.github.btrekkie.graph.planar.test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.CompactGraph;
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.planar.PlanarityTester;
+
+public class PlanarityTesterTest {
+    /**
+     * Returns a CompactGraph with the specified number of vertices and the specified edges.  Each element of "edges"
+     * is a pair of vertices.
+     */
+    private CompactGraph createGraph(int vertexCount, int[][] edges) {
+        int[] degrees = new int[vertexCount];
+        for (int[] edge : edges) {
+            degrees[edge[0]]++;
+            degrees[edge[1]]++;
+        }
+        int[] offsets = new int[vertexCount + 1];
+        for (int i = 0; i < vertexCount; i++) {
+            offsets[i + 1] = offsets[i] + degrees[i];
+        }
+        int[] neighbors = new int[2 * edges.length];
+        int[] nextOffsets = new int[vertexCount];
+        System.arraycopy(offsets, 0, nextOffsets, 0, vertexCount);
+        for (int[] edge : edges) {
+            neighbors[nextOffsets[edge[0]]] = edge[1];
+            nextOffsets[edge[0]]++;
+            neighbors[nextOffsets[edge[1]]] = edge[0];
+            nextOffsets[edge[1]]++;
+        }
+        return new CompactGraph(offsets, neighbors);
+    }
+
+    /** Returns a CompactGraph for the complete graph with the specified number of vertices. */
+    private CompactGraph completeGraph(int vertexCount) {
+        int[][] edges = new int[vertexCount * (vertexCount - 1) / 2][];
+        int index = 0;
+        for (int i = 0; i < vertexCount; i++) {
+            for (int j = i + 1; j < vertexCount; j++) {
+                edges[index] = new int[]{i, j};
+                index++;
+            }
+        }
+        return createGraph(vertexCount, edges);
+    }
+
+    /** Returns a CompactGraph for a grid with the specified number of rows and columns. */
+    private CompactGraph gridGraph(int rows, int columns) {
+        Graph graph = new Graph();
+        Vertex[][] vertices = new Vertex[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                vertices[i][j] = graph.createVertex();
+                if (i > 0) {
+                    vertices[i][j].addEdge(vertices[i - 1][j]);
+                }
+                if (j > 0) {
+                    vertices[i][j].addEdge(vertices[i][j - 1]);
+                }
+            }
+        }
+        return CompactGraph.create(graph);
+    }
+
+    /** Tests PlanarityTester.isPlanar on small graphs. */
+    @Test
+    public void testIsPlanarSmall() {
+        PlanarityTester tester = new PlanarityTester();
+        assertTrue(tester.isPlanar(createGraph(0, new int[0][])));
+        assertTrue(tester.isPlanar(createGraph(1, new int[0][])));
+        assertTrue(tester.isPlanar(completeGraph(2)));
+        assertTrue(tester.isPlanar(completeGraph(3)));
+        assertTrue(tester.isPlanar(completeGraph(4)));
+        assertFalse(tester.isPlanar(completeGraph(5)));
+        assertFalse(tester.isPlanar(completeGraph(6)));
+
+        // K33
+        assertFalse(
+            tester.isPlanar(
+                createGraph(
+                    6,
+                    new int[][]{{0, 1}, {0, 3}, {0, 5}, {2, 1}, {2, 3}, {2, 5}, {4, 1}, {4, 3}, {4, 5}})));
+
+        // K33 minus an edge
+        assertTrue(
+            tester.isPlanar(
+                createGraph(6, new int[][]{{0, 1}, {0, 3}, {0, 5}, {2, 1}, {2, 3}, {2, 5}, {4, 1}, {4, 3}})));
+
+        // K5 minus an edge
+        assertTrue(
+            tester.isPlanar(
+                createGraph(
+                    5, new int[][]{{0, 1}, {0, 2}, {0, 3}, {0, 4}, {1, 2}, {1, 3}, {1, 4}, {2, 3}, {2, 4}})));
+
+        // A cycle
+        assertTrue(tester.isPlanar(createGraph(5, new int[][]{{0, 1}, {1, 2}, {2, 3}, {3, 4}, {4, 0}})));
+
+        // A tree
+        assertTrue(tester.isPlanar(createGraph(6, new int[][]{{0, 1}, {0, 2}, {2, 3}, {2, 4}, {4, 5}})));
+    }
+
+    /** Tests PlanarityTester.isPlanar on graphs with repeated edges. */
+    @Test
+    public void testIsPlanarRepeatedEdges() {
+        PlanarityTester tester = new PlanarityTester();
+        assertTrue(tester.isPlanar(createGraph(2, new int[][]{{0, 1}, {0, 1}, {1, 0}})));
+        assertTrue(tester.isPlanar(createGraph(3, new int[][]{{0, 1}, {1, 2}, {2, 0}, {0, 1}, {2, 1}})));
+
+        // K4 with every edge doubled
+        int[][] edges = new int[12][];
+        int index = 0;
+        for (int i = 0; i < 4; i++) {
+            for (int j = i + 1; j < 4; j++) {
+                edges[index] = new int[]{i, j};
+                edges[index + 1] = new int[]{j, i};
+                index += 2;
+            }
+        }
+        assertTrue(tester.isPlanar(createGraph(4, edges)));
+
+        // K5 with every edge doubled
+        edges = new int[20][];
+        index = 0;
+        for (int i = 0; i < 5; i++) {
+            for (int j = i + 1; j < 5; j++) {
+                edges[index] = new int[]{i, j};
+                edges[index + 1] = new int[]{i, j};
+                index += 2;
+            }
+        }
+        assertFalse(tester.isPlanar(createGraph(5, edges)));
+    }
+
+    /** Tests PlanarityTester.isPlanar on graphs with multiple connected components. */
+    @Test
+    public void testIsPlanarComponents() {
+        PlanarityTester tester = new PlanarityTester();
+        assertTrue(tester.isPlanar(createGraph(7, new int[][]{{0, 1}, {1, 2}, {2, 0}, {4, 5}, {5, 6}})));
+
+        // A triangle and K5
+        int[][] edges = new int[13][];
+        edges[0] = new int[]{0, 1};
+        edges[1] = new int[]{1, 2};
+        edges[2] = new int[]{2, 0};
+        int index = 3;
+        for (int i = 3; i < 8; i++) {
+            for (int j = i + 1; j < 8; j++) {
+                edges[index] = new int[]{i, j};
+                index++;
+            }
+        }
+        assertFalse(tester.isPlanar(createGraph(8, edges)));
+    }
+
+    /** Tests PlanarityTester.isPlanar on the Petersen graph, the dodecahedron, and grids. */
+    @Test
+    public void testIsPlanarLarger() {
+        PlanarityTester tester = new PlanarityTester();
+        assertFalse(
+            tester.isPlanar(
+                createGraph(
+                    10,
+                    new int[][]{
+                        {0, 1}, {1, 2}, {2, 3}, {3, 4}, {4, 0}, {0, 5}, {1, 6}, {2, 7}, {3, 8}, {4, 9}, {5, 7},
+                        {7, 9}, {9, 6}, {6, 8}, {8, 5}})));
+        assertTrue(
+            tester.isPlanar(
+                createGraph(
+                    20,
+                    new int[][]{
+                        {0, 1}, {0, 4}, {0, 5}, {1, 2}, {1, 7}, {2, 3}, {2, 9}, {3, 4}, {3, 11}, {4, 13}, {5, 6},
+                        {5, 14}, {6, 7}, {6, 15}, {7, 8}, {8, 9}, {8, 16}, {9, 10}, {10, 11}, {10, 17}, {11, 12},
+                        {12, 13}, {12, 18}, {13, 14}, {14, 19}, {15, 16}, {15, 19}, {16, 17}, {17, 18}, {18, 19}})));
+        assertTrue(tester.isPlanar(gridGraph(30, 40)));
+    }
+
+    /** Tests that a PlanarityTester produces the correct results when reused on graphs of varying sizes. */
+    @Test
+    public void testReuse() {
+        PlanarityTester tester = new PlanarityTester();
+        for (int i = 0; i < 3; i++) {
+            assertFalse(tester.isPlanar(completeGraph(5)));
+            assertTrue(tester.isPlanar(gridGraph(50, 50)));
+            assertTrue(tester.isPlanar(completeGraph(4)));
+            assertFalse(tester.isPlanar(completeGraph(20)));
+            assertTrue(tester.isPlanar(createGraph(3, new int[][]{{0, 1}, {1, 2}})));
+        }
+    }
+
+    /** Tests PlanarityTester.isPlanar(int, int[], int[], int). */
+    @Test
+    public void testIsPlanarEdgeList() {
+        PlanarityTester tester = new PlanarityTester();
+        int[] k33Starts = new int[]{0, 0, 0, 1, 1, 1, 2, 2, 2, -1, -1};
+        int[] k33Ends = new int[]{3, 4, 5, 3, 4, 5, 3, 4, 5, -1, -1};
+        assertFalse(tester.isPlanar(6, k33Starts, k33Ends, 9));
+        assertTrue(tester.isPlanar(6, k33Starts, k33Ends, 8));
+        assertTrue(tester.isPlanar(6, k33Starts, k33Ends, 0));
+        assertTrue(tester.isPlanar(gridGraph(20, 20)));
+
+        int[] k5Starts = new int[]{0, 0, 0, 0, 1, 1, 1, 2, 2, 3, 0};
+        int[] k5Ends = new int[]{1, 2, 3, 4, 2, 3, 4, 3, 4, 4, 1};
+        assertFalse(tester.isPlanar(5, k5Starts, k5Ends, 11));
+        assertFalse(tester.isPlanar(5, k5Starts, k5Ends, 10));
+        assertTrue(tester.isPlanar(5, k5Starts, k5Ends, 9));
+        assertFalse(tester.isPlanar(7, k5Starts, k5Ends, 10));
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.btrekkie.graph.planar.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
+import com.github.btrekkie.graph.planar.RotationSystem;
+
+public class RotationSystemTest {
+    /** Asserts that we cannot find anything wrong with the specified RotationSystem for the specified ordering. */
+    private static void checkRotationSystem(RotationSystem rotationSystem, Map<Vertex, List<Vertex>> clockwiseOrder) {
+        assertEquals(clockwiseOrder.size(), rotationSystem.vertexCount());
+        int index = 0;
+        for (Map.Entry<Vertex, List<Vertex>> entry : clockwiseOrder.entrySet()) {
+            Vertex vertex = entry.getKey();
+            List<Vertex> vertexClockwiseOrder = entry.getValue();
+            assertEquals(vertex, rotationSystem.vertex(index));
+            assertEquals(index, rotationSystem.vertexIndex(vertex));
+            assertEquals(vertexClockwiseOrder.size(), rotationSystem.degree(index));
+            for (int i = 0; i < vertexClockwiseOrder.size(); i++) {
+                int edge = rotationSystem.offset(index) + i;
+                assertEquals(index, rotationSystem.source(edge));
+                assertEquals(vertexClockwiseOrder.get(i), rotationSystem.vertex(rotationSystem.target(edge)));
+                assertEquals(
+                    vertexClockwiseOrder.get((i + 1) % vertexClockwiseOrder.size()),
+                    rotationSystem.vertex(rotationSystem.target(rotationSystem.nextClockwise(edge))));
+                assertEquals(edge, rotationSystem.findEdge(index, rotationSystem.target(edge)));
+            }
+            index++;
+        }
+
+        for (int edge = 0; edge < rotationSystem.halfEdgeCount(); edge++) {
+            int twinEdge = rotationSystem.twin(edge);
+            assertEquals(edge, rotationSystem.twin(twinEdge));
+            assertEquals(rotationSystem.source(edge), rotationSystem.target(twinEdge));
+            assertEquals(rotationSystem.target(edge), rotationSystem.source(twinEdge));
+            int nextEdge = rotationSystem.nextOnFace(edge);
+            assertEquals(rotationSystem.target(edge), rotationSystem.source(nextEdge));
+            assertEquals(rotationSystem.face(edge), rotationSystem.face(nextEdge));
+        }
+
+        // Check faceEdges
+        int[] faceSizes = new int[rotationSystem.faceCount()];
+        for (int edge = 0; edge < rotationSystem.halfEdgeCount(); edge++) {
+            faceSizes[rotationSystem.face(edge)]++;
+        }
+        if (rotationSystem.halfEdgeCount() == 0) {
+            assertEquals(1, rotationSystem.faceCount());
+            assertEquals(-1, rotationSystem.faceEdge(0));
+            return;
+        }
+        for (int face = 0; face < rotationSystem.faceCount(); face++) {
+            int startEdge = rotationSystem.faceEdge(face);
+            assertEquals(face, rotationSystem.face(startEdge));
+            int size = 0;
+            int edge = startEdge;
+            do {
+                assertTrue(edge >= startEdge);
+                size++;
+                edge = rotationSystem.nextOnFace(edge);
+            } while (edge != startEdge);
+            assertEquals(faceSizes[face], size);
+        }
+    }
+
+    /** Tests RotationSystem.create. */
+    @Test
+    public void testCreate() {
+        Graph graph = new Graph();
+        Vertex vertex1 = graph.createVertex();
+        Map<Vertex, List<Vertex>> clockwiseOrder = Collections.singletonMap(vertex1, Collections.<Vertex>emptyList());
+        RotationSystem rotationSystem = RotationSystem.create(clockwiseOrder);
+        checkRotationSystem(rotationSystem, clockwiseOrder);
+        assertEquals(1, rotationSystem.faceCount());
+        assertEquals(0, rotationSystem.halfEdgeCount());
+
+        graph = new Graph();
+        vertex1 = graph.createVertex();
+        Vertex vertex2 = graph.createVertex();
+        Vertex vertex3 = graph.createVertex();
+        Vertex vertex4 = graph.createVertex();
+        clockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
+        clockwiseOrder.put(vertex1, Arrays.asList(vertex2, vertex3, vertex4));
+        clockwiseOrder.put(vertex2, Arrays.asList(vertex1, vertex4, vertex3));
+        clockwiseOrder.put(vertex3, Arrays.asList(vertex1, vertex2, vertex4));
+        clockwiseOrder.put(vertex4, Arrays.asList(vertex1, vertex3, vertex2));
+        rotationSystem = RotationSystem.create(clockwiseOrder);
+        checkRotationSystem(rotationSystem, clockwiseOrder);
+        assertEquals(4, rotationSystem.faceCount());
+        assertEquals(12, rotationSystem.halfEdgeCount());
+        rotationSystem = RotationSystem.create(
+            new Vertex[]{vertex1, vertex2, vertex3, vertex4}, new int[]{0, 3, 6, 9, 12},
+            new int[]{1, 2, 3, 0, 3, 2, 0, 1, 3, 0, 2, 1});
+        checkRotationSystem(rotationSystem, clockwiseOrder);
+        assertEquals(4, rotationSystem.faceCount());
+
+        // A star has a single face that visits the hub repeatedly
+        graph = new Graph();
+        vertex1 = graph.createVertex();
+        clockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
+        List<Vertex> hubClockwiseOrder = new ArrayList<Vertex>();
+        for (int i = 0; i < 5; i++) {
+            Vertex vertex = graph.createVertex();
+            hubClockwiseOrder.add(vertex);
+            clockwiseOrder.put(vertex, Collections.singletonList(vertex1));
+        }
+        clockwiseOrder.put(vertex1, hubClockwiseOrder);
+        rotationSystem = RotationSystem.create(clockwiseOrder);
+        checkRotationSystem(rotationSystem, clockwiseOrder);
+        assertEquals(1, rotationSystem.faceCount());
+
+        clockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
+        clockwiseOrder.put(vertex1, Arrays.asList(vertex2, vertex3));
+        clockwiseOrder.put(vertex2, Collections.singletonList(vertex1));
+        clockwiseOrder.put(vertex3, Collections.singletonList(vertex2));
+        try {
+            RotationSystem.create(clockwiseOrder);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException exception) {
+            // Expected
+        }
+        try {
+            RotationSystem.create(
+                new Vertex[]{vertex1, vertex2, vertex3}, new int[]{0, 2, 3, 4}, new int[]{1, 2, 0, 1});
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException exception) {
+            // Expected
+        }
+    }
+
+    /** Tests PlanarEmbedding.rotationSystem and PlanarEmbedding.externalFaceEdge. */
+    @Test
+    public void testPlanarEmbedding() {
+        Graph graph = new Graph();
+        Vertex vertex1 = graph.createVertex();
+        Vertex vertex2 = graph.createVertex();
+        Vertex vertex3 = graph.createVertex();
+        Vertex vertex4 = graph.createVertex();
+        Vertex vertex5 = graph.createVertex();
+        vertex1.addEdge(vertex2);
+        vertex2.addEdge(vertex3);
+        vertex3.addEdge(vertex4);
+        vertex4.addEdge(vertex1);
+        vertex1.addEdge(vertex3);
+        vertex3.addEdge(vertex5);
+        PlanarEmbedding embedding = PlanarEmbedding.compute(vertex1);
+        RotationSystem rotationSystem = embedding.rotationSystem;
+        checkRotationSystem(rotationSystem, embedding.clockwiseOrder);
+        assertEquals(3, rotationSystem.faceCount());
+
+        List<Vertex> externalFace = new ArrayList<Vertex>();
+        int edge = embedding.externalFaceEdge;
+        do {
+            externalFace.add(rotationSystem.vertex(rotationSystem.source(edge)));
+            edge = rotationSystem.nextOnFace(edge);
+        } while (edge != embedding.externalFaceEdge);
+        assertEquals(embedding.externalFace, externalFace);
+
+        embedding = PlanarEmbedding.compute(graph.createVertex());
+        assertEquals(-1, embedding.externalFaceEdge);
+        assertEquals(1, embedding.rotationSystem.faceCount());
+    }
+}
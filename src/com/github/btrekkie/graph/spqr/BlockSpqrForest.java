@@ -0,0 +1,96 @@
+package com.github.btrekkie.graph.spqr;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import com.github.btrekkie.graph.ComponentAlgorithm;
+import com.github.btrekkie.graph.ParallelComponents;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.bc.BlockNode;
+import com.github.btrekkie.graph.bc.CutNode;
+
+/**
+ * The block-cut tree of a connected graph, along with the SPQR tree of each of its blocks.  See the comments for
+ * BlockNode and SpqrNode.  Since SPQR trees are only defined for biconnected graphs, this is a convenient way to apply
+ * SPQR trees to arbitrary connected graphs.  The blocks are independent of each other, so "compute" computes their
+ * SPQR trees concurrently.
+ */
+public class BlockSpqrForest {
+    /** The algorithm that computes the SPQR tree of a block, or null if the block has no edges. */
+    private static final ComponentAlgorithm<SpqrTree> SPQR_TREE_ALGORITHM = new ComponentAlgorithm<SpqrTree>() {
+        @Override
+        public SpqrTree compute(Vertex start) {
+            if (start.edges.isEmpty()) {
+                return null;
+            } else {
+                return SpqrTree.create(start, start.edges.iterator().next());
+            }
+        }
+    };
+
+    /** The root of the block-cut tree. */
+    public final BlockNode root;
+
+    /**
+     * A map from each BlockNode in the block-cut tree to the SPQR tree for BlockNode.block, in breadth-first order
+     * starting at "root".  The SpqrTrees' vertices are those in BlockNode.block, rather than those in the original
+     * graph; use BlockNode.blockVertexToVertex to map them to the original vertices.  If the graph consists of a single
+     * vertex, the value for its block is null.
+     */
+    public final Map<BlockNode, SpqrTree> spqrTrees;
+
+    private BlockSpqrForest(BlockNode root, Map<BlockNode, SpqrTree> spqrTrees) {
+        this.root = root;
+        this.spqrTrees = spqrTrees;
+    }
+
+    /** Returns the BlockNodes in the block-cut tree rooted at the specified node, in breadth-first order. */
+    private static List<BlockNode> blockNodes(BlockNode root) {
+        List<BlockNode> blockNodes = new ArrayList<BlockNode>();
+        Collection<BlockNode> level = Collections.singleton(root);
+        while (!level.isEmpty()) {
+            Collection<BlockNode> nextLevel = new ArrayList<BlockNode>();
+            for (BlockNode blockNode : level) {
+                blockNodes.add(blockNode);
+                for (CutNode cutNode : blockNode.children) {
+                    nextLevel.addAll(cutNode.children);
+                }
+            }
+            level = nextLevel;
+        }
+        return blockNodes;
+    }
+
+    /**
+     * Returns the BlockSpqrForest for the connected component containing the specified vertex.  This computes the SPQR
+     * trees of the blocks concurrently, using the specified ForkJoinPool.
+     */
+    public static BlockSpqrForest compute(Vertex vertex, ForkJoinPool pool) {
+        BlockNode root = BlockNode.compute(vertex);
+        List<BlockNode> blockNodes = blockNodes(root);
+        List<Vertex> starts = new ArrayList<Vertex>(blockNodes.size());
+        for (BlockNode blockNode : blockNodes) {
+            starts.add(blockNode.block.vertices.iterator().next());
+        }
+        List<SpqrTree> results = ParallelComponents.compute(starts, SPQR_TREE_ALGORITHM, pool);
+
+        Map<BlockNode, SpqrTree> spqrTrees = new LinkedHashMap<BlockNode, SpqrTree>();
+        for (int i = 0; i < blockNodes.size(); i++) {
+            spqrTrees.put(blockNodes.get(i), results.get(i));
+        }
+        return new BlockSpqrForest(root, spqrTrees);
+    }
+
+    /**
+     * Returns the BlockSpqrForest for the connected component containing the specified vertex.  This computes the SPQR
+     * trees of the blocks concurrently, using ParallelComponents.defaultPool().
+     */
+    public static BlockSpqrForest compute(Vertex vertex) {
+        return compute(vertex, ParallelComponents.defaultPool());
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.btrekkie.graph.spqr;
+
+import com.github.btrekkie.graph.Vertex;
+
+/** An edge in the skeleton of a DynamicSpqrNode.  See the comments for DynamicSpqrTree. */
+public class DynamicSpqrEdge {
+    /** The first endpoint of the edge. */
+    public final Vertex vertex1;
+
+    /** The second endpoint of the edge. */
+    public final Vertex vertex2;
+
+    /** The node whose skeleton contains the edge.  Clients must not modify this field. */
+    public DynamicSpqrNode node;
+
+    /**
+     * The matching virtual edge in the skeleton of the adjacent node, if this is a virtual edge, or null if this is a
+     * real edge.  See the comments for SpqrNode.  Clients must not modify this field.
+     */
+    public DynamicSpqrEdge virtualMatch;
+
+    DynamicSpqrEdge(Vertex vertex1, Vertex vertex2) {
+        this.vertex1 = vertex1;
+        this.vertex2 = vertex2;
+    }
+
+    /** Returns whether this is a virtual edge. */
+    public boolean isVirtual() {
+        return virtualMatch != null;
+    }
+
+    /** Returns the endpoint of the edge other than the specified endpoint. */
+    public Vertex adjVertex(Vertex vertex) {
+        if (vertex == vertex1) {
+            return vertex2;
+        } else {
+            return vertex1;
+        }
+    }
+}
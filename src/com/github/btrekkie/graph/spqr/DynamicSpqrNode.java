@@ -0,0 +1,47 @@
+package com.github.btrekkie.graph.spqr;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.btrekkie.graph.Vertex;
+
+/**
+ * A node in a DynamicSpqrTree.  Unlike an SpqrNode, a DynamicSpqrNode does not expose a parent or children: the nodes
+ * adjacent to a node are those whose skeletons contain the matching virtual edges of the virtual edges in its skeleton.
+ */
+public class DynamicSpqrNode {
+    /** The type of the node.  This does not change after we construct the node. */
+    public final SpqrNode.Type type;
+
+    /** The edges in the node's skeleton.  Clients must not modify this set. */
+    public final Set<DynamicSpqrEdge> edges = new LinkedHashSet<DynamicSpqrEdge>();
+
+    /** A map from each vertex in the node's skeleton to the number of elements of "edges" that are incident to it. */
+    final Map<Vertex, Integer> vertexDegrees = new HashMap<Vertex, Integer>();
+
+    /**
+     * Whether the node's skeleton is planar, or null if we have not computed this since the skeleton last changed.
+     * DynamicSpqrTree only computes this for R nodes.
+     */
+    Boolean isPlanar;
+
+    /**
+     * The virtual edge in the node's skeleton whose virtualMatch is in the skeleton of the node's parent, or null if
+     * this is the root.  DynamicSpqrTree roots the tree at an arbitrary node so that it can find paths by following
+     * parent pointers.  Since this refers to an edge rather than to the parent node, it remains correct when we move
+     * the matching edge to a different node.
+     */
+    DynamicSpqrEdge parentEdge;
+
+    DynamicSpqrNode(SpqrNode.Type type) {
+        this.type = type;
+    }
+
+    /** Returns the vertices in the node's skeleton. */
+    public Set<Vertex> vertices() {
+        return Collections.unmodifiableSet(vertexDegrees.keySet());
+    }
+}
@@ -0,0 +1,700 @@
+package com.github.btrekkie.graph.spqr;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.btrekkie.graph.CompactGraph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.planar.PlanarityTester;
+import com.github.btrekkie.util.UnorderedPair;
+
+/**
+ * An SPQR tree that we can update as we add edges to the graph, using the update rules of Di Battista and Tamassia
+ * (1990): On-Line Graph Algorithms with SPQR-Trees, but not their data structures for locating paths.  See the
+ * comments for SpqrNode.  A DynamicSpqrTree is useful for answering triconnectivity and planarity queries about a
+ * biconnected graph that we are building one edge at a time, because it avoids recomputing the whole decomposition
+ * after each change.  A DynamicSpqrTree does not have a root: we regard it as a collection of DynamicSpqrNodes whose
+ * adjacency is given by the virtual edges in their skeletons.
+ *
+ * This does not achieve the O(log n) amortized time per operation of Di Battista and Tamassia.  addEdge takes
+ * O(p + s) time, where p is the length of the path in the tree between the allocation nodes of the edge's endpoints
+ * from which it starts its search, and s is the total size of the skeletons of the nodes on the path it merges.  p is
+ * at most the number of allocation nodes of the endpoints plus the length of the path it merges, and it does not
+ * depend on the depth of the tree.  isPlanar re-tests the entire skeleton of each R node that changed since the
+ * previous call, so it takes time linear in the sizes of those skeletons.  No other class in this library uses
+ * DynamicSpqrTree.  In particular, the edge insertion loop in EcPlanarEmbeddingWithCrossings uses
+ * IncrementalEcPlanarEmbedding instead, because that loop must respect EcNode constraints and its graph is not
+ * necessarily biconnected.
+ */
+/* To add an edge (u, v), we find a shortest path mu_1, ..., mu_k in the tree from a node containing u to a node
+ * containing v.  If k = 1 and mu_1 is an R node, we add the edge to mu_1.  If k = 1 and mu_1 is an S node, we split
+ * the cycle at u and v into two S nodes, and we connect them to a new P node containing the edge.  If {u, v} is already
+ * the pair of poles of a P node, we add the edge to the P node, and if there is a pair of virtual edges between u and v
+ * but no such P node, we insert a P node between the two nodes containing the virtual edges.
+ *
+ * Otherwise, k >= 2, and we merge the path into a single R node, as Di Battista and Tamassia describe.  We discard the
+ * pairs of virtual edges between consecutive nodes in the path, and call the endpoints of the discarded virtual edges,
+ * along with u in mu_1 and v in mu_k, "terminals".  We move the edges of each R node to the merged node.  For each P
+ * node, we move the one remaining edge to the merged node, or if there are several remaining edges, we keep them in
+ * the P node and connect it to the merged node with a new pair of virtual edges.  For each S node, we move each path in
+ * the cycle between consecutive terminals to the merged node: a path consisting of one edge is moved directly, and a
+ * longer path becomes a new S node, which we connect to the merged node with a new pair of virtual edges.  Finally, we
+ * add the edge (u, v) to the merged node.
+ *
+ * The merged node is the R node in the path with the most edges, if there is one, so that we move the smaller skeletons
+ * into the larger one.  Di Battista and Tamassia locate the path using split-find structures over the cycles of the S
+ * nodes and dynamic trees, which we omit.  Instead, we root the tree at an arbitrary node and store a pointer to each
+ * node's parent, in the form of DynamicSpqrNode.parentEdge.  To find the path, we walk up from an allocation node of u
+ * and an allocation node of v until the walks meet at their lowest common ancestor, and then we trim the resulting path
+ * to the part between the allocation nodes of u and the allocation nodes of v.  Because we alternate between the walks,
+ * each of them takes at most as many steps as the length of the path between the starting nodes, regardless of the
+ * depth of the tree.  We merge the path right afterward, so a dynamic tree would not improve the asymptotic running
+ * time of addEdge.  After each insertion, we only need to set the parent pointers of the nodes we created or
+ * restructured, since the parent pointers refer to virtual edges, which we move along with the rest of the skeletons.
+ */
+public class DynamicSpqrTree {
+    /** The nodes in the tree. */
+    private Set<DynamicSpqrNode> nodes = new LinkedHashSet<DynamicSpqrNode>();
+
+    /**
+     * A map from each vertex in the graph to the nodes whose skeletons contain it.  These are known as the vertex's
+     * "allocation nodes".
+     */
+    private Map<Vertex, Set<DynamicSpqrNode>> allocationNodes = new HashMap<Vertex, Set<DynamicSpqrNode>>();
+
+    /** A map from each pair of vertices to the edges in all of the skeletons that connect them. */
+    private Map<UnorderedPair<Vertex>, Set<DynamicSpqrEdge>> pairEdges =
+        new HashMap<UnorderedPair<Vertex>, Set<DynamicSpqrEdge>>();
+
+    /** The R nodes whose "isPlanar" fields are null. */
+    private Set<DynamicSpqrNode> uncheckedNodes = new HashSet<DynamicSpqrNode>();
+
+    /** The number of R nodes whose "isPlanar" fields are false. */
+    private int nonplanarNodeCount;
+
+    /** The PlanarityTester we use to test the planarity of the skeletons, or null if we have not created it yet. */
+    private PlanarityTester planarityTester;
+
+    /**
+     * One edge from each pair of virtual edges that we have added since the last call to setParentEdges.  See the
+     * comments for the implementation of DynamicSpqrTree.
+     */
+    private List<DynamicSpqrEdge> addedVirtualEdges = new ArrayList<DynamicSpqrEdge>();
+
+    private DynamicSpqrTree() {
+
+    }
+
+    /**
+     * Returns a DynamicSpqrTree for the graph containing the specified vertices.  Assumes there is an edge with the
+     * specified endpoints.  Assumes the graph is biconnected.
+     */
+    public static DynamicSpqrTree create(Vertex reference1, Vertex reference2) {
+        return create(SpqrTree.create(reference1, reference2));
+    }
+
+    /** Returns a DynamicSpqrTree with the same nodes and skeletons as the specified SpqrTree. */
+    public static DynamicSpqrTree create(SpqrTree spqrTree) {
+        DynamicSpqrTree tree = new DynamicSpqrTree();
+        DynamicSpqrEdge[] edges = new DynamicSpqrEdge[spqrTree.skeletonEdgeCount()];
+        DynamicSpqrNode[] nodes = new DynamicSpqrNode[spqrTree.nodeCount()];
+        for (int node = 0; node < spqrTree.nodeCount(); node++) {
+            DynamicSpqrNode dynamicNode = tree.createNode(spqrTree.type(node));
+            nodes[node] = dynamicNode;
+            for (int edge = spqrTree.edgeOffset(node); edge < spqrTree.edgeOffset(node + 1); edge++) {
+                edges[edge] = new DynamicSpqrEdge(
+                    spqrTree.vertex(spqrTree.edgeVertex1(edge)), spqrTree.vertex(spqrTree.edgeVertex2(edge)));
+                tree.addSkeletonEdge(dynamicNode, edges[edge]);
+            }
+        }
+
+        int[] virtualMatches = spqrTree.virtualMatches();
+        for (int edge = 0; edge < edges.length; edge++) {
+            if (virtualMatches[edge] >= 0) {
+                edges[edge].virtualMatch = edges[virtualMatches[edge]];
+            }
+        }
+
+        // Root the tree at the same node as spqrTree
+        for (int node = 0; node < nodes.length; node++) {
+            int parent = spqrTree.parent(node);
+            if (parent >= 0) {
+                for (int edge = spqrTree.edgeOffset(node); edge < spqrTree.edgeOffset(node + 1); edge++) {
+                    int match = virtualMatches[edge];
+                    if (match >= spqrTree.edgeOffset(parent) && match < spqrTree.edgeOffset(parent + 1)) {
+                        nodes[node].parentEdge = edges[edge];
+                        break;
+                    }
+                }
+            }
+        }
+        return tree;
+    }
+
+    /** Returns the nodes in the tree. */
+    public Collection<DynamicSpqrNode> nodes() {
+        return Collections.unmodifiableSet(nodes);
+    }
+
+    /** Returns the nodes whose skeletons contain the specified vertex, or an empty set if it is not in the graph. */
+    public Set<DynamicSpqrNode> allocationNodes(Vertex vertex) {
+        Set<DynamicSpqrNode> vertexNodes = allocationNodes.get(vertex);
+        if (vertexNodes == null) {
+            return Collections.emptySet();
+        } else {
+            return Collections.unmodifiableSet(vertexNodes);
+        }
+    }
+
+    /** Adds a new node of the specified type to the tree and returns it. */
+    private DynamicSpqrNode createNode(SpqrNode.Type type) {
+        DynamicSpqrNode node = new DynamicSpqrNode(type);
+        nodes.add(node);
+        if (type == SpqrNode.Type.R) {
+            uncheckedNodes.add(node);
+        }
+        return node;
+    }
+
+    /** Removes the specified node from the tree.  Assumes its skeleton has no edges. */
+    private void removeNode(DynamicSpqrNode node) {
+        nodes.remove(node);
+        uncheckedNodes.remove(node);
+    }
+
+    /** Notes that the skeleton of the specified node changed, so we no longer know whether it is planar. */
+    private void invalidate(DynamicSpqrNode node) {
+        if (node.type == SpqrNode.Type.R && node.isPlanar != null) {
+            if (!node.isPlanar) {
+                nonplanarNodeCount--;
+            }
+            node.isPlanar = null;
+            uncheckedNodes.add(node);
+        }
+    }
+
+    /** Adds the specified edge to the skeleton of the specified node. */
+    private void addSkeletonEdge(DynamicSpqrNode node, DynamicSpqrEdge edge) {
+        edge.node = node;
+        node.edges.add(edge);
+        for (Vertex vertex : new Vertex[]{edge.vertex1, edge.vertex2}) {
+            Integer degree = node.vertexDegrees.get(vertex);
+            if (degree != null) {
+                node.vertexDegrees.put(vertex, degree + 1);
+            } else {
+                node.vertexDegrees.put(vertex, 1);
+                Set<DynamicSpqrNode> vertexNodes = allocationNodes.get(vertex);
+                if (vertexNodes == null) {
+                    vertexNodes = new HashSet<DynamicSpqrNode>();
+                    allocationNodes.put(vertex, vertexNodes);
+                }
+                vertexNodes.add(node);
+            }
+        }
+
+        UnorderedPair<Vertex> pair = new UnorderedPair<Vertex>(edge.vertex1, edge.vertex2);
+        Set<DynamicSpqrEdge> edges = pairEdges.get(pair);
+        if (edges == null) {
+            edges = new HashSet<DynamicSpqrEdge>();
+            pairEdges.put(pair, edges);
+        }
+        edges.add(edge);
+        invalidate(node);
+    }
+
+    /**
+     * Removes the specified edge from the skeleton of the node containing it.  This does not alter edge.virtualMatch.
+     */
+    private void removeSkeletonEdge(DynamicSpqrEdge edge) {
+        DynamicSpqrNode node = edge.node;
+        node.edges.remove(edge);
+        for (Vertex vertex : new Vertex[]{edge.vertex1, edge.vertex2}) {
+            int degree = node.vertexDegrees.get(vertex);
+            if (degree > 1) {
+                node.vertexDegrees.put(vertex, degree - 1);
+            } else {
+                node.vertexDegrees.remove(vertex);
+                allocationNodes.get(vertex).remove(node);
+            }
+        }
+
+        UnorderedPair<Vertex> pair = new UnorderedPair<Vertex>(edge.vertex1, edge.vertex2);
+        Set<DynamicSpqrEdge> edges = pairEdges.get(pair);
+        edges.remove(edge);
+        if (edges.isEmpty()) {
+            pairEdges.remove(pair);
+        }
+        edge.node = null;
+        invalidate(node);
+    }
+
+    /** Moves the specified edge from the skeleton of the node containing it to the skeleton of the specified node. */
+    private void moveSkeletonEdge(DynamicSpqrEdge edge, DynamicSpqrNode node) {
+        removeSkeletonEdge(edge);
+        addSkeletonEdge(node, edge);
+    }
+
+    /**
+     * Adds a matching pair of virtual edges between the specified vertices to the skeletons of the specified nodes.
+     * This adds one of the edges to addedVirtualEdges.
+     */
+    private void addVirtualEdges(DynamicSpqrNode node1, DynamicSpqrNode node2, Vertex vertex1, Vertex vertex2) {
+        DynamicSpqrEdge edge1 = new DynamicSpqrEdge(vertex1, vertex2);
+        DynamicSpqrEdge edge2 = new DynamicSpqrEdge(vertex1, vertex2);
+        edge1.virtualMatch = edge2;
+        edge2.virtualMatch = edge1;
+        addSkeletonEdge(node1, edge1);
+        addSkeletonEdge(node2, edge2);
+        addedVirtualEdges.add(edge1);
+    }
+
+    /**
+     * Sets the parentEdge fields of the nodes connected by the pairs of virtual edges in addedVirtualEdges, and clears
+     * addedVirtualEdges.  Those nodes, along with "root", must form a subtree of the tree, and the parentEdge fields of
+     * the other nodes must be correct.
+     * @param parentEdge The virtual edge that connects the subtree to the rest of the tree, in the skeleton of a node
+     *     in the subtree, or null if the subtree contains the root of the tree.
+     * @param root A node in the subtree, which becomes the root of the tree if parentEdge is null.
+     */
+    private void setParentEdges(DynamicSpqrEdge parentEdge, DynamicSpqrNode root) {
+        Map<DynamicSpqrNode, List<DynamicSpqrEdge>> adjEdges = new HashMap<DynamicSpqrNode, List<DynamicSpqrEdge>>();
+        for (DynamicSpqrEdge edge : addedVirtualEdges) {
+            for (DynamicSpqrEdge nodeEdge : new DynamicSpqrEdge[]{edge, edge.virtualMatch}) {
+                List<DynamicSpqrEdge> nodeAdjEdges = adjEdges.get(nodeEdge.node);
+                if (nodeAdjEdges == null) {
+                    nodeAdjEdges = new ArrayList<DynamicSpqrEdge>();
+                    adjEdges.put(nodeEdge.node, nodeAdjEdges);
+                }
+                nodeAdjEdges.add(nodeEdge);
+            }
+        }
+        addedVirtualEdges.clear();
+
+        // Breadth-first search from the top of the subtree
+        DynamicSpqrNode top = parentEdge != null ? parentEdge.node : root;
+        top.parentEdge = parentEdge;
+        List<DynamicSpqrNode> queue = new ArrayList<DynamicSpqrNode>();
+        Set<DynamicSpqrNode> visited = new HashSet<DynamicSpqrNode>();
+        queue.add(top);
+        visited.add(top);
+        for (int i = 0; i < queue.size(); i++) {
+            List<DynamicSpqrEdge> nodeAdjEdges = adjEdges.get(queue.get(i));
+            if (nodeAdjEdges != null) {
+                for (DynamicSpqrEdge edge : nodeAdjEdges) {
+                    DynamicSpqrNode adjNode = edge.virtualMatch.node;
+                    if (visited.add(adjNode)) {
+                        adjNode.parentEdge = edge.virtualMatch;
+                        queue.add(adjNode);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the edges in the skeleton of the specified S node to "target".  The skeleton must consist of a cycle, with
+     * zero or more edges removed.  For each path in the skeleton between two of the specified terminal vertices with no
+     * terminals in between, if the path consists of a single edge, we move it to "target", and otherwise we move the
+     * path to a new S node and connect it to "target" using a pair of virtual edges between the path's endpoints.
+     * Each endpoint of a path in the skeleton must be a terminal.  This adds the new S nodes to update.addedNodes.
+     */
+    private void splitCycle(
+            DynamicSpqrNode node, Set<Vertex> terminals, DynamicSpqrNode target, SpqrUpdate update) {
+        Map<Vertex, List<DynamicSpqrEdge>> incidentEdges = new HashMap<Vertex, List<DynamicSpqrEdge>>();
+        for (DynamicSpqrEdge edge : node.edges) {
+            for (Vertex vertex : new Vertex[]{edge.vertex1, edge.vertex2}) {
+                List<DynamicSpqrEdge> vertexEdges = incidentEdges.get(vertex);
+                if (vertexEdges == null) {
+                    vertexEdges = new ArrayList<DynamicSpqrEdge>(2);
+                    incidentEdges.put(vertex, vertexEdges);
+                }
+                vertexEdges.add(edge);
+            }
+        }
+
+        Set<DynamicSpqrEdge> visitedEdges = new HashSet<DynamicSpqrEdge>();
+        for (Vertex terminal : terminals) {
+            List<DynamicSpqrEdge> terminalEdges = incidentEdges.get(terminal);
+            if (terminalEdges == null) {
+                continue;
+            }
+            for (DynamicSpqrEdge startEdge : terminalEdges) {
+                if (!visitedEdges.add(startEdge)) {
+                    continue;
+                }
+
+                // Follow the path to the next terminal
+                List<DynamicSpqrEdge> path = new ArrayList<DynamicSpqrEdge>();
+                path.add(startEdge);
+                DynamicSpqrEdge edge = startEdge;
+                Vertex vertex = startEdge.adjVertex(terminal);
+                while (!terminals.contains(vertex)) {
+                    List<DynamicSpqrEdge> vertexEdges = incidentEdges.get(vertex);
+                    if (vertexEdges.get(0) != edge) {
+                        edge = vertexEdges.get(0);
+                    } else {
+                        edge = vertexEdges.get(1);
+                    }
+                    visitedEdges.add(edge);
+                    path.add(edge);
+                    vertex = edge.adjVertex(vertex);
+                }
+
+                if (path.size() == 1) {
+                    moveSkeletonEdge(startEdge, target);
+                } else {
+                    DynamicSpqrNode sNode = createNode(SpqrNode.Type.S);
+                    for (DynamicSpqrEdge pathEdge : path) {
+                        moveSkeletonEdge(pathEdge, sNode);
+                    }
+                    addVirtualEdges(sNode, target, terminal, vertex);
+                    update.addedNodes.add(sNode);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the virtual edges on a shortest path in the tree from a node in nodes1 to a node in nodes2, in time
+     * proportional to the length of the path between the arbitrary nodes in nodes1 and nodes2 from which we start.  The
+     * first edge is in a node in nodes1, each subsequent edge is in the node containing the virtualMatch of the
+     * previous edge, and the virtualMatch of the last edge is in a node in nodes2.  Assumes nodes1 and nodes2 are
+     * non-empty and disjoint, and that each of them induces a subtree of the tree, as the allocation nodes of a vertex
+     * do.
+     */
+    private List<DynamicSpqrEdge> findPath(Set<DynamicSpqrNode> nodes1, Set<DynamicSpqrNode> nodes2) {
+        // Walk up from a node in nodes1 and a node in nodes2, alternating between the two walks, until one of them
+        // reaches a node that the other has visited.  That node is the lowest common ancestor of the starting nodes.
+        // ancestors1 and ancestors2 are the nodes we visited on each walk, and indices1 and indices2 map them to their
+        // indices in ancestors1 and ancestors2.
+        DynamicSpqrNode node1 = nodes1.iterator().next();
+        DynamicSpqrNode node2 = nodes2.iterator().next();
+        List<DynamicSpqrNode> ancestors1 = new ArrayList<DynamicSpqrNode>();
+        List<DynamicSpqrNode> ancestors2 = new ArrayList<DynamicSpqrNode>();
+        Map<DynamicSpqrNode, Integer> indices1 = new HashMap<DynamicSpqrNode, Integer>();
+        Map<DynamicSpqrNode, Integer> indices2 = new HashMap<DynamicSpqrNode, Integer>();
+        ancestors1.add(node1);
+        indices1.put(node1, 0);
+        ancestors2.add(node2);
+        indices2.put(node2, 0);
+        DynamicSpqrNode ancestor;
+        while (true) {
+            if (indices2.containsKey(node1)) {
+                ancestor = node1;
+                break;
+            } else if (indices1.containsKey(node2)) {
+                ancestor = node2;
+                break;
+            } else if (node1.parentEdge == null && node2.parentEdge == null) {
+                throw new IllegalStateException("The tree is not connected");
+            }
+            if (node1.parentEdge != null) {
+                node1 = node1.parentEdge.virtualMatch.node;
+                indices1.put(node1, ancestors1.size());
+                ancestors1.add(node1);
+            }
+            if (node2.parentEdge != null) {
+                node2 = node2.parentEdge.virtualMatch.node;
+                indices2.put(node2, ancestors2.size());
+                ancestors2.add(node2);
+            }
+        }
+
+        // Compute the path between the starting nodes, and trim it to the part after the last node in nodes1 and
+        // before the first node in nodes2.  Because nodes1 and nodes2 induce subtrees, the nodes in nodes1 form a
+        // prefix of the path and the nodes in nodes2 form a suffix of it.
+        List<DynamicSpqrNode> nodePath = new ArrayList<DynamicSpqrNode>(ancestors1.subList(0, indices1.get(ancestor)));
+        for (int i = indices2.get(ancestor); i >= 0; i--) {
+            nodePath.add(ancestors2.get(i));
+        }
+        int startIndex = 0;
+        while (nodes1.contains(nodePath.get(startIndex + 1))) {
+            startIndex++;
+        }
+        int endIndex = startIndex + 1;
+        while (!nodes2.contains(nodePath.get(endIndex))) {
+            endIndex++;
+        }
+
+        List<DynamicSpqrEdge> path = new ArrayList<DynamicSpqrEdge>(endIndex - startIndex);
+        for (int i = startIndex; i < endIndex; i++) {
+            DynamicSpqrNode node = nodePath.get(i);
+            DynamicSpqrNode nextNode = nodePath.get(i + 1);
+            if (node.parentEdge != null && node.parentEdge.virtualMatch.node == nextNode) {
+                path.add(node.parentEdge);
+            } else {
+                path.add(nextNode.parentEdge.virtualMatch);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Merges the nodes on the specified path into a single R node, and adds a real edge between the specified
+     * vertices to it.  See the comments for the implementation of DynamicSpqrTree.
+     * @param vertex1 The first endpoint of the edge.  This must be in the first node of the path, and in no other
+     *     node of the path.
+     * @param vertex2 The second endpoint of the edge.  This must be in the last node of the path, and in no other
+     *     node of the path.
+     * @param path The path, in the format returned by findPath.
+     * @param update The SpqrUpdate to which to add the changes we make.
+     */
+    private void mergePath(Vertex vertex1, Vertex vertex2, List<DynamicSpqrEdge> path, SpqrUpdate update) {
+        List<DynamicSpqrNode> pathNodes = new ArrayList<DynamicSpqrNode>(path.size() + 1);
+        pathNodes.add(path.get(0).node);
+        for (DynamicSpqrEdge edge : path) {
+            pathNodes.add(edge.virtualMatch.node);
+        }
+
+        // Find the edge from the highest node in the path to its parent, which is the only parent edge of a node in the
+        // path that is not in the path
+        DynamicSpqrEdge topParentEdge = null;
+        for (int i = 0; i < pathNodes.size(); i++) {
+            DynamicSpqrEdge parentEdge = pathNodes.get(i).parentEdge;
+            if (parentEdge != null && (i == 0 || parentEdge != path.get(i - 1).virtualMatch) &&
+                    (i == path.size() || parentEdge != path.get(i))) {
+                topParentEdge = parentEdge;
+                break;
+            }
+        }
+
+        DynamicSpqrNode rNode = null;
+        for (DynamicSpqrNode node : pathNodes) {
+            if (node.type == SpqrNode.Type.R && (rNode == null || node.edges.size() > rNode.edges.size())) {
+                rNode = node;
+            }
+        }
+        if (rNode != null) {
+            update.changedNodes.add(rNode);
+        } else {
+            rNode = createNode(SpqrNode.Type.R);
+            update.addedNodes.add(rNode);
+        }
+
+        for (int i = 0; i < pathNodes.size(); i++) {
+            DynamicSpqrNode node = pathNodes.get(i);
+            Set<Vertex> terminals = new HashSet<Vertex>();
+            if (i == 0) {
+                terminals.add(vertex1);
+            } else {
+                DynamicSpqrEdge edge = path.get(i - 1).virtualMatch;
+                terminals.add(edge.vertex1);
+                terminals.add(edge.vertex2);
+                removeSkeletonEdge(edge);
+            }
+            if (i == pathNodes.size() - 1) {
+                terminals.add(vertex2);
+            } else {
+                DynamicSpqrEdge edge = path.get(i);
+                terminals.add(edge.vertex1);
+                terminals.add(edge.vertex2);
+                removeSkeletonEdge(edge);
+            }
+
+            if (node.type == SpqrNode.Type.R) {
+                if (node != rNode) {
+                    for (DynamicSpqrEdge edge : new ArrayList<DynamicSpqrEdge>(node.edges)) {
+                        moveSkeletonEdge(edge, rNode);
+                    }
+                    removeNode(node);
+                    update.removedNodes.add(node);
+                }
+            } else if (node.type == SpqrNode.Type.S) {
+                splitCycle(node, terminals, rNode, update);
+                removeNode(node);
+                update.removedNodes.add(node);
+            } else if (node.edges.size() == 1) {
+                moveSkeletonEdge(node.edges.iterator().next(), rNode);
+                removeNode(node);
+                update.removedNodes.add(node);
+            } else {
+                DynamicSpqrEdge edge = node.edges.iterator().next();
+                addVirtualEdges(node, rNode, edge.vertex1, edge.vertex2);
+                update.changedNodes.add(node);
+            }
+        }
+        addSkeletonEdge(rNode, new DynamicSpqrEdge(vertex1, vertex2));
+        setParentEdges(topParentEdge, rNode);
+    }
+
+    /**
+     * Updates the tree to reflect the addition of an edge between the specified vertices, and returns a description of
+     * the changes.  The caller should add the edge to the graph as well, either before or after calling addEdge.  The
+     * vertices must already be in the graph, and there must not already be an edge between them.  See the comments
+     * for DynamicSpqrTree regarding the running time.
+     */
+    public SpqrUpdate addEdge(Vertex vertex1, Vertex vertex2) {
+        if (vertex1 == vertex2) {
+            throw new IllegalArgumentException("Self loops are not permitted");
+        }
+        Set<DynamicSpqrNode> nodes1 = allocationNodes.get(vertex1);
+        Set<DynamicSpqrNode> nodes2 = allocationNodes.get(vertex2);
+        if (nodes1 == null || nodes2 == null) {
+            throw new IllegalArgumentException("The vertices must already be in the graph");
+        }
+
+        SpqrUpdate update = new SpqrUpdate();
+        Set<DynamicSpqrEdge> edges = pairEdges.get(new UnorderedPair<Vertex>(vertex1, vertex2));
+        if (edges != null) {
+            DynamicSpqrNode pNode = null;
+            for (DynamicSpqrEdge edge : edges) {
+                if (edge.virtualMatch == null) {
+                    throw new IllegalArgumentException("There is already an edge between the vertices");
+                } else if (edge.node.type == SpqrNode.Type.P) {
+                    pNode = edge.node;
+                }
+            }
+            if (pNode != null) {
+                addSkeletonEdge(pNode, new DynamicSpqrEdge(vertex1, vertex2));
+                update.changedNodes.add(pNode);
+            } else {
+                // {vertex1, vertex2} separates the graph into exactly two split components, so there is one pair of
+                // virtual edges between vertex1 and vertex2.  Replace it with a P node.
+                DynamicSpqrEdge edge = edges.iterator().next();
+                DynamicSpqrEdge match = edge.virtualMatch;
+                pNode = createNode(SpqrNode.Type.P);
+                DynamicSpqrEdge pEdge1 = new DynamicSpqrEdge(vertex1, vertex2);
+                DynamicSpqrEdge pEdge2 = new DynamicSpqrEdge(vertex1, vertex2);
+                edge.virtualMatch = pEdge1;
+                pEdge1.virtualMatch = edge;
+                match.virtualMatch = pEdge2;
+                pEdge2.virtualMatch = match;
+                addSkeletonEdge(pNode, pEdge1);
+                addSkeletonEdge(pNode, pEdge2);
+                addSkeletonEdge(pNode, new DynamicSpqrEdge(vertex1, vertex2));
+                if (edge.node.parentEdge == edge) {
+                    pNode.parentEdge = pEdge2;
+                } else {
+                    pNode.parentEdge = pEdge1;
+                }
+                update.addedNodes.add(pNode);
+            }
+            return update;
+        }
+
+        DynamicSpqrNode commonNode = null;
+        Set<DynamicSpqrNode> smallerNodes = nodes1.size() <= nodes2.size() ? nodes1 : nodes2;
+        Set<DynamicSpqrNode> largerNodes = nodes1.size() <= nodes2.size() ? nodes2 : nodes1;
+        for (DynamicSpqrNode node : smallerNodes) {
+            if (largerNodes.contains(node)) {
+                commonNode = node;
+                break;
+            }
+        }
+
+        if (commonNode == null) {
+            mergePath(vertex1, vertex2, findPath(nodes1, nodes2), update);
+        } else if (commonNode.type == SpqrNode.Type.R) {
+            addSkeletonEdge(commonNode, new DynamicSpqrEdge(vertex1, vertex2));
+            update.changedNodes.add(commonNode);
+        } else {
+            // commonNode is an S node in which vertex1 and vertex2 are not adjacent.  Split it into two S nodes, and
+            // connect them to a new P node containing the edge.
+            DynamicSpqrNode pNode = createNode(SpqrNode.Type.P);
+            Set<Vertex> terminals = new HashSet<Vertex>();
+            terminals.add(vertex1);
+            terminals.add(vertex2);
+            splitCycle(commonNode, terminals, pNode, update);
+            removeNode(commonNode);
+            update.removedNodes.add(commonNode);
+            addSkeletonEdge(pNode, new DynamicSpqrEdge(vertex1, vertex2));
+            update.addedNodes.add(pNode);
+            setParentEdges(commonNode.parentEdge, pNode);
+        }
+        return update;
+    }
+
+    /**
+     * Returns whether removing the specified vertices from the graph would disconnect it.  Assumes that the graph has
+     * no repeated edges.
+     */
+    public boolean isSeparationPair(Vertex vertex1, Vertex vertex2) {
+        Set<DynamicSpqrEdge> edges = pairEdges.get(new UnorderedPair<Vertex>(vertex1, vertex2));
+        if (edges != null) {
+            for (DynamicSpqrEdge edge : edges) {
+                if (edge.virtualMatch != null) {
+                    return true;
+                }
+            }
+        }
+
+        // Check whether there is an S node in which the vertices are not adjacent
+        Set<DynamicSpqrNode> nodes1 = allocationNodes(vertex1);
+        Set<DynamicSpqrNode> nodes2 = allocationNodes(vertex2);
+        for (DynamicSpqrNode node : nodes1) {
+            if (node.type == SpqrNode.Type.S && nodes2.contains(node)) {
+                if (edges == null) {
+                    return true;
+                }
+                for (DynamicSpqrEdge edge : edges) {
+                    if (edge.node == node) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the graph is triconnected, i.e. whether the tree consists of a single R node.  (Graphs with
+     * fewer than four vertices are regarded as not triconnected.)
+     */
+    public boolean isTriconnected() {
+        return nodes.size() == 1 && nodes.iterator().next().type == SpqrNode.Type.R;
+    }
+
+    /** Returns whether the skeleton of the specified node is planar. */
+    private boolean isSkeletonPlanar(DynamicSpqrNode node) {
+        Map<Vertex, Integer> vertexIndices = new HashMap<Vertex, Integer>();
+        int[] offsets = new int[node.vertexDegrees.size() + 1];
+        for (Map.Entry<Vertex, Integer> entry : node.vertexDegrees.entrySet()) {
+            int index = vertexIndices.size();
+            vertexIndices.put(entry.getKey(), index);
+            offsets[index + 1] = offsets[index] + entry.getValue();
+        }
+        int[] neighbors = new int[offsets[offsets.length - 1]];
+        int[] ends = new int[offsets.length - 1];
+        System.arraycopy(offsets, 0, ends, 0, ends.length);
+        for (DynamicSpqrEdge edge : node.edges) {
+            int index1 = vertexIndices.get(edge.vertex1);
+            int index2 = vertexIndices.get(edge.vertex2);
+            neighbors[ends[index1]] = index2;
+            ends[index1]++;
+            neighbors[ends[index2]] = index1;
+            ends[index2]++;
+        }
+        if (planarityTester == null) {
+            planarityTester = new PlanarityTester();
+        }
+        return planarityTester.isPlanar(new CompactGraph(offsets, neighbors));
+    }
+
+    /**
+     * Returns whether the graph is planar.  A biconnected graph is planar if and only if the skeletons of all of the
+     * R nodes in its SPQR tree are planar, so this only tests the R nodes that changed since the last call to
+     * isPlanar().  Each such test runs a PlanarityTester over the node's entire skeleton, so this takes time linear in
+     * the sizes of the changed skeletons, not in the size of the change.
+     */
+    public boolean isPlanar() {
+        if (nonplanarNodeCount > 0) {
+            return false;
+        }
+        for (DynamicSpqrNode node : uncheckedNodes) {
+            node.isPlanar = isSkeletonPlanar(node);
+            if (!node.isPlanar) {
+                nonplanarNodeCount++;
+            }
+        }
+        uncheckedNodes.clear();
+        return nonplanarNodeCount == 0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.btrekkie.graph.spqr;
+
+/**
+ * A map from unordered pairs of non-negative integers to non-negative integers.  It is implemented as an open
+ * addressing hash table over primitive arrays, so that lookups and insertions do not allocate any objects.  See
+ * SpqrDecomposition.
+ */
+class IntPairMap {
+    /** The value of "keys" elements for empty slots. */
+    private static final long EMPTY = -1;
+
+    /**
+     * The keys in the hash table, or EMPTY for empty slots.  The key for the pair (a, b) with a <= b is
+     * ((long)a << 32) | b.  The length is a power of two.
+     */
+    private long[] keys;
+
+    /** The values in the hash table.  values[i] is the value for keys[i]. */
+    private int[] values;
+
+    /** The number of entries in the map. */
+    private int size;
+
+    /** Constructs a new, empty IntPairMap with room for approximately the specified number of entries. */
+    public IntPairMap(int expectedSize) {
+        int capacity = 16;
+        while (capacity < 2 * expectedSize) {
+            capacity *= 2;
+        }
+        keys = new long[capacity];
+        values = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            keys[i] = EMPTY;
+        }
+    }
+
+    /** Returns the key for the specified pair. */
+    private static long key(int value1, int value2) {
+        if (value1 <= value2) {
+            return ((long)value1 << 32) | value2;
+        } else {
+            return ((long)value2 << 32) | value1;
+        }
+    }
+
+    /** Returns the index in "keys" of the slot for the specified key: the slot containing it, or an empty slot. */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        long hash = key * 0x9e3779b97f4a7c15L;
+        int slot = (int)(hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /** Returns the value for the pair {value1, value2}, or -1 if there is no such entry. */
+    public int get(int value1, int value2) {
+        int slot = slot(key(value1, value2));
+        if (keys[slot] == EMPTY) {
+            return -1;
+        } else {
+            return values[slot];
+        }
+    }
+
+    /** Sets the value for the pair {value1, value2} to "value", replacing any existing entry for the pair. */
+    public void put(int value1, int value2, int value) {
+        long key = key(value1, value2);
+        int slot = slot(key);
+        if (keys[slot] == EMPTY) {
+            if (2 * (size + 1) > keys.length) {
+                resize();
+                slot = slot(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /** Doubles the capacity of the hash table. */
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[2 * oldKeys.length];
+        values = new int[2 * oldKeys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = EMPTY;
+        }
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,1340 @@
+package com.github.btrekkie.graph.spqr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.btrekkie.graph.CompactGraph;
+import com.github.btrekkie.graph.Vertex;
+
+/**
+ * Computes an SpqrTree.  See the comments for the implementation of SpqrNode.  A SpqrDecomposition represents the palm
+ * forest, the edge and triple stacks, and the split components using arrays of primitives, so that computing an SPQR
+ * tree allocates a small number of objects.
+ */
+/* The palm forest's vertices are numbered in depth-first search order, so that vertex i has the preliminary number
+ * i + 1 described in the comments for the implementation of SpqrNode, and the edges are numbered in order of
+ * creation.  Each linked list in the object-based formulation of the algorithm is a set of "head" and "tail" arrays
+ * indexed by vertex or component, plus "next" and "prev" arrays indexed by edge.  -1 plays the role of null.  An entry
+ * in the triple stack is a set of elements of the tStackHigh, tStackStart, and tStackEnd arrays; an entry whose
+ * tStackHigh element is -1 is an end-of-stack marker.  The split components are linked lists of "component edges",
+ * which are distinct from palm forest edges.
+ *
+ * Each step operates on the same structures in the same order as a direct translation of Gutwenger and Mutzel's
+ * algorithms over objects would, so the resulting tree does not depend on the representation.
+ */
+class SpqrDecomposition {
+    /** The Vertex for each vertex in the palm forest. */
+    private final Vertex[] vertices;
+
+    /** The parent of each vertex in the palm forest, or -1.  See "add" and "remove" for how this changes. */
+    private final int[] parents;
+
+    /** The edge from parents[v] to each vertex v, or -1. */
+    private final int[] parentEdges;
+
+    /**
+     * The first edge in the linked list of outgoing edges from each vertex, or -1.  Initially, the list is in
+     * depth-first search order, but later it is in ascending order of phi(e).
+     */
+    private final int[] edgesHeads;
+
+    /** The last edge in the linked list of outgoing edges from each vertex, or -1. */
+    private final int[] edgesTails;
+
+    /** The first edge in the linked list of incoming fronds to each vertex in visit order, or -1. */
+    private final int[] frondsHeads;
+
+    /** The last edge in the linked list of incoming fronds to each vertex in visit order, or -1. */
+    private final int[] frondsTails;
+
+    /** The number of incoming or outgoing edges of each vertex. */
+    private final int[] degrees;
+
+    /** The number of vertices in the subtree rooted at each vertex in the original palm tree. */
+    private final int[] descendantCounts;
+
+    /** The number of each vertex, according to a numbering scheme satisfying properties P1, P2, and P3 in the paper. */
+    private final int[] numbers;
+
+    /** The lowpoint of each vertex, as defined in the paper. */
+    private final int[] lowpoint1s;
+
+    /** The second lowest point of each vertex, as defined in the paper. */
+    private final int[] lowpoint2s;
+
+    /** The vertex with each value of "numbers".  numberToVertex[numbers[v]] == v. */
+    private final int[] numberToVertex;
+
+    /** The number of edges in the palm forest, including removed edges. */
+    private int edgeCount;
+
+    /** The source vertex of each edge. */
+    private int[] edgeStarts;
+
+    /** The destination vertex of each edge. */
+    private int[] edgeEnds;
+
+    /** Whether each edge is a frond. */
+    private boolean[] isFronds;
+
+    /** Whether each edge is a virtual edge for a skeleton in the SPQR tree. */
+    private boolean[] isVirtuals;
+
+    /**
+     * Whether each edge is the first edge in a path formed by performing a depth-first search on the original palm
+     * tree, with adjacency lists ordered according to phi(e), and terminating each path when we reach the first frond.
+     */
+    private boolean[] isStarts;
+
+    /** The edge after each edge in the linked list of outgoing edges from its start, or -1. */
+    private int[] nextEdges;
+
+    /** The edge before each edge in the linked list of outgoing edges from its start, or -1. */
+    private int[] prevEdges;
+
+    /** The edge after each edge in the linked list of incoming fronds to its end, or -1. */
+    private int[] nextFronds;
+
+    /** The edge before each edge in the linked list of incoming fronds to its end, or -1. */
+    private int[] prevFronds;
+
+    /** The edge stack, as in the paper.  The first eStackSize elements are the stack's contents. */
+    private int[] eStack;
+
+    /** The number of edges in the edge stack. */
+    private int eStackSize;
+
+    /**
+     * The vertex with the largest "numbers" value that is split off by each potential type 2 split pair in the triple
+     * stack, or -1 for end-of-stack markers.
+     */
+    private int[] tStackHighs;
+
+    /** The vertex in each potential type 2 split pair that is an ancestor of the other vertex. */
+    private int[] tStackStarts;
+
+    /** The vertex in each potential type 2 split pair that is a descendant of the other vertex. */
+    private int[] tStackEnds;
+
+    /** The number of entries in the triple stack. */
+    private int tStackSize;
+
+    /** The number of split components, including components that we emptied by merging them into others. */
+    private int componentCount;
+
+    /** The first edge in the linked list of component edges in each component, or -1. */
+    private int[] componentHeads;
+
+    /** The last edge in the linked list of component edges in each component, or -1. */
+    private int[] componentTails;
+
+    /** The node type of each component.  An element is unspecified if the component is empty. */
+    private SpqrNode.Type[] componentTypes;
+
+    /** The number of component edges. */
+    private int componentEdgeCount;
+
+    /** The first endpoint of each component edge. */
+    private int[] componentEdgeVertex1s;
+
+    /** The second endpoint of each component edge. */
+    private int[] componentEdgeVertex2s;
+
+    /** Whether each component edge is virtual. */
+    private boolean[] componentEdgeIsVirtuals;
+
+    /** The component edge after each component edge in its component, or -1. */
+    private int[] componentEdgeNexts;
+
+    /** The component edge before each component edge in its component, or -1. */
+    private int[] componentEdgePrevs;
+
+    /**
+     * Constructs a new SpqrDecomposition for the graph with the specified adjacency lists.  Vertex 0 is the root of
+     * the palm tree.
+     * @param graphVertices The Vertex for each vertex in the graph.
+     * @param offsets The offsets in "neighbors" of the adjacency lists, as in CompactGraph.offsets.  The array may have
+     *     additional elements after the first graphVertices.length + 1 elements.
+     * @param neighbors The adjacency lists, as in CompactGraph.neighbors.  The array may have additional elements after
+     *     the first offsets[graphVertices.length] elements.
+     */
+    private SpqrDecomposition(Vertex[] graphVertices, int[] offsets, int[] neighbors) {
+        int vertexCount = graphVertices.length;
+        vertices = new Vertex[vertexCount];
+        parents = new int[vertexCount];
+        parentEdges = new int[vertexCount];
+        edgesHeads = new int[vertexCount];
+        edgesTails = new int[vertexCount];
+        frondsHeads = new int[vertexCount];
+        frondsTails = new int[vertexCount];
+        degrees = new int[vertexCount];
+        descendantCounts = new int[vertexCount];
+        numbers = new int[vertexCount];
+        lowpoint1s = new int[vertexCount];
+        lowpoint2s = new int[vertexCount];
+        numberToVertex = new int[vertexCount + 1];
+        for (int i = 0; i < vertexCount; i++) {
+            parentEdges[i] = -1;
+            edgesHeads[i] = -1;
+            edgesTails[i] = -1;
+            frondsHeads[i] = -1;
+            frondsTails[i] = -1;
+        }
+
+        // The arrays grow as needed.  We start the arrays for edges and components with capacities proportional to the
+        // number of edges in the graph, and the stacks with small capacities.
+        int capacity = offsets[vertexCount] / 2 + 16;
+        edgeStarts = new int[capacity];
+        edgeEnds = new int[capacity];
+        isFronds = new boolean[capacity];
+        isVirtuals = new boolean[capacity];
+        isStarts = new boolean[capacity];
+        nextEdges = new int[capacity];
+        prevEdges = new int[capacity];
+        nextFronds = new int[capacity];
+        prevFronds = new int[capacity];
+        eStack = new int[16];
+        tStackHighs = new int[16];
+        tStackStarts = new int[16];
+        tStackEnds = new int[16];
+        componentHeads = new int[capacity / 2];
+        componentTails = new int[capacity / 2];
+        componentTypes = new SpqrNode.Type[capacity / 2];
+        componentEdgeVertex1s = new int[capacity];
+        componentEdgeVertex2s = new int[capacity];
+        componentEdgeIsVirtuals = new boolean[capacity];
+        componentEdgeNexts = new int[capacity];
+        componentEdgePrevs = new int[capacity];
+
+        createPalmTree(graphVertices, offsets, neighbors);
+    }
+
+    /** Returns a copy of the specified array with at least the specified length. */
+    private static int[] grow(int[] array, int minLength) {
+        return Arrays.copyOf(array, Math.max(2 * array.length, minLength));
+    }
+
+    /** Returns a copy of the specified array with at least the specified length. */
+    private static boolean[] grow(boolean[] array, int minLength) {
+        return Arrays.copyOf(array, Math.max(2 * array.length, minLength));
+    }
+
+    /**
+     * Returns a new edge in the palm forest with the specified endpoints and flags.  This does not add the edge to any
+     * linked lists.
+     */
+    private int createEdge(int start, int end, boolean isFrond, boolean isVirtual) {
+        if (edgeCount == edgeStarts.length) {
+            edgeStarts = grow(edgeStarts, edgeCount + 1);
+            edgeEnds = grow(edgeEnds, edgeCount + 1);
+            isFronds = grow(isFronds, edgeCount + 1);
+            isVirtuals = grow(isVirtuals, edgeCount + 1);
+            isStarts = grow(isStarts, edgeCount + 1);
+            nextEdges = grow(nextEdges, edgeCount + 1);
+            prevEdges = grow(prevEdges, edgeCount + 1);
+            nextFronds = grow(nextFronds, edgeCount + 1);
+            prevFronds = grow(prevFronds, edgeCount + 1);
+        }
+        int edge = edgeCount;
+        edgeStarts[edge] = start;
+        edgeEnds[edge] = end;
+        isFronds[edge] = isFrond;
+        isVirtuals[edge] = isVirtual;
+        nextEdges[edge] = -1;
+        prevEdges[edge] = -1;
+        nextFronds[edge] = -1;
+        prevFronds[edge] = -1;
+        edgeCount++;
+        return edge;
+    }
+
+    /** Adds the specified edge to the end of the linked list of outgoing edges from its start. */
+    private void appendEdge(int edge) {
+        int start = edgeStarts[edge];
+        prevEdges[edge] = edgesTails[start];
+        nextEdges[edge] = -1;
+        if (edgesHeads[start] < 0) {
+            edgesHeads[start] = edge;
+        } else {
+            nextEdges[edgesTails[start]] = edge;
+        }
+        edgesTails[start] = edge;
+    }
+
+    /** Pushes the specified edge onto the edge stack. */
+    private void pushEdge(int edge) {
+        if (eStackSize == eStack.length) {
+            eStack = grow(eStack, eStackSize + 1);
+        }
+        eStack[eStackSize] = edge;
+        eStackSize++;
+    }
+
+    /** Pushes the specified entry onto the triple stack.  high == -1 indicates an end-of-stack marker. */
+    private void pushTriple(int high, int start, int end) {
+        if (tStackSize == tStackHighs.length) {
+            tStackHighs = grow(tStackHighs, tStackSize + 1);
+            tStackStarts = grow(tStackStarts, tStackSize + 1);
+            tStackEnds = grow(tStackEnds, tStackSize + 1);
+        }
+        tStackHighs[tStackSize] = high;
+        tStackStarts[tStackSize] = start;
+        tStackEnds[tStackSize] = end;
+        tStackSize++;
+    }
+
+    /** Returns a new, empty split component. */
+    private int createComponent() {
+        if (componentCount == componentHeads.length) {
+            componentHeads = grow(componentHeads, componentCount + 1);
+            componentTails = grow(componentTails, componentCount + 1);
+            componentTypes = Arrays.copyOf(componentTypes, 2 * componentCount + 1);
+        }
+        int component = componentCount;
+        componentHeads[component] = -1;
+        componentTails[component] = -1;
+        componentCount++;
+        return component;
+    }
+
+    /** Adds a component edge with the specified endpoints and virtual flag to the end of the specified component. */
+    private void addComponentEdge(int component, int vertex1, int vertex2, boolean isVirtual) {
+        if (componentEdgeCount == componentEdgeVertex1s.length) {
+            componentEdgeVertex1s = grow(componentEdgeVertex1s, componentEdgeCount + 1);
+            componentEdgeVertex2s = grow(componentEdgeVertex2s, componentEdgeCount + 1);
+            componentEdgeIsVirtuals = grow(componentEdgeIsVirtuals, componentEdgeCount + 1);
+            componentEdgeNexts = grow(componentEdgeNexts, componentEdgeCount + 1);
+            componentEdgePrevs = grow(componentEdgePrevs, componentEdgeCount + 1);
+        }
+        int edge = componentEdgeCount;
+        componentEdgeVertex1s[edge] = vertex1;
+        componentEdgeVertex2s[edge] = vertex2;
+        componentEdgeIsVirtuals[edge] = isVirtual;
+        componentEdgeNexts[edge] = -1;
+        componentEdgePrevs[edge] = componentTails[component];
+        if (componentHeads[component] < 0) {
+            componentHeads[component] = edge;
+        } else {
+            componentEdgeNexts[componentTails[component]] = edge;
+        }
+        componentTails[component] = edge;
+        componentEdgeCount++;
+    }
+
+    /** Adds a component edge for the specified palm forest edge to the end of the specified component. */
+    private void addEdge(int component, int edge) {
+        addComponentEdge(component, edgeStarts[edge], edgeEnds[edge], isVirtuals[edge]);
+    }
+
+    /** Adds a virtual component edge with the specified endpoints to the end of the specified component. */
+    private void addVirtualEdge(int component, int vertex1, int vertex2) {
+        addComponentEdge(component, vertex1, vertex2, true);
+    }
+
+    /**
+     * Reorders the adjacency lists (the lists starting at edgesHeads elements) according to the sort order phi(e).
+     */
+    private void orderEdges() {
+        // Order the edges using a stable counting sort
+        int vertexCount = vertices.length;
+        int[] keys = new int[edgeCount];
+        int[] counts = new int[3 * vertexCount + 7];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            for (int edge = edgesHeads[vertex]; edge >= 0; edge = nextEdges[edge]) {
+                int end = edgeEnds[edge];
+                int key;
+                if (isFronds[edge]) {
+                    key = 3 * (end + 1) + 1;
+                } else if (lowpoint2s[end] < vertex) {
+                    key = 3 * (lowpoint1s[end] + 1);
+                } else {
+                    key = 3 * (lowpoint1s[end] + 1) + 2;
+                }
+                keys[edge] = key;
+                counts[key + 1]++;
+            }
+        }
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+        int[] sortedEdges = new int[edgeCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            for (int edge = edgesHeads[vertex]; edge >= 0; edge = nextEdges[edge]) {
+                sortedEdges[counts[keys[edge]]] = edge;
+                counts[keys[edge]]++;
+            }
+        }
+
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            edgesHeads[vertex] = -1;
+            edgesTails[vertex] = -1;
+        }
+        for (int edge : sortedEdges) {
+            appendEdge(edge);
+        }
+    }
+
+    /**
+     * Computes "numbers", numberToVertex, isStarts, and the fronds lists (starting at frondsHeads elements).  Assumes
+     * the adjacency lists are ordered according to phi(e).
+     */
+    private void computeNumbersFrondsAndIsStart() {
+        // Compute isStart
+        int vertexCount = vertices.length;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            if (edgesHeads[vertex] >= 0) {
+                for (int edge = nextEdges[edgesHeads[vertex]]; edge >= 0; edge = nextEdges[edge]) {
+                    isStarts[edge] = true;
+                }
+            }
+        }
+        isStarts[edgesHeads[0]] = true;
+
+        // Compute "numbers" and the fronds lists using an iterative implementation of depth-first search
+        int[] path = new int[vertexCount + 1];
+        path[0] = edgesHeads[0];
+        int pathSize = 1;
+        numbers[0] = 1;
+        int subtreeMax = vertexCount;
+        while (pathSize > 0) {
+            int edge = path[pathSize - 1];
+            if (edge < 0) {
+                pathSize--;
+                subtreeMax--;
+            } else {
+                path[pathSize - 1] = nextEdges[edge];
+                int end = edgeEnds[edge];
+                if (!isFronds[edge]) {
+                    numbers[end] = subtreeMax - descendantCounts[end] + 1;
+                    path[pathSize] = edgesHeads[end];
+                    pathSize++;
+                } else {
+                    prevFronds[edge] = frondsTails[end];
+                    if (frondsHeads[end] < 0) {
+                        frondsHeads[end] = edge;
+                    } else {
+                        nextFronds[frondsTails[end]] = edge;
+                    }
+                    frondsTails[end] = edge;
+                }
+            }
+        }
+
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            numberToVertex[numbers[vertex]] = vertex;
+        }
+    }
+
+    /**
+     * Computes the palm tree for the graph with the specified adjacency lists, rooted at vertex 0.
+     * @param graphVertices The Vertex for each vertex in the graph.
+     * @param offsets The offsets in "neighbors" of the adjacency lists, as in CompactGraph.offsets.
+     * @param neighbors The adjacency lists, as in CompactGraph.neighbors.
+     */
+    private void createPalmTree(Vertex[] graphVertices, int[] offsets, int[] neighbors) {
+        // Use an iterative implementation of depth-first search to construct the palm tree's vertices and edges and
+        // compute parentEdges, lowpoint1s, lowpoint2s, and descendantCounts
+        int vertexCount = graphVertices.length;
+        int[] graphVertexToVertex = new int[vertexCount];
+        for (int i = 1; i < vertexCount; i++) {
+            graphVertexToVertex[i] = -1;
+        }
+        int[] vertexToGraphVertex = new int[vertexCount];
+        int[] path = new int[vertexCount];
+        int[] pathPositions = new int[vertexCount];
+        vertices[0] = graphVertices[0];
+        parents[0] = -1;
+        degrees[0] = offsets[1] - offsets[0];
+        descendantCounts[0] = 1;
+        path[0] = 0;
+        pathPositions[0] = offsets[0];
+        int pathSize = 1;
+        int nextVertex = 1;
+        while (pathSize > 0) {
+            int start = path[pathSize - 1];
+            int graphStart = vertexToGraphVertex[start];
+            if (pathPositions[pathSize - 1] == offsets[graphStart + 1]) {
+                pathSize--;
+                int parent = parents[start];
+                if (parent >= 0) {
+                    // Finish visiting parentEdges[start]: update lowpoint1s, lowpoint2s, and descendantCounts
+                    if (lowpoint1s[start] < lowpoint1s[parent]) {
+                        if (lowpoint1s[parent] < lowpoint2s[start]) {
+                            lowpoint2s[parent] = lowpoint1s[parent];
+                        } else {
+                            lowpoint2s[parent] = lowpoint2s[start];
+                        }
+                        lowpoint1s[parent] = lowpoint1s[start];
+                    } else if (lowpoint1s[start] == lowpoint1s[parent]) {
+                        if (lowpoint2s[start] < lowpoint2s[parent]) {
+                            lowpoint2s[parent] = lowpoint2s[start];
+                        }
+                    } else if (lowpoint1s[start] < lowpoint2s[parent]) {
+                        lowpoint2s[parent] = lowpoint1s[start];
+                    }
+                    descendantCounts[parent] += descendantCounts[start];
+                }
+            } else {
+                int graphEnd = neighbors[pathPositions[pathSize - 1]];
+                pathPositions[pathSize - 1]++;
+                int end = graphVertexToVertex[graphEnd];
+                int edge;
+                if (end < 0) {
+                    // Create a tree edge
+                    end = nextVertex;
+                    nextVertex++;
+                    graphVertexToVertex[graphEnd] = end;
+                    vertexToGraphVertex[end] = graphEnd;
+                    vertices[end] = graphVertices[graphEnd];
+                    parents[end] = start;
+                    degrees[end] = offsets[graphEnd + 1] - offsets[graphEnd];
+                    descendantCounts[end] = 1;
+                    lowpoint1s[end] = end;
+                    lowpoint2s[end] = end;
+                    edge = createEdge(start, end, false, false);
+                    parentEdges[end] = edge;
+                    path[pathSize] = end;
+                    pathPositions[pathSize] = offsets[graphEnd];
+                    pathSize++;
+                } else if (end > start || parents[start] == end) {
+                    // We are visiting a frond, but from the wrong direction
+                    continue;
+                } else {
+                    // Create a frond
+                    edge = createEdge(start, end, true, false);
+                    if (end < lowpoint1s[start]) {
+                        lowpoint2s[start] = lowpoint1s[start];
+                        lowpoint1s[start] = end;
+                    } else if (end != lowpoint1s[start] && end < lowpoint2s[start]) {
+                        lowpoint2s[start] = end;
+                    }
+                }
+                appendEdge(edge);
+            }
+        }
+
+        orderEdges();
+        computeNumbersFrondsAndIsStart();
+    }
+
+    /**
+     * Adds the specified edge to the palm forest.  However, this does not add the edge to the appropriate fronds list
+     * if it is a frond, because "add" does not know where to add it to the list.  This must be called after initially
+     * constructing the palm tree, i.e. when we are finding split components.
+     */
+    private void add(int edge) {
+        int start = edgeStarts[edge];
+        int end = edgeEnds[edge];
+        if (!isFronds[edge]) {
+            parentEdges[end] = edge;
+            parents[end] = -1;
+        }
+
+        // Add the edge to the adjacency lists
+        nextEdges[edge] = edgesHeads[start];
+        if (edgesTails[start] < 0) {
+            edgesTails[start] = edge;
+        } else {
+            prevEdges[edgesHeads[start]] = edge;
+        }
+        edgesHeads[start] = edge;
+
+        degrees[start]++;
+        degrees[end]++;
+    }
+
+    /**
+     * Removes the specified edge from the palm forest.  This must be called after initially constructing the palm
+     * tree, i.e. when we are finding split components.
+     */
+    private void remove(int edge) {
+        int start = edgeStarts[edge];
+        int end = edgeEnds[edge];
+
+        // Remove the edge from the adjacency list
+        if (prevEdges[edge] < 0) {
+            edgesHeads[start] = nextEdges[edge];
+        } else {
+            nextEdges[prevEdges[edge]] = nextEdges[edge];
+        }
+        if (nextEdges[edge] < 0) {
+            edgesTails[start] = prevEdges[edge];
+        } else {
+            prevEdges[nextEdges[edge]] = prevEdges[edge];
+        }
+
+        if (!isFronds[edge]) {
+            parentEdges[end] = -1;
+            parents[end] = start;
+        } else {
+            // Remove the edge from the fronds list
+            if (prevFronds[edge] < 0) {
+                frondsHeads[end] = nextFronds[edge];
+            } else {
+                nextFronds[prevFronds[edge]] = nextFronds[edge];
+            }
+            if (nextFronds[edge] < 0) {
+                frondsTails[end] = prevFronds[edge];
+            } else {
+                prevFronds[nextFronds[edge]] = prevFronds[edge];
+            }
+        }
+
+        degrees[start]--;
+        degrees[end]--;
+    }
+
+    /** Pops the top edge from the edge stack and returns it. */
+    private int popEdge() {
+        eStackSize--;
+        return eStack[eStackSize];
+    }
+
+    /** Returns the index in the triple stack of the top entry, or -1 if it is empty or the top is a marker. */
+    private int lastTriple() {
+        if (tStackSize == 0 || tStackHighs[tStackSize - 1] < 0) {
+            return -1;
+        } else {
+            return tStackSize - 1;
+        }
+    }
+
+    /** Returns whether "vertex" has degree 2 and the end of its first outgoing edge has a higher number. */
+    private boolean isDegree2WithHigherNeighbor(int vertex) {
+        return degrees[vertex] == 2 && numbers[edgeEnds[edgesHeads[vertex]]] > numbers[vertex];
+    }
+
+    /** Adds any split components for type 2 pairs for the specified edge.  This implements algorithm 5 of the paper. */
+    private void checkForType2Pairs(int edge) {
+        int start = edgeStarts[edge];
+        if (parents[start] < 0) {
+            return;
+        }
+        int end = edgeEnds[edge];
+        int lastEntry = lastTriple();
+        while ((lastEntry >= 0 && tStackStarts[lastEntry] == start) || isDegree2WithHigherNeighbor(end)) {
+            if (lastEntry >= 0 && tStackStarts[lastEntry] == start &&
+                    parents[tStackEnds[lastEntry]] == tStackStarts[lastEntry]) {
+                tStackSize--;
+            } else {
+                int eab = -1;
+                int newEdgeStart;
+                int newEdgeEnd;
+                int lastEnd = lastEntry >= 0 ? tStackEnds[lastEntry] : -1;
+                if (isDegree2WithHigherNeighbor(end)) {
+                    int stackEdge1 = popEdge();
+                    int stackEdge2 = popEdge();
+                    if (edgeEnds[stackEdge1] == edgeStarts[stackEdge2]) {
+                        newEdgeStart = edgeStarts[stackEdge1];
+                        newEdgeEnd = edgeEnds[stackEdge2];
+                    } else {
+                        newEdgeStart = edgeStarts[stackEdge2];
+                        newEdgeEnd = edgeEnds[stackEdge1];
+                    }
+                    int component = createComponent();
+                    addEdge(component, stackEdge1);
+                    addEdge(component, stackEdge2);
+                    addVirtualEdge(component, newEdgeStart, newEdgeEnd);
+                    if (eStackSize > 0) {
+                        int lastEdge = eStack[eStackSize - 1];
+                        if (edgeStarts[lastEdge] == newEdgeStart && edgeEnds[lastEdge] == newEdgeEnd) {
+                            eab = popEdge();
+                        }
+                    }
+
+                    remove(stackEdge1);
+                    remove(stackEdge2);
+                } else {
+                    int lastHigh = tStackHighs[lastEntry];
+                    int lastStart = tStackStarts[lastEntry];
+                    tStackSize--;
+                    int component = createComponent();
+                    while (eStackSize > 0) {
+                        int lastEdge = eStack[eStackSize - 1];
+                        int lastEdgeStart = edgeStarts[lastEdge];
+                        int lastEdgeEnd = edgeEnds[lastEdge];
+                        if (numbers[lastEdgeStart] < numbers[lastStart] ||
+                                numbers[lastEdgeStart] > numbers[lastHigh] ||
+                                numbers[lastEdgeEnd] < numbers[lastStart] ||
+                                numbers[lastEdgeEnd] > numbers[lastHigh]) {
+                            break;
+                        }
+                        eStackSize--;
+                        if (lastEdgeEnd == lastStart && lastEdgeStart == lastEnd) {
+                            eab = lastEdge;
+                        } else {
+                            addEdge(component, lastEdge);
+                            remove(lastEdge);
+                        }
+                    }
+                    addVirtualEdge(component, lastStart, lastEnd);
+                    newEdgeStart = lastStart;
+                    newEdgeEnd = lastEnd;
+                }
+
+                if (eab >= 0) {
+                    int component = createComponent();
+                    addEdge(component, eab);
+                    addVirtualEdge(component, newEdgeStart, newEdgeEnd);
+                    addVirtualEdge(component, start, lastEnd);
+                    remove(eab);
+                    newEdgeStart = start;
+                    newEdgeEnd = lastEnd;
+                }
+                int newEdge = createEdge(newEdgeStart, newEdgeEnd, false, true);
+                pushEdge(newEdge);
+                add(newEdge);
+                end = newEdgeEnd;
+            }
+            lastEntry = lastTriple();
+        }
+    }
+
+    /**
+     * Adds any split components for the type 1 pair for the specified edge, if there is such a type 1 pair.  This
+     * implements algorithm 6 of the paper.
+     */
+    private void checkForType1Pair(int edge) {
+        int start = edgeStarts[edge];
+        int end = edgeEnds[edge];
+        if (numbers[lowpoint2s[end]] < numbers[start] || numbers[lowpoint1s[end]] >= numbers[start]) {
+            return;
+        }
+        if (parents[start] >= 0 && parents[parents[start]] < 0) {
+            // Check whether "start" is adjacent to a tree arc we have not yet visited
+            boolean found = false;
+            for (int startEdge = nextEdges[edge]; startEdge >= 0; startEdge = nextEdges[startEdge]) {
+                if (!isFronds[startEdge]) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                for (int startEdge = nextEdges[parentEdges[start]]; startEdge >= 0;
+                        startEdge = nextEdges[startEdge]) {
+                    if (!isFronds[startEdge]) {
+                        found = true;
+                        break;
+                    }
+                }
+            }
+            if (!found) {
+                return;
+            }
+        }
+
+        int component = createComponent();
+        int lastEdge = eStackSize > 0 ? eStack[eStackSize - 1] : -1;
+        int prevFrond = -1;
+        int nextFrond = -1;
+        int minNumber = numbers[end];
+        int maxNumber = numbers[end] + descendantCounts[end];
+        while (lastEdge >= 0 &&
+                ((numbers[edgeStarts[lastEdge]] >= minNumber && numbers[edgeStarts[lastEdge]] < maxNumber) ||
+                    (numbers[edgeEnds[lastEdge]] >= minNumber && numbers[edgeEnds[lastEdge]] < maxNumber))) {
+            if (isFronds[lastEdge] && edgeEnds[lastEdge] == lowpoint1s[end]) {
+                prevFrond = prevFronds[lastEdge];
+                nextFrond = nextFronds[lastEdge];
+            }
+            addEdge(component, lastEdge);
+            remove(lastEdge);
+            eStackSize--;
+            lastEdge = eStackSize > 0 ? eStack[eStackSize - 1] : -1;
+        }
+        int newEdgeStart = start;
+        int newEdgeEnd = lowpoint1s[end];
+        addVirtualEdge(component, newEdgeStart, newEdgeEnd);
+
+        if (lastEdge >= 0 && edgeStarts[lastEdge] == newEdgeStart && edgeEnds[lastEdge] == newEdgeEnd) {
+            component = createComponent();
+            addEdge(component, lastEdge);
+            for (int i = 0; i < 2; i++) {
+                addVirtualEdge(component, newEdgeStart, newEdgeEnd);
+            }
+            if (lastEdge == prevFrond) {
+                prevFrond = prevFronds[prevFrond];
+            } else if (lastEdge == nextFrond) {
+                nextFrond = nextFronds[nextFrond];
+            }
+            remove(lastEdge);
+            eStackSize--;
+        }
+
+        if (lowpoint1s[end] != parents[start]) {
+            int newEdge = createEdge(newEdgeStart, newEdgeEnd, true, true);
+            pushEdge(newEdge);
+            add(newEdge);
+
+            // Add newEdge to the appropriate position in the fronds list
+            prevFronds[newEdge] = prevFrond;
+            nextFronds[newEdge] = nextFrond;
+            if (prevFrond >= 0) {
+                nextFronds[prevFrond] = newEdge;
+            } else {
+                frondsHeads[newEdgeEnd] = newEdge;
+            }
+            if (nextFrond >= 0) {
+                prevFronds[nextFrond] = newEdge;
+            } else {
+                frondsTails[newEdgeEnd] = newEdge;
+            }
+        } else {
+            component = createComponent();
+            addEdge(component, parentEdges[start]);
+            for (int i = 0; i < 2; i++) {
+                addVirtualEdge(component, newEdgeStart, newEdgeEnd);
+            }
+            isVirtuals[parentEdges[start]] = true;
+        }
+    }
+
+    /** Sets the componentTypes elements to the appropriate values. */
+    private void computeComponentTypes() {
+        int[] componentDegrees = new int[vertices.length];
+        for (int component = 0; component < componentCount; component++) {
+            // Compute the degree of each vertex and the number of edges
+            int count = 0;
+            int head = componentHeads[component];
+            for (int edge = head; edge >= 0; edge = componentEdgeNexts[edge]) {
+                componentDegrees[componentEdgeVertex1s[edge]]++;
+                componentDegrees[componentEdgeVertex2s[edge]]++;
+                count++;
+            }
+
+            SpqrNode.Type type;
+            if (count == 1) {
+                type = SpqrNode.Type.R;
+            } else if (componentDegrees[componentEdgeVertex1s[head]] == count &&
+                    componentDegrees[componentEdgeVertex2s[head]] == count) {
+                type = SpqrNode.Type.P;
+            } else {
+                // A graph is a cycle iff every vertex has degree 2
+                boolean found = false;
+                for (int edge = head; edge >= 0; edge = componentEdgeNexts[edge]) {
+                    if (componentDegrees[componentEdgeVertex1s[edge]] != 2 ||
+                            componentDegrees[componentEdgeVertex2s[edge]] != 2) {
+                        found = true;
+                        break;
+                    }
+                }
+                type = found ? SpqrNode.Type.R : SpqrNode.Type.S;
+            }
+            componentTypes[component] = type;
+
+            // Reset componentDegrees so that every element is 0
+            for (int edge = head; edge >= 0; edge = componentEdgeNexts[edge]) {
+                componentDegrees[componentEdgeVertex1s[edge]] = 0;
+                componentDegrees[componentEdgeVertex2s[edge]] = 0;
+            }
+        }
+    }
+
+    /**
+     * Moves all of the edges in "src" to "dest", removing destEdge and srcEdge.
+     * @param dest The destination component.
+     * @param src The source component.
+     * @param destEdge The component edge in "dest" to remove.
+     * @param srcEdge The component edge in "src" to remove.
+     */
+    private void combine(int dest, int src, int destEdge, int srcEdge) {
+        // Combine the lists
+        componentEdgeNexts[componentTails[dest]] = componentHeads[src];
+        componentEdgePrevs[componentHeads[src]] = componentTails[dest];
+        componentTails[dest] = componentTails[src];
+
+        // Remove destEdge and srcEdge
+        for (int edge : new int[]{destEdge, srcEdge}) {
+            if (componentEdgePrevs[edge] < 0) {
+                componentHeads[dest] = componentEdgeNexts[componentHeads[dest]];
+            } else {
+                componentEdgeNexts[componentEdgePrevs[edge]] = componentEdgeNexts[edge];
+            }
+            if (componentEdgeNexts[edge] < 0) {
+                componentTails[dest] = componentEdgePrevs[componentTails[dest]];
+            } else {
+                componentEdgePrevs[componentEdgeNexts[edge]] = componentEdgePrevs[edge];
+            }
+        }
+
+        // Clear "src"
+        componentHeads[src] = -1;
+        componentTails[src] = -1;
+    }
+
+    /** Returns the first virtual edge in the specified bond component, which must be its first or second edge. */
+    private int bondVirtualEdge(int component) {
+        int head = componentHeads[component];
+        if (componentEdgeIsVirtuals[head]) {
+            return head;
+        } else {
+            return componentEdgeNexts[head];
+        }
+    }
+
+    /**
+     * Merges the split components at common virtual edges as in algorithm 2 in the paper.  This may empty some of the
+     * components.
+     * @return The resulting components: the bonds, then the polygons, then the rigid components.
+     */
+    private int[] combineBondsAndPolygons() {
+        // Note that this implementation is a little different from the one described in algorithm 2
+
+        // Merge the bonds
+        IntPairMap pairToBondComponent = new IntPairMap(componentCount);
+        int[] bondComponents = new int[componentCount];
+        int bondCount = 0;
+        for (int component = 0; component < componentCount; component++) {
+            if (componentTypes[component] == SpqrNode.Type.P) {
+                int edge = bondVirtualEdge(component);
+                int vertex1 = componentEdgeVertex1s[edge];
+                int vertex2 = componentEdgeVertex2s[edge];
+                int matchingComponent = pairToBondComponent.get(vertex1, vertex2);
+                if (matchingComponent < 0) {
+                    pairToBondComponent.put(vertex1, vertex2, component);
+                    bondComponents[bondCount] = component;
+                    bondCount++;
+                } else {
+                    // Merge "component" into matchingComponent
+                    combine(matchingComponent, component, bondVirtualEdge(matchingComponent), edge);
+                }
+            }
+        }
+
+        // Merge the polygons, and collect the rigid components
+        IntPairMap pairToPolygonEdge = new IntPairMap(componentCount);
+        int[] edgeComponents = new int[componentEdgeCount];
+        boolean[] isMerged = new boolean[componentCount];
+        int[] polygonComponents = new int[componentCount];
+        int polygonCount = 0;
+        int[] rigidComponents = new int[componentCount];
+        int rigidCount = 0;
+        // Each match empties a component, so there are fewer than componentCount matches
+        int[] edges = new int[componentCount];
+        int[] matchingEdges = new int[componentCount];
+        for (int component = 0; component < componentCount; component++) {
+            SpqrNode.Type type = componentTypes[component];
+            if (type == SpqrNode.Type.S) {
+                // Compute the components to merge into "component" and the virtual edges at which to merge
+                int matchCount = 0;
+                for (int edge = componentHeads[component]; edge >= 0; edge = componentEdgeNexts[edge]) {
+                    if (componentEdgeIsVirtuals[edge]) {
+                        int vertex1 = componentEdgeVertex1s[edge];
+                        int vertex2 = componentEdgeVertex2s[edge];
+                        if (pairToBondComponent.get(vertex1, vertex2) < 0) {
+                            int matchingEdge = pairToPolygonEdge.get(vertex1, vertex2);
+                            if (matchingEdge < 0) {
+                                pairToPolygonEdge.put(vertex1, vertex2, edge);
+                                edgeComponents[edge] = component;
+                            } else {
+                                edges[matchCount] = edge;
+                                matchingEdges[matchCount] = matchingEdge;
+                                matchCount++;
+                            }
+                        }
+                    }
+                }
+
+                for (int i = 0; i < matchCount; i++) {
+                    int matchingComponent = edgeComponents[matchingEdges[i]];
+                    combine(component, matchingComponent, edges[i], matchingEdges[i]);
+                    isMerged[matchingComponent] = true;
+                }
+                polygonComponents[polygonCount] = component;
+                polygonCount++;
+            } else if (type != SpqrNode.Type.P) {
+                rigidComponents[rigidCount] = component;
+                rigidCount++;
+            }
+        }
+
+        // Collect the merged components
+        int[] combinedComponents = new int[bondCount + polygonCount + rigidCount];
+        int count = 0;
+        for (int i = 0; i < bondCount; i++) {
+            combinedComponents[count] = bondComponents[i];
+            count++;
+        }
+        for (int i = 0; i < polygonCount; i++) {
+            if (!isMerged[polygonComponents[i]]) {
+                combinedComponents[count] = polygonComponents[i];
+                count++;
+            }
+        }
+        for (int i = 0; i < rigidCount; i++) {
+            combinedComponents[count] = rigidComponents[i];
+            count++;
+        }
+        return Arrays.copyOf(combinedComponents, count);
+    }
+
+    /**
+     * Returns the components containing the skeletons of the graph.  This executes algorithms 3 and 2 in the paper.
+     * @return The components, as in the return value of combineBondsAndPolygons.
+     */
+    private int[] computeComponents() {
+        // Execute algorithm 4 using an iterative implementation of depth-first search
+        int vertexCount = vertices.length;
+        int root = numberToVertex[1];
+        int[] path = new int[vertexCount];
+        int[] pathEdges = new int[vertexCount];
+        path[0] = root;
+        pathEdges[0] = edgesHeads[root];
+        int pathSize = 1;
+        while (pathSize > 0) {
+            int edge = pathEdges[pathSize - 1];
+            if (edge < 0) {
+                pathSize--;
+                int vertex = path[pathSize];
+                int parent = parents[vertex];
+                if (parent >= 0) {
+                    // Finish visiting parentEdges[vertex]
+                    int parentEdge = parentEdges[vertex];
+                    pushEdge(parentEdge);
+                    checkForType2Pairs(parentEdge);
+                    checkForType1Pair(parentEdge);
+                    if (isStarts[parentEdge]) {
+                        do {
+                            tStackSize--;
+                        } while (tStackHighs[tStackSize] >= 0);
+                    }
+                    while (tStackSize > 0) {
+                        int entry = tStackSize - 1;
+                        if (tStackHighs[entry] < 0 || tStackStarts[entry] == parent || tStackEnds[entry] == parent ||
+                                frondsHeads[parent] < 0 ||
+                                numbers[tStackHighs[entry]] >= numbers[edgeStarts[frondsHeads[parent]]]) {
+                            break;
+                        }
+                        tStackSize--;
+                    }
+                }
+            } else {
+                pathEdges[pathSize - 1] = nextEdges[edge];
+                int start = edgeStarts[edge];
+                int end = edgeEnds[edge];
+                if (!isFronds[edge]) {
+                    if (isStarts[edge]) {
+                        int high = -1;
+                        int lastEntryEnd = -1;
+                        while (tStackSize > 0 && tStackHighs[tStackSize - 1] >= 0 &&
+                                numbers[tStackStarts[tStackSize - 1]] > numbers[lowpoint1s[end]]) {
+                            tStackSize--;
+                            lastEntryEnd = tStackEnds[tStackSize];
+                            if (high < 0 || numbers[tStackHighs[tStackSize]] > numbers[high]) {
+                                high = tStackHighs[tStackSize];
+                            }
+                        }
+                        int lastSubtreeVertex = numberToVertex[numbers[end] + descendantCounts[end] - 1];
+                        if (lastEntryEnd < 0) {
+                            pushTriple(lastSubtreeVertex, lowpoint1s[end], start);
+                        } else {
+                            if (numbers[lastSubtreeVertex] > numbers[high]) {
+                                high = lastSubtreeVertex;
+                            }
+                            pushTriple(high, lowpoint1s[end], lastEntryEnd);
+                        }
+                        pushTriple(-1, -1, -1);
+                    }
+
+                    path[pathSize] = end;
+                    pathEdges[pathSize] = edgesHeads[end];
+                    pathSize++;
+                } else {
+                    if (isStarts[edge]) {
+                        int high = -1;
+                        int lastEntryEnd = -1;
+                        while (tStackSize > 0 && tStackHighs[tStackSize - 1] >= 0 &&
+                                numbers[tStackStarts[tStackSize - 1]] > numbers[end]) {
+                            tStackSize--;
+                            lastEntryEnd = tStackEnds[tStackSize];
+                            if (high < 0 || numbers[tStackHighs[tStackSize]] > numbers[high]) {
+                                high = tStackHighs[tStackSize];
+                            }
+                        }
+                        if (lastEntryEnd < 0) {
+                            pushTriple(start, end, start);
+                        } else {
+                            pushTriple(high, end, lastEntryEnd);
+                        }
+                    }
+
+                    if (end != parents[start]) {
+                        pushEdge(edge);
+                    } else {
+                        int component = createComponent();
+                        addEdge(component, edge);
+                        addVirtualEdge(component, start, end);
+                        int newEdge = createEdge(end, start, false, true);
+                        addEdge(component, newEdge);
+                        remove(edge);
+                        add(newEdge);
+                    }
+                }
+            }
+        }
+
+        if (eStackSize > 0) {
+            int component = createComponent();
+            for (int i = 0; i < eStackSize; i++) {
+                addEdge(component, eStack[i]);
+            }
+        }
+        computeComponentTypes();
+        return combineBondsAndPolygons();
+    }
+
+    /**
+     * Returns an SPQR tree for a graph consisting of the specified components.
+     * @param components The components, as returned by computeComponents().
+     * @param reference2 The second endpoint of the reference edge, as in the second argument to
+     *     SpqrNode.create(Vertex, Vertex).  The first endpoint is vertices[0].
+     * @return The tree.
+     */
+    private SpqrTree createSpqrTree(int[] components, Vertex reference2) {
+        // Find the root component
+        int rootComponent = -1;
+        for (int component : components) {
+            for (int edge = componentHeads[component]; edge >= 0; edge = componentEdgeNexts[edge]) {
+                if (!componentEdgeIsVirtuals[edge]) {
+                    int vertex1 = componentEdgeVertex1s[edge];
+                    int vertex2 = componentEdgeVertex2s[edge];
+                    if ((vertex1 == 0 && vertices[vertex2] == reference2) ||
+                            (vertex2 == 0 && vertices[vertex1] == reference2)) {
+                        rootComponent = component;
+                        break;
+                    }
+                }
+            }
+            if (rootComponent >= 0) {
+                break;
+            }
+        }
+
+        // Compute maps from pairs of endpoints of virtual edges to the components that contain them.  We store the
+        // non-P components for each pair as a linked list of "nodes", with one node per virtual component edge.
+        int virtualEdgeCount = 0;
+        for (int component : components) {
+            for (int edge = componentHeads[component]; edge >= 0; edge = componentEdgeNexts[edge]) {
+                if (componentEdgeIsVirtuals[edge]) {
+                    virtualEdgeCount++;
+                }
+            }
+        }
+        IntPairMap pComponents = new IntPairMap(components.length);
+        IntPairMap pairToNonPList = new IntPairMap(virtualEdgeCount);
+        int[] listHeads = new int[virtualEdgeCount];
+        int[] listTails = new int[virtualEdgeCount];
+        int listCount = 0;
+        int[] nodeComponents = new int[virtualEdgeCount];
+        int[] nodeNexts = new int[virtualEdgeCount];
+        int nodeCount = 0;
+        for (int component : components) {
+            for (int edge = componentHeads[component]; edge >= 0; edge = componentEdgeNexts[edge]) {
+                if (componentEdgeIsVirtuals[edge]) {
+                    int vertex1 = componentEdgeVertex1s[edge];
+                    int vertex2 = componentEdgeVertex2s[edge];
+                    if (componentTypes[component] == SpqrNode.Type.P) {
+                        pComponents.put(vertex1, vertex2, component);
+                    } else {
+                        int list = pairToNonPList.get(vertex1, vertex2);
+                        nodeComponents[nodeCount] = component;
+                        nodeNexts[nodeCount] = -1;
+                        if (list < 0) {
+                            list = listCount;
+                            listCount++;
+                            pairToNonPList.put(vertex1, vertex2, list);
+                            listHeads[list] = nodeCount;
+                        } else {
+                            nodeNexts[listTails[list]] = nodeCount;
+                        }
+                        listTails[list] = nodeCount;
+                        nodeCount++;
+                    }
+                }
+            }
+        }
+
+        // Use breadth-first search from the root node to number the nodes of the SPQR tree.  Because we number the
+        // nodes in breadth-first order, the children of each node have consecutive numbers.
+        boolean[] visited = new boolean[componentCount];
+        int[] matchStamps = new int[componentCount];
+        int[] matchingComponents = new int[componentCount];
+        int[] treeNodeComponents = new int[components.length];
+        int[] treeNodeParents = new int[components.length];
+        int[] childOffsets = new int[components.length + 1];
+        treeNodeComponents[0] = rootComponent;
+        treeNodeParents[0] = -1;
+        int treeNodeCount = 1;
+        int stamp = 0;
+        for (int treeNode = 0; treeNode < treeNodeCount; treeNode++) {
+            int component = treeNodeComponents[treeNode];
+            visited[component] = true;
+            if (treeNode + 1 >= childOffsets.length) {
+                childOffsets = grow(childOffsets, treeNode + 2);
+            }
+            childOffsets[treeNode] = treeNodeCount;
+
+            // Find the components that share a virtual edge with "component", in order of discovery
+            stamp++;
+            int matchCount = 0;
+            matchStamps[component] = stamp;
+            for (int edge = componentHeads[component]; edge >= 0; edge = componentEdgeNexts[edge]) {
+                if (componentEdgeIsVirtuals[edge]) {
+                    int vertex1 = componentEdgeVertex1s[edge];
+                    int vertex2 = componentEdgeVertex2s[edge];
+                    int pComponent = -1;
+                    if (componentTypes[component] != SpqrNode.Type.P) {
+                        pComponent = pComponents.get(vertex1, vertex2);
+                    }
+                    if (pComponent >= 0) {
+                        if (matchStamps[pComponent] != stamp) {
+                            matchStamps[pComponent] = stamp;
+                            matchingComponents[matchCount] = pComponent;
+                            matchCount++;
+                        }
+                    } else {
+                        for (int listNode = listHeads[pairToNonPList.get(vertex1, vertex2)]; listNode >= 0;
+                                listNode = nodeNexts[listNode]) {
+                            int matchingComponent = nodeComponents[listNode];
+                            if (matchStamps[matchingComponent] != stamp) {
+                                matchStamps[matchingComponent] = stamp;
+                                matchingComponents[matchCount] = matchingComponent;
+                                matchCount++;
+                            }
+                        }
+                    }
+                    if (componentTypes[component] == SpqrNode.Type.P) {
+                        break;
+                    }
+                }
+            }
+
+            for (int i = 0; i < matchCount; i++) {
+                int matchingComponent = matchingComponents[i];
+                if (!visited[matchingComponent]) {
+                    if (treeNodeCount == treeNodeComponents.length) {
+                        treeNodeComponents = grow(treeNodeComponents, treeNodeCount + 1);
+                        treeNodeParents = grow(treeNodeParents, treeNodeCount + 1);
+                    }
+                    treeNodeComponents[treeNodeCount] = matchingComponent;
+                    treeNodeParents[treeNodeCount] = treeNode;
+                    treeNodeCount++;
+                }
+            }
+        }
+        childOffsets[treeNodeCount] = treeNodeCount;
+
+        // Copy the skeletons' edges to shared arrays
+        SpqrNode.Type[] types = new SpqrNode.Type[treeNodeCount];
+        int[] edgeOffsets = new int[treeNodeCount + 1];
+        int edgeCount = 0;
+        for (int treeNode = 0; treeNode < treeNodeCount; treeNode++) {
+            int component = treeNodeComponents[treeNode];
+            types[treeNode] = componentTypes[component];
+            edgeOffsets[treeNode] = edgeCount;
+            for (int edge = componentHeads[component]; edge >= 0; edge = componentEdgeNexts[edge]) {
+                edgeCount++;
+            }
+        }
+        edgeOffsets[treeNodeCount] = edgeCount;
+        int[] edgeVertex1s = new int[edgeCount];
+        int[] edgeVertex2s = new int[edgeCount];
+        boolean[] edgeIsVirtuals = new boolean[edgeCount];
+        for (int treeNode = 0; treeNode < treeNodeCount; treeNode++) {
+            int treeEdge = edgeOffsets[treeNode];
+            for (int edge = componentHeads[treeNodeComponents[treeNode]]; edge >= 0;
+                    edge = componentEdgeNexts[edge]) {
+                edgeVertex1s[treeEdge] = componentEdgeVertex1s[edge];
+                edgeVertex2s[treeEdge] = componentEdgeVertex2s[edge];
+                edgeIsVirtuals[treeEdge] = componentEdgeIsVirtuals[edge];
+                treeEdge++;
+            }
+        }
+        return new SpqrTree(
+            vertices, types, Arrays.copyOf(treeNodeParents, treeNodeCount),
+            Arrays.copyOf(childOffsets, treeNodeCount + 1), edgeOffsets, edgeVertex1s, edgeVertex2s, edgeIsVirtuals);
+    }
+
+    /**
+     * Returns the SPQR tree for the graph containing the specified vertices, as in SpqrTree.create(Vertex, Vertex).
+     * Assumes there is an edge with the specified endpoints.  Assumes the graph is biconnected.
+     */
+    public static SpqrTree create(Vertex reference1, Vertex reference2) {
+        // Use breadth-first search to number the vertices in the component and compute its adjacency lists
+        Map<Vertex, Integer> vertexIndices = new HashMap<Vertex, Integer>();
+        List<Vertex> graphVertices = new ArrayList<Vertex>();
+        vertexIndices.put(reference1, 0);
+        graphVertices.add(reference1);
+        int[] offsets = new int[16];
+        int[] neighbors = new int[16];
+        int offset = 0;
+        for (int i = 0; i < graphVertices.size(); i++) {
+            if (i + 1 >= offsets.length) {
+                offsets = grow(offsets, i + 2);
+            }
+            offsets[i] = offset;
+            Vertex vertex = graphVertices.get(i);
+            if (offset + vertex.edges.size() > neighbors.length) {
+                neighbors = grow(neighbors, offset + vertex.edges.size());
+            }
+            for (Vertex adjVertex : vertex.edges) {
+                Integer index = vertexIndices.get(adjVertex);
+                if (index == null) {
+                    index = graphVertices.size();
+                    vertexIndices.put(adjVertex, index);
+                    graphVertices.add(adjVertex);
+                }
+                neighbors[offset] = index;
+                offset++;
+            }
+        }
+        offsets[graphVertices.size()] = offset;
+
+        SpqrDecomposition decomposition = new SpqrDecomposition(
+            graphVertices.toArray(new Vertex[graphVertices.size()]), offsets, neighbors);
+        int[] components = decomposition.computeComponents();
+        return decomposition.createSpqrTree(components, reference2);
+    }
+
+    /**
+     * Returns the SPQR tree for the graph "graph", as in SpqrTree.create(CompactGraph, int, int).  Assumes there is an
+     * edge with the specified endpoints.  Assumes the graph is biconnected and does not have any repeated edges.
+     */
+    public static SpqrTree create(CompactGraph graph, int reference1, int reference2) {
+        // Use breadth-first search to renumber the vertices and compute the adjacency lists
+        int[] vertexIndices = new int[graph.vertexCount()];
+        Arrays.fill(vertexIndices, -1);
+        int[] graphVertices = new int[graph.vertexCount()];
+        vertexIndices[reference1] = 0;
+        graphVertices[0] = reference1;
+        int vertexCount = 1;
+        int[] offsets = new int[graph.vertexCount() + 1];
+        int[] neighbors = new int[graph.halfEdgeCount()];
+        int offset = 0;
+        for (int i = 0; i < vertexCount; i++) {
+            offsets[i] = offset;
+            int vertex = graphVertices[i];
+            for (int halfEdge = graph.offset(vertex); halfEdge < graph.offset(vertex + 1); halfEdge++) {
+                int adjVertex = graph.target(halfEdge);
+                if (vertexIndices[adjVertex] < 0) {
+                    vertexIndices[adjVertex] = vertexCount;
+                    graphVertices[vertexCount] = adjVertex;
+                    vertexCount++;
+                }
+                neighbors[offset] = vertexIndices[adjVertex];
+                offset++;
+            }
+        }
+        offsets[vertexCount] = offset;
+
+        Vertex[] vertices = new Vertex[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            vertices[i] = new Vertex(graphVertices[i]);
+        }
+        SpqrDecomposition decomposition = new SpqrDecomposition(vertices, offsets, neighbors);
+        int[] components = decomposition.computeComponents();
+        return decomposition.createSpqrTree(components, vertices[vertexIndices[reference2]]);
+    }
+}
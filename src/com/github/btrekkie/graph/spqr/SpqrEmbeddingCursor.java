@@ -0,0 +1,405 @@
+package com.github.btrekkie.graph.spqr;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
+import com.github.btrekkie.graph.planar.RotationSystem;
+
+/**
+ * A view of the "current" embedding in a range of the embeddings of an SpqrEmbeddings, which advances from each
+ * embedding to the next by altering the current embedding in place.  The view presents the embedding as a rotation
+ * system over half-edges, similar to RotationSystem.  The vertices are numbered as in SpqrTree.vertex, and each edge in
+ * the graph is represented as a pair of half-edges, one in each direction, which are twins of each other.  The
+ * numbering of the vertices and half-edges does not change as we advance.  To obtain an independent PlanarEmbedding
+ * for the current embedding, call "embedding".
+ *
+ * Advancing takes time proportional to the number of edges in the graph that are incident to the vertices in the one
+ * skeleton whose embedding changes, plus the sizes of the skeletons containing those vertices.  This is typically much
+ * less than the size of the graph.  An SpqrEmbeddingCursor is not safe for concurrent use, but cursors over disjoint
+ * ranges may be used concurrently.
+ */
+/* We advance from one embedding to the next using Knuth's Algorithm H for reflected mixed-radix Gray codes: we change
+ * the lowest digit that can move in its current direction, and we reverse the direction of each lower digit.  Then we
+ * recompute the clockwise orders of the vertices of the node for that digit, and we store them in "nextClockwise".
+ * The other vertices' clockwise orders are unchanged.
+ *
+ * The half-edges of the real edge with index i in embeddings.realTreeEdges are 2 * i, which leaves
+ * tree.edgeVertex1(embeddings.realTreeEdges[i]), and 2 * i + 1, which leaves the other endpoint.
+ */
+public class SpqrEmbeddingCursor {
+    /** The SpqrEmbeddings whose embeddings we are iterating over. */
+    private final SpqrEmbeddings embeddings;
+
+    /** The SPQR tree, i.e. embeddings.tree. */
+    private final SpqrTree tree;
+
+    /** The current value of each digit of the Gray code. */
+    private final int[] digits;
+
+    /** The direction in which each digit of the Gray code is moving: 1 or -1. */
+    private final int[] directions;
+
+    /**
+     * The equivalent of SpqrEmbeddings.rotations1 for the current embedding.  For each edge E in a P node, this is an
+     * array of the node's edges in clockwise order around the node's first pole, starting with the node's first edge.
+     * This array is shared by all of the node's edges.
+     */
+    private final int[][] rotations1;
+
+    /** The index of each edge E in rotations1[E]. */
+    private final int[] positions1;
+
+    /** The equivalent of rotations1 for tree.edgeVertex2(E).  For each edge E in a P node, this is rotations1[E]. */
+    private final int[][] rotations2;
+
+    /** The index of each edge E in rotations2[E]. */
+    private final int[] positions2;
+
+    /**
+     * The number of embeddings remaining in the range after the current embedding, or Long.MAX_VALUE if this is larger
+     * than Long.MAX_VALUE.  (A client could not iterate over Long.MAX_VALUE embeddings in any reasonable amount of
+     * time.)
+     */
+    private long remaining;
+
+    /** Whether we have called "next", so that there is a current embedding. */
+    private boolean hasCurrent;
+
+    /** The next half-edge clockwise from each half-edge around its source vertex, in the current embedding. */
+    private final int[] nextClockwise;
+
+    /** A half-edge leaving each vertex. */
+    private final int[] vertexHalfEdges;
+
+    /** The clockwise orders of the skeleton in each frame of the stack that "expand" uses.  See "rotations1". */
+    private final int[][] stackRotations;
+
+    /** The index in stackRotations[i] of the next edge to visit in each frame of the stack that "expand" uses. */
+    private final int[] stackPositions;
+
+    /** The number of edges remaining to visit in each frame of the stack that "expand" uses. */
+    private final int[] stackCounts;
+
+    /** The direction in which we are traversing stackRotations[i] in each frame of the stack that "expand" uses. */
+    private final int[] stackDirections;
+
+    /**
+     * Constructs a new SpqrEmbeddingCursor over embeddings start through end - 1 of the specified SpqrEmbeddings.
+     * Assumes 0 <= start <= end <= embeddings.count().
+     */
+    SpqrEmbeddingCursor(SpqrEmbeddings embeddings, BigInteger start, BigInteger end) {
+        this.embeddings = embeddings;
+        tree = embeddings.tree;
+        BigInteger rangeSize = end.subtract(start);
+        if (rangeSize.bitLength() < 64) {
+            remaining = rangeSize.longValue();
+        } else {
+            remaining = Long.MAX_VALUE;
+        }
+
+        digits = new int[embeddings.radices.length];
+        directions = new int[embeddings.radices.length];
+        if (remaining > 0) {
+            unrank(start);
+        }
+        rotations1 = embeddings.rotations1.clone();
+        positions1 = embeddings.positions1.clone();
+        rotations2 = embeddings.rotations2.clone();
+        positions2 = embeddings.positions2.clone();
+        for (int node = 0; node < tree.nodeCount(); node++) {
+            if (tree.type(node) == SpqrNode.Type.P) {
+                initParallelRotation(node);
+            }
+        }
+
+        nextClockwise = new int[2 * embeddings.realTreeEdges.length];
+        vertexHalfEdges = new int[tree.vertexCount()];
+        int nodeCount = tree.nodeCount();
+        stackRotations = new int[nodeCount][];
+        stackPositions = new int[nodeCount];
+        stackCounts = new int[nodeCount];
+        stackDirections = new int[nodeCount];
+    }
+
+    /**
+     * Sets "digits" and "directions" to the state of the Gray code for the specified rank.  Assumes 0 <= rank <
+     * embeddings.count().
+     */
+    private void unrank(BigInteger rank) {
+        // Compute the products of the radices of the lower digits
+        int[] radices = embeddings.radices;
+        BigInteger[] products = new BigInteger[radices.length + 1];
+        products[0] = BigInteger.ONE;
+        for (int i = 0; i < radices.length; i++) {
+            products[i + 1] = products[i].multiply(BigInteger.valueOf(radices[i]));
+        }
+
+        // The sequence for digits i, i - 1, ..., 0 consists of blocks in which digit i is 0, 1, ..., radices[i] - 1.
+        // The lower digits' sequence is reversed in the blocks in which digit i is odd.  So digit i moves downward if
+        // the sum of the higher digits is odd.
+        boolean isReversed = false;
+        boolean isDescending = false;
+        for (int i = radices.length - 1; i >= 0; i--) {
+            if (isReversed) {
+                rank = products[i + 1].subtract(BigInteger.ONE).subtract(rank);
+            }
+            BigInteger[] quotientAndRemainder = rank.divideAndRemainder(products[i]);
+            digits[i] = quotientAndRemainder[0].intValue();
+            directions[i] = isDescending ? -1 : 1;
+            rank = quotientAndRemainder[1];
+            isReversed = digits[i] % 2 != 0;
+            isDescending ^= isReversed;
+        }
+    }
+
+    /** Sets the entries of rotations1, positions1, rotations2, and positions2 for the specified P node. */
+    private void initParallelRotation(int node) {
+        int offset = tree.edgeOffset(node);
+        int edgeCount = tree.edgeCount(node);
+        List<Integer> order = new ArrayList<Integer>(edgeCount);
+        if (edgeCount > 1) {
+            order.add(offset + 1);
+        }
+        for (int i = 2; i < edgeCount; i++) {
+            order.add(digits[embeddings.firstDigits[node] + i - 2], offset + i);
+        }
+        order.add(0, offset);
+
+        int[] rotation = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            int edge = order.get(i);
+            rotation[i] = edge;
+            rotations1[edge] = rotation;
+            positions1[edge] = i;
+            rotations2[edge] = rotation;
+            positions2[edge] = i;
+        }
+    }
+
+    /**
+     * Returns the direction in which to traverse the clockwise order of the edges around the specified vertex in the
+     * skeleton of the specified node: 1 for clockwise and -1 for counterclockwise.
+     */
+    private int direction(int node, int vertex) {
+        switch (tree.type(node)) {
+            case P:
+                return vertex == tree.edgeVertex1(tree.edgeOffset(node)) ? 1 : -1;
+            case R:
+                int firstDigit = embeddings.firstDigits[node];
+                return firstDigit >= 0 && digits[firstDigit] != 0 ? -1 : 1;
+            default:
+                return 1;
+        }
+    }
+
+    /** Returns the half-edge for the specified real edge in "tree" that leaves the specified vertex. */
+    private int halfEdge(int edge, int vertex) {
+        int halfEdge = 2 * embeddings.realEdgeIndices[edge];
+        return tree.edgeVertex1(edge) == vertex ? halfEdge : halfEdge + 1;
+    }
+
+    /** Sets the entries of nextClockwise and vertexHalfEdges for the half-edges leaving the specified vertex. */
+    private void expand(int vertex) {
+        // Traverse the skeletons containing the vertex in depth-first order, using an explicit stack, as the depth may
+        // be large
+        int firstHalfEdge = -1;
+        int prevHalfEdge = -1;
+        int startEdge = embeddings.vertexEdges[vertex];
+        boolean isVertex1 = tree.edgeVertex1(startEdge) == vertex;
+        stackRotations[0] = isVertex1 ? rotations1[startEdge] : rotations2[startEdge];
+        stackPositions[0] = isVertex1 ? positions1[startEdge] : positions2[startEdge];
+        stackCounts[0] = stackRotations[0].length;
+        stackDirections[0] = direction(embeddings.edgeNodes[startEdge], vertex);
+        int depth = 1;
+        while (depth > 0) {
+            int frame = depth - 1;
+            if (stackCounts[frame] == 0) {
+                depth--;
+                continue;
+            }
+            int[] rotation = stackRotations[frame];
+            int position = stackPositions[frame];
+            int edge = rotation[position];
+            stackPositions[frame] = (position + stackDirections[frame] + rotation.length) % rotation.length;
+            stackCounts[frame]--;
+
+            if (!tree.isVirtual(edge)) {
+                int halfEdge = halfEdge(edge, vertex);
+                if (prevHalfEdge >= 0) {
+                    nextClockwise[prevHalfEdge] = halfEdge;
+                } else {
+                    firstHalfEdge = halfEdge;
+                }
+                prevHalfEdge = halfEdge;
+            } else {
+                // Splice in the adjacent skeleton, starting after the matching virtual edge
+                int match = embeddings.virtualMatches[edge];
+                boolean isMatchVertex1 = tree.edgeVertex1(match) == vertex;
+                int[] matchRotation = isMatchVertex1 ? rotations1[match] : rotations2[match];
+                int matchPosition = isMatchVertex1 ? positions1[match] : positions2[match];
+                int direction = direction(embeddings.edgeNodes[match], vertex);
+                stackRotations[depth] = matchRotation;
+                stackPositions[depth] = (matchPosition + direction + matchRotation.length) % matchRotation.length;
+                stackCounts[depth] = matchRotation.length - 1;
+                stackDirections[depth] = direction;
+                depth++;
+            }
+        }
+        nextClockwise[prevHalfEdge] = firstHalfEdge;
+        vertexHalfEdges[vertex] = firstHalfEdge;
+    }
+
+    /**
+     * Swaps the specified edge of the specified P node with the nearest edge in the specified direction in
+     * rotations1[edge] whose index in the node is lower than that of the specified edge.
+     */
+    private void moveParallelEdge(int node, int edge, int direction) {
+        int[] rotation = rotations1[edge];
+        int position = positions1[edge];
+        int otherPosition = position + direction;
+        while (rotation[otherPosition] > edge) {
+            otherPosition += direction;
+        }
+        int otherEdge = rotation[otherPosition];
+        rotation[position] = otherEdge;
+        rotation[otherPosition] = edge;
+        positions1[edge] = otherPosition;
+        positions2[edge] = otherPosition;
+        positions1[otherEdge] = position;
+        positions2[otherEdge] = position;
+    }
+
+    /** Advances the Gray code to the next embedding, and updates nextClockwise accordingly. */
+    private void advance() {
+        int[] radices = embeddings.radices;
+        int digit = 0;
+        while (digits[digit] + directions[digit] < 0 || digits[digit] + directions[digit] >= radices[digit]) {
+            directions[digit] = -directions[digit];
+            digit++;
+        }
+        digits[digit] += directions[digit];
+
+        int node = embeddings.digitNodes[digit];
+        if (tree.type(node) == SpqrNode.Type.P) {
+            int edge = tree.edgeOffset(node) + digit - embeddings.firstDigits[node] + 2;
+            moveParallelEdge(node, edge, directions[digit]);
+        }
+        for (int vertex : embeddings.nodeVertices[node]) {
+            expand(vertex);
+        }
+    }
+
+    /** Returns whether there are any embeddings in the range after the current embedding. */
+    public boolean hasNext() {
+        return remaining > 0;
+    }
+
+    /**
+     * Advances to the next embedding in the range, or to the first embedding if we have not called "next" yet.  This
+     * alters the results of the other methods accordingly.  Throws a NoSuchElementException if there are no more
+     * embeddings in the range.
+     */
+    public void next() {
+        if (remaining == 0) {
+            throw new NoSuchElementException();
+        }
+        if (hasCurrent) {
+            advance();
+        } else {
+            hasCurrent = true;
+            for (int vertex = 0; vertex < tree.vertexCount(); vertex++) {
+                expand(vertex);
+            }
+        }
+        if (remaining < Long.MAX_VALUE) {
+            remaining--;
+        }
+    }
+
+    /** Throws an IllegalStateException if we have not called "next" yet. */
+    private void assertHasCurrent() {
+        if (!hasCurrent) {
+            throw new IllegalStateException("There is no current embedding.  Call next() first.");
+        }
+    }
+
+    /** Returns the number of half-edges, which is twice the number of edges in the graph. */
+    public int halfEdgeCount() {
+        return nextClockwise.length;
+    }
+
+    /** Returns the vertex number of the start of the specified half-edge. */
+    public int source(int halfEdge) {
+        int edge = embeddings.realTreeEdges[halfEdge >> 1];
+        return (halfEdge & 1) == 0 ? tree.edgeVertex1(edge) : tree.edgeVertex2(edge);
+    }
+
+    /** Returns the vertex number of the end of the specified half-edge. */
+    public int target(int halfEdge) {
+        return source(halfEdge ^ 1);
+    }
+
+    /** Returns the half-edge in the opposite direction of the specified half-edge. */
+    public int twin(int halfEdge) {
+        return halfEdge ^ 1;
+    }
+
+    /**
+     * Returns a half-edge leaving the specified vertex in the current embedding.  This may differ from one embedding
+     * to the next.
+     */
+    public int vertexHalfEdge(int vertex) {
+        assertHasCurrent();
+        return vertexHalfEdges[vertex];
+    }
+
+    /** Returns the next half-edge clockwise from the specified half-edge around its source vertex. */
+    public int nextClockwise(int halfEdge) {
+        assertHasCurrent();
+        return nextClockwise[halfEdge];
+    }
+
+    /**
+     * Returns the half-edge that follows the specified half-edge on its face, as in RotationSystem.nextOnFace.  This is
+     * the half-edge leaving the end of "halfEdge" that is next clockwise from the twin of "halfEdge".
+     */
+    public int nextOnFace(int halfEdge) {
+        assertHasCurrent();
+        return nextClockwise[halfEdge ^ 1];
+    }
+
+    /**
+     * Returns a new PlanarEmbedding for the current embedding, which does not change when we advance.  Its external
+     * face is the face of vertexHalfEdge(0).  This takes O(V + E) time, where V and E are the numbers of vertices and
+     * edges in the graph.
+     */
+    public PlanarEmbedding embedding() {
+        assertHasCurrent();
+        int[] offsets = new int[tree.vertexCount() + 1];
+        int[] targets = new int[nextClockwise.length];
+        int index = 0;
+        for (int vertex = 0; vertex < tree.vertexCount(); vertex++) {
+            offsets[vertex] = index;
+            int startHalfEdge = vertexHalfEdges[vertex];
+            int halfEdge = startHalfEdge;
+            do {
+                targets[index] = target(halfEdge);
+                index++;
+                halfEdge = nextClockwise[halfEdge];
+            } while (halfEdge != startHalfEdge);
+        }
+        offsets[tree.vertexCount()] = index;
+
+        // The external face is the face of vertexHalfEdges[0], which is half-edge 0 in the RotationSystem
+        Vertex[] vertices = new Vertex[tree.vertexCount()];
+        for (int vertex = 0; vertex < vertices.length; vertex++) {
+            vertices[vertex] = tree.vertex(vertex);
+        }
+        RotationSystem rotationSystem = RotationSystem.create(vertices, offsets, targets);
+        return PlanarEmbedding.createTrusted(rotationSystem, 0);
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.btrekkie.graph.spqr;
+
+import java.math.BigInteger;
+import java.util.Iterator;
+
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
+
+/**
+ * An iterator over a range of the embeddings of an SpqrEmbeddings, as returned by SpqrEmbeddings.iterator.  See the
+ * comments for the implementation of SpqrEmbeddings.
+ */
+/* We advance an SpqrEmbeddingCursor, and return a copy of its current embedding.  Each embedding we return is a
+ * separate PlanarEmbedding, which must not change when we advance, so each call to "next" takes O(V + E) time, where V
+ * and E are the numbers of vertices and edges in the graph.  Clients that do not need a separate PlanarEmbedding for
+ * each embedding should use SpqrEmbeddingCursor directly.
+ */
+class SpqrEmbeddingIterator implements Iterator<PlanarEmbedding> {
+    /** The cursor whose embeddings we return. */
+    private final SpqrEmbeddingCursor cursor;
+
+    /**
+     * Constructs a new SpqrEmbeddingIterator over embeddings start through end - 1 of the specified SpqrEmbeddings.
+     * Assumes 0 <= start <= end <= embeddings.count().
+     */
+    SpqrEmbeddingIterator(SpqrEmbeddings embeddings, BigInteger start, BigInteger end) {
+        cursor = new SpqrEmbeddingCursor(embeddings, start, end);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor.hasNext();
+    }
+
+    @Override
+    public PlanarEmbedding next() {
+        cursor.next();
+        return cursor.embedding();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,368 @@
+package com.github.btrekkie.graph.spqr;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.github.btrekkie.graph.CompactGraph;
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
+import com.github.btrekkie.graph.planar.PlanarityTester;
+
+/**
+ * The combinatorial embeddings of a biconnected graph, as given by its SPQR tree.  As described in the comments for
+ * SpqrNode, each combinatorial embedding of the graph corresponds to a choice of combinatorial embedding for each
+ * skeleton: a cyclic order of the edges of each P node, and one of the two mirror-image embeddings of each R node.  So
+ * the number of embeddings is the product of (k - 1)! over the P nodes, where k is the number of edges in the
+ * skeleton, times 2 to the power of the number of R nodes with at least four vertices, provided the graph is planar.
+ *
+ * SpqrEmbeddings numbers the embeddings 0 through count() - 1, and it can iterate over any range of them without
+ * materializing the others, so clients may process disjoint ranges concurrently.  Consecutive embeddings differ in a
+ * single skeleton: either two edges of a P node trade places, or an R node is flipped.  SpqrEmbeddingCursor exploits
+ * this by altering a single rotation system in place, only recomputing the clockwise orders of the vertices of that
+ * skeleton.  By contrast, each embedding the iterator returns is a full, independent PlanarEmbedding, including its
+ * own RotationSystem, so producing each embedding takes O(V + E) time, where V and E are the numbers of vertices and
+ * edges.
+ */
+/* The number of an embedding is the rank of its choices in a reflected mixed-radix Gray code.  Each R node with at
+ * least four vertices contributes a digit with radix 2, indicating whether it is flipped relative to a reference
+ * embedding of its skeleton.  Each P node with edges e_0, ..., e_{k - 1} contributes digits d_2, ..., d_{k - 1} with
+ * radices 2, ..., k - 1.  Starting with the list [e_1], we insert each edge e_j at index d_j, and the clockwise order
+ * of the edges around the first pole is e_0 followed by the resulting list.  (The order around the second pole is the
+ * reverse.)  Changing a digit d_j by one swaps e_j with some other edge.
+ *
+ * To compute the clockwise order around a vertex V in the graph, we start at the skeleton containing V that is
+ * closest to the root, and proceed clockwise around V in the skeleton.  Whenever we reach a virtual edge, we
+ * recursively splice in the clockwise order around V in the adjacent skeleton, starting after the matching virtual
+ * edge.
+ */
+public class SpqrEmbeddings {
+    /** The SPQR tree. */
+    final SpqrTree tree;
+
+    /** The matching virtual edge of each edge in "tree", as in SpqrTree.virtualMatches(). */
+    final int[] virtualMatches;
+
+    /** The node containing each edge in "tree". */
+    final int[] edgeNodes;
+
+    /** The index of each edge in "tree" in realTreeEdges, or -1 if it is a virtual edge. */
+    final int[] realEdgeIndices;
+
+    /** The real edges in "tree", in order. */
+    final int[] realTreeEdges;
+
+    /**
+     * An edge incident to each vertex in the skeleton of the node closest to the root whose skeleton contains the
+     * vertex.
+     */
+    final int[] vertexEdges;
+
+    /** The distinct vertices in the skeleton of each node. */
+    final int[][] nodeVertices;
+
+    /**
+     * The edges incident to tree.edgeVertex1(E) in the skeleton of the node containing each edge E, in clockwise order
+     * relative to the reference embedding of the skeleton, or null if the node is a P node.
+     */
+    final int[][] rotations1;
+
+    /** The index of each edge E in rotations1[E], or 0 if the node containing E is a P node. */
+    final int[] positions1;
+
+    /** The equivalent of rotations1 for tree.edgeVertex2(E). */
+    final int[][] rotations2;
+
+    /** The index of each edge E in rotations2[E], or 0 if the node containing E is a P node. */
+    final int[] positions2;
+
+    /** The node for each digit of the Gray code. */
+    final int[] digitNodes;
+
+    /** The radix of each digit of the Gray code. */
+    final int[] radices;
+
+    /** The index of the first digit for each node, or -1 if the node does not have any digits. */
+    final int[] firstDigits;
+
+    /** The number of embeddings. */
+    private final BigInteger count;
+
+    /** Constructs a new SpqrEmbeddings for the graph with the specified SPQR tree. */
+    public SpqrEmbeddings(SpqrTree tree) {
+        this.tree = tree;
+        virtualMatches = tree.virtualMatches();
+        int edgeCount = tree.skeletonEdgeCount();
+        edgeNodes = new int[edgeCount];
+        realEdgeIndices = new int[edgeCount];
+        int realEdgeCount = 0;
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (tree.isVirtual(edge)) {
+                realEdgeIndices[edge] = -1;
+            } else {
+                realEdgeIndices[edge] = realEdgeCount;
+                realEdgeCount++;
+            }
+        }
+        realTreeEdges = new int[realEdgeCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (!tree.isVirtual(edge)) {
+                realTreeEdges[realEdgeIndices[edge]] = edge;
+            }
+        }
+        vertexEdges = new int[tree.vertexCount()];
+        for (int node = tree.nodeCount() - 1; node >= 0; node--) {
+            for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+                edgeNodes[edge] = node;
+                vertexEdges[tree.edgeVertex1(edge)] = edge;
+                vertexEdges[tree.edgeVertex2(edge)] = edge;
+            }
+        }
+
+        nodeVertices = new int[tree.nodeCount()][];
+        int[] lastNodes = new int[tree.vertexCount()];
+        for (int vertex = 0; vertex < lastNodes.length; vertex++) {
+            lastNodes[vertex] = -1;
+        }
+        for (int node = 0; node < tree.nodeCount(); node++) {
+            List<Integer> vertices = new ArrayList<Integer>();
+            for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+                for (int vertex : new int[]{tree.edgeVertex1(edge), tree.edgeVertex2(edge)}) {
+                    if (lastNodes[vertex] != node) {
+                        lastNodes[vertex] = node;
+                        vertices.add(vertex);
+                    }
+                }
+            }
+            nodeVertices[node] = new int[vertices.size()];
+            for (int i = 0; i < vertices.size(); i++) {
+                nodeVertices[node][i] = vertices.get(i);
+            }
+        }
+
+        rotations1 = new int[edgeCount][];
+        positions1 = new int[edgeCount];
+        rotations2 = new int[edgeCount][];
+        positions2 = new int[edgeCount];
+        boolean isPlanar = true;
+        List<Integer> digitNodeList = new ArrayList<Integer>();
+        List<Integer> radixList = new ArrayList<Integer>();
+        firstDigits = new int[tree.nodeCount()];
+        for (int node = 0; node < tree.nodeCount(); node++) {
+            firstDigits[node] = -1;
+            if (tree.type(node) == SpqrNode.Type.P) {
+                if (tree.edgeCount(node) > 2) {
+                    firstDigits[node] = digitNodeList.size();
+                    for (int radix = 2; radix < tree.edgeCount(node); radix++) {
+                        digitNodeList.add(node);
+                        radixList.add(radix);
+                    }
+                }
+            } else if (tree.type(node) == SpqrNode.Type.S) {
+                addCycleRotations(node);
+            } else if (!addRigidRotations(node)) {
+                isPlanar = false;
+            } else if (tree.edgeCount(node) > 1) {
+                firstDigits[node] = digitNodeList.size();
+                digitNodeList.add(node);
+                radixList.add(2);
+            }
+        }
+
+        digitNodes = new int[digitNodeList.size()];
+        radices = new int[radixList.size()];
+        BigInteger product = BigInteger.ONE;
+        for (int i = 0; i < digitNodes.length; i++) {
+            digitNodes[i] = digitNodeList.get(i);
+            radices[i] = radixList.get(i);
+            product = product.multiply(BigInteger.valueOf(radices[i]));
+        }
+        if (isPlanar) {
+            count = product;
+        } else {
+            count = BigInteger.ZERO;
+        }
+    }
+
+    /**
+     * Sets the rotations1, positions1, rotations2, and positions2 entries for the specified edge and endpoint to the
+     * specified clockwise order and index.
+     */
+    private void setRotation(int edge, int vertex, int[] rotation, int position) {
+        if (tree.edgeVertex1(edge) == vertex) {
+            rotations1[edge] = rotation;
+            positions1[edge] = position;
+        } else {
+            rotations2[edge] = rotation;
+            positions2[edge] = position;
+        }
+    }
+
+    /** Sets the rotations1, positions1, rotations2, and positions2 entries for the specified S node. */
+    private void addCycleRotations(int node) {
+        // Each vertex in a cycle has two incident edges, so any order is clockwise
+        Map<Integer, int[]> vertexRotations = new HashMap<Integer, int[]>();
+        for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+            for (int vertex : new int[]{tree.edgeVertex1(edge), tree.edgeVertex2(edge)}) {
+                int[] rotation = vertexRotations.get(vertex);
+                if (rotation == null) {
+                    rotation = new int[]{edge, -1};
+                    vertexRotations.put(vertex, rotation);
+                    setRotation(edge, vertex, rotation, 0);
+                } else {
+                    rotation[1] = edge;
+                    setRotation(edge, vertex, rotation, 1);
+                }
+            }
+        }
+    }
+
+    /** Returns the key for the ordered pair (vertex1, vertex2). */
+    private static long pairKey(int vertex1, int vertex2) {
+        return ((long)vertex1 << 32) | vertex2;
+    }
+
+    /**
+     * Sets the rotations1, positions1, rotations2, and positions2 entries for the specified R node, using an arbitrary
+     * planar embedding of the skeleton as the reference embedding.  Returns false if the skeleton is not planar.
+     */
+    private boolean addRigidRotations(int node) {
+        // Convert the skeleton to a Graph.  R skeletons do not have repeated edges.
+        Graph graph = new Graph();
+        Map<Integer, Vertex> indexToVertex = new HashMap<Integer, Vertex>();
+        Map<Vertex, Integer> vertexToIndex = new HashMap<Vertex, Integer>();
+        Map<Long, Integer> pairEdges = new HashMap<Long, Integer>();
+        for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+            int[] edgeIndices = new int[]{tree.edgeVertex1(edge), tree.edgeVertex2(edge)};
+            Vertex[] edgeVertices = new Vertex[2];
+            for (int i = 0; i < 2; i++) {
+                edgeVertices[i] = indexToVertex.get(edgeIndices[i]);
+                if (edgeVertices[i] == null) {
+                    edgeVertices[i] = graph.createVertex();
+                    indexToVertex.put(edgeIndices[i], edgeVertices[i]);
+                    vertexToIndex.put(edgeVertices[i], edgeIndices[i]);
+                }
+            }
+            edgeVertices[0].addEdge(edgeVertices[1]);
+            pairEdges.put(pairKey(edgeIndices[0], edgeIndices[1]), edge);
+            pairEdges.put(pairKey(edgeIndices[1], edgeIndices[0]), edge);
+        }
+
+        PlanarEmbedding embedding = PlanarEmbedding.compute(graph.vertices.iterator().next());
+        if (embedding == null) {
+            if (new PlanarityTester().isPlanar(CompactGraph.create(graph))) {
+                throw new IllegalStateException("Failed to embed a planar skeleton");
+            }
+            return false;
+        }
+        for (Entry<Vertex, List<Vertex>> entry : embedding.clockwiseOrder.entrySet()) {
+            int vertex = vertexToIndex.get(entry.getKey());
+            List<Vertex> clockwiseOrder = entry.getValue();
+            int[] rotation = new int[clockwiseOrder.size()];
+            for (int i = 0; i < rotation.length; i++) {
+                rotation[i] = pairEdges.get(pairKey(vertex, vertexToIndex.get(clockwiseOrder.get(i))));
+                setRotation(rotation[i], vertex, rotation, i);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of combinatorial embeddings of the graph with the specified SPQR tree.  This is equal to
+     * new SpqrEmbeddings(tree).count(), but it is faster, as it only tests the R skeletons for planarity rather than
+     * embedding them.  It takes time proportional to the size of the tree, plus the time to multiply the BigIntegers.
+     */
+    public static BigInteger count(SpqrTree tree) {
+        PlanarityTester planarityTester = new PlanarityTester();
+        BigInteger count = BigInteger.ONE;
+        for (int node = 0; node < tree.nodeCount(); node++) {
+            if (tree.type(node) == SpqrNode.Type.P) {
+                for (int radix = 2; radix < tree.edgeCount(node); radix++) {
+                    count = count.multiply(BigInteger.valueOf(radix));
+                }
+            } else if (tree.type(node) == SpqrNode.Type.R && tree.edgeCount(node) > 1) {
+                // Renumber the skeleton's vertices 0 through V - 1 and test the skeleton for planarity
+                Map<Integer, Integer> vertexIndices = new HashMap<Integer, Integer>();
+                int[] degrees = new int[2 * tree.edgeCount(node)];
+                for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+                    for (int vertex : new int[]{tree.edgeVertex1(edge), tree.edgeVertex2(edge)}) {
+                        Integer index = vertexIndices.get(vertex);
+                        if (index == null) {
+                            index = vertexIndices.size();
+                            vertexIndices.put(vertex, index);
+                        }
+                        degrees[index]++;
+                    }
+                }
+                int[] offsets = new int[vertexIndices.size() + 1];
+                for (int i = 0; i < vertexIndices.size(); i++) {
+                    offsets[i + 1] = offsets[i] + degrees[i];
+                }
+                int[] neighbors = new int[offsets[offsets.length - 1]];
+                int[] ends = new int[vertexIndices.size()];
+                System.arraycopy(offsets, 0, ends, 0, ends.length);
+                for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+                    int index1 = vertexIndices.get(tree.edgeVertex1(edge));
+                    int index2 = vertexIndices.get(tree.edgeVertex2(edge));
+                    neighbors[ends[index1]] = index2;
+                    ends[index1]++;
+                    neighbors[ends[index2]] = index1;
+                    ends[index2]++;
+                }
+                if (!planarityTester.isPlanar(new CompactGraph(offsets, neighbors))) {
+                    return BigInteger.ZERO;
+                }
+                count = count.shiftLeft(1);
+            }
+        }
+        return count;
+    }
+
+    /** Returns the number of combinatorial embeddings of the graph.  This is 0 if the graph is not planar. */
+    public BigInteger count() {
+        return count;
+    }
+
+    /** Returns an iterator over all of the embeddings, in order.  See iterator(BigInteger, BigInteger). */
+    public Iterator<PlanarEmbedding> iterator() {
+        return iterator(BigInteger.ZERO, count);
+    }
+
+    /**
+     * Returns an iterator over embeddings start through end - 1, in order.  Each embedding's external face is an
+     * arbitrary face.  The iterator does not support "remove".  Iterators over disjoint ranges may be used
+     * concurrently; for example, a client may split the range [0, count()) into several pieces and process them in
+     * parallel.
+     */
+    public Iterator<PlanarEmbedding> iterator(BigInteger start, BigInteger end) {
+        checkRange(start, end);
+        return new SpqrEmbeddingIterator(this, start, end);
+    }
+
+    /** Returns a cursor over all of the embeddings, in order.  See cursor(BigInteger, BigInteger). */
+    public SpqrEmbeddingCursor cursor() {
+        return cursor(BigInteger.ZERO, count);
+    }
+
+    /**
+     * Returns a cursor over embeddings start through end - 1, in order.  Unlike "iterator", the cursor advances by
+     * altering its current embedding in place, so it is much faster for clients that examine each embedding and then
+     * discard it.  Cursors over disjoint ranges may be used concurrently.
+     */
+    public SpqrEmbeddingCursor cursor(BigInteger start, BigInteger end) {
+        checkRange(start, end);
+        return new SpqrEmbeddingCursor(this, start, end);
+    }
+
+    /** Throws an IllegalArgumentException if [start, end) is not a valid range of embeddings. */
+    private void checkRange(BigInteger start, BigInteger end) {
+        if (start.signum() < 0 || end.compareTo(count) > 0 || start.compareTo(end) > 0) {
+            throw new IllegalArgumentException("The range [" + start + ", " + end + ") is not valid");
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.github.btrekkie.graph.spqr;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.btrekkie.graph.CompactGraph;
+import com.github.btrekkie.graph.MultiGraph;
+import com.github.btrekkie.graph.MultiVertex;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.util.UnorderedPair;
+
+/**
+ * A compact representation of an SPQR tree, as in SpqrNode.  The nodes are the integers 0 through nodeCount() - 1, in
+ * breadth-first order starting at the root node 0, and each node's skeleton is stored as a range of indices into
+ * arrays shared by all of the nodes.  The children of node N are nodes childOffset(N) through childOffset(N + 1) - 1,
+ * and the edges in its skeleton are edges edgeOffset(N) through edgeOffset(N + 1) - 1.  Edge E connects
+ * vertex(edgeVertex1(E)) and vertex(edgeVertex2(E)).
+ *
+ * An SpqrTree uses a small fraction of the memory of the equivalent tree of SpqrNodes, so it is suitable for clients
+ * that only need the shape of the tree and the node types, or that only examine one skeleton at a time.  The SpqrNode
+ * for a skeleton is created only on request, using createNode(int) or createSpqrNodes().
+ */
+public class SpqrTree {
+    /** The vertices of the graph.  The elements of edgeVertex1s and edgeVertex2s are indices into this array. */
+    private final Vertex[] vertices;
+
+    /** The type of each node. */
+    private final SpqrNode.Type[] types;
+
+    /** The parent of each node, or -1 for the root node. */
+    private final int[] parents;
+
+    /** The offsets of the ranges of the nodes' children.  This has nodeCount() + 1 elements. */
+    private final int[] childOffsets;
+
+    /**
+     * The offsets of the ranges of the edges in the nodes' skeletons.  This has nodeCount() + 1 elements, and its last
+     * element is the total number of edges in all of the skeletons.
+     */
+    private final int[] edgeOffsets;
+
+    /** The index in "vertices" of the first endpoint of each edge. */
+    private final int[] edgeVertex1s;
+
+    /** The index in "vertices" of the second endpoint of each edge. */
+    private final int[] edgeVertex2s;
+
+    /** Whether each edge is a virtual edge.  See the comments for SpqrNode. */
+    private final boolean[] edgeIsVirtuals;
+
+    /**
+     * An array of length vertices.length whose elements are all null, or null if we have not created it yet.  We use
+     * it as scratch space when creating SpqrNodes.
+     */
+    private MultiVertex[] vertexToMultiVertex;
+
+    /** Constructs a new SpqrTree.  The caller must not modify the arrays after calling this constructor. */
+    SpqrTree(
+            Vertex[] vertices, SpqrNode.Type[] types, int[] parents, int[] childOffsets, int[] edgeOffsets,
+            int[] edgeVertex1s, int[] edgeVertex2s, boolean[] edgeIsVirtuals) {
+        this.vertices = vertices;
+        this.types = types;
+        this.parents = parents;
+        this.childOffsets = childOffsets;
+        this.edgeOffsets = edgeOffsets;
+        this.edgeVertex1s = edgeVertex1s;
+        this.edgeVertex2s = edgeVertex2s;
+        this.edgeIsVirtuals = edgeIsVirtuals;
+    }
+
+    /**
+     * Returns the SPQR tree for the graph containing the specified vertices.  The root node is the one containing the
+     * real edge with the specified endpoints.  Assumes there is an edge with the specified endpoints.  Assumes the
+     * graph is biconnected.  The nodes and skeletons are the same as those of SpqrNode.create(reference1, reference2),
+     * in the same order.
+     */
+    public static SpqrTree create(Vertex reference1, Vertex reference2) {
+        return SpqrDecomposition.create(reference1, reference2);
+    }
+
+    /**
+     * Returns the SPQR tree for the specified graph, as in create(Vertex, Vertex), where the reference edge is the edge
+     * from vertex number reference1 to vertex number reference2.  The tree refers to Vertex objects that this method
+     * creates for the vertices, whose debugIds are their vertex numbers and whose "edges" fields are empty.  This runs
+     * directly on the adjacency arrays of "graph", so it does not create a Set of adjacent vertices for each vertex.
+     * Assumes there is an edge with the specified endpoints.  Assumes the graph is biconnected and does not have any
+     * repeated edges.
+     */
+    public static SpqrTree create(CompactGraph graph, int reference1, int reference2) {
+        return SpqrDecomposition.create(graph, reference1, reference2);
+    }
+
+    /** Returns the number of nodes in the tree. */
+    public int nodeCount() {
+        return types.length;
+    }
+
+    /** Returns the number of vertices in the graph. */
+    public int vertexCount() {
+        return vertices.length;
+    }
+
+    /** Returns the vertex with the specified index.  The endpoints of the skeleton edges are indices of vertices. */
+    public Vertex vertex(int index) {
+        return vertices[index];
+    }
+
+    /** Returns the type of the specified node. */
+    public SpqrNode.Type type(int node) {
+        return types[node];
+    }
+
+    /** Returns the parent of the specified node, or -1 if it is the root node. */
+    public int parent(int node) {
+        return parents[node];
+    }
+
+    /**
+     * Returns the first child of the specified node.  The children of node N are childOffset(N) through
+     * childOffset(N + 1) - 1.  childOffset(nodeCount()) is nodeCount().
+     */
+    public int childOffset(int node) {
+        return childOffsets[node];
+    }
+
+    /**
+     * Returns the total number of edges in all of the skeletons.  The edges are identified by the integers 0 through
+     * skeletonEdgeCount() - 1.
+     */
+    public int skeletonEdgeCount() {
+        return edgeVertex1s.length;
+    }
+
+    /**
+     * Returns the first edge in the skeleton of the specified node.  The edges in the skeleton of node N are
+     * edgeOffset(N) through edgeOffset(N + 1) - 1.  edgeOffset(nodeCount()) is skeletonEdgeCount().
+     */
+    public int edgeOffset(int node) {
+        return edgeOffsets[node];
+    }
+
+    /** Returns the number of edges in the skeleton of the specified node. */
+    public int edgeCount(int node) {
+        return edgeOffsets[node + 1] - edgeOffsets[node];
+    }
+
+    /** Returns the index of the first endpoint of the specified edge. */
+    public int edgeVertex1(int edge) {
+        return edgeVertex1s[edge];
+    }
+
+    /** Returns the index of the second endpoint of the specified edge. */
+    public int edgeVertex2(int edge) {
+        return edgeVertex2s[edge];
+    }
+
+    /** Returns whether the specified edge is a virtual edge.  See the comments for SpqrNode. */
+    public boolean isVirtual(int edge) {
+        return edgeIsVirtuals[edge];
+    }
+
+    /** Returns whether the skeleton of the specified node contains at least one real (non-virtual) edge. */
+    public boolean hasRealEdge(int node) {
+        for (int edge = edgeOffsets[node]; edge < edgeOffsets[node + 1]; edge++) {
+            if (!edgeIsVirtuals[edge]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns the key for the pair of vertices {vertex1, vertex2}, irrespective of their order. */
+    private static long pairKey(int vertex1, int vertex2) {
+        if (vertex1 <= vertex2) {
+            return ((long)vertex1 << 32) | vertex2;
+        } else {
+            return ((long)vertex2 << 32) | vertex1;
+        }
+    }
+
+    /**
+     * Returns an array indicating the matching virtual edge of each edge.  Element E of the result is the index of the
+     * virtual edge in an adjacent node that matches edge E, or -1 if E is a real edge.  Where several virtual edges in
+     * a P node connect the same pair of vertices, the choice of which one matches the edge to each adjacent node is
+     * arbitrary; all such choices describe the same tree.
+     */
+    public int[] virtualMatches() {
+        int[] matches = new int[edgeVertex1s.length];
+        for (int edge = 0; edge < matches.length; edge++) {
+            matches[edge] = -1;
+        }
+
+        // Adjacent nodes have exactly two vertices in common, namely the endpoints of the virtual edges between them.
+        // So a virtual edge in a child matches an unmatched virtual edge in the parent if and only if they have the
+        // same endpoints.
+        for (int node = 0; node < nodeCount(); node++) {
+            Map<Long, List<Integer>> unmatchedEdges = new HashMap<Long, List<Integer>>();
+            for (int edge = edgeOffsets[node]; edge < edgeOffsets[node + 1]; edge++) {
+                if (edgeIsVirtuals[edge] && matches[edge] < 0) {
+                    long key = pairKey(edgeVertex1s[edge], edgeVertex2s[edge]);
+                    List<Integer> pairEdges = unmatchedEdges.get(key);
+                    if (pairEdges == null) {
+                        pairEdges = new ArrayList<Integer>();
+                        unmatchedEdges.put(key, pairEdges);
+                    }
+                    pairEdges.add(edge);
+                }
+            }
+            for (int child = childOffsets[node]; child < childOffsets[node + 1]; child++) {
+                for (int edge = edgeOffsets[child]; edge < edgeOffsets[child + 1]; edge++) {
+                    if (edgeIsVirtuals[edge]) {
+                        List<Integer> pairEdges = unmatchedEdges.get(pairKey(edgeVertex1s[edge], edgeVertex2s[edge]));
+                        if (pairEdges != null && !pairEdges.isEmpty()) {
+                            int parentEdge = pairEdges.remove(pairEdges.size() - 1);
+                            matches[edge] = parentEdge;
+                            matches[parentEdge] = edge;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /** Returns a new SpqrNode for the specified node, adding it to parent.children. */
+    private SpqrNode createNode(SpqrNode parent, int node) {
+        if (vertexToMultiVertex == null) {
+            vertexToMultiVertex = new MultiVertex[vertices.length];
+        }
+        MultiGraph skeleton = new MultiGraph();
+        Map<MultiVertex, Vertex> skeletonVertexToVertex = new LinkedHashMap<MultiVertex, Vertex>();
+        Set<UnorderedPair<MultiVertex>> realEdges = new HashSet<UnorderedPair<MultiVertex>>();
+        for (int edge = edgeOffsets[node]; edge < edgeOffsets[node + 1]; edge++) {
+            int vertex1 = edgeVertex1s[edge];
+            MultiVertex multiVertex1 = vertexToMultiVertex[vertex1];
+            if (multiVertex1 == null) {
+                multiVertex1 = skeleton.createVertex();
+                vertexToMultiVertex[vertex1] = multiVertex1;
+                skeletonVertexToVertex.put(multiVertex1, vertices[vertex1]);
+            }
+            int vertex2 = edgeVertex2s[edge];
+            MultiVertex multiVertex2 = vertexToMultiVertex[vertex2];
+            if (multiVertex2 == null) {
+                multiVertex2 = skeleton.createVertex();
+                vertexToMultiVertex[vertex2] = multiVertex2;
+                skeletonVertexToVertex.put(multiVertex2, vertices[vertex2]);
+            }
+            multiVertex1.addEdge(multiVertex2);
+            if (!edgeIsVirtuals[edge]) {
+                realEdges.add(new UnorderedPair<MultiVertex>(multiVertex1, multiVertex2));
+            }
+        }
+
+        for (int edge = edgeOffsets[node]; edge < edgeOffsets[node + 1]; edge++) {
+            vertexToMultiVertex[edgeVertex1s[edge]] = null;
+            vertexToMultiVertex[edgeVertex2s[edge]] = null;
+        }
+        return new SpqrNode(parent, types[node], skeleton, skeletonVertexToVertex, realEdges);
+    }
+
+    /**
+     * Returns a new SpqrNode for the skeleton of the specified node.  The SpqrNode has no parent and no children, so it
+     * does not retain the skeletons of any other nodes.
+     */
+    public synchronized SpqrNode createNode(int node) {
+        return createNode(null, node);
+    }
+
+    /**
+     * Returns the root of a tree of SpqrNodes equivalent to this tree.  Node N corresponds to the N'th SpqrNode in a
+     * breadth-first traversal of the result.
+     */
+    public synchronized SpqrNode createSpqrNodes() {
+        SpqrNode[] nodes = new SpqrNode[nodeCount()];
+        nodes[0] = createNode(null, 0);
+        for (int node = 1; node < nodes.length; node++) {
+            nodes[node] = createNode(nodes[parents[node]], node);
+        }
+        return nodes[0];
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.btrekkie.graph.spqr;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A description of how a DynamicSpqrTree changed as a result of a call to DynamicSpqrTree.addEdge.  Each node in the
+ * tree after the call is in exactly one of the following categories: it was in the tree before the call and its
+ * skeleton is unchanged, it is in changedNodes, or it is in addedNodes.  Note that a node may be adjacent to different
+ * nodes after the call even if its skeleton is unchanged.
+ */
+public class SpqrUpdate {
+    /** The nodes that were removed from the tree, e.g. because they were split or merged into other nodes. */
+    public final List<DynamicSpqrNode> removedNodes = new ArrayList<DynamicSpqrNode>();
+
+    /** The nodes that were added to the tree. */
+    public final List<DynamicSpqrNode> addedNodes = new ArrayList<DynamicSpqrNode>();
+
+    /** The nodes that remain in the tree, but whose skeletons changed. */
+    public final List<DynamicSpqrNode> changedNodes = new ArrayList<DynamicSpqrNode>();
+
+    SpqrUpdate() {
+
+    }
+}
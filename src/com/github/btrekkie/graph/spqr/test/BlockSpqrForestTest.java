@@ -0,0 +1,106 @@
+package com.github.btrekkie.graph.spqr.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.bc.BlockNode;
+import com.github.btrekkie.graph.bc.CutNode;
+import com.github.btrekkie.graph.generator.GraphGenerator;
+import com.github.btrekkie.graph.spqr.BlockSpqrForest;
+import com.github.btrekkie.graph.spqr.SpqrTree;
+
+public class BlockSpqrForestTest {
+    /** Returns the number of BlockNodes in the block-cut tree rooted at the specified node. */
+    private static int blockNodeCount(BlockNode root) {
+        int count = 0;
+        Collection<BlockNode> level = Collections.singleton(root);
+        while (!level.isEmpty()) {
+            Collection<BlockNode> nextLevel = new ArrayList<BlockNode>();
+            for (BlockNode blockNode : level) {
+                count++;
+                for (CutNode cutNode : blockNode.children) {
+                    nextLevel.addAll(cutNode.children);
+                }
+            }
+            level = nextLevel;
+        }
+        return count;
+    }
+
+    /**
+     * Asserts that the specified BlockSpqrForest is consistent with computing the SPQR trees of the blocks one at a
+     * time.
+     */
+    private static void checkForest(BlockSpqrForest forest) {
+        assertEquals(blockNodeCount(forest.root), forest.spqrTrees.size());
+        assertTrue(forest.spqrTrees.keySet().iterator().next() == forest.root);
+        for (Entry<BlockNode, SpqrTree> entry : forest.spqrTrees.entrySet()) {
+            Vertex start = entry.getKey().block.vertices.iterator().next();
+            SpqrTree expected = SpqrTree.create(start, start.edges.iterator().next());
+            SpqrTree actual = entry.getValue();
+            assertEquals(expected.vertexCount(), actual.vertexCount());
+            for (int vertex = 0; vertex < expected.vertexCount(); vertex++) {
+                assertTrue(expected.vertex(vertex) == actual.vertex(vertex));
+            }
+            assertEquals(expected.nodeCount(), actual.nodeCount());
+            for (int node = 0; node < expected.nodeCount(); node++) {
+                assertEquals(expected.type(node), actual.type(node));
+                assertEquals(expected.parent(node), actual.parent(node));
+                assertEquals(expected.edgeOffset(node), actual.edgeOffset(node));
+            }
+            assertEquals(expected.skeletonEdgeCount(), actual.skeletonEdgeCount());
+            for (int edge = 0; edge < expected.skeletonEdgeCount(); edge++) {
+                assertEquals(expected.edgeVertex1(edge), actual.edgeVertex1(edge));
+                assertEquals(expected.edgeVertex2(edge), actual.edgeVertex2(edge));
+            }
+        }
+    }
+
+    /** Tests BlockSpqrForest.compute. */
+    @Test
+    public void testCompute() {
+        Random random = new Random(4);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Graph graph = new Graph();
+            Vertex vertex = GraphGenerator.createRandomBlockTree(graph, 50, 8, random);
+            BlockSpqrForest forest = BlockSpqrForest.compute(vertex, pool);
+            checkForest(forest);
+            assertEquals(50, forest.spqrTrees.size());
+
+            // A tree, whose blocks are single edges
+            graph = new Graph();
+            vertex = GraphGenerator.createRandomTree(graph, 100, random);
+            forest = BlockSpqrForest.compute(vertex, pool);
+            checkForest(forest);
+            assertEquals(99, forest.spqrTrees.size());
+        } finally {
+            pool.shutdown();
+        }
+
+        Graph graph = new Graph();
+        Vertex vertex = GraphGenerator.createGrid(graph, 5, 5);
+        BlockSpqrForest forest = BlockSpqrForest.compute(vertex);
+        checkForest(forest);
+        assertEquals(1, forest.spqrTrees.size());
+
+        graph = new Graph();
+        vertex = graph.createVertex();
+        forest = BlockSpqrForest.compute(vertex);
+        assertEquals(1, forest.spqrTrees.size());
+        assertNull(forest.spqrTrees.get(forest.root));
+    }
+}
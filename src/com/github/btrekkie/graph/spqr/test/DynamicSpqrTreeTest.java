@@ -0,0 +1,215 @@
+package com.github.btrekkie.graph.spqr.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.CompactGraph;
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.generator.GraphGenerator;
+import com.github.btrekkie.graph.planar.PlanarityTester;
+import com.github.btrekkie.graph.spqr.DynamicSpqrEdge;
+import com.github.btrekkie.graph.spqr.DynamicSpqrNode;
+import com.github.btrekkie.graph.spqr.DynamicSpqrTree;
+import com.github.btrekkie.graph.spqr.SpqrTree;
+import com.github.btrekkie.graph.spqr.SpqrUpdate;
+
+public class DynamicSpqrTreeTest {
+    /** Returns a string describing an edge with the specified endpoints, independent of the order of the endpoints. */
+    private static String edgeDescription(Vertex vertex1, Vertex vertex2, boolean isVirtual) {
+        int id1 = Math.min(vertex1.debugId, vertex2.debugId);
+        int id2 = Math.max(vertex1.debugId, vertex2.debugId);
+        return id1 + "-" + id2 + (isVirtual ? "v" : "r");
+    }
+
+    /** Returns a string describing the specified node's type and skeleton. */
+    private static String nodeDescription(DynamicSpqrNode node) {
+        List<String> edges = new ArrayList<String>();
+        for (DynamicSpqrEdge edge : node.edges) {
+            edges.add(edgeDescription(edge.vertex1, edge.vertex2, edge.isVirtual()));
+        }
+        Collections.sort(edges);
+        return node.type + edges.toString();
+    }
+
+    /** Returns a string describing the specified node's type and skeleton, in the same format as nodeDescription. */
+    private static String nodeDescription(SpqrTree tree, int node) {
+        List<String> edges = new ArrayList<String>();
+        for (int edge = tree.edgeOffset(node); edge < tree.edgeOffset(node + 1); edge++) {
+            edges.add(
+                edgeDescription(
+                    tree.vertex(tree.edgeVertex1(edge)), tree.vertex(tree.edgeVertex2(edge)),
+                    tree.isVirtual(edge)));
+        }
+        Collections.sort(edges);
+        return tree.type(node) + edges.toString();
+    }
+
+    /**
+     * Asserts that the specified DynamicSpqrTree is consistent, and that it has the same nodes as the SPQR tree
+     * computed from scratch for the graph containing the specified vertex.
+     */
+    private static void checkTree(DynamicSpqrTree tree, Vertex vertex) {
+        List<String> actual = new ArrayList<String>();
+        for (DynamicSpqrNode node : tree.nodes()) {
+            actual.add(nodeDescription(node));
+            for (DynamicSpqrEdge edge : node.edges) {
+                assertTrue(edge.node == node);
+                assertTrue(tree.allocationNodes(edge.vertex1).contains(node));
+                assertTrue(tree.allocationNodes(edge.vertex2).contains(node));
+                if (edge.isVirtual()) {
+                    assertTrue(edge.virtualMatch.virtualMatch == edge);
+                    assertTrue(edge.virtualMatch.node != node);
+                    assertTrue(tree.nodes().contains(edge.virtualMatch.node));
+                    assertEquals(
+                        edgeDescription(edge.vertex1, edge.vertex2, true),
+                        edgeDescription(edge.virtualMatch.vertex1, edge.virtualMatch.vertex2, true));
+                }
+            }
+        }
+        Collections.sort(actual);
+
+        SpqrTree expectedTree = SpqrTree.create(vertex, vertex.edges.iterator().next());
+        List<String> expected = new ArrayList<String>();
+        for (int node = 0; node < expectedTree.nodeCount(); node++) {
+            expected.add(nodeDescription(expectedTree, node));
+        }
+        Collections.sort(expected);
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Adds random edges to the specified graph, one at a time, and checks a DynamicSpqrTree for the graph after each
+     * insertion.  Assumes the graph is biconnected.
+     */
+    private static void checkRandomInsertions(Graph graph, int edgeCount, Random random) {
+        List<Vertex> vertices = new ArrayList<Vertex>(graph.vertices);
+        Vertex start = vertices.get(0);
+        DynamicSpqrTree tree = DynamicSpqrTree.create(start, start.edges.iterator().next());
+        checkTree(tree, start);
+        PlanarityTester planarityTester = new PlanarityTester();
+        for (int i = 0; i < edgeCount; i++) {
+            Vertex vertex1;
+            Vertex vertex2;
+            do {
+                vertex1 = vertices.get(random.nextInt(vertices.size()));
+                vertex2 = vertices.get(random.nextInt(vertices.size()));
+            } while (vertex1 == vertex2 || vertex1.edges.contains(vertex2));
+
+            Set<DynamicSpqrNode> oldNodes = new HashSet<DynamicSpqrNode>(tree.nodes());
+            vertex1.addEdge(vertex2);
+            SpqrUpdate update = tree.addEdge(vertex1, vertex2);
+            checkTree(tree, start);
+
+            Set<DynamicSpqrNode> expectedNodes = new HashSet<DynamicSpqrNode>(oldNodes);
+            expectedNodes.removeAll(update.removedNodes);
+            expectedNodes.addAll(update.addedNodes);
+            assertEquals(expectedNodes, new HashSet<DynamicSpqrNode>(tree.nodes()));
+            assertTrue(oldNodes.containsAll(update.removedNodes));
+            assertTrue(oldNodes.containsAll(update.changedNodes));
+            assertTrue(tree.nodes().containsAll(update.changedNodes));
+
+            assertEquals(planarityTester.isPlanar(CompactGraph.create(graph)), tree.isPlanar());
+        }
+    }
+
+    /** Tests DynamicSpqrTree.addEdge. */
+    @Test
+    public void testAddEdge() {
+        Random random = new Random(3);
+
+        // Start with a cycle, which is a single S node
+        Graph graph = new Graph();
+        List<Vertex> cycle = new ArrayList<Vertex>();
+        for (int i = 0; i < 30; i++) {
+            cycle.add(graph.createVertex());
+        }
+        for (int i = 0; i < cycle.size(); i++) {
+            cycle.get(i).addEdge(cycle.get((i + 1) % cycle.size()));
+        }
+        checkRandomInsertions(graph, 60, random);
+
+        for (int i = 0; i < 5; i++) {
+            graph = new Graph();
+            GraphGenerator.createRandomSeriesParallel(graph, 60, 0.5, random);
+            checkRandomInsertions(graph, 40, random);
+        }
+
+        graph = new Graph();
+        GraphGenerator.createRandomSpqrTree(graph, 5, 5, random);
+        checkRandomInsertions(graph, 40, random);
+
+        // A ladder, whose SPQR tree is a long path of alternating S and P nodes
+        for (int i = 0; i < 3; i++) {
+            graph = new Graph();
+            Vertex prevVertex1 = graph.createVertex();
+            Vertex prevVertex2 = graph.createVertex();
+            prevVertex1.addEdge(prevVertex2);
+            for (int j = 0; j < 40; j++) {
+                Vertex vertex1 = graph.createVertex();
+                Vertex vertex2 = graph.createVertex();
+                vertex1.addEdge(vertex2);
+                vertex1.addEdge(prevVertex1);
+                vertex2.addEdge(prevVertex2);
+                prevVertex1 = vertex1;
+                prevVertex2 = vertex2;
+            }
+            checkRandomInsertions(graph, 30, random);
+        }
+    }
+
+    /** Tests DynamicSpqrTree.isSeparationPair and DynamicSpqrTree.isTriconnected. */
+    @Test
+    public void testQueries() {
+        // A cycle of four vertices
+        Graph graph = new Graph();
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        for (int i = 0; i < 4; i++) {
+            vertices.add(graph.createVertex());
+        }
+        for (int i = 0; i < 4; i++) {
+            vertices.get(i).addEdge(vertices.get((i + 1) % 4));
+        }
+        DynamicSpqrTree tree = DynamicSpqrTree.create(vertices.get(0), vertices.get(1));
+        assertTrue(tree.isSeparationPair(vertices.get(0), vertices.get(2)));
+        assertFalse(tree.isSeparationPair(vertices.get(0), vertices.get(1)));
+        assertFalse(tree.isTriconnected());
+
+        // Adding a chord splits the cycle into two triangles and a P node
+        vertices.get(0).addEdge(vertices.get(2));
+        SpqrUpdate update = tree.addEdge(vertices.get(0), vertices.get(2));
+        assertEquals(1, update.removedNodes.size());
+        assertEquals(3, update.addedNodes.size());
+        assertEquals(3, tree.nodes().size());
+        assertTrue(tree.isSeparationPair(vertices.get(0), vertices.get(2)));
+        assertFalse(tree.isSeparationPair(vertices.get(1), vertices.get(3)));
+
+        // Adding the other chord yields K4, which is a single R node
+        vertices.get(1).addEdge(vertices.get(3));
+        update = tree.addEdge(vertices.get(1), vertices.get(3));
+        assertEquals(3, update.removedNodes.size());
+        assertEquals(1, update.addedNodes.size());
+        assertTrue(tree.isTriconnected());
+        assertFalse(tree.isSeparationPair(vertices.get(0), vertices.get(2)));
+        assertTrue(tree.isPlanar());
+        checkTree(tree, vertices.get(0));
+
+        try {
+            tree.addEdge(vertices.get(0), vertices.get(1));
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException exception) {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.github.btrekkie.graph.spqr.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.generator.GraphGenerator;
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
+import com.github.btrekkie.graph.planar.RotationSystem;
+import com.github.btrekkie.graph.spqr.SpqrEmbeddingCursor;
+import com.github.btrekkie.graph.spqr.SpqrEmbeddings;
+import com.github.btrekkie.graph.spqr.SpqrTree;
+
+public class SpqrEmbeddingsTest {
+    /** Returns the number of edges in the specified graph. */
+    private static int edgeCount(Graph graph) {
+        int degreeSum = 0;
+        for (Vertex vertex : graph.vertices) {
+            degreeSum += vertex.edges.size();
+        }
+        return degreeSum / 2;
+    }
+
+    /**
+     * Returns a string describing the specified clockwise order, independent of the first vertex in each cyclic
+     * order.
+     */
+    private static String description(Map<Vertex, List<Vertex>> clockwiseOrder) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<Vertex, List<Vertex>> entry : clockwiseOrder.entrySet()) {
+            List<Vertex> adjVertices = entry.getValue();
+            int minIndex = 0;
+            for (int i = 1; i < adjVertices.size(); i++) {
+                if (adjVertices.get(i).debugId < adjVertices.get(minIndex).debugId) {
+                    minIndex = i;
+                }
+            }
+            builder.append(entry.getKey().debugId).append(':');
+            for (int i = 0; i < adjVertices.size(); i++) {
+                builder.append(adjVertices.get((minIndex + i) % adjVertices.size()).debugId).append(',');
+            }
+            builder.append(';');
+        }
+        return builder.toString();
+    }
+
+    /** Returns whether the specified clockwise order for the specified graph is a planar embedding. */
+    private static boolean isPlanarEmbedding(Graph graph, Map<Vertex, List<Vertex>> clockwiseOrder) {
+        RotationSystem rotationSystem = RotationSystem.create(clockwiseOrder);
+        return rotationSystem.faceCount() == edgeCount(graph) - graph.vertices.size() + 2;
+    }
+
+    /** Adds all of the permutations of the specified vertices that start with the specified prefix to "orders". */
+    private static void addPermutations(List<Vertex> prefix, List<Vertex> vertices, List<List<Vertex>> orders) {
+        if (vertices.isEmpty()) {
+            orders.add(new ArrayList<Vertex>(prefix));
+            return;
+        }
+        for (int i = 0; i < vertices.size(); i++) {
+            List<Vertex> remaining = new ArrayList<Vertex>(vertices);
+            prefix.add(remaining.remove(i));
+            addPermutations(prefix, remaining, orders);
+            prefix.remove(prefix.size() - 1);
+        }
+    }
+
+    /**
+     * Returns the descriptions of all of the planar embeddings of the specified graph, as in description(Map), by
+     * trying every combination of cyclic orders.
+     */
+    private static Set<String> bruteForceEmbeddings(Graph graph) {
+        List<Vertex> vertices = new ArrayList<Vertex>(graph.vertices);
+        List<List<List<Vertex>>> vertexOrders = new ArrayList<List<List<Vertex>>>();
+        for (Vertex vertex : vertices) {
+            List<Vertex> adjVertices = new ArrayList<Vertex>(vertex.edges);
+            List<Vertex> prefix = new ArrayList<Vertex>();
+            prefix.add(adjVertices.remove(0));
+            List<List<Vertex>> orders = new ArrayList<List<Vertex>>();
+            addPermutations(prefix, adjVertices, orders);
+            vertexOrders.add(orders);
+        }
+
+        Set<String> embeddings = new HashSet<String>();
+        int[] indices = new int[vertices.size()];
+        while (true) {
+            Map<Vertex, List<Vertex>> clockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
+            for (int i = 0; i < vertices.size(); i++) {
+                clockwiseOrder.put(vertices.get(i), vertexOrders.get(i).get(indices[i]));
+            }
+            if (isPlanarEmbedding(graph, clockwiseOrder)) {
+                embeddings.add(description(sorted(clockwiseOrder)));
+            }
+
+            int i = 0;
+            while (i < indices.length && indices[i] == vertexOrders.get(i).size() - 1) {
+                indices[i] = 0;
+                i++;
+            }
+            if (i == indices.length) {
+                return embeddings;
+            }
+            indices[i]++;
+        }
+    }
+
+    /** Returns a copy of the specified map whose iteration order is in ascending order of debugId. */
+    private static Map<Vertex, List<Vertex>> sorted(Map<Vertex, List<Vertex>> clockwiseOrder) {
+        List<Vertex> vertices = new ArrayList<Vertex>(clockwiseOrder.keySet());
+        Collections.sort(vertices, new Comparator<Vertex>() {
+            @Override
+            public int compare(Vertex vertex1, Vertex vertex2) {
+                return Integer.compare(vertex1.debugId, vertex2.debugId);
+            }
+        });
+        Map<Vertex, List<Vertex>> sortedClockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
+        for (Vertex vertex : vertices) {
+            sortedClockwiseOrder.put(vertex, clockwiseOrder.get(vertex));
+        }
+        return sortedClockwiseOrder;
+    }
+
+    /**
+     * Asserts that the specified embedding is a valid planar embedding of the specified graph, and returns its
+     * description, as in description(Map).
+     */
+    private static String checkEmbedding(Graph graph, PlanarEmbedding embedding) {
+        assertEquals(graph.vertices.size(), embedding.clockwiseOrder.size());
+        for (Vertex vertex : graph.vertices) {
+            assertEquals(vertex.edges, new HashSet<Vertex>(embedding.clockwiseOrder.get(vertex)));
+        }
+        // The PlanarEmbedding constructor validates the external face
+        PlanarEmbedding validated = new PlanarEmbedding(embedding.clockwiseOrder, embedding.externalFace);
+        assertTrue(isPlanarEmbedding(graph, validated.clockwiseOrder));
+        return description(sorted(embedding.clockwiseOrder));
+    }
+
+    /**
+     * Returns the descriptions of the embeddings that the specified iterator produces, as in description(Map), after
+     * checking them using checkEmbedding.
+     */
+    private static List<String> descriptions(Graph graph, Iterator<PlanarEmbedding> iterator) {
+        List<String> descriptions = new ArrayList<String>();
+        while (iterator.hasNext()) {
+            descriptions.add(checkEmbedding(graph, iterator.next()));
+        }
+        return descriptions;
+    }
+
+    /**
+     * Returns the descriptions of the embeddings that the specified cursor produces, as in description(Map), using the
+     * cursor's half-edges rather than SpqrEmbeddingCursor.embedding().  This asserts that each embedding is a valid
+     * planar embedding of the specified graph, and that a PlanarEmbedding returned by "embedding" does not change
+     * when we advance.
+     * @param graph The graph.
+     * @param tree The graph's SPQR tree.
+     * @param cursor The cursor.
+     * @return The descriptions.
+     */
+    private static List<String> cursorDescriptions(Graph graph, SpqrTree tree, SpqrEmbeddingCursor cursor) {
+        List<String> descriptions = new ArrayList<String>();
+        PlanarEmbedding firstEmbedding = null;
+        assertEquals(2 * edgeCount(graph), cursor.halfEdgeCount());
+        while (cursor.hasNext()) {
+            cursor.next();
+            if (firstEmbedding == null) {
+                firstEmbedding = cursor.embedding();
+            }
+            Map<Vertex, List<Vertex>> clockwiseOrder = new LinkedHashMap<Vertex, List<Vertex>>();
+            for (int vertex = 0; vertex < tree.vertexCount(); vertex++) {
+                List<Vertex> adjVertices = new ArrayList<Vertex>();
+                int startHalfEdge = cursor.vertexHalfEdge(vertex);
+                int halfEdge = startHalfEdge;
+                do {
+                    assertEquals(vertex, cursor.source(halfEdge));
+                    assertEquals(vertex, cursor.target(cursor.twin(halfEdge)));
+                    adjVertices.add(tree.vertex(cursor.target(halfEdge)));
+                    halfEdge = cursor.nextClockwise(halfEdge);
+                } while (halfEdge != startHalfEdge);
+                clockwiseOrder.put(tree.vertex(vertex), adjVertices);
+            }
+            for (Vertex vertex : graph.vertices) {
+                assertEquals(vertex.edges, new HashSet<Vertex>(clockwiseOrder.get(vertex)));
+            }
+
+            // Count the faces
+            boolean[] visited = new boolean[cursor.halfEdgeCount()];
+            int faceCount = 0;
+            for (int startHalfEdge = 0; startHalfEdge < visited.length; startHalfEdge++) {
+                if (!visited[startHalfEdge]) {
+                    faceCount++;
+                    int halfEdge = startHalfEdge;
+                    do {
+                        visited[halfEdge] = true;
+                        halfEdge = cursor.nextOnFace(halfEdge);
+                    } while (halfEdge != startHalfEdge);
+                }
+            }
+            assertEquals(edgeCount(graph) - graph.vertices.size() + 2, faceCount);
+            descriptions.add(description(sorted(clockwiseOrder)));
+        }
+        if (firstEmbedding != null) {
+            assertEquals(descriptions.get(0), checkEmbedding(graph, firstEmbedding));
+        }
+        return descriptions;
+    }
+
+    /**
+     * Asserts that SpqrEmbeddings enumerates the embeddings of the specified biconnected graph correctly, and returns
+     * the number of embeddings.  If "checkBruteForce" is true, this compares the results to bruteForceEmbeddings.
+     */
+    private static int checkEmbeddings(Graph graph, boolean checkBruteForce) {
+        Vertex start = graph.vertices.iterator().next();
+        SpqrTree tree = SpqrTree.create(start, start.edges.iterator().next());
+        SpqrEmbeddings embeddings = new SpqrEmbeddings(tree);
+        assertEquals(embeddings.count(), SpqrEmbeddings.count(tree));
+        List<String> descriptions = descriptions(graph, embeddings.iterator());
+        assertEquals(embeddings.count(), BigInteger.valueOf(descriptions.size()));
+        assertEquals(descriptions.size(), new HashSet<String>(descriptions).size());
+        if (checkBruteForce) {
+            assertEquals(bruteForceEmbeddings(graph), new HashSet<String>(descriptions));
+        }
+        assertEquals(descriptions, cursorDescriptions(graph, tree, embeddings.cursor()));
+
+        // Iterating over consecutive ranges should produce the same sequence
+        int count = descriptions.size();
+        List<String> splitDescriptions = new ArrayList<String>();
+        int[] ends = new int[]{count / 3, count / 3, 2 * count / 3 + 1, count};
+        int prevEnd = 0;
+        for (int end : ends) {
+            end = Math.min(end, count);
+            splitDescriptions.addAll(
+                descriptions(graph, embeddings.iterator(BigInteger.valueOf(prevEnd), BigInteger.valueOf(end))));
+            prevEnd = end;
+        }
+        assertEquals(descriptions, splitDescriptions);
+        return count;
+    }
+
+    /** Returns a new complete bipartite graph with the specified numbers of vertices on each side. */
+    private static Graph createCompleteBipartite(int count1, int count2) {
+        Graph graph = new Graph();
+        List<Vertex> vertices1 = new ArrayList<Vertex>();
+        for (int i = 0; i < count1; i++) {
+            vertices1.add(graph.createVertex());
+        }
+        for (int i = 0; i < count2; i++) {
+            Vertex vertex = graph.createVertex();
+            for (Vertex vertex1 : vertices1) {
+                vertex.addEdge(vertex1);
+            }
+        }
+        return graph;
+    }
+
+    /** Returns a new complete graph with the specified number of vertices. */
+    private static Graph createComplete(int vertexCount) {
+        Graph graph = new Graph();
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        for (int i = 0; i < vertexCount; i++) {
+            Vertex vertex = graph.createVertex();
+            for (Vertex prevVertex : vertices) {
+                vertex.addEdge(prevVertex);
+            }
+            vertices.add(vertex);
+        }
+        return graph;
+    }
+
+    /** Tests SpqrEmbeddings on small graphs, comparing the results to a brute-force enumeration of the embeddings. */
+    @Test
+    public void testSmall() {
+        // K2
+        assertEquals(1, checkEmbeddings(createComplete(2), true));
+
+        // A cycle
+        Graph graph = new Graph();
+        List<Vertex> cycle = new ArrayList<Vertex>();
+        for (int i = 0; i < 5; i++) {
+            cycle.add(graph.createVertex());
+        }
+        for (int i = 0; i < cycle.size(); i++) {
+            cycle.get(i).addEdge(cycle.get((i + 1) % cycle.size()));
+        }
+        assertEquals(1, checkEmbeddings(graph, true));
+
+        assertEquals(2, checkEmbeddings(createComplete(4), true));
+        assertEquals(2, checkEmbeddings(createCompleteBipartite(2, 3), true));
+        assertEquals(6, checkEmbeddings(createCompleteBipartite(2, 4), true));
+
+        // A triangular prism
+        graph = new Graph();
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        for (int i = 0; i < 6; i++) {
+            vertices.add(graph.createVertex());
+        }
+        for (int i = 0; i < 3; i++) {
+            vertices.get(i).addEdge(vertices.get((i + 1) % 3));
+            vertices.get(i + 3).addEdge(vertices.get((i + 1) % 3 + 3));
+            vertices.get(i).addEdge(vertices.get(i + 3));
+        }
+        assertEquals(2, checkEmbeddings(graph, true));
+
+        // Two copies of K4 sharing an edge, plus a path between the shared vertices
+        graph = new Graph();
+        Vertex pole1 = graph.createVertex();
+        Vertex pole2 = graph.createVertex();
+        pole1.addEdge(pole2);
+        for (int i = 0; i < 2; i++) {
+            Vertex vertex1 = graph.createVertex();
+            Vertex vertex2 = graph.createVertex();
+            vertex1.addEdge(vertex2);
+            for (Vertex pole : new Vertex[]{pole1, pole2}) {
+                pole.addEdge(vertex1);
+                pole.addEdge(vertex2);
+            }
+        }
+        Vertex middle = graph.createVertex();
+        middle.addEdge(pole1);
+        middle.addEdge(pole2);
+        assertEquals(24, checkEmbeddings(graph, true));
+
+        Random random = new Random(5);
+        for (int i = 0; i < 10; i++) {
+            graph = new Graph();
+            GraphGenerator.createRandomSeriesParallel(graph, 7, 0.5, random);
+            checkEmbeddings(graph, true);
+        }
+    }
+
+    /** Tests SpqrEmbeddings on non-planar graphs. */
+    @Test
+    public void testNonplanar() {
+        for (Graph graph : new Graph[]{createComplete(5), createCompleteBipartite(3, 3)}) {
+            Vertex start = graph.vertices.iterator().next();
+            SpqrTree tree = SpqrTree.create(start, start.edges.iterator().next());
+            SpqrEmbeddings embeddings = new SpqrEmbeddings(tree);
+            assertEquals(BigInteger.ZERO, embeddings.count());
+            assertEquals(BigInteger.ZERO, SpqrEmbeddings.count(tree));
+            assertFalse(embeddings.iterator().hasNext());
+            assertFalse(embeddings.cursor().hasNext());
+        }
+    }
+
+    /** Tests SpqrEmbeddings on larger graphs. */
+    @Test
+    public void testLarge() {
+        Random random = new Random(7);
+        for (int i = 0; i < 5; i++) {
+            Graph graph = new Graph();
+            GraphGenerator.createRandomSeriesParallel(graph, 14, 0.6, random);
+            checkEmbeddings(graph, false);
+        }
+        for (int i = 0; i < 3; i++) {
+            Graph graph = new Graph();
+            GraphGenerator.createRandomSpqrTree(graph, 4, 6, random);
+            checkEmbeddings(graph, false);
+        }
+
+        // A graph with many embeddings, where we only examine a few ranges
+        Graph graph = new Graph();
+        GraphGenerator.createRandomSeriesParallel(graph, 60, 0.3, random);
+        Vertex start = graph.vertices.iterator().next();
+        SpqrTree tree = SpqrTree.create(start, start.edges.iterator().next());
+        SpqrEmbeddings embeddings = new SpqrEmbeddings(tree);
+        BigInteger count = embeddings.count();
+        assertEquals(count, SpqrEmbeddings.count(tree));
+        assertTrue(count.compareTo(BigInteger.valueOf(1000)) > 0);
+        BigInteger rangeSize = BigInteger.valueOf(200);
+        for (BigInteger rangeStart : new BigInteger[]{
+                BigInteger.ZERO, count.shiftRight(1), count.subtract(rangeSize)}) {
+            List<String> descriptions = descriptions(graph, embeddings.iterator(rangeStart, rangeStart.add(rangeSize)));
+            assertEquals(200, descriptions.size());
+            assertEquals(200, new HashSet<String>(descriptions).size());
+            SpqrEmbeddingCursor cursor = embeddings.cursor(rangeStart, rangeStart.add(rangeSize));
+            assertEquals(descriptions, cursorDescriptions(graph, tree, cursor));
+        }
+    }
+}
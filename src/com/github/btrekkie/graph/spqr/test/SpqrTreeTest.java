@@ -0,0 +1,197 @@
+package com.github.btrekkie.graph.spqr.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.CompactGraph;
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.MultiVertex;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.generator.GraphGenerator;
+import com.github.btrekkie.graph.spqr.SpqrNode;
+import com.github.btrekkie.graph.spqr.SpqrTree;
+import com.github.btrekkie.util.UnorderedPair;
+
+public class SpqrTreeTest {
+    /** Returns the nodes in the tree rooted at the specified node, in breadth-first order. */
+    private static List<SpqrNode> breadthFirstNodes(SpqrNode root) {
+        List<SpqrNode> nodes = new ArrayList<SpqrNode>();
+        nodes.add(root);
+        for (int i = 0; i < nodes.size(); i++) {
+            nodes.addAll(nodes.get(i).children);
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns a description of the specified node's skeleton in terms of the vertices in the original Graph: the list
+     * of the vertices adjacent to each skeleton vertex, in order, preceded by the vertex itself.
+     */
+    private static List<List<Vertex>> skeletonDescription(SpqrNode node) {
+        List<List<Vertex>> description = new ArrayList<List<Vertex>>();
+        for (MultiVertex multiVertex : node.skeleton.vertices) {
+            List<Vertex> adjVertices = new ArrayList<Vertex>();
+            adjVertices.add(node.skeletonVertexToVertex.get(multiVertex));
+            for (MultiVertex adjMultiVertex : multiVertex.edges) {
+                adjVertices.add(node.skeletonVertexToVertex.get(adjMultiVertex));
+            }
+            description.add(adjVertices);
+        }
+        return description;
+    }
+
+    /** Returns node.realEdges, in terms of the vertices in the original Graph. */
+    private static Set<UnorderedPair<Vertex>> realEdges(SpqrNode node) {
+        Set<UnorderedPair<Vertex>> realEdges = new HashSet<UnorderedPair<Vertex>>();
+        for (UnorderedPair<MultiVertex> edge : node.realEdges) {
+            realEdges.add(
+                new UnorderedPair<Vertex>(
+                    node.skeletonVertexToVertex.get(edge.value1), node.skeletonVertexToVertex.get(edge.value2)));
+        }
+        return realEdges;
+    }
+
+    /** Asserts that the specified SpqrNodes have the same type and equivalent skeletons. */
+    private static void assertEquivalent(SpqrNode expected, SpqrNode actual) {
+        assertEquals(expected.type, actual.type);
+        assertEquals(skeletonDescription(expected), skeletonDescription(actual));
+        assertEquals(realEdges(expected), realEdges(actual));
+    }
+
+    /**
+     * Asserts that the specified SpqrTree is consistent with SpqrNode.create for the same reference edge.
+     * @param tree The tree.
+     * @param reference1 The first endpoint of the reference edge.
+     * @param reference2 The second endpoint of the reference edge.
+     */
+    private static void checkTree(SpqrTree tree, Vertex reference1, Vertex reference2) {
+        List<SpqrNode> expectedNodes = breadthFirstNodes(SpqrNode.create(reference1, reference2));
+        assertEquals(expectedNodes.size(), tree.nodeCount());
+        assertEquals(-1, tree.parent(0));
+        assertEquals(tree.skeletonEdgeCount(), tree.edgeOffset(tree.nodeCount()));
+        for (int node = 1; node < tree.nodeCount(); node++) {
+            int parent = tree.parent(node);
+            assertTrue(tree.childOffset(parent) <= node && node < tree.childOffset(parent + 1));
+        }
+
+        List<SpqrNode> actualNodes = breadthFirstNodes(tree.createSpqrNodes());
+        assertEquals(expectedNodes.size(), actualNodes.size());
+        for (int node = 0; node < tree.nodeCount(); node++) {
+            SpqrNode expectedNode = expectedNodes.get(node);
+            assertEquals(expectedNode.type, tree.type(node));
+            assertEquals(expectedNode.children.size(), tree.childOffset(node + 1) - tree.childOffset(node));
+            assertEquals(!expectedNode.realEdges.isEmpty(), tree.hasRealEdge(node));
+            assertEquivalent(expectedNode, actualNodes.get(node));
+
+            SpqrNode detachedNode = tree.createNode(node);
+            assertEquivalent(expectedNode, detachedNode);
+            assertNull(detachedNode.parent);
+            assertTrue(detachedNode.children.isEmpty());
+        }
+    }
+
+    /** Tests SpqrTree on a graph with several R and P nodes. */
+    @Test
+    public void testSpqrTreeGraph() {
+        Graph graph = new Graph();
+        Vertex vertex = GraphGenerator.createRandomSpqrTree(graph, 20, 6, new Random(1));
+        Vertex adjVertex = vertex.edges.iterator().next();
+        SpqrTree tree = SpqrTree.create(vertex, adjVertex);
+        checkTree(tree, vertex, adjVertex);
+        assertEquals(SpqrNode.Type.R, tree.type(0));
+        assertTrue(tree.nodeCount() > 20);
+    }
+
+    /** Tests SpqrTree on series-parallel graphs and grids. */
+    @Test
+    public void testSeriesParallelAndGrid() {
+        Random random = new Random(2);
+        for (int i = 0; i < 10; i++) {
+            Graph graph = new Graph();
+            Vertex vertex = GraphGenerator.createRandomSeriesParallel(graph, 100, 0.5, random);
+            Vertex adjVertex = vertex.edges.iterator().next();
+            checkTree(SpqrTree.create(vertex, adjVertex), vertex, adjVertex);
+            checkTree(SpqrTree.create(adjVertex, vertex), adjVertex, vertex);
+        }
+
+        Graph graph = new Graph();
+        Vertex vertex = GraphGenerator.createGrid(graph, 6, 9);
+        List<Vertex> adjVertices = new ArrayList<Vertex>(vertex.edges);
+        SpqrTree tree = SpqrTree.create(vertex, adjVertices.get(1));
+        checkTree(tree, vertex, adjVertices.get(1));
+
+        // The grid's SPQR tree consists of an R node and an S node for each corner
+        int sNodeCount = 0;
+        int rNodeCount = 0;
+        for (int node = 0; node < tree.nodeCount(); node++) {
+            if (tree.type(node) == SpqrNode.Type.S) {
+                sNodeCount++;
+                assertEquals(3, tree.edgeCount(node));
+            } else if (tree.type(node) == SpqrNode.Type.R) {
+                rNodeCount++;
+            }
+        }
+        assertEquals(4, sNodeCount);
+        assertEquals(1, rNodeCount);
+    }
+
+    /**
+     * Asserts that SpqrTree.create(CompactGraph, int, int) produces the same tree as SpqrTree.create(Vertex, Vertex)
+     * for the specified reference edge.
+     */
+    private static void checkCompactTree(Graph graph, Vertex reference1, Vertex reference2) {
+        CompactGraph compactGraph = CompactGraph.create(graph);
+        Map<Vertex, Integer> vertexIndices = new HashMap<Vertex, Integer>();
+        for (Vertex vertex : graph.vertices) {
+            vertexIndices.put(vertex, vertexIndices.size());
+        }
+        SpqrTree expected = SpqrTree.create(reference1, reference2);
+        SpqrTree actual = SpqrTree.create(compactGraph, vertexIndices.get(reference1), vertexIndices.get(reference2));
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        for (int node = 0; node <= expected.nodeCount(); node++) {
+            if (node < expected.nodeCount()) {
+                assertEquals(expected.type(node), actual.type(node));
+                assertEquals(expected.parent(node), actual.parent(node));
+            }
+            assertEquals(expected.childOffset(node), actual.childOffset(node));
+            assertEquals(expected.edgeOffset(node), actual.edgeOffset(node));
+        }
+        assertEquals(expected.vertexCount(), actual.vertexCount());
+        for (int i = 0; i < expected.vertexCount(); i++) {
+            assertEquals((int)vertexIndices.get(expected.vertex(i)), actual.vertex(i).debugId);
+        }
+        for (int edge = 0; edge < expected.skeletonEdgeCount(); edge++) {
+            assertEquals(expected.isVirtual(edge), actual.isVirtual(edge));
+            assertEquals(expected.edgeVertex1(edge), actual.edgeVertex1(edge));
+            assertEquals(expected.edgeVertex2(edge), actual.edgeVertex2(edge));
+        }
+    }
+
+    /** Tests SpqrTree.create(CompactGraph, int, int). */
+    @Test
+    public void testCompactGraph() {
+        Graph graph = new Graph();
+        Vertex vertex = GraphGenerator.createRandomSpqrTree(graph, 20, 6, new Random(3));
+        Vertex adjVertex = vertex.edges.iterator().next();
+        checkCompactTree(graph, vertex, adjVertex);
+        checkCompactTree(graph, adjVertex, vertex);
+
+        Random random = new Random(4);
+        for (int i = 0; i < 10; i++) {
+            graph = new Graph();
+            vertex = GraphGenerator.createRandomSeriesParallel(graph, 100, 0.5, random);
+            checkCompactTree(graph, vertex, vertex.edges.iterator().next());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.github.btrekkie.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.CompactGraph;
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.MultiGraph;
+import com.github.btrekkie.graph.MultiVertex;
+import com.github.btrekkie.graph.Vertex;
+
+public class CompactGraphTest {
+    /** Returns a CompactGraph for the complete graph with the specified number of vertices. */
+    private CompactGraph completeGraph(int vertexCount) {
+        int[] offsets = new int[vertexCount + 1];
+        int[] neighbors = new int[vertexCount * (vertexCount - 1)];
+        int offset = 0;
+        for (int i = 0; i < vertexCount; i++) {
+            offsets[i] = offset;
+            for (int j = 0; j < vertexCount; j++) {
+                if (j != i) {
+                    neighbors[offset] = j;
+                    offset++;
+                }
+            }
+        }
+        offsets[vertexCount] = offset;
+        return new CompactGraph(offsets, neighbors);
+    }
+
+    /** Returns whether the specified CompactGraph has the same vertices and edges as "graph". */
+    private boolean isEquivalent(CompactGraph compactGraph, Graph graph) {
+        if (compactGraph.vertexCount() != graph.vertices.size()) {
+            return false;
+        }
+        List<Vertex> vertices = new ArrayList<Vertex>(graph.vertices);
+        for (int i = 0; i < vertices.size(); i++) {
+            Vertex vertex = vertices.get(i);
+            if (compactGraph.degree(i) != vertex.edges.size()) {
+                return false;
+            }
+            Iterator<Vertex> iterator = vertex.edges.iterator();
+            for (int j = 0; j < compactGraph.degree(i); j++) {
+                if (vertices.get(compactGraph.neighbor(i, j)) != iterator.next()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Tests conversion between CompactGraph and Graph. */
+    @Test
+    public void testGraph() {
+        Graph graph = new Graph();
+        Vertex vertex1 = graph.createVertex();
+        Vertex vertex2 = graph.createVertex();
+        Vertex vertex3 = graph.createVertex();
+        Vertex vertex4 = graph.createVertex();
+        graph.createVertex();
+        vertex1.addEdge(vertex2);
+        vertex1.addEdge(vertex3);
+        vertex2.addEdge(vertex3);
+        vertex3.addEdge(vertex4);
+        CompactGraph compactGraph = CompactGraph.create(graph);
+        assertEquals(5, compactGraph.vertexCount());
+        assertEquals(4, compactGraph.edgeCount());
+        assertEquals(0, compactGraph.degree(4));
+        assertTrue(isEquivalent(compactGraph, graph));
+        assertTrue(isEquivalent(compactGraph, compactGraph.toGraph()));
+
+        CompactGraph k5 = completeGraph(5);
+        assertEquals(10, k5.edgeCount());
+        assertTrue(isEquivalent(k5, k5.toGraph()));
+        assertTrue(isEquivalent(CompactGraph.create(k5.toGraph()), k5.toGraph()));
+    }
+
+    /** Tests conversion between CompactGraph and MultiGraph. */
+    @Test
+    public void testMultiGraph() {
+        MultiGraph graph = new MultiGraph();
+        MultiVertex vertex1 = graph.createVertex();
+        MultiVertex vertex2 = graph.createVertex();
+        MultiVertex vertex3 = graph.createVertex();
+        vertex1.addEdge(vertex2);
+        vertex1.addEdge(vertex2);
+        vertex2.addEdge(vertex3);
+        CompactGraph compactGraph = CompactGraph.create(graph);
+        assertEquals(3, compactGraph.vertexCount());
+        assertEquals(3, compactGraph.edgeCount());
+        assertEquals(2, compactGraph.degree(0));
+        assertEquals(3, compactGraph.degree(1));
+        assertEquals(1, compactGraph.neighbor(0, 1));
+
+        MultiGraph multiGraph = compactGraph.toMultiGraph();
+        List<MultiVertex> vertices = new ArrayList<MultiVertex>(multiGraph.vertices);
+        assertEquals(2, vertices.get(0).edges.size());
+        assertEquals(3, vertices.get(1).edges.size());
+        assertEquals(1, vertices.get(2).edges.size());
+        assertEquals(1, compactGraph.toGraph().vertices.iterator().next().edges.size());
+    }
+
+    /** Tests CompactGraph.createComponent. */
+    @Test
+    public void testCreateComponent() {
+        // Two triangles, 0-1-2 and 3-4-5
+        int[] offsets = new int[]{0, 2, 4, 6, 8, 10, 12};
+        int[] neighbors = new int[]{1, 2, 0, 2, 0, 1, 4, 5, 3, 5, 3, 4};
+        CompactGraph graph = new CompactGraph(offsets, neighbors);
+        Map<Vertex, Integer> vertexIndices = new HashMap<Vertex, Integer>();
+        Vertex vertex = graph.createComponent(4, vertexIndices);
+        assertEquals(4, (int)vertexIndices.get(vertex));
+        assertEquals(new HashSet<Integer>(Arrays.asList(3, 4, 5)), new HashSet<Integer>(vertexIndices.values()));
+        for (Vertex curVertex : vertexIndices.keySet()) {
+            assertEquals(2, curVertex.edges.size());
+        }
+    }
+
+    /** Returns whether the CompactGraph constructor throws an IllegalArgumentException for the specified arguments. */
+    private boolean isInvalid(int[] offsets, int[] neighbors) {
+        try {
+            new CompactGraph(offsets, neighbors);
+            return false;
+        } catch (IllegalArgumentException exception) {
+            return true;
+        }
+    }
+
+    /** Tests that the CompactGraph constructor validates its arguments. */
+    @Test
+    public void testValidation() {
+        new CompactGraph(new int[]{0}, new int[0]);
+        new CompactGraph(new int[]{0, 3, 5, 6}, new int[]{1, 2, 1, 0, 0, 0});
+        new CompactGraph(new int[]{0, 2, 4, 6}, new int[]{2, 1, 2, 0, 0, 1});
+        assertTrue(isInvalid(new int[0], new int[0]));
+        assertTrue(isInvalid(new int[]{0, 1}, new int[]{0}));
+        assertTrue(isInvalid(new int[]{0, 1, 1}, new int[]{2}));
+        assertTrue(isInvalid(new int[]{0, 2, 1, 2}, new int[]{1, 0}));
+
+        // Asymmetric adjacency lists
+        assertTrue(isInvalid(new int[]{0, 1, 1}, new int[]{1}));
+        assertTrue(isInvalid(new int[]{0, 2, 3, 4}, new int[]{1, 2, 0, 1}));
+        assertTrue(isInvalid(new int[]{0, 2, 3, 4}, new int[]{1, 1, 0, 0}));
+        assertTrue(isInvalid(new int[]{0, 2, 4, 5, 6}, new int[]{1, 2, 0, 3, 1, 0}));
+
+        // Random multigraphs, with and without an extra half-edge
+        Random random = new Random(2);
+        for (int i = 0; i < 100; i++) {
+            int vertexCount = 2 + random.nextInt(10);
+            List<List<Integer>> adjLists = new ArrayList<List<Integer>>();
+            for (int j = 0; j < vertexCount; j++) {
+                adjLists.add(new ArrayList<Integer>());
+            }
+            int edgeCount = random.nextInt(20);
+            for (int j = 0; j < edgeCount; j++) {
+                int vertex1 = random.nextInt(vertexCount);
+                int vertex2 = random.nextInt(vertexCount - 1);
+                if (vertex2 >= vertex1) {
+                    vertex2++;
+                }
+                adjLists.get(vertex1).add(vertex2);
+                adjLists.get(vertex2).add(vertex1);
+            }
+            for (List<Integer> adjList : adjLists) {
+                Collections.shuffle(adjList, random);
+            }
+
+            int[] offsets = new int[vertexCount + 1];
+            int[] neighbors = new int[2 * edgeCount];
+            int offset = 0;
+            for (int j = 0; j < vertexCount; j++) {
+                offsets[j] = offset;
+                for (int adjVertex : adjLists.get(j)) {
+                    neighbors[offset] = adjVertex;
+                    offset++;
+                }
+            }
+            offsets[vertexCount] = offset;
+            assertEquals(edgeCount, new CompactGraph(offsets, neighbors).edgeCount());
+
+            if (edgeCount > 0) {
+                int[] changedNeighbors = neighbors.clone();
+                int index = random.nextInt(changedNeighbors.length);
+                int source = 0;
+                while (offsets[source + 1] <= index) {
+                    source++;
+                }
+                int target = random.nextInt(vertexCount - 1);
+                if (target >= source) {
+                    target++;
+                }
+                if (target != changedNeighbors[index]) {
+                    changedNeighbors[index] = target;
+                    assertTrue(isInvalid(offsets, changedNeighbors));
+                }
+            }
+        }
+    }
+}
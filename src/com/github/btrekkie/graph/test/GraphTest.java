@@ -0,0 +1,64 @@
+package com.github.btrekkie.graph.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.Vertex;
+
+public class GraphTest {
+    /** Returns a grid graph with the specified number of rows and columns. */
+    private static Graph createGrid(int size) {
+        Graph graph = new Graph();
+        Vertex[][] grid = new Vertex[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                grid[i][j] = graph.createVertex();
+                if (i > 0) {
+                    grid[i][j].addEdge(grid[i - 1][j]);
+                }
+                if (j > 0) {
+                    grid[i][j].addEdge(grid[i][j - 1]);
+                }
+            }
+        }
+        return graph;
+    }
+
+    /** Tests Graph.createVertex and Vertex.debugId when constructing graphs concurrently. */
+    @Test
+    public void testCreateVertexConcurrent() throws ExecutionException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Graph>> futures = new ArrayList<Future<Graph>>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(new Callable<Graph>() {
+                    @Override
+                    public Graph call() {
+                        return createGrid(40);
+                    }
+                }));
+            }
+            for (Future<Graph> future : futures) {
+                Graph graph = future.get();
+                assertEquals(1600, graph.vertices.size());
+                int debugId = 0;
+                for (Vertex vertex : graph.vertices) {
+                    assertEquals(debugId, vertex.debugId);
+                    debugId++;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
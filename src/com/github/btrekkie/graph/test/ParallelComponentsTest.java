@@ -0,0 +1,165 @@
+package com.github.btrekkie.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.github.btrekkie.graph.ComponentAlgorithm;
+import com.github.btrekkie.graph.Graph;
+import com.github.btrekkie.graph.ParallelComponents;
+import com.github.btrekkie.graph.Vertex;
+import com.github.btrekkie.graph.ec.EcNode;
+import com.github.btrekkie.graph.ec.EcPlanarEmbeddingWithCrossings;
+import com.github.btrekkie.graph.planar.PlanarEmbedding;
+import com.github.btrekkie.graph.planar.PlanarEmbeddingWithCrossings;
+
+public class ParallelComponentsTest {
+    /** Adds a complete graph with the specified number of vertices to "graph".  Returns the first vertex. */
+    private static Vertex addCompleteGraph(Graph graph, int vertexCount) {
+        List<Vertex> vertices = new ArrayList<Vertex>(vertexCount);
+        for (int i = 0; i < vertexCount; i++) {
+            Vertex vertex = graph.createVertex();
+            for (Vertex otherVertex : vertices) {
+                vertex.addEdge(otherVertex);
+            }
+            vertices.add(vertex);
+        }
+        return vertices.get(0);
+    }
+
+    /** Returns the vertices in the connected component containing the specified vertex. */
+    private static Set<Vertex> component(Vertex start) {
+        Set<Vertex> visited = new HashSet<Vertex>();
+        List<Vertex> vertices = new ArrayList<Vertex>();
+        visited.add(start);
+        vertices.add(start);
+        for (int i = 0; i < vertices.size(); i++) {
+            for (Vertex adjVertex : vertices.get(i).edges) {
+                if (visited.add(adjVertex)) {
+                    vertices.add(adjVertex);
+                }
+            }
+        }
+        return visited;
+    }
+
+    /** Tests ParallelComponents.componentStarts. */
+    @Test
+    public void testComponentStarts() {
+        Graph graph = new Graph();
+        assertEquals(Collections.<Vertex>emptyList(), ParallelComponents.componentStarts(graph));
+
+        Vertex vertex1 = graph.createVertex();
+        Vertex vertex2 = graph.createVertex();
+        Vertex vertex3 = graph.createVertex();
+        Vertex vertex4 = graph.createVertex();
+        Vertex vertex5 = graph.createVertex();
+        vertex1.addEdge(vertex4);
+        vertex4.addEdge(vertex3);
+        List<Vertex> expected = new ArrayList<Vertex>();
+        expected.add(vertex1);
+        expected.add(vertex2);
+        expected.add(vertex5);
+        assertEquals(expected, ParallelComponents.componentStarts(graph));
+    }
+
+    /** Tests ParallelComponents.compute. */
+    @Test
+    public void testCompute() {
+        Graph graph = new Graph();
+        for (int i = 0; i < 100; i++) {
+            addCompleteGraph(graph, 1 + i % 5);
+        }
+        ComponentAlgorithm<Integer> sizeAlgorithm = new ComponentAlgorithm<Integer>() {
+            @Override
+            public Integer compute(Vertex start) {
+                return component(start).size();
+            }
+        };
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Map<Vertex, Integer> sizes = ParallelComponents.compute(graph, sizeAlgorithm, pool);
+            assertEquals(ParallelComponents.componentStarts(graph), new ArrayList<Vertex>(sizes.keySet()));
+            int index = 0;
+            for (int size : sizes.values()) {
+                assertEquals(1 + index % 5, size);
+                index++;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Graph singleComponentGraph = new Graph();
+        Vertex start = addCompleteGraph(singleComponentGraph, 3);
+        assertEquals(
+            Collections.singletonMap(start, 3), ParallelComponents.compute(singleComponentGraph, sizeAlgorithm));
+        assertTrue(ParallelComponents.compute(new Graph(), sizeAlgorithm).isEmpty());
+
+        // Components of different graphs
+        List<Vertex> starts = new ArrayList<Vertex>();
+        List<Integer> expectedSizes = new ArrayList<Integer>();
+        for (int i = 0; i < 10; i++) {
+            starts.add(addCompleteGraph(new Graph(), 1 + i % 5));
+            expectedSizes.add(1 + i % 5);
+        }
+        assertEquals(
+            expectedSizes, ParallelComponents.compute(starts, sizeAlgorithm, ParallelComponents.defaultPool()));
+    }
+
+    /** Tests PlanarEmbedding.computeAll. */
+    @Test
+    public void testPlanarEmbeddingComputeAll() {
+        Graph graph = new Graph();
+        List<Vertex> k5Starts = new ArrayList<Vertex>();
+        for (int i = 0; i < 40; i++) {
+            if (i % 8 == 7) {
+                k5Starts.add(addCompleteGraph(graph, 5));
+            } else {
+                addCompleteGraph(graph, 1 + i % 4);
+            }
+        }
+
+        Map<Vertex, PlanarEmbedding> embeddings = PlanarEmbedding.computeAll(graph);
+        assertEquals(ParallelComponents.componentStarts(graph), new ArrayList<Vertex>(embeddings.keySet()));
+        for (Entry<Vertex, PlanarEmbedding> entry : embeddings.entrySet()) {
+            if (k5Starts.contains(entry.getKey())) {
+                assertNull(entry.getValue());
+            } else {
+                PlanarEmbedding embedding = entry.getValue();
+                assertNotNull(embedding);
+                assertEquals(component(entry.getKey()), embedding.clockwiseOrder.keySet());
+            }
+        }
+    }
+
+    /** Tests EcPlanarEmbeddingWithCrossings.embedAll. */
+    @Test
+    public void testEcPlanarEmbeddingWithCrossingsEmbedAll() {
+        Graph graph = new Graph();
+        for (int i = 0; i < 20; i++) {
+            addCompleteGraph(graph, 1 + i % 5);
+        }
+
+        Map<Vertex, PlanarEmbeddingWithCrossings> embeddings = EcPlanarEmbeddingWithCrossings.embedAll(
+            graph, Collections.<Vertex, EcNode>emptyMap());
+        assertEquals(ParallelComponents.componentStarts(graph), new ArrayList<Vertex>(embeddings.keySet()));
+        for (Entry<Vertex, PlanarEmbeddingWithCrossings> entry : embeddings.entrySet()) {
+            PlanarEmbeddingWithCrossings embedding = entry.getValue();
+            assertEquals(component(entry.getKey()), embedding.originalVertexToVertex.keySet());
+            assertEquals(embedding.graph.vertices, embedding.embedding.clockwiseOrder.keySet());
+        }
+    }
+}
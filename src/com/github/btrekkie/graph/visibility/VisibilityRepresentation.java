@@ -1,24 +1,20 @@
 package com.github.btrekkie.graph.visibility;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
-import com.github.btrekkie.graph.MultiVertex;
 import com.github.btrekkie.graph.Vertex;
 import com.github.btrekkie.graph.dual.DualGraph;
 import com.github.btrekkie.graph.planar.PlanarAugmentation;
 import com.github.btrekkie.graph.planar.PlanarEmbedding;
-import com.github.btrekkie.util.UnorderedPair;
+import com.github.btrekkie.graph.planar.RotationSystem;
 
 /**
  * A weak visibility representation: a drawing of a planar Graph where vertices are horizontal line segments and edges
@@ -201,126 +197,107 @@ public class VisibilityRepresentation {
     }
 
     /**
-     * Adds the dual vertices corresponding to the faces that are the right face of one edge to oneLeftFaces and those
-     * corresponding to the faces that are the left face of one edge to oneRightFaces.
-     * @param embedding The planar embedding for the graph.
-     * @param dual The dual of the graph.
-     * @param stIndices A map from each vertex to its index in the topological ordering of the st-orienation of the
-     *     graph, as returned by stOrdering.
-     * @param oneLeftFaces The collection to which to add the "one left" faces.
-     * @param oneRightFaces The collection to which to add the "one right" faces.
+     * Computes which faces are the right face of one edge and which faces are the left face of one edge.
+     * @param dual The dual of the graph, as returned by DualGraph.compute.
+     * @param stIndices The index of each vertex in the topological ordering of the st-orientation of the graph, as
+     *     returned by stOrdering, indexed by vertex number in dual.rotationSystem.
+     * @param isOneLeftFaces The array in which to store whether each face is the right face of one edge, indexed by
+     *     face number in dual.rotationSystem.
+     * @param isOneRightFaces The array in which to store whether each face is the left face of one edge, indexed by
+     *     face number in dual.rotationSystem.
      */
     private static void oneFaces(
-            PlanarEmbedding embedding, DualGraph dual, Map<Vertex, Integer> stIndices,
-            Collection<MultiVertex> oneLeftFaces, Collection<MultiVertex> oneRightFaces) {
+            DualGraph dual, int[] stIndices, boolean[] isOneLeftFaces, boolean[] isOneRightFaces) {
         // Compute the number of edges adjacent to each face on each side
-        Map<MultiVertex, Integer> leftCounts = new HashMap<MultiVertex, Integer>();
-        Map<MultiVertex, Integer> rightCounts = new HashMap<MultiVertex, Integer>();
-        for (MultiVertex vertex : dual.graph.vertices) {
-            leftCounts.put(vertex, 0);
-            rightCounts.put(vertex, 0);
-        }
-        for (Vertex vertex : embedding.clockwiseOrder.keySet()) {
-            int index = stIndices.get(vertex);
-            for (Vertex adjVertex : vertex.edges) {
-                if (stIndices.get(adjVertex) > index) {
-                    MultiVertex leftFace = dual.leftFace(vertex, adjVertex);
-                    rightCounts.put(leftFace, rightCounts.get(leftFace) + 1);
-                    MultiVertex rightFace = dual.rightFace(vertex, adjVertex);
-                    leftCounts.put(rightFace, leftCounts.get(rightFace) + 1);
-                }
+        RotationSystem rotationSystem = dual.rotationSystem;
+        int[] leftCounts = new int[rotationSystem.faceCount()];
+        int[] rightCounts = new int[rotationSystem.faceCount()];
+        for (int edge = 0; edge < rotationSystem.halfEdgeCount(); edge++) {
+            if (stIndices[rotationSystem.target(edge)] > stIndices[rotationSystem.source(edge)]) {
+                rightCounts[dual.leftFace(edge)]++;
+                leftCounts[dual.rightFace(edge)]++;
             }
         }
 
-        for (Entry<MultiVertex, Integer> entry : leftCounts.entrySet()) {
-            if (entry.getValue() == 1) {
-                oneLeftFaces.add(entry.getKey());
-            }
-        }
-        for (Entry<MultiVertex, Integer> entry : rightCounts.entrySet()) {
-            if (entry.getValue() == 1) {
-                oneRightFaces.add(entry.getKey());
-            }
+        for (int face = 0; face < rotationSystem.faceCount(); face++) {
+            isOneLeftFaces[face] = leftCounts[face] == 1;
+            isOneRightFaces[face] = rightCounts[face] == 1;
         }
     }
 
     /**
-     * Returns a map from each vertex reachable from "start" to the length of the longest path from "start" to the
-     * vertex, using the specified edges rather than MultiVertex.edges.  The specified edges form a directed, acyclic
-     * graph.
+     * Returns the length of the longest path from "start" to each vertex reachable from "start" in the specified
+     * directed, acyclic graph.  The graph may contain multiple edges between the same pair of vertices.
      * @param start The starting vertex.
-     * @param edges A map from each vertex to all of the vertices to which it has an outgoing edge.
-     * @param weights A map from each edge to its weight (or length).  Each edge is represented as a pair of its
-     *     endpoints.
-     * @return The longest path lengths.
+     * @param vertexCount The number of vertices in the graph.
+     * @param edgeCount The number of edges in the graph.
+     * @param edgeStarts The start of each edge.
+     * @param edgeEnds The end of each edge.
+     * @param edgeWeights The weight (or length) of each edge.
+     * @return The longest path lengths, indexed by vertex.  The elements for the vertices that are not reachable from
+     *     "start" are unspecified.
      */
-    private static Map<MultiVertex, Integer> longestPathLengths(
-            MultiVertex start, Map<MultiVertex, Set<MultiVertex>> edges,
-            Map<UnorderedPair<MultiVertex>, Integer> weights) {
-        // Use an iterative implementation of depth-first search to compute a topological ordering.  The topological
-        // ordering is the reverse of a post-order traversal.
-        List<MultiVertex> topologicalOrder = new ArrayList<MultiVertex>(edges.size());
-        Set<MultiVertex> visited = new HashSet<MultiVertex>();
-        visited.add(start);
-        List<MultiVertex> path = new ArrayList<MultiVertex>();
-        path.add(start);
-        List<Iterator<MultiVertex>> pathIters = new ArrayList<Iterator<MultiVertex>>();
-        pathIters.add(edges.get(start).iterator());
-        while (!pathIters.isEmpty()) {
-            if (!pathIters.get(pathIters.size() - 1).hasNext()) {
-                pathIters.remove(pathIters.size() - 1);
-                MultiVertex vertex = path.remove(path.size() - 1);
-                topologicalOrder.add(vertex);
-            } else {
-                MultiVertex vertex = pathIters.get(pathIters.size() - 1).next();
-                if (visited.add(vertex)) {
-                    path.add(vertex);
-                    pathIters.add(edges.get(vertex).iterator());
-                }
-            }
+    private static int[] longestPathLengths(
+            int start, int vertexCount, int edgeCount, int[] edgeStarts, int[] edgeEnds, int[] edgeWeights) {
+        // Compute the outgoing edges of each vertex, as in CompactGraph
+        int[] offsets = new int[vertexCount + 1];
+        int[] inDegrees = new int[vertexCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            offsets[edgeStarts[edge] + 1]++;
+            inDegrees[edgeEnds[edge]]++;
         }
-        Collections.reverse(topologicalOrder);
-
-        // Compute the incoming edges: the inverse of "edges"
-        Map<MultiVertex, Collection<MultiVertex>> incomingEdges = new HashMap<MultiVertex, Collection<MultiVertex>>();
-        for (MultiVertex vertex : edges.keySet()) {
-            incomingEdges.put(vertex, new ArrayList<MultiVertex>());
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            offsets[vertex + 1] += offsets[vertex];
         }
-        for (Entry<MultiVertex, Set<MultiVertex>> entry : edges.entrySet()) {
-            MultiVertex vertex = entry.getKey();
-            for (MultiVertex adjVertex : entry.getValue()) {
-                incomingEdges.get(adjVertex).add(vertex);
-            }
+        int[] ends = Arrays.copyOf(offsets, vertexCount);
+        int[] outgoingEdges = new int[edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            outgoingEdges[ends[edgeStarts[edge]]] = edge;
+            ends[edgeStarts[edge]]++;
         }
 
-        // Compute the longest path lengths
-        Map<MultiVertex, Integer> longestPathLengths = new HashMap<MultiVertex, Integer>();
-        longestPathLengths.put(topologicalOrder.get(0), 0);
-        for (MultiVertex vertex : topologicalOrder.subList(1, topologicalOrder.size())) {
-            int longestPathLength = 0;
-            for (MultiVertex adjVertex : incomingEdges.get(vertex)) {
-                Integer predPathLength = longestPathLengths.get(adjVertex);
-                if (predPathLength != null) {
-                    UnorderedPair<MultiVertex> edge = new UnorderedPair<MultiVertex>(vertex, adjVertex);
-                    int pathLength = predPathLength + weights.get(edge);
-                    if (pathLength > longestPathLength) {
-                        longestPathLength = pathLength;
+        // Visit the vertices in topological order, using Kahn's algorithm
+        int[] queue = new int[vertexCount];
+        int queueSize = 0;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            if (inDegrees[vertex] == 0) {
+                queue[queueSize] = vertex;
+                queueSize++;
+            }
+        }
+        int[] longestPathLengths = new int[vertexCount];
+        boolean[] isReachable = new boolean[vertexCount];
+        isReachable[start] = true;
+        for (int i = 0; i < queueSize; i++) {
+            int vertex = queue[i];
+            for (int j = offsets[vertex]; j < offsets[vertex + 1]; j++) {
+                int edge = outgoingEdges[j];
+                int adjVertex = edgeEnds[edge];
+                if (isReachable[vertex] && adjVertex != start) {
+                    isReachable[adjVertex] = true;
+                    int pathLength = longestPathLengths[vertex] + edgeWeights[edge];
+                    if (pathLength > longestPathLengths[adjVertex]) {
+                        longestPathLengths[adjVertex] = pathLength;
                     }
                 }
+                inDegrees[adjVertex]--;
+                if (inDegrees[adjVertex] == 0) {
+                    queue[queueSize] = adjVertex;
+                    queueSize++;
+                }
             }
-            longestPathLengths.put(vertex, longestPathLength);
         }
         return longestPathLengths;
     }
 
     /**
-     * Returns a map from each dual vertex to the number of the corresponding face.
+     * Returns the number of each face, indexed by face number in dual.rotationSystem.
      * @param embedding The embedding for the graph.
-     * @param dual The dual of the graph.
-     * @param source The vertex S we are using for the st-orientation.
-     * @param sink The vertex T we are using for the st-orientation.
-     * @param stIndices A map from each vertex to its index in the topological ordering of the st-orienation of the
-     *     graph, as returned by stOrdering.
+     * @param dual The dual of the graph, as returned by DualGraph.compute.
+     * @param stIndices The index of each vertex in the topological ordering of the st-orientation of the graph, as
+     *     returned by stOrdering, indexed by vertex number in dual.rotationSystem.
+     * @param isOneLeftFaces Whether each face is the right face of one edge, as computed by oneFaces.
+     * @param isOneRightFaces Whether each face is the left face of one edge, as computed by oneFaces.
      * @param minVertexWidths A map from each vertex to its minimum width in the visibility representation.  Each value
      *     should be positive.
      * @param edgeBorder The minimum distance between the edges adjacent to a vertex.  This should be positive.
@@ -329,78 +306,77 @@ public class VisibilityRepresentation {
      *     should be nonnegative.
      * @return The face numbers.
      */
-    private static Map<MultiVertex, Integer> faceNumbers(
-            PlanarEmbedding embedding, DualGraph dual, Vertex source, Vertex sink, Map<Vertex, Integer> stIndices,
-            Map<Vertex, Integer> minVertexWidths,
+    private static int[] faceNumbers(
+            PlanarEmbedding embedding, DualGraph dual, int[] stIndices, boolean[] isOneLeftFaces,
+            boolean[] isOneRightFaces, Map<Vertex, Integer> minVertexWidths,
             int edgeBorder, int horizontalVertexMargin, int horizontalVertexPadding) {
-        Set<MultiVertex> oneLeftFaces = new HashSet<MultiVertex>();
-        Set<MultiVertex> oneRightFaces = new HashSet<MultiVertex>();
-        oneFaces(embedding, dual, stIndices, oneLeftFaces, oneRightFaces);
-
-        // Compute the edges and edge weights for the vertex margin and padding
-        MultiVertex zeroFace = dual.rightFace(source, sink);
-        MultiVertex externalFace = dual.leftFace(source, sink);
-        Map<UnorderedPair<MultiVertex>, Integer> weights = new LinkedHashMap<UnorderedPair<MultiVertex>, Integer>();
-        Map<MultiVertex, Set<MultiVertex>> edges = new LinkedHashMap<MultiVertex, Set<MultiVertex>>();
-        for (MultiVertex vertex : dual.graph.vertices) {
-            edges.put(vertex, new LinkedHashSet<MultiVertex>());
-        }
-        for (Vertex vertex : embedding.clockwiseOrder.keySet()) {
-            int index = stIndices.get(vertex);
-            for (Vertex adjVertex : vertex.edges) {
-                if (stIndices.get(adjVertex) > index && (vertex != source || adjVertex != sink)) {
-                    MultiVertex start = dual.leftFace(vertex, adjVertex);
-                    MultiVertex end = dual.rightFace(vertex, adjVertex);
-                    edges.get(start).add(end);
-                    int weight;
-                    if (oneLeftFaces.contains(end) || oneRightFaces.contains(end)) {
-                        weight = horizontalVertexMargin + horizontalVertexPadding;
-                    } else {
-                        weight = horizontalVertexMargin + 2 * horizontalVertexPadding;
-                    }
-                    weights.put(new UnorderedPair<MultiVertex>(start, end), weight);
+        // The edge from S to T is embedding.externalFaceEdge
+        RotationSystem rotationSystem = dual.rotationSystem;
+        int sourceSinkEdge = embedding.externalFaceEdge;
+        int source = rotationSystem.source(sourceSinkEdge);
+        int sink = rotationSystem.target(sourceSinkEdge);
+        int zeroFace = dual.rightFace(sourceSinkEdge);
+        int externalFace = dual.leftFace(sourceSinkEdge);
+
+        // Compute the edges and edge weights for the vertex margin and padding.  The graph may have several edges
+        // between a given pair of faces, so that the longest paths use the maximum weight of such edges.
+        int vertexCount = rotationSystem.vertexCount();
+        int capacity = 2 * rotationSystem.halfEdgeCount() + vertexCount;
+        int[] edgeStarts = new int[capacity];
+        int[] edgeEnds = new int[capacity];
+        int[] edgeWeights = new int[capacity];
+        int edgeCount = 0;
+        for (int edge = 0; edge < rotationSystem.halfEdgeCount(); edge++) {
+            if (stIndices[rotationSystem.target(edge)] > stIndices[rotationSystem.source(edge)] &&
+                    edge != sourceSinkEdge) {
+                int end = dual.rightFace(edge);
+                edgeStarts[edgeCount] = dual.leftFace(edge);
+                edgeEnds[edgeCount] = end;
+                if (isOneLeftFaces[end] || isOneRightFaces[end]) {
+                    edgeWeights[edgeCount] = horizontalVertexMargin + horizontalVertexPadding;
+                } else {
+                    edgeWeights[edgeCount] = horizontalVertexMargin + 2 * horizontalVertexPadding;
                 }
+                edgeCount++;
             }
         }
 
         // Include the edges and edge weights for the edge border and minimum vertex widths
-        for (Entry<Vertex, List<Vertex>> entry : embedding.clockwiseOrder.entrySet()) {
-            Vertex vertex = entry.getKey();
-            List<Vertex> clockwiseOrder = entry.getValue();
-            int index = stIndices.get(vertex);
-            Vertex prevVertex = clockwiseOrder.get(clockwiseOrder.size() - 1);
-            boolean prevIsUp = stIndices.get(prevVertex) > index;
-            Vertex firstUpVertex = null;
-            Vertex lastUpVertex = null;
-            for (int i = 0; i < clockwiseOrder.size(); i++) {
-                Vertex adjVertex = clockwiseOrder.get(i);
-                boolean isUp = stIndices.get(adjVertex) > index;
-
-                Vertex nextVertex;
-                if (i + 1 < clockwiseOrder.size()) {
-                    nextVertex = clockwiseOrder.get(i + 1);
-                } else {
-                    nextVertex = clockwiseOrder.get(0);
-                }
-                boolean nextIsUp = stIndices.get(nextVertex) > index;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            int index = stIndices[vertex];
+            int startEdge = rotationSystem.offset(vertex);
+            int endEdge = rotationSystem.offset(vertex + 1);
+            int prevVertex = rotationSystem.target(endEdge - 1);
+            boolean prevIsUp = stIndices[prevVertex] > index;
+            int firstUpEdge = -1;
+            int lastUpEdge = -1;
+            for (int edge = startEdge; edge < endEdge; edge++) {
+                int adjVertex = rotationSystem.target(edge);
+                boolean isUp = stIndices[adjVertex] > index;
+                int nextVertex = rotationSystem.target(rotationSystem.nextClockwise(edge));
+                boolean nextIsUp = stIndices[nextVertex] > index;
 
                 if (((isUp && nextIsUp) || (!isUp && !prevIsUp)) &&
                         (vertex != source || (adjVertex != sink && nextVertex != sink)) &&
                         (vertex != sink || (adjVertex != source && prevVertex != source))) {
-                    MultiVertex start = dual.leftFace(vertex, adjVertex);
-                    MultiVertex end = dual.rightFace(vertex, adjVertex);
-                    UnorderedPair<MultiVertex> edge = new UnorderedPair<MultiVertex>(start, end);
-                    if (edgeBorder > weights.get(edge)) {
-                        weights.put(edge, edgeBorder);
+                    // Orient the dual edge for the edge between "vertex" and adjVertex from left to right
+                    if (isUp) {
+                        edgeStarts[edgeCount] = dual.leftFace(edge);
+                        edgeEnds[edgeCount] = dual.rightFace(edge);
+                    } else {
+                        edgeStarts[edgeCount] = dual.rightFace(edge);
+                        edgeEnds[edgeCount] = dual.leftFace(edge);
                     }
+                    edgeWeights[edgeCount] = edgeBorder;
+                    edgeCount++;
                 }
 
                 if (isUp) {
                     if (!prevIsUp) {
-                        firstUpVertex = adjVertex;
+                        firstUpEdge = edge;
                     }
                     if (!nextIsUp) {
-                        lastUpVertex = adjVertex;
+                        lastUpEdge = edge;
                     }
                 }
                 prevVertex = adjVertex;
@@ -408,36 +384,33 @@ public class VisibilityRepresentation {
             }
 
             // Include the edge and edge weight for the minimum vertex width
-            MultiVertex start;
-            MultiVertex end;
+            int start;
+            int end;
             if (vertex != source && vertex != sink) {
-                start = dual.leftFace(vertex, firstUpVertex);
-                end = dual.rightFace(vertex, lastUpVertex);
+                start = dual.leftFace(firstUpEdge);
+                end = dual.rightFace(lastUpEdge);
             } else {
                 start = zeroFace;
                 end = externalFace;
             }
-            int weight;
-            if (oneRightFaces.contains(end)) {
-                weight = minVertexWidths.get(vertex) + horizontalVertexMargin - horizontalVertexPadding;
+            int minVertexWidth = minVertexWidths.get(rotationSystem.vertex(vertex));
+            edgeStarts[edgeCount] = start;
+            edgeEnds[edgeCount] = end;
+            if (isOneRightFaces[end]) {
+                edgeWeights[edgeCount] = minVertexWidth + horizontalVertexMargin - horizontalVertexPadding;
             } else {
-                weight = minVertexWidths.get(vertex) + horizontalVertexMargin;
+                edgeWeights[edgeCount] = minVertexWidth + horizontalVertexMargin;
             }
-            UnorderedPair<MultiVertex> edge = new UnorderedPair<MultiVertex>(start, end);
-            Integer oldWeight = weights.get(edge);
-            if (oldWeight == null || weight > oldWeight) {
-                weights.put(edge, weight);
-            }
-            edges.get(start).add(end);
+            edgeCount++;
         }
 
         // Compute the face numbers.  Leave minFaceNumber space at the left for the edge from S to T.
-        Map<MultiVertex, Integer> longestPathLengths = longestPathLengths(zeroFace, edges, weights);
-        Map<MultiVertex, Integer> faceNumbers = new HashMap<MultiVertex, Integer>();
+        int[] faceNumbers = longestPathLengths(
+            zeroFace, rotationSystem.faceCount(), edgeCount, edgeStarts, edgeEnds, edgeWeights);
         int minFaceNumber = horizontalVertexPadding +
             Math.max(edgeBorder, horizontalVertexMargin + horizontalVertexPadding);
-        for (Entry<MultiVertex, Integer> entry : longestPathLengths.entrySet()) {
-            faceNumbers.put(entry.getKey(), entry.getValue() + minFaceNumber);
+        for (int face = 0; face < faceNumbers.length; face++) {
+            faceNumbers[face] += minFaceNumber;
         }
         return faceNumbers;
     }
@@ -486,54 +459,57 @@ public class VisibilityRepresentation {
         Vertex source = embedding.externalFace.get(0);
         Vertex sink = embedding.externalFace.get(1);
         List<Vertex> stOrdering = stOrdering(source, sink);
-        Map<Vertex, Integer> stIndices = new HashMap<Vertex, Integer>();
+        RotationSystem rotationSystem = embedding.rotationSystem;
+        int[] stIndices = new int[rotationSystem.vertexCount()];
         int index = 0;
         for (Vertex vertex : stOrdering) {
-            stIndices.put(vertex, index);
+            stIndices[rotationSystem.vertexIndex(vertex)] = index;
             index++;
         }
 
         // Compute the vertex and face numbers
         Map<Vertex, Integer> vertexNumbers = vertexNumbers(stOrdering, minVertexVerticalSpace);
         DualGraph dual = DualGraph.compute(embedding);
-        Map<MultiVertex, Integer> faceNumbers = faceNumbers(
-            embedding, dual, source, sink, stIndices, minVertexWidths,
+        boolean[] isOneLeftFaces = new boolean[rotationSystem.faceCount()];
+        boolean[] isOneRightFaces = new boolean[rotationSystem.faceCount()];
+        oneFaces(dual, stIndices, isOneLeftFaces, isOneRightFaces);
+        int[] faceNumbers = faceNumbers(
+            embedding, dual, stIndices, isOneLeftFaces, isOneRightFaces, minVertexWidths,
             edgeBorder, horizontalVertexMargin, horizontalVertexPadding);
 
         // Create the VisibilityVertex objects
-        MultiVertex externalFace = dual.leftFace(source, sink);
-        Set<MultiVertex> oneRightFaces = new HashSet<MultiVertex>();
-        oneFaces(embedding, dual, stIndices, new ArrayList<MultiVertex>(), oneRightFaces);
+        int externalFace = dual.leftFace(embedding.externalFaceEdge);
         int maxVertexNumber = vertexNumbers.get(sink);
-        Map<Vertex, VisibilityVertex> visibilityVertices = new HashMap<Vertex, VisibilityVertex>();
-        for (Entry<Vertex, List<Vertex>> entry : embedding.clockwiseOrder.entrySet()) {
-            Vertex vertex = entry.getKey();
+        VisibilityVertex[] visibilityVertices = new VisibilityVertex[rotationSystem.vertexCount()];
+        Map<Vertex, VisibilityVertex> vertexToVisibilityVertex = new HashMap<Vertex, VisibilityVertex>();
+        for (int vertex = 0; vertex < rotationSystem.vertexCount(); vertex++) {
+            Vertex primalVertex = rotationSystem.vertex(vertex);
             int minX;
             int maxX;
-            if (vertex == source || vertex == sink) {
+            if (primalVertex == source || primalVertex == sink) {
                 minX = 0;
-                maxX = faceNumbers.get(externalFace) - horizontalVertexMargin;
+                maxX = faceNumbers[externalFace] - horizontalVertexMargin;
             } else {
                 minX = -1;
                 maxX = -1;
-                List<Vertex> clockwiseOrder = entry.getValue();
-                index = stIndices.get(vertex);
-                boolean prevIsUp = stIndices.get(clockwiseOrder.get(clockwiseOrder.size() - 1)) > index;
-                for (Vertex adjVertex : clockwiseOrder) {
-                    boolean isUp = stIndices.get(adjVertex) > index;
+                index = stIndices[vertex];
+                int endEdge = rotationSystem.offset(vertex + 1);
+                boolean prevIsUp = stIndices[rotationSystem.target(endEdge - 1)] > index;
+                for (int edge = rotationSystem.offset(vertex); edge < endEdge; edge++) {
+                    boolean isUp = stIndices[rotationSystem.target(edge)] > index;
                     if (isUp && !prevIsUp) {
                         // Left face of "vertex"
-                        minX = faceNumbers.get(dual.leftFace(vertex, adjVertex)) - horizontalVertexPadding;
+                        minX = faceNumbers[dual.leftFace(edge)] - horizontalVertexPadding;
                         if (maxX >= 0) {
                             break;
                         }
                     } else if (!isUp && prevIsUp) {
                         // Right face of "vertex"
-                        MultiVertex face = dual.leftFace(vertex, adjVertex);
-                        if (oneRightFaces.contains(face)) {
-                            maxX = faceNumbers.get(face) - horizontalVertexMargin;
+                        int face = dual.leftFace(edge);
+                        if (isOneRightFaces[face]) {
+                            maxX = faceNumbers[face] - horizontalVertexMargin;
                         } else {
-                            maxX = faceNumbers.get(face) - horizontalVertexMargin - horizontalVertexPadding;
+                            maxX = faceNumbers[face] - horizontalVertexMargin - horizontalVertexPadding;
                         }
                         if (minX >= 0) {
                             break;
@@ -544,32 +520,31 @@ public class VisibilityRepresentation {
             }
 
             VisibilityVertex visibilityVertex = new VisibilityVertex(
-                vertex, maxVertexNumber - vertexNumbers.get(vertex), minX, maxX);
-            visibilityVertices.put(vertex, visibilityVertex);
+                primalVertex, maxVertexNumber - vertexNumbers.get(primalVertex), minX, maxX);
+            visibilityVertices[vertex] = visibilityVertex;
+            vertexToVisibilityVertex.put(primalVertex, visibilityVertex);
         }
 
         // Create the VisibilityEdge objects
-        VisibilityVertex visibilitySource = visibilityVertices.get(source);
-        VisibilityVertex visibilitySink = visibilityVertices.get(sink);
+        VisibilityVertex visibilitySource = vertexToVisibilityVertex.get(source);
+        VisibilityVertex visibilitySink = vertexToVisibilityVertex.get(sink);
         VisibilityEdge edge = new VisibilityEdge(visibilitySource, visibilitySink, horizontalVertexPadding);
         visibilitySource.edges.add(edge);
         visibilitySink.edges.add(edge);
-        for (Entry<Vertex, List<Vertex>> entry : embedding.clockwiseOrder.entrySet()) {
-            Vertex vertex = entry.getKey();
-            VisibilityVertex visibilityVertex = visibilityVertices.get(vertex);
-            index = stIndices.get(vertex);
-            for (Vertex adjVertex : entry.getValue()) {
-                if (stIndices.get(adjVertex) > index && (vertex != source || adjVertex != sink)) {
-                    VisibilityVertex adjVisibilityVertex = visibilityVertices.get(adjVertex);
-                    MultiVertex face = dual.leftFace(vertex, adjVertex);
-                    edge = new VisibilityEdge(visibilityVertex, adjVisibilityVertex, faceNumbers.get(face));
-                    visibilityVertex.edges.add(edge);
-                    adjVisibilityVertex.edges.add(edge);
-                }
+        for (int halfEdge = 0; halfEdge < rotationSystem.halfEdgeCount(); halfEdge++) {
+            int vertex = rotationSystem.source(halfEdge);
+            int adjVertex = rotationSystem.target(halfEdge);
+            if (stIndices[adjVertex] > stIndices[vertex] && halfEdge != embedding.externalFaceEdge) {
+                VisibilityVertex visibilityVertex = visibilityVertices[vertex];
+                VisibilityVertex adjVisibilityVertex = visibilityVertices[adjVertex];
+                edge = new VisibilityEdge(
+                    visibilityVertex, adjVisibilityVertex, faceNumbers[dual.leftFace(halfEdge)]);
+                visibilityVertex.edges.add(edge);
+                adjVisibilityVertex.edges.add(edge);
             }
         }
 
-        return new VisibilityRepresentation(visibilityVertices);
+        return new VisibilityRepresentation(vertexToVisibilityVertex);
     }
 
     /**
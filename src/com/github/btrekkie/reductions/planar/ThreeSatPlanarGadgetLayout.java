@@ -20,6 +20,8 @@ import com.github.btrekkie.graph.Graph;
 import com.github.btrekkie.graph.Vertex;
 import com.github.btrekkie.graph.ec.EcNode;
 import com.github.btrekkie.graph.ec.EcPlanarEmbeddingWithCrossings;
+import com.github.btrekkie.graph.ec.EcPlanarEmbeddingWithCrossings.InsertionMode;
+import com.github.btrekkie.graph.ec.InsertionModeComparison;
 import com.github.btrekkie.graph.planar.PlanarEmbedding;
 import com.github.btrekkie.graph.planar.PlanarEmbeddingWithCrossings;
 import com.github.btrekkie.reductions.bool.Literal;
@@ -697,6 +699,34 @@ public class ThreeSatPlanarGadgetLayout {
         return embeddingCrossVertexOrder;
     }
 
+    /**
+     * Returns the number of crossings in the PlanarEmbeddingWithCrossings that "layout" would compute for the initial
+     * graph for the reduction from the specified 3-SAT problem using each InsertionMode, as in
+     * EcPlanarEmbeddingWithCrossings.compareInsertionModes.  "layout" uses InsertionMode.VARIABLE_EMBEDDING.  Each
+     * crossing results in a crossover gadget.
+     * @param threeSat The 3-SAT problem.
+     * @param threeSatFactory The factory to use to create gadgets for the reduction.
+     * @param startGadget The starting gadget for the reduction.
+     * @param startPort The index in startGadget.ports() of the starting gadget port to use for the reduction.
+     * @param finishGadget The ending gadget for the reduction.
+     * @param finishPort The index in finishGadget.ports() of the ending gadget port to use for the reduction.
+     * @return The comparison.
+     */
+    public static InsertionModeComparison compareInsertionModes(
+            ThreeSat threeSat, I3SatPlanarGadgetFactory threeSatFactory, IPlanarGadget startGadget, int startPort,
+            IPlanarGadget finishGadget, int finishPort) {
+        Map<Vertex, IPlanarGadget> gadgets = new HashMap<Vertex, IPlanarGadget>();
+        Map<Vertex, Map<Vertex, Integer>> minPorts = new HashMap<Vertex, Map<Vertex, Integer>>();
+        Map<Vertex, Map<Vertex, Integer>> maxPorts = new HashMap<Vertex, Map<Vertex, Integer>>();
+        Map<Vertex, List<Vertex>> clauseEdges = new LinkedHashMap<Vertex, List<Vertex>>();
+        Graph graph = initialGraph(
+            threeSat, threeSatFactory, startGadget, startPort, finishGadget, finishPort, gadgets, minPorts, maxPorts,
+            clauseEdges, new ArrayList<List<Vertex>>());
+        Map<Vertex, EcNode> constraints = constraints(
+            minPorts, maxPorts, clauseEdges, new HashMap<Vertex, SortedMap<Integer, Collection<Vertex>>>());
+        return EcPlanarEmbeddingWithCrossings.compareInsertionModes(graph.vertices.iterator().next(), constraints);
+    }
+
     /**
      * Creates and positions IPlanarGadgets in order to form a reduction from a 3-SAT problem.  This uses gadgets with
      * certain functions produced by the specified I3SatPlanarGadgetFactory, IPlanarWireFactory, and
@@ -733,7 +763,7 @@ public class ThreeSatPlanarGadgetLayout {
             new HashMap<Vertex, SortedMap<Integer, Collection<Vertex>>>();
         Map<Vertex, EcNode> constraints = constraints(minPorts, maxPorts, clauseEdges, minPortGroups);
         PlanarEmbeddingWithCrossings embedding = EcPlanarEmbeddingWithCrossings.embed(
-            graph.vertices.iterator().next(), constraints);
+            graph.vertices.iterator().next(), constraints, InsertionMode.VARIABLE_EMBEDDING);
         Map<Vertex, Vertex> vertexToEmbeddingVertex = embedding.originalVertexToVertex;
 
         // Compute the final graph
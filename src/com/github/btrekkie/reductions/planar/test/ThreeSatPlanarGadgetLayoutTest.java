@@ -1,6 +1,7 @@
 package com.github.btrekkie.reductions.planar.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -16,6 +17,7 @@ import java.util.Set;
 
 import org.junit.Test;
 
+import com.github.btrekkie.graph.ec.InsertionModeComparison;
 import com.github.btrekkie.reductions.bool.Literal;
 import com.github.btrekkie.reductions.bool.ThreeSat;
 import com.github.btrekkie.reductions.bool.ThreeSatClause;
@@ -308,4 +310,76 @@ public class ThreeSatPlanarGadgetLayoutTest {
         threeSat = new ThreeSat(Arrays.asList(clause1, clause2, clause3, clause4, clause5));
         checkLayout(threeSat, new TestWireFactory(3, 3), new TestBarrierFactory(1, 1));
     }
+
+    /**
+     * Asserts that ThreeSatPlanarGadgetLayout.compareInsertionModes produces no more crossings using
+     * InsertionMode.VARIABLE_EMBEDDING than using InsertionMode.FIXED_EMBEDDING for the specified 3-SAT problem.
+     */
+    private void checkCompareInsertionModes(ThreeSat threeSat) {
+        InsertionModeComparison comparison = ThreeSatPlanarGadgetLayout.compareInsertionModes(
+            threeSat, Test3SatPlanarGadgetFactory.instance, new TestTerminalGadget(), 0, new TestTerminalGadget(), 0);
+        assertTrue(comparison.fixedCrossingCount >= 0);
+        assertTrue(comparison.variableCrossingCount >= 0);
+        assertTrue(comparison.variableCrossingCount <= comparison.fixedCrossingCount);
+    }
+
+    /** Tests ThreeSatPlanarGadgetLayout.compareInsertionModes. */
+    @Test
+    public void testCompareInsertionModes() {
+        Variable variable1 = new Variable();
+        Variable variable2 = new Variable();
+        Variable variable3 = new Variable();
+        Variable variable4 = new Variable();
+        ThreeSatClause clause1 = new ThreeSatClause(
+            new Literal(variable1, true), new Literal(variable3, true), new Literal(variable4, true));
+        ThreeSatClause clause2 = new ThreeSatClause(
+            new Literal(variable2, false), new Literal(variable3, false), new Literal(variable4, true));
+        ThreeSatClause clause3 = new ThreeSatClause(
+            new Literal(variable1, false), new Literal(variable2, true), new Literal(variable4, false));
+        ThreeSatClause clause4 = new ThreeSatClause(
+            new Literal(variable1, false), new Literal(variable3, false), new Literal(variable4, false));
+        ThreeSatClause clause5 = new ThreeSatClause(
+            new Literal(variable1, true), new Literal(variable2, false), new Literal(variable3, true));
+        checkCompareInsertionModes(new ThreeSat(Arrays.asList(clause1, clause2, clause3, clause4, clause5)));
+
+        Variable variable5 = new Variable();
+        Variable variable6 = new Variable();
+        clause1 = new ThreeSatClause(
+            new Literal(variable3, true), new Literal(variable5, false), new Literal(variable3, true));
+        clause2 = new ThreeSatClause(
+            new Literal(variable1, false), new Literal(variable5, true), new Literal(variable2, true));
+        clause3 = new ThreeSatClause(
+            new Literal(variable4, true), new Literal(variable6, false), new Literal(variable5, false));
+        clause4 = new ThreeSatClause(
+            new Literal(variable4, true), new Literal(variable4, false), new Literal(variable1, true));
+        clause5 = new ThreeSatClause(
+            new Literal(variable5, false), new Literal(variable5, false), new Literal(variable6, false));
+        ThreeSatClause clause6 = new ThreeSatClause(
+            new Literal(variable1, true), new Literal(variable4, false), new Literal(variable4, true));
+        ThreeSatClause clause7 = new ThreeSatClause(
+            new Literal(variable3, true), new Literal(variable5, true), new Literal(variable4, false));
+        ThreeSatClause clause8 = new ThreeSatClause(
+            new Literal(variable3, false), new Literal(variable1, true), new Literal(variable5, true));
+        checkCompareInsertionModes(
+            new ThreeSat(Arrays.asList(clause1, clause2, clause3, clause4, clause5, clause6, clause7, clause8)));
+
+        clause1 = new ThreeSatClause(
+            new Literal(variable2, true), new Literal(variable2, false), new Literal(variable1, false));
+        clause2 = new ThreeSatClause(
+            new Literal(variable2, true), new Literal(variable3, false), new Literal(variable3, false));
+        clause3 = new ThreeSatClause(
+            new Literal(variable2, true), new Literal(variable2, true), new Literal(variable3, true));
+        clause4 = new ThreeSatClause(
+            new Literal(variable2, false), new Literal(variable2, true), new Literal(variable2, true));
+        clause5 = new ThreeSatClause(
+            new Literal(variable3, true), new Literal(variable1, true), new Literal(variable1, true));
+        clause6 = new ThreeSatClause(
+            new Literal(variable2, false), new Literal(variable2, false), new Literal(variable2, true));
+        clause7 = new ThreeSatClause(
+            new Literal(variable2, true), new Literal(variable2, true), new Literal(variable1, true));
+        clause8 = new ThreeSatClause(
+            new Literal(variable1, true), new Literal(variable2, true), new Literal(variable3, false));
+        checkCompareInsertionModes(
+            new ThreeSat(Arrays.asList(clause1, clause2, clause3, clause4, clause5, clause6, clause7, clause8)));
+    }
 }